@@ -0,0 +1,264 @@
+/*
+ * Copyright <2021> Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ */
+
+package software.amazon.documentdb.jdbc;
+
+import com.mongodb.event.CommandFailedEvent;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandSucceededEvent;
+import com.mongodb.event.ConnectionCheckOutFailedEvent;
+import com.mongodb.event.ConnectionCheckOutStartedEvent;
+import com.mongodb.event.ConnectionCheckedInEvent;
+import com.mongodb.event.ConnectionCheckedOutEvent;
+import com.mongodb.event.ConnectionClosedEvent;
+import com.mongodb.event.ConnectionCreatedEvent;
+import com.mongodb.event.ConnectionPoolClearedEvent;
+import com.mongodb.event.ConnectionPoolListener;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Collects connection pool and command metrics of a client from the driver events.
+ */
+public class DocumentDbClientMetrics
+        implements ConnectionPoolListener, CommandListener, DocumentDbClientMetricsMBean {
+    private final LongAdder connectionsCreated = new LongAdder();
+    private final LongAdder connectionsClosed = new LongAdder();
+    private final AtomicLong connectionsCheckedOut = new AtomicLong();
+    private final LongAdder checkOutFailedCount = new LongAdder();
+    private final LongAdder poolClearedCount = new LongAdder();
+    private final LatencyHistogram checkOutWait = new LatencyHistogram();
+    private final ConcurrentMap<String, LatencyHistogram> commandLatencies = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, LongAdder> commandFailures = new ConcurrentHashMap<>();
+    // Connections are checked out on the thread running the operation.
+    private final ThreadLocal<Long> checkOutStarted = new ThreadLocal<>();
+
+    @Override
+    public void connectionCreated(final ConnectionCreatedEvent event) {
+        connectionsCreated.increment();
+    }
+
+    @Override
+    public void connectionClosed(final ConnectionClosedEvent event) {
+        connectionsClosed.increment();
+    }
+
+    @Override
+    public void connectionCheckOutStarted(final ConnectionCheckOutStartedEvent event) {
+        checkOutStarted.set(System.nanoTime());
+    }
+
+    @Override
+    public void connectionCheckedOut(final ConnectionCheckedOutEvent event) {
+        connectionsCheckedOut.incrementAndGet();
+        checkOutWait.record(getCheckOutWaitNanos());
+    }
+
+    @Override
+    public void connectionCheckOutFailed(final ConnectionCheckOutFailedEvent event) {
+        checkOutFailedCount.increment();
+        checkOutWait.record(getCheckOutWaitNanos());
+    }
+
+    @Override
+    public void connectionCheckedIn(final ConnectionCheckedInEvent event) {
+        connectionsCheckedOut.decrementAndGet();
+    }
+
+    @Override
+    public void connectionPoolCleared(final ConnectionPoolClearedEvent event) {
+        poolClearedCount.increment();
+    }
+
+    @Override
+    public void commandSucceeded(final CommandSucceededEvent event) {
+        getCommandLatency(event.getCommandName()).record(event.getElapsedTime(TimeUnit.NANOSECONDS));
+    }
+
+    @Override
+    public void commandFailed(final CommandFailedEvent event) {
+        getCommandLatency(event.getCommandName()).record(event.getElapsedTime(TimeUnit.NANOSECONDS));
+        commandFailures.computeIfAbsent(event.getCommandName(), k -> new LongAdder()).increment();
+    }
+
+    @Override
+    public long getConnectionsCreated() {
+        return connectionsCreated.sum();
+    }
+
+    @Override
+    public long getConnectionsClosed() {
+        return connectionsClosed.sum();
+    }
+
+    @Override
+    public long getConnectionsOpen() {
+        return getConnectionsCreated() - getConnectionsClosed();
+    }
+
+    @Override
+    public long getConnectionsCheckedOut() {
+        return connectionsCheckedOut.get();
+    }
+
+    @Override
+    public long getCheckOutCount() {
+        return checkOutWait.getCount() - getCheckOutFailedCount();
+    }
+
+    @Override
+    public long getCheckOutFailedCount() {
+        return checkOutFailedCount.sum();
+    }
+
+    @Override
+    public double getCheckOutWaitMeanMillis() {
+        return checkOutWait.getMeanMillis();
+    }
+
+    @Override
+    public long getCheckOutWaitMaxMillis() {
+        return checkOutWait.getMaxMillis();
+    }
+
+    @Override
+    public long getCheckOutWaitPercentileMillis(final double percentile) {
+        return checkOutWait.getPercentileMillis(percentile);
+    }
+
+    @Override
+    public long getPoolClearedCount() {
+        return poolClearedCount.sum();
+    }
+
+    @Override
+    public String[] getCommandNames() {
+        return commandLatencies.keySet().stream().sorted().toArray(String[]::new);
+    }
+
+    @Override
+    public long getCommandCount(final String commandName) {
+        final LatencyHistogram latency = commandLatencies.get(commandName);
+        return latency != null ? latency.getCount() : 0;
+    }
+
+    @Override
+    public long getCommandFailedCount(final String commandName) {
+        final LongAdder failures = commandFailures.get(commandName);
+        return failures != null ? failures.sum() : 0;
+    }
+
+    @Override
+    public double getCommandLatencyMeanMillis(final String commandName) {
+        final LatencyHistogram latency = commandLatencies.get(commandName);
+        return latency != null ? latency.getMeanMillis() : 0;
+    }
+
+    @Override
+    public long getCommandLatencyMaxMillis(final String commandName) {
+        final LatencyHistogram latency = commandLatencies.get(commandName);
+        return latency != null ? latency.getMaxMillis() : 0;
+    }
+
+    @Override
+    public long getCommandLatencyPercentileMillis(final String commandName, final double percentile) {
+        final LatencyHistogram latency = commandLatencies.get(commandName);
+        return latency != null ? latency.getPercentileMillis(percentile) : 0;
+    }
+
+    private LatencyHistogram getCommandLatency(final String commandName) {
+        return commandLatencies.computeIfAbsent(commandName, k -> new LatencyHistogram());
+    }
+
+    private long getCheckOutWaitNanos() {
+        final Long started = checkOutStarted.get();
+        checkOutStarted.remove();
+        return started != null ? System.nanoTime() - started : 0;
+    }
+
+    /**
+     * A lock-free histogram of latencies with fixed millisecond buckets.
+     */
+    static class LatencyHistogram {
+        private static final long[] BUCKET_UPPER_BOUNDS_MILLIS = {
+                1, 2, 5, 10, 20, 50, 100, 200, 500, 1_000, 2_000, 5_000, 10_000, 30_000, 60_000, Long.MAX_VALUE};
+        private final AtomicLongArray bucketCounts = new AtomicLongArray(BUCKET_UPPER_BOUNDS_MILLIS.length);
+        private final LongAdder count = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final AtomicLong maxNanos = new AtomicLong();
+
+        /**
+         * Records a latency.
+         *
+         * @param nanos the latency in nanoseconds.
+         */
+        void record(final long nanos) {
+            final long value = Math.max(nanos, 0);
+            final long millis = TimeUnit.NANOSECONDS.toMillis(value);
+            int bucket = 0;
+            while (millis >= BUCKET_UPPER_BOUNDS_MILLIS[bucket]
+                    && bucket < BUCKET_UPPER_BOUNDS_MILLIS.length - 1) {
+                bucket++;
+            }
+            bucketCounts.incrementAndGet(bucket);
+            count.increment();
+            totalNanos.add(value);
+            maxNanos.accumulateAndGet(value, Math::max);
+        }
+
+        long getCount() {
+            return count.sum();
+        }
+
+        double getMeanMillis() {
+            final long n = count.sum();
+            return n == 0 ? 0 : (double) totalNanos.sum() / n / TimeUnit.MILLISECONDS.toNanos(1);
+        }
+
+        long getMaxMillis() {
+            return TimeUnit.NANOSECONDS.toMillis(maxNanos.get());
+        }
+
+        /**
+         * Gets the upper bound of the bucket containing the given percentile. The last bucket is
+         * bounded by the maximum recorded latency.
+         *
+         * @param percentile the percentile between 0 and 100.
+         * @return the upper bound of the percentile in milliseconds.
+         */
+        long getPercentileMillis(final double percentile) {
+            final long n = count.sum();
+            if (n == 0) {
+                return 0;
+            }
+            final double boundedPercentile = Math.min(Math.max(percentile, 0), 100);
+            final long rank = Math.max(1, (long) Math.ceil(boundedPercentile / 100 * n));
+            long seen = 0;
+            for (int bucket = 0; bucket < BUCKET_UPPER_BOUNDS_MILLIS.length; bucket++) {
+                seen += bucketCounts.get(bucket);
+                if (seen >= rank) {
+                    return Math.min(BUCKET_UPPER_BOUNDS_MILLIS[bucket], getMaxMillis());
+                }
+            }
+            return getMaxMillis();
+        }
+    }
+}
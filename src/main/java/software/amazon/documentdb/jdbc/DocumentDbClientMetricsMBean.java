@@ -0,0 +1,142 @@
+/*
+ * Copyright <2021> Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ */
+
+package software.amazon.documentdb.jdbc;
+
+/**
+ * The JMX management interface of the connection pool and command metrics of a client.
+ */
+public interface DocumentDbClientMetricsMBean {
+
+    /**
+     * Gets the number of connections created by the connection pool.
+     *
+     * @return the number of connections created.
+     */
+    long getConnectionsCreated();
+
+    /**
+     * Gets the number of connections closed by the connection pool.
+     *
+     * @return the number of connections closed.
+     */
+    long getConnectionsClosed();
+
+    /**
+     * Gets the number of connections currently open in the connection pool.
+     *
+     * @return the number of open connections.
+     */
+    long getConnectionsOpen();
+
+    /**
+     * Gets the number of connections currently checked out of the connection pool.
+     *
+     * @return the number of checked out connections.
+     */
+    long getConnectionsCheckedOut();
+
+    /**
+     * Gets the number of successful connection check outs.
+     *
+     * @return the number of check outs.
+     */
+    long getCheckOutCount();
+
+    /**
+     * Gets the number of failed connection check outs, for example, because of a wait timeout.
+     *
+     * @return the number of failed check outs.
+     */
+    long getCheckOutFailedCount();
+
+    /**
+     * Gets the mean time waited to check out a connection.
+     *
+     * @return the mean wait time in milliseconds.
+     */
+    double getCheckOutWaitMeanMillis();
+
+    /**
+     * Gets the maximum time waited to check out a connection.
+     *
+     * @return the maximum wait time in milliseconds.
+     */
+    long getCheckOutWaitMaxMillis();
+
+    /**
+     * Gets an upper bound of the given percentile of the time waited to check out a connection.
+     *
+     * @param percentile the percentile between 0 and 100.
+     * @return the upper bound of the percentile in milliseconds.
+     */
+    long getCheckOutWaitPercentileMillis(double percentile);
+
+    /**
+     * Gets the number of times the connection pool was cleared.
+     *
+     * @return the number of times the pool was cleared.
+     */
+    long getPoolClearedCount();
+
+    /**
+     * Gets the names of the commands executed.
+     *
+     * @return the command names.
+     */
+    String[] getCommandNames();
+
+    /**
+     * Gets the number of times the command was executed.
+     *
+     * @param commandName the name of the command.
+     * @return the number of executions.
+     */
+    long getCommandCount(String commandName);
+
+    /**
+     * Gets the number of times the command failed.
+     *
+     * @param commandName the name of the command.
+     * @return the number of failures.
+     */
+    long getCommandFailedCount(String commandName);
+
+    /**
+     * Gets the mean latency of the command.
+     *
+     * @param commandName the name of the command.
+     * @return the mean latency in milliseconds.
+     */
+    double getCommandLatencyMeanMillis(String commandName);
+
+    /**
+     * Gets the maximum latency of the command.
+     *
+     * @param commandName the name of the command.
+     * @return the maximum latency in milliseconds.
+     */
+    long getCommandLatencyMaxMillis(String commandName);
+
+    /**
+     * Gets an upper bound of the given percentile of the latency of the command.
+     *
+     * @param commandName the name of the command.
+     * @param percentile the percentile between 0 and 100.
+     * @return the upper bound of the percentile in milliseconds.
+     */
+    long getCommandLatencyPercentileMillis(String commandName, double percentile);
+}
@@ -0,0 +1,39 @@
+/*
+ * Copyright <2021> Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ */
+
+package software.amazon.documentdb.jdbc;
+
+/**
+ * Publishes the counts of the clients shared by the connections of the process, as kept by
+ * {@link DocumentDbMongoClientRegistry}.
+ */
+public class DocumentDbClientRegistryMetrics implements DocumentDbClientRegistryMetricsMBean {
+
+    @Override
+    public long getCreatedCount() {
+        return DocumentDbMongoClientRegistry.getCreatedCount();
+    }
+
+    @Override
+    public long getReusedCount() {
+        return DocumentDbMongoClientRegistry.getReusedCount();
+    }
+
+    @Override
+    public int getOpenClientCount() {
+        return DocumentDbMongoClientRegistry.getOpenClientCount();
+    }
+}
@@ -0,0 +1,45 @@
+/*
+ * Copyright <2021> Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ */
+
+package software.amazon.documentdb.jdbc;
+
+/**
+ * The JMX management interface of the metrics of the clients shared by the connections of the
+ * process.
+ */
+public interface DocumentDbClientRegistryMetricsMBean {
+
+    /**
+     * Gets the number of clients created.
+     *
+     * @return the number of clients created.
+     */
+    long getCreatedCount();
+
+    /**
+     * Gets the number of times an existing client was reused for a connection.
+     *
+     * @return the number of times a client was reused.
+     */
+    long getReusedCount();
+
+    /**
+     * Gets the number of clients currently open.
+     *
+     * @return the number of open clients.
+     */
+    int getOpenClientCount();
+}
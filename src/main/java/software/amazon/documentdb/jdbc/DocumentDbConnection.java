@@ -28,17 +28,19 @@ import software.amazon.documentdb.jdbc.common.Connection;
 import software.amazon.documentdb.jdbc.common.utilities.SqlError;
 import software.amazon.documentdb.jdbc.common.utilities.SqlState;
 import software.amazon.documentdb.jdbc.metadata.DocumentDbDatabaseSchemaMetadata;
+import software.amazon.documentdb.jdbc.query.DocumentDbQueryMappingService;
 import software.amazon.documentdb.jdbc.sshtunnel.DocumentDbSshTunnelClient;
 
 import java.sql.DatabaseMetaData;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.sql.SQLFeatureNotSupportedException;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.Executor;
 import java.util.concurrent.TimeUnit;
 
@@ -62,15 +64,32 @@ public class DocumentDbConnection extends Connection
     private final DocumentDbConnectionProperties connectionProperties;
     private DocumentDbDatabaseMetaData metadata;
     private DocumentDbDatabaseSchemaMetadata databaseMetadata;
+    private DocumentDbQueryMappingService queryMappingService;
     private MongoClient mongoClient = null;
+    private DocumentDbPooledConnection pooledConnection = null;
     private MongoDatabase mongoDatabase = null;
     private DocumentDbSshTunnelClient sshTunnelClient;
+    private volatile int networkTimeout = 0;
+    private volatile Executor networkTimeoutExecutor = null;
 
     /**
      * DocumentDbConnection constructor, initializes super class.
      */
     DocumentDbConnection(final DocumentDbConnectionProperties connectionProperties)
             throws SQLException {
+        this(connectionProperties, connectionProperties.getPingOnConnect());
+    }
+
+    /**
+     * DocumentDbConnection constructor, initializes super class.
+     *
+     * @param connectionProperties the connection properties.
+     * @param isPingOnConnect indicator of whether to wait for a ping of the database.
+     * @throws SQLException if the SSH tunnel cannot be started or the ping fails.
+     */
+    private DocumentDbConnection(
+            final DocumentDbConnectionProperties connectionProperties,
+            final boolean isPingOnConnect) throws SQLException {
         super(connectionProperties);
         this.connectionProperties = connectionProperties;
         if (LOGGER.isDebugEnabled()) {
@@ -89,7 +108,57 @@ public class DocumentDbConnection extends Connection
         } else {
             LOGGER.debug("Internal SSH tunnel not used.");
         }
-        initializeClients(connectionProperties);
+        initializeClients(connectionProperties, isPingOnConnect);
+    }
+
+    /**
+     * Opens a connection asynchronously. The SSH tunnel and the client are created first, then the
+     * ping of the database and the read of the SQL schema run in parallel. The returned connection
+     * has its schema loaded, so the first statement does not wait for it.
+     *
+     * @param connectionProperties the connection properties.
+     * @param executor the executor to run the steps of opening the connection on.
+     * @return a future of the opened connection. If any step fails, the connection is closed and the
+     * future completes exceptionally with the {@link SQLException} as the cause.
+     */
+    static CompletableFuture<java.sql.Connection> openAsync(
+            final DocumentDbConnectionProperties connectionProperties,
+            final Executor executor) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return new DocumentDbConnection(connectionProperties, false);
+            } catch (SQLException e) {
+                throw new CompletionException(e);
+            }
+        }, executor).thenCompose(connection -> {
+            final CompletableFuture<Void> ping = connectionProperties.getPingOnConnect()
+                    ? CompletableFuture.runAsync(() -> {
+                        try {
+                            connection.pingDatabase();
+                        } catch (SQLException e) {
+                            throw new CompletionException(e);
+                        }
+                    }, executor)
+                    : CompletableFuture.completedFuture(null);
+            final CompletableFuture<Void> schema = CompletableFuture.runAsync(() -> {
+                try {
+                    connection.ensureDatabaseMetadata();
+                } catch (SQLException e) {
+                    throw new CompletionException(e);
+                }
+            }, executor);
+            return ping.<Void, java.sql.Connection>thenCombine(schema, (pinged, loaded) -> connection)
+                    .whenComplete((opened, e) -> {
+                        if (e != null) {
+                            try {
+                                connection.close();
+                            } catch (SQLException closeException) {
+                                LOGGER.warn("Failed to close connection that could not be opened: {}",
+                                        closeException.getMessage());
+                            }
+                        }
+                    });
+        });
     }
 
     /**
@@ -147,7 +216,15 @@ public class DocumentDbConnection extends Connection
             try {
                 // Convert to milliseconds
                 final long maxTimeMS = TimeUnit.SECONDS.toMillis(timeout);
-                pingDatabase(maxTimeMS);
+                final DocumentDbInterruptibleStreamFactory.NetworkOperation networkOperation =
+                        startNetworkOperation();
+                try {
+                    pingDatabase(maxTimeMS);
+                } finally {
+                    if (networkOperation != null) {
+                        networkOperation.end();
+                    }
+                }
                 return true;
             } catch (Exception e) {
                 LOGGER.error(e.getMessage(), e);
@@ -162,7 +239,7 @@ public class DocumentDbConnection extends Connection
             mongoDatabase = null;
         }
         if (mongoClient != null) {
-            mongoClient.close();
+            DocumentDbMongoClientRegistry.release(mongoClient);
             mongoClient = null;
         }
         if (sshTunnelClient != null) {
@@ -214,6 +291,9 @@ public class DocumentDbConnection extends Connection
                 version,
                 getMongoClient());
         metadata = new DocumentDbDatabaseMetaData(this, databaseMetadata, connectionProperties);
+        synchronized (this) {
+            queryMappingService = null;
+        }
     }
 
     void refreshDatabaseMetadata() throws SQLException {
@@ -226,6 +306,22 @@ public class DocumentDbConnection extends Connection
         return databaseMetadata;
     }
 
+    /**
+     * Gets the query mapping service shared by all statements of this connection. It is created
+     * once per version of the database metadata, so the Calcite schema is built only once and
+     * translated queries are reused across statements.
+     *
+     * @return a {@link DocumentDbQueryMappingService} for the current database metadata.
+     * @throws SQLException if the database metadata cannot be retrieved.
+     */
+    synchronized DocumentDbQueryMappingService getQueryMappingService() throws SQLException {
+        ensureDatabaseMetadata();
+        if (queryMappingService == null) {
+            queryMappingService = new DocumentDbQueryMappingService(connectionProperties, databaseMetadata);
+        }
+        return queryMappingService;
+    }
+
     @Override
     public String getSchema() {
         return connectionProperties.getDatabase();
@@ -233,15 +329,68 @@ public class DocumentDbConnection extends Connection
 
     @Override
     public int getNetworkTimeout() throws SQLException {
-        // TODO: Implement network timeout.
-        throw new SQLFeatureNotSupportedException();
+        verifyOpen();
+        return networkTimeout;
     }
 
     @Override
     public void setNetworkTimeout(final Executor executor, final int milliseconds)
             throws SQLException {
-        // TODO: Implement network timeout.
-        throw new SQLFeatureNotSupportedException();
+        verifyOpen();
+        if (milliseconds < 0) {
+            throw SqlError.createSQLException(LOGGER,
+                    SqlState.INVALID_PARAMETER_VALUE,
+                    SqlError.INVALID_TIMEOUT,
+                    milliseconds);
+        }
+        if (executor == null) {
+            throw SqlError.createSQLException(LOGGER,
+                    SqlState.INVALID_PARAMETER_VALUE,
+                    SqlError.MISSING_EXECUTOR);
+        }
+        networkTimeoutExecutor = executor;
+        networkTimeout = milliseconds;
+    }
+
+    /**
+     * Starts an operation with the network timeout on the current thread. The operation must
+     * complete within the timeout. Otherwise, the socket of its blocking read or write is closed
+     * and the connection is closed, using the executor provided with the network timeout.
+     *
+     * @return the operation, which must be ended when it completes, or {@code null} if there is
+     * no network timeout.
+     */
+    DocumentDbInterruptibleStreamFactory.NetworkOperation startNetworkOperation() {
+        final int timeout = networkTimeout;
+        final Executor executor = networkTimeoutExecutor;
+        if (timeout <= 0 || executor == null) {
+            return null;
+        }
+        return DocumentDbInterruptibleStreamFactory.beginOperation(
+                timeout, executor, () -> abortNetworkOperation(timeout));
+    }
+
+    /**
+     * Creates the exception thrown by an operation that exceeded the network timeout.
+     *
+     * @param networkOperation the operation that timed out.
+     * @return a new {@link SQLException}.
+     */
+    SQLException createNetworkTimeoutException(
+            final DocumentDbInterruptibleStreamFactory.NetworkOperation networkOperation) {
+        return SqlError.createSQLException(LOGGER,
+                SqlState.CONNECTION_FAILURE,
+                SqlError.NETWORK_TIMEOUT,
+                networkOperation.getTimeoutMillis());
+    }
+
+    private void abortNetworkOperation(final int timeout) {
+        LOGGER.warn("Closing connection after an operation exceeded the network timeout of {} ms.", timeout);
+        try {
+            close();
+        } catch (SQLException e) {
+            LOGGER.warn("Failed to close connection after network timeout: {}", e.getMessage());
+        }
     }
 
     @Override
@@ -276,12 +425,42 @@ public class DocumentDbConnection extends Connection
         return connectionProperties;
     }
 
-    private void initializeClients(final DocumentDbConnectionProperties connectionProperties)
-            throws SQLException {
-        // Create the mongo client.
-        mongoClient = connectionProperties.createMongoClient(getSshLocalPort());
+    /**
+     * Gets the pooled connection that wraps this connection, to notify of statement events.
+     *
+     * @return the pooled connection, or {@code null} if the connection is not pooled.
+     */
+    DocumentDbPooledConnection getPooledConnection() {
+        return pooledConnection;
+    }
+
+    /**
+     * Sets the pooled connection that wraps this connection.
+     *
+     * @param pooledConnection the pooled connection.
+     */
+    void setPooledConnection(final DocumentDbPooledConnection pooledConnection) {
+        this.pooledConnection = pooledConnection;
+    }
+
+    private void initializeClients(
+            final DocumentDbConnectionProperties connectionProperties,
+            final boolean isPingOnConnect) throws SQLException {
+        // Get a mongo client shared with other connections using the same settings.
+        mongoClient = DocumentDbMongoClientRegistry.acquire(connectionProperties, getSshLocalPort());
         mongoDatabase = mongoClient.getDatabase(connectionProperties.getDatabase());
-        pingDatabase();
+        if (!isPingOnConnect) {
+            // The client connects in the background. Errors are reported by the first operation.
+            return;
+        }
+        try {
+            pingDatabase();
+        } catch (SQLException | RuntimeException e) {
+            DocumentDbMongoClientRegistry.release(mongoClient);
+            mongoClient = null;
+            mongoDatabase = null;
+            throw e;
+        }
     }
 
     private void pingDatabase() throws SQLException {
@@ -25,6 +25,7 @@ import com.mongodb.ReadPreference;
 import com.mongodb.ServerAddress;
 import com.mongodb.client.MongoClient;
 import com.mongodb.client.MongoClients;
+import com.mongodb.connection.ClusterConnectionMode;
 import com.mongodb.connection.SslSettings;
 import com.mongodb.event.ServerMonitorListener;
 import lombok.SneakyThrows;
@@ -591,6 +592,24 @@ public class DocumentDbConnectionProperties extends Properties {
         return getProperty(DocumentDbConnectionProperty.SSH_KNOWN_HOSTS_FILE.getName());
     }
 
+    /**
+     * Sets the number of SSH sessions the internal SSH tunnel opens to the SSH host.
+     *
+     * @param sshSessionCount the number of SSH sessions.
+     */
+    public void setSshSessionCount(final String sshSessionCount) {
+        setProperty(DocumentDbConnectionProperty.SSH_SESSION_COUNT.getName(), sshSessionCount);
+    }
+
+    /**
+     * Gets the number of SSH sessions the internal SSH tunnel opens to the SSH host.
+     *
+     * @return the number of SSH sessions.
+     */
+    public Integer getSshSessionCount() {
+        return getPropertyAsInteger(DocumentDbConnectionProperty.SSH_SESSION_COUNT.getName());
+    }
+
     /**
      * Sets the default fetch size (in records) when retrieving results from Amazon DocumentDB.
      * It is the number of records to retrieve in a single batch.
@@ -685,6 +704,299 @@ public class DocumentDbConnectionProperties extends Properties {
         return getPropertyAsAllowDiskUseOption(DocumentDbConnectionProperty.ALLOW_DISK_USE.getName());
     }
 
+    /**
+     * Sets indicator of whether to execute the parts of a query that cannot be pushed down to
+     * Amazon DocumentDB in the driver.
+     *
+     * @param hybridExecution indicator of whether to execute non-pushable operators in the driver.
+     */
+    public void setHybridExecution(final String hybridExecution) {
+        setProperty(DocumentDbConnectionProperty.HYBRID_EXECUTION.getName(), hybridExecution);
+    }
+
+    /**
+     * Gets indicator of whether to execute the parts of a query that cannot be pushed down to
+     * Amazon DocumentDB in the driver.
+     *
+     * @return indicator of whether to execute non-pushable operators in the driver.
+     */
+    public boolean getHybridExecution() {
+        return Boolean.parseBoolean(getProperty(
+                DocumentDbConnectionProperty.HYBRID_EXECUTION.getName(),
+                DocumentDbConnectionProperty.HYBRID_EXECUTION.getDefaultValue()));
+    }
+
+    /**
+     * Sets the maximum number of rows an operator executed in the driver may hold in memory
+     * before spilling to temporary files.
+     *
+     * @param maxRowsInMemory the maximum number of rows to hold in memory.
+     */
+    public void setHybridExecutionMaxRowsInMemory(final String maxRowsInMemory) {
+        setProperty(DocumentDbConnectionProperty.HYBRID_EXECUTION_MAX_ROWS_IN_MEMORY.getName(), maxRowsInMemory);
+    }
+
+    /**
+     * Gets the maximum number of rows an operator executed in the driver may hold in memory
+     * before spilling to temporary files.
+     *
+     * @return the maximum number of rows to hold in memory.
+     */
+    public Integer getHybridExecutionMaxRowsInMemory() {
+        return getPropertyAsInteger(DocumentDbConnectionProperty.HYBRID_EXECUTION_MAX_ROWS_IN_MEMORY.getName());
+    }
+
+    /**
+     * Sets indicator of whether window functions are executed by the server with the
+     * $setWindowFields stage.
+     *
+     * @param windowFunctionPushdown indicator of whether to push down window functions.
+     */
+    public void setWindowFunctionPushdown(final String windowFunctionPushdown) {
+        setProperty(DocumentDbConnectionProperty.WINDOW_FUNCTION_PUSHDOWN.getName(), windowFunctionPushdown);
+    }
+
+    /**
+     * Gets indicator of whether window functions are executed by the server with the
+     * $setWindowFields stage.
+     *
+     * @return indicator of whether to push down window functions.
+     */
+    public boolean getWindowFunctionPushdown() {
+        return Boolean.parseBoolean(getProperty(
+                DocumentDbConnectionProperty.WINDOW_FUNCTION_PUSHDOWN.getName(),
+                DocumentDbConnectionProperty.WINDOW_FUNCTION_PUSHDOWN.getDefaultValue()));
+    }
+
+    /**
+     * Sets indicator of whether unfiltered COUNT(*) queries may return the estimated document
+     * count from the collection metadata.
+     *
+     * @param approximateCount indicator of whether to use the estimated document count.
+     */
+    public void setApproximateCount(final String approximateCount) {
+        setProperty(DocumentDbConnectionProperty.APPROXIMATE_COUNT.getName(), approximateCount);
+    }
+
+    /**
+     * Gets indicator of whether unfiltered COUNT(*) queries may return the estimated document
+     * count from the collection metadata.
+     *
+     * @return indicator of whether to use the estimated document count.
+     */
+    public boolean getApproximateCount() {
+        return Boolean.parseBoolean(getProperty(
+                DocumentDbConnectionProperty.APPROXIMATE_COUNT.getName(),
+                DocumentDbConnectionProperty.APPROXIMATE_COUNT.getDefaultValue()));
+    }
+
+    /**
+     * Sets the policy used to choose the read preference of each query.
+     *
+     * @param readRoutingPolicy the read routing policy to set.
+     */
+    public void setReadRoutingPolicy(final String readRoutingPolicy) {
+        setProperty(DocumentDbConnectionProperty.READ_ROUTING_POLICY.getName(), readRoutingPolicy);
+    }
+
+    /**
+     * Gets the policy used to choose the read preference of each query.
+     *
+     * @return the read routing policy, or null, if invalid.
+     */
+    public DocumentDbReadRoutingPolicy getReadRoutingPolicy() {
+        return getPropertyAsReadRoutingPolicy(DocumentDbConnectionProperty.READ_ROUTING_POLICY.getName());
+    }
+
+    /**
+     * Sets the estimated number of documents above which a collection scan is routed as an
+     * analytic query.
+     *
+     * @param readRoutingRowThreshold the estimated number of documents.
+     */
+    public void setReadRoutingRowThreshold(final String readRoutingRowThreshold) {
+        setProperty(DocumentDbConnectionProperty.READ_ROUTING_ROW_THRESHOLD.getName(), readRoutingRowThreshold);
+    }
+
+    /**
+     * Gets the estimated number of documents above which a collection scan is routed as an
+     * analytic query.
+     *
+     * @return the estimated number of documents.
+     */
+    public Integer getReadRoutingRowThreshold() {
+        return getPropertyAsInteger(DocumentDbConnectionProperty.READ_ROUTING_ROW_THRESHOLD.getName());
+    }
+
+    /**
+     * Sets the maximum replication lag of a secondary that analytic queries may read from.
+     *
+     * @param readRoutingMaxStalenessSec the maximum staleness in seconds.
+     */
+    public void setReadRoutingMaxStalenessSec(final String readRoutingMaxStalenessSec) {
+        setProperty(DocumentDbConnectionProperty.READ_ROUTING_MAX_STALENESS_SEC.getName(),
+                readRoutingMaxStalenessSec);
+    }
+
+    /**
+     * Gets the maximum replication lag of a secondary that analytic queries may read from.
+     *
+     * @return the maximum staleness in seconds.
+     */
+    public Integer getReadRoutingMaxStalenessSec() {
+        return getPropertyAsInteger(DocumentDbConnectionProperty.READ_ROUTING_MAX_STALENESS_SEC.getName());
+    }
+
+    /**
+     * Sets the maximum number of connections in the connection pool to each server.
+     *
+     * @param maxPoolSize the maximum number of pooled connections.
+     */
+    public void setMaxPoolSize(final String maxPoolSize) {
+        setProperty(DocumentDbConnectionProperty.MAX_POOL_SIZE.getName(), maxPoolSize);
+    }
+
+    /**
+     * Gets the maximum number of connections in the connection pool to each server.
+     *
+     * @return the maximum number of pooled connections.
+     */
+    public Integer getMaxPoolSize() {
+        return getPropertyAsInteger(DocumentDbConnectionProperty.MAX_POOL_SIZE.getName());
+    }
+
+    /**
+     * Sets the minimum number of connections the connection pool keeps open to each server.
+     *
+     * @param minPoolSize the minimum number of pooled connections.
+     */
+    public void setMinPoolSize(final String minPoolSize) {
+        setProperty(DocumentDbConnectionProperty.MIN_POOL_SIZE.getName(), minPoolSize);
+    }
+
+    /**
+     * Gets the minimum number of connections the connection pool keeps open to each server.
+     *
+     * @return the minimum number of pooled connections.
+     */
+    public Integer getMinPoolSize() {
+        return getPropertyAsInteger(DocumentDbConnectionProperty.MIN_POOL_SIZE.getName());
+    }
+
+    /**
+     * Sets the maximum number of connections a connection pool may be establishing concurrently.
+     *
+     * @param maxConnecting the maximum number of connections being established.
+     */
+    public void setMaxConnecting(final String maxConnecting) {
+        setProperty(DocumentDbConnectionProperty.MAX_CONNECTING.getName(), maxConnecting);
+    }
+
+    /**
+     * Gets the maximum number of connections a connection pool may be establishing concurrently.
+     *
+     * @return the maximum number of connections being established.
+     */
+    public Integer getMaxConnecting() {
+        return getPropertyAsInteger(DocumentDbConnectionProperty.MAX_CONNECTING.getName());
+    }
+
+    /**
+     * Sets the maximum time to wait for a connection from the connection pool.
+     *
+     * @param waitQueueTimeout the maximum wait time in milliseconds.
+     */
+    public void setWaitQueueTimeout(final String waitQueueTimeout) {
+        setProperty(DocumentDbConnectionProperty.WAIT_QUEUE_TIMEOUT_MS.getName(), waitQueueTimeout);
+    }
+
+    /**
+     * Gets the maximum time to wait for a connection from the connection pool.
+     *
+     * @return the maximum wait time in milliseconds.
+     */
+    public Integer getWaitQueueTimeout() {
+        return getPropertyAsInteger(DocumentDbConnectionProperty.WAIT_QUEUE_TIMEOUT_MS.getName());
+    }
+
+    /**
+     * Sets the maximum time a pooled connection can be idle before it is closed.
+     *
+     * @param maxIdleTime the maximum idle time in milliseconds. Zero indicates no limit.
+     */
+    public void setMaxIdleTime(final String maxIdleTime) {
+        setProperty(DocumentDbConnectionProperty.MAX_IDLE_TIME_MS.getName(), maxIdleTime);
+    }
+
+    /**
+     * Gets the maximum time a pooled connection can be idle before it is closed.
+     *
+     * @return the maximum idle time in milliseconds. Zero indicates no limit.
+     */
+    public Integer getMaxIdleTime() {
+        return getPropertyAsInteger(DocumentDbConnectionProperty.MAX_IDLE_TIME_MS.getName());
+    }
+
+    /**
+     * Sets indicator of whether connection pool and command metrics are collected and published
+     * as a JMX MBean.
+     *
+     * @param metricsEnabled indicator of whether to collect metrics.
+     */
+    public void setMetricsEnabled(final String metricsEnabled) {
+        setProperty(DocumentDbConnectionProperty.METRICS_ENABLED.getName(), metricsEnabled);
+    }
+
+    /**
+     * Gets indicator of whether connection pool and command metrics are collected and published
+     * as a JMX MBean.
+     *
+     * @return indicator of whether to collect metrics.
+     */
+    public boolean getMetricsEnabled() {
+        return Boolean.parseBoolean(getProperty(
+                DocumentDbConnectionProperty.METRICS_ENABLED.getName(),
+                DocumentDbConnectionProperty.METRICS_ENABLED.getDefaultValue()));
+    }
+
+    /**
+     * Sets the maximum number of query translations kept for reuse by a connection.
+     *
+     * @param maxStatements the maximum number of query translations. Zero disables their reuse.
+     */
+    public void setMaxStatements(final String maxStatements) {
+        setProperty(DocumentDbConnectionProperty.MAX_STATEMENTS.getName(), maxStatements);
+    }
+
+    /**
+     * Gets the maximum number of query translations kept for reuse by a connection.
+     *
+     * @return the maximum number of query translations. Zero disables their reuse.
+     */
+    public Integer getMaxStatements() {
+        return getPropertyAsInteger(DocumentDbConnectionProperty.MAX_STATEMENTS.getName());
+    }
+
+    /**
+     * Sets indicator of whether opening a connection waits for a ping of the database.
+     *
+     * @param pingOnConnect indicator of whether to ping the database when connecting.
+     */
+    public void setPingOnConnect(final String pingOnConnect) {
+        setProperty(DocumentDbConnectionProperty.PING_ON_CONNECT.getName(), pingOnConnect);
+    }
+
+    /**
+     * Gets indicator of whether opening a connection waits for a ping of the database.
+     *
+     * @return indicator of whether to ping the database when connecting.
+     */
+    public boolean getPingOnConnect() {
+        return Boolean.parseBoolean(getProperty(
+                DocumentDbConnectionProperty.PING_ON_CONNECT.getName(),
+                DocumentDbConnectionProperty.PING_ON_CONNECT.getDefaultValue()));
+    }
+
     /**
      * Creates a {@link MongoClient} instance from the connection properties.
      *
@@ -708,6 +1020,50 @@ public class DocumentDbConnectionProperties extends Properties {
                 getMongoDriverInformation());
     }
 
+    /**
+     * Creates a {@link MongoClient} instance from the connection properties using
+     * the SSH tunnel port on the local host, publishing command events to the operation tracker
+     * and, if given, pool and command events to the metrics.
+     *
+     * @param sshLocalPort the local port number for an internal SSH tunnel. A port number of zero
+     *                     indicates there is no valid internal SSH tunnel started.
+     * @param operationTracker the tracker of the servers running the operations of queries.
+     * @param metrics the metrics to publish events to, or {@code null} if metrics are disabled.
+     * @return a new instance of a {@link MongoClient}.
+     */
+    MongoClient createMongoClient(
+            final int sshLocalPort,
+            final DocumentDbOperationTracker operationTracker,
+            final DocumentDbClientMetrics metrics) {
+        final MongoClientSettings.Builder builder = MongoClientSettings
+                .builder(buildMongoClientSettings(sshLocalPort))
+                .addCommandListener(operationTracker);
+        if (metrics != null) {
+            builder.applyToConnectionPoolSettings(b -> b.addConnectionPoolListener(metrics))
+                    .addCommandListener(metrics);
+        }
+        return MongoClients.create(builder.build(), getMongoDriverInformation());
+    }
+
+    /**
+     * Creates a {@link MongoClient} instance from the connection properties using
+     * the SSH tunnel port on the local host, connected directly to a single server of the cluster.
+     *
+     * @param sshLocalPort the local port number for an internal SSH tunnel. A port number of zero
+     *                     indicates there is no valid internal SSH tunnel started.
+     * @param serverAddress the address of the server.
+     * @return a new instance of a {@link MongoClient}.
+     */
+    MongoClient createMongoClient(final int sshLocalPort, final ServerAddress serverAddress) {
+        final MongoClientSettings settings = MongoClientSettings
+                .builder(buildMongoClientSettings(sshLocalPort))
+                .applyToClusterSettings(b -> b
+                        .hosts(Collections.singletonList(serverAddress))
+                        .mode(ClusterConnectionMode.SINGLE))
+                .build();
+        return MongoClients.create(settings, getMongoDriverInformation());
+    }
+
     /**
      * Builds the MongoClientSettings from properties.
      *
@@ -771,6 +1127,12 @@ public class DocumentDbConnectionProperties extends Properties {
         // Set the socket configuration.
         applySocketSettings(clientSettingsBuilder);
 
+        // Use sockets that can be closed when an operation exceeds the network timeout.
+        clientSettingsBuilder.streamFactoryFactory(DocumentDbInterruptibleStreamFactory.INSTANCE);
+
+        // Set the connection pool configuration.
+        applyConnectionPoolSettings(clientSettingsBuilder);
+
         // Set the SSL/TLS configuration.
         applyTlsSettings(clientSettingsBuilder);
 
@@ -866,10 +1228,26 @@ public class DocumentDbConnectionProperties extends Properties {
         maybeAppendOptionalValue(optionalInfo, DocumentDbConnectionProperty.SSH_PRIVATE_KEY_FILE, properties.getSshPrivateKeyFile(), null);
         maybeAppendOptionalValue(optionalInfo, DocumentDbConnectionProperty.SSH_STRICT_HOST_KEY_CHECKING, properties.getSshStrictHostKeyChecking());
         maybeAppendOptionalValue(optionalInfo, DocumentDbConnectionProperty.SSH_KNOWN_HOSTS_FILE, properties.getSshKnownHostsFile(), null);
+        maybeAppendOptionalValue(optionalInfo, DocumentDbConnectionProperty.SSH_SESSION_COUNT, properties.getSshSessionCount());
         maybeAppendOptionalValue(optionalInfo, DocumentDbConnectionProperty.DEFAULT_FETCH_SIZE, properties.getDefaultFetchSize());
         maybeAppendOptionalValue(optionalInfo, DocumentDbConnectionProperty.REFRESH_SCHEMA, properties.getRefreshSchema());
         maybeAppendOptionalValue(optionalInfo, DocumentDbConnectionProperty.DEFAULT_AUTH_DB, properties.getDefaultAuthenticationDatabase());
         maybeAppendOptionalValue(optionalInfo, properties.getAllowDiskUseOption());
+        maybeAppendOptionalValue(optionalInfo, DocumentDbConnectionProperty.HYBRID_EXECUTION, properties.getHybridExecution());
+        maybeAppendOptionalValue(optionalInfo, DocumentDbConnectionProperty.HYBRID_EXECUTION_MAX_ROWS_IN_MEMORY, properties.getHybridExecutionMaxRowsInMemory());
+        maybeAppendOptionalValue(optionalInfo, DocumentDbConnectionProperty.WINDOW_FUNCTION_PUSHDOWN, properties.getWindowFunctionPushdown());
+        maybeAppendOptionalValue(optionalInfo, DocumentDbConnectionProperty.APPROXIMATE_COUNT, properties.getApproximateCount());
+        maybeAppendOptionalValue(optionalInfo, properties.getReadRoutingPolicy());
+        maybeAppendOptionalValue(optionalInfo, DocumentDbConnectionProperty.READ_ROUTING_ROW_THRESHOLD, properties.getReadRoutingRowThreshold());
+        maybeAppendOptionalValue(optionalInfo, DocumentDbConnectionProperty.READ_ROUTING_MAX_STALENESS_SEC, properties.getReadRoutingMaxStalenessSec());
+        maybeAppendOptionalValue(optionalInfo, DocumentDbConnectionProperty.MAX_POOL_SIZE, properties.getMaxPoolSize());
+        maybeAppendOptionalValue(optionalInfo, DocumentDbConnectionProperty.MIN_POOL_SIZE, properties.getMinPoolSize());
+        maybeAppendOptionalValue(optionalInfo, DocumentDbConnectionProperty.MAX_CONNECTING, properties.getMaxConnecting());
+        maybeAppendOptionalValue(optionalInfo, DocumentDbConnectionProperty.WAIT_QUEUE_TIMEOUT_MS, properties.getWaitQueueTimeout());
+        maybeAppendOptionalValue(optionalInfo, DocumentDbConnectionProperty.MAX_IDLE_TIME_MS, properties.getMaxIdleTime());
+        maybeAppendOptionalValue(optionalInfo, DocumentDbConnectionProperty.METRICS_ENABLED, properties.getMetricsEnabled());
+        maybeAppendOptionalValue(optionalInfo, DocumentDbConnectionProperty.MAX_STATEMENTS, properties.getMaxStatements());
+        maybeAppendOptionalValue(optionalInfo, DocumentDbConnectionProperty.PING_ON_CONNECT, properties.getPingOnConnect());
     }
 
     static void maybeAppendOptionalValue(final StringBuilder optionalInfo,
@@ -928,6 +1306,14 @@ public class DocumentDbConnectionProperties extends Properties {
         }
     }
 
+    static void maybeAppendOptionalValue(final StringBuilder optionalInfo,
+                                         final DocumentDbReadRoutingPolicy value) {
+        if (value != null && value != DocumentDbReadRoutingPolicy.fromString(
+                DocumentDbConnectionProperty.READ_ROUTING_POLICY.getDefaultValue())) {
+            appendOption(optionalInfo, DocumentDbConnectionProperty.READ_ROUTING_POLICY, value.getName());
+        }
+    }
+
     /**
      * Builds the connection string for SSH properties.
      *
@@ -961,6 +1347,9 @@ public class DocumentDbConnectionProperties extends Properties {
         if (getSshKnownHostsFile() != null && !DocumentDbConnectionProperty.SSH_KNOWN_HOSTS_FILE.getDefaultValue().equals(getSshKnownHostsFile())) {
             appendOption(optionalInfo, DocumentDbConnectionProperty.SSH_KNOWN_HOSTS_FILE, getSshKnownHostsFile());
         }
+        if (getSshSessionCount() != null && !DocumentDbConnectionProperty.SSH_SESSION_COUNT.getDefaultValue().equals(String.valueOf(getSshSessionCount()))) {
+            appendOption(optionalInfo, DocumentDbConnectionProperty.SSH_SESSION_COUNT, getSshSessionCount());
+        }
     }
 
     /**
@@ -1371,6 +1760,38 @@ public class DocumentDbConnectionProperties extends Properties {
                 });
     }
 
+    /**
+     * Applies the connection pool-related connection properties to the given client settings builder.
+     * @param clientSettingsBuilder The client settings builder to apply the properties to.
+     */
+    private void applyConnectionPoolSettings(
+            final MongoClientSettings.Builder clientSettingsBuilder) {
+        final Integer maxPoolSize = getMaxPoolSize();
+        final Integer minPoolSize = getMinPoolSize();
+        final Integer maxConnecting = getMaxConnecting();
+        final Integer waitQueueTimeout = getWaitQueueTimeout();
+        final Integer maxIdleTime = getMaxIdleTime();
+
+        clientSettingsBuilder.applyToConnectionPoolSettings(
+                b -> {
+                    if (maxPoolSize != null) {
+                        b.maxSize(maxPoolSize);
+                    }
+                    if (minPoolSize != null) {
+                        b.minSize(minPoolSize);
+                    }
+                    if (maxConnecting != null) {
+                        b.maxConnecting(maxConnecting);
+                    }
+                    if (waitQueueTimeout != null) {
+                        b.maxWaitTime(waitQueueTimeout, TimeUnit.MILLISECONDS);
+                    }
+                    if (maxIdleTime != null) {
+                        b.maxConnectionIdleTime(maxIdleTime, TimeUnit.MILLISECONDS);
+                    }
+                });
+    }
+
     /**
      * Applies the TLS/SSL-related connection properties to the given client settings builder.
      * @param clientSettingsBuilder The client settings builder to apply the properties to.
@@ -1532,6 +1953,28 @@ public class DocumentDbConnectionProperties extends Properties {
         return property;
     }
 
+    /**
+     * Attempts to retrieve a property as a DocumentDbReadRoutingPolicy.
+     *
+     * @param key The property to retrieve.
+     * @return The retrieved property as a DocumentDbReadRoutingPolicy or null if it did not exist or was not a
+     * valid DocumentDbReadRoutingPolicy.
+     */
+    private DocumentDbReadRoutingPolicy getPropertyAsReadRoutingPolicy(@NonNull final String key) {
+        DocumentDbReadRoutingPolicy property = null;
+        try {
+            if (getProperty(key) != null) {
+                property = DocumentDbReadRoutingPolicy.fromString(getProperty(key));
+            } else if (DocumentDbConnectionProperty.getPropertyFromKey(key) != null) {
+                property = DocumentDbReadRoutingPolicy.fromString(
+                        DocumentDbConnectionProperty.getPropertyFromKey(key).getDefaultValue());
+            }
+        } catch (IllegalArgumentException e) {
+            LOGGER.warn("Property {{}} was ignored as it was not a valid read routing policy.", key, e);
+        }
+        return property;
+    }
+
     /**
      * Attempts to retrieve a property as a Long.
      *
@@ -69,6 +69,8 @@ public enum DocumentDbConnectionProperty implements ConnectionProperty {
             "If true, the 'known_hosts' file is checked to ensure the target host is trusted when creating the SSH tunnel. If false, the target host is not checked. Default is 'false'."),
     SSH_KNOWN_HOSTS_FILE("sshKnownHostsFile", "",
             "The path to the 'known_hosts' file used for checking the target host for the SSH tunnel when option 'sshStrictHostKeyChecking' is 'true'. Default is '~/.ssh/known_hosts'."),
+    SSH_SESSION_COUNT("sshSessionCount", "1",
+            "The number of SSH sessions the internal SSH tunnel opens to the SSH host. Connections to the tunnel are spread over the sessions, so concurrent queries are not limited to the throughput of a single session. Default is '1'."),
     DEFAULT_FETCH_SIZE("defaultFetchSize", String.valueOf(DocumentDbConnectionProperties.FETCH_SIZE_DEFAULT),
             "The default fetch size (in records) when retrieving results from Amazon DocumentDB. It is the number of records to retrieve in a single batch. The maximum number of records retrieved in a single batch may also be limited by the overall memory size of the result. The value can be changed by calling the `Statement.setFetchSize` JDBC method. Default is '2000'."),
     REFRESH_SCHEMA("refreshSchema", "false",
@@ -76,6 +78,36 @@ public enum DocumentDbConnectionProperty implements ConnectionProperty {
     DEFAULT_AUTH_DB("defaultAuthDb", "admin", "The default authentication database to use."),
     ALLOW_DISK_USE("allowDiskUse", "default",
             "Indicator of whether to enable or disable the 'allow disk use' option on all queries. Valid values are 'enable', 'disable' or 'default'. Default is 'default'."),
+    HYBRID_EXECUTION("hybridExecution", "false",
+            "If true, parts of a query that cannot be pushed down to Amazon DocumentDB (for example, joins other than equi-joins on foreign keys) are executed in the driver over the results of pushed-down queries. If false, such queries are rejected. Default is 'false'."),
+    HYBRID_EXECUTION_MAX_ROWS_IN_MEMORY("hybridExecutionMaxRowsInMemory", "100000",
+            "The maximum number of rows an operator executed in the driver may hold in memory before spilling to temporary files. Only used when 'hybridExecution' is 'true'. Default is '100000'."),
+    WINDOW_FUNCTION_PUSHDOWN("windowFunctionPushdown", "false",
+            "If true, window functions (for example, 'ROW_NUMBER() OVER (...)') are executed by the server with the $setWindowFields stage. Enable only if the server supports this stage. If false, window functions are executed in the driver when 'hybridExecution' is 'true'. Default is 'false'."),
+    APPROXIMATE_COUNT("approximateCount", "false",
+            "If true, 'SELECT COUNT(*)' queries without a filter on a collection's base table return the estimated document count from the collection metadata. The estimate is faster to retrieve but may be inaccurate, for example, after an unclean shutdown. Default is 'false'."),
+    READ_ROUTING_POLICY("readRoutingPolicy", "none",
+            "The policy used to choose the read preference of each query. If 'none', all queries use the 'readPreference' of the connection. If 'workload', analytic queries (joins, aggregations and scans of large collections) read from secondaries with 'secondaryPreferred' and all other queries read from the primary. The value can be changed for a statement by calling the `DocumentDbPreparedStatement.setReadRoutingPolicy` method. Default is 'none'."),
+    READ_ROUTING_ROW_THRESHOLD("readRoutingRowThreshold", "100000",
+            "The estimated number of documents above which a query that scans a whole collection is routed as an analytic query. Filters on fields other than '_id' do not prevent a scan. Only used when 'readRoutingPolicy' is 'workload'. Default is '100000'."),
+    READ_ROUTING_MAX_STALENESS_SEC("readRoutingMaxStalenessSec", "90",
+            "The maximum replication lag (in seconds) of a secondary that analytic queries may read from. A value of '0' disables the bound. Other values below '90' are raised to '90'. Only used when 'readRoutingPolicy' is 'workload'. Default is '90'."),
+    MAX_POOL_SIZE("maxPoolSize", "100",
+            "The maximum number of connections in the connection pool to each server. Default is '100'."),
+    MIN_POOL_SIZE("minPoolSize", "0",
+            "The minimum number of connections the connection pool keeps open to each server. Default is '0'."),
+    MAX_CONNECTING("maxConnecting", "2",
+            "The maximum number of connections a connection pool may be establishing concurrently. Default is '2'."),
+    WAIT_QUEUE_TIMEOUT_MS("waitQueueTimeoutMS", "120000",
+            "The maximum time (in milliseconds) to wait for a connection from the connection pool to become available. Default is '120000'."),
+    MAX_IDLE_TIME_MS("maxIdleTimeMS", "0",
+            "The maximum time (in milliseconds) a pooled connection can be idle before it is closed. A value of zero indicates no limit. Default is '0'."),
+    METRICS_ENABLED("metricsEnabled", "false",
+            "If true, connection pool and command metrics of the client are collected and published as a JMX MBean. Default is 'false'."),
+    MAX_STATEMENTS("maxStatements", "100",
+            "The maximum number of query translations kept for reuse by each connection. A value of zero disables the reuse of query translations. Default is '100'."),
+    PING_ON_CONNECT("pingOnConnect", "true",
+            "If true, opening a connection waits for a ping of the database to verify the server is reachable and the credentials are valid. If false, connection errors are reported by the first operation. Default is 'true'."),
     ;
 
     // Unsupported MongoDB connection properties that will be ignored but should have warnings.
@@ -100,12 +132,8 @@ public enum DocumentDbConnectionProperty implements ConnectionProperty {
             "tlsAllowInvalidCertificates",
             "connectTimeoutMS",
             "socketTimeoutMS",
-            "maxIdleTimeMS",
             "maxLifeTimeMS",
-            "maxPoolSize",
-            "minPoolSize",
             "waitQueueMultiple",
-            "waitQueueTimeoutMS",
             "safe",
             "journal",
             "w",
@@ -17,6 +17,7 @@
 package software.amazon.documentdb.jdbc;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import software.amazon.documentdb.jdbc.common.DataSource;
@@ -28,6 +29,12 @@ import javax.sql.PooledConnection;
 import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.SQLException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 /**
  * DocumentDb implementation of DataSource.
@@ -35,6 +42,23 @@ import java.sql.SQLException;
 public class DocumentDbDataSource extends DataSource {
     private final DocumentDbConnectionProperties properties = new DocumentDbConnectionProperties();
     private static final Logger LOGGER = LoggerFactory.getLogger(DocumentDbDriver.class.getName());
+    // Opening a connection waits on the network, so a few threads open many connections in
+    // parallel. Further connections wait in the queue rather than each starting a thread.
+    private static final int CONNECT_THREAD_COUNT = 8;
+    private static final long CONNECT_THREAD_KEEP_ALIVE_SECS = 60;
+    private static final ExecutorService CONNECT_EXECUTOR = createConnectExecutor();
+
+    private static ExecutorService createConnectExecutor() {
+        final ThreadPoolExecutor executor = new ThreadPoolExecutor(
+                CONNECT_THREAD_COUNT,
+                CONNECT_THREAD_COUNT,
+                CONNECT_THREAD_KEEP_ALIVE_SECS,
+                TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(),
+                new ThreadFactoryBuilder().setNameFormat("documentdb-connect-%d").setDaemon(true).build());
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
 
     @Override
     public java.sql.Connection getConnection() throws SQLException {
@@ -50,6 +74,42 @@ public class DocumentDbDataSource extends DataSource {
         return DriverManager.getConnection(DocumentDbConnectionProperties.DOCUMENT_DB_SCHEME, properties);
     }
 
+    /**
+     * Opens a connection asynchronously on the driver's pool of connect threads. Many connections,
+     * for example, when warming up a connection pool, can be opened in parallel. The pool has a
+     * fixed number of threads; connections beyond that wait until a thread is free.
+     *
+     * @return a future of the connection, which completes when the connection is ready to use.
+     * @throws SQLException if the required properties are not set.
+     */
+    public CompletableFuture<Connection> getConnectionAsync() throws SQLException {
+        return getConnectionAsync(CONNECT_EXECUTOR);
+    }
+
+    /**
+     * Opens a connection asynchronously. The SSH tunnel and the client are created first, then the
+     * ping of the database and the read of the SQL schema run in parallel on the executor.
+     *
+     * @param executor the executor to open the connection on.
+     * @return a future of the connection, which completes when the connection is ready to use.
+     * @throws SQLException if the required properties are not set.
+     */
+    public CompletableFuture<Connection> getConnectionAsync(final Executor executor) throws SQLException {
+        properties.validateRequiredProperties();
+        // Copy the properties, so later changes to the data source do not affect the connection.
+        return DocumentDbConnection.openAsync(new DocumentDbConnectionProperties(properties), executor);
+    }
+
+    /**
+     * Opens a pooled connection asynchronously on the driver's pool of connect threads.
+     *
+     * @return a future of the pooled connection, which completes when the connection is ready to use.
+     * @throws SQLException if the required properties are not set.
+     */
+    public CompletableFuture<PooledConnection> getPooledConnectionAsync() throws SQLException {
+        return getConnectionAsync().thenApply(DocumentDbPooledConnection::new);
+    }
+
     /**
      * Sets the timeout for opening a connection.
      *
@@ -273,6 +333,43 @@ public class DocumentDbDataSource extends DataSource {
         return properties.getRetryReadsEnabled();
     }
 
+    /**
+     * Sets the maximum number of query translations kept for reuse by each connection.
+     *
+     * @param maxStatements the maximum number of query translations. Zero disables their reuse.
+     */
+    public void setMaxStatements(final int maxStatements) {
+        properties.setMaxStatements(String.valueOf(maxStatements));
+    }
+
+    /**
+     * Gets the maximum number of query translations kept for reuse by each connection.
+     *
+     * @return the maximum number of query translations. Zero disables their reuse.
+     */
+    public int getMaxStatements() {
+        return properties.getMaxStatements();
+    }
+
+    /**
+     * Sets whether opening a connection waits for a ping of the database. Without the ping,
+     * connection errors are reported by the first operation.
+     *
+     * @param pingOnConnect indicator of whether to ping the database when connecting.
+     */
+    public void setPingOnConnect(final boolean pingOnConnect) {
+        properties.setPingOnConnect(String.valueOf(pingOnConnect));
+    }
+
+    /**
+     * Gets whether opening a connection waits for a ping of the database.
+     *
+     * @return indicator of whether to ping the database when connecting.
+     */
+    public boolean getPingOnConnect() {
+        return properties.getPingOnConnect();
+    }
+
     private void throwInvalidTimeoutException(final long timeout) throws SQLException {
         throw SqlError.createSQLException(
                 LOGGER,
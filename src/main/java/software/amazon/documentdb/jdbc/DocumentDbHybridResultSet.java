@@ -0,0 +1,198 @@
+/*
+ * Copyright <2021> Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ */
+
+package software.amazon.documentdb.jdbc;
+
+import com.google.common.collect.ImmutableList;
+import org.apache.calcite.avatica.util.ByteString;
+import org.apache.calcite.avatica.util.DateTimeUtils;
+import org.apache.calcite.linq4j.Enumerator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import software.amazon.documentdb.jdbc.common.utilities.JdbcColumnMetaData;
+import software.amazon.documentdb.jdbc.common.utilities.SqlError;
+import software.amazon.documentdb.jdbc.common.utilities.SqlState;
+
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.Date;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * DocumentDb implementation of ResultSet for queries executed partly in the driver. Rows are
+ * produced by the query plan in Calcite's internal representation and converted to the same
+ * values a fully pushed-down query returns.
+ */
+public class DocumentDbHybridResultSet extends DocumentDbAbstractResultSet implements java.sql.ResultSet {
+    private static final Logger LOGGER = LoggerFactory.getLogger(DocumentDbHybridResultSet.class);
+    private static final int DEFAULT_FETCH_SIZE = 10; // 10 is default fetch size used by most JDBC drivers.
+    private final Enumerator<Object> enumerator;
+    private final ImmutableList<JdbcColumnMetaData> columnMetaData;
+    private int fetchSize;
+    private int rowIndex = -1;
+    private Object current;
+    private boolean afterLast = false;
+    private final DocumentDbQueryWatchdog.Deadline deadline;
+    private final AtomicBoolean cancelFlag;
+    private final DocumentDbConnection connection;
+
+    /**
+     * DocumentDbHybridResultSet constructor, initializes super class.
+     */
+    DocumentDbHybridResultSet(
+            final Statement statement,
+            final Enumerator<Object> enumerator,
+            final ImmutableList<JdbcColumnMetaData> columnMetaData) throws SQLException {
+        this(statement, enumerator, columnMetaData, null, new AtomicBoolean(false));
+    }
+
+    /**
+     * DocumentDbHybridResultSet constructor, initializes super class. Enumerating the results is
+     * bounded by the deadline of the query, which is canceled when the result set is closed or
+     * exhausted. The operators executed in the driver stop once the cancel flag is set.
+     */
+    DocumentDbHybridResultSet(
+            final Statement statement,
+            final Enumerator<Object> enumerator,
+            final ImmutableList<JdbcColumnMetaData> columnMetaData,
+            final DocumentDbQueryWatchdog.Deadline deadline,
+            final AtomicBoolean cancelFlag) throws SQLException {
+        super(statement, columnMetaData, true);
+        this.enumerator = enumerator;
+        this.columnMetaData = columnMetaData;
+        this.deadline = deadline;
+        this.cancelFlag = cancelFlag;
+        this.connection = statement != null && statement.getConnection() instanceof DocumentDbConnection
+                ? (DocumentDbConnection) statement.getConnection()
+                : null;
+
+        // Set fetch size to be fetch size of statement if it exists. Otherwise, use default.
+        this.fetchSize = statement != null ? statement.getFetchSize() : DEFAULT_FETCH_SIZE;
+    }
+
+    @Override
+    protected void doClose() {
+        if (deadline != null) {
+            deadline.cancel();
+        }
+        enumerator.close();
+    }
+
+    @Override
+    protected int getDriverFetchSize() {
+        return this.fetchSize;
+    }
+
+    @Override
+    protected void setDriverFetchSize(final int rows) {
+        this.fetchSize = rows;
+    }
+
+    @Override
+    protected int getRowIndex() {
+        return rowIndex;
+    }
+
+    @Override
+    protected int getRowCount() throws SQLFeatureNotSupportedException {
+        throw SqlError.createSQLFeatureNotSupportedException(LOGGER, SqlError.RESULT_FORWARD_ONLY);
+    }
+
+    @Override
+    public boolean isLast() throws SQLException {
+        throw SqlError.createSQLFeatureNotSupportedException(LOGGER, SqlError.RESULT_FORWARD_ONLY);
+    }
+
+    @Override
+    public boolean isAfterLast() throws SQLException {
+        verifyOpen();
+        return afterLast;
+    }
+
+    @Override
+    public boolean next() throws SQLException {
+        verifyOpen();
+        if (deadline == null && connection == null && !cancelFlag.get()) {
+            return moveNext();
+        }
+        if (deadline != null) {
+            deadline.verifyNotExpired();
+        }
+        final DocumentDbInterruptibleStreamFactory.NetworkOperation networkOperation = connection != null
+                ? connection.startNetworkOperation()
+                : null;
+        try {
+            final boolean hasNext = moveNext();
+            if (!hasNext && deadline != null) {
+                deadline.cancel();
+            }
+            return hasNext;
+        } catch (RuntimeException e) {
+            // The cursors are killed when the deadline expires while enumerating the results.
+            if (deadline != null && deadline.isExpired()) {
+                throw deadline.createTimeoutException();
+            } else if (networkOperation != null && networkOperation.isExpired()) {
+                throw connection.createNetworkTimeoutException(networkOperation);
+            } else if (cancelFlag.get()) {
+                throw SqlError.createSQLException(
+                        LOGGER,
+                        SqlState.OPERATION_CANCELED,
+                        SqlError.QUERY_CANCELED);
+            }
+            throw e;
+        } finally {
+            if (networkOperation != null) {
+                networkOperation.end();
+            }
+        }
+    }
+
+    private boolean moveNext() {
+        if (!afterLast && enumerator.moveNext()) {
+            current = enumerator.current();
+            rowIndex++;
+            return true;
+        } else {
+            current = null;
+            afterLast = true;
+            return false;
+        }
+    }
+
+    @Override
+    protected Object getValue(final int columnIndex) throws SQLException {
+        // A row with a single column may be returned as the column value.
+        final Object value = current instanceof Object[]
+                ? ((Object[]) current)[columnIndex - 1]
+                : current;
+        if (value == null) {
+            return null;
+        }
+        switch (columnMetaData.get(columnIndex - 1).getColumnType()) {
+            case Types.TIMESTAMP:
+            case Types.TIME:
+                return value instanceof Number ? new Date(((Number) value).longValue()) : value;
+            case Types.DATE:
+                return value instanceof Number
+                        ? new Date(((Number) value).longValue() * DateTimeUtils.MILLIS_PER_DAY)
+                        : value;
+            default:
+                return value instanceof ByteString ? ((ByteString) value).getBytes() : value;
+        }
+    }
+}
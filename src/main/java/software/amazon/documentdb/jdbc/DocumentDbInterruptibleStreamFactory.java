@@ -0,0 +1,273 @@
+/*
+ * Copyright <2021> Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ */
+
+package software.amazon.documentdb.jdbc;
+
+import com.mongodb.ServerAddress;
+import com.mongodb.connection.AsyncCompletionHandler;
+import com.mongodb.connection.SocketSettings;
+import com.mongodb.connection.SocketStreamFactory;
+import com.mongodb.connection.SslSettings;
+import com.mongodb.connection.Stream;
+import com.mongodb.connection.StreamFactory;
+import com.mongodb.connection.StreamFactoryFactory;
+import org.bson.ByteBuf;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Creates socket streams that can be closed while a thread is blocked reading from or writing
+ * to them.
+ *
+ * <p>The socket read timeout of a {@link com.mongodb.client.MongoClient} applies to all of its
+ * connections. To enforce the network timeout of a single JDBC connection, the operation run on a
+ * thread carries a deadline with the timeout of its connection, and each blocking read or write of
+ * the thread records the stream it uses. If the operation does not complete in time, the socket of
+ * the read or write in progress, or of the next one, is closed to unblock it. The driver then
+ * discards the pooled connection.</p>
+ */
+final class DocumentDbInterruptibleStreamFactory implements StreamFactoryFactory {
+    static final DocumentDbInterruptibleStreamFactory INSTANCE = new DocumentDbInterruptibleStreamFactory();
+    private static final Logger LOGGER =
+            LoggerFactory.getLogger(DocumentDbInterruptibleStreamFactory.class.getName());
+    private static final ThreadLocal<NetworkOperation> CURRENT_OPERATION = new ThreadLocal<>();
+
+    private DocumentDbInterruptibleStreamFactory() { }
+
+    @Override
+    public StreamFactory create(final SocketSettings socketSettings, final SslSettings sslSettings) {
+        final StreamFactory streamFactory = new SocketStreamFactory(socketSettings, sslSettings);
+        return serverAddress -> new InterruptibleStream(streamFactory.create(serverAddress));
+    }
+
+    /**
+     * Begins an operation with a network timeout on the current thread. The operation, including
+     * each blocking read or write of the thread until it is ended, must complete within the timeout.
+     *
+     * @param timeoutMillis the network timeout in milliseconds.
+     * @param executor the executor that closes the socket of the read or write that timed out.
+     * @param onTimeout the action run by the executor after the socket is closed.
+     * @return the operation, which must be ended when it completes.
+     */
+    static NetworkOperation beginOperation(
+            final long timeoutMillis,
+            final Executor executor,
+            final Runnable onTimeout) {
+        final NetworkOperation operation =
+                new NetworkOperation(timeoutMillis, executor, onTimeout, CURRENT_OPERATION.get());
+        CURRENT_OPERATION.set(operation);
+        return operation;
+    }
+
+    /**
+     * An operation run on a thread with the network timeout of its connection.
+     */
+    static final class NetworkOperation {
+        private final long timeoutMillis;
+        private final Executor executor;
+        private final Runnable onTimeout;
+        private final NetworkOperation previous;
+        private final DocumentDbQueryWatchdog.Deadline deadline;
+        private final AtomicBoolean isAborted = new AtomicBoolean(false);
+        // The stream of the read or write in progress on the thread, if any.
+        private volatile Stream currentStream = null;
+        private volatile boolean isExpired = false;
+
+        private NetworkOperation(
+                final long timeoutMillis,
+                final Executor executor,
+                final Runnable onTimeout,
+                final NetworkOperation previous) {
+            this.timeoutMillis = timeoutMillis;
+            this.executor = executor;
+            this.onTimeout = onTimeout;
+            this.previous = previous;
+            this.deadline = DocumentDbQueryWatchdog.start(timeoutMillis);
+            deadline.onExpiry(this::expire);
+        }
+
+        /**
+         * Gets the network timeout of the operation.
+         *
+         * @return the timeout in milliseconds.
+         */
+        long getTimeoutMillis() {
+            return timeoutMillis;
+        }
+
+        /**
+         * Gets whether the operation exceeded the network timeout.
+         *
+         * @return {@code true} if the operation timed out, {@code false} otherwise.
+         */
+        boolean isExpired() {
+            return isExpired;
+        }
+
+        /**
+         * Ends the operation, so later reads and writes of the thread are not bound by its timeout.
+         */
+        void end() {
+            deadline.cancel();
+            if (previous != null) {
+                CURRENT_OPERATION.set(previous);
+            } else {
+                CURRENT_OPERATION.remove();
+            }
+        }
+
+        private void startIo(final Stream stream) {
+            currentStream = stream;
+            if (isExpired) {
+                // The operation timed out before this read or write started.
+                executor.execute(() -> abortIo(stream));
+            }
+        }
+
+        private void endIo() {
+            currentStream = null;
+        }
+
+        private void expire() {
+            isExpired = true;
+            final Stream stream = currentStream;
+            if (stream != null) {
+                executor.execute(() -> abortIo(stream));
+            }
+        }
+
+        private void abortIo(final Stream stream) {
+            if (!isAborted.compareAndSet(false, true)) {
+                return;
+            }
+            LOGGER.debug("Closing the stream to {} after an operation exceeded the network timeout.",
+                    stream.getAddress());
+            stream.close();
+            onTimeout.run();
+        }
+    }
+
+    /**
+     * A stream that records each blocking read and write in the operation run on the current
+     * thread.
+     */
+    private static class InterruptibleStream implements Stream {
+        private final Stream stream;
+
+        InterruptibleStream(final Stream stream) {
+            this.stream = stream;
+        }
+
+        @Override
+        public void open() throws IOException {
+            final NetworkOperation operation = beginIo();
+            try {
+                stream.open();
+            } finally {
+                endIo(operation);
+            }
+        }
+
+        @Override
+        public void openAsync(final AsyncCompletionHandler<Void> handler) {
+            stream.openAsync(handler);
+        }
+
+        @Override
+        public void write(final List<ByteBuf> buffers) throws IOException {
+            final NetworkOperation operation = beginIo();
+            try {
+                stream.write(buffers);
+            } finally {
+                endIo(operation);
+            }
+        }
+
+        @Override
+        public ByteBuf read(final int numBytes) throws IOException {
+            final NetworkOperation operation = beginIo();
+            try {
+                return stream.read(numBytes);
+            } finally {
+                endIo(operation);
+            }
+        }
+
+        @Override
+        public boolean supportsAdditionalTimeout() {
+            return stream.supportsAdditionalTimeout();
+        }
+
+        @Override
+        public ByteBuf read(final int numBytes, final int additionalTimeout) throws IOException {
+            final NetworkOperation operation = beginIo();
+            try {
+                return stream.read(numBytes, additionalTimeout);
+            } finally {
+                endIo(operation);
+            }
+        }
+
+        @Override
+        public void writeAsync(final List<ByteBuf> buffers, final AsyncCompletionHandler<Void> handler) {
+            stream.writeAsync(buffers, handler);
+        }
+
+        @Override
+        public void readAsync(final int numBytes, final AsyncCompletionHandler<ByteBuf> handler) {
+            stream.readAsync(numBytes, handler);
+        }
+
+        @Override
+        public ServerAddress getAddress() {
+            return stream.getAddress();
+        }
+
+        @Override
+        public void close() {
+            stream.close();
+        }
+
+        @Override
+        public boolean isClosed() {
+            return stream.isClosed();
+        }
+
+        @Override
+        public ByteBuf getBuffer(final int size) {
+            return stream.getBuffer(size);
+        }
+
+        private NetworkOperation beginIo() {
+            final NetworkOperation operation = CURRENT_OPERATION.get();
+            if (operation != null) {
+                operation.startIo(this);
+            }
+            return operation;
+        }
+
+        private void endIo(final NetworkOperation operation) {
+            if (operation != null) {
+                operation.endIo();
+            }
+        }
+    }
+}
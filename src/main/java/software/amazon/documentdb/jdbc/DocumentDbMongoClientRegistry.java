@@ -0,0 +1,356 @@
+/*
+ * Copyright <2021> Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ */
+
+package software.amazon.documentdb.jdbc;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.hash.Hashing;
+import com.mongodb.ServerAddress;
+import com.mongodb.client.MongoClient;
+import com.mongodb.connection.ClusterConnectionMode;
+import com.mongodb.connection.ClusterDescription;
+import com.mongodb.connection.ServerDescription;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A process-wide registry of {@link MongoClient} instances shared by JDBC connections.
+ *
+ * <p>Each {@link MongoClient} owns a connection pool, server monitor threads and TLS sessions.
+ * Connections with the same effective client settings (hosts, credentials, TLS, read preference
+ * and SSH tunnel port) share a single client, which is closed when the last connection using it
+ * releases it.</p>
+ */
+final class DocumentDbMongoClientRegistry {
+    private static final Logger LOGGER =
+            LoggerFactory.getLogger(DocumentDbMongoClientRegistry.class.getName());
+    private static final String METRICS_OBJECT_NAME =
+            DocumentDbMongoClientRegistry.class.getPackage().getName() + ":type=ClientMetrics,name=%s";
+    private static final String REGISTRY_METRICS_OBJECT_NAME =
+            DocumentDbMongoClientRegistry.class.getPackage().getName() + ":type=ClientRegistry";
+    private static final Object LOCK = new Object();
+    private static final Map<List<Object>, SharedClient> CLIENTS_BY_KEY = new HashMap<>();
+    private static final Map<MongoClient, SharedClient> CLIENTS = new IdentityHashMap<>();
+    private static final AtomicLong CREATED_COUNT = new AtomicLong();
+    private static final AtomicLong REUSED_COUNT = new AtomicLong();
+    private static boolean isRegistryMetricsRegistered = false;
+
+    private DocumentDbMongoClientRegistry() { }
+
+    /**
+     * Gets a client for the connection properties, creating one if no client with the same
+     * settings is in use. Each call must be paired with a call to {@link #release(MongoClient)}.
+     *
+     * @param properties the connection properties.
+     * @param sshLocalPort the local port number for an internal SSH tunnel. A port number of zero
+     *                     indicates there is no valid internal SSH tunnel started.
+     * @return a shared {@link MongoClient}.
+     */
+    static MongoClient acquire(final DocumentDbConnectionProperties properties, final int sshLocalPort) {
+        final List<Object> key = getKey(properties, sshLocalPort);
+        synchronized (LOCK) {
+            SharedClient sharedClient = CLIENTS_BY_KEY.get(key);
+            if (sharedClient == null) {
+                sharedClient = createClient(key, properties, sshLocalPort);
+                CLIENTS_BY_KEY.put(key, sharedClient);
+                CLIENTS.put(sharedClient.client, sharedClient);
+                CREATED_COUNT.incrementAndGet();
+                LOGGER.debug("Created a new shared MongoClient. Open clients: {}", CLIENTS.size());
+            } else {
+                REUSED_COUNT.incrementAndGet();
+                LOGGER.debug("Reusing a shared MongoClient with {} other connection(s).",
+                        sharedClient.referenceCount);
+            }
+            sharedClient.referenceCount++;
+            return sharedClient.client;
+        }
+    }
+
+    /**
+     * Releases a client acquired with {@link #acquire(DocumentDbConnectionProperties, int)}. The
+     * client is closed when it is no longer used by any connection.
+     *
+     * @param client the client to release.
+     */
+    static void release(final MongoClient client) {
+        if (client == null) {
+            return;
+        }
+        final boolean close;
+        List<MongoClient> serverClients = Collections.emptyList();
+        synchronized (LOCK) {
+            final SharedClient sharedClient = CLIENTS.get(client);
+            if (sharedClient == null) {
+                // Not a shared client.
+                close = true;
+            } else {
+                sharedClient.referenceCount--;
+                close = sharedClient.referenceCount <= 0;
+                if (close) {
+                    CLIENTS.remove(client);
+                    CLIENTS_BY_KEY.remove(sharedClient.key);
+                    unregisterMetrics(sharedClient.metricsName);
+                    serverClients = new ArrayList<>(sharedClient.serverClients.values());
+                }
+            }
+        }
+        if (close) {
+            serverClients.forEach(MongoClient::close);
+            client.close();
+            LOGGER.debug("Closed MongoClient. Open clients: {}", getOpenClientCount());
+        }
+    }
+
+    /**
+     * Gets the server running an operation of a query with a shared client.
+     *
+     * @param client the shared client running the query.
+     * @param queryId the ID of the query.
+     * @return the address of the server, or {@code null} if the server is not known.
+     */
+    static ServerAddress getOperationServerAddress(final MongoClient client, final String queryId) {
+        final SharedClient sharedClient;
+        synchronized (LOCK) {
+            sharedClient = CLIENTS.get(client);
+        }
+        return sharedClient != null ? sharedClient.operationTracker.getServerAddress(queryId) : null;
+    }
+
+    /**
+     * Gets a client that runs commands on the given server, so an operation can be canceled on the
+     * server running it. Commands run with the shared client are sent to the primary, so a client
+     * connected directly to any other server is created and kept until the shared client is
+     * closed.
+     *
+     * @param client the shared client.
+     * @param serverAddress the address of the server, or {@code null} if the server is not known.
+     * @return the shared client, if it sends commands to the server, or a client connected
+     * directly to the server.
+     */
+    static MongoClient getServerClient(final MongoClient client, final ServerAddress serverAddress) {
+        if (serverAddress == null || isCommandServer(client.getClusterDescription(), serverAddress)) {
+            return client;
+        }
+        final SharedClient sharedClient;
+        synchronized (LOCK) {
+            sharedClient = CLIENTS.get(client);
+            if (sharedClient == null) {
+                // Not a shared client.
+                return client;
+            }
+            final MongoClient serverClient = sharedClient.serverClients.get(serverAddress);
+            if (serverClient != null) {
+                return serverClient;
+            }
+        }
+        // The client is created without the lock, so acquiring and releasing clients is not
+        // blocked while it starts. Only the first client created for the server is kept.
+        LOGGER.debug("Creating a MongoClient connected directly to server {}.", serverAddress);
+        final MongoClient newServerClient =
+                sharedClient.properties.createMongoClient(sharedClient.sshLocalPort, serverAddress);
+        final MongoClient existingServerClient;
+        synchronized (LOCK) {
+            if (CLIENTS.get(client) != sharedClient) {
+                // The shared client was closed while the server client was created.
+                existingServerClient = client;
+            } else {
+                existingServerClient = sharedClient.serverClients.putIfAbsent(serverAddress, newServerClient);
+            }
+        }
+        if (existingServerClient == null) {
+            return newServerClient;
+        }
+        newServerClient.close();
+        return existingServerClient;
+    }
+
+    /**
+     * Gets the number of clients created by the registry.
+     *
+     * @return the number of clients created.
+     */
+    static long getCreatedCount() {
+        return CREATED_COUNT.get();
+    }
+
+    /**
+     * Gets the number of times an existing client was reused for a connection.
+     *
+     * @return the number of times a client was reused.
+     */
+    static long getReusedCount() {
+        return REUSED_COUNT.get();
+    }
+
+    /**
+     * Gets the number of clients currently open.
+     *
+     * @return the number of open clients.
+     */
+    static int getOpenClientCount() {
+        synchronized (LOCK) {
+            return CLIENTS.size();
+        }
+    }
+
+    /**
+     * Gets whether commands run with a client are sent to the given server. Commands are sent to
+     * the primary or, when the client is connected directly to a server, to that server.
+     *
+     * @param clusterDescription the description of the cluster of the client.
+     * @param serverAddress the address of the server.
+     * @return {@code true} if commands are sent to the server, {@code false} otherwise.
+     */
+    @VisibleForTesting
+    static boolean isCommandServer(
+            final ClusterDescription clusterDescription,
+            final ServerAddress serverAddress) {
+        if (clusterDescription.getConnectionMode() == ClusterConnectionMode.SINGLE) {
+            return true;
+        }
+        for (ServerDescription serverDescription : clusterDescription.getServerDescriptions()) {
+            if (serverDescription.getAddress().equals(serverAddress)) {
+                return serverDescription.isPrimary();
+            }
+        }
+        return false;
+    }
+
+    private static SharedClient createClient(
+            final List<Object> key,
+            final DocumentDbConnectionProperties properties,
+            final int sshLocalPort) {
+        final DocumentDbOperationTracker operationTracker = new DocumentDbOperationTracker();
+        if (!properties.getMetricsEnabled()) {
+            return new SharedClient(key, properties, sshLocalPort,
+                    properties.createMongoClient(sshLocalPort, operationTracker, null), operationTracker, null);
+        }
+        registerRegistryMetrics();
+        final DocumentDbClientMetrics metrics = new DocumentDbClientMetrics();
+        final MongoClient client = properties.createMongoClient(sshLocalPort, operationTracker, metrics);
+        ObjectName metricsName = null;
+        try {
+            metricsName = new ObjectName(String.format(METRICS_OBJECT_NAME, ObjectName.quote(
+                    properties.getApplicationName() + "#" + (CREATED_COUNT.get() + 1))));
+            ManagementFactory.getPlatformMBeanServer().registerMBean(metrics, metricsName);
+            LOGGER.debug("Registered client metrics MBean '{}'.", metricsName);
+        } catch (JMException e) {
+            LOGGER.warn("Unable to register client metrics MBean: {}", e.getMessage(), e);
+            metricsName = null;
+        }
+        return new SharedClient(key, properties, sshLocalPort, client, operationTracker, metricsName);
+    }
+
+    /**
+     * Registers the MBean of the registry counts, the first time a client with metrics is created.
+     * The counts are kept for the life of the process, so the MBean is never unregistered. Must be
+     * called while holding the lock.
+     */
+    private static void registerRegistryMetrics() {
+        if (isRegistryMetricsRegistered) {
+            return;
+        }
+        isRegistryMetricsRegistered = true;
+        try {
+            final ObjectName name = new ObjectName(REGISTRY_METRICS_OBJECT_NAME);
+            ManagementFactory.getPlatformMBeanServer().registerMBean(new DocumentDbClientRegistryMetrics(), name);
+            LOGGER.debug("Registered client registry metrics MBean '{}'.", name);
+        } catch (JMException e) {
+            LOGGER.warn("Unable to register client registry metrics MBean: {}", e.getMessage(), e);
+        }
+    }
+
+    private static void unregisterMetrics(final ObjectName metricsName) {
+        if (metricsName == null) {
+            return;
+        }
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(metricsName);
+        } catch (JMException e) {
+            LOGGER.warn("Unable to unregister client metrics MBean: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Gets the key of the client settings built from the connection properties. The password is
+     * hashed so it is not held in the key.
+     */
+    private static List<Object> getKey(final DocumentDbConnectionProperties properties, final int sshLocalPort) {
+        final String password = properties.getPassword();
+        return Collections.unmodifiableList(Arrays.asList(
+                properties.getUser(),
+                password != null
+                        ? Hashing.sha256().hashString(password, StandardCharsets.UTF_8).toString()
+                        : null,
+                properties.getDefaultAuthenticationDatabase(),
+                properties.getHostname(),
+                sshLocalPort,
+                properties.getReplicaSet(),
+                properties.getLoginTimeout(),
+                properties.getTlsEnabled(),
+                properties.getTlsAllowInvalidHostnames(),
+                properties.getTlsCAFilePath(),
+                properties.getReadPreference(),
+                properties.getApplicationName(),
+                properties.getRetryReadsEnabled(),
+                properties.getMaxPoolSize(),
+                properties.getMinPoolSize(),
+                properties.getMaxConnecting(),
+                properties.getWaitQueueTimeout(),
+                properties.getMaxIdleTime(),
+                properties.getMetricsEnabled()));
+    }
+
+    private static class SharedClient {
+        private final List<Object> key;
+        private final DocumentDbConnectionProperties properties;
+        private final int sshLocalPort;
+        private final MongoClient client;
+        private final DocumentDbOperationTracker operationTracker;
+        private final ObjectName metricsName;
+        private final Map<ServerAddress, MongoClient> serverClients = new HashMap<>();
+        private int referenceCount;
+
+        SharedClient(
+                final List<Object> key,
+                final DocumentDbConnectionProperties properties,
+                final int sshLocalPort,
+                final MongoClient client,
+                final DocumentDbOperationTracker operationTracker,
+                final ObjectName metricsName) {
+            this.key = key;
+            // The properties of the first connection may be changed after it is opened.
+            this.properties = new DocumentDbConnectionProperties(properties);
+            this.sshLocalPort = sshLocalPort;
+            this.client = client;
+            this.operationTracker = operationTracker;
+            this.metricsName = metricsName;
+        }
+    }
+}
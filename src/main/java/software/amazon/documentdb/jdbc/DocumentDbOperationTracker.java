@@ -0,0 +1,76 @@
+/*
+ * Copyright <2021> Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ */
+
+package software.amazon.documentdb.jdbc;
+
+import com.mongodb.ServerAddress;
+import com.mongodb.event.CommandFailedEvent;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import com.mongodb.event.CommandSucceededEvent;
+import org.bson.BsonValue;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Records the server each running command of a query is sent to, from the driver events. The
+ * commands of a query are tagged with the query ID as comment, so the operation of the query can
+ * be canceled on the server running it.
+ */
+final class DocumentDbOperationTracker implements CommandListener {
+    private final ConcurrentMap<Integer, String> queryIdsByRequestId = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, ServerAddress> serverAddressesByQueryId = new ConcurrentHashMap<>();
+
+    @Override
+    public void commandStarted(final CommandStartedEvent event) {
+        final BsonValue comment = event.getCommand().get("comment");
+        if (comment == null || !comment.isString()) {
+            return;
+        }
+        final String queryId = comment.asString().getValue();
+        queryIdsByRequestId.put(event.getRequestId(), queryId);
+        serverAddressesByQueryId.put(queryId, event.getConnectionDescription().getServerAddress());
+    }
+
+    @Override
+    public void commandSucceeded(final CommandSucceededEvent event) {
+        commandCompleted(event.getRequestId(), event.getConnectionDescription().getServerAddress());
+    }
+
+    @Override
+    public void commandFailed(final CommandFailedEvent event) {
+        commandCompleted(event.getRequestId(), event.getConnectionDescription().getServerAddress());
+    }
+
+    /**
+     * Gets the server running a command of a query.
+     *
+     * @param queryId the ID of the query.
+     * @return the address of the server, or {@code null} if no command of the query is running.
+     */
+    ServerAddress getServerAddress(final String queryId) {
+        return serverAddressesByQueryId.get(queryId);
+    }
+
+    private void commandCompleted(final int requestId, final ServerAddress serverAddress) {
+        final String queryId = queryIdsByRequestId.remove(requestId);
+        if (queryId != null) {
+            // Another command of the query may have started on a different server.
+            serverAddressesByQueryId.remove(queryId, serverAddress);
+        }
+    }
+}
@@ -18,6 +18,8 @@ package software.amazon.documentdb.jdbc;
 
 import software.amazon.documentdb.jdbc.common.PooledConnection;
 
+import java.sql.SQLException;
+
 /**
  * DocumentDb implementation of PooledConnection.
  */
@@ -29,5 +31,27 @@ public class DocumentDbPooledConnection extends PooledConnection implements java
      */
     public DocumentDbPooledConnection(final java.sql.Connection connection) {
         super(connection);
+        if (connection instanceof DocumentDbConnection) {
+            ((DocumentDbConnection) connection).setPooledConnection(this);
+        }
+    }
+
+    /**
+     * Notifies the statement listeners that a prepared statement is closed.
+     *
+     * @param statement the closed statement.
+     */
+    void statementClosed(final DocumentDbPreparedStatement statement) {
+        fireStatementClosed(statement);
+    }
+
+    /**
+     * Notifies the statement listeners that a prepared statement is invalid.
+     *
+     * @param statement the invalid statement.
+     * @param exception the exception thrown by the statement.
+     */
+    void statementErrorOccurred(final DocumentDbPreparedStatement statement, final SQLException exception) {
+        fireStatementErrorOccurred(statement, exception);
     }
 }
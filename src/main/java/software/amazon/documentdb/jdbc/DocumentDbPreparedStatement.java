@@ -16,14 +16,18 @@
 
 package software.amazon.documentdb.jdbc;
 
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.ImmutableList;
 import lombok.SneakyThrows;
 import software.amazon.documentdb.jdbc.common.PreparedStatement;
+import software.amazon.documentdb.jdbc.common.utilities.SqlState;
+import software.amazon.documentdb.jdbc.query.DocumentDbMqlQueryContext;
 import software.amazon.documentdb.jdbc.query.DocumentDbQueryMappingService;
 
 import java.sql.Connection;
 import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
 
 import static software.amazon.documentdb.jdbc.DocumentDbStatement.setDefaultFetchSize;
 
@@ -33,7 +37,9 @@ import static software.amazon.documentdb.jdbc.DocumentDbStatement.setDefaultFetc
 public class DocumentDbPreparedStatement extends PreparedStatement
         implements java.sql.PreparedStatement {
     private int queryTimeout = 0;
+    private boolean poolable = true;
     private DocumentDbAllowDiskUseOption allowDiskUse = DocumentDbAllowDiskUseOption.DEFAULT;
+    private DocumentDbReadRoutingPolicy readRoutingPolicy = DocumentDbReadRoutingPolicy.NONE;
     private final DocumentDbQueryExecutor queryExecutor;
 
     /**
@@ -48,18 +54,31 @@ public class DocumentDbPreparedStatement extends PreparedStatement
         setDefaultFetchSize(this, documentDbConnection.getConnectionProperties());
         final DocumentDbConnectionProperties connectionProperties = documentDbConnection
                 .getConnectionProperties();
-        final DocumentDbQueryMappingService mappingService = new DocumentDbQueryMappingService(
-                connectionProperties,
-                documentDbConnection.getDatabaseMetadata());
         setAllowDiskUse(connectionProperties.getAllowDiskUseOption());
+        setReadRoutingPolicy(connectionProperties.getReadRoutingPolicy());
         queryExecutor = new DocumentDbQueryExecutor(
                 this,
                 connectionProperties,
-                mappingService,
                 getQueryTimeout(),
                 getFetchSize());
     }
 
+    /**
+     * DocumentDbPreparedStatement constructor. Accepts a DocumentDbQueryExecutor that can
+     * be used for testing purposes.
+     * @param connection the connection.
+     * @param sql the SQL query.
+     * @param queryExecutor the DocumentDbQueryExecutor.
+     * @throws SQLException if unable to construct a new {@link java.sql.PreparedStatement}.
+     */
+    DocumentDbPreparedStatement(
+            final DocumentDbConnection connection,
+            final String sql,
+            final DocumentDbQueryExecutor queryExecutor) throws SQLException {
+        super(connection, sql);
+        this.queryExecutor = queryExecutor;
+    }
+
     @Override
     protected void cancelQuery(final boolean isClosing) throws SQLException {
         queryExecutor.cancelQuery(isClosing);
@@ -69,7 +88,63 @@ public class DocumentDbPreparedStatement extends PreparedStatement
     public java.sql.ResultSet executeQuery() throws SQLException {
         verifyOpen();
         queryExecutor.setFetchSize(getFetchSize());
-        return queryExecutor.executeQuery(getSql());
+        queryExecutor.setReadRoutingPolicy(readRoutingPolicy);
+        try {
+            return queryExecutor.executeQuery(getSql());
+        } catch (SQLException e) {
+            final DocumentDbPooledConnection pooledConnection = getPooledConnection();
+            if (pooledConnection != null && isInvalidatingError(e)) {
+                pooledConnection.statementErrorOccurred(this, e);
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Gets whether an error invalidates the statement, so it must not be reused. Only
+     * errors translating the query against the schema invalidate the statement; timeouts, cancels
+     * and network errors do not.
+     *
+     * @param e the error thrown executing the statement.
+     * @return {@code true} if the statement is invalid, {@code false} otherwise.
+     */
+    private static boolean isInvalidatingError(final SQLException e) {
+        return e instanceof SQLFeatureNotSupportedException
+                || SqlState.INVALID_QUERY_EXPRESSION.getSqlState().equals(e.getSQLState());
+    }
+
+    /**
+     * Closes the statement. If the statement was prepared on a pooled connection, the statement
+     * listeners of the pooled connection are notified.
+     *
+     * @throws SQLException if an error occurs closing the statement.
+     */
+    @Override
+    public void close() throws SQLException {
+        if (isClosed()) {
+            return;
+        }
+        final DocumentDbPooledConnection pooledConnection = getPooledConnection();
+        super.close();
+        if (pooledConnection != null) {
+            pooledConnection.statementClosed(this);
+        }
+    }
+
+    @Override
+    public boolean isPoolable() throws SQLException {
+        verifyOpen();
+        return poolable;
+    }
+
+    @Override
+    public void setPoolable(final boolean poolable) throws SQLException {
+        verifyOpen();
+        this.poolable = poolable;
+    }
+
+    private DocumentDbPooledConnection getPooledConnection() throws SQLException {
+        return ((DocumentDbConnection) getConnection()).getPooledConnection();
     }
 
     @Override
@@ -78,10 +153,9 @@ public class DocumentDbPreparedStatement extends PreparedStatement
         verifyOpen();
         if (getResultSet() == null) {
             final DocumentDbConnection connection = (DocumentDbConnection)getConnection();
-            final DocumentDbQueryMappingService mappingService = new DocumentDbQueryMappingService(
-                    connection.getConnectionProperties(),
-                    connection.getDatabaseMetadata());
-            return new DocumentDbResultSetMetaData(ImmutableList.copyOf(mappingService.get(getSql()).getColumnMetaData()));
+            final DocumentDbQueryMappingService mappingService = connection.getQueryMappingService();
+            final DocumentDbMqlQueryContext queryContext = mappingService.get(getSql());
+            return new DocumentDbResultSetMetaData(ImmutableList.copyOf(queryContext.getColumnMetaData()));
         }
         return getResultSet().getMetaData();
     }
@@ -132,4 +206,31 @@ public class DocumentDbPreparedStatement extends PreparedStatement
         verifyOpen();
         this.allowDiskUse = allowDiskUse;
     }
+
+    /**
+     * Gets the read routing policy for the statement.
+     *
+     * @return one of the read routing policies.
+     * @throws SQLException if the connection is not open.
+     */
+    public DocumentDbReadRoutingPolicy getReadRoutingPolicy() throws SQLException {
+        verifyOpen();
+        return readRoutingPolicy;
+    }
+
+    /**
+     * Sets the read routing policy for the statement, overriding the policy of the connection.
+     *
+     * @param readRoutingPolicy the policy used to choose the read preference of the query.
+     * @throws SQLException if the connection is not open.
+     */
+    public void setReadRoutingPolicy(final DocumentDbReadRoutingPolicy readRoutingPolicy) throws SQLException {
+        verifyOpen();
+        this.readRoutingPolicy = readRoutingPolicy;
+    }
+
+    @VisibleForTesting
+    DocumentDbQueryExecutor getQueryExecutor() {
+        return queryExecutor;
+    }
 }
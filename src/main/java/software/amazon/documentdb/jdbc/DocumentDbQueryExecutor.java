@@ -18,47 +18,82 @@ package software.amazon.documentdb.jdbc;
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.mongodb.MongoException;
+import com.mongodb.MongoNamespace;
+import com.mongodb.ReadPreference;
+import com.mongodb.ServerCursor;
 import com.mongodb.client.AggregateIterable;
+import com.mongodb.client.FindIterable;
 import com.mongodb.client.MongoClient;
 import com.mongodb.client.MongoCollection;
 import com.mongodb.client.MongoCursor;
 import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.CountOptions;
+import com.mongodb.client.model.EstimatedDocumentCountOptions;
+import org.apache.calcite.linq4j.Enumerator;
 import org.bson.Document;
 import org.bson.conversions.Bson;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import software.amazon.documentdb.jdbc.calcite.adapter.DocumentDbQueryRunner;
 import software.amazon.documentdb.jdbc.common.utilities.JdbcColumnMetaData;
 import software.amazon.documentdb.jdbc.common.utilities.SqlError;
 import software.amazon.documentdb.jdbc.common.utilities.SqlState;
+import software.amazon.documentdb.jdbc.query.DocumentDbCountQuery;
+import software.amazon.documentdb.jdbc.query.DocumentDbFindQuery;
+import software.amazon.documentdb.jdbc.query.DocumentDbHybridQuery;
 import software.amazon.documentdb.jdbc.query.DocumentDbMqlQueryContext;
 import software.amazon.documentdb.jdbc.query.DocumentDbQueryMappingService;
 
 import java.sql.SQLException;
 import java.time.Instant;
+import java.util.Collections;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * DocumentDb implementation of QueryExecution.
  */
 public class DocumentDbQueryExecutor {
     private static final int OPERATION_CANCELLED_CODE = 11601;
+    private static final long CANCEL_TIMEOUT_MS = 1000;
+    // The smallest max staleness accepted by the server.
+    private static final long MIN_MAX_STALENESS_SECS = 90;
+    // Cancels and cursor kills are short, so a few threads serve all statements.
+    private static final int CANCEL_THREAD_COUNT = 4;
+    private static final long CANCEL_THREAD_KEEP_ALIVE_SECS = 60;
+    // Cancels are rejected rather than queued without bound when the cancel threads fall behind.
+    private static final int CANCEL_QUEUE_CAPACITY = 256;
+    private static final ExecutorService CANCEL_EXECUTOR = createCancelExecutor();
     private static final Logger LOGGER = LoggerFactory.getLogger(DocumentDbQueryExecutor.class);
     private final Object queryStateLock = new Object();
     private final java.sql.Statement statement;
-    private final DocumentDbConnectionProperties connectionProperties;
-    private final DocumentDbQueryMappingService queryMapper;
     private int fetchSize;
     private int queryTimeout;
     private  DocumentDbAllowDiskUseOption allowDiskUse;
+    private DocumentDbReadRoutingPolicy readRoutingPolicy;
     private String queryId = null;
+    private MongoClient queryClient = null;
+    private DocumentDbQueryWatchdog.Deadline queryDeadline = null;
+    // Set to stop the operators executed in the driver of the last hybrid query, whose results
+    // are computed while its result set is read.
+    private AtomicBoolean hybridCancelFlag = null;
     private QueryState queryState = QueryState.NOT_STARTED;
 
     private enum QueryState {
         NOT_STARTED,
         IN_PROGRESS,
+        CANCELING,
         CANCELED
     }
 
@@ -68,37 +103,157 @@ public class DocumentDbQueryExecutor {
     DocumentDbQueryExecutor(
             final java.sql.Statement statement,
             final DocumentDbConnectionProperties connectionProperties,
-            final DocumentDbQueryMappingService queryMapper,
             final int queryTimeoutSecs,
             final int fetchSize) {
         this.statement = statement;
-        this.connectionProperties = connectionProperties;
-        this.queryMapper = queryMapper;
         this.fetchSize = fetchSize;
         this.queryTimeout = queryTimeoutSecs;
         this.allowDiskUse = connectionProperties.getAllowDiskUseOption();
+        this.readRoutingPolicy = connectionProperties.getReadRoutingPolicy();
+    }
+
+    private static ExecutorService createCancelExecutor() {
+        final ThreadPoolExecutor executor = new ThreadPoolExecutor(
+                CANCEL_THREAD_COUNT,
+                CANCEL_THREAD_COUNT,
+                CANCEL_THREAD_KEEP_ALIVE_SECS,
+                TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(CANCEL_QUEUE_CAPACITY),
+                new ThreadFactoryBuilder().setNameFormat("documentdb-cancel-%d").setDaemon(true).build(),
+                new ThreadPoolExecutor.AbortPolicy());
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
     }
 
     /**
-     * This function wraps query cancellation and ensures query state is kept consistent.
+     * This function wraps query cancellation and ensures query state is kept consistent. The
+     * running operation is killed asynchronously using the connection's client. Unless the
+     * statement is closing, the caller waits a bounded time for the operation to be killed. The
+     * cancel fails if the connection's client is not available or if too many cancels are pending.
+     * The operators executed in the driver of a hybrid query stop at their next row, including
+     * while its result set is read.
      *
      * @throws SQLException If query cancellation fails or cannot be executed.
      * @param isClosing An indicator for whether the statement is closing.
      */
     protected void cancelQuery(final boolean isClosing) throws SQLException {
+        final String cancelQueryId;
+        final MongoClient cancelClient;
         synchronized (queryStateLock) {
-            if (queryState.equals(QueryState.CANCELED)) {
+            if (hybridCancelFlag != null) {
+                hybridCancelFlag.set(true);
+            }
+            if (queryState.equals(QueryState.CANCELED) || queryState.equals(QueryState.CANCELING)) {
                 return;
             } else if (queryState.equals(QueryState.NOT_STARTED)) {
-                if (isClosing) {
+                if (isClosing || hybridCancelFlag != null) {
                     return;
                 }
                 throw SqlError.createSQLException(
                         LOGGER, SqlState.OPERATION_CANCELED,
                         SqlError.QUERY_NOT_STARTED_OR_COMPLETE);
             }
-            performCancel();
-            queryState = QueryState.CANCELED;
+            cancelQueryId = queryId;
+            cancelClient = queryClient;
+        }
+
+        // Kill the operation on a separate thread, so the caller (for example, a timeout
+        // watchdog or a closing statement) is not blocked by the server round trips.
+        final Future<?> cancelTask;
+        try {
+            cancelTask = submitCancel(cancelClient, cancelQueryId, isClosing);
+        } catch (RejectedExecutionException e) {
+            if (isClosing) {
+                LOGGER.warn("Failed to cancel running query while closing statement: {}", e.getMessage());
+                return;
+            }
+            throw SqlError.createSQLException(
+                    LOGGER,
+                    SqlState.OPERATION_CANCELED,
+                    SqlError.QUERY_CANNOT_BE_CANCELED,
+                    "too many cancels are pending");
+        }
+        if (isClosing) {
+            return;
+        }
+        try {
+            cancelTask.get(CANCEL_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            LOGGER.debug("Query {}: Cancel is still in progress after {} ms.", cancelQueryId, CANCEL_TIMEOUT_MS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof SQLException) {
+                throw (SQLException) e.getCause();
+            }
+            throw SqlError.createSQLException(
+                    LOGGER,
+                    SqlState.OPERATION_CANCELED,
+                    SqlError.QUERY_CANNOT_BE_CANCELED,
+                    e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw SqlError.createSQLException(
+                    LOGGER,
+                    SqlState.OPERATION_CANCELED,
+                    SqlError.QUERY_CANNOT_BE_CANCELED,
+                    e);
+        }
+    }
+
+    /**
+     * Submits a task that kills the running operation of a query on the cancel executor.
+     *
+     * @param cancelClient the client of the connection that runs the query.
+     * @param cancelQueryId the ID of the query.
+     * @param isClosing An indicator for whether the statement is closing.
+     * @return the future of the task.
+     * @throws RejectedExecutionException if too many cancels are pending.
+     */
+    private Future<?> submitCancel(
+            final MongoClient cancelClient,
+            final String cancelQueryId,
+            final boolean isClosing) {
+        return CANCEL_EXECUTOR.submit(() -> {
+            synchronized (queryStateLock) {
+                // The query may have completed or been canceled while waiting for the executor.
+                if (!queryState.equals(QueryState.IN_PROGRESS) || !cancelQueryId.equals(queryId)) {
+                    return null;
+                }
+                queryState = QueryState.CANCELING;
+            }
+            try {
+                killOperation(cancelClient, cancelQueryId);
+            } catch (SQLException e) {
+                if (isClosing) {
+                    LOGGER.warn("Failed to cancel running query while closing statement: {}",
+                            e.getMessage());
+                }
+                throw e;
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Kills the running operation of a query that is being canceled, and records the outcome in
+     * the query state. The server round trips are made without the lock, so they do not block the
+     * query.
+     *
+     * @param cancelClient the client of the connection that runs the query.
+     * @param cancelQueryId the ID of the query.
+     * @throws SQLException if the operation cannot be killed.
+     */
+    private void killOperation(final MongoClient cancelClient, final String cancelQueryId) throws SQLException {
+        boolean isCanceled = false;
+        try {
+            performCancel(cancelClient, cancelQueryId);
+            isCanceled = true;
+        } finally {
+            synchronized (queryStateLock) {
+                if (queryState.equals(QueryState.CANCELING) && cancelQueryId.equals(queryId)) {
+                    queryState = isCanceled ? QueryState.CANCELED : QueryState.IN_PROGRESS;
+                }
+                queryStateLock.notifyAll();
+            }
         }
     }
 
@@ -111,7 +266,7 @@ public class DocumentDbQueryExecutor {
      */
     public java.sql.ResultSet executeQuery(final String query) throws SQLException {
         synchronized (queryStateLock) {
-            if (queryState.equals(QueryState.IN_PROGRESS)) {
+            if (queryState.equals(QueryState.IN_PROGRESS) || queryState.equals(QueryState.CANCELING)) {
                 throw SqlError.createSQLException(
                         LOGGER,
                         SqlState.OPERATION_CANCELED,
@@ -119,25 +274,45 @@ public class DocumentDbQueryExecutor {
             }
             queryState = QueryState.IN_PROGRESS;
             queryId = UUID.randomUUID().toString();
+            hybridCancelFlag = null;
+            queryClient = getConnectionClient();
+            queryDeadline = startDeadline(queryId);
         }
 
+        final DocumentDbQueryWatchdog.Deadline deadline = queryDeadline;
+        final DocumentDbConnection connection = getDocumentDbConnection();
+        final DocumentDbInterruptibleStreamFactory.NetworkOperation networkOperation = connection != null
+                ? connection.startNetworkOperation()
+                : null;
+        java.sql.ResultSet resultSet = null;
+        boolean isReturned = false;
         try {
-            final java.sql.ResultSet resultSet = runQuery(query);
+            resultSet = runQuery(query);
             synchronized (queryStateLock) {
+                waitForCancel();
                 if (queryState.equals(QueryState.CANCELED)) {
                     resetQueryState();
+                    if (deadline != null && deadline.isExpired()) {
+                        throw deadline.createTimeoutException();
+                    }
                     throw SqlError.createSQLException(
                             LOGGER,
                             SqlState.OPERATION_CANCELED,
                             SqlError.QUERY_CANCELED);
                 }
             }
+            isReturned = true;
             return resultSet;
         } catch (final SQLException e) {
             throw e;
         } catch (final Exception e) {
             synchronized (queryStateLock) {
-                if (e instanceof MongoException
+                waitForCancel();
+                if (deadline != null && deadline.isExpired()) {
+                    throw deadline.createTimeoutException();
+                } else if (networkOperation != null && networkOperation.isExpired()) {
+                    throw connection.createNetworkTimeoutException(networkOperation);
+                } else if (e instanceof MongoException
                         && ((MongoException) e).getCode() == OPERATION_CANCELLED_CODE
                         && queryState.equals(QueryState.CANCELED)) {
                     throw SqlError.createSQLException(
@@ -152,10 +327,147 @@ public class DocumentDbQueryExecutor {
                 }
             }
         } finally {
+            if (networkOperation != null) {
+                networkOperation.end();
+            }
+            // Result sets that fetch from a cursor keep the deadline until they are closed.
+            if (deadline != null && !(isReturned && (resultSet instanceof DocumentDbResultSet
+                    || resultSet instanceof DocumentDbHybridResultSet))) {
+                deadline.cancel();
+            }
             resetQueryState();
         }
     }
 
+    /**
+     * Waits for a cancel of the query that is killing the operation on the server, so the outcome
+     * of the query can be reported. Must be called while holding the query state lock.
+     */
+    private void waitForCancel() {
+        while (queryState.equals(QueryState.CANCELING)) {
+            try {
+                queryStateLock.wait();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Starts the deadline of a query if a query timeout is set. When the deadline expires while the
+     * query is executing, the query is canceled. The cancel waits for the state of the query and
+     * for the server, so it is run on the cancel executor rather than on the thread of the
+     * watchdog.
+     *
+     * @param deadlineQueryId the ID of the query.
+     * @return the deadline of the query, or {@code null} if there is no query timeout.
+     */
+    private DocumentDbQueryWatchdog.Deadline startDeadline(final String deadlineQueryId) {
+        if (getQueryTimeout() <= 0) {
+            return null;
+        }
+        final DocumentDbQueryWatchdog.Deadline deadline =
+                DocumentDbQueryWatchdog.start(TimeUnit.SECONDS.toMillis(getQueryTimeout()));
+        deadline.onExpiry(() -> runOnExpiry(() -> cancelOnTimeout(deadlineQueryId)));
+        return deadline;
+    }
+
+    /**
+     * Runs a task of an expired deadline on the cancel executor. If too many cancels are pending,
+     * the task is run on the thread of the watchdog instead, so the query does not outlive its
+     * timeout.
+     *
+     * @param task the task that stops the query.
+     */
+    private static void runOnExpiry(final Runnable task) {
+        try {
+            CANCEL_EXECUTOR.execute(task);
+        } catch (RejectedExecutionException e) {
+            LOGGER.debug("Too many cancels are pending, stopping the query on the watchdog thread.");
+            task.run();
+        }
+    }
+
+    /**
+     * Cancels a query that exceeded the query timeout, if it is still executing.
+     *
+     * @param deadlineQueryId the ID of the query.
+     */
+    private void cancelOnTimeout(final String deadlineQueryId) {
+        final MongoClient cancelClient;
+        synchronized (queryStateLock) {
+            if (!deadlineQueryId.equals(queryId)) {
+                return;
+            }
+            if (hybridCancelFlag != null) {
+                hybridCancelFlag.set(true);
+            }
+            if (!queryState.equals(QueryState.IN_PROGRESS)) {
+                return;
+            }
+            queryState = QueryState.CANCELING;
+            cancelClient = queryClient;
+        }
+        LOGGER.info("Query {}: Canceling query after exceeding the query timeout.", deadlineQueryId);
+        try {
+            killOperation(cancelClient, deadlineQueryId);
+        } catch (SQLException e) {
+            LOGGER.warn("Query {}: Failed to cancel query after exceeding the query timeout: {}",
+                    deadlineQueryId, e.getMessage());
+        }
+    }
+
+    /**
+     * Kills the server cursor of a query when the deadline expires while its results are fetched.
+     * The cursor is killed on the server that returned it.
+     *
+     * @param deadline the deadline of the query.
+     * @param client the client of the connection.
+     * @param namespace the namespace of the cursor.
+     * @param cursor the cursor.
+     * @return the cursor.
+     */
+    static MongoCursor<Document> killCursorOnExpiry(
+            final DocumentDbQueryWatchdog.Deadline deadline,
+            final MongoClient client,
+            final MongoNamespace namespace,
+            final MongoCursor<Document> cursor) {
+        if (deadline != null && client != null) {
+            deadline.onExpiry(() -> runOnExpiry(() -> {
+                try {
+                    final ServerCursor serverCursor = cursor.getServerCursor();
+                    if (serverCursor == null) {
+                        // All results have been fetched.
+                        return;
+                    }
+                    final MongoClient serverClient =
+                            DocumentDbMongoClientRegistry.getServerClient(client, serverCursor.getAddress());
+                    serverClient.getDatabase(namespace.getDatabaseName()).runCommand(
+                            new Document("killCursors", namespace.getCollectionName())
+                                    .append("cursors", Collections.singletonList(serverCursor.getId())));
+                } catch (Exception e) {
+                    LOGGER.debug("Unable to kill cursor after the query timeout expired: {}", e.getMessage());
+                }
+            }));
+        }
+        return cursor;
+    }
+
+    /**
+     * Gets the remaining time of the deadline to apply as the server time limit of an operation.
+     *
+     * @param deadline the deadline of the query, or {@code null} if there is no query timeout.
+     * @return the time limit in milliseconds, or zero if there is no time limit.
+     */
+    private static long getMaxTimeMillis(final DocumentDbQueryWatchdog.Deadline deadline) {
+        if (deadline == null) {
+            return 0;
+        }
+        // An expired deadline still sets the smallest time limit, so the operation fails fast.
+        return Math.max(1, deadline.getRemainingMillis());
+    }
+
     /**
      * Function to execute query.
      * @param sql Query to execute.
@@ -168,27 +480,202 @@ public class DocumentDbQueryExecutor {
 
         LOGGER.info("Query {}: Beginning translation of query.", queryId);
         LOGGER.debug("Query {}: {}", queryId, sql);
+        if (!(statement.getConnection() instanceof DocumentDbConnection)) {
+            throw new SQLException("Unexpected operation state.");
+        }
+        final DocumentDbConnection connection = (DocumentDbConnection) statement.getConnection();
         final long maxRows = statement.getLargeMaxRows();
+        // The mapping service is replaced when the database metadata is refreshed, so it is
+        // resolved for each query rather than kept by reused statements.
+        final DocumentDbQueryMappingService queryMapper = connection.getQueryMappingService();
         final DocumentDbMqlQueryContext queryContext = queryMapper.get(sql, maxRows);
         LOGGER.info("Query {}: Took {} ms to translate query.", queryId,
                 Instant.now().toEpochMilli() - beginTranslation.toEpochMilli());
-        if (!(statement.getConnection() instanceof DocumentDbConnection)) {
-            throw new SQLException("Unexpected operation state.");
+        final DocumentDbQueryWatchdog.Deadline deadline = queryDeadline;
+        if (deadline != null) {
+            deadline.verifyNotExpired();
         }
         final Instant beginExecution = Instant.now();
-        final DocumentDbConnection connection = (DocumentDbConnection) statement.getConnection();
         final DocumentDbConnectionProperties properties = connection.getConnectionProperties();
         final MongoClient client = connection.getMongoClient();
+        final ImmutableList<JdbcColumnMetaData> columnMetaData = ImmutableList
+                .copyOf(queryContext.getColumnMetaData());
+        final ReadPreference readPreference = getReadPreference(queryContext, properties);
+        if (readPreference != null) {
+            LOGGER.debug("Query {}: Routing {} query with read preference: {}", queryId,
+                    queryContext.isAnalyticQuery() ? "analytic" : "non-analytic", readPreference);
+        }
+
+        final DocumentDbHybridQuery hybridQuery = queryContext.getHybridQuery();
+        if (hybridQuery != null) {
+            final AtomicBoolean cancelFlag = new AtomicBoolean(false);
+            synchronized (queryStateLock) {
+                hybridCancelFlag = cancelFlag;
+            }
+            if (deadline != null) {
+                deadline.onExpiry(() -> cancelFlag.set(true));
+            }
+            final Integer maxRowsInMemory = properties.getHybridExecutionMaxRowsInMemory();
+            final Enumerator<Object> enumerator = hybridQuery.execute(createQueryRunner(
+                    client, readPreference, deadline,
+                    maxRowsInMemory != null
+                            ? maxRowsInMemory
+                            : Integer.parseInt(DocumentDbConnectionProperty.HYBRID_EXECUTION_MAX_ROWS_IN_MEMORY
+                                    .getDefaultValue())), cancelFlag);
+            LOGGER.info("Query {}: Took {} ms to start hybrid execution of query.", queryId,
+                    Instant.now().toEpochMilli() - beginExecution.toEpochMilli());
+            return new DocumentDbHybridResultSet(this.statement, enumerator, columnMetaData, deadline, cancelFlag);
+        }
 
         final MongoDatabase database = client.getDatabase(properties.getDatabase());
-        final MongoCollection<Document> collection = database
-                .getCollection(queryContext.getCollectionName());
+        final MongoCollection<Document> collection = withReadPreference(
+                database.getCollection(queryContext.getCollectionName()), readPreference);
+
+        final DocumentDbCountQuery countQuery = queryContext.getCountQuery();
+        if (countQuery != null) {
+            final long count = count(collection, countQuery, properties.getApproximateCount(), deadline);
+            LOGGER.info("Query {}: Took {} ms to count documents.", queryId,
+                    Instant.now().toEpochMilli() - beginExecution.toEpochMilli());
+            LOGGER.debug("Query {}: Counted documents of collection {} with filter: {}",
+                    queryId, queryContext.getCollectionName(), countQuery.getFilter());
+            final List<List<Object>> rows = Collections.singletonList(Collections.singletonList(count));
+            return new DocumentDbListResultSet(this.statement, columnMetaData, rows);
+        }
 
+        final DocumentDbFindQuery findQuery = queryContext.getFindQuery();
         final List<Bson> aggregateOperations = queryContext.getAggregateOperations();
+        final MongoCursor<Document> iterator = killCursorOnExpiry(deadline, client, collection.getNamespace(),
+                findQuery != null
+                        ? find(collection, findQuery, deadline).iterator()
+                        : aggregate(collection, aggregateOperations, deadline).iterator());
+        LOGGER.info("Query {}: Took {} ms to execute query and retrieve first batch of results.", queryId,
+                Instant.now().toEpochMilli() - beginExecution.toEpochMilli());
+        if (findQuery != null) {
+            LOGGER.debug("Query {}: Executed find on collection {} with filter: {}, projection: {}, sort: {},"
+                            + " skip: {}, limit: {}",
+                    queryId, queryContext.getCollectionName(), findQuery.getFilter(), findQuery.getProjection(),
+                    findQuery.getSort(), findQuery.getSkip(), findQuery.getLimit());
+        } else {
+            LOGGER.debug("Query {}: Executed on collection {} with following pipeline operations: {}",
+                    queryId, queryContext.getCollectionName(), aggregateOperations.toString());
+        }
+        return new DocumentDbResultSet(
+                this.statement,
+                iterator,
+                columnMetaData,
+                findQuery != null ? findQuery.getPaths() : queryContext.getPaths(),
+                deadline);
+    }
 
-        AggregateIterable<Document> iterable = collection.aggregate(aggregateOperations);
-        if (getQueryTimeout() > 0) {
-            iterable = iterable.maxTime(getQueryTimeout(), TimeUnit.SECONDS);
+    /**
+     * Creates the runner used by a hybrid query to execute its pushed-down parts. Each part uses
+     * the same query options as a fully pushed-down query.
+     *
+     * @param client the client of the connection.
+     * @param readPreference the read preference of the query, or {@code null} to use the read
+     *                       preference of the connection.
+     * @param deadline the deadline of the query, or {@code null} if there is no query timeout.
+     * @param maxRowsInMemory the maximum number of rows an operator executed in the driver may hold
+     *                        in memory.
+     * @return a new {@link DocumentDbQueryRunner}.
+     */
+    private DocumentDbQueryRunner createQueryRunner(
+            final MongoClient client,
+            final ReadPreference readPreference,
+            final DocumentDbQueryWatchdog.Deadline deadline,
+            final int maxRowsInMemory) {
+        return new DocumentDbQueryRunner() {
+            @Override
+            public MongoCursor<Document> find(
+                    final String databaseName,
+                    final String collectionName,
+                    final DocumentDbFindQuery findQuery) {
+                LOGGER.debug("Query {}: Executing find on collection {} with filter: {}, projection: {}",
+                        queryId, collectionName, findQuery.getFilter(), findQuery.getProjection());
+                final MongoCollection<Document> collection = withReadPreference(
+                        client.getDatabase(databaseName).getCollection(collectionName), readPreference);
+                return killCursorOnExpiry(deadline, client, collection.getNamespace(),
+                        DocumentDbQueryExecutor.this.find(collection, findQuery, deadline).iterator());
+            }
+
+            @Override
+            public MongoCursor<Document> aggregate(
+                    final String databaseName,
+                    final String collectionName,
+                    final List<Bson> stages) {
+                LOGGER.debug("Query {}: Executing on collection {} with following pipeline operations: {}",
+                        queryId, collectionName, stages);
+                final MongoCollection<Document> collection = withReadPreference(
+                        client.getDatabase(databaseName).getCollection(collectionName), readPreference);
+                return killCursorOnExpiry(deadline, client, collection.getNamespace(),
+                        DocumentDbQueryExecutor.this.aggregate(collection, stages, deadline).iterator());
+            }
+
+            @Override
+            public int getMaxRowsInMemory() {
+                return maxRowsInMemory;
+            }
+        };
+    }
+
+    /**
+     * Gets the read preference of a query from the read routing policy. With the workload policy,
+     * analytic queries read from secondaries, if available, with a bound on staleness, and all
+     * other queries read from the primary.
+     *
+     * @param queryContext the translated query.
+     * @param properties the connection properties.
+     * @return the read preference of the query, or {@code null} to use the read preference of
+     * the connection.
+     */
+    @VisibleForTesting
+    ReadPreference getReadPreference(
+            final DocumentDbMqlQueryContext queryContext,
+            final DocumentDbConnectionProperties properties) {
+        if (getReadRoutingPolicy() != DocumentDbReadRoutingPolicy.WORKLOAD) {
+            return null;
+        }
+        if (!queryContext.isAnalyticQuery()) {
+            return ReadPreference.primary();
+        }
+        final Integer maxStalenessSecs = properties.getReadRoutingMaxStalenessSec();
+        final long maxStaleness = maxStalenessSecs != null
+                ? maxStalenessSecs
+                : Long.parseLong(DocumentDbConnectionProperty.READ_ROUTING_MAX_STALENESS_SEC.getDefaultValue());
+        return maxStaleness > 0
+                ? ReadPreference.secondaryPreferred(
+                        Math.max(maxStaleness, MIN_MAX_STALENESS_SECS), TimeUnit.SECONDS)
+                : ReadPreference.secondaryPreferred();
+    }
+
+    /**
+     * Applies the read preference of a query to a collection.
+     *
+     * @param collection the collection.
+     * @param readPreference the read preference of the query, or {@code null} to use the read
+     *                       preference of the connection.
+     * @return the collection with the read preference of the query.
+     */
+    @VisibleForTesting
+    MongoCollection<Document> withReadPreference(
+            final MongoCollection<Document> collection,
+            final ReadPreference readPreference) {
+        return readPreference != null
+                ? collection.withReadPreference(readPreference)
+                : collection;
+    }
+
+    @VisibleForTesting
+    AggregateIterable<Document> aggregate(
+            final MongoCollection<Document> collection,
+            final List<Bson> aggregateOperations,
+            final DocumentDbQueryWatchdog.Deadline deadline) {
+        // Tag the operation with the query ID, so it can be found to be canceled.
+        AggregateIterable<Document> iterable = collection.aggregate(aggregateOperations)
+                .comment(queryId);
+        final long maxTimeMillis = getMaxTimeMillis(deadline);
+        if (maxTimeMillis > 0) {
+            iterable = iterable.maxTime(maxTimeMillis, TimeUnit.MILLISECONDS);
         }
         if (getFetchSize() > 0) {
             iterable = iterable.batchSize(getFetchSize());
@@ -198,36 +685,115 @@ public class DocumentDbQueryExecutor {
         } else if (getAllowDiskUse() == DocumentDbAllowDiskUseOption.DISABLE) {
             iterable = iterable.allowDiskUse(false);
         }
+        return iterable;
+    }
 
-        final ImmutableList<JdbcColumnMetaData> columnMetaData = ImmutableList
-                .copyOf(queryContext.getColumnMetaData());
-        final MongoCursor<Document> iterator = iterable.iterator();
-        LOGGER.info("Query {}: Took {} ms to execute query and retrieve first batch of results.", queryId,
-                Instant.now().toEpochMilli() - beginExecution.toEpochMilli());
-        LOGGER.debug("Query {}: Executed on collection {} with following pipeline operations: {}",
-                queryId, queryContext.getCollectionName(), queryContext.getAggregateOperations().toString());
-        return new DocumentDbResultSet(
-                this.statement,
-                iterator,
-                columnMetaData,
-                queryContext.getPaths());
+    @VisibleForTesting
+    long count(
+            final MongoCollection<Document> collection,
+            final DocumentDbCountQuery countQuery,
+            final boolean approximateCount,
+            final DocumentDbQueryWatchdog.Deadline deadline) {
+        final long maxTimeMillis = getMaxTimeMillis(deadline);
+        // Tag the operation with the query ID, so it can be found to be canceled.
+        // The estimated count is read from the collection metadata, so it cannot apply a filter.
+        if (approximateCount && countQuery.getFilter().isEmpty()) {
+            final EstimatedDocumentCountOptions options = new EstimatedDocumentCountOptions().comment(queryId);
+            if (maxTimeMillis > 0) {
+                options.maxTime(maxTimeMillis, TimeUnit.MILLISECONDS);
+            }
+            return collection.estimatedDocumentCount(options);
+        }
+        final CountOptions options = new CountOptions().comment(queryId);
+        if (maxTimeMillis > 0) {
+            options.maxTime(maxTimeMillis, TimeUnit.MILLISECONDS);
+        }
+        return collection.countDocuments(countQuery.getFilter(), options);
+    }
+
+    @VisibleForTesting
+    FindIterable<Document> find(
+            final MongoCollection<Document> collection,
+            final DocumentDbFindQuery findQuery,
+            final DocumentDbQueryWatchdog.Deadline deadline) {
+        FindIterable<Document> iterable = collection
+                .find(findQuery.getFilter())
+                .projection(findQuery.getProjection())
+                .comment(queryId);
+        if (findQuery.getSort() != null) {
+            iterable = iterable.sort(findQuery.getSort());
+        }
+        if (findQuery.getSkip() > 0) {
+            iterable = iterable.skip(findQuery.getSkip());
+        }
+        if (findQuery.getLimit() > 0) {
+            iterable = iterable.limit(findQuery.getLimit());
+        }
+        final long maxTimeMillis = getMaxTimeMillis(deadline);
+        if (maxTimeMillis > 0) {
+            iterable = iterable.maxTime(maxTimeMillis, TimeUnit.MILLISECONDS);
+        }
+        if (getFetchSize() > 0) {
+            iterable = iterable.batchSize(getFetchSize());
+        }
+        if (getAllowDiskUse() == DocumentDbAllowDiskUseOption.ENABLE) {
+            iterable = iterable.allowDiskUse(true);
+        } else if (getAllowDiskUse() == DocumentDbAllowDiskUseOption.DISABLE) {
+            iterable = iterable.allowDiskUse(false);
+        }
+        return iterable;
     }
 
     private void resetQueryState() {
         queryState = QueryState.NOT_STARTED;
         queryId = null;
+        queryClient = null;
+        queryDeadline = null;
+    }
+
+    /**
+     * Gets the client of the statement's connection, so a query can be canceled without
+     * connecting again.
+     *
+     * @return the client of the connection, or {@code null} if it is not available.
+     * @throws SQLException if the connection of the statement cannot be retrieved.
+     */
+    @VisibleForTesting
+    protected MongoClient getConnectionClient() throws SQLException {
+        final DocumentDbConnection connection = getDocumentDbConnection();
+        return connection != null ? connection.getMongoClient() : null;
+    }
+
+    private DocumentDbConnection getDocumentDbConnection() throws SQLException {
+        if (statement != null && statement.getConnection() instanceof DocumentDbConnection) {
+            return (DocumentDbConnection) statement.getConnection();
+        }
+        return null;
     }
 
-    private void performCancel() throws SQLException {
-        try (MongoClient client = connectionProperties.createMongoClient()) {
-            final MongoDatabase database = client.getDatabase("admin");
+    private void performCancel(final MongoClient client, final String cancelQueryId)
+            throws SQLException {
+        // Connecting again to cancel would add a connection while the server may be overloaded.
+        if (client == null) {
+            throw SqlError.createSQLException(
+                    LOGGER,
+                    SqlState.OPERATION_CANCELED,
+                    SqlError.QUERY_CANNOT_BE_CANCELED,
+                    "the client of the connection is not available");
+        }
+        try {
+            // The operation is found and killed on the server running it, which is not the
+            // primary when the query is routed to a secondary.
+            final MongoDatabase database = DocumentDbMongoClientRegistry.getServerClient(
+                    client, DocumentDbMongoClientRegistry.getOperationServerAddress(client, cancelQueryId))
+                    .getDatabase("admin");
 
             // Find the opId to kill using the queryId.
             final Document currentOp =
                     database.runCommand(
                             new Document("currentOp", 1)
                                     .append("$ownOps", true)
-                                    .append("command.comment", queryId));
+                                    .append("command.comment", cancelQueryId));
 
             if (!(currentOp.get("inprog") instanceof List)) {
                 throw new SQLException("Unexpected operation state.");
@@ -290,6 +856,10 @@ public class DocumentDbQueryExecutor {
         return queryId;
     }
 
+    protected DocumentDbQueryWatchdog.Deadline getQueryDeadline() {
+        return queryDeadline;
+    }
+
     protected int getQueryTimeout() {
         return queryTimeout;
     }
@@ -314,4 +884,12 @@ public class DocumentDbQueryExecutor {
         this.allowDiskUse = allowDiskUse;
     }
 
+    protected DocumentDbReadRoutingPolicy getReadRoutingPolicy() {
+        return readRoutingPolicy;
+    }
+
+    protected void setReadRoutingPolicy(final DocumentDbReadRoutingPolicy readRoutingPolicy) {
+        this.readRoutingPolicy = readRoutingPolicy;
+    }
+
 }
@@ -0,0 +1,197 @@
+/*
+ * Copyright <2021> Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ */
+
+package software.amazon.documentdb.jdbc;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import software.amazon.documentdb.jdbc.common.utilities.SqlError;
+import software.amazon.documentdb.jdbc.common.utilities.SqlState;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Enforces the query timeout of statements as an end-to-end deadline covering translation,
+ * execution and fetching of the results, and the network timeout of socket reads and writes.
+ *
+ * <p>All statements and connections share a single scheduler thread. Each deadline schedules a single task, which
+ * is removed from the scheduler when the deadline is canceled, so a statement that completes in
+ * time has no further cost.</p>
+ */
+final class DocumentDbQueryWatchdog {
+    private static final Logger LOGGER = LoggerFactory.getLogger(DocumentDbQueryWatchdog.class);
+    private static final ScheduledThreadPoolExecutor SCHEDULER = createScheduler();
+
+    private DocumentDbQueryWatchdog() { }
+
+    /**
+     * Starts a deadline that expires after the given timeout.
+     *
+     * @param timeoutMillis the timeout in milliseconds.
+     * @return a new {@link Deadline}.
+     */
+    static Deadline start(final long timeoutMillis) {
+        final Deadline deadline = new Deadline(timeoutMillis);
+        deadline.expiryTask = SCHEDULER.schedule(deadline::expire, timeoutMillis, TimeUnit.MILLISECONDS);
+        return deadline;
+    }
+
+    private static ScheduledThreadPoolExecutor createScheduler() {
+        final ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(1,
+                new ThreadFactoryBuilder().setNameFormat("documentdb-query-watchdog").setDaemon(true).build());
+        scheduler.setRemoveOnCancelPolicy(true);
+        return scheduler;
+    }
+
+    /**
+     * The deadline of a single query or socket read or write.
+     */
+    static final class Deadline {
+        private final long timeoutMillis;
+        private final long deadlineNanos;
+        private final List<Runnable> expiryActions = new CopyOnWriteArrayList<>();
+        private volatile boolean isExpired = false;
+        private volatile boolean isCanceled = false;
+        private volatile ScheduledFuture<?> expiryTask;
+
+        private Deadline(final long timeoutMillis) {
+            this.timeoutMillis = timeoutMillis;
+            this.deadlineNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        }
+
+        /**
+         * Adds an action run on the scheduler thread when the deadline expires. Actions must not
+         * block. If the deadline has already expired, the action is run immediately.
+         *
+         * @param action the action to run.
+         */
+        void onExpiry(final Runnable action) {
+            expiryActions.add(action);
+            if (isExpired && expiryActions.remove(action)) {
+                runAction(action);
+            }
+        }
+
+        /**
+         * Gets the remaining time before the deadline expires.
+         *
+         * @return the remaining time in milliseconds, or zero if the deadline has expired.
+         */
+        long getRemainingMillis() {
+            final long remainingNanos = deadlineNanos - System.nanoTime();
+            return remainingNanos > 0
+                    ? Math.max(1, TimeUnit.NANOSECONDS.toMillis(remainingNanos))
+                    : 0;
+        }
+
+        /**
+         * Gets whether the deadline has expired.
+         *
+         * @return {@code true} if the deadline has expired, {@code false} otherwise.
+         */
+        boolean isExpired() {
+            return isExpired || (!isCanceled && deadlineNanos - System.nanoTime() <= 0);
+        }
+
+        /**
+         * Gets the timeout of the deadline.
+         *
+         * @return the timeout in milliseconds.
+         */
+        long getTimeoutMillis() {
+            return timeoutMillis;
+        }
+
+        /**
+         * Gets whether the deadline has been canceled.
+         *
+         * @return {@code true} if the deadline has been canceled, {@code false} otherwise.
+         */
+        boolean isCanceled() {
+            return isCanceled;
+        }
+
+        /**
+         * Gets whether the expiry of the deadline is still scheduled.
+         *
+         * @return {@code true} if the deadline is waiting to expire, {@code false} otherwise.
+         */
+        boolean isScheduled() {
+            final ScheduledFuture<?> task = expiryTask;
+            return task != null && !task.isDone();
+        }
+
+        /**
+         * Throws a timeout exception if the deadline has expired.
+         *
+         * @throws SQLException if the deadline has expired.
+         */
+        void verifyNotExpired() throws SQLException {
+            if (isExpired()) {
+                throw createTimeoutException();
+            }
+        }
+
+        /**
+         * Creates the exception thrown when a query exceeds its deadline.
+         *
+         * @return a new {@link java.sql.SQLTimeoutException}.
+         */
+        SQLException createTimeoutException() {
+            return SqlError.createSQLTimeoutException(
+                    LOGGER, SqlState.TIMEOUT_EXPIRED, SqlError.QUERY_TIMED_OUT, timeoutMillis);
+        }
+
+        /**
+         * Cancels the deadline, when the query has completed or its results have been closed.
+         */
+        void cancel() {
+            isCanceled = true;
+            expiryActions.clear();
+            final ScheduledFuture<?> task = expiryTask;
+            if (task != null) {
+                task.cancel(false);
+            }
+        }
+
+        private void expire() {
+            if (isCanceled) {
+                return;
+            }
+            isExpired = true;
+            LOGGER.debug("Deadline of {} ms expired.", timeoutMillis);
+            for (Runnable action : expiryActions) {
+                if (expiryActions.remove(action)) {
+                    runAction(action);
+                }
+            }
+        }
+
+        private static void runAction(final Runnable action) {
+            try {
+                action.run();
+            } catch (RuntimeException e) {
+                LOGGER.warn("Failed to stop operation after its deadline expired: {}", e.getMessage(), e);
+            }
+        }
+    }
+}
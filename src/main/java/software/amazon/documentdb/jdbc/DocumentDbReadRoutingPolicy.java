@@ -0,0 +1,56 @@
+/*
+ * Copyright <2021> Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ */
+
+package software.amazon.documentdb.jdbc;
+
+/**
+ * The enumeration of read routing policies. The policy determines the read preference of each
+ * query executed by a statement.
+ */
+public enum DocumentDbReadRoutingPolicy {
+    /** All queries use the read preference of the connection. */
+    NONE("none"),
+    /**
+     * Analytic queries (joins, aggregations and large scans) read from secondaries, with a bound
+     * on staleness, and all other queries read from the primary.
+     */
+    WORKLOAD("workload"),
+    ;
+
+    private final String name;
+
+    DocumentDbReadRoutingPolicy(final String name) {
+        this.name = name;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Returns DocumentDbReadRoutingPolicy with a name that matches input string.
+     * @param readRoutingPolicy name of the read routing policy.
+     * @return DocumentDbReadRoutingPolicy of string.
+     */
+    public static DocumentDbReadRoutingPolicy fromString(final String readRoutingPolicy) {
+        for (DocumentDbReadRoutingPolicy policy: DocumentDbReadRoutingPolicy.values()) {
+            if (policy.name.equals(readRoutingPolicy)) {
+                return policy;
+            }
+        }
+        throw new IllegalArgumentException("Invalid read routing policy.");
+    }
+}
@@ -21,6 +21,7 @@ import com.mongodb.client.MongoCursor;
 import org.bson.Document;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import software.amazon.documentdb.jdbc.common.utilities.DocumentDbPaths;
 import software.amazon.documentdb.jdbc.common.utilities.JdbcColumnMetaData;
 import software.amazon.documentdb.jdbc.common.utilities.SqlError;
 import software.amazon.documentdb.jdbc.common.utilities.SqlState;
@@ -43,6 +44,8 @@ public class DocumentDbResultSet extends DocumentDbAbstractResultSet implements
     private final MongoCursor<Document> iterator;
     private Document current;
     private final List<String> paths;
+    private final DocumentDbQueryWatchdog.Deadline deadline;
+    private final DocumentDbConnection connection;
 
     /**
      * DocumentDbResultSet constructor, initializes super class.
@@ -52,16 +55,36 @@ public class DocumentDbResultSet extends DocumentDbAbstractResultSet implements
             final MongoCursor<Document> iterator,
             final ImmutableList<JdbcColumnMetaData> columnMetaData,
             final List<String> paths) throws SQLException {
+        this(statement, iterator, columnMetaData, paths, null);
+    }
+
+    /**
+     * DocumentDbResultSet constructor, initializes super class. Fetching the results is bounded by
+     * the deadline of the query, which is canceled when the result set is closed or exhausted.
+     */
+    DocumentDbResultSet(
+            final Statement statement,
+            final MongoCursor<Document> iterator,
+            final ImmutableList<JdbcColumnMetaData> columnMetaData,
+            final List<String> paths,
+            final DocumentDbQueryWatchdog.Deadline deadline) throws SQLException {
         super(statement, columnMetaData, true);
         this.iterator = iterator;
 
         // Set fetch size to be fetch size of statement if it exists. Otherwise, use default.
         this.fetchSize = statement != null ? statement.getFetchSize() : DEFAULT_FETCH_SIZE;
         this.paths = paths;
+        this.deadline = deadline;
+        this.connection = statement != null && statement.getConnection() instanceof DocumentDbConnection
+                ? (DocumentDbConnection) statement.getConnection()
+                : null;
     }
 
     @Override
     protected void doClose() {
+        if (deadline != null) {
+            deadline.cancel();
+        }
         iterator.close();
     }
 
@@ -110,6 +133,39 @@ public class DocumentDbResultSet extends DocumentDbAbstractResultSet implements
     @Override
     public boolean next() throws SQLException {
         verifyOpen();
+        if (deadline == null && connection == null) {
+            return moveNext();
+        }
+        if (deadline != null) {
+            deadline.verifyNotExpired();
+        }
+        // Only fetching the next batch waits on the network.
+        final DocumentDbInterruptibleStreamFactory.NetworkOperation networkOperation =
+                connection != null && iterator.available() == 0
+                        ? connection.startNetworkOperation()
+                        : null;
+        try {
+            final boolean hasNext = moveNext();
+            if (!hasNext && deadline != null) {
+                deadline.cancel();
+            }
+            return hasNext;
+        } catch (RuntimeException e) {
+            // The cursor is killed when the deadline expires while fetching the next batch.
+            if (deadline != null && deadline.isExpired()) {
+                throw deadline.createTimeoutException();
+            } else if (networkOperation != null && networkOperation.isExpired()) {
+                throw connection.createNetworkTimeoutException(networkOperation);
+            }
+            throw e;
+        } finally {
+            if (networkOperation != null) {
+                networkOperation.end();
+            }
+        }
+    }
+
+    private boolean moveNext() {
         if (iterator.hasNext()) {
             current = iterator.next();
             rowIndex++;
@@ -130,11 +186,7 @@ public class DocumentDbResultSet extends DocumentDbAbstractResultSet implements
                     SqlError.CANNOT_RETRIEVE_COLUMN, metadata.getColumnName(columnIndex));
         }
 
-        final String[] segmentedPath = path.split("\\.");
-        Object segmentValue = current.get(segmentedPath[0]);
-        for (int j = 1; j < segmentedPath.length && segmentValue instanceof Document; j++) {
-            segmentValue = ((Document) segmentValue).get(segmentedPath[j]);
-        }
+        final Object segmentValue = DocumentDbPaths.getPathValue(current, path);
         // Apache converters cannot handle the following types, must be specifically converted.
         if (segmentValue instanceof Document) {
             return ((Document) segmentValue).toJson();
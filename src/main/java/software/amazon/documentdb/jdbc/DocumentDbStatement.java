@@ -16,10 +16,10 @@
 
 package software.amazon.documentdb.jdbc;
 
+import com.google.common.annotations.VisibleForTesting;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import software.amazon.documentdb.jdbc.common.Statement;
-import software.amazon.documentdb.jdbc.query.DocumentDbQueryMappingService;
 
 import java.sql.SQLException;
 
@@ -32,6 +32,7 @@ class DocumentDbStatement extends Statement implements java.sql.Statement {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(DocumentDbStatement.class);
     private int queryTimeout;
+    private DocumentDbReadRoutingPolicy readRoutingPolicy;
     private final DocumentDbQueryExecutor queryExecutor;
 
     /**
@@ -44,13 +45,10 @@ class DocumentDbStatement extends Statement implements java.sql.Statement {
             final DocumentDbConnection connection) throws SQLException {
         super(connection);
         setDefaultFetchSize(this, connection.getConnectionProperties());
-        final DocumentDbQueryMappingService mappingService = new DocumentDbQueryMappingService(
-                connection.getConnectionProperties(),
-                connection.getDatabaseMetadata());
+        readRoutingPolicy = connection.getConnectionProperties().getReadRoutingPolicy();
         queryExecutor = new DocumentDbQueryExecutor(
                 this,
                 connection.getConnectionProperties(),
-                mappingService,
                 getQueryTimeout(),
                 getFetchSize());
     }
@@ -84,6 +82,7 @@ class DocumentDbStatement extends Statement implements java.sql.Statement {
     DocumentDbStatement(final DocumentDbConnection connection, final DocumentDbQueryExecutor queryExecutor) {
         super(connection);
         this.queryExecutor = queryExecutor;
+        this.readRoutingPolicy = queryExecutor.getReadRoutingPolicy();
     }
 
     @Override
@@ -95,6 +94,7 @@ class DocumentDbStatement extends Statement implements java.sql.Statement {
     public java.sql.ResultSet executeQuery(final String sql) throws SQLException {
         verifyOpen();
         queryExecutor.setFetchSize(getFetchSize());
+        queryExecutor.setReadRoutingPolicy(readRoutingPolicy);
         return queryExecutor.executeQuery(sql);
     }
 
@@ -110,4 +110,31 @@ class DocumentDbStatement extends Statement implements java.sql.Statement {
         queryTimeout = seconds;
         queryExecutor.setQueryTimeout(seconds);
     }
+
+    /**
+     * Gets the read routing policy for the statement.
+     *
+     * @return one of the read routing policies.
+     * @throws SQLException if the connection is not open.
+     */
+    public DocumentDbReadRoutingPolicy getReadRoutingPolicy() throws SQLException {
+        verifyOpen();
+        return readRoutingPolicy;
+    }
+
+    /**
+     * Sets the read routing policy for the statement, overriding the policy of the connection.
+     *
+     * @param readRoutingPolicy the policy used to choose the read preference of the query.
+     * @throws SQLException if the connection is not open.
+     */
+    public void setReadRoutingPolicy(final DocumentDbReadRoutingPolicy readRoutingPolicy) throws SQLException {
+        verifyOpen();
+        this.readRoutingPolicy = readRoutingPolicy;
+    }
+
+    @VisibleForTesting
+    DocumentDbQueryExecutor getQueryExecutor() {
+        return queryExecutor;
+    }
 }
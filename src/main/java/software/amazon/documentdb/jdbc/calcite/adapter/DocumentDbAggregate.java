@@ -18,6 +18,7 @@
 package software.amazon.documentdb.jdbc.calcite.adapter;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
 import org.apache.calcite.plan.RelOptCluster;
 import org.apache.calcite.plan.RelTraitSet;
 import org.apache.calcite.rel.InvalidRelException;
@@ -26,8 +27,10 @@ import org.apache.calcite.rel.core.Aggregate;
 import org.apache.calcite.rel.core.AggregateCall;
 import org.apache.calcite.sql.SqlAggFunction;
 import org.apache.calcite.sql.fun.SqlStdOperatorTable;
+import org.apache.calcite.sql.validate.SqlValidatorUtil;
 import org.apache.calcite.util.ImmutableBitSet;
 import org.apache.calcite.util.Util;
+import org.checkerframework.checker.nullness.qual.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import software.amazon.documentdb.jdbc.metadata.DocumentDbMetadataColumn;
@@ -36,8 +39,10 @@ import software.amazon.documentdb.jdbc.metadata.DocumentDbSchemaColumn;
 import software.amazon.documentdb.jdbc.metadata.DocumentDbSchemaTable;
 
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Set;
 
 import static software.amazon.documentdb.jdbc.calcite.adapter.DocumentDbRules.getNormalizedIdentifier;
 import static software.amazon.documentdb.jdbc.calcite.adapter.DocumentDbRules.maybeQuote;
@@ -53,6 +58,12 @@ public class DocumentDbAggregate
 
     private static final Logger LOGGER =
             LoggerFactory.getLogger(DocumentDbAggregate.class.getName());
+    private static final String DISTINCT_VALUE_FIELD = "_value";
+    private static final Set<SqlAggFunction> TWO_PHASE_DISTINCT_FUNCTIONS = ImmutableSet.of(
+            SqlStdOperatorTable.COUNT,
+            SqlStdOperatorTable.SUM,
+            SqlStdOperatorTable.SUM0,
+            SqlStdOperatorTable.AVG);
 
     /**
      * Creates a new {@link DocumentDbAggregate}
@@ -170,14 +181,20 @@ public class DocumentDbAggregate
                             .build());
 
         }
-        implementor.add(null,
-                "{$group: " + Util.toString(list, "{", ", ", "}") + "}");
-        final List<String> fixups = getFixups(aggCalls, groupSet, outNames);
-
-        if (!groupSet.isEmpty()
-                || aggCalls.stream().anyMatch(aggCall -> aggCall.isDistinct() || aggCall.getAggregation() == SqlStdOperatorTable.SUM)) {
+        final Integer distinctArgument = getTwoPhaseDistinctArgument(aggCalls);
+        if (distinctArgument != null) {
+            addTwoPhaseGroupStages(implementor, mongoFieldNames, outNames, distinctArgument);
+        } else {
             implementor.add(null,
-                    "{$project: " + Util.toString(fixups, "{", ", ", "}") + "}");
+                    "{$group: " + Util.toString(list, "{", ", ", "}") + "}");
+            final List<String> fixups = getFixups(aggCalls, groupSet, outNames);
+
+            if (!groupSet.isEmpty()
+                    || aggCalls.stream().anyMatch(aggCall -> aggCall.isDistinct()
+                            || aggCall.getAggregation() == SqlStdOperatorTable.SUM)) {
+                implementor.add(null,
+                        "{$project: " + Util.toString(fixups, "{", ", ", "}") + "}");
+            }
         }
 
         // Set the metadata table with the updated column map.
@@ -198,6 +215,119 @@ public class DocumentDbAggregate
         // DocumentDB: modified - end
     }
 
+    /**
+     * Gets the argument of the distinct aggregate calls if they can be computed with two $group
+     * stages. This is the case when all distinct calls have the same single argument and any other
+     * calls are MIN or MAX, which are not affected by duplicate rows.
+     *
+     * @param aggCalls the aggregate calls.
+     * @return the index of the argument, or {@code null} if the calls must be computed with a
+     * single $group stage.
+     */
+    private static @Nullable Integer getTwoPhaseDistinctArgument(final List<AggregateCall> aggCalls) {
+        Integer distinctArgument = null;
+        for (AggregateCall aggCall : aggCalls) {
+            final SqlAggFunction aggregation = aggCall.getAggregation();
+            if (aggregation == SqlStdOperatorTable.MIN || aggregation == SqlStdOperatorTable.MAX) {
+                continue;
+            }
+            if (!aggCall.isDistinct() || aggCall.getArgList().size() != 1
+                    || !TWO_PHASE_DISTINCT_FUNCTIONS.contains(aggregation)) {
+                return null;
+            }
+            final int argument = aggCall.getArgList().get(0);
+            if (distinctArgument != null && distinctArgument != argument) {
+                return null;
+            }
+            distinctArgument = argument;
+        }
+        return distinctArgument;
+    }
+
+    /**
+     * Adds two $group stages for distinct aggregate calls. The first groups on the group keys and
+     * the distinct argument, so each distinct value is a separate document rather than an element
+     * of an array built for each group. The second groups on the group keys and aggregates the
+     * distinct values.
+     *
+     * @param implementor the implementor.
+     * @param mongoFieldNames the paths of the input fields.
+     * @param outNames the names of the output fields.
+     * @param distinctArgument the index of the argument of the distinct calls.
+     */
+    private void addTwoPhaseGroupStages(
+            final Implementor implementor,
+            final List<String> mongoFieldNames,
+            final List<String> outNames,
+            final int distinctArgument) {
+        final Set<String> usedNames = new HashSet<>();
+        outNames.forEach(outName -> usedNames.add(acceptedMongoFieldName(outName)));
+        final List<String> keyNames = new ArrayList<>();
+        final List<String> firstKeys = new ArrayList<>();
+        int columnIndex = 0;
+        for (int group : groupSet) {
+            final String keyName = acceptedMongoFieldName(outNames.get(columnIndex++));
+            keyNames.add(keyName);
+            firstKeys.add(maybeQuote(keyName) + ": " + DocumentDbRules.quote("$" + mongoFieldNames.get(group)));
+        }
+        final String valueName = SqlValidatorUtil.uniquify(
+                DISTINCT_VALUE_FIELD, usedNames, SqlValidatorUtil.EXPR_SUGGESTER);
+        firstKeys.add(maybeQuote(valueName) + ": " + maybeQuote("$" + mongoFieldNames.get(distinctArgument)));
+        final String value = maybeQuote("$_id." + valueName);
+
+        final List<String> firstGroup = new ArrayList<>();
+        firstGroup.add("_id: " + Util.toString(firstKeys, "{", ", ", "}"));
+        final List<String> secondGroup = new ArrayList<>();
+        if (groupSet.cardinality() == 1) {
+            secondGroup.add("_id: " + maybeQuote("$_id." + keyNames.get(0)));
+        } else {
+            final List<String> secondKeys = new ArrayList<>();
+            keyNames.forEach(keyName -> secondKeys.add(
+                    maybeQuote(keyName) + ": " + maybeQuote("$_id." + keyName)));
+            secondGroup.add("_id: " + Util.toString(secondKeys, "{", ", ", "}"));
+        }
+        final List<String> fixups = getGroupFixups(groupSet, outNames);
+
+        for (AggregateCall aggCall : aggCalls) {
+            final String outName = acceptedMongoFieldName(outNames.get(columnIndex++));
+            final SqlAggFunction aggregation = aggCall.getAggregation();
+            String fixup = maybeQuote("$" + outName);
+            if (aggregation == SqlStdOperatorTable.MIN || aggregation == SqlStdOperatorTable.MAX) {
+                final String operator = aggregation == SqlStdOperatorTable.MIN ? "$min" : "$max";
+                final int argument = aggCall.getArgList().get(0);
+                if (argument == distinctArgument) {
+                    secondGroup.add(maybeQuote(outName) + ": {" + operator + ": " + value + "}");
+                } else {
+                    // Take the minimum or maximum of each distinct value, then of the group.
+                    firstGroup.add(maybeQuote(outName) + ": {" + operator + ": "
+                            + maybeQuote("$" + mongoFieldNames.get(argument)) + "}");
+                    secondGroup.add(maybeQuote(outName) + ": {" + operator + ": "
+                            + maybeQuote("$" + outName) + "}");
+                }
+            } else if (aggregation == SqlStdOperatorTable.COUNT) {
+                secondGroup.add(maybeQuote(outName) + ": {$sum: {$cond: [ {$gt: [" + value + ", null]}, 1, 0]}}");
+            } else if (aggregation == SqlStdOperatorTable.SUM) {
+                // Return null rather than 0 if there are no non-null values.
+                final String maxName = SqlValidatorUtil.uniquify(
+                        outName + "_max", usedNames, SqlValidatorUtil.EXPR_SUGGESTER);
+                secondGroup.add(maybeQuote(outName) + ": {$sum: " + value + "}");
+                secondGroup.add(maybeQuote(maxName) + ": {$max: " + value + "}");
+                fixup = "{$cond: [ {$gt: [" + maybeQuote("$" + maxName) + ", null]}, "
+                        + maybeQuote("$" + outName) + ", null]}";
+            } else if (aggregation == SqlStdOperatorTable.SUM0) {
+                secondGroup.add(maybeQuote(outName) + ": {$sum: " + value + "}");
+            } else if (aggregation == SqlStdOperatorTable.AVG) {
+                secondGroup.add(maybeQuote(outName) + ": {$avg: " + value + "}");
+            } else {
+                throw new AssertionError("unknown distinct aggregate " + aggregation);
+            }
+            fixups.add(maybeQuote(outName) + ": " + fixup);
+        }
+        implementor.add(null, "{$group: " + Util.toString(firstGroup, "{", ", ", "}") + "}");
+        implementor.add(null, "{$group: " + Util.toString(secondGroup, "{", ", ", "}") + "}");
+        implementor.add(null, "{$project: " + Util.toString(fixups, "{", ", ", "}") + "}");
+    }
+
     private static DocumentDbSchemaColumn getUpdatedColumn(final DocumentDbSchemaColumn oldColumn, final String outName) {
         return DocumentDbMetadataColumn.builder()
                 .fieldPath(oldColumn.getFieldPath())
@@ -254,6 +384,32 @@ public class DocumentDbAggregate
         }
     }
 
+    /**
+     * Gets the fields of the $project stage after the $group stage that move the group keys out
+     * of the _id field.
+     *
+     * @param groupSet the group set.
+     * @param outNames the names of the output row type.
+     * @return list of fields that should be projected.
+     */
+    private static List<String> getGroupFixups(final ImmutableBitSet groupSet, final List<String> outNames) {
+        final List<String> fixups = new ArrayList<>();
+        int columnIndex = 0;
+        if (groupSet.cardinality() == 1) {
+            fixups.add(maybeQuote(outNames.get(columnIndex)) + ": " + maybeQuote("$" + "_id"));
+        } else {
+            fixups.add("_id: 0");
+            for (int i = 0; i < groupSet.cardinality(); i++) {
+                final String outName = acceptedMongoFieldName(outNames.get(columnIndex++));
+                fixups.add(
+                        maybeQuote(outName)
+                                + ": "
+                                + maybeQuote("$_id." + acceptedMongoFieldName(outName)));
+            }
+        }
+        return fixups;
+    }
+
     private static String acceptedMongoFieldName(final String path) {
         return getNormalizedIdentifier(path).replace('.', '_');
     }
@@ -299,21 +455,8 @@ public class DocumentDbAggregate
             final ImmutableBitSet groupSet,
             final List<String> outNames) {
         // DocumentDB: modified - start
-        final List<String> fixups = new ArrayList<>();
-        int columnIndex = 0;
-        if (groupSet.cardinality() == 1) {
-            fixups.add(maybeQuote(outNames.get(columnIndex++)) + ": " + maybeQuote("$" + "_id"));
-        } else {
-            fixups.add("_id: 0");
-            for (int group : groupSet) {
-                final String outName = acceptedMongoFieldName(outNames.get(columnIndex++));
-                fixups.add(
-                        maybeQuote(outName)
-                                + ": "
-                                + maybeQuote("$_id." + acceptedMongoFieldName(outName)));
-            }
-
-        }
+        final List<String> fixups = getGroupFixups(groupSet, outNames);
+        int columnIndex = groupSet.cardinality();
         for (AggregateCall aggCall : aggCalls) {
             final String outName = acceptedMongoFieldName(outNames.get(columnIndex++));
             // Get the aggregate for any sets made in $group stage.
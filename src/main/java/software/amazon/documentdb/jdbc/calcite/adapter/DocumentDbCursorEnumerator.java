@@ -0,0 +1,144 @@
+/*
+ * Copyright <2021> Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ */
+
+package software.amazon.documentdb.jdbc.calcite.adapter;
+
+import com.mongodb.client.MongoCursor;
+import lombok.SneakyThrows;
+import org.apache.calcite.avatica.util.ByteString;
+import org.apache.calcite.linq4j.Enumerator;
+import org.apache.calcite.linq4j.tree.Primitive;
+import org.bson.BsonTimestamp;
+import org.bson.Document;
+import org.bson.types.Binary;
+import software.amazon.documentdb.jdbc.common.utilities.DocumentDbPaths;
+import software.amazon.documentdb.jdbc.common.utilities.TypeConverters;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Enumerates the documents returned by a pushed-down query as rows in the internal representation
+ * used by operators executed in the driver. A single column is returned as a scalar, otherwise
+ * each row is an {@code Object[]}.
+ */
+class DocumentDbCursorEnumerator implements Enumerator<Object> {
+    private final MongoCursor<Document> cursor;
+    private final List<Entry<String, Class<?>>> fields;
+    private final List<String> paths;
+    private Object current;
+
+    /**
+     * Creates a DocumentDbCursorEnumerator.
+     *
+     * @param cursor the cursor over the result documents.
+     * @param fields the names and internal classes of each column.
+     * @param paths the field paths of each column in the result documents.
+     */
+    DocumentDbCursorEnumerator(
+            final MongoCursor<Document> cursor,
+            final List<Entry<String, Class<?>>> fields,
+            final List<String> paths) {
+        this.cursor = cursor;
+        this.fields = fields;
+        this.paths = paths;
+    }
+
+    @Override public Object current() {
+        return current;
+    }
+
+    @Override public boolean moveNext() {
+        if (!cursor.hasNext()) {
+            current = null;
+            return false;
+        }
+        final Document document = cursor.next();
+        if (fields.size() == 1) {
+            current = toInternalValue(
+                    DocumentDbPaths.getPathValue(document, paths.get(0)), fields.get(0).getValue());
+        } else {
+            final Object[] row = new Object[fields.size()];
+            for (int i = 0; i < row.length; i++) {
+                row[i] = toInternalValue(
+                        DocumentDbPaths.getPathValue(document, paths.get(i)), fields.get(i).getValue());
+            }
+            current = row;
+        }
+        return true;
+    }
+
+    @Override public void reset() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override public void close() {
+        cursor.close();
+    }
+
+    /**
+     * Converts a value of a result document to the internal representation of the column type.
+     * For example, timestamps are represented as milliseconds since the epoch and binary values as
+     * {@link ByteString}.
+     *
+     * @param value the value from the result document.
+     * @param fieldClass the internal class of the column.
+     * @return the value in its internal representation.
+     */
+    @SneakyThrows
+    static Object toInternalValue(final Object value, final Class<?> fieldClass) {
+        if (value == null) {
+            return null;
+        }
+        final Class<?> targetClass = Primitive.box(fieldClass);
+        if (targetClass.isInstance(value)) {
+            return value;
+        }
+        if (targetClass == Long.class && value instanceof Date) {
+            return ((Date) value).getTime();
+        }
+        if (targetClass == Long.class && value instanceof BsonTimestamp) {
+            return TimeUnit.SECONDS.toMillis(((BsonTimestamp) value).getTime());
+        }
+        if (targetClass == ByteString.class) {
+            if (value instanceof Binary) {
+                return new ByteString(((Binary) value).getData());
+            }
+            if (value instanceof byte[]) {
+                return new ByteString((byte[]) value);
+            }
+        }
+        if (targetClass == String.class) {
+            // Apache converters cannot handle the following types, must be specifically converted.
+            if (value instanceof Document) {
+                return ((Document) value).toJson();
+            }
+            if (value instanceof List) {
+                return ((List<?>) value).stream()
+                        .map(o -> o instanceof Document ? ((Document) o).toJson() : o)
+                        .collect(Collectors.toList())
+                        .toString();
+            }
+        }
+        if (targetClass == Object.class) {
+            return value;
+        }
+        return TypeConverters.get(value.getClass(), targetClass).convert(targetClass, value);
+    }
+}
@@ -0,0 +1,414 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package software.amazon.documentdb.jdbc.calcite.adapter;
+
+import lombok.SneakyThrows;
+import org.apache.calcite.avatica.util.TimeUnitRange;
+import org.apache.calcite.rex.RexCall;
+import org.apache.calcite.rex.RexLiteral;
+import org.apache.calcite.rex.RexNode;
+import org.apache.calcite.sql.SqlIntervalQualifier;
+import org.apache.calcite.sql.SqlKind;
+import org.apache.calcite.sql.fun.SqlStdOperatorTable;
+import org.apache.calcite.sql.type.SqlTypeName;
+import org.apache.calcite.util.Util;
+import org.apache.calcite.util.trace.CalciteTrace;
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.slf4j.Logger;
+import software.amazon.documentdb.jdbc.calcite.adapter.DocumentDbRules.Operand;
+import software.amazon.documentdb.jdbc.calcite.adapter.DocumentDbRules.RexToMongoTranslator;
+import software.amazon.documentdb.jdbc.common.utilities.SqlError;
+import software.amazon.documentdb.jdbc.common.utilities.SqlState;
+
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.Month;
+import java.time.format.TextStyle;
+import java.time.temporal.ChronoUnit;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import static software.amazon.documentdb.jdbc.calcite.adapter.DocumentDbRules.getIntegerDivisionOperation;
+import static software.amazon.documentdb.jdbc.calcite.adapter.DocumentDbRules.getMongoAggregateForOperator;
+import static software.amazon.documentdb.jdbc.calcite.adapter.DocumentDbRules.getValueAs;
+import static software.amazon.documentdb.jdbc.calcite.adapter.DocumentDbRules.quote;
+
+/**
+ * Translates date and time functions to aggregate operators.
+ */
+final class DocumentDbDateFunctionTranslator {
+    private static final Logger LOGGER = CalciteTrace.getPlannerTracer();
+
+    private static final String CURRENT_DATE = "CURRENT_DATE";
+    private static final String CURRENT_TIMESTAMP = "CURRENT_TIMESTAMP";
+    private static final Map<TimeUnitRange, String> DATE_PART_OPERATORS =
+            new HashMap<>();
+    private static final Instant FIRST_DAY_OF_WEEK_AFTER_EPOCH =
+            Instant.parse("1970-01-05T00:00:00Z");
+
+    static {
+        // Date part operators
+        DATE_PART_OPERATORS.put(TimeUnitRange.YEAR, "$year");
+        DATE_PART_OPERATORS.put(TimeUnitRange.MONTH, "$month");
+        DATE_PART_OPERATORS.put(TimeUnitRange.WEEK, "$week");
+        DATE_PART_OPERATORS.put(TimeUnitRange.HOUR, "$hour");
+        DATE_PART_OPERATORS.put(TimeUnitRange.MINUTE, "$minute");
+        DATE_PART_OPERATORS.put(TimeUnitRange.SECOND, "$second");
+        DATE_PART_OPERATORS.put(TimeUnitRange.DOY, "$dayOfYear");
+        DATE_PART_OPERATORS.put(TimeUnitRange.DAY, "$dayOfMonth");
+        DATE_PART_OPERATORS.put(TimeUnitRange.DOW, "$dayOfWeek");
+        DATE_PART_OPERATORS.put(TimeUnitRange.ISODOW, "$isoDayOfWeek");
+        DATE_PART_OPERATORS.put(TimeUnitRange.ISOYEAR, "$isoWeekYear");
+    }
+
+    private DocumentDbDateFunctionTranslator() {
+    }
+
+    static Operand translateCurrentTimestamp(final Instant currentTime) {
+        final String currentTimestamp = "{\"$date\": {\"$numberLong\": "
+                + "\"" + currentTime.toEpochMilli() + "\"}}";
+        return new Operand(currentTimestamp, currentTimestamp, true);
+    }
+
+    @SneakyThrows
+    static Operand translateDateAdd(final RexCall call, final List<Operand> strings) {
+        verifySupportedDateAddType(call.getOperands().get(1));
+
+        // Is date addition between literals (including CURRENT_DATE)?
+        final boolean isLiteralCandidate = isDateLiteralCandidate(call, strings);
+        if (isLiteralCandidate) {
+            // Perform in-memory calculation before sending to server.
+            return getDateAddLiteralOperand(strings);
+        }
+        // Otherwise, perform addition on server.
+        return new Operand("{ \"$add\":" + "[" + Util.commaList(strings) + "]}");
+    }
+
+    private static boolean isDateLiteralCandidate(final RexCall call, final List<Operand> strings) {
+        final boolean allLiterals = call.getOperands().stream()
+                .allMatch(op -> {
+                    final SqlKind opKind = op.getKind();
+                    final String opName = op.toString();
+                    return opKind == SqlKind.LITERAL
+                            || opName.equalsIgnoreCase(CURRENT_DATE)
+                            || opName.equalsIgnoreCase(CURRENT_TIMESTAMP);
+                });
+        final boolean allHaveQueryValue = strings.stream().allMatch(op -> op.getQueryValue() != null);
+        return allLiterals && allHaveQueryValue;
+    }
+
+    private static Operand getDateAddLiteralOperand(final List<Operand> strings) {
+        final String queryValue0 = strings.get(0).getQueryValue();
+        final String queryValue1 = strings.get(1).getQueryValue();
+        final BsonDocument document0 =  BsonDocument.parse("{field: " + queryValue0 + "}");
+        final BsonDocument document1 =  BsonDocument.parse("{field: " + queryValue1 + "}");
+
+        long sum = 0L;
+        for (BsonValue v : new BsonValue[]{document0.get("field"), document1.get("field")}) {
+            switch (v.getBsonType()) {
+                case DATE_TIME:
+                    sum += v.asDateTime().getValue();
+                    break;
+                case INT64:
+                    sum += v.asInt64().getValue();
+                    break;
+                default:
+                    throw new UnsupportedOperationException(
+                            "Unsupported data type '" + v.getBsonType().name() + "'");
+            }
+        }
+        final String query = "{\"$date\": {\"$numberLong\": \"" + sum + "\"}}";
+        return new Operand(query, query, true);
+    }
+
+    private static void verifySupportedDateAddType(final RexNode node)
+            throws SQLFeatureNotSupportedException {
+        if (node.getType().getSqlTypeName() == SqlTypeName.INTERVAL_MONTH
+                || node.getType().getSqlTypeName() == SqlTypeName.INTERVAL_YEAR) {
+            throw SqlError.createSQLFeatureNotSupportedException(LOGGER,
+                    SqlError.UNSUPPORTED_CONVERSION,
+                    node.getType().getSqlTypeName().getName(),
+                    SqlTypeName.TIMESTAMP.getName());
+        }
+    }
+
+    @SneakyThrows
+    static Operand translateDateDiff(final RexCall call, final List<Operand> strings) {
+        final TimeUnitRange interval = getIntervalQualifier(call).timeUnitRange;
+        switch (interval) {
+            case YEAR:
+                return formatDateDiffYear(strings);
+            case QUARTER:
+            case MONTH:
+                return formatDateDiffMonth(strings, interval);
+            default:
+                return getMongoAggregateForOperator(
+                        call,
+                        strings,
+                        RexToMongoTranslator.MONGO_OPERATORS.get(SqlStdOperatorTable.MINUS_DATE));
+        }
+    }
+
+    @NonNull
+    private static SqlIntervalQualifier getIntervalQualifier(final RexCall call)
+            throws SQLException {
+        final SqlIntervalQualifier result = call.getType().getIntervalQualifier();
+        if (result == null) {
+            throw SqlError.createSQLException(LOGGER,
+                    SqlState.INVALID_QUERY_EXPRESSION,
+                    SqlError.MISSING_LITERAL_VALUE,
+                    call.getType().getSqlTypeName().getName());
+        }
+        return result;
+    }
+
+    private static Operand formatDateDiffYear(final List<Operand> strings) {
+        final String dateDiffYearFormat =
+                "{'$subtract': [{'$year': %1$s}, {'$year': %2$s}]}";
+        return Operand.format(dateDiffYearFormat, strings.get(0), strings.get(1));
+    }
+
+    private static Operand formatDateDiffMonth(final List<Operand> strings, final TimeUnitRange timeUnitRange) {
+        final String yearPartMultiplier = timeUnitRange == TimeUnitRange.QUARTER ? "4" : "12";
+        final String monthPart1 =
+                timeUnitRange == TimeUnitRange.QUARTER
+                        ? translateExtractQuarter(strings.get(0)).getAggregationValue()
+                        : String.format("{'$month': %s}", strings.get(0));
+        final String monthPart2 =
+                timeUnitRange == TimeUnitRange.QUARTER
+                        ? translateExtractQuarter(strings.get(1)).getAggregationValue()
+                        : String.format("{'$month': %s}", strings.get(1));
+        final String dateDiffMonthFormat =
+                "{'$subtract': [ "
+                        + "{'$add': [ "
+                        + "{'$multiply': [%1$s, {'$year': %2$s}]}, "
+                        + "%4$s]}, "
+                        + "{'$add': [ "
+                        + "{'$multiply': [%1$s, {'$year': %3$s}]}, "
+                        + "%5$s]}]}";
+        return Operand.format(
+                dateDiffMonthFormat,
+                yearPartMultiplier,
+                strings.get(0),
+                strings.get(1),
+                monthPart1,
+                monthPart2);
+    }
+
+    static Operand translateExtract(final RexCall call, final List<Operand> strings) {
+        // The first argument to extract is the interval (literal)
+        // and the second argument is the date (can be any node evaluating to a date).
+        final RexLiteral literal = (RexLiteral) call.getOperands().get(0);
+        final TimeUnitRange range = literal.getValueAs(TimeUnitRange.class);
+
+        if (range == TimeUnitRange.QUARTER) {
+            return translateExtractQuarter(strings.get(1));
+        }
+        return new Operand("{ " + quote(DATE_PART_OPERATORS.get(range)) + ": " + strings.get(1) + "}");
+    }
+
+    private static Operand translateExtractQuarter(final Operand date) {
+        final String extractQuarterFormatString =
+                "{'$cond': [{'$lte': [{'$month': %1$s}, 3]}, 1,"
+                        + " {'$cond': [{'$lte': [{'$month': %1$s}, 6]}, 2,"
+                        + " {'$cond': [{'$lte': [{'$month': %1$s}, 9]}, 3,"
+                        + " {'$cond': [{'$lte': [{'$month': %1$s}, 12]}, 4,"
+                        + " null]}]}]}]}";
+        return Operand.format(extractQuarterFormatString, date);
+    }
+
+    public static Operand translateDayName(final RexCall rexCall, final List<Operand> strings) {
+        final String dayNameFormatString =
+                " {'$cond': [{'$eq': [{'$dayOfWeek': %8$s}, 1]}, '%1$s',"
+                        + " {'$cond': [{'$eq': [{'$dayOfWeek': %8$s}, 2]}, '%2$s',"
+                        + " {'$cond': [{'$eq': [{'$dayOfWeek': %8$s}, 3]}, '%3$s',"
+                        + " {'$cond': [{'$eq': [{'$dayOfWeek': %8$s}, 4]}, '%4$s',"
+                        + " {'$cond': [{'$eq': [{'$dayOfWeek': %8$s}, 5]}, '%5$s',"
+                        + " {'$cond': [{'$eq': [{'$dayOfWeek': %8$s}, 6]}, '%6$s',"
+                        + " {'$cond': [{'$eq': [{'$dayOfWeek': %8$s}, 7]}, '%7$s',"
+                        + " null]}]}]}]}]}]}]}";
+        return Operand.format(dayNameFormatString,
+                DayOfWeek.SUNDAY.getDisplayName(TextStyle.FULL, Locale.getDefault()),
+                DayOfWeek.MONDAY.getDisplayName(TextStyle.FULL, Locale.getDefault()),
+                DayOfWeek.TUESDAY.getDisplayName(TextStyle.FULL, Locale.getDefault()),
+                DayOfWeek.WEDNESDAY.getDisplayName(TextStyle.FULL, Locale.getDefault()),
+                DayOfWeek.THURSDAY.getDisplayName(TextStyle.FULL, Locale.getDefault()),
+                DayOfWeek.FRIDAY.getDisplayName(TextStyle.FULL, Locale.getDefault()),
+                DayOfWeek.SATURDAY.getDisplayName(TextStyle.FULL, Locale.getDefault()),
+                strings.get(0));
+    }
+
+    public static Operand translateMonthName(final RexCall rexCall, final List<Operand> strings) {
+        final String monthNameFormatString =
+                "{'$cond': [{'$eq': [{'$month': %13$s}, 1]}, '%1$s',"
+                + " {'$cond': [{'$eq': [{'$month': %13$s}, 2]}, '%2$s',"
+                + " {'$cond': [{'$eq': [{'$month': %13$s}, 3]}, '%3$s',"
+                + " {'$cond': [{'$eq': [{'$month': %13$s}, 4]}, '%4$s',"
+                + " {'$cond': [{'$eq': [{'$month': %13$s}, 5]}, '%5$s',"
+                + " {'$cond': [{'$eq': [{'$month': %13$s}, 6]}, '%6$s',"
+                + " {'$cond': [{'$eq': [{'$month': %13$s}, 7]}, '%7$s',"
+                + " {'$cond': [{'$eq': [{'$month': %13$s}, 8]}, '%8$s',"
+                + " {'$cond': [{'$eq': [{'$month': %13$s}, 9]}, '%9$s',"
+                + " {'$cond': [{'$eq': [{'$month': %13$s}, 10]}, '%10$s',"
+                + " {'$cond': [{'$eq': [{'$month': %13$s}, 11]}, '%11$s',"
+                + " {'$cond': [{'$eq': [{'$month': %13$s}, 12]}, '%12$s',"
+                + " null]}]}]}]}]}]}]}]}]}]}]}]}";
+        return Operand.format(monthNameFormatString,
+                Month.JANUARY.getDisplayName(TextStyle.FULL, Locale.getDefault()),
+                Month.FEBRUARY.getDisplayName(TextStyle.FULL, Locale.getDefault()),
+                Month.MARCH.getDisplayName(TextStyle.FULL, Locale.getDefault()),
+                Month.APRIL.getDisplayName(TextStyle.FULL, Locale.getDefault()),
+                Month.MAY.getDisplayName(TextStyle.FULL, Locale.getDefault()),
+                Month.JUNE.getDisplayName(TextStyle.FULL, Locale.getDefault()),
+                Month.JULY.getDisplayName(TextStyle.FULL, Locale.getDefault()),
+                Month.AUGUST.getDisplayName(TextStyle.FULL, Locale.getDefault()),
+                Month.SEPTEMBER.getDisplayName(TextStyle.FULL, Locale.getDefault()),
+                Month.OCTOBER.getDisplayName(TextStyle.FULL, Locale.getDefault()),
+                Month.NOVEMBER.getDisplayName(TextStyle.FULL, Locale.getDefault()),
+                Month.DECEMBER.getDisplayName(TextStyle.FULL, Locale.getDefault()),
+                strings.get(0));
+    }
+
+    @SneakyThrows
+    static Operand translateFloor(final RexCall rexCall, final List<Operand> strings) {
+        // TODO: Add support for integer floor with one operand
+        if (rexCall.operands.size() != 2) {
+            return null;
+        }
+
+        // NOTE: Required for getting FLOOR of date-time
+        final RexNode operand2 = rexCall.operands.get(1);
+        if (!(operand2.isA(SqlKind.LITERAL)
+                && operand2.getType().getSqlTypeName() == SqlTypeName.SYMBOL
+                && (((RexLiteral) operand2).getValue() instanceof TimeUnitRange))) {
+            return null;
+        }
+        final RexLiteral literal = (RexLiteral) operand2;
+        final TimeUnitRange timeUnitRange = getValueAs(literal, TimeUnitRange.class);
+        switch (timeUnitRange) {
+            case YEAR:
+            case MONTH:
+                return new Operand(formatYearMonthFloorOperation(strings, timeUnitRange));
+            case QUARTER:
+                return new Operand(formatQuarterFloorOperation(strings));
+            case WEEK:
+            case DAY:
+            case HOUR:
+            case MINUTE:
+            case SECOND:
+            case MILLISECOND:
+                return formatMillisecondFloorOperation(strings, timeUnitRange);
+            default:
+                throw SqlError.createSQLFeatureNotSupportedException(LOGGER,
+                        SqlError.UNSUPPORTED_PROPERTY, timeUnitRange.toString());
+        }
+    }
+
+    private static String formatYearMonthFloorOperation(
+            final List<Operand> strings,
+            final TimeUnitRange timeUnitRange) {
+        final String monthFormat = timeUnitRange == TimeUnitRange.YEAR ? "01" : "%m";
+        return formatYearMonthFloorOperation(strings.get(0), monthFormat);
+    }
+
+    private static String formatYearMonthFloorOperation(
+            final Operand dateOperand,
+            final String monthFormat) {
+        final String yearFormat = "%Y";
+        return String.format(
+                "{'$dateFromString': {'dateString':"
+                        + " {'$dateToString':"
+                        + " {'date': %1$s, 'format': '%2$s-%3$s-01T00:00:00Z'}}}}",
+                dateOperand, yearFormat, monthFormat);
+    }
+
+    private static Operand formatMillisecondFloorOperation(
+            final List<Operand> strings,
+            final TimeUnitRange timeUnitRange) throws SQLFeatureNotSupportedException {
+
+        final Instant baseDate = timeUnitRange == TimeUnitRange.WEEK
+                ? FIRST_DAY_OF_WEEK_AFTER_EPOCH // Monday (or first day of week)
+                : Instant.EPOCH;
+        final long divisorLong = getDivisorValueForNumericFloor(timeUnitRange);
+        final String divisor = String.format(
+                "{\"$numberLong\": \"%d\"}", divisorLong);
+        final String subtract = String.format(
+                "{\"$subtract\": [%s, {\"$date\": {\"$numberLong\": \"%d\"}}]}",
+                strings.get(0), baseDate.toEpochMilli());
+        final Operand divide = getIntegerDivisionOperation(subtract, divisor);
+        final String multiply =  String.format(
+                "{\"$multiply\": [%s, %s]}", divisor, divide);
+        return Operand.format(
+                "{\"$add\": [{\"$date\": {\"$numberLong\": \"%d\"}}, %s]}",
+                baseDate.toEpochMilli(), multiply);
+    }
+
+    private static String formatQuarterFloorOperation(final List<Operand> strings) {
+        final String truncateQuarterFormatString =
+                "{'$cond': [{'$lte': [{'$month': %1$s}, 3]}, %2$s,"
+                        + " {'$cond': [{'$lte': [{'$month': %1$s}, 6]}, %3$s,"
+                        + " {'$cond': [{'$lte': [{'$month': %1$s}, 9]}, %4$s,"
+                        + " {'$cond': [{'$lte': [{'$month': %1$s}, 12]}, %5$s,"
+                        + " null]}]}]}]}";
+        final String monthFormatJanuary = "01";
+        final String monthFormatApril = "04";
+        final String monthFormatJuly = "07";
+        final String monthFormatOctober = "10";
+        return String.format(truncateQuarterFormatString,
+                strings.get(0),
+                formatYearMonthFloorOperation(strings.get(0), monthFormatJanuary),
+                formatYearMonthFloorOperation(strings.get(0), monthFormatApril),
+                formatYearMonthFloorOperation(strings.get(0), monthFormatJuly),
+                formatYearMonthFloorOperation(strings.get(0), monthFormatOctober));
+    }
+
+    private static long getDivisorValueForNumericFloor(final TimeUnitRange timeUnitRange)
+            throws SQLFeatureNotSupportedException {
+        final long divisorLong;
+        switch (timeUnitRange) {
+            case WEEK:
+                divisorLong = ChronoUnit.WEEKS.getDuration().toMillis();
+                break;
+            case DAY:
+                divisorLong = ChronoUnit.DAYS.getDuration().toMillis();
+                break;
+            case HOUR:
+                divisorLong = ChronoUnit.HOURS.getDuration().toMillis();
+                break;
+            case MINUTE:
+                divisorLong = ChronoUnit.MINUTES.getDuration().toMillis();
+                break;
+            case SECOND:
+                divisorLong = ChronoUnit.SECONDS.getDuration().toMillis();
+                break;
+            case MILLISECOND:
+                divisorLong = 1;
+                break;
+            default:
+                throw SqlError.createSQLFeatureNotSupportedException(LOGGER,
+                        SqlError.UNSUPPORTED_PROPERTY, timeUnitRange.toString());
+        }
+        return divisorLong;
+    }
+}
@@ -18,11 +18,14 @@ package software.amazon.documentdb.jdbc.calcite.adapter;
 
 import lombok.AllArgsConstructor;
 import lombok.Getter;
+import org.apache.calcite.DataContext;
 import org.apache.calcite.linq4j.AbstractEnumerable;
 import org.apache.calcite.linq4j.Enumerator;
 import org.bson.conversions.Bson;
+import software.amazon.documentdb.jdbc.query.DocumentDbFindQuery;
 
 import java.util.List;
+import java.util.Map.Entry;
 
 /**
  * Initially, aggregate and find returned anonymous classes as the enumerable in CalciteSignature.
@@ -36,10 +39,28 @@ public class DocumentDbEnumerable extends AbstractEnumerable<Object> {
     private final String collectionName;
     private final List<Bson> list;
     private final List<String> paths;
+    private final List<Entry<String, Class<?>>> fields;
+    private final DataContext dataContext;
+    /** The estimated number of documents of the collection, or -1 if unknown. */
+    private final long estimatedRecordCount;
 
     @Override
     public Enumerator<Object> enumerator() {
-        // Implement the enumerable interface but do not execute query.
-        return new DocumentDbEnumerator();
+        final Object queryRunner = dataContext != null
+                ? dataContext.get(DocumentDbQueryRunner.DATA_CONTEXT_KEY)
+                : null;
+        if (!(queryRunner instanceof DocumentDbQueryRunner)) {
+            // Implement the enumerable interface but do not execute query.
+            return new DocumentDbEnumerator();
+        }
+
+        // Executed as part of a hybrid query. Run the pipeline and convert the results to rows.
+        final DocumentDbQueryRunner runner = (DocumentDbQueryRunner) queryRunner;
+        final DocumentDbFindQuery findQuery = DocumentDbFindQuery.fromAggregateOperations(list, paths);
+        return findQuery != null
+                ? new DocumentDbCursorEnumerator(
+                        runner.find(databaseName, collectionName, findQuery), fields, findQuery.getPaths())
+                : new DocumentDbCursorEnumerator(
+                        runner.aggregate(databaseName, collectionName, list), fields, paths);
     }
 }
@@ -26,7 +26,6 @@ import org.apache.calcite.rel.RelNode;
 import org.apache.calcite.rel.core.Filter;
 import org.apache.calcite.rel.metadata.RelMetadataQuery;
 import org.apache.calcite.rex.RexNode;
-import org.apache.calcite.rex.RexUtil;
 import org.apache.calcite.util.Util;
 import org.checkerframework.checker.nullness.qual.Nullable;
 import org.slf4j.Logger;
@@ -100,8 +99,7 @@ public class DocumentDbFilter extends Filter implements DocumentDbRel {
                         getInput().getRowType().getFieldNames(),
                         mongoImplementor.getMetadataTable(),
                         implementor.getCurrentTime());
-        final RexNode expandedCondition = RexUtil.expandSearch(implementor.getRexBuilder(), null, condition);
-        final Operand match = expandedCondition.accept(rexToMongoTranslator);
+        final Operand match = condition.accept(rexToMongoTranslator);
 
         // Use a single match stage if no aggregation operators are needed.
         // Else, use $addFields or $project to match on placeholder boolean field. This adds 3 stages.
@@ -0,0 +1,256 @@
+/*
+ * Copyright <2021> Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ */
+
+package software.amazon.documentdb.jdbc.calcite.adapter;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import org.apache.calcite.DataContext;
+import org.apache.calcite.adapter.enumerable.EnumerableRel;
+import org.apache.calcite.adapter.enumerable.EnumerableRelImplementor;
+import org.apache.calcite.adapter.enumerable.JavaRowFormat;
+import org.apache.calcite.adapter.enumerable.PhysType;
+import org.apache.calcite.adapter.enumerable.PhysTypeImpl;
+import org.apache.calcite.adapter.enumerable.RexToLixTranslator;
+import org.apache.calcite.adapter.java.JavaTypeFactory;
+import org.apache.calcite.linq4j.function.Predicate2;
+import org.apache.calcite.linq4j.tree.BlockBuilder;
+import org.apache.calcite.linq4j.tree.Expression;
+import org.apache.calcite.linq4j.tree.Expressions;
+import org.apache.calcite.linq4j.tree.ParameterExpression;
+import org.apache.calcite.plan.RelOptCluster;
+import org.apache.calcite.plan.RelOptCost;
+import org.apache.calcite.plan.RelOptPlanner;
+import org.apache.calcite.plan.RelOptUtil;
+import org.apache.calcite.plan.RelTraitSet;
+import org.apache.calcite.rel.RelNode;
+import org.apache.calcite.rel.RelWriter;
+import org.apache.calcite.rel.core.CorrelationId;
+import org.apache.calcite.rel.core.Join;
+import org.apache.calcite.rel.core.JoinRelType;
+import org.apache.calcite.rel.metadata.RelMetadataQuery;
+import org.apache.calcite.rex.RexNode;
+import org.apache.calcite.rex.RexProgramBuilder;
+import org.apache.calcite.rex.RexUtil;
+import org.apache.calcite.util.BuiltInMethod;
+import org.apache.calcite.util.Util;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Implementation of a {@link Join} executed in the driver, used when hybrid execution is enabled
+ * and the join cannot be pushed down to DocumentDB. Each input is queried separately and the
+ * results are joined using either a hash join or, when both inputs are sorted by DocumentDB on
+ * their join keys, a merge join. Conditions other than the equality of keys are evaluated by the
+ * hash join for each pair of rows with equal keys, or for every pair of rows if there are no keys.
+ */
+public class DocumentDbHybridJoin extends Join implements EnumerableRel {
+    private final boolean merge;
+
+    /**
+     * Creates a new {@link DocumentDbHybridJoin}.
+     *
+     * @param cluster the cluster.
+     * @param traitSet the trait set.
+     * @param left the left node.
+     * @param right the right node.
+     * @param condition the join condition.
+     * @param variablesSet the set of variables set by this join.
+     * @param joinType the join type.
+     * @param merge whether to use a merge join, with both inputs sorted on their join keys.
+     */
+    public DocumentDbHybridJoin(
+            final RelOptCluster cluster,
+            final RelTraitSet traitSet,
+            final RelNode left,
+            final RelNode right,
+            final RexNode condition,
+            final Set<CorrelationId> variablesSet,
+            final JoinRelType joinType,
+            final boolean merge) {
+        super(cluster, traitSet, ImmutableList.of(), left, right, condition, variablesSet, joinType);
+        this.merge = merge;
+    }
+
+    @Override
+    public Join copy(
+            final RelTraitSet traitSet,
+            final RexNode conditionExpr,
+            final RelNode left,
+            final RelNode right,
+            final JoinRelType joinType,
+            final boolean semiJoinDone) {
+        return new DocumentDbHybridJoin(
+                getCluster(), traitSet, left, right, conditionExpr, getVariablesSet(), joinType, merge);
+    }
+
+    @Override
+    public RelWriter explainTerms(final RelWriter pw) {
+        return super.explainTerms(pw).item("algorithm", merge ? "merge" : "hash");
+    }
+
+    @Override
+    public @Nullable RelOptCost computeSelfCost(
+            final RelOptPlanner planner,
+            final RelMetadataQuery mq) {
+        final double rowCount = mq.getRowCount(this);
+        final double leftRowCount = mq.getRowCount(getLeft());
+        final double rightRowCount = mq.getRowCount(getRight());
+        // Both joins read each input once. A hash join also builds a table from its smaller input,
+        // while a merge join relies on its inputs being sorted by DocumentDB.
+        // A join without keys compares every pair of rows.
+        final double rows = merge
+                ? rowCount + leftRowCount + rightRowCount
+                : rowCount + leftRowCount + rightRowCount + getBuildRowCount(leftRowCount, rightRowCount)
+                        + (!JoinKeys.of(this).hasKeys() ? leftRowCount * rightRowCount : 0);
+        return planner.getCostFactory().makeCost(rows, 0, 0);
+    }
+
+    @Override
+    public Result implement(final EnumerableRelImplementor implementor, final Prefer pref) {
+        final BlockBuilder builder = new BlockBuilder();
+        final Result leftResult = implementor.visitChild(this, 0, (EnumerableRel) getLeft(), Prefer.ARRAY);
+        final Expression leftExpression = builder.append("left", leftResult.block);
+        final Result rightResult = implementor.visitChild(this, 1, (EnumerableRel) getRight(), Prefer.ARRAY);
+        final Expression rightExpression = builder.append("right", rightResult.block);
+        final PhysType physType = PhysTypeImpl.of(
+                implementor.getTypeFactory(), getRowType(), JavaRowFormat.ARRAY, false);
+
+        final JoinKeys joinKeys = JoinKeys.of(this);
+        final List<Expression> arguments = new ArrayList<>();
+        arguments.add(DataContext.ROOT);
+        arguments.add(leftResult.physType.convertTo(leftExpression, JavaRowFormat.ARRAY));
+        arguments.add(rightResult.physType.convertTo(rightExpression, JavaRowFormat.ARRAY));
+        arguments.add(constantIntegerList(joinKeys.getLeftKeys()));
+        arguments.add(constantIntegerList(joinKeys.getRightKeys()));
+        arguments.add(Expressions.constant(getJoinType().name()));
+        arguments.add(Expressions.constant(getLeft().getRowType().getFieldCount()));
+        arguments.add(Expressions.constant(getRight().getRowType().getFieldCount()));
+        if (!merge) {
+            final RelMetadataQuery mq = getCluster().getMetadataQuery();
+            arguments.add(Expressions.constant(isBuildLeft(mq.getRowCount(getLeft()), mq.getRowCount(getRight()))));
+            final RexNode remainingCondition = joinKeys.getRemainingCondition();
+            arguments.add(remainingCondition == null
+                    ? Expressions.constant(null, Predicate2.class)
+                    : builder.append("predicate", generatePredicate(implementor, remainingCondition)));
+        }
+        final DocumentDbMethod method = merge
+                ? DocumentDbMethod.HYBRID_MERGE_JOIN
+                : DocumentDbMethod.HYBRID_HASH_JOIN;
+        builder.add(Expressions.return_(null, Expressions.call(method.getMethod(), arguments)));
+        return implementor.result(physType, builder.toBlock());
+    }
+
+    /**
+     * Generates a predicate on a left and a right row, each an {@code Object[]}, that evaluates
+     * the condition.
+     */
+    private Expression generatePredicate(final EnumerableRelImplementor implementor, final RexNode condition) {
+        final JavaTypeFactory typeFactory = implementor.getTypeFactory();
+        final PhysType leftPhysType = PhysTypeImpl.of(typeFactory, getLeft().getRowType(), JavaRowFormat.ARRAY, false);
+        final PhysType rightPhysType =
+                PhysTypeImpl.of(typeFactory, getRight().getRowType(), JavaRowFormat.ARRAY, false);
+        final ParameterExpression leftRow = Expressions.parameter(Object[].class, "leftRow");
+        final ParameterExpression rightRow = Expressions.parameter(Object[].class, "rightRow");
+        final RexProgramBuilder programBuilder = new RexProgramBuilder(
+                typeFactory.builder()
+                        .addAll(getLeft().getRowType().getFieldList())
+                        .addAll(getRight().getRowType().getFieldList())
+                        .build(),
+                getCluster().getRexBuilder());
+        programBuilder.addCondition(condition);
+        final BlockBuilder builder = new BlockBuilder();
+        builder.add(Expressions.return_(null, RexToLixTranslator.translateCondition(
+                programBuilder.getProgram(), typeFactory, builder,
+                new RexToLixTranslator.InputGetterImpl(ImmutableMap.of(leftRow, leftPhysType, rightRow, rightPhysType)),
+                implementor.allCorrelateVariables, implementor.getConformance())));
+        return Expressions.lambda(Predicate2.class, builder.toBlock(), leftRow, rightRow);
+    }
+
+    private double getBuildRowCount(final double leftRowCount, final double rightRowCount) {
+        return isBuildLeft(leftRowCount, rightRowCount) ? leftRowCount : rightRowCount;
+    }
+
+    /**
+     * Gets whether to build the hash table from the left input. The smaller input is used, except
+     * for semi- and anti-joins, which must always build from the right.
+     */
+    private boolean isBuildLeft(final double leftRowCount, final double rightRowCount) {
+        return getJoinType() != JoinRelType.SEMI
+                && getJoinType() != JoinRelType.ANTI
+                && leftRowCount < rightRowCount;
+    }
+
+    /**
+     * The equality keys of a join and the rest of its condition. Keys compared with
+     * {@code IS NOT DISTINCT FROM} match null values, so a condition that has any is evaluated
+     * entirely as the rest of the condition.
+     */
+    static final class JoinKeys {
+        private final List<Integer> leftKeys;
+        private final List<Integer> rightKeys;
+        private final @Nullable RexNode remainingCondition;
+
+        private JoinKeys(
+                final List<Integer> leftKeys,
+                final List<Integer> rightKeys,
+                final @Nullable RexNode remainingCondition) {
+            this.leftKeys = leftKeys;
+            this.rightKeys = rightKeys;
+            this.remainingCondition = remainingCondition;
+        }
+
+        static JoinKeys of(final Join join) {
+            final List<Integer> leftKeys = new ArrayList<>();
+            final List<Integer> rightKeys = new ArrayList<>();
+            final List<Boolean> filterNulls = new ArrayList<>();
+            final List<RexNode> nonEquiList = new ArrayList<>();
+            RelOptUtil.splitJoinCondition(join.getLeft(), join.getRight(), join.getCondition(),
+                    leftKeys, rightKeys, filterNulls, nonEquiList);
+            if (filterNulls.contains(false)) {
+                return new JoinKeys(ImmutableList.of(), ImmutableList.of(), join.getCondition());
+            }
+            return new JoinKeys(leftKeys, rightKeys, nonEquiList.isEmpty()
+                    ? null
+                    : RexUtil.composeConjunction(join.getCluster().getRexBuilder(), nonEquiList));
+        }
+
+        boolean hasKeys() {
+            return !leftKeys.isEmpty();
+        }
+
+        @Nullable RexNode getRemainingCondition() {
+            return remainingCondition;
+        }
+
+        List<Integer> getLeftKeys() {
+            return leftKeys;
+        }
+
+        List<Integer> getRightKeys() {
+            return rightKeys;
+        }
+    }
+
+    static Expression constantIntegerList(final List<Integer> values) {
+        return Expressions.call(
+                BuiltInMethod.ARRAYS_AS_LIST.method,
+                Expressions.newArrayInit(Integer.class, Util.transform(values, Expressions::constant)));
+    }
+}
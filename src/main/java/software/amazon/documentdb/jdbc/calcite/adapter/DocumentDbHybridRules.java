@@ -0,0 +1,307 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package software.amazon.documentdb.jdbc.calcite.adapter;
+
+import com.google.common.collect.ImmutableList;
+import org.apache.calcite.adapter.enumerable.EnumerableAggregate;
+import org.apache.calcite.adapter.enumerable.EnumerableConvention;
+import org.apache.calcite.adapter.enumerable.EnumerableProject;
+import org.apache.calcite.adapter.enumerable.EnumerableRules;
+import org.apache.calcite.adapter.enumerable.EnumerableSortedAggregate;
+import org.apache.calcite.plan.Convention;
+import org.apache.calcite.plan.RelOptUtil;
+import org.apache.calcite.plan.RelTraitSet;
+import org.apache.calcite.rel.RelCollation;
+import org.apache.calcite.rel.RelCollations;
+import org.apache.calcite.rel.RelFieldCollation;
+import org.apache.calcite.rel.RelNode;
+import org.apache.calcite.rel.convert.ConverterRule;
+import org.apache.calcite.rel.core.Aggregate;
+import org.apache.calcite.rel.core.AggregateCall;
+import org.apache.calcite.rel.core.Sort;
+import org.apache.calcite.rel.logical.LogicalAggregate;
+import org.apache.calcite.rel.logical.LogicalJoin;
+import org.apache.calcite.rel.logical.LogicalUnion;
+import org.apache.calcite.rel.logical.LogicalWindow;
+import org.apache.calcite.rel.type.RelDataType;
+import org.apache.calcite.rex.RexBuilder;
+import org.apache.calcite.rex.RexInputRef;
+import org.apache.calcite.rex.RexNode;
+import org.apache.calcite.sql.fun.SqlStdOperatorTable;
+import org.apache.calcite.sql.type.SqlTypeName;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Rules used when hybrid execution is enabled to execute operators that cannot be pushed down
+ * to DocumentDB in the driver.
+ */
+final class DocumentDbHybridRules {
+
+    private DocumentDbHybridRules() { }
+
+    /**
+     * Rule to convert a {@link LogicalJoin} that cannot be pushed down to a
+     * {@link DocumentDbHybridJoin} executed in the driver. Joins without equi-join keys are
+     * converted to a hash join without keys, which compares every pair of rows while holding at
+     * most the in-memory limit of rows of one input.
+     */
+    static class DocumentDbHybridJoinRule extends ConverterRule {
+        static final DocumentDbHybridJoinRule HASH_INSTANCE = Config.INSTANCE
+                .withConversion(LogicalJoin.class, (LogicalJoin join) -> !DocumentDbJoin.isPushable(join),
+                        Convention.NONE, EnumerableConvention.INSTANCE, "DocumentDbHybridHashJoinRule")
+                .withRuleFactory(config -> new DocumentDbHybridJoinRule(config, false))
+                .toRule(DocumentDbHybridJoinRule.class);
+        static final DocumentDbHybridJoinRule MERGE_INSTANCE = Config.INSTANCE
+                .withConversion(LogicalJoin.class, (LogicalJoin join) -> !DocumentDbJoin.isPushable(join),
+                        Convention.NONE, EnumerableConvention.INSTANCE, "DocumentDbHybridMergeJoinRule")
+                .withRuleFactory(config -> new DocumentDbHybridJoinRule(config, true))
+                .toRule(DocumentDbHybridJoinRule.class);
+
+        private final boolean merge;
+
+        protected DocumentDbHybridJoinRule(final Config config, final boolean merge) {
+            super(config);
+            this.merge = merge;
+        }
+
+        @Override public @Nullable RelNode convert(final RelNode rel) {
+            final LogicalJoin join = (LogicalJoin) rel;
+            final DocumentDbHybridJoin.JoinKeys joinKeys = DocumentDbHybridJoin.JoinKeys.of(join);
+            if (merge) {
+                return joinKeys.hasKeys() && joinKeys.getRemainingCondition() == null
+                        && isMergeable(join, joinKeys.getLeftKeys(), joinKeys.getRightKeys())
+                        ? convertToMergeJoin(join, joinKeys.getLeftKeys(), joinKeys.getRightKeys())
+                        : null;
+            }
+            // Conditions other than the equality of keys are evaluated by the hash join.
+            final RelNode left = convert(join.getLeft(), join.getLeft().getTraitSet().replace(out));
+            final RelNode right = convert(join.getRight(), join.getRight().getTraitSet().replace(out));
+            return new DocumentDbHybridJoin(join.getCluster(), join.getCluster().traitSetOf(out), left, right,
+                    join.getCondition(), join.getVariablesSet(), join.getJoinType(), false);
+        }
+
+        /**
+         * Gets whether the join can be a merge join. The inputs are sorted by DocumentDB, so the
+         * join keys must be of types whose sort order on the server matches the order used to
+         * merge them in the driver.
+         */
+        private static boolean isMergeable(
+                final LogicalJoin join,
+                final List<Integer> leftKeys,
+                final List<Integer> rightKeys) {
+            switch (join.getJoinType()) {
+                case INNER:
+                case LEFT:
+                case RIGHT:
+                case FULL:
+                    break;
+                default:
+                    return false;
+            }
+            for (int i = 0; i < leftKeys.size(); i++) {
+                if (!isMergeableType(join.getLeft().getRowType().getFieldList().get(leftKeys.get(i)).getType())
+                        || !isMergeableType(
+                                join.getRight().getRowType().getFieldList().get(rightKeys.get(i)).getType())) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private static boolean isMergeableType(final RelDataType type) {
+            return SqlTypeName.NUMERIC_TYPES.contains(type.getSqlTypeName())
+                    || type.getSqlTypeName() == SqlTypeName.BOOLEAN;
+        }
+
+        private RelNode convertToMergeJoin(
+                final LogicalJoin join,
+                final List<Integer> leftKeys,
+                final List<Integer> rightKeys) {
+            final RelNode left = convert(join.getLeft(), join.getLeft().getTraitSet()
+                    .replace(out).replace(getKeyCollation(leftKeys)));
+            final RelNode right = convert(join.getRight(), join.getRight().getTraitSet()
+                    .replace(out).replace(getKeyCollation(rightKeys)));
+            final RexBuilder rexBuilder = join.getCluster().getRexBuilder();
+            return new DocumentDbHybridJoin(join.getCluster(), join.getCluster().traitSetOf(out), left, right,
+                    RelOptUtil.createEquiJoinCondition(left, leftKeys, right, rightKeys, rexBuilder),
+                    join.getVariablesSet(), join.getJoinType(), true);
+        }
+
+        private static RelCollation getKeyCollation(final List<Integer> keys) {
+            final List<RelFieldCollation> fieldCollations = new ArrayList<>();
+            for (int key : keys) {
+                fieldCollations.add(new RelFieldCollation(
+                        key, RelFieldCollation.Direction.ASCENDING, RelFieldCollation.NullDirection.FIRST));
+            }
+            return RelCollations.of(fieldCollations);
+        }
+    }
+
+    /**
+     * Rule to convert a {@link Sort} to a {@link DocumentDbHybridSort} executed in the driver.
+     * Sorts without a collation are left to {@link EnumerableRules#ENUMERABLE_LIMIT_RULE}.
+     */
+    static class DocumentDbHybridSortRule extends ConverterRule {
+        static final DocumentDbHybridSortRule INSTANCE = Config.INSTANCE
+                .withConversion(Sort.class,
+                        (Sort sort) -> !sort.getCollation().getFieldCollations().isEmpty()
+                                && DocumentDbHybridSort.isLiteralOrNull(sort.offset)
+                                && DocumentDbHybridSort.isLiteralOrNull(sort.fetch),
+                        Convention.NONE, EnumerableConvention.INSTANCE, "DocumentDbHybridSortRule")
+                .withRuleFactory(DocumentDbHybridSortRule::new)
+                .toRule(DocumentDbHybridSortRule.class);
+
+        DocumentDbHybridSortRule(final Config config) {
+            super(config);
+        }
+
+        @Override public RelNode convert(final RelNode rel) {
+            final Sort sort = (Sort) rel;
+            final RelTraitSet traitSet = sort.getTraitSet().replace(out)
+                    .replace(sort.getCollation());
+            return new DocumentDbHybridSort(rel.getCluster(), traitSet,
+                    convert(sort.getInput(), sort.getInput().getTraitSet().replace(out)
+                            .replace(RelCollations.EMPTY)),
+                    sort.getCollation(), sort.offset, sort.fetch);
+        }
+    }
+
+    /**
+     * Rule to convert a {@link LogicalAggregate} that is not pushed down to an aggregate executed
+     * in the driver. Aggregates with a simple group by are converted to an
+     * {@link EnumerableSortedAggregate}, which reads its input sorted by the group keys and holds
+     * only the current group in memory. Aggregates without group keys are converted to an
+     * {@link EnumerableAggregate}, which folds every row into a single accumulator. Grouping sets
+     * and ordered aggregate calls are not supported. Distinct aggregate calls are rewritten as
+     * aggregates over their grouped arguments before this rule applies.
+     */
+    static class DocumentDbHybridAggregateRule extends ConverterRule {
+        static final DocumentDbHybridAggregateRule INSTANCE = Config.INSTANCE
+                .withConversion(LogicalAggregate.class, Convention.NONE,
+                        EnumerableConvention.INSTANCE, "DocumentDbHybridAggregateRule")
+                .withRuleFactory(DocumentDbHybridAggregateRule::new)
+                .toRule(DocumentDbHybridAggregateRule.class);
+
+        DocumentDbHybridAggregateRule(final Config config) {
+            super(config);
+        }
+
+        @Override public @Nullable RelNode convert(final RelNode rel) {
+            final LogicalAggregate aggregate = (LogicalAggregate) rel;
+            if (!isStreamable(aggregate)) {
+                return null;
+            }
+            if (aggregate.getGroupSet().isEmpty()) {
+                return ((ConverterRule) EnumerableRules.ENUMERABLE_AGGREGATE_RULE).convert(rel);
+            }
+            final ConverterRule sortedAggregateRule =
+                    (ConverterRule) EnumerableRules.ENUMERABLE_SORTED_AGGREGATE_RULE;
+            if (!aggregate.getAggCallList().isEmpty()) {
+                return sortedAggregateRule.convert(aggregate);
+            }
+            // A sorted aggregate needs an aggregate call, so a count is added and projected away.
+            final List<AggregateCall> aggCalls = ImmutableList.of(AggregateCall.create(
+                    SqlStdOperatorTable.COUNT, false, false, false, ImmutableList.of(), -1, null,
+                    RelCollations.EMPTY, aggregate.getGroupCount(), aggregate.getInput(), null, null));
+            final RelNode sortedAggregate = sortedAggregateRule.convert(aggregate.copy(aggregate.getTraitSet(),
+                    aggregate.getInput(), aggregate.getGroupSet(), aggregate.getGroupSets(), aggCalls));
+            if (sortedAggregate == null) {
+                return null;
+            }
+            final List<RexNode> projects = new ArrayList<>();
+            for (int i = 0; i < aggregate.getGroupCount(); i++) {
+                projects.add(RexInputRef.of(i, sortedAggregate.getRowType()));
+            }
+            return EnumerableProject.create(sortedAggregate, projects, aggregate.getRowType());
+        }
+
+        /**
+         * Gets whether the aggregate can be computed while reading its input once, holding only
+         * the accumulators of the current group in memory.
+         */
+        private static boolean isStreamable(final Aggregate aggregate) {
+            if (aggregate.getGroupType() != Aggregate.Group.SIMPLE) {
+                return false;
+            }
+            for (AggregateCall aggCall : aggregate.getAggCallList()) {
+                if (aggCall.isDistinct() || !aggCall.getCollation().getFieldCollations().isEmpty()) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Rule to convert a {@link LogicalWindow} that is not pushed down to a
+     * {@link DocumentDbHybridWindow} executed in the driver. Windows with functions or frames
+     * it does not support are not converted.
+     */
+    static class DocumentDbHybridWindowRule extends ConverterRule {
+        static final DocumentDbHybridWindowRule INSTANCE = Config.INSTANCE
+                .withConversion(LogicalWindow.class, Convention.NONE,
+                        EnumerableConvention.INSTANCE, "DocumentDbHybridWindowRule")
+                .withRuleFactory(DocumentDbHybridWindowRule::new)
+                .toRule(DocumentDbHybridWindowRule.class);
+
+        DocumentDbHybridWindowRule(final Config config) {
+            super(config);
+        }
+
+        @Override public @Nullable RelNode convert(final RelNode rel) {
+            final LogicalWindow window = (LogicalWindow) rel;
+            if (!DocumentDbHybridWindow.isSupported(window)) {
+                return null;
+            }
+            // The rows are in the order of the last group computed.
+            final RelCollation inputCollation = DocumentDbHybridWindow.getSortCollation(window.groups.get(0));
+            final RelCollation outputCollation =
+                    DocumentDbHybridWindow.getSortCollation(window.groups.get(window.groups.size() - 1));
+            return new DocumentDbHybridWindow(rel.getCluster(),
+                    window.getTraitSet().replace(out).replace(outputCollation),
+                    convert(window.getInput(), window.getInput().getTraitSet().replace(out)
+                            .replace(inputCollation)),
+                    window.constants, window.getRowType(), window.groups);
+        }
+    }
+
+    /**
+     * Rule to convert a UNION ALL that is not pushed down to an operator executed in the driver,
+     * which reads its inputs one after the other. Set operations without ALL are rewritten as
+     * aggregates of a UNION ALL, which are executed by {@link DocumentDbHybridAggregateRule}.
+     * INTERSECT ALL and EXCEPT ALL would hold their inputs in memory, so they are not supported.
+     */
+    static class DocumentDbHybridUnionRule extends ConverterRule {
+        static final DocumentDbHybridUnionRule INSTANCE = Config.INSTANCE
+                .withConversion(LogicalUnion.class, (LogicalUnion union) -> union.all,
+                        Convention.NONE, EnumerableConvention.INSTANCE, "DocumentDbHybridUnionRule")
+                .withRuleFactory(DocumentDbHybridUnionRule::new)
+                .toRule(DocumentDbHybridUnionRule.class);
+
+        DocumentDbHybridUnionRule(final Config config) {
+            super(config);
+        }
+
+        @Override public @Nullable RelNode convert(final RelNode rel) {
+            return ((ConverterRule) EnumerableRules.ENUMERABLE_UNION_RULE).convert(rel);
+        }
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright <2021> Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ */
+
+package software.amazon.documentdb.jdbc.calcite.adapter;
+
+import org.apache.calcite.DataContext;
+import org.apache.calcite.adapter.enumerable.EnumerableRel;
+import org.apache.calcite.adapter.enumerable.EnumerableRelImplementor;
+import org.apache.calcite.adapter.enumerable.JavaRowFormat;
+import org.apache.calcite.adapter.enumerable.PhysType;
+import org.apache.calcite.adapter.enumerable.PhysTypeImpl;
+import org.apache.calcite.linq4j.tree.BlockBuilder;
+import org.apache.calcite.linq4j.tree.Expression;
+import org.apache.calcite.linq4j.tree.Expressions;
+import org.apache.calcite.plan.RelOptCluster;
+import org.apache.calcite.plan.RelTraitSet;
+import org.apache.calcite.rel.RelCollation;
+import org.apache.calcite.rel.RelNode;
+import org.apache.calcite.rel.core.Sort;
+import org.apache.calcite.rex.RexLiteral;
+import org.apache.calcite.rex.RexNode;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * Implementation of {@link Sort} executed in the driver, used when hybrid execution is enabled
+ * and the input of the sort is not a pushed-down query. The offset and fetch must be literals.
+ */
+public class DocumentDbHybridSort extends Sort implements EnumerableRel {
+
+    /**
+     * Creates a new {@link DocumentDbHybridSort}.
+     *
+     * @param cluster the cluster.
+     * @param traitSet the trait set.
+     * @param input the input.
+     * @param collation the collation of the sort.
+     * @param offset the number of rows to skip, or {@code null}.
+     * @param fetch the maximum number of rows to return, or {@code null}.
+     */
+    public DocumentDbHybridSort(
+            final RelOptCluster cluster,
+            final RelTraitSet traitSet,
+            final RelNode input,
+            final RelCollation collation,
+            final @Nullable RexNode offset,
+            final @Nullable RexNode fetch) {
+        super(cluster, traitSet, input, collation, offset, fetch);
+        assert isLiteralOrNull(offset) && isLiteralOrNull(fetch);
+    }
+
+    @Override
+    public Sort copy(
+            final RelTraitSet traitSet,
+            final RelNode newInput,
+            final RelCollation newCollation,
+            final @Nullable RexNode newOffset,
+            final @Nullable RexNode newFetch) {
+        return new DocumentDbHybridSort(getCluster(), traitSet, newInput, newCollation, newOffset, newFetch);
+    }
+
+    @Override
+    public Result implement(final EnumerableRelImplementor implementor, final Prefer pref) {
+        final BlockBuilder builder = new BlockBuilder();
+        final Result result = implementor.visitChild(this, 0, (EnumerableRel) getInput(), Prefer.ARRAY);
+        final Expression input = builder.append("input", result.block);
+        final PhysType physType = PhysTypeImpl.of(
+                implementor.getTypeFactory(), getRowType(), JavaRowFormat.ARRAY, false);
+        final Expression comparator = builder.append("comparator", physType.generateComparator(collation));
+        builder.add(Expressions.return_(null, Expressions.call(
+                DocumentDbMethod.HYBRID_SORT.getMethod(),
+                DataContext.ROOT,
+                result.physType.convertTo(input, JavaRowFormat.ARRAY),
+                comparator,
+                Expressions.constant(offset != null ? RexLiteral.intValue(offset) : 0),
+                Expressions.constant(fetch != null ? RexLiteral.intValue(fetch) : -1))));
+        return implementor.result(physType, builder.toBlock());
+    }
+
+    /**
+     * Gets whether the offset or fetch of a sort can be executed in the driver.
+     *
+     * @param node the offset or fetch.
+     * @return {@code true} if the node is absent or a literal, {@code false}, otherwise.
+     */
+    static boolean isLiteralOrNull(final @Nullable RexNode node) {
+        return node == null || node instanceof RexLiteral;
+    }
+}
@@ -0,0 +1,260 @@
+/*
+ * Copyright <2021> Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ */
+
+package software.amazon.documentdb.jdbc.calcite.adapter;
+
+import org.apache.calcite.DataContext;
+import org.apache.calcite.adapter.enumerable.EnumerableRel;
+import org.apache.calcite.adapter.enumerable.EnumerableRelImplementor;
+import org.apache.calcite.adapter.enumerable.JavaRowFormat;
+import org.apache.calcite.adapter.enumerable.PhysType;
+import org.apache.calcite.adapter.enumerable.PhysTypeImpl;
+import org.apache.calcite.linq4j.tree.BlockBuilder;
+import org.apache.calcite.linq4j.tree.Expression;
+import org.apache.calcite.linq4j.tree.Expressions;
+import org.apache.calcite.plan.RelOptCluster;
+import org.apache.calcite.plan.RelTraitSet;
+import org.apache.calcite.rel.RelCollation;
+import org.apache.calcite.rel.RelCollations;
+import org.apache.calcite.rel.RelFieldCollation;
+import org.apache.calcite.rel.RelNode;
+import org.apache.calcite.rel.core.Window;
+import org.apache.calcite.rel.type.RelDataType;
+import org.apache.calcite.rex.RexInputRef;
+import org.apache.calcite.rex.RexLiteral;
+import org.apache.calcite.rex.RexNode;
+import org.apache.calcite.rex.RexWindowBound;
+import org.apache.calcite.util.BuiltInMethod;
+import org.apache.calcite.util.Util;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Implementation of {@link Window} executed in the driver, used when hybrid execution is enabled
+ * and the window cannot be pushed down. The input is sorted by the partition and order keys of
+ * the first group. The rows are sorted again for each following group, with the same external
+ * sort as {@link DocumentDbHybridSort}, so no group holds more than a partition in memory.
+ */
+public class DocumentDbHybridWindow extends Window implements EnumerableRel {
+
+    /**
+     * Creates a new {@link DocumentDbHybridWindow}.
+     *
+     * @param cluster the cluster.
+     * @param traitSet the trait set.
+     * @param input the input.
+     * @param constants the constants used by the window functions and frame bounds.
+     * @param rowType the row type: the input fields followed by the window function results.
+     * @param groups the groups of window functions.
+     */
+    public DocumentDbHybridWindow(
+            final RelOptCluster cluster,
+            final RelTraitSet traitSet,
+            final RelNode input,
+            final List<RexLiteral> constants,
+            final RelDataType rowType,
+            final List<Group> groups) {
+        super(cluster, traitSet, input, constants, rowType, groups);
+    }
+
+    @Override
+    public RelNode copy(final RelTraitSet traitSet, final List<RelNode> inputs) {
+        return new DocumentDbHybridWindow(getCluster(), traitSet, sole(inputs), constants, getRowType(), groups);
+    }
+
+
+    @Override
+    public Result implement(final EnumerableRelImplementor implementor, final Prefer pref) {
+        final BlockBuilder builder = new BlockBuilder();
+        final Result result = implementor.visitChild(this, 0, (EnumerableRel) getInput(), Prefer.ARRAY);
+        Expression rows = result.physType.convertTo(builder.append("input", result.block), JavaRowFormat.ARRAY);
+        // The keys of all groups are input fields, which keep their index in the output rows.
+        final PhysType inputPhysType = PhysTypeImpl.of(
+                implementor.getTypeFactory(), getInput().getRowType(), JavaRowFormat.ARRAY, false);
+        for (int i = 0; i < groups.size(); i++) {
+            final Group group = groups.get(i);
+            if (i > 0) {
+                rows = builder.append("sorted", Expressions.call(
+                        DocumentDbMethod.HYBRID_SORT.getMethod(),
+                        DataContext.ROOT,
+                        rows,
+                        builder.append("comparator", inputPhysType.generateComparator(getSortCollation(group))),
+                        Expressions.constant(0),
+                        Expressions.constant(-1)));
+            }
+            final Expression orderComparator = group.orderKeys.getFieldCollations().isEmpty()
+                    ? Expressions.constant(null, Comparator.class)
+                    : builder.append("orderComparator", inputPhysType.generateComparator(group.orderKeys));
+            final List<String> functions = new ArrayList<>();
+            final List<Integer> arguments = new ArrayList<>();
+            final List<String> resultTypes = new ArrayList<>();
+            for (RexWinAggCall aggCall : group.aggCalls) {
+                functions.add(aggCall.getKind().name());
+                arguments.add(aggCall.getOperands().isEmpty()
+                        ? -1
+                        : ((RexInputRef) aggCall.getOperands().get(0)).getIndex());
+                resultTypes.add(aggCall.getType().getSqlTypeName().name());
+            }
+            final int[] frame = getFrame(this, group);
+            assert frame != null;
+            rows = builder.append("window", Expressions.call(
+                    DocumentDbMethod.HYBRID_WINDOW.getMethod(),
+                    DataContext.ROOT,
+                    rows,
+                    DocumentDbHybridJoin.constantIntegerList(group.keys.asList()),
+                    orderComparator,
+                    constantStringList(functions),
+                    DocumentDbHybridJoin.constantIntegerList(arguments),
+                    constantStringList(resultTypes),
+                    Expressions.constant(group.isRows),
+                    Expressions.constant(frame[0]),
+                    Expressions.constant(frame[1])));
+        }
+        builder.add(Expressions.return_(null, rows));
+        final PhysType physType = PhysTypeImpl.of(
+                implementor.getTypeFactory(), getRowType(), JavaRowFormat.ARRAY, false);
+        return implementor.result(physType, builder.toBlock());
+    }
+
+    /**
+     * Gets whether all window functions can be computed in the driver. This requires ranking or
+     * aggregate functions on input fields and frames that either start at the first row of the
+     * partition or are bounded rows.
+     *
+     * @param window the window.
+     * @return {@code true} if the window can be computed in the driver, {@code false}, otherwise.
+     */
+    static boolean isSupported(final Window window) {
+        final int inputFieldCount = window.getInput().getRowType().getFieldCount();
+        for (Group group : window.groups) {
+            for (RexWinAggCall aggCall : group.aggCalls) {
+                if (aggCall.distinct || aggCall.getOperands().size() > 1) {
+                    return false;
+                }
+                for (RexNode operand : aggCall.getOperands()) {
+                    if (!(operand instanceof RexInputRef)
+                            || ((RexInputRef) operand).getIndex() >= inputFieldCount) {
+                        return false;
+                    }
+                }
+                switch (aggCall.getKind()) {
+                    case ROW_NUMBER:
+                    case RANK:
+                    case DENSE_RANK:
+                    case COUNT:
+                        break;
+                    case SUM:
+                    case SUM0:
+                    case MIN:
+                    case MAX:
+                    case AVG:
+                        if (aggCall.getOperands().isEmpty()) {
+                            return false;
+                        }
+                        break;
+                    default:
+                        return false;
+                }
+            }
+            if (getFrame(window, group) == null) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Gets the collation the rows must be sorted by to compute a group: the partition keys,
+     * then the order keys.
+     *
+     * @param group the group.
+     * @return the collation.
+     */
+    static RelCollation getSortCollation(final Group group) {
+        final List<RelFieldCollation> fieldCollations = new ArrayList<>();
+        for (int key : group.keys) {
+            fieldCollations.add(new RelFieldCollation(
+                    key, RelFieldCollation.Direction.ASCENDING, RelFieldCollation.NullDirection.FIRST));
+        }
+        for (RelFieldCollation fieldCollation : group.orderKeys.getFieldCollations()) {
+            if (!group.keys.get(fieldCollation.getFieldIndex())) {
+                fieldCollations.add(fieldCollation);
+            }
+        }
+        return RelCollations.of(fieldCollations);
+    }
+
+    /**
+     * Gets the bounds of the frame of a group, as offsets from the current row. Range frames must
+     * start at the first row of the partition and end at the last peer of the current row or the
+     * last row of the partition. Rows frames must not start after the first row and end at the
+     * last row of the partition, as the rows of such a frame are kept in memory.
+     */
+    private static int @Nullable [] getFrame(final Window window, final Group group) {
+        final Integer lower = getOffset(window, group.lowerBound);
+        final Integer upper = getOffset(window, group.upperBound);
+        if (lower == null || upper == null
+                || lower == DocumentDbWindowEnumerables.UNBOUNDED_FOLLOWING
+                || upper == DocumentDbWindowEnumerables.UNBOUNDED_PRECEDING) {
+            return null;
+        }
+        final boolean lowerUnbounded = lower == DocumentDbWindowEnumerables.UNBOUNDED_PRECEDING;
+        final boolean upperUnbounded = upper == DocumentDbWindowEnumerables.UNBOUNDED_FOLLOWING;
+        if (group.isRows
+                ? !lowerUnbounded && upperUnbounded
+                : !lowerUnbounded || !(upperUnbounded || upper == 0)) {
+            return null;
+        }
+        return new int[] {lower, upper};
+    }
+
+    private static @Nullable Integer getOffset(final Window window, final RexWindowBound bound) {
+        if (bound.isUnbounded()) {
+            return bound.isPreceding()
+                    ? DocumentDbWindowEnumerables.UNBOUNDED_PRECEDING
+                    : DocumentDbWindowEnumerables.UNBOUNDED_FOLLOWING;
+        }
+        if (bound.isCurrentRow()) {
+            return 0;
+        }
+        // Offsets refer to the constants after the input fields.
+        final RexNode offset = bound.getOffset();
+        if (!(offset instanceof RexInputRef)) {
+            return null;
+        }
+        final int constantIndex =
+                ((RexInputRef) offset).getIndex() - window.getInput().getRowType().getFieldCount();
+        if (constantIndex < 0 || constantIndex >= window.constants.size()) {
+            return null;
+        }
+        final BigDecimal value = window.constants.get(constantIndex).getValueAs(BigDecimal.class);
+        if (value == null || value.signum() < 0 || value.stripTrailingZeros().scale() > 0
+                || value.compareTo(BigDecimal.valueOf(Integer.MAX_VALUE - 1)) >= 0) {
+            return null;
+        }
+        return bound.isPreceding() ? -value.intValue() : value.intValue();
+    }
+
+    private static Expression constantStringList(final List<String> values) {
+        return Expressions.call(
+                BuiltInMethod.ARRAYS_AS_LIST.method,
+                Expressions.newArrayInit(String.class, Util.transform(values, Expressions::constant)));
+    }
+}
@@ -30,11 +30,22 @@ import lombok.SneakyThrows;
 import org.apache.calcite.plan.RelOptCluster;
 import org.apache.calcite.plan.RelOptCost;
 import org.apache.calcite.plan.RelOptPlanner;
+import org.apache.calcite.plan.RelOptTable;
 import org.apache.calcite.plan.RelOptUtil;
 import org.apache.calcite.plan.RelTraitSet;
+import org.apache.calcite.plan.hep.HepRelVertex;
+import org.apache.calcite.plan.volcano.RelSubset;
 import org.apache.calcite.rel.RelNode;
+import org.apache.calcite.rel.convert.Converter;
+import org.apache.calcite.rel.core.Aggregate;
+import org.apache.calcite.rel.core.AggregateCall;
+import org.apache.calcite.rel.core.Filter;
 import org.apache.calcite.rel.core.Join;
 import org.apache.calcite.rel.core.JoinRelType;
+import org.apache.calcite.rel.core.Project;
+import org.apache.calcite.rel.core.Sort;
+import org.apache.calcite.rel.core.TableScan;
+import org.apache.calcite.rel.metadata.RelColumnOrigin;
 import org.apache.calcite.rel.metadata.RelMetadataQuery;
 import org.apache.calcite.rex.RexBuilder;
 import org.apache.calcite.rex.RexCall;
@@ -57,6 +68,7 @@ import software.amazon.documentdb.jdbc.metadata.DocumentDbSchemaColumn;
 import software.amazon.documentdb.jdbc.metadata.DocumentDbSchemaTable;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
@@ -105,9 +117,97 @@ public class DocumentDbJoin extends Join implements DocumentDbRel {
             final RelOptPlanner planner,
             final RelMetadataQuery mq) {
         final RelOptCost relOptCost = super.computeSelfCost(planner, mq);
-        return relOptCost != null
-                ? relOptCost.multiplyBy(DocumentDbRules.JOIN_COST_FACTOR)
-                : null;
+        if (relOptCost == null) {
+            return null;
+        }
+        final RelOptCost lookupCost = computeLookupCost(planner, mq);
+        return lookupCost != null
+                ? lookupCost.multiplyBy(DocumentDbRules.JOIN_COST_FACTOR)
+                : relOptCost.multiplyBy(DocumentDbRules.JOIN_COST_FACTOR);
+    }
+
+    /**
+     * Computes the cost of a join between different collections. The join is a $lookup from each
+     * row on the left into the right collection, so the cost depends on which side drives it.
+     * Probing the primary key of a base table can use its index, otherwise the right side is
+     * scanned for each row on the left.
+     *
+     * @param planner the planner.
+     * @param mq the metadata query.
+     * @return the cost of the $lookup, or {@code null} if this is not a single equality join
+     * between different collections.
+     */
+    private @Nullable RelOptCost computeLookupCost(
+            final RelOptPlanner planner,
+            final RelMetadataQuery mq) {
+        final List<Integer> leftKeys = new ArrayList<>();
+        final List<Integer> rightKeys = new ArrayList<>();
+        final List<RexNode> nonEquiList = new ArrayList<>();
+        RelOptUtil.splitJoinCondition(
+                getLeft(), getRight(), getCondition(), leftKeys, rightKeys, new ArrayList<>(), nonEquiList);
+        if (!nonEquiList.isEmpty() || leftKeys.size() != 1 || rightKeys.size() != 1) {
+            return null;
+        }
+        final RelColumnOrigin leftOrigin = mq.getColumnOrigin(getLeft(), leftKeys.get(0));
+        final RelColumnOrigin rightOrigin = mq.getColumnOrigin(getRight(), rightKeys.get(0));
+        if (leftOrigin == null || rightOrigin == null) {
+            return null;
+        }
+        final DocumentDbTable leftTable = leftOrigin.getOriginTable().unwrap(DocumentDbTable.class);
+        final DocumentDbTable rightTable = rightOrigin.getOriginTable().unwrap(DocumentDbTable.class);
+        if (leftTable == null || rightTable == null
+                || leftTable.getCollectionName().equals(rightTable.getCollectionName())) {
+            return null;
+        }
+
+        final Double leftRows = mq.getRowCount(getLeft());
+        final Double rightRows = mq.getRowCount(getRight());
+        final Double rowCount = mq.getRowCount(this);
+        if (leftRows == null || rightRows == null || rowCount == null) {
+            return null;
+        }
+        final DocumentDbSchemaColumn rightKeyColumn = rightTable.getTableMetadata().getColumnMap().get(
+                rightOrigin.getOriginTable().getRowType().getFieldNames()
+                        .get(rightOrigin.getOriginColumnOrdinal()));
+        final boolean isIndexed = !rightOrigin.isDerived() && isIndexedForeignKey(
+                rightKeyColumn, rightTable.getTableMetadata());
+        return planner.getCostFactory().makeCost(
+                estimateLookupRows(leftRows, rightRows, rowCount, isIndexed), 0, 0);
+    }
+
+    /**
+     * Estimates the number of rows read by a $lookup: each row on the left probes the right side,
+     * either through the index of the foreign collection or by scanning it, and the joined rows
+     * are returned.
+     *
+     * @param leftRows the number of rows on the left (driving) side.
+     * @param rightRows the number of rows on the right (probed) side.
+     * @param rowCount the number of joined rows.
+     * @param isIndexed whether the foreign field of the $lookup is indexed.
+     * @return the estimated number of rows read.
+     */
+    static double estimateLookupRows(
+            final double leftRows,
+            final double rightRows,
+            final double rowCount,
+            final boolean isIndexed) {
+        final double probeRows = isIndexed
+                ? Math.log(rightRows + 1) / Math.log(2)
+                : rightRows;
+        return rowCount + leftRows * probeRows;
+    }
+
+    /**
+     * Gets whether the foreign field of a $lookup can be matched using the collection's index.
+     *
+     * @param column the join key column from the right side.
+     * @param table the metadata of the right side.
+     * @return {@code true} if the column is the primary key of a base table, {@code false}, otherwise.
+     */
+    static boolean isIndexedForeignKey(
+            final DocumentDbSchemaColumn column,
+            final DocumentDbSchemaTable table) {
+        return column != null && column.isPrimaryKey() && !column.isIndex() && !isTableVirtual(table);
     }
 
     @Override
@@ -138,7 +238,15 @@ public class DocumentDbJoin extends Join implements DocumentDbRel {
         final DocumentDbTable rightTable = rightImplementor.getDocumentDbTable();
         final DocumentDbSchemaTable rightMetadata = rightImplementor.getMetadataTable();
 
-        if (leftTable.getCollectionName().equals(rightTable.getCollectionName())) {
+        if (isSemiOrAntiJoin(getJoinType())) {
+            semiJoinCollections(
+                    implementor,
+                    rightImplementor,
+                    leftTable.getCollectionName(),
+                    rightTable.getCollectionName(),
+                    leftMetadata,
+                    rightMetadata);
+        } else if (leftTable.getCollectionName().equals(rightTable.getCollectionName())) {
             joinSameCollection(
                     implementor,
                     rightImplementor,
@@ -318,6 +426,177 @@ public class DocumentDbJoin extends Join implements DocumentDbRel {
                 .anyMatch(c -> c.getForeignKeyTableName() != null && c.getForeignKeyColumnName() != null);
     }
 
+    /**
+     * Gets whether the join can be pushed down, that is, whether it is either a join of tables from
+     * the same collection on their shared primary keys, or a single equi-join of tables from
+     * different collections. Used to choose between pushing down the join and executing it in the
+     * driver when hybrid execution is enabled.
+     *
+     * @param join the join.
+     * @return {@code true} if the join can be pushed down, {@code false}, otherwise.
+     */
+    static boolean isPushable(final Join join) {
+        if (join.getJoinType() != JoinRelType.INNER
+                && join.getJoinType() != JoinRelType.LEFT
+                && !isSemiOrAntiJoin(join.getJoinType())) {
+            return false;
+        }
+        final List<Integer> leftKeys = new ArrayList<>();
+        final List<Integer> rightKeys = new ArrayList<>();
+        final List<RexNode> nonEquiList = new ArrayList<>();
+        RelOptUtil.splitJoinCondition(
+                join.getLeft(), join.getRight(), join.getCondition(),
+                leftKeys, rightKeys, new ArrayList<>(), nonEquiList);
+        if (!nonEquiList.isEmpty() || leftKeys.isEmpty()) {
+            return false;
+        }
+
+        final List<Pair<DocumentDbTable, DocumentDbSchemaColumn>> leftOrigins = new ArrayList<>();
+        final List<Pair<DocumentDbTable, DocumentDbSchemaColumn>> rightOrigins = new ArrayList<>();
+        final Set<String> collectionNames = new LinkedHashSet<>();
+        for (int i = 0; i < leftKeys.size(); i++) {
+            final Pair<DocumentDbTable, DocumentDbSchemaColumn> leftOrigin =
+                    getColumnOrigin(join.getLeft(), leftKeys.get(i));
+            final Pair<DocumentDbTable, DocumentDbSchemaColumn> rightOrigin =
+                    getColumnOrigin(join.getRight(), rightKeys.get(i));
+            if (leftOrigin == null || rightOrigin == null) {
+                return false;
+            }
+            leftOrigins.add(leftOrigin);
+            rightOrigins.add(rightOrigin);
+            collectionNames.add(leftOrigin.left.getCollectionName());
+            collectionNames.add(rightOrigin.left.getCollectionName());
+        }
+
+        // Tables from different collections are joined with a $lookup on a single key. Semi-joins
+        // and anti-joins always use a $lookup, even on the same collection.
+        if (collectionNames.size() > 1 || isSemiOrAntiJoin(join.getJoinType())) {
+            return leftKeys.size() == 1;
+        }
+
+        // Tables from the same collection must be joined on the same fields, including all
+        // their shared primary keys.
+        final Set<String> keyNames = new LinkedHashSet<>();
+        for (int i = 0; i < leftOrigins.size(); i++) {
+            final String leftName = DocumentDbRules.getPath(leftOrigins.get(i).right, true);
+            final String rightName = DocumentDbRules.getPath(rightOrigins.get(i).right, true);
+            if (leftName == null || !leftName.equals(rightName)) {
+                return false;
+            }
+            keyNames.add(leftName);
+        }
+        final Set<String> sharedPrimaryKeys = getPrimaryKeyNames(leftOrigins.get(0).left.getTableMetadata());
+        sharedPrimaryKeys.retainAll(getPrimaryKeyNames(rightOrigins.get(0).left.getTableMetadata()));
+        return keyNames.containsAll(sharedPrimaryKeys);
+    }
+
+    /**
+     * Gets whether the join type only returns the rows from the left for which a match on the
+     * right does or does not exist, such as decorrelated EXISTS and IN subqueries.
+     *
+     * @param joinType the join type.
+     * @return {@code true} if the join is a semi-join or an anti-join, {@code false}, otherwise.
+     */
+    static boolean isSemiOrAntiJoin(final JoinRelType joinType) {
+        return joinType == JoinRelType.SEMI || joinType == JoinRelType.ANTI;
+    }
+
+    /**
+     * Gets whether the join is an inner join of tables from different collections on a single
+     * key, which is pushed down as a $lookup.
+     *
+     * @param join the join.
+     * @return {@code true} if the join is a $lookup inner join, {@code false}, otherwise.
+     */
+    static boolean isLookupInnerJoin(final Join join) {
+        if (join.getJoinType() != JoinRelType.INNER || !isPushable(join)) {
+            return false;
+        }
+        final List<Integer> leftKeys = new ArrayList<>();
+        final List<Integer> rightKeys = new ArrayList<>();
+        RelOptUtil.splitJoinCondition(
+                join.getLeft(), join.getRight(), join.getCondition(),
+                leftKeys, rightKeys, new ArrayList<>(), new ArrayList<>());
+        if (leftKeys.size() != 1) {
+            return false;
+        }
+        final Pair<DocumentDbTable, DocumentDbSchemaColumn> leftOrigin =
+                getColumnOrigin(join.getLeft(), leftKeys.get(0));
+        final Pair<DocumentDbTable, DocumentDbSchemaColumn> rightOrigin =
+                getColumnOrigin(join.getRight(), rightKeys.get(0));
+        return leftOrigin != null && rightOrigin != null
+                && !leftOrigin.left.getCollectionName().equals(rightOrigin.left.getCollectionName());
+    }
+
+    private static Set<String> getPrimaryKeyNames(final DocumentDbSchemaTable table) {
+        return table.getColumns().stream()
+                .filter(DocumentDbSchemaColumn::isPrimaryKey)
+                .map(c -> c.isIndex() ? c.getSqlName() : c.getFieldPath())
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+    }
+
+    /**
+     * Gets the base table and column a column of the given expression is taken from. Unlike
+     * {@link RelMetadataQuery#getColumnOrigin}, this looks through the planner's subsets so it can
+     * be used while the expression is being planned.
+     *
+     * @param rel the relational expression.
+     * @param ordinal the ordinal of the column.
+     * @return the table and the column metadata, or {@code null} if the column is derived or
+     * its origin cannot be determined.
+     */
+    static @Nullable Pair<DocumentDbTable, DocumentDbSchemaColumn> getColumnOrigin(
+            final RelNode rel,
+            final int ordinal) {
+        final RelNode node = unwrap(rel);
+        if (node == null) {
+            return null;
+        }
+        if (node instanceof TableScan) {
+            final RelOptTable relOptTable = node.getTable();
+            final DocumentDbTable table = relOptTable != null
+                    ? relOptTable.unwrap(DocumentDbTable.class)
+                    : null;
+            if (table == null) {
+                return null;
+            }
+            final DocumentDbSchemaColumn column = table.getTableMetadata().getColumnMap()
+                    .get(node.getRowType().getFieldNames().get(ordinal));
+            return column != null ? Pair.of(table, column) : null;
+        }
+        if (node instanceof Project) {
+            final RexNode project = ((Project) node).getProjects().get(ordinal);
+            return project instanceof RexInputRef
+                    ? getColumnOrigin(((Project) node).getInput(), ((RexInputRef) project).getIndex())
+                    : null;
+        }
+        if (node instanceof Filter || node instanceof Sort || node instanceof Converter) {
+            return getColumnOrigin(node.getInput(0), ordinal);
+        }
+        if (node instanceof Aggregate) {
+            final Aggregate aggregate = (Aggregate) node;
+            return ordinal < aggregate.getGroupCount()
+                    ? getColumnOrigin(aggregate.getInput(), aggregate.getGroupSet().nth(ordinal))
+                    : null;
+        }
+        if (node instanceof Join) {
+            final int leftCount = ((Join) node).getLeft().getRowType().getFieldCount();
+            return ordinal < leftCount
+                    ? getColumnOrigin(((Join) node).getLeft(), ordinal)
+                    : getColumnOrigin(((Join) node).getRight(), ordinal - leftCount);
+        }
+        return null;
+    }
+
+    private static @Nullable RelNode unwrap(final RelNode rel) {
+        if (rel instanceof RelSubset) {
+            return Util.first(((RelSubset) rel).getBest(), ((RelSubset) rel).getOriginal());
+        } else if (rel instanceof HepRelVertex) {
+            return ((HepRelVertex) rel).getCurrentRel();
+        }
+        return rel;
+    }
+
     /**
      * Renames columns appropriately for the join. Adds a condition on whether the fields of
      * a virtual table are not null.
@@ -528,7 +807,6 @@ public class DocumentDbJoin extends Join implements DocumentDbRel {
      * @param leftTable           the metadata of the left side of the join.
      * @param rightTable          the metadata of the right side of the join.
      */
-    @SneakyThrows
     private void joinDifferentCollections(
             final Implementor implementor,
             final Implementor rightImplementor,
@@ -540,7 +818,7 @@ public class DocumentDbJoin extends Join implements DocumentDbRel {
         DocumentDbToEnumerableConverter.handleVirtualTable(rightImplementor);
 
         // Validate that this is a simple equality join.
-        validateDifferentCollectionJoin();
+        final Pair<Integer, Integer> joinKeys = validateDifferentCollectionJoin();
 
         // Determine the new field in the joined documents that will hold the matched rows from the right.
         final String rightMatches = rightTable.getSqlName();
@@ -585,36 +863,34 @@ public class DocumentDbJoin extends Join implements DocumentDbRel {
         // 1. Add collection to join.
         lookupFields.put("from", rightCollectionName);
 
-        // 2. Fields from the left need to be in let so they can be used in $match.
-        final Map<String, String> letExpressions =
-                leftColumns.values().stream()
-                        .collect(
-                                Collectors.toMap(
-                                        DocumentDbSchemaColumn::getSqlName,
-                                        column -> "$" + DocumentDbRules.getPath(column, false)));
-        lookupFields.put("let", letExpressions);
+        final DocumentDbSchemaColumn leftKeyColumn =
+                leftColumns.get(getLeft().getRowType().getFieldNames().get(joinKeys.left));
+        final DocumentDbSchemaColumn rightKeyColumn =
+                rightColumns.get(getRight().getRowType().getFieldNames().get(joinKeys.right));
+        if (rightImplementor.getList().isEmpty()
+                && leftKeyColumn != null
+                && isIndexedForeignKey(rightKeyColumn, rightTable)) {
+            // 2. The right side is a plain scan joined on its primary key. Use the equality match
+            // form so the lookup can use the index of the foreign collection. Unmatched (null) keys
+            // on the left cannot match as the primary key always exists.
+            lookupFields.put("localField", DocumentDbRules.getPath(leftKeyColumn, false));
+            lookupFields.put("foreignField", DocumentDbRules.getPath(rightKeyColumn, false));
+        } else {
+            // 2-4. Add the let variables and the sub-pipeline matching the join condition.
+            final List<Map<String, Object>> stages = buildLookupPipeline(
+                    lookupFields, implementor, rightImplementor, leftColumns, rightColumns, joinKeys);
+
+            // 5. Only return the fields required from the right.
+            final Map<String, Object> projection = buildRequiredFieldsProjection(rightColumns, rightTable);
+            if (projection != null) {
+                stages.add(projection);
+            }
 
-        // 3. Add any stages from the right implementor. Convert the json strings
-        // into objects so they can be added as a list to the lookup pipeline.
-        final List<Map<String, Object>> stages = new ArrayList<>();
-        final ObjectMapper mapper = JsonMapper.builder()
-                .configure(JsonParser.Feature.ALLOW_SINGLE_QUOTES, true)
-                .build();
-        for (Pair<String, String> operations : rightImplementor.getList()) {
-            final String stage = operations.right;
-            final Map<String, Object> map = mapper.readValue(stage, new TypeReference<LinkedHashMap<String, Object>>() {
-            });
-            stages.add(map);
+            // 6. Add all stages in order to the pipeline.
+            lookupFields.put("pipeline", stages);
         }
 
-        // 4. Determine the $match stage for the pipeline. This is the join condition.
-        final JoinTranslator translator = new JoinTranslator(implementor.getRexBuilder(), leftColumns, rightColumns);
-        stages.add(translator.translateMatch(getCondition()));
-
-        // 5. Add all stages in order to the pipeline.
-        lookupFields.put("pipeline", stages);
-
-        // 6. Add the new field where the matches will be placed.
+        // 7. Add the new field where the matches will be placed.
         lookupFields.put("as", rightMatches);
 
         lookupMap.put("$lookup", lookupFields);
@@ -642,10 +918,236 @@ public class DocumentDbJoin extends Join implements DocumentDbRel {
                         .toArray());
     }
 
+    /**
+     * Performs a semi-join or an anti-join as a $lookup whose sub-pipeline stops at the first
+     * match, followed by a $match on whether any match was found. Only the fields from the left
+     * are kept, so the matched documents are never returned from the right.
+     *
+     * @param implementor         the implementor from the left side of the join. Operations are
+     *                            added to the left.
+     * @param rightImplementor    the implementor from the right side of the join.
+     * @param leftCollectionName  the name of the collection of the left table.
+     * @param rightCollectionName the name of the collection of the right table.
+     * @param leftTable           the metadata of the left side of the join.
+     * @param rightTable          the metadata of the right side of the join.
+     */
+    private void semiJoinCollections(
+            final Implementor implementor,
+            final Implementor rightImplementor,
+            final String leftCollectionName,
+            final String rightCollectionName,
+            final DocumentDbSchemaTable leftTable,
+            final DocumentDbSchemaTable rightTable) {
+        // Remove null rows from right, if any.
+        DocumentDbToEnumerableConverter.handleVirtualTable(rightImplementor);
+
+        // Validate that this is a simple equality join.
+        final Pair<Integer, Integer> joinKeys = validateDifferentCollectionJoin();
+
+        // The output of a semi-join or anti-join only has the columns from the left.
+        final Map<String, DocumentDbSchemaColumn> leftColumns = getRequiredColumns(leftTable, this::getLeft);
+        final Map<String, DocumentDbSchemaColumn> rightColumns = getRequiredColumns(rightTable, this::getRight);
+        final DocumentDbMetadataTable metadata = DocumentDbMetadataTable
+                .builder()
+                .sqlName(leftCollectionName)
+                .columns(new LinkedHashMap<>(leftColumns))
+                .build();
+        implementor.setDocumentDbTable(new DocumentDbTable(leftCollectionName, metadata));
+        implementor.setMetadataTable(metadata);
+
+        // The matches are only held temporarily, so their field must not replace a field from the left.
+        final Set<String> usedNames = leftColumns.values().stream()
+                .map(column -> DocumentDbRules.getPath(column, false))
+                .filter(path -> path != null)
+                .map(path -> path.split("\\.")[0])
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+        final String rightMatches = SqlValidatorUtil.uniquify(
+                rightTable.getSqlName(), usedNames, SqlValidatorUtil.EXPR_SUGGESTER);
+
+        final JsonBuilder jsonBuilder = new JsonBuilder();
+        final Map<String, Object> lookupFields = new LinkedHashMap<>();
+        lookupFields.put("from", rightCollectionName);
+        final DocumentDbSchemaColumn leftKeyColumn =
+                leftColumns.get(getLeft().getRowType().getFieldNames().get(joinKeys.left));
+        final DocumentDbSchemaColumn rightKeyColumn =
+                rightColumns.get(getRight().getRowType().getFieldNames().get(joinKeys.right));
+        if (rightImplementor.getList().isEmpty()
+                && leftKeyColumn != null
+                && isIndexedForeignKey(rightKeyColumn, rightTable)) {
+            // The primary key is unique, so the equality match form returns at most one document
+            // and can use the index of the foreign collection.
+            lookupFields.put("localField", DocumentDbRules.getPath(leftKeyColumn, false));
+            lookupFields.put("foreignField", DocumentDbRules.getPath(rightKeyColumn, false));
+        } else {
+            // Only the existence of a match is needed. Stop at the first match and drop its fields.
+            final List<Map<String, Object>> stages = buildLookupPipeline(
+                    lookupFields, implementor, rightImplementor, leftColumns, rightColumns, joinKeys);
+            stages.add(Collections.singletonMap("$limit", 1));
+            stages.add(Collections.singletonMap("$project", Collections.singletonMap("_id", 1)));
+            lookupFields.put("pipeline", stages);
+        }
+        lookupFields.put("as", rightMatches);
+        implementor.add(null, jsonBuilder.toJsonString(Collections.singletonMap("$lookup", lookupFields)));
+
+        // Keep the rows with (semi-join) or without (anti-join) a match, then remove the matches.
+        final Map<String, Object> size = Collections.singletonMap("$size", 0);
+        final Map<String, Object> matchCondition;
+        switch (getJoinType()) {
+            case SEMI:
+                matchCondition = Collections.singletonMap(rightMatches, Collections.singletonMap("$not", size));
+                break;
+            case ANTI:
+                matchCondition = Collections.singletonMap(rightMatches, size);
+                break;
+            default:
+                throw new IllegalArgumentException(SqlError.lookup(SqlError.UNSUPPORTED_JOIN_TYPE, getJoinType().name()));
+        }
+        implementor.add(null, jsonBuilder.toJsonString(Collections.singletonMap("$match", matchCondition)));
+        implementor.add(null, jsonBuilder.toJsonString(
+                Collections.singletonMap("$project", Collections.singletonMap(rightMatches, 0))));
+        LOGGER.debug("Created semi-join stages of pipeline.");
+        LOGGER.debug("Pipeline stages added: {}",
+                implementor.getList().stream()
+                        .map(c -> c.right)
+                        .toArray());
+    }
+
+    /**
+     * Adds the let variables for the fields from the left to the $lookup and builds its
+     * sub-pipeline from the stages of the right side followed by a $match on the join condition.
+     * If the right side is grouped by its join key, the $match is placed before the $group
+     * instead, so only the documents matching the left document are grouped.
+     *
+     * @param lookupFields     the fields of the $lookup stage.
+     * @param implementor      the implementor from the left side of the join.
+     * @param rightImplementor the implementor from the right side of the join.
+     * @param leftColumns      the required columns from the left side.
+     * @param rightColumns     the required columns from the right side.
+     * @param joinKeys         the ordinals of the join keys of the left and right sides.
+     * @return the stages of the sub-pipeline. More stages can be appended.
+     */
+    @SneakyThrows
+    private List<Map<String, Object>> buildLookupPipeline(
+            final Map<String, Object> lookupFields,
+            final Implementor implementor,
+            final Implementor rightImplementor,
+            final Map<String, DocumentDbSchemaColumn> leftColumns,
+            final Map<String, DocumentDbSchemaColumn> rightColumns,
+            final Pair<Integer, Integer> joinKeys) {
+        // Fields from the left need to be in let so they can be used in $match.
+        final Map<String, String> letExpressions =
+                leftColumns.values().stream()
+                        .collect(
+                                Collectors.toMap(
+                                        DocumentDbSchemaColumn::getSqlName,
+                                        column -> "$" + DocumentDbRules.getPath(column, false)));
+        lookupFields.put("let", letExpressions);
+
+        // Add any stages from the right implementor. Convert the json strings
+        // into objects so they can be added as a list to the lookup pipeline.
+        final List<Map<String, Object>> stages = new ArrayList<>();
+        final ObjectMapper mapper = JsonMapper.builder()
+                .configure(JsonParser.Feature.ALLOW_SINGLE_QUOTES, true)
+                .configure(JsonParser.Feature.ALLOW_UNQUOTED_FIELD_NAMES, true)
+                .build();
+        for (Pair<String, String> operations : rightImplementor.getList()) {
+            final String stage = operations.right;
+            final Map<String, Object> map = mapper.readValue(stage,
+                    new TypeReference<LinkedHashMap<String, Object>>() {
+                    });
+            stages.add(map);
+        }
+
+        // Determine the $match stage for the pipeline. This is the join condition.
+        final JoinTranslator translator = new JoinTranslator(
+                implementor.getRexBuilder(), leftColumns, rightColumns);
+        final int groupIndex = getJoinKeyGroupIndex(stages, joinKeys.right);
+        if (groupIndex >= 0) {
+            // Match on the expression of the group key, which is what the key refers to before the $group.
+            final Object groupKey = ((Map<?, ?>) stages.get(groupIndex).get("$group")).get("_id");
+            translator.setFieldName(getLeft().getRowType().getFieldCount() + joinKeys.right, (String) groupKey);
+            stages.add(groupIndex, translator.translateMatch(getCondition(), joinKeys.left));
+        } else {
+            stages.add(translator.translateMatch(getCondition(), joinKeys.left));
+        }
+        return stages;
+    }
+
+    /**
+     * Gets the index of the $group stage of the right side if the right side is an aggregate
+     * grouped only by the join key. Matching on the key before the $group gives the same
+     * result, as each group has a single key value.
+     *
+     * @param stages   the stages of the right side.
+     * @param rightKey the ordinal of the join key of the right side.
+     * @return the index of the $group stage, or -1 if the join condition must be matched after
+     * all stages of the right side.
+     */
+    private int getJoinKeyGroupIndex(final List<Map<String, Object>> stages, final int rightKey) {
+        final RelNode right = unwrap(getRight());
+        if (!(right instanceof Aggregate)) {
+            return -1;
+        }
+        final Aggregate aggregate = (Aggregate) right;
+        if (aggregate.getGroupType() != Aggregate.Group.SIMPLE
+                || aggregate.getGroupCount() != 1
+                || rightKey != 0
+                || aggregate.getAggCallList().stream().anyMatch(AggregateCall::isDistinct)) {
+            return -1;
+        }
+        // The aggregate adds a single $group stage, grouped by the expression of its key.
+        for (int i = stages.size() - 1; i >= 0; i--) {
+            final Object group = stages.get(i).get("$group");
+            if (group != null) {
+                return group instanceof Map && ((Map<?, ?>) group).get("_id") instanceof String ? i : -1;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Creates a $project stage for the sub-pipeline of a $lookup that only keeps the fields
+     * required from the right side of the join.
+     *
+     * @param columns the required columns from the right side.
+     * @param table the metadata of the right side.
+     * @return the $project stage, or {@code null} if all fields are required or cannot be projected.
+     */
+    static Map<String, Object> buildRequiredFieldsProjection(
+            final Map<String, DocumentDbSchemaColumn> columns,
+            final DocumentDbSchemaTable table) {
+        final long tableColumnCount = table.getColumnMap().values().stream()
+                .filter(c -> c.getSqlType() != JdbcType.ARRAY && c.getSqlType() != JdbcType.JAVA_OBJECT)
+                .count();
+        if (columns.isEmpty() || columns.size() >= tableColumnCount) {
+            return null;
+        }
+        final List<String> paths = columns.values().stream()
+                .map(column -> DocumentDbRules.getPath(column, false))
+                .distinct()
+                .collect(Collectors.toList());
+        final Map<String, Object> fields = new LinkedHashMap<>();
+        for (String path : paths) {
+            // Cannot project both a document and one of its fields.
+            if (path == null || paths.stream().anyMatch(other -> other != null && other.startsWith(path + "."))) {
+                return null;
+            }
+            fields.put(path, 1);
+        }
+        if (paths.stream().noneMatch(path -> path.equals("_id") || path.startsWith("_id."))) {
+            fields.put("_id", 0);
+        }
+        final Map<String, Object> projectMap = new LinkedHashMap<>();
+        projectMap.put("$project", fields);
+        return projectMap;
+    }
+
     /**
      * Temporary check to reject joins the translator may not handle correctly.
+     *
+     * @return the ordinals of the left and right join keys.
      */
-    private void validateDifferentCollectionJoin() {
+    private Pair<Integer, Integer> validateDifferentCollectionJoin() {
         // Extract the join keys.
         final List<Integer> leftKeys = new ArrayList<>();
         final List<Integer> rightKeys = new ArrayList<>();
@@ -658,6 +1160,7 @@ public class DocumentDbJoin extends Join implements DocumentDbRel {
         if (!nonEquiList.isEmpty() || leftKeys.size() != 1 || rightKeys.size() != 1) {
             throw new IllegalArgumentException(SqlError.lookup(SqlError.SINGLE_EQUIJOIN_ONLY));
         }
+        return Pair.of(leftKeys.get(0), rightKeys.get(0));
     }
 
     private LinkedHashMap<String, DocumentDbSchemaColumn> getRequiredColumns(
@@ -706,13 +1209,28 @@ public class DocumentDbJoin extends Join implements DocumentDbRel {
                             .collect(Collectors.toList());
             this.fieldNames =
                     Stream.concat(leftFieldNames.stream(), rightFieldNames.stream())
-                            .collect(Collectors.toList());
+                            .collect(Collectors.toCollection(ArrayList::new));
         }
 
-        private Map<String, Object> translateMatch(final RexNode condition) {
+        /**
+         * Replaces the name used to reference a field.
+         */
+        private void setFieldName(final int index, final String fieldName) {
+            fieldNames.set(index, fieldName);
+        }
+
+        /**
+         * Translates the join condition to a $match stage. Unlike SQL, $eq is true if both keys
+         * are null or missing, so documents only match if the key from the left is not null.
+         * An anti-join then keeps the rows with a null key, as none of their keys are equal.
+         */
+        private Map<String, Object> translateMatch(final RexNode condition, final int leftKey) {
             final Map<String, Object> matchMap = new LinkedHashMap<>();
             final Map<String, Object> exprMap = new LinkedHashMap<>();
-            exprMap.put("$expr", translateOr(condition));
+            final Map<String, Object> nullCheck = Collections.singletonMap(
+                    "$gt", Arrays.asList(fieldNames.get(leftKey), null));
+            exprMap.put("$expr", Collections.singletonMap(
+                    "$and", Arrays.asList(translateOr(condition), nullCheck)));
             matchMap.put("$match", exprMap);
             return matchMap;
         }
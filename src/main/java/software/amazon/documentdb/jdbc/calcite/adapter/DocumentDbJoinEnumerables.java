@@ -0,0 +1,877 @@
+/*
+ * Copyright <2021> Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ */
+
+package software.amazon.documentdb.jdbc.calcite.adapter;
+
+import org.apache.calcite.DataContext;
+import org.apache.calcite.linq4j.AbstractEnumerable;
+import org.apache.calcite.linq4j.Enumerable;
+import org.apache.calcite.linq4j.Enumerator;
+import org.apache.calcite.linq4j.function.Predicate2;
+import org.apache.calcite.rel.core.JoinRelType;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import software.amazon.documentdb.jdbc.DocumentDbConnectionProperty;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Join algorithms used to join the results of pushed-down queries in the driver, when the join
+ * cannot be performed by DocumentDB. Called via code-generation from {@link DocumentDbHybridJoin}.
+ *
+ * <p>Rows are represented as {@code Object[]}. Join keys containing a null value never match.</p>
+ */
+public final class DocumentDbJoinEnumerables {
+    private static final Logger LOGGER = LoggerFactory.getLogger(DocumentDbJoinEnumerables.class);
+    private static final int SPILL_PARTITION_COUNT = 32;
+    private static final String SPILL_FILE_PREFIX = "documentdb-jdbc-join-";
+
+    private DocumentDbJoinEnumerables() {
+    }
+
+    /**
+     * Joins the inputs using a hash join. The build side is loaded into memory, and the probe
+     * side is streamed. If the build side holds more rows than the in-memory limit, both sides are
+     * partitioned by the hash of their keys into temporary files and joined one partition at a time.
+     * Rows with equal keys are joined only if they also satisfy the predicate, if any. A join
+     * without keys compares every pair of rows, holding at most the in-memory limit of build rows.
+     *
+     * @param root the data context.
+     * @param left the left input.
+     * @param right the right input.
+     * @param leftKeys the ordinals of the join keys in the left input.
+     * @param rightKeys the ordinals of the join keys in the right input.
+     * @param joinType the name of the {@link JoinRelType}.
+     * @param leftFieldCount the number of fields in the left input.
+     * @param rightFieldCount the number of fields in the right input.
+     * @param buildLeft whether to build the hash table from the left input.
+     * @param predicate the condition on a left and a right row, other than the equality of their
+     *                  keys, or {@code null} if there is none.
+     * @return the joined rows.
+     */
+    public static Enumerable<Object[]> hashJoin(
+            final DataContext root,
+            final Enumerable<Object[]> left,
+            final Enumerable<Object[]> right,
+            final List<Integer> leftKeys,
+            final List<Integer> rightKeys,
+            final String joinType,
+            final int leftFieldCount,
+            final int rightFieldCount,
+            final boolean buildLeft,
+            final @Nullable Predicate2<Object[], Object[]> predicate) {
+        final JoinSpec spec = new JoinSpec(
+                JoinRelType.valueOf(joinType), leftKeys, rightKeys, leftFieldCount, rightFieldCount, buildLeft);
+        final int maxRowsInMemory = getMaxRowsInMemory(root);
+        final AtomicBoolean cancelFlag = getCancelFlag(root);
+        return new AbstractEnumerable<Object[]>() {
+            @Override
+            public Enumerator<Object[]> enumerator() {
+                return new HashJoinEnumerator(spec, predicate, cancelable(left, cancelFlag),
+                        cancelable(right, cancelFlag), maxRowsInMemory, cancelFlag);
+            }
+        };
+    }
+
+    /**
+     * Joins the inputs using a merge join. Both inputs must be sorted ascending on their join keys,
+     * so the inputs are streamed and only the rows of the current key of the right input are held
+     * in memory (spilling to a temporary file if they exceed the in-memory limit).
+     *
+     * @param root the data context.
+     * @param left the left input, sorted on its join keys.
+     * @param right the right input, sorted on its join keys.
+     * @param leftKeys the ordinals of the join keys in the left input.
+     * @param rightKeys the ordinals of the join keys in the right input.
+     * @param joinType the name of the {@link JoinRelType}.
+     * @param leftFieldCount the number of fields in the left input.
+     * @param rightFieldCount the number of fields in the right input.
+     * @return the joined rows.
+     */
+    public static Enumerable<Object[]> mergeJoin(
+            final DataContext root,
+            final Enumerable<Object[]> left,
+            final Enumerable<Object[]> right,
+            final List<Integer> leftKeys,
+            final List<Integer> rightKeys,
+            final String joinType,
+            final int leftFieldCount,
+            final int rightFieldCount) {
+        final JoinSpec spec = new JoinSpec(
+                JoinRelType.valueOf(joinType), leftKeys, rightKeys, leftFieldCount, rightFieldCount, false);
+        final int maxRowsInMemory = getMaxRowsInMemory(root);
+        final AtomicBoolean cancelFlag = getCancelFlag(root);
+        return new AbstractEnumerable<Object[]>() {
+            @Override
+            public Enumerator<Object[]> enumerator() {
+                return new MergeJoinEnumerator(spec, cancelable(left, cancelFlag), cancelable(right, cancelFlag),
+                        maxRowsInMemory, cancelFlag);
+            }
+        };
+    }
+
+    /**
+     * Gets the maximum number of rows an operator executed in the driver may hold in memory.
+     *
+     * @param root the data context.
+     * @return the limit given by the query runner in the data context, or the default limit.
+     */
+    static int getMaxRowsInMemory(final DataContext root) {
+        final Object queryRunner = root != null ? root.get(DocumentDbQueryRunner.DATA_CONTEXT_KEY) : null;
+        if (queryRunner instanceof DocumentDbQueryRunner
+                && ((DocumentDbQueryRunner) queryRunner).getMaxRowsInMemory() > 0) {
+            return ((DocumentDbQueryRunner) queryRunner).getMaxRowsInMemory();
+        }
+        return Integer.parseInt(DocumentDbConnectionProperty.HYBRID_EXECUTION_MAX_ROWS_IN_MEMORY.getDefaultValue());
+    }
+
+    /**
+     * Gets the flag set when the query is canceled or exceeds its timeout.
+     *
+     * @param root the data context.
+     * @return the cancel flag of the data context, or a flag that is never set.
+     */
+    static AtomicBoolean getCancelFlag(final DataContext root) {
+        final Object cancelFlag = root != null ? root.get(DataContext.Variable.CANCEL_FLAG.camelName) : null;
+        return cancelFlag instanceof AtomicBoolean ? (AtomicBoolean) cancelFlag : new AtomicBoolean(false);
+    }
+
+    /**
+     * Throws if the query has been canceled, so an operator executed in the driver stops.
+     *
+     * @param cancelFlag the cancel flag of the query.
+     * @throws CancellationException if the cancel flag is set.
+     */
+    static void checkCancel(final AtomicBoolean cancelFlag) {
+        if (cancelFlag.get()) {
+            throw new CancellationException("Query was canceled.");
+        }
+    }
+
+    /**
+     * Wraps the input of an operator executed in the driver, so reading it stops once the query
+     * is canceled.
+     *
+     * @param input the input.
+     * @param cancelFlag the cancel flag of the query.
+     * @return the input, checking the cancel flag before each row.
+     */
+    static <T> Enumerable<T> cancelable(final Enumerable<T> input, final AtomicBoolean cancelFlag) {
+        return new AbstractEnumerable<T>() {
+            @Override
+            public Enumerator<T> enumerator() {
+                final Enumerator<T> enumerator = input.enumerator();
+                return new Enumerator<T>() {
+                    @Override
+                    public T current() {
+                        return enumerator.current();
+                    }
+
+                    @Override
+                    public boolean moveNext() {
+                        checkCancel(cancelFlag);
+                        return enumerator.moveNext();
+                    }
+
+                    @Override
+                    public void reset() {
+                        enumerator.reset();
+                    }
+
+                    @Override
+                    public void close() {
+                        enumerator.close();
+                    }
+                };
+            }
+        };
+    }
+
+    /**
+     * Compares two non-null join key values consistently with the DocumentDB sort order for
+     * numeric and boolean values. Numbers are compared by value regardless of their type and
+     * NaN sorts before any other number.
+     *
+     * @param value1 the first value.
+     * @param value2 the second value.
+     * @return a negative number, zero or a positive number as the first value is less than,
+     * equal to, or greater than the second value.
+     */
+    @SuppressWarnings("unchecked")
+    static int compareValues(final Object value1, final Object value2) {
+        if (value1 instanceof Number && value2 instanceof Number) {
+            final Number number1 = (Number) value1;
+            final Number number2 = (Number) value2;
+            if (isIntegral(number1) && isIntegral(number2)) {
+                return Long.compare(number1.longValue(), number2.longValue());
+            }
+            final double double1 = number1.doubleValue();
+            final double double2 = number2.doubleValue();
+            if (Double.isNaN(double1) || Double.isNaN(double2)) {
+                return Boolean.compare(!Double.isNaN(double1), !Double.isNaN(double2));
+            }
+            if (!Double.isInfinite(double1) && !Double.isInfinite(double2)) {
+                return toBigDecimal(number1).compareTo(toBigDecimal(number2));
+            }
+            return double1 < double2 ? -1 : (double1 > double2 ? 1 : 0);
+        }
+        return ((Comparable<Object>) value1).compareTo(value2);
+    }
+
+    /**
+     * Normalizes a join key value so that numerically equal values are also equal in a hash table.
+     *
+     * @param value the key value.
+     * @return the normalized key value.
+     */
+    static Object normalizeKey(final Object value) {
+        if (!(value instanceof Number)) {
+            return value;
+        }
+        final Number number = (Number) value;
+        if (isIntegral(number)) {
+            return number.longValue();
+        }
+        final double doubleValue = number.doubleValue();
+        if (Double.isNaN(doubleValue) || Double.isInfinite(doubleValue)) {
+            return doubleValue;
+        }
+        final BigDecimal decimal = toBigDecimal(number);
+        if (decimal.signum() == 0) {
+            return 0L;
+        }
+        final BigDecimal stripped = decimal.stripTrailingZeros();
+        if (stripped.scale() <= 0 && stripped.precision() - stripped.scale() < 19) {
+            return stripped.longValueExact();
+        }
+        return stripped;
+    }
+
+    private static boolean isIntegral(final Number number) {
+        return number instanceof Long || number instanceof Integer
+                || number instanceof Short || number instanceof Byte;
+    }
+
+    static BigDecimal toBigDecimal(final Number number) {
+        if (number instanceof BigDecimal) {
+            return (BigDecimal) number;
+        }
+        if (number instanceof BigInteger) {
+            return new BigDecimal((BigInteger) number);
+        }
+        if (isIntegral(number)) {
+            return BigDecimal.valueOf(number.longValue());
+        }
+        return BigDecimal.valueOf(number.doubleValue());
+    }
+
+    /** Describes the join to perform. */
+    private static final class JoinSpec {
+        private final JoinRelType joinType;
+        private final int[] leftKeys;
+        private final int[] rightKeys;
+        private final int leftFieldCount;
+        private final int rightFieldCount;
+        private final boolean buildLeft;
+
+        JoinSpec(
+                final JoinRelType joinType,
+                final List<Integer> leftKeys,
+                final List<Integer> rightKeys,
+                final int leftFieldCount,
+                final int rightFieldCount,
+                final boolean buildLeft) {
+            this.joinType = joinType;
+            this.leftKeys = leftKeys.stream().mapToInt(Integer::intValue).toArray();
+            this.rightKeys = rightKeys.stream().mapToInt(Integer::intValue).toArray();
+            this.leftFieldCount = leftFieldCount;
+            this.rightFieldCount = rightFieldCount;
+            // Semi and anti joins only return the left rows, so they are always probed.
+            this.buildLeft = buildLeft && joinType.projectsRight();
+        }
+
+        boolean isSemiOrAnti() {
+            return !joinType.projectsRight();
+        }
+
+        boolean preservesLeft() {
+            return joinType == JoinRelType.LEFT || joinType == JoinRelType.FULL;
+        }
+
+        boolean preservesRight() {
+            return joinType == JoinRelType.RIGHT || joinType == JoinRelType.FULL;
+        }
+
+        /**
+         * Gets the key values of the row, or {@code null} if any key value is null.
+         */
+        List<Object> getKey(final Object[] row, final boolean isLeft) {
+            final int[] keys = isLeft ? leftKeys : rightKeys;
+            final Object[] key = new Object[keys.length];
+            for (int i = 0; i < keys.length; i++) {
+                key[i] = normalizeKey(row[keys[i]]);
+                if (key[i] == null) {
+                    return null;
+                }
+            }
+            return Arrays.asList(key);
+        }
+
+        Object[] join(final Object[] leftRow, final Object[] rightRow) {
+            if (isSemiOrAnti()) {
+                return leftRow;
+            }
+            final Object[] row = new Object[leftFieldCount + rightFieldCount];
+            if (leftRow != null) {
+                System.arraycopy(leftRow, 0, row, 0, leftFieldCount);
+            }
+            if (rightRow != null) {
+                System.arraycopy(rightRow, 0, row, leftFieldCount, rightFieldCount);
+            }
+            return row;
+        }
+    }
+
+    /** A row of the build side and whether it has been matched. */
+    private static final class BuildRow {
+        private final Object[] row;
+        private boolean matched;
+
+        BuildRow(final Object[] row) {
+            this.row = row;
+        }
+    }
+
+    /**
+     * Base class of the join enumerators. Subclasses produce the output rows in batches.
+     */
+    private abstract static class JoinEnumerator implements Enumerator<Object[]> {
+        private final AtomicBoolean cancelFlag;
+        private Iterator<Object[]> pending = Collections.emptyIterator();
+        private Object[] current;
+        private boolean done;
+
+        JoinEnumerator(final AtomicBoolean cancelFlag) {
+            this.cancelFlag = cancelFlag;
+        }
+
+        /**
+         * Produces the next batch of output rows.
+         *
+         * @return the next batch of rows (possibly empty), or {@code null} if there are no more rows.
+         */
+        protected abstract Iterator<Object[]> nextBatch() throws IOException;
+
+        @Override
+        public Object[] current() {
+            return current;
+        }
+
+        @Override
+        public boolean moveNext() {
+            // Rows read back from temporary files are not read from the inputs.
+            checkCancel(cancelFlag);
+            try {
+                while (!pending.hasNext()) {
+                    if (done) {
+                        return false;
+                    }
+                    final Iterator<Object[]> batch = nextBatch();
+                    if (batch == null) {
+                        done = true;
+                        current = null;
+                        return false;
+                    }
+                    pending = batch;
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            current = pending.next();
+            return true;
+        }
+
+        @Override
+        public void reset() {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    /**
+     * Hash join. Builds an in-memory hash table of the build side if it fits within the limit,
+     * otherwise partitions both sides into temporary files. A partition whose build side still
+     * exceeds the limit, such as the single partition of a join without keys, is joined in blocks
+     * of build rows, reading the probe side of the partition once for each block.
+     */
+    private static final class HashJoinEnumerator extends JoinEnumerator {
+        private final JoinSpec spec;
+        private final @Nullable Predicate2<Object[], Object[]> predicate;
+        private final Enumerable<Object[]> buildInput;
+        private final Enumerable<Object[]> probeInput;
+        private final int maxRowsInMemory;
+        private final List<DocumentDbSpillFile> buildFiles = new ArrayList<>();
+        private final List<DocumentDbSpillFile> probeFiles = new ArrayList<>();
+        private Enumerator<Object[]> probeEnumerator;
+        private Iterator<Object[]> probeRows;
+        private Map<List<Object>, List<BuildRow>> table;
+        private List<BuildRow> unkeyedBuildRows;
+        private boolean initialized;
+        private int partition = -1;
+        // The build rows of the current partition that are not yet loaded, when it is joined in blocks.
+        private Iterator<Object[]> pendingBuildRows;
+        // The probe rows of the current partition that matched a block, when it is joined in blocks.
+        private BitSet matchedProbeRows;
+        private int probeIndex;
+        private boolean isUnmatchedProbePass;
+
+        HashJoinEnumerator(
+                final JoinSpec spec,
+                final @Nullable Predicate2<Object[], Object[]> predicate,
+                final Enumerable<Object[]> left,
+                final Enumerable<Object[]> right,
+                final int maxRowsInMemory,
+                final AtomicBoolean cancelFlag) {
+            super(cancelFlag);
+            this.spec = spec;
+            this.predicate = predicate;
+            this.buildInput = spec.buildLeft ? left : right;
+            this.probeInput = spec.buildLeft ? right : left;
+            this.maxRowsInMemory = maxRowsInMemory;
+        }
+
+        @Override
+        protected Iterator<Object[]> nextBatch() throws IOException {
+            if (!initialized) {
+                initialized = true;
+                build();
+            }
+            if (probeRows != null) {
+                if (probeRows.hasNext()) {
+                    return isUnmatchedProbePass
+                            ? unmatchedProbeRow(probeRows.next())
+                            : probe(probeRows.next());
+                }
+                if (isUnmatchedProbePass) {
+                    // The current partition is complete.
+                    probeRows = null;
+                    matchedProbeRows = null;
+                    isUnmatchedProbePass = false;
+                    return Collections.emptyIterator();
+                }
+                // The probe side of the current block is complete.
+                final Iterator<Object[]> unmatched = unmatchedBuildRows();
+                probeRows = null;
+                table = null;
+                unkeyedBuildRows = null;
+                if (pendingBuildRows != null) {
+                    loadBlock();
+                } else if (matchedProbeRows != null && (preservesProbe() || spec.joinType == JoinRelType.ANTI)) {
+                    // Probe rows are known to be unmatched only after the last block.
+                    isUnmatchedProbePass = true;
+                    probeIndex = 0;
+                    probeRows = probeFiles.get(partition).read();
+                }
+                return unmatched;
+            }
+            matchedProbeRows = null;
+            if (buildFiles.isEmpty() || ++partition >= buildFiles.size()) {
+                return null;
+            }
+            loadPartition(partition);
+            return Collections.emptyIterator();
+        }
+
+        private void build() throws IOException {
+            table = new HashMap<>();
+            unkeyedBuildRows = new ArrayList<>();
+            int rowCount = 0;
+            try (Enumerator<Object[]> buildEnumerator = buildInput.enumerator()) {
+                while (buildEnumerator.moveNext()) {
+                    final Object[] row = buildEnumerator.current();
+                    if (buildFiles.isEmpty() && rowCount < maxRowsInMemory) {
+                        addToTable(row);
+                        rowCount++;
+                        continue;
+                    }
+                    if (buildFiles.isEmpty()) {
+                        LOGGER.debug("Hash join build side exceeds {} rows. Spilling to temporary files.",
+                                maxRowsInMemory);
+                        spillTable();
+                    }
+                    buildFiles.get(getPartition(spec.getKey(row, spec.buildLeft))).write(row);
+                }
+            }
+            if (buildFiles.isEmpty()) {
+                // Stream the probe side against the in-memory table.
+                probeEnumerator = probeInput.enumerator();
+                probeRows = new Iterator<Object[]>() {
+                    @Override
+                    public boolean hasNext() {
+                        return probeEnumerator.moveNext();
+                    }
+
+                    @Override
+                    public Object[] next() {
+                        return probeEnumerator.current();
+                    }
+                };
+                return;
+            }
+
+            // Partition the probe side using the same hash.
+            for (int i = 0; i < SPILL_PARTITION_COUNT; i++) {
+                probeFiles.add(new DocumentDbSpillFile(SPILL_FILE_PREFIX));
+            }
+            try (Enumerator<Object[]> enumerator = probeInput.enumerator()) {
+                while (enumerator.moveNext()) {
+                    final Object[] row = enumerator.current();
+                    probeFiles.get(getPartition(spec.getKey(row, !spec.buildLeft))).write(row);
+                }
+            }
+        }
+
+        private void spillTable() throws IOException {
+            for (int i = 0; i < SPILL_PARTITION_COUNT; i++) {
+                buildFiles.add(new DocumentDbSpillFile(SPILL_FILE_PREFIX));
+            }
+            for (List<BuildRow> rows : table.values()) {
+                for (BuildRow buildRow : rows) {
+                    buildFiles.get(getPartition(spec.getKey(buildRow.row, spec.buildLeft))).write(buildRow.row);
+                }
+            }
+            for (BuildRow buildRow : unkeyedBuildRows) {
+                buildFiles.get(0).write(buildRow.row);
+            }
+            table = null;
+            unkeyedBuildRows = null;
+        }
+
+        private void loadPartition(final int index) throws IOException {
+            final DocumentDbSpillFile buildFile = buildFiles.get(index);
+            if (buildFile.getRowCount() > maxRowsInMemory) {
+                LOGGER.debug("Hash join partition holds {} rows, exceeding the limit of {} rows."
+                        + " Joining it in blocks.", buildFile.getRowCount(), maxRowsInMemory);
+                matchedProbeRows = new BitSet();
+            }
+            pendingBuildRows = buildFile.read();
+            loadBlock();
+        }
+
+        /**
+         * Loads the next block of build rows of the current partition into the table and starts
+         * reading the probe side of the partition.
+         */
+        private void loadBlock() throws IOException {
+            table = new HashMap<>();
+            unkeyedBuildRows = new ArrayList<>();
+            int rowCount = 0;
+            while (rowCount < maxRowsInMemory && pendingBuildRows.hasNext()) {
+                addToTable(pendingBuildRows.next());
+                rowCount++;
+            }
+            if (!pendingBuildRows.hasNext()) {
+                pendingBuildRows = null;
+                buildFiles.get(partition).close();
+            }
+            probeIndex = 0;
+            probeRows = probeFiles.get(partition).read();
+        }
+
+        private void addToTable(final Object[] row) {
+            final List<Object> key = spec.getKey(row, spec.buildLeft);
+            final BuildRow buildRow = new BuildRow(row);
+            if (key == null) {
+                unkeyedBuildRows.add(buildRow);
+            } else {
+                table.computeIfAbsent(key, k -> new ArrayList<>(1)).add(buildRow);
+            }
+        }
+
+        private int getPartition(final List<Object> key) {
+            return key == null ? 0 : Math.floorMod(key.hashCode(), SPILL_PARTITION_COUNT);
+        }
+
+        private boolean preservesProbe() {
+            return spec.buildLeft ? spec.preservesRight() : spec.preservesLeft();
+        }
+
+        private Iterator<Object[]> probe(final Object[] probeRow) {
+            final int index = probeIndex++;
+            final List<Object> key = spec.getKey(probeRow, !spec.buildLeft);
+            final List<BuildRow> candidates = key != null ? table.get(key) : null;
+            final List<Object[]> result = new ArrayList<>();
+            boolean matched = false;
+            if (candidates != null) {
+                for (BuildRow candidate : candidates) {
+                    if (!matches(probeRow, candidate.row)) {
+                        continue;
+                    }
+                    matched = true;
+                    if (spec.isSemiOrAnti()) {
+                        break;
+                    }
+                    candidate.matched = true;
+                    result.add(joinRows(probeRow, candidate.row));
+                }
+            }
+            if (matchedProbeRows != null) {
+                // Unmatched probe rows are returned after the last block of the partition.
+                final boolean isFirstMatch = matched && !matchedProbeRows.get(index);
+                if (matched) {
+                    matchedProbeRows.set(index);
+                }
+                if (spec.isSemiOrAnti()) {
+                    return isFirstMatch && spec.joinType == JoinRelType.SEMI
+                            ? Collections.singletonList(probeRow).iterator()
+                            : Collections.emptyIterator();
+                }
+                return result.iterator();
+            }
+            if (spec.isSemiOrAnti()) {
+                return matched == (spec.joinType == JoinRelType.SEMI)
+                        ? Collections.singletonList(probeRow).iterator()
+                        : Collections.emptyIterator();
+            }
+            if (!matched) {
+                return preservesProbe()
+                        ? Collections.singletonList(joinRows(probeRow, null)).iterator()
+                        : Collections.emptyIterator();
+            }
+            return result.iterator();
+        }
+
+        private Iterator<Object[]> unmatchedProbeRow(final Object[] probeRow) {
+            if (matchedProbeRows.get(probeIndex++)) {
+                return Collections.emptyIterator();
+            }
+            return Collections.singletonList(spec.isSemiOrAnti() ? probeRow : joinRows(probeRow, null)).iterator();
+        }
+
+        private boolean matches(final Object[] probeRow, final Object[] buildRow) {
+            if (predicate == null) {
+                return true;
+            }
+            return spec.buildLeft
+                    ? predicate.apply(buildRow, probeRow)
+                    : predicate.apply(probeRow, buildRow);
+        }
+
+        private Iterator<Object[]> unmatchedBuildRows() {
+            final boolean preservesBuild = spec.buildLeft ? spec.preservesLeft() : spec.preservesRight();
+            if (!preservesBuild) {
+                return Collections.emptyIterator();
+            }
+            final List<Object[]> result = new ArrayList<>();
+            for (List<BuildRow> rows : table.values()) {
+                for (BuildRow buildRow : rows) {
+                    if (!buildRow.matched) {
+                        result.add(joinRows(null, buildRow.row));
+                    }
+                }
+            }
+            for (BuildRow buildRow : unkeyedBuildRows) {
+                result.add(joinRows(null, buildRow.row));
+            }
+            return result.iterator();
+        }
+
+        private Object[] joinRows(final Object[] probeRow, final Object[] buildRow) {
+            return spec.buildLeft
+                    ? spec.join(buildRow, probeRow)
+                    : spec.join(probeRow, buildRow);
+        }
+
+        @Override
+        public void close() {
+            if (probeEnumerator != null) {
+                probeEnumerator.close();
+            }
+            buildFiles.forEach(DocumentDbSpillFile::close);
+            probeFiles.forEach(DocumentDbSpillFile::close);
+        }
+    }
+
+    /**
+     * Merge join of inputs sorted on their join keys. Rows with null keys may appear anywhere in
+     * the inputs and are treated as unmatched.
+     */
+    private static final class MergeJoinEnumerator extends JoinEnumerator {
+        private final JoinSpec spec;
+        private final Enumerator<Object[]> leftEnumerator;
+        private final Enumerator<Object[]> rightEnumerator;
+        private final int maxRowsInMemory;
+        private Object[] leftRow;
+        private List<Object> leftKey;
+        private Object[] rightRow;
+        private List<Object> rightKey;
+        private boolean leftDone;
+        private boolean rightDone;
+        private List<Object> groupKey;
+        private List<Object[]> group;
+        private DocumentDbSpillFile groupFile;
+
+        MergeJoinEnumerator(
+                final JoinSpec spec,
+                final Enumerable<Object[]> left,
+                final Enumerable<Object[]> right,
+                final int maxRowsInMemory,
+                final AtomicBoolean cancelFlag) {
+            super(cancelFlag);
+            this.spec = spec;
+            this.leftEnumerator = left.enumerator();
+            this.rightEnumerator = right.enumerator();
+            this.maxRowsInMemory = maxRowsInMemory;
+            advanceLeft();
+            advanceRight();
+        }
+
+        private void advanceLeft() {
+            leftDone = !leftEnumerator.moveNext();
+            leftRow = leftDone ? null : leftEnumerator.current();
+            leftKey = leftDone ? null : spec.getKey(leftRow, true);
+        }
+
+        private void advanceRight() {
+            rightDone = !rightEnumerator.moveNext();
+            rightRow = rightDone ? null : rightEnumerator.current();
+            rightKey = rightDone ? null : spec.getKey(rightRow, false);
+        }
+
+        @Override
+        protected Iterator<Object[]> nextBatch() throws IOException {
+            // Join the left row with the buffered group of right rows with the same key.
+            if (groupKey != null) {
+                if (!leftDone && leftKey != null && compareKeys(leftKey, groupKey) == 0) {
+                    final Object[] row = leftRow;
+                    advanceLeft();
+                    return joinGroup(row);
+                }
+                clearGroup();
+            }
+            if (leftDone && rightDone) {
+                return null;
+            }
+            if (!leftDone && (leftKey == null || rightDone)) {
+                return unmatchedLeft();
+            }
+            if (!rightDone && (rightKey == null || leftDone)) {
+                return unmatchedRight();
+            }
+            final int compare = compareKeys(leftKey, rightKey);
+            if (compare < 0) {
+                return unmatchedLeft();
+            }
+            if (compare > 0) {
+                return unmatchedRight();
+            }
+            bufferGroup();
+            return Collections.emptyIterator();
+        }
+
+        private Iterator<Object[]> unmatchedLeft() {
+            final Object[] row = leftRow;
+            advanceLeft();
+            return spec.preservesLeft()
+                    ? Collections.singletonList(spec.join(row, null)).iterator()
+                    : Collections.emptyIterator();
+        }
+
+        private Iterator<Object[]> unmatchedRight() {
+            final Object[] row = rightRow;
+            advanceRight();
+            return spec.preservesRight()
+                    ? Collections.singletonList(spec.join(null, row)).iterator()
+                    : Collections.emptyIterator();
+        }
+
+        private void bufferGroup() throws IOException {
+            groupKey = rightKey;
+            group = new ArrayList<>();
+            while (!rightDone && rightKey != null && compareKeys(rightKey, groupKey) == 0) {
+                if (groupFile == null && group.size() >= maxRowsInMemory) {
+                    LOGGER.debug("Merge join key group exceeds {} rows. Spilling to a temporary file.",
+                            maxRowsInMemory);
+                    groupFile = new DocumentDbSpillFile(SPILL_FILE_PREFIX);
+                    for (Object[] row : group) {
+                        groupFile.write(row);
+                    }
+                    group = null;
+                }
+                if (groupFile != null) {
+                    groupFile.write(rightRow);
+                } else {
+                    group.add(rightRow);
+                }
+                advanceRight();
+            }
+        }
+
+        private Iterator<Object[]> joinGroup(final Object[] row) throws IOException {
+            final Iterator<Object[]> groupRows = groupFile != null ? groupFile.read() : group.iterator();
+            return new Iterator<Object[]>() {
+                @Override
+                public boolean hasNext() {
+                    return groupRows.hasNext();
+                }
+
+                @Override
+                public Object[] next() {
+                    return spec.join(row, groupRows.next());
+                }
+            };
+        }
+
+        private void clearGroup() {
+            groupKey = null;
+            group = null;
+            if (groupFile != null) {
+                groupFile.close();
+                groupFile = null;
+            }
+        }
+
+        private int compareKeys(final List<Object> key1, final List<Object> key2) {
+            for (int i = 0; i < key1.size(); i++) {
+                final int compare = compareValues(key1.get(i), key2.get(i));
+                if (compare != 0) {
+                    return compare;
+                }
+            }
+            return 0;
+        }
+
+        @Override
+        public void close() {
+            clearGroup();
+            leftEnumerator.close();
+            rightEnumerator.close();
+        }
+    }
+}
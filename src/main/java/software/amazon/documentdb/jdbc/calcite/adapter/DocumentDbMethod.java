@@ -18,19 +18,32 @@
 package software.amazon.documentdb.jdbc.calcite.adapter;
 
 import com.google.common.collect.ImmutableMap;
+import org.apache.calcite.DataContext;
+import org.apache.calcite.linq4j.Enumerable;
+import org.apache.calcite.linq4j.function.Predicate2;
 import org.apache.calcite.linq4j.tree.Types;
 
 import java.lang.reflect.Method;
+import java.util.Comparator;
 import java.util.List;
 
 /**
  * Builtin methods in the MongoDB adapter.
  */
 public enum DocumentDbMethod {
-    // TODO: Investigate using find() here for simpler queries.
-    //  See: https://github.com/aws/amazon-documentdb-jdbc-driver/issues/240
     MONGO_QUERYABLE_AGGREGATE(DocumentDbTable.DocumentDbQueryable.class, "aggregate",
-            List.class, List.class, List.class);
+            DataContext.class, List.class, List.class, List.class),
+    HYBRID_HASH_JOIN(DocumentDbJoinEnumerables.class, "hashJoin",
+            DataContext.class, Enumerable.class, Enumerable.class, List.class, List.class,
+            String.class, int.class, int.class, boolean.class, Predicate2.class),
+    HYBRID_MERGE_JOIN(DocumentDbJoinEnumerables.class, "mergeJoin",
+            DataContext.class, Enumerable.class, Enumerable.class, List.class, List.class,
+            String.class, int.class, int.class),
+    HYBRID_SORT(DocumentDbSortEnumerables.class, "sort",
+            DataContext.class, Enumerable.class, Comparator.class, int.class, int.class),
+    HYBRID_WINDOW(DocumentDbWindowEnumerables.class, "window",
+            DataContext.class, Enumerable.class, List.class, Comparator.class, List.class, List.class,
+            List.class, boolean.class, int.class, int.class);
 
     @SuppressWarnings("ImmutableEnumChecker")
     private final Method method;
@@ -0,0 +1,74 @@
+/*
+ * Copyright <2021> Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ */
+
+package software.amazon.documentdb.jdbc.calcite.adapter;
+
+import org.apache.calcite.plan.RelOptCluster;
+import org.apache.calcite.plan.RelOptCost;
+import org.apache.calcite.plan.RelOptPlanner;
+import org.apache.calcite.plan.RelTraitSet;
+import org.apache.calcite.rel.RelNode;
+import org.apache.calcite.rel.core.Minus;
+import org.apache.calcite.rel.core.SetOp;
+import org.apache.calcite.rel.metadata.RelMetadataQuery;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.util.List;
+
+/**
+ * Implementation of {@link Minus} in DocumentDb. The inputs are read with $unionWith and grouped
+ * on the output row, keeping the rows found only in the first input. EXCEPT ALL is not supported.
+ */
+public class DocumentDbMinus extends Minus implements DocumentDbRel {
+
+    /**
+     * Creates a new {@link DocumentDbMinus}.
+     *
+     * @param cluster the cluster.
+     * @param traitSet the trait set.
+     * @param inputs the inputs.
+     * @param all whether duplicate rows are kept. Must be {@code false}.
+     */
+    public DocumentDbMinus(
+            final RelOptCluster cluster,
+            final RelTraitSet traitSet,
+            final List<RelNode> inputs,
+            final boolean all) {
+        super(cluster, traitSet, inputs, all);
+        assert getConvention() == DocumentDbRel.CONVENTION;
+        assert !all;
+    }
+
+    @Override
+    public SetOp copy(final RelTraitSet traitSet, final List<RelNode> inputs, final boolean all) {
+        return new DocumentDbMinus(getCluster(), traitSet, inputs, all);
+    }
+
+    @Override
+    public @Nullable RelOptCost computeSelfCost(
+            final RelOptPlanner planner,
+            final RelMetadataQuery mq) {
+        final RelOptCost relOptCost = super.computeSelfCost(planner, mq);
+        return relOptCost != null
+                ? relOptCost.multiplyBy(DocumentDbRules.SET_OP_COST_FACTOR)
+                : null;
+    }
+
+    @Override
+    public void implement(final Implementor implementor) {
+        DocumentDbUnion.implementSetOp(this, implementor);
+    }
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright <2021> Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ */
+
+package software.amazon.documentdb.jdbc.calcite.adapter;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Iterables;
+import org.apache.calcite.plan.RelOptRuleCall;
+import org.apache.calcite.plan.RelRule;
+import org.apache.calcite.rel.logical.LogicalMinus;
+import org.apache.calcite.tools.RelBuilder;
+import org.apache.calcite.util.ImmutableBitSet;
+
+/**
+ * Rule to rewrite an EXCEPT without ALL as an aggregate of a UNION ALL, so it can be executed in
+ * the driver without holding its inputs in memory. Each row is tagged with 0 if it comes from
+ * the first input and 1 otherwise, and the rows are grouped by all fields. A group is in the
+ * result if the largest tag of its rows is 0.
+ */
+public class DocumentDbMinusToDistinctRule extends RelRule<DocumentDbRuleConfig> {
+    static final DocumentDbMinusToDistinctRule INSTANCE = new DocumentDbMinusToDistinctRule(
+            DocumentDbRuleConfig.of(DocumentDbMinusToDistinctRule::new, "DocumentDbMinusToDistinctRule",
+                    b0 -> b0.operand(LogicalMinus.class)
+                            .predicate(minus -> !minus.all)
+                            .anyInputs()));
+
+    DocumentDbMinusToDistinctRule(final DocumentDbRuleConfig config) {
+        super(config);
+    }
+
+    @Override public void onMatch(final RelOptRuleCall call) {
+        final LogicalMinus minus = call.rel(0);
+        final int fieldCount = minus.getRowType().getFieldCount();
+        final RelBuilder builder = call.builder();
+        for (int i = 0; i < minus.getInputs().size(); i++) {
+            builder.push(minus.getInput(i));
+            builder.project(Iterables.concat(builder.fields(), ImmutableList.of(builder.literal(i == 0 ? 0 : 1))));
+        }
+        builder.union(true, minus.getInputs().size());
+        builder.aggregate(builder.groupKey(ImmutableBitSet.range(fieldCount)),
+                builder.max(builder.field(fieldCount)));
+        builder.filter(builder.equals(builder.field(fieldCount), builder.literal(0)));
+        builder.project(builder.fields(ImmutableBitSet.range(fieldCount)));
+        builder.convert(minus.getRowType(), false);
+        call.transformTo(builder.build());
+    }
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright <2021> Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ */
+
+package software.amazon.documentdb.jdbc.calcite.adapter;
+
+import com.mongodb.client.MongoCursor;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import software.amazon.documentdb.jdbc.query.DocumentDbFindQuery;
+
+import java.util.List;
+
+/**
+ * Runs the pushed-down parts of a query that is executed partly in the driver.
+ *
+ * <p>An instance is provided to the generated code through the
+ * {@link org.apache.calcite.DataContext} using the key {@link #DATA_CONTEXT_KEY}. When it is not
+ * present, a {@link DocumentDbEnumerable} does not execute its query.</p>
+ */
+public interface DocumentDbQueryRunner {
+    /** The name of the {@link org.apache.calcite.DataContext} variable holding the query runner. */
+    String DATA_CONTEXT_KEY = "documentDbQueryRunner";
+
+    /**
+     * Runs a find() command on the given collection.
+     *
+     * @param databaseName the name of the database.
+     * @param collectionName the name of the collection.
+     * @param findQuery the find() command.
+     * @return a cursor over the matching documents.
+     */
+    MongoCursor<Document> find(String databaseName, String collectionName, DocumentDbFindQuery findQuery);
+
+    /**
+     * Runs an aggregation pipeline on the given collection.
+     *
+     * @param databaseName the name of the database.
+     * @param collectionName the name of the collection.
+     * @param stages the aggregation stages.
+     * @return a cursor over the resulting documents.
+     */
+    MongoCursor<Document> aggregate(String databaseName, String collectionName, List<Bson> stages);
+
+    /**
+     * Gets the maximum number of rows an operator executed in the driver may hold in memory
+     * before spilling to temporary files.
+     *
+     * @return the maximum number of rows to hold in memory.
+     */
+    int getMaxRowsInMemory();
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright <2021> Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ */
+
+package software.amazon.documentdb.jdbc.calcite.adapter;
+
+import org.apache.calcite.plan.RelOptRule;
+import org.apache.calcite.plan.RelRule;
+import org.apache.calcite.rel.core.RelFactories;
+import org.apache.calcite.tools.RelBuilderFactory;
+
+import java.util.function.Function;
+
+/**
+ * Configuration of a {@link RelRule} of the adapter. Calcite generates the configurations of its
+ * own rules, so the adapter rules that are not converter rules share this implementation.
+ */
+final class DocumentDbRuleConfig implements RelRule.Config {
+    private final Function<DocumentDbRuleConfig, RelOptRule> ruleFactory;
+    private final RelBuilderFactory relBuilderFactory;
+    private final String description;
+    private final RelRule.OperandTransform operandSupplier;
+
+    private DocumentDbRuleConfig(
+            final Function<DocumentDbRuleConfig, RelOptRule> ruleFactory,
+            final RelBuilderFactory relBuilderFactory,
+            final String description,
+            final RelRule.OperandTransform operandSupplier) {
+        this.ruleFactory = ruleFactory;
+        this.relBuilderFactory = relBuilderFactory;
+        this.description = description;
+        this.operandSupplier = operandSupplier;
+    }
+
+    /**
+     * Creates the configuration of a rule using the logical relational expression builder.
+     *
+     * @param ruleFactory the function that creates the rule from its configuration.
+     * @param description the description of the rule.
+     * @param operandSupplier the function that creates the operands of the rule.
+     * @return a new {@link DocumentDbRuleConfig}.
+     */
+    static DocumentDbRuleConfig of(
+            final Function<DocumentDbRuleConfig, RelOptRule> ruleFactory,
+            final String description,
+            final RelRule.OperandTransform operandSupplier) {
+        return new DocumentDbRuleConfig(ruleFactory, RelFactories.LOGICAL_BUILDER, description, operandSupplier);
+    }
+
+    @Override
+    public RelOptRule toRule() {
+        return ruleFactory.apply(this);
+    }
+
+    @Override
+    public RelBuilderFactory relBuilderFactory() {
+        return relBuilderFactory;
+    }
+
+    @Override
+    public DocumentDbRuleConfig withRelBuilderFactory(final RelBuilderFactory factory) {
+        return new DocumentDbRuleConfig(ruleFactory, factory, description, operandSupplier);
+    }
+
+    @Override
+    public String description() {
+        return description;
+    }
+
+    @Override
+    public DocumentDbRuleConfig withDescription(final String newDescription) {
+        return new DocumentDbRuleConfig(ruleFactory, relBuilderFactory, newDescription, operandSupplier);
+    }
+
+    @Override
+    public RelRule.OperandTransform operandSupplier() {
+        return operandSupplier;
+    }
+
+    @Override
+    public DocumentDbRuleConfig withOperandSupplier(final RelRule.OperandTransform transform) {
+        return new DocumentDbRuleConfig(ruleFactory, relBuilderFactory, description, transform);
+    }
+}
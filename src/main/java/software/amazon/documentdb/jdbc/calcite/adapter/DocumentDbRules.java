@@ -17,46 +17,70 @@
 
 package software.amazon.documentdb.jdbc.calcite.adapter;
 
+import com.google.common.collect.BoundType;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Range;
 import com.google.common.io.BaseEncoding;
 import lombok.Getter;
 import lombok.SneakyThrows;
 import org.apache.calcite.adapter.enumerable.RexImpTable.NullAs;
 import org.apache.calcite.adapter.enumerable.RexToLixTranslator;
 import org.apache.calcite.adapter.java.JavaTypeFactory;
-import org.apache.calcite.avatica.util.TimeUnitRange;
 import org.apache.calcite.plan.Convention;
+import org.apache.calcite.plan.RelOptCluster;
 import org.apache.calcite.plan.RelOptRule;
+import org.apache.calcite.plan.RelOptRuleCall;
+import org.apache.calcite.plan.RelOptUtil;
+import org.apache.calcite.plan.RelRule;
 import org.apache.calcite.plan.RelTraitSet;
 import org.apache.calcite.rel.InvalidRelException;
 import org.apache.calcite.rel.RelCollations;
 import org.apache.calcite.rel.RelNode;
 import org.apache.calcite.rel.convert.ConverterRule;
+import org.apache.calcite.rel.core.Aggregate;
+import org.apache.calcite.rel.core.AggregateCall;
+import org.apache.calcite.rel.core.JoinRelType;
 import org.apache.calcite.rel.core.Sort;
 import org.apache.calcite.rel.logical.LogicalAggregate;
 import org.apache.calcite.rel.logical.LogicalFilter;
+import org.apache.calcite.rel.logical.LogicalIntersect;
 import org.apache.calcite.rel.logical.LogicalJoin;
+import org.apache.calcite.rel.logical.LogicalMinus;
 import org.apache.calcite.rel.logical.LogicalProject;
+import org.apache.calcite.rel.logical.LogicalUnion;
+import org.apache.calcite.rel.logical.LogicalWindow;
+import org.apache.calcite.rel.rules.CoreRules;
 import org.apache.calcite.rel.type.RelDataType;
+import org.apache.calcite.rex.RexBuilder;
 import org.apache.calcite.rex.RexCall;
 import org.apache.calcite.rex.RexInputRef;
 import org.apache.calcite.rex.RexLiteral;
 import org.apache.calcite.rex.RexNode;
+import org.apache.calcite.rex.RexOver;
+import org.apache.calcite.rex.RexSubQuery;
+import org.apache.calcite.rex.RexUnknownAs;
+import org.apache.calcite.rex.RexUtil;
 import org.apache.calcite.rex.RexVisitorImpl;
-import org.apache.calcite.sql.SqlIntervalQualifier;
+import org.apache.calcite.sql.SqlAggFunction;
 import org.apache.calcite.sql.SqlKind;
 import org.apache.calcite.sql.SqlOperator;
 import org.apache.calcite.sql.fun.SqlLibraryOperators;
 import org.apache.calcite.sql.fun.SqlStdOperatorTable;
 import org.apache.calcite.sql.type.SqlTypeName;
+import org.apache.calcite.tools.RelBuilder;
 import org.apache.calcite.util.Bug;
 import org.apache.calcite.util.DateString;
+import org.apache.calcite.util.ImmutableBitSet;
+import org.apache.calcite.util.Pair;
+import org.apache.calcite.util.RangeSets;
+import org.apache.calcite.util.Sarg;
 import org.apache.calcite.util.TimeString;
 import org.apache.calcite.util.Util;
 import org.apache.calcite.util.trace.CalciteTrace;
-import org.bson.BsonDocument;
 import org.bson.BsonType;
-import org.bson.BsonValue;
 import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
 import org.slf4j.Logger;
 import software.amazon.documentdb.jdbc.common.utilities.SqlError;
 import software.amazon.documentdb.jdbc.common.utilities.SqlState;
@@ -65,20 +89,15 @@ import software.amazon.documentdb.jdbc.metadata.DocumentDbSchemaColumn;
 import software.amazon.documentdb.jdbc.metadata.DocumentDbSchemaTable;
 
 import java.sql.SQLException;
-import java.sql.SQLFeatureNotSupportedException;
-import java.time.DayOfWeek;
 import java.time.Instant;
-import java.time.Month;
-import java.time.format.TextStyle;
-import java.time.temporal.ChronoUnit;
 import java.util.AbstractList;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
-import java.util.Locale;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 import java.util.function.BiFunction;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
@@ -109,7 +128,49 @@ public final class DocumentDbRules {
             DocumentDbFilterRule.INSTANCE,
             DocumentDbProjectRule.INSTANCE,
             DocumentDbAggregateRule.INSTANCE,
-            DocumentDbJoinRule.INSTANCE
+            DocumentDbAggregateLookupTransposeRule.INSTANCE,
+            DocumentDbJoinRule.INSTANCE,
+            DocumentDbUnionRule.INSTANCE,
+            DocumentDbIntersectRule.INSTANCE,
+            DocumentDbMinusRule.INSTANCE
+    };
+
+    /**
+     * Rules used when hybrid execution is enabled. Operators that cannot be pushed down are
+     * executed in the driver rather than failing the query. Set operations without ALL and
+     * distinct aggregate calls are rewritten as aggregates, so they can be executed in the driver
+     * over sorted input.
+     */
+    @SuppressWarnings("MutablePublicArray")
+    static final RelOptRule[] HYBRID_RULES = {
+            DocumentDbSortRule.INSTANCE,
+            DocumentDbFilterRule.HYBRID_INSTANCE,
+            DocumentDbProjectRule.HYBRID_INSTANCE,
+            DocumentDbAggregateRule.INSTANCE,
+            DocumentDbAggregateLookupTransposeRule.INSTANCE,
+            DocumentDbJoinRule.PUSHABLE_INSTANCE,
+            DocumentDbHybridRules.DocumentDbHybridJoinRule.HASH_INSTANCE,
+            DocumentDbHybridRules.DocumentDbHybridJoinRule.MERGE_INSTANCE,
+            DocumentDbHybridRules.DocumentDbHybridSortRule.INSTANCE,
+            DocumentDbHybridRules.DocumentDbHybridAggregateRule.INSTANCE,
+            DocumentDbHybridRules.DocumentDbHybridWindowRule.INSTANCE,
+            DocumentDbHybridRules.DocumentDbHybridUnionRule.INSTANCE,
+            DocumentDbUnionRule.INSTANCE,
+            DocumentDbIntersectRule.INSTANCE,
+            DocumentDbMinusRule.INSTANCE,
+            CoreRules.UNION_TO_DISTINCT,
+            CoreRules.INTERSECT_TO_DISTINCT,
+            DocumentDbMinusToDistinctRule.INSTANCE,
+            CoreRules.AGGREGATE_EXPAND_DISTINCT_AGGREGATES_TO_JOIN
+    };
+
+    /**
+     * Rules used when the server supports the $setWindowFields stage, so window functions are
+     * pushed down.
+     */
+    @SuppressWarnings("MutablePublicArray")
+    static final RelOptRule[] WINDOW_RULES = {
+            DocumentDbWindowRule.INSTANCE
     };
 
     // Factors for computing the cost of the DocumentDbRel nodes.
@@ -117,7 +178,9 @@ public final class DocumentDbRules {
     public static final double FILTER_COST_FACTOR = 0.1;
     public static final double JOIN_COST_FACTOR = 0.1;
     public static final double SORT_COST_FACTOR = 0.05;
+    public static final double SET_OP_COST_FACTOR = 0.1;
     public static final double ENUMERABLE_COST_FACTOR = 0.1;
+    public static final double WINDOW_COST_FACTOR = 0.1;
 
     public static final int MAX_PROJECT_FIELDS = 50;
 
@@ -243,7 +306,7 @@ public final class DocumentDbRules {
         private final Map<SqlOperator,
                 BiFunction<RexCall, List<Operand>, Operand>> rexCallToMongoMap = new HashMap<>();
 
-        private static final Map<SqlOperator, String> MONGO_OPERATORS =
+        static final Map<SqlOperator, String> MONGO_OPERATORS =
                 new HashMap<>();
 
         static {
@@ -330,32 +393,34 @@ public final class DocumentDbRules {
 
             // Date operations
             rexCallToMongoMap.put(SqlStdOperatorTable.CURRENT_DATE,
-                    (call, operands) -> DateFunctionTranslator.translateCurrentTimestamp(currentTime));
+                    (call, operands) -> DocumentDbDateFunctionTranslator.translateCurrentTimestamp(currentTime));
             rexCallToMongoMap.put(SqlStdOperatorTable.CURRENT_TIME,
-                    (call, operands) -> DateFunctionTranslator.translateCurrentTimestamp(currentTime));
+                    (call, operands) -> DocumentDbDateFunctionTranslator.translateCurrentTimestamp(currentTime));
             rexCallToMongoMap.put(SqlStdOperatorTable.CURRENT_TIMESTAMP,
-                    (call, operands) -> DateFunctionTranslator.translateCurrentTimestamp(currentTime));
-            rexCallToMongoMap.put(SqlStdOperatorTable.DATETIME_PLUS, DateFunctionTranslator::translateDateAdd);
-            rexCallToMongoMap.put(SqlStdOperatorTable.EXTRACT, DateFunctionTranslator::translateExtract);
-            rexCallToMongoMap.put(SqlLibraryOperators.DAYNAME, DateFunctionTranslator::translateDayName);
-            rexCallToMongoMap.put(SqlLibraryOperators.MONTHNAME, DateFunctionTranslator::translateMonthName);
-            rexCallToMongoMap.put(SqlStdOperatorTable.FLOOR, DateFunctionTranslator::translateFloor);
-            rexCallToMongoMap.put(SqlStdOperatorTable.MINUS_DATE, DateFunctionTranslator::translateDateDiff);
+                    (call, operands) -> DocumentDbDateFunctionTranslator.translateCurrentTimestamp(currentTime));
+            rexCallToMongoMap.put(SqlStdOperatorTable.DATETIME_PLUS, DocumentDbDateFunctionTranslator::translateDateAdd);
+            rexCallToMongoMap.put(SqlStdOperatorTable.EXTRACT, DocumentDbDateFunctionTranslator::translateExtract);
+            rexCallToMongoMap.put(SqlLibraryOperators.DAYNAME, DocumentDbDateFunctionTranslator::translateDayName);
+            rexCallToMongoMap.put(SqlLibraryOperators.MONTHNAME, DocumentDbDateFunctionTranslator::translateMonthName);
+            rexCallToMongoMap.put(SqlStdOperatorTable.FLOOR, DocumentDbDateFunctionTranslator::translateFloor);
+            rexCallToMongoMap.put(SqlStdOperatorTable.MINUS_DATE, DocumentDbDateFunctionTranslator::translateDateDiff);
 
             // CASE, ITEM
             rexCallToMongoMap.put(SqlStdOperatorTable.CASE, RexToMongoTranslator::getMongoAggregateForCase);
             rexCallToMongoMap.put(SqlStdOperatorTable.ITEM, RexToMongoTranslator::getMongoAggregateForItem);
 
             // String operations
-            rexCallToMongoMap.put(SqlStdOperatorTable.CONCAT, StringFunctionTranslator::getMongoAggregateForConcatOperator);
-            rexCallToMongoMap.put(SqlLibraryOperators.CONCAT_FUNCTION, StringFunctionTranslator::getMongoAggregateForConcatOperator);
-            rexCallToMongoMap.put(SqlStdOperatorTable.SUBSTRING, StringFunctionTranslator::getMongoAggregateForSubstringOperator);
-            rexCallToMongoMap.put(SqlStdOperatorTable.POSITION, StringFunctionTranslator::getMongoAggregateForPositionStringOperator);
-            rexCallToMongoMap.put(SqlStdOperatorTable.UPPER, StringFunctionTranslator::getMongoAggregateForStringOperator);
-            rexCallToMongoMap.put(SqlStdOperatorTable.LOWER, StringFunctionTranslator::getMongoAggregateForStringOperator);
-            rexCallToMongoMap.put(SqlStdOperatorTable.CHAR_LENGTH, StringFunctionTranslator::getMongoAggregateForStringOperator);
-            rexCallToMongoMap.put(SqlLibraryOperators.LEFT, StringFunctionTranslator::getMongoAggregateForLeftOperator);
-            rexCallToMongoMap.put(SqlLibraryOperators.RIGHT, StringFunctionTranslator::getMongoAggregateForRightOperator);
+            rexCallToMongoMap.put(SqlStdOperatorTable.CONCAT, DocumentDbStringFunctionTranslator::getMongoAggregateForConcatOperator);
+            rexCallToMongoMap.put(SqlLibraryOperators.CONCAT_FUNCTION, DocumentDbStringFunctionTranslator::getMongoAggregateForConcatOperator);
+            rexCallToMongoMap.put(SqlStdOperatorTable.SUBSTRING, DocumentDbStringFunctionTranslator::getMongoAggregateForSubstringOperator);
+            rexCallToMongoMap.put(SqlStdOperatorTable.POSITION, DocumentDbStringFunctionTranslator::getMongoAggregateForPositionStringOperator);
+            rexCallToMongoMap.put(SqlStdOperatorTable.UPPER, DocumentDbStringFunctionTranslator::getMongoAggregateForStringOperator);
+            rexCallToMongoMap.put(SqlStdOperatorTable.LOWER, DocumentDbStringFunctionTranslator::getMongoAggregateForStringOperator);
+            rexCallToMongoMap.put(SqlStdOperatorTable.CHAR_LENGTH, DocumentDbStringFunctionTranslator::getMongoAggregateForStringOperator);
+            rexCallToMongoMap.put(SqlLibraryOperators.LEFT, DocumentDbStringFunctionTranslator::getMongoAggregateForLeftOperator);
+            rexCallToMongoMap.put(SqlLibraryOperators.RIGHT, DocumentDbStringFunctionTranslator::getMongoAggregateForRightOperator);
+            rexCallToMongoMap.put(SqlStdOperatorTable.LIKE, this::getMongoAggregateForLikeOperator);
+            rexCallToMongoMap.put(SqlStdOperatorTable.NOT_LIKE, this::getMongoAggregateForLikeOperator);
         }
 
         private static Operand getMongoAggregateForAndOperator(final RexCall call, final List<Operand> operands, final String s) {
@@ -375,7 +440,7 @@ public final class DocumentDbRules {
 
             return new Operand(
                     sb.toString(),
-                    SimpleMatchTranslator.getAndOrOperator(operands, s),
+                    DocumentDbSimpleMatchTranslator.getAndOrOperator(operands, s),
                     false);
         }
 
@@ -395,10 +460,49 @@ public final class DocumentDbRules {
             sb.append("]}, false, null]}]}");
             return new Operand(
                     sb.toString(),
-                    SimpleMatchTranslator.getAndOrOperator(operands, s),
+                    DocumentDbSimpleMatchTranslator.getAndOrOperator(operands, s),
                     false);
         }
 
+        /**
+         * Gets whether the expression only uses operators that can be translated to DocumentDB.
+         * Used with hybrid execution to evaluate expressions with unsupported operators in the
+         * driver instead. Some supported operators may still fail to translate for particular
+         * operand types.
+         *
+         * @param node the expression.
+         * @return {@code true} if the expression can be translated, {@code false}, otherwise.
+         */
+        static boolean isTranslatable(final RexNode node) {
+            if (node instanceof RexInputRef || node instanceof RexLiteral) {
+                return true;
+            }
+            if (!(node instanceof RexCall) || node instanceof RexOver || node instanceof RexSubQuery) {
+                return false;
+            }
+            final RexCall call = (RexCall) node;
+            switch (call.getKind()) {
+                case CAST:
+                case REINTERPRET:
+                    break;
+                case SEARCH:
+                    // Search arguments are translated to $in or to comparisons of the ranges.
+                    return isTranslatable(call.getOperands().get(0));
+                default:
+                    if (!SupportedOperators.OPERATORS.contains(call.getOperator())) {
+                        return false;
+                    }
+            }
+            return call.getOperands().stream().allMatch(RexToMongoTranslator::isTranslatable);
+        }
+
+        /** Lazily initialized set of the operators with a translation. */
+        private static final class SupportedOperators {
+            private static final Set<SqlOperator> OPERATORS = ImmutableSet.copyOf(
+                    new RexToMongoTranslator(null, ImmutableList.of(), ImmutableList.of(), null, Instant.EPOCH)
+                            .rexCallToMongoMap.keySet());
+        }
+
         protected RexToMongoTranslator(final JavaTypeFactory typeFactory,
                 final List<String> inFields,
                 final List<String> keys, final DocumentDbSchemaTable schemaTable,
@@ -495,6 +599,16 @@ public final class DocumentDbRules {
                 return new Operand("'$" + name + "'");
             }
 
+            // Translate the search argument directly so IN lists and ranges are not expanded
+            // to a comparison per value. Fall back to the expanded comparisons otherwise.
+            if (call.getKind() == SqlKind.SEARCH) {
+                final Sarg<?> sarg = ((RexLiteral) call.operands.get(1)).getValueAs(Sarg.class);
+                final Operand search = getMongoAggregateForSearch(call, sarg);
+                return search != null
+                        ? search
+                        : RexUtil.expandSearch(new RexBuilder(typeFactory), null, call).accept(this);
+            }
+
             final List<Operand> strings = visitList(call.operands);
             if (call.getKind() == SqlKind.CAST || call.getKind() == SqlKind.REINTERPRET) {
                 return getCastExpression(call, strings);
@@ -511,6 +625,151 @@ public final class DocumentDbRules {
                     + " is not supported by DocumentDbRules");
         }
 
+        /**
+         * Translates a SEARCH call. Points are matched with $in (or $nin if the search
+         * argument is the complement of a set of points) and each range with a single
+         * comparison per bound, so the size of the expression does not grow with a
+         * comparison and a null check per value.
+         *
+         * @param call the SEARCH call.
+         * @param sarg the search argument.
+         * @return the operand or {@code null} if the search cannot be translated directly.
+         */
+        private <C extends Comparable<C>> @Nullable Operand getMongoAggregateForSearch(
+                final RexCall call,
+                final @Nullable Sarg<C> sarg) {
+            if (sarg == null || sarg.isAll() || sarg.isNone()
+                    || sarg.rangeSet.isEmpty() || sarg.rangeSet.encloses(Range.all())) {
+                return null;
+            }
+            final Operand ref = call.operands.get(0).accept(this);
+            if (ref.getColumn() != null && ref.getColumn().getDbType() == BsonType.OBJECT_ID) {
+                // Object IDs are compared in both their $oid and native formats.
+                return null;
+            }
+
+            final RexBuilder rexBuilder = new RexBuilder(typeFactory);
+            final RelDataType type = call.operands.get(1).getType();
+            final boolean complemented = sarg.isComplementedPoints();
+            final List<Operand> points = new ArrayList<>();
+            final List<List<Pair<String, Operand>>> ranges = new ArrayList<>();
+            for (Range<C> range : complemented
+                    ? sarg.rangeSet.complement().asRanges()
+                    : sarg.rangeSet.asRanges()) {
+                if (RangeSets.isPoint(range)) {
+                    points.add(rexBuilder.makeLiteral(range.lowerEndpoint(), type, true, true).accept(this));
+                    continue;
+                }
+                final List<Pair<String, Operand>> bounds = new ArrayList<>();
+                if (range.hasLowerBound()) {
+                    bounds.add(Pair.of(
+                            range.lowerBoundType() == BoundType.CLOSED ? "$gte" : "$gt",
+                            rexBuilder.makeLiteral(range.lowerEndpoint(), type, true, true).accept(this)));
+                }
+                if (range.hasUpperBound()) {
+                    bounds.add(Pair.of(
+                            range.upperBoundType() == BoundType.CLOSED ? "$lte" : "$lt",
+                            rexBuilder.makeLiteral(range.upperEndpoint(), type, true, true).accept(this)));
+                }
+                ranges.add(bounds);
+            }
+
+            // {$cond: [<null check expression>, <search expression>, <value if null>]}
+            final List<String> terms = new ArrayList<>();
+            if (!points.isEmpty()) {
+                terms.add("{\"$in\": [" + ref + ", [" + Util.commaList(points) + "]]}");
+            }
+            for (List<Pair<String, Operand>> bounds : ranges) {
+                final List<String> comparisons = bounds.stream()
+                        .map(bound -> "{\"" + bound.left + "\": [" + ref + ", " + bound.right + "]}")
+                        .collect(Collectors.toList());
+                terms.add(comparisons.size() == 1
+                        ? comparisons.get(0)
+                        : "{\"$and\": [" + Util.commaList(comparisons) + "]}");
+            }
+            String searchExpr = terms.size() == 1
+                    ? terms.get(0)
+                    : "{\"$or\": [" + Util.commaList(terms) + "]}";
+            if (complemented) {
+                searchExpr = "{\"$not\": [" + searchExpr + "]}";
+            }
+            final String aggregateExpr = "{\"$cond\": [{\"$gt\": [" + ref + ", null]}, "
+                    + searchExpr + ", " + getNullAsValue(sarg.nullAs) + "]}";
+
+            return new Operand(
+                    aggregateExpr,
+                    DocumentDbSimpleMatchTranslator.getSearchOperator(ref, points, ranges, complemented, sarg.nullAs),
+                    false);
+        }
+
+        /**
+         * Translates LIKE with a literal pattern to a regular expression. The query operator
+         * $regex is used when matching a field so prefix patterns can use an index. A field
+         * compared in lower or upper case with a pattern in the same case is matched with a
+         * case-insensitive regular expression instead.
+         *
+         * @param call the LIKE or NOT LIKE call.
+         * @param strings the translated operands.
+         * @return the operand or {@code null} if the pattern is not a literal.
+         */
+        private @Nullable Operand getMongoAggregateForLikeOperator(
+                final RexCall call,
+                final List<Operand> strings) {
+            final RexNode patternNode = call.operands.get(1);
+            final RexNode escapeNode = call.operands.size() > 2 ? call.operands.get(2) : null;
+            if (!(patternNode instanceof RexLiteral)
+                    || (escapeNode != null && !(escapeNode instanceof RexLiteral))) {
+                return null;
+            }
+            final String pattern = ((RexLiteral) patternNode).getValueAs(String.class);
+            final String escape = escapeNode != null
+                    ? ((RexLiteral) escapeNode).getValueAs(String.class)
+                    : null;
+            if (pattern == null) {
+                return null;
+            }
+            final boolean negated = call.getOperator() == SqlStdOperatorTable.NOT_LIKE;
+            final RexBuilder rexBuilder = new RexBuilder(typeFactory);
+            final Operand regex = rexBuilder
+                    .makeLiteral(DocumentDbStringFunctionTranslator.getRegexForLikePattern(pattern, escape))
+                    .accept(this);
+
+            // {$cond: [<null check expression>, {$regexMatch: {...}}, null]}
+            final String regexMatch = "{\"$regexMatch\": {\"input\": " + strings.get(0)
+                    + ", \"regex\": " + regex.getQueryValue() + ", \"options\": \"s\"}}";
+            final String aggregateExpr = "{\"$cond\": ["
+                    + getNullCheckExpr(ImmutableList.of(strings.get(0)))
+                    + ", "
+                    + (negated ? "{\"$not\": [" + regexMatch + "]}" : regexMatch)
+                    + ", null]}";
+
+            // E.g.: {field: {$regex: "^abc", $options: "s"}}
+            String queryExpr = null;
+            final RexNode input = call.operands.get(0);
+            if (!negated && DocumentDbStringFunctionTranslator.isCaseInsensitiveLike(input, pattern)) {
+                final Operand field = ((RexCall) input).operands.get(0).accept(this);
+                if (field.isInputRef()) {
+                    queryExpr = "{" + field.getQueryValue() + ": {\"$regex\": "
+                            + regex.getQueryValue() + ", \"$options\": \"si\"}}";
+                }
+            } else if (!negated && strings.get(0).isInputRef()) {
+                queryExpr = "{" + strings.get(0).getQueryValue() + ": {\"$regex\": "
+                        + regex.getQueryValue() + ", \"$options\": \"s\"}}";
+            }
+            return new Operand(aggregateExpr, queryExpr, false);
+        }
+
+        private static String getNullAsValue(final RexUnknownAs nullAs) {
+            switch (nullAs) {
+                case TRUE:
+                    return "true";
+                case FALSE:
+                    return "false";
+                default:
+                    return "null";
+            }
+        }
+
         private static Operand getCastExpression(final RexCall call, final List<Operand> strings) {
             // Handle CAST of CHAR/VARCHAR to numeric types.
             if (call.operands.size() == 1 && call.operands.get(0) instanceof RexLiteral)  {
@@ -615,12 +874,12 @@ public final class DocumentDbRules {
             return new Operand(
                     aggregateExpr,
                     hasObjectIdAndLiteral(call, strings)
-                            ? SimpleMatchTranslator.getObjectIdComparisonOperator(call, strings, stdOperator)
-                            : SimpleMatchTranslator.getComparisonOperator(call, strings, stdOperator),
+                            ? DocumentDbSimpleMatchTranslator.getObjectIdComparisonOperator(call, strings, stdOperator)
+                            : DocumentDbSimpleMatchTranslator.getComparisonOperator(call, strings, stdOperator),
                     false);
         }
 
-        private static String getNullCheckExpr(final List<Operand> strings) {
+        static String getNullCheckExpr(final List<Operand> strings) {
             final StringBuilder nullCheckOperator = new StringBuilder("{\"$and\": [");
             for (Operand s : strings) {
                 nullCheckOperator.append("{\"$gt\": [");
@@ -638,12 +897,12 @@ public final class DocumentDbRules {
                 final String stdOperator) {
             return new Operand(
                     "{" + stdOperator + ": [" + strings.get(0) + ", null]}",
-                    SimpleMatchTranslator.getNullCheckOperator(call, strings), false);
+                    DocumentDbSimpleMatchTranslator.getNullCheckOperator(call, strings), false);
         }
     }
 
     @NonNull
-    private static <T> T getValueAs(final RexLiteral literal, final Class<T> clazz)
+    static <T> T getValueAs(final RexLiteral literal, final Class<T> clazz)
             throws SQLException {
         final T result = literal.getValueAs(clazz);
         if (result == null) {
@@ -662,7 +921,7 @@ public final class DocumentDbRules {
     }
 
     @SneakyThrows
-    private static Operand getMongoAggregateForOperator(
+    static Operand getMongoAggregateForOperator(
             final RexCall call,
             final List<Operand> strings,
             final String stdOperator) {
@@ -672,7 +931,7 @@ public final class DocumentDbRules {
         return new Operand("{" + maybeQuote(stdOperator) + ": [" + Util.commaList(strings) + "]}");
     }
 
-    private static Operand getIntegerDivisionOperation(final String value, final String divisor) {
+    static Operand getIntegerDivisionOperation(final String value, final String divisor) {
         // TODO: when $trunc is supported in DocumentDB, add back.
         //final String intDivideOptFormat = "{ \"$trunc\": [ {\"$divide\": [%s]}, 0 ]}";
         // NOTE: $mod, $subtract, and $divide - together, perform integer division
@@ -683,7 +942,7 @@ public final class DocumentDbRules {
         return Operand.format("{\"$divide\": [%s, %s]}", subtractRemainder, divisor);
     }
 
-    private static Operand getIntegerDivisionOperation(final Operand value, final Operand divisor) {
+    static Operand getIntegerDivisionOperation(final Operand value, final Operand divisor) {
         return getIntegerDivisionOperation(value.getAggregationValue(), divisor.getAggregationValue());
     }
 
@@ -736,7 +995,7 @@ public final class DocumentDbRules {
         return false;
     }
 
-    private static List<Operand> reformatObjectIdOperands(
+    static List<Operand> reformatObjectIdOperands(
             final RexCall call,
             final List<Operand> strings) throws SQLException {
         final List<Operand> copyOfStrings = new ArrayList<>();
@@ -781,589 +1040,6 @@ public final class DocumentDbRules {
         }
     }
 
-    private static class DateFunctionTranslator {
-
-        private static final String CURRENT_DATE = "CURRENT_DATE";
-        private static final String CURRENT_TIMESTAMP = "CURRENT_TIMESTAMP";
-        private static final Map<TimeUnitRange, String> DATE_PART_OPERATORS =
-                new HashMap<>();
-        private static final Instant FIRST_DAY_OF_WEEK_AFTER_EPOCH =
-                Instant.parse("1970-01-05T00:00:00Z");
-
-        static {
-            // Date part operators
-            DATE_PART_OPERATORS.put(TimeUnitRange.YEAR, "$year");
-            DATE_PART_OPERATORS.put(TimeUnitRange.MONTH, "$month");
-            DATE_PART_OPERATORS.put(TimeUnitRange.WEEK, "$week");
-            DATE_PART_OPERATORS.put(TimeUnitRange.HOUR, "$hour");
-            DATE_PART_OPERATORS.put(TimeUnitRange.MINUTE, "$minute");
-            DATE_PART_OPERATORS.put(TimeUnitRange.SECOND, "$second");
-            DATE_PART_OPERATORS.put(TimeUnitRange.DOY, "$dayOfYear");
-            DATE_PART_OPERATORS.put(TimeUnitRange.DAY, "$dayOfMonth");
-            DATE_PART_OPERATORS.put(TimeUnitRange.DOW, "$dayOfWeek");
-            DATE_PART_OPERATORS.put(TimeUnitRange.ISODOW, "$isoDayOfWeek");
-            DATE_PART_OPERATORS.put(TimeUnitRange.ISOYEAR, "$isoWeekYear");
-        }
-
-        private static Operand translateCurrentTimestamp(final Instant currentTime) {
-            final String currentTimestamp = "{\"$date\": {\"$numberLong\": "
-                    + "\"" + currentTime.toEpochMilli() + "\"}}";
-            return new Operand(currentTimestamp, currentTimestamp, true);
-        }
-
-        @SneakyThrows
-        private static Operand translateDateAdd(final RexCall call, final List<Operand> strings) {
-            verifySupportedDateAddType(call.getOperands().get(1));
-
-            // Is date addition between literals (including CURRENT_DATE)?
-            final boolean isLiteralCandidate = isDateLiteralCandidate(call, strings);
-            if (isLiteralCandidate) {
-                // Perform in-memory calculation before sending to server.
-                return getDateAddLiteralOperand(strings);
-            }
-            // Otherwise, perform addition on server.
-            return new Operand("{ \"$add\":" + "[" + Util.commaList(strings) + "]}");
-        }
-
-        private static boolean isDateLiteralCandidate(final RexCall call, final List<Operand> strings) {
-            final boolean allLiterals = call.getOperands().stream()
-                    .allMatch(op -> {
-                        final SqlKind opKind = op.getKind();
-                        final String opName = op.toString();
-                        return opKind == SqlKind.LITERAL
-                                || opName.equalsIgnoreCase(CURRENT_DATE)
-                                || opName.equalsIgnoreCase(CURRENT_TIMESTAMP);
-                    });
-            final boolean allHaveQueryValue = strings.stream().allMatch(op -> op.getQueryValue() != null);
-            return allLiterals && allHaveQueryValue;
-        }
-
-        private static Operand getDateAddLiteralOperand(final List<Operand> strings) {
-            final String queryValue0 = strings.get(0).getQueryValue();
-            final String queryValue1 = strings.get(1).getQueryValue();
-            final BsonDocument document0 =  BsonDocument.parse("{field: " + queryValue0 + "}");
-            final BsonDocument document1 =  BsonDocument.parse("{field: " + queryValue1 + "}");
-
-            long sum = 0L;
-            for (BsonValue v : new BsonValue[]{document0.get("field"), document1.get("field")}) {
-                switch (v.getBsonType()) {
-                    case DATE_TIME:
-                        sum += v.asDateTime().getValue();
-                        break;
-                    case INT64:
-                        sum += v.asInt64().getValue();
-                        break;
-                    default:
-                        throw new UnsupportedOperationException(
-                                "Unsupported data type '" + v.getBsonType().name() + "'");
-                }
-            }
-            final String query = "{\"$date\": {\"$numberLong\": \"" + sum + "\"}}";
-            return new Operand(query, query, true);
-        }
-
-        private static void verifySupportedDateAddType(final RexNode node)
-                throws SQLFeatureNotSupportedException {
-            if (node.getType().getSqlTypeName() == SqlTypeName.INTERVAL_MONTH
-                    || node.getType().getSqlTypeName() == SqlTypeName.INTERVAL_YEAR) {
-                throw SqlError.createSQLFeatureNotSupportedException(LOGGER,
-                        SqlError.UNSUPPORTED_CONVERSION,
-                        node.getType().getSqlTypeName().getName(),
-                        SqlTypeName.TIMESTAMP.getName());
-            }
-        }
-
-        @SneakyThrows
-        private static Operand translateDateDiff(final RexCall call, final List<Operand> strings) {
-            final TimeUnitRange interval = getIntervalQualifier(call).timeUnitRange;
-            switch (interval) {
-                case YEAR:
-                    return formatDateDiffYear(strings);
-                case QUARTER:
-                case MONTH:
-                    return formatDateDiffMonth(strings, interval);
-                default:
-                    return getMongoAggregateForOperator(
-                            call,
-                            strings,
-                            RexToMongoTranslator.MONGO_OPERATORS.get(SqlStdOperatorTable.MINUS_DATE));
-            }
-        }
-
-        @NonNull
-        private static SqlIntervalQualifier getIntervalQualifier(final RexCall call)
-                throws SQLException {
-            final SqlIntervalQualifier result = call.getType().getIntervalQualifier();
-            if (result == null) {
-                throw SqlError.createSQLException(LOGGER,
-                        SqlState.INVALID_QUERY_EXPRESSION,
-                        SqlError.MISSING_LITERAL_VALUE,
-                        call.getType().getSqlTypeName().getName());
-            }
-            return result;
-        }
-
-        private static Operand formatDateDiffYear(final List<Operand> strings) {
-            final String dateDiffYearFormat =
-                    "{'$subtract': [{'$year': %1$s}, {'$year': %2$s}]}";
-            return Operand.format(dateDiffYearFormat, strings.get(0), strings.get(1));
-        }
-
-        private static Operand formatDateDiffMonth(final List<Operand> strings, final TimeUnitRange timeUnitRange) {
-            final String yearPartMultiplier = timeUnitRange == TimeUnitRange.QUARTER ? "4" : "12";
-            final String monthPart1 =
-                    timeUnitRange == TimeUnitRange.QUARTER
-                            ? translateExtractQuarter(strings.get(0)).getAggregationValue()
-                            : String.format("{'$month': %s}", strings.get(0));
-            final String monthPart2 =
-                    timeUnitRange == TimeUnitRange.QUARTER
-                            ? translateExtractQuarter(strings.get(1)).getAggregationValue()
-                            : String.format("{'$month': %s}", strings.get(1));
-            final String dateDiffMonthFormat =
-                    "{'$subtract': [ "
-                            + "{'$add': [ "
-                            + "{'$multiply': [%1$s, {'$year': %2$s}]}, "
-                            + "%4$s]}, "
-                            + "{'$add': [ "
-                            + "{'$multiply': [%1$s, {'$year': %3$s}]}, "
-                            + "%5$s]}]}";
-            return Operand.format(
-                    dateDiffMonthFormat,
-                    yearPartMultiplier,
-                    strings.get(0),
-                    strings.get(1),
-                    monthPart1,
-                    monthPart2);
-        }
-
-        private static Operand translateExtract(final RexCall call, final List<Operand> strings) {
-            // The first argument to extract is the interval (literal)
-            // and the second argument is the date (can be any node evaluating to a date).
-            final RexLiteral literal = (RexLiteral) call.getOperands().get(0);
-            final TimeUnitRange range = literal.getValueAs(TimeUnitRange.class);
-
-            if (range == TimeUnitRange.QUARTER) {
-                return translateExtractQuarter(strings.get(1));
-            }
-            return new Operand("{ " + quote(DATE_PART_OPERATORS.get(range)) + ": " + strings.get(1) + "}");
-        }
-
-        private static Operand translateExtractQuarter(final Operand date) {
-            final String extractQuarterFormatString =
-                    "{'$cond': [{'$lte': [{'$month': %1$s}, 3]}, 1,"
-                            + " {'$cond': [{'$lte': [{'$month': %1$s}, 6]}, 2,"
-                            + " {'$cond': [{'$lte': [{'$month': %1$s}, 9]}, 3,"
-                            + " {'$cond': [{'$lte': [{'$month': %1$s}, 12]}, 4,"
-                            + " null]}]}]}]}";
-            return Operand.format(extractQuarterFormatString, date);
-        }
-
-        public static Operand translateDayName(final RexCall rexCall, final List<Operand> strings) {
-            final String dayNameFormatString =
-                    " {'$cond': [{'$eq': [{'$dayOfWeek': %8$s}, 1]}, '%1$s',"
-                            + " {'$cond': [{'$eq': [{'$dayOfWeek': %8$s}, 2]}, '%2$s',"
-                            + " {'$cond': [{'$eq': [{'$dayOfWeek': %8$s}, 3]}, '%3$s',"
-                            + " {'$cond': [{'$eq': [{'$dayOfWeek': %8$s}, 4]}, '%4$s',"
-                            + " {'$cond': [{'$eq': [{'$dayOfWeek': %8$s}, 5]}, '%5$s',"
-                            + " {'$cond': [{'$eq': [{'$dayOfWeek': %8$s}, 6]}, '%6$s',"
-                            + " {'$cond': [{'$eq': [{'$dayOfWeek': %8$s}, 7]}, '%7$s',"
-                            + " null]}]}]}]}]}]}]}";
-            return Operand.format(dayNameFormatString,
-                    DayOfWeek.SUNDAY.getDisplayName(TextStyle.FULL, Locale.getDefault()),
-                    DayOfWeek.MONDAY.getDisplayName(TextStyle.FULL, Locale.getDefault()),
-                    DayOfWeek.TUESDAY.getDisplayName(TextStyle.FULL, Locale.getDefault()),
-                    DayOfWeek.WEDNESDAY.getDisplayName(TextStyle.FULL, Locale.getDefault()),
-                    DayOfWeek.THURSDAY.getDisplayName(TextStyle.FULL, Locale.getDefault()),
-                    DayOfWeek.FRIDAY.getDisplayName(TextStyle.FULL, Locale.getDefault()),
-                    DayOfWeek.SATURDAY.getDisplayName(TextStyle.FULL, Locale.getDefault()),
-                    strings.get(0));
-        }
-
-        public static Operand translateMonthName(final RexCall rexCall, final List<Operand> strings) {
-            final String monthNameFormatString =
-                    "{'$cond': [{'$eq': [{'$month': %13$s}, 1]}, '%1$s',"
-                    + " {'$cond': [{'$eq': [{'$month': %13$s}, 2]}, '%2$s',"
-                    + " {'$cond': [{'$eq': [{'$month': %13$s}, 3]}, '%3$s',"
-                    + " {'$cond': [{'$eq': [{'$month': %13$s}, 4]}, '%4$s',"
-                    + " {'$cond': [{'$eq': [{'$month': %13$s}, 5]}, '%5$s',"
-                    + " {'$cond': [{'$eq': [{'$month': %13$s}, 6]}, '%6$s',"
-                    + " {'$cond': [{'$eq': [{'$month': %13$s}, 7]}, '%7$s',"
-                    + " {'$cond': [{'$eq': [{'$month': %13$s}, 8]}, '%8$s',"
-                    + " {'$cond': [{'$eq': [{'$month': %13$s}, 9]}, '%9$s',"
-                    + " {'$cond': [{'$eq': [{'$month': %13$s}, 10]}, '%10$s',"
-                    + " {'$cond': [{'$eq': [{'$month': %13$s}, 11]}, '%11$s',"
-                    + " {'$cond': [{'$eq': [{'$month': %13$s}, 12]}, '%12$s',"
-                    + " null]}]}]}]}]}]}]}]}]}]}]}]}";
-            return Operand.format(monthNameFormatString,
-                    Month.JANUARY.getDisplayName(TextStyle.FULL, Locale.getDefault()),
-                    Month.FEBRUARY.getDisplayName(TextStyle.FULL, Locale.getDefault()),
-                    Month.MARCH.getDisplayName(TextStyle.FULL, Locale.getDefault()),
-                    Month.APRIL.getDisplayName(TextStyle.FULL, Locale.getDefault()),
-                    Month.MAY.getDisplayName(TextStyle.FULL, Locale.getDefault()),
-                    Month.JUNE.getDisplayName(TextStyle.FULL, Locale.getDefault()),
-                    Month.JULY.getDisplayName(TextStyle.FULL, Locale.getDefault()),
-                    Month.AUGUST.getDisplayName(TextStyle.FULL, Locale.getDefault()),
-                    Month.SEPTEMBER.getDisplayName(TextStyle.FULL, Locale.getDefault()),
-                    Month.OCTOBER.getDisplayName(TextStyle.FULL, Locale.getDefault()),
-                    Month.NOVEMBER.getDisplayName(TextStyle.FULL, Locale.getDefault()),
-                    Month.DECEMBER.getDisplayName(TextStyle.FULL, Locale.getDefault()),
-                    strings.get(0));
-        }
-
-        @SneakyThrows
-        private static Operand translateFloor(final RexCall rexCall, final List<Operand> strings) {
-            // TODO: Add support for integer floor with one operand
-            if (rexCall.operands.size() != 2) {
-                return null;
-            }
-
-            // NOTE: Required for getting FLOOR of date-time
-            final RexNode operand2 = rexCall.operands.get(1);
-            if (!(operand2.isA(SqlKind.LITERAL)
-                    && operand2.getType().getSqlTypeName() == SqlTypeName.SYMBOL
-                    && (((RexLiteral) operand2).getValue() instanceof TimeUnitRange))) {
-                return null;
-            }
-            final RexLiteral literal = (RexLiteral) operand2;
-            final TimeUnitRange timeUnitRange = getValueAs(literal, TimeUnitRange.class);
-            switch (timeUnitRange) {
-                case YEAR:
-                case MONTH:
-                    return new Operand(formatYearMonthFloorOperation(strings, timeUnitRange));
-                case QUARTER:
-                    return new Operand(formatQuarterFloorOperation(strings));
-                case WEEK:
-                case DAY:
-                case HOUR:
-                case MINUTE:
-                case SECOND:
-                case MILLISECOND:
-                    return formatMillisecondFloorOperation(strings, timeUnitRange);
-                default:
-                    throw SqlError.createSQLFeatureNotSupportedException(LOGGER,
-                            SqlError.UNSUPPORTED_PROPERTY, timeUnitRange.toString());
-            }
-        }
-
-        private static String formatYearMonthFloorOperation(
-                final List<Operand> strings,
-                final TimeUnitRange timeUnitRange) {
-            final String monthFormat = timeUnitRange == TimeUnitRange.YEAR ? "01" : "%m";
-            return formatYearMonthFloorOperation(strings.get(0), monthFormat);
-        }
-
-        private static String formatYearMonthFloorOperation(
-                final Operand dateOperand,
-                final String monthFormat) {
-            final String yearFormat = "%Y";
-            return String.format(
-                    "{'$dateFromString': {'dateString':"
-                            + " {'$dateToString':"
-                            + " {'date': %1$s, 'format': '%2$s-%3$s-01T00:00:00Z'}}}}",
-                    dateOperand, yearFormat, monthFormat);
-        }
-
-        private static Operand formatMillisecondFloorOperation(
-                final List<Operand> strings,
-                final TimeUnitRange timeUnitRange) throws SQLFeatureNotSupportedException {
-
-            final Instant baseDate = timeUnitRange == TimeUnitRange.WEEK
-                    ? FIRST_DAY_OF_WEEK_AFTER_EPOCH // Monday (or first day of week)
-                    : Instant.EPOCH;
-            final long divisorLong = getDivisorValueForNumericFloor(timeUnitRange);
-            final String divisor = String.format(
-                    "{\"$numberLong\": \"%d\"}", divisorLong);
-            final String subtract = String.format(
-                    "{\"$subtract\": [%s, {\"$date\": {\"$numberLong\": \"%d\"}}]}",
-                    strings.get(0), baseDate.toEpochMilli());
-            final Operand divide = getIntegerDivisionOperation(subtract, divisor);
-            final String multiply =  String.format(
-                    "{\"$multiply\": [%s, %s]}", divisor, divide);
-            return Operand.format(
-                    "{\"$add\": [{\"$date\": {\"$numberLong\": \"%d\"}}, %s]}",
-                    baseDate.toEpochMilli(), multiply);
-        }
-
-        private static String formatQuarterFloorOperation(final List<Operand> strings) {
-            final String truncateQuarterFormatString =
-                    "{'$cond': [{'$lte': [{'$month': %1$s}, 3]}, %2$s,"
-                            + " {'$cond': [{'$lte': [{'$month': %1$s}, 6]}, %3$s,"
-                            + " {'$cond': [{'$lte': [{'$month': %1$s}, 9]}, %4$s,"
-                            + " {'$cond': [{'$lte': [{'$month': %1$s}, 12]}, %5$s,"
-                            + " null]}]}]}]}";
-            final String monthFormatJanuary = "01";
-            final String monthFormatApril = "04";
-            final String monthFormatJuly = "07";
-            final String monthFormatOctober = "10";
-            return String.format(truncateQuarterFormatString,
-                    strings.get(0),
-                    formatYearMonthFloorOperation(strings.get(0), monthFormatJanuary),
-                    formatYearMonthFloorOperation(strings.get(0), monthFormatApril),
-                    formatYearMonthFloorOperation(strings.get(0), monthFormatJuly),
-                    formatYearMonthFloorOperation(strings.get(0), monthFormatOctober));
-        }
-
-        private static long getDivisorValueForNumericFloor(final TimeUnitRange timeUnitRange)
-                throws SQLFeatureNotSupportedException {
-            final long divisorLong;
-            switch (timeUnitRange) {
-                case WEEK:
-                    divisorLong = ChronoUnit.WEEKS.getDuration().toMillis();
-                    break;
-                case DAY:
-                    divisorLong = ChronoUnit.DAYS.getDuration().toMillis();
-                    break;
-                case HOUR:
-                    divisorLong = ChronoUnit.HOURS.getDuration().toMillis();
-                    break;
-                case MINUTE:
-                    divisorLong = ChronoUnit.MINUTES.getDuration().toMillis();
-                    break;
-                case SECOND:
-                    divisorLong = ChronoUnit.SECONDS.getDuration().toMillis();
-                    break;
-                case MILLISECOND:
-                    divisorLong = 1;
-                    break;
-                default:
-                    throw SqlError.createSQLFeatureNotSupportedException(LOGGER,
-                            SqlError.UNSUPPORTED_PROPERTY, timeUnitRange.toString());
-            }
-            return divisorLong;
-        }
-    }
-
-    /**
-     * Translates expressions using only query operators.
-     */
-    private static class SimpleMatchTranslator {
-        private static final Map<SqlOperator, String> REVERSE_OPERATORS =
-                new HashMap<>();
-        static {
-            REVERSE_OPERATORS.put(SqlStdOperatorTable.EQUALS, "$eq");
-            REVERSE_OPERATORS.put(SqlStdOperatorTable.NOT_EQUALS, "$ne");
-            REVERSE_OPERATORS.put(SqlStdOperatorTable.GREATER_THAN, "$lte");
-            REVERSE_OPERATORS.put(SqlStdOperatorTable.GREATER_THAN_OR_EQUAL, "$lt");
-            REVERSE_OPERATORS.put(SqlStdOperatorTable.LESS_THAN, "$gte");
-            REVERSE_OPERATORS.put(SqlStdOperatorTable.LESS_THAN_OR_EQUAL, "$gt");
-        }
-
-        private static String getObjectIdComparisonOperator(
-                final RexCall call,
-                final List<Operand> strings,
-                final String stdOperator
-        ) throws SQLException {
-            // $or together the $oid and native operations.
-            final String nativeOperation = getComparisonOperator(call, strings, stdOperator);
-            final String oidOperation = getComparisonOperator(call, reformatObjectIdOperands(call, strings), stdOperator);
-            if (nativeOperation != null && oidOperation != null) {
-                return "{\"$or\": [" + oidOperation + ", " + nativeOperation + "]}";
-            }
-            return null;
-        }
-
-        private static String getComparisonOperator(
-                final RexCall call,
-                final List<Operand> strings,
-                final String stdOperator) {
-            // Handle NOT if the argument is a field reference.
-            if (call.isA(SqlKind.NOT) && strings.get(0).isInputRef()) {
-                return "{" + strings.get(0).getQueryValue() + ": false}";
-            }
-            // If given 2 arguments, attempt to do a binary comparison. Only 1 side can be a field reference.
-            // The other side must be a literal or an expression that can be supported without aggregate operators.
-            if (strings.size() == 2) {
-                final Operand left = strings.get(0);
-                final Operand right = strings.get(1);
-                final String reverseOp = REVERSE_OPERATORS.get(call.getOperator());
-                final String simpleComparison = formatSimpleBinaryComparison(stdOperator, left, right);
-                if (simpleComparison != null) {
-                    return simpleComparison;
-                }
-                // Try to return a simple comparison by swapping the operands or return null.
-                return formatSimpleBinaryComparison(reverseOp, right, left);
-            }
-            // For any other scenario, return null.
-            return null;
-        }
-
-        private static String getAndOrOperator(final List<Operand> operands, final String op) {
-            final StringBuilder simple = new StringBuilder();
-            simple.append("{").append(op).append(": [");
-            for (Operand value: operands) {
-                // If any operand is null, return null.
-                if (value.getQueryValue() == null) {
-                    return null;
-                }
-                simple.append(value.isInputRef() ? "{" + value.getQueryValue() + ": true}" : value.getQueryValue());
-                simple.append(",");
-
-            }
-            simple.deleteCharAt(simple.length() - 1);
-            simple.append("]}");
-            return simple.toString();
-        }
-
-        private static String formatSimpleBinaryComparison(
-                final String op,
-                final Operand leftOperand,
-                final Operand rightOperand
-        ) {
-            // If left side is field reference and the right side is not and neither query values are null,
-            // return the simple comparison.
-            if (leftOperand.isInputRef()
-                    && rightOperand.isQuerySyntax()
-                    && leftOperand.getQueryValue() != null
-                    && rightOperand.getQueryValue() != null) {
-                String comparison = "{" +  leftOperand.getQueryValue() + ": {" + op + ": " + rightOperand.getQueryValue() + "}}";
-
-                // For not equals, need to also handle that value is not null or undefined.
-                if (op.equals(RexToMongoTranslator.MONGO_OPERATORS.get(SqlStdOperatorTable.NOT_EQUALS))) {
-                    comparison = "{" + leftOperand.getQueryValue() + ": {$nin: [null, " + rightOperand.getQueryValue() + "]}}";
-                }
-                return comparison;
-            }
-            return null;
-        }
-
-        private static String getNullCheckOperator(
-                final RexCall call,
-                final List<Operand> operands
-        ) {
-            final String op = call.getOperator() == SqlStdOperatorTable.IS_NULL ? "$eq" : "$ne";
-            return operands.get(0).isInputRef()
-                    ? "{" + operands.get(0).getQueryValue() + ": {" + op + ": null }}"
-                    : null;
-        }
-    }
-
-    private static class StringFunctionTranslator {
-        private static final Map<SqlOperator, String> STRING_OPERATORS =
-                new HashMap<>();
-
-        static {
-            STRING_OPERATORS.put(SqlStdOperatorTable.CONCAT, "$concat");
-            STRING_OPERATORS.put(SqlStdOperatorTable.LOWER, "$toLower");
-            STRING_OPERATORS.put(SqlStdOperatorTable.UPPER, "$toUpper");
-            STRING_OPERATORS.put(SqlStdOperatorTable.CHAR_LENGTH, "$strLenCP");
-            STRING_OPERATORS.put(SqlStdOperatorTable.SUBSTRING, "$substrCP");
-            STRING_OPERATORS.put(SqlStdOperatorTable.POSITION, "$indexOfCP");
-        }
-
-        private static Operand getMongoAggregateForSubstringOperator(
-                final RexCall call,
-                final List<Operand> strings) {
-            final List<Operand> inputs = new ArrayList<>(strings);
-            // Convert from one-indexed to zero-indexed
-            inputs.set(1, new Operand("{\"$subtract\": [" + inputs.get(1) + ", 1]}"));
-            if (inputs.size() == 2) {
-                inputs.add(new Operand(String.valueOf(Integer.MAX_VALUE)));
-            }
-            return new Operand("{"
-                    + STRING_OPERATORS.get(SqlStdOperatorTable.SUBSTRING) + ": [" + Util.commaList(inputs) + "]}");
-        }
-
-        private static Operand getMongoAggregateForConcatOperator(
-                final RexCall call,
-                final List<Operand> strings) {
-            // If using CONCAT function instead of operator, convert any null values to empty string.
-            final List<String> inputs =
-                    strings.stream()
-                            .map(string ->
-                                    call.getOperator() == SqlLibraryOperators.CONCAT_FUNCTION
-                                            ? "{\"$ifNull\": [" + string + ", \"\" ]}"
-                                            : string.toString())
-                            .collect(Collectors.toList());
-            return new Operand("{" + STRING_OPERATORS.get(SqlStdOperatorTable.CONCAT)
-                    + ": [" + Util.commaList(inputs) + "]}");
-        }
-        private static Operand getMongoAggregateForPositionStringOperator(
-                final RexCall call,
-                final List<Operand> strings) {
-            final List<String> args = new ArrayList<>();
-            final StringBuilder operand = new StringBuilder();
-            final StringBuilder finish = new StringBuilder();
-            // Comparison is case-insensitive so convert both strings to same case.
-            // Note also that argument order in $indexOfCP needs to be string, substring, [startIndex].
-            args.add("{" + STRING_OPERATORS.get(SqlStdOperatorTable.LOWER) + ":" + strings.get(1) + "}");
-            args.add("{" + STRING_OPERATORS.get(SqlStdOperatorTable.LOWER) + ":" + strings.get(0) + "}");
-            // Check if either string is null.
-            operand.append("{\"$cond\": [").append(RexToMongoTranslator.getNullCheckExpr(strings)).append(", ");
-            // Add starting index if any.
-            if (strings.size() == 3) {
-                args.add("{\"$subtract\": [" + strings.get(2) + ", 1]}"); // Convert to 0-based.
-                operand.append("{\"$cond\": [{\"$lte\": [").append(strings.get(2)).append(", 0]}, 0, "); // Check if 1-based index > 0.
-                finish.append("]}");
-            }
-            // Convert 0-based index to 1-based.
-            operand.append("{\"$add\": [{").append(STRING_OPERATORS.get(SqlStdOperatorTable.POSITION)).append(": [").append(Util.commaList(args)).append("]}, 1]}");
-            operand.append(finish);
-            operand.append(", null ]}");
-            // Return 1-based index when string is found.
-            // Returns null if either base string or substring is null.
-            // Returns 0 if substring cannot be found or index (if any) is null or non-positive.
-            return new Operand(operand.toString());
-        }
-
-        private static Operand getMongoAggregateForStringOperator(
-                final RexCall call,
-                final List<Operand> strings) {
-            // Add a null check since these operators do not handle null or missing expressions correctly.
-            return new Operand("{\"$cond\": ["
-                    + RexToMongoTranslator.getNullCheckExpr(strings)
-                    + ", "
-                    + "{" + STRING_OPERATORS.get(call.getOperator()) + ": " + strings.get(0) + "}"
-                    + ", null]}");
-        }
-
-        private static Operand getMongoAggregateForLeftOperator(
-                final RexCall call,
-                final List<Operand> strings) {
-            final List<Operand> inputs = new ArrayList<>();
-            inputs.add(strings.get(0));
-            // Substring as if starting from left. Start index = 0.
-            inputs.add(new Operand("0"));
-            inputs.add(strings.get(1));
-            // Returns substring starting from 0 to given length.
-            // If length is greater than length of string, the entire string will be returned.
-            return new Operand("{\"$cond\": ["
-                    + "{\"$and\": ["
-                    + RexToMongoTranslator.getNullCheckExpr(strings)
-                    + ", "
-                    + "{\"$gte\":[" + strings.get(1) + ", 0]}"
-                    + "]}, "
-                    + "{" + STRING_OPERATORS.get(SqlStdOperatorTable.SUBSTRING) + ": [" + Util.commaList(inputs) + "]}"
-                    + ", null]}");
-        }
-
-        private static Operand getMongoAggregateForRightOperator(
-                final RexCall call,
-                final List<Operand> strings) {
-            final List<Operand> inputs = new ArrayList<>();
-            inputs.add(strings.get(0));
-            // Substring as if starting from right. Start index = length - # of chars
-            inputs.add(new Operand("{\"$subtract\": [ "
-                    + "{" + STRING_OPERATORS.get(SqlStdOperatorTable.CHAR_LENGTH) + ":" + strings.get(0) + "}, "
-                    + strings.get(1) + "]}"));
-            inputs.add(strings.get(1));
-            // If string length is less than or equal to number of characters then return the entire
-            // string. Else, return substring.
-            return new Operand("{\"$cond\": ["
-                    + "{\"$and\": ["
-                    + RexToMongoTranslator.getNullCheckExpr(strings)
-                    + ", "
-                    + "{\"$gte\":[" + strings.get(1) + ", 0]}"
-                    + "]}, "
-                    + "{\"$cond\": [ "
-                    + "{\"$lte\": ["
-                    + "{" + STRING_OPERATORS.get(SqlStdOperatorTable.CHAR_LENGTH) + ":" + strings.get(0) + "}, "
-                    + strings.get(1) + "]}, "
-                    + strings.get(0) + ", "
-                    + "{" + STRING_OPERATORS.get(SqlStdOperatorTable.SUBSTRING) + ": [" + Util.commaList(inputs) + "]}]}"
-                    + ", null]}");
-        }
-    }
-
     /** Base class for planner rules that convert a relational expression to
      * MongoDB calling convention. */
     abstract static class DocumentDbConverterRule extends ConverterRule {
@@ -1408,6 +1084,12 @@ public final class DocumentDbRules {
                         DocumentDbRel.CONVENTION, "DocumentDbFilterRule")
                 .withRuleFactory(DocumentDbFilterRule::new)
                 .toRule(DocumentDbFilterRule.class);
+        static final DocumentDbFilterRule HYBRID_INSTANCE = Config.INSTANCE
+                .withConversion(LogicalFilter.class,
+                        (LogicalFilter filter) -> RexToMongoTranslator.isTranslatable(filter.getCondition()),
+                        Convention.NONE, DocumentDbRel.CONVENTION, "DocumentDbHybridFilterRule")
+                .withRuleFactory(DocumentDbFilterRule::new)
+                .toRule(DocumentDbFilterRule.class);
 
         DocumentDbFilterRule(final Config config) {
             super(config);
@@ -1430,8 +1112,15 @@ public final class DocumentDbRules {
      */
     private static class DocumentDbProjectRule extends DocumentDbConverterRule {
         static final DocumentDbProjectRule INSTANCE = Config.INSTANCE
-                .withConversion(LogicalProject.class, Convention.NONE,
-                        DocumentDbRel.CONVENTION, "DocumentDbProjectRule")
+                .withConversion(LogicalProject.class, (LogicalProject project) -> !project.containsOver(),
+                        Convention.NONE, DocumentDbRel.CONVENTION, "DocumentDbProjectRule")
+                .withRuleFactory(DocumentDbProjectRule::new)
+                .toRule(DocumentDbProjectRule.class);
+        static final DocumentDbProjectRule HYBRID_INSTANCE = Config.INSTANCE
+                .withConversion(LogicalProject.class,
+                        (LogicalProject project) -> project.getProjects().stream()
+                                .allMatch(RexToMongoTranslator::isTranslatable),
+                        Convention.NONE, DocumentDbRel.CONVENTION, "DocumentDbHybridProjectRule")
                 .withRuleFactory(DocumentDbProjectRule::new)
                 .toRule(DocumentDbProjectRule.class);
 
@@ -1459,6 +1148,12 @@ public final class DocumentDbRules {
                 .withRuleFactory(DocumentDbJoinRule::new)
                 .toRule(DocumentDbJoinRule.class);
 
+        private static final DocumentDbJoinRule PUSHABLE_INSTANCE = Config.INSTANCE
+                .withConversion(LogicalJoin.class, DocumentDbJoin::isPushable, Convention.NONE,
+                        DocumentDbRel.CONVENTION, "DocumentDbPushableJoinRule")
+                .withRuleFactory(DocumentDbJoinRule::new)
+                .toRule(DocumentDbJoinRule.class);
+
         protected DocumentDbJoinRule(final Config config) {
             super(config);
         }
@@ -1676,6 +1371,202 @@ public final class DocumentDbRules {
         }
     }
 
+    /**
+     * Rule to aggregate the right input of a $lookup join before the join. This applies when
+     * the query groups by fields of the left input and only aggregates fields of the right input,
+     * so each left document matches a single document with the partial aggregates of its matching
+     * right documents instead of every matching document. The partial aggregates are then combined
+     * for each group.
+     */
+    public static class DocumentDbAggregateLookupTransposeRule
+            extends RelRule<DocumentDbRuleConfig> {
+        static final DocumentDbAggregateLookupTransposeRule INSTANCE = new DocumentDbAggregateLookupTransposeRule(
+                DocumentDbRuleConfig.of(DocumentDbAggregateLookupTransposeRule::new,
+                        "DocumentDbAggregateLookupTransposeRule",
+                        b0 -> b0.operand(LogicalAggregate.class)
+                                .oneInput(b1 -> b1.operand(LogicalJoin.class)
+                                        .predicate(DocumentDbJoin::isLookupInnerJoin)
+                                        .anyInputs())));
+        private static final Set<SqlAggFunction> SPLITTABLE_FUNCTIONS = ImmutableSet.of(
+                SqlStdOperatorTable.COUNT,
+                SqlStdOperatorTable.SUM,
+                SqlStdOperatorTable.SUM0,
+                SqlStdOperatorTable.MIN,
+                SqlStdOperatorTable.MAX);
+
+        DocumentDbAggregateLookupTransposeRule(final DocumentDbRuleConfig config) {
+            super(config);
+        }
+
+        @Override public void onMatch(final RelOptRuleCall call) {
+            final LogicalAggregate aggregate = call.rel(0);
+            final LogicalJoin join = call.rel(1);
+            final int leftCount = join.getLeft().getRowType().getFieldCount();
+            if (!isSplittable(aggregate, leftCount)) {
+                return;
+            }
+            final List<Integer> leftKeys = new ArrayList<>();
+            final List<Integer> rightKeys = new ArrayList<>();
+            RelOptUtil.splitJoinCondition(join.getLeft(), join.getRight(), join.getCondition(),
+                    leftKeys, rightKeys, new ArrayList<>(), new ArrayList<>());
+            final int leftKey = leftKeys.get(0);
+            final int rightKey = rightKeys.get(0);
+
+            // Nothing is gained if the right input already has a single row for each key.
+            final Pair<DocumentDbTable, DocumentDbSchemaColumn> rightOrigin =
+                    DocumentDbJoin.getColumnOrigin(join.getRight(), rightKey);
+            if (rightOrigin == null
+                    || DocumentDbJoin.isIndexedForeignKey(rightOrigin.right, rightOrigin.left.getTableMetadata())
+                    || Boolean.TRUE.equals(call.getMetadataQuery()
+                            .areColumnsUnique(join.getRight(), ImmutableBitSet.of(rightKey)))) {
+                return;
+            }
+
+            // Aggregate the right input by the join key.
+            final RelBuilder builder = call.builder();
+            builder.push(join.getLeft());
+            builder.push(join.getRight());
+            final List<RelBuilder.AggCall> partialCalls = new ArrayList<>();
+            for (AggregateCall aggCall : aggregate.getAggCallList()) {
+                final List<RexNode> operands = new ArrayList<>();
+                for (int arg : aggCall.getArgList()) {
+                    operands.add(builder.field(arg - leftCount));
+                }
+                partialCalls.add(builder.aggregateCall(aggCall.getAggregation(), operands));
+            }
+            builder.aggregate(builder.groupKey(builder.field(rightKey)), partialCalls);
+            builder.join(JoinRelType.INNER,
+                    builder.equals(builder.field(2, 0, leftKey), builder.field(2, 1, 0)));
+
+            // Combine the partial aggregates of each group. Counts are added together.
+            final List<RelBuilder.AggCall> finalCalls = new ArrayList<>();
+            for (int i = 0; i < aggregate.getAggCallList().size(); i++) {
+                final AggregateCall aggCall = aggregate.getAggCallList().get(i);
+                final SqlAggFunction aggregation = aggCall.getAggregation() == SqlStdOperatorTable.COUNT
+                        ? SqlStdOperatorTable.SUM0
+                        : aggCall.getAggregation();
+                finalCalls.add(builder.aggregateCall(aggregation, builder.field(leftCount + 1 + i))
+                        .as(aggCall.getName()));
+            }
+            builder.aggregate(builder.groupKey(aggregate.getGroupSet()), finalCalls);
+            builder.convert(aggregate.getRowType(), false);
+            call.transformTo(builder.build());
+        }
+
+        /**
+         * Gets whether the aggregate groups by fields of the left input of the join and its calls
+         * can be computed from partial aggregates of the right input.
+         */
+        private static boolean isSplittable(final Aggregate aggregate, final int leftCount) {
+            if (aggregate.getGroupType() != Aggregate.Group.SIMPLE
+                    || aggregate.getGroupSet().isEmpty()
+                    || aggregate.getGroupSet().nth(aggregate.getGroupCount() - 1) >= leftCount
+                    || aggregate.getAggCallList().isEmpty()) {
+                return false;
+            }
+            for (AggregateCall aggCall : aggregate.getAggCallList()) {
+                if (aggCall.isDistinct() || aggCall.filterArg >= 0
+                        || !SPLITTABLE_FUNCTIONS.contains(aggCall.getAggregation())
+                        || aggCall.getArgList().stream().anyMatch(arg -> arg < leftCount)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Rule to convert a {@link LogicalWindow} to a {@link DocumentDbWindow}. Only windows with
+     * functions and frames supported by $setWindowFields are converted.
+     */
+    private static class DocumentDbWindowRule extends DocumentDbConverterRule {
+        static final DocumentDbWindowRule INSTANCE = Config.INSTANCE
+                .withConversion(LogicalWindow.class, DocumentDbWindow::isPushable,
+                        Convention.NONE, DocumentDbRel.CONVENTION, "DocumentDbWindowRule")
+                .withRuleFactory(DocumentDbWindowRule::new)
+                .toRule(DocumentDbWindowRule.class);
+
+        DocumentDbWindowRule(final Config config) {
+            super(config);
+        }
+
+        @Override public RelNode convert(final RelNode rel) {
+            final LogicalWindow window = (LogicalWindow) rel;
+            final RelTraitSet traitSet = window.getTraitSet().replace(out);
+            return new DocumentDbWindow(rel.getCluster(), traitSet,
+                    convert(window.getInput(), out), window.constants, window.getRowType(),
+                    window.groups);
+        }
+    }
+
+    /**
+     * Rule to convert a {@link LogicalUnion} to a {@link DocumentDbUnion}.
+     */
+    private static class DocumentDbUnionRule extends DocumentDbConverterRule {
+        static final DocumentDbUnionRule INSTANCE = Config.INSTANCE
+                .withConversion(LogicalUnion.class, Convention.NONE,
+                        DocumentDbRel.CONVENTION, "DocumentDbUnionRule")
+                .withRuleFactory(DocumentDbUnionRule::new)
+                .toRule(DocumentDbUnionRule.class);
+
+        DocumentDbUnionRule(final Config config) {
+            super(config);
+        }
+
+        @Override public RelNode convert(final RelNode rel) {
+            final LogicalUnion union = (LogicalUnion) rel;
+            final RelTraitSet traitSet = union.getTraitSet().replace(out);
+            return new DocumentDbUnion(rel.getCluster(), traitSet,
+                    convertList(union.getInputs(), out), union.all);
+        }
+    }
+
+    /**
+     * Rule to convert a {@link LogicalIntersect} to a {@link DocumentDbIntersect}.
+     * INTERSECT ALL is not converted.
+     */
+    private static class DocumentDbIntersectRule extends DocumentDbConverterRule {
+        static final DocumentDbIntersectRule INSTANCE = Config.INSTANCE
+                .withConversion(LogicalIntersect.class, (LogicalIntersect intersect) -> !intersect.all,
+                        Convention.NONE, DocumentDbRel.CONVENTION, "DocumentDbIntersectRule")
+                .withRuleFactory(DocumentDbIntersectRule::new)
+                .toRule(DocumentDbIntersectRule.class);
+
+        DocumentDbIntersectRule(final Config config) {
+            super(config);
+        }
+
+        @Override public RelNode convert(final RelNode rel) {
+            final LogicalIntersect intersect = (LogicalIntersect) rel;
+            final RelTraitSet traitSet = intersect.getTraitSet().replace(out);
+            return new DocumentDbIntersect(rel.getCluster(), traitSet,
+                    convertList(intersect.getInputs(), out), intersect.all);
+        }
+    }
+
+    /**
+     * Rule to convert a {@link LogicalMinus} to a {@link DocumentDbMinus}.
+     * EXCEPT ALL is not converted.
+     */
+    private static class DocumentDbMinusRule extends DocumentDbConverterRule {
+        static final DocumentDbMinusRule INSTANCE = Config.INSTANCE
+                .withConversion(LogicalMinus.class, (LogicalMinus minus) -> !minus.all,
+                        Convention.NONE, DocumentDbRel.CONVENTION, "DocumentDbMinusRule")
+                .withRuleFactory(DocumentDbMinusRule::new)
+                .toRule(DocumentDbMinusRule.class);
+
+        DocumentDbMinusRule(final Config config) {
+            super(config);
+        }
+
+        @Override public RelNode convert(final RelNode rel) {
+            final LogicalMinus minus = (LogicalMinus) rel;
+            final RelTraitSet traitSet = minus.getTraitSet().replace(out);
+            return new DocumentDbMinus(rel.getCluster(), traitSet,
+                    convertList(minus.getInputs(), out), minus.all);
+        }
+    }
+
     /**
      * Container for operands with optional column metadata.
      */
@@ -1776,173 +1667,6 @@ public final class DocumentDbRules {
     }
 
     /*
-    /**
-     * Rule to convert an {@link org.apache.calcite.rel.logical.Union} to a
-     * {@link MongoUnionRel}.
-     o/
-    private static class MongoUnionRule
-        extends DocumentDbConverterRule {
-      private MongoUnionRule(MongoConvention out) {
-        super(
-            Union.class,
-            Convention.NONE,
-            out,
-            "MongoUnionRule");
-      }
-
-      public RelNode convert(RelNode rel) {
-        final Union union = (Union) rel;
-        final RelTraitSet traitSet =
-            union.getTraitSet().replace(out);
-        return new MongoUnionRel(
-            rel.getCluster(),
-            traitSet,
-            convertList(union.getInputs(), traitSet),
-            union.all);
-      }
-    }
-
-    public static class MongoUnionRel
-        extends Union
-        implements MongoRel {
-      public MongoUnionRel(
-          RelOptCluster cluster,
-          RelTraitSet traitSet,
-          List<RelNode> inputs,
-          boolean all) {
-        super(cluster, traitSet, inputs, all);
-      }
-
-      public MongoUnionRel copy(
-          RelTraitSet traitSet, List<RelNode> inputs, boolean all) {
-        return new MongoUnionRel(getCluster(), traitSet, inputs, all);
-      }
-
-      @Override public RelOptCost computeSelfCost(RelOptPlanner planner) {
-        return super.computeSelfCost(planner).multiplyBy(.1);
-      }
-
-      public SqlString implement(MongoImplementor implementor) {
-        return setOpSql(this, implementor, "UNION");
-      }
-    }
-
-    private static SqlString setOpSql(
-        SetOp setOpRel, MongoImplementor implementor, String op) {
-      final SqlBuilder buf = new SqlBuilder(implementor.dialect);
-      for (Ord<RelNode> input : Ord.zip(setOpRel.getInputs())) {
-        if (input.i > 0) {
-          implementor.newline(buf)
-              .append(op + (setOpRel.all ? " ALL " : ""));
-          implementor.newline(buf);
-        }
-        buf.append(implementor.visitChild(input.i, input.e));
-      }
-      return buf.toSqlString();
-    }
-
-    /**
-     * Rule to convert an {@link org.apache.calcite.rel.logical.LogicalIntersect}
-     * to an {@link MongoIntersectRel}.
-     o/
-    private static class MongoIntersectRule
-        extends DocumentDbConverterRule {
-      private MongoIntersectRule(MongoConvention out) {
-        super(
-            LogicalIntersect.class,
-            Convention.NONE,
-            out,
-            "MongoIntersectRule");
-      }
-
-      public RelNode convert(RelNode rel) {
-        final LogicalIntersect intersect = (LogicalIntersect) rel;
-        if (intersect.all) {
-          return null; // INTERSECT ALL not implemented
-        }
-        final RelTraitSet traitSet =
-            intersect.getTraitSet().replace(out);
-        return new MongoIntersectRel(
-            rel.getCluster(),
-            traitSet,
-            convertList(intersect.getInputs(), traitSet),
-            intersect.all);
-      }
-    }
-
-    public static class MongoIntersectRel
-        extends Intersect
-        implements MongoRel {
-      public MongoIntersectRel(
-          RelOptCluster cluster,
-          RelTraitSet traitSet,
-          List<RelNode> inputs,
-          boolean all) {
-        super(cluster, traitSet, inputs, all);
-        assert !all;
-      }
-
-      public MongoIntersectRel copy(
-          RelTraitSet traitSet, List<RelNode> inputs, boolean all) {
-        return new MongoIntersectRel(getCluster(), traitSet, inputs, all);
-      }
-
-      public SqlString implement(MongoImplementor implementor) {
-        return setOpSql(this, implementor, " intersect ");
-      }
-    }
-
-    /**
-     * Rule to convert an {@link org.apache.calcite.rel.logical.LogicalMinus}
-     * to an {@link MongoMinusRel}.
-     o/
-    private static class MongoMinusRule
-        extends DocumentDbConverterRule {
-      private MongoMinusRule(MongoConvention out) {
-        super(
-            LogicalMinus.class,
-            Convention.NONE,
-            out,
-            "MongoMinusRule");
-      }
-
-      public RelNode convert(RelNode rel) {
-        final LogicalMinus minus = (LogicalMinus) rel;
-        if (minus.all) {
-          return null; // EXCEPT ALL not implemented
-        }
-        final RelTraitSet traitSet =
-            rel.getTraitSet().replace(out);
-        return new MongoMinusRel(
-            rel.getCluster(),
-            traitSet,
-            convertList(minus.getInputs(), traitSet),
-            minus.all);
-      }
-    }
-
-    public static class MongoMinusRel
-        extends Minus
-        implements MongoRel {
-      public MongoMinusRel(
-          RelOptCluster cluster,
-          RelTraitSet traitSet,
-          List<RelNode> inputs,
-          boolean all) {
-        super(cluster, traitSet, inputs, all);
-        assert !all;
-      }
-
-      public MongoMinusRel copy(
-          RelTraitSet traitSet, List<RelNode> inputs, boolean all) {
-        return new MongoMinusRel(getCluster(), traitSet, inputs, all);
-      }
-
-      public SqlString implement(MongoImplementor implementor) {
-        return setOpSql(this, implementor, " minus ");
-      }
-    }
-
     public static class MongoValuesRule extends DocumentDbConverterRule {
       private MongoValuesRule(MongoConvention out) {
         super(
@@ -40,6 +40,8 @@ public class DocumentDbSchema extends AbstractSchema {
     private Map<String, Table> tables;
     private final DocumentDbDatabaseSchemaMetadata databaseMetadata;
     private final String databaseName;
+    private final boolean hybridExecution;
+    private final boolean windowFunctionPushdown;
 
     /**
      * Constructs a new {@link DocumentDbSchema} from {@link DocumentDbDatabaseSchemaMetadata}.
@@ -50,6 +52,8 @@ public class DocumentDbSchema extends AbstractSchema {
             final DocumentDbConnectionProperties connectionProperties) {
         this.databaseMetadata = databaseMetadata;
         this.databaseName = connectionProperties.getDatabase();
+        this.hybridExecution = connectionProperties.getHybridExecution();
+        this.windowFunctionPushdown = connectionProperties.getWindowFunctionPushdown();
         tables = null;
     }
 
@@ -77,7 +81,12 @@ public class DocumentDbSchema extends AbstractSchema {
                     SqlError.INCONSISTENT_SCHEMA,
                     tableName);
         }
-        return new DocumentDbTable(schemaTable.getCollectionName(), schemaTable);
+        return DocumentDbTable.builder()
+                .collectionName(schemaTable.getCollectionName())
+                .tableMetadata(schemaTable)
+                .hybridExecution(hybridExecution)
+                .windowFunctionPushdown(windowFunctionPushdown)
+                .build();
     }
 
 
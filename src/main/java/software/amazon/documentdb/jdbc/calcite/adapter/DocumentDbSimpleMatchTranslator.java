@@ -0,0 +1,193 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package software.amazon.documentdb.jdbc.calcite.adapter;
+
+import org.apache.calcite.rex.RexCall;
+import org.apache.calcite.rex.RexUnknownAs;
+import org.apache.calcite.sql.SqlKind;
+import org.apache.calcite.sql.SqlOperator;
+import org.apache.calcite.sql.fun.SqlStdOperatorTable;
+import org.apache.calcite.util.Pair;
+import software.amazon.documentdb.jdbc.calcite.adapter.DocumentDbRules.Operand;
+import software.amazon.documentdb.jdbc.calcite.adapter.DocumentDbRules.RexToMongoTranslator;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static software.amazon.documentdb.jdbc.calcite.adapter.DocumentDbRules.reformatObjectIdOperands;
+
+/**
+ * Translates expressions using only query operators.
+ */
+final class DocumentDbSimpleMatchTranslator {
+    private static final Map<SqlOperator, String> REVERSE_OPERATORS =
+            new HashMap<>();
+    static {
+        REVERSE_OPERATORS.put(SqlStdOperatorTable.EQUALS, "$eq");
+        REVERSE_OPERATORS.put(SqlStdOperatorTable.NOT_EQUALS, "$ne");
+        REVERSE_OPERATORS.put(SqlStdOperatorTable.GREATER_THAN, "$lte");
+        REVERSE_OPERATORS.put(SqlStdOperatorTable.GREATER_THAN_OR_EQUAL, "$lt");
+        REVERSE_OPERATORS.put(SqlStdOperatorTable.LESS_THAN, "$gte");
+        REVERSE_OPERATORS.put(SqlStdOperatorTable.LESS_THAN_OR_EQUAL, "$gt");
+    }
+
+    private DocumentDbSimpleMatchTranslator() {
+    }
+
+    static String getObjectIdComparisonOperator(
+            final RexCall call,
+            final List<Operand> strings,
+            final String stdOperator
+    ) throws SQLException {
+        // $or together the $oid and native operations.
+        final String nativeOperation = getComparisonOperator(call, strings, stdOperator);
+        final String oidOperation = getComparisonOperator(call, reformatObjectIdOperands(call, strings), stdOperator);
+        if (nativeOperation != null && oidOperation != null) {
+            return "{\"$or\": [" + oidOperation + ", " + nativeOperation + "]}";
+        }
+        return null;
+    }
+
+    static String getComparisonOperator(
+            final RexCall call,
+            final List<Operand> strings,
+            final String stdOperator) {
+        // Handle NOT if the argument is a field reference.
+        if (call.isA(SqlKind.NOT) && strings.get(0).isInputRef()) {
+            return "{" + strings.get(0).getQueryValue() + ": false}";
+        }
+        // If given 2 arguments, attempt to do a binary comparison. Only 1 side can be a field reference.
+        // The other side must be a literal or an expression that can be supported without aggregate operators.
+        if (strings.size() == 2) {
+            final Operand left = strings.get(0);
+            final Operand right = strings.get(1);
+            final String reverseOp = REVERSE_OPERATORS.get(call.getOperator());
+            final String simpleComparison = formatSimpleBinaryComparison(stdOperator, left, right);
+            if (simpleComparison != null) {
+                return simpleComparison;
+            }
+            // Try to return a simple comparison by swapping the operands or return null.
+            return formatSimpleBinaryComparison(reverseOp, right, left);
+        }
+        // For any other scenario, return null.
+        return null;
+    }
+
+    static String getAndOrOperator(final List<Operand> operands, final String op) {
+        final StringBuilder simple = new StringBuilder();
+        simple.append("{").append(op).append(": [");
+        for (Operand value: operands) {
+            // If any operand is null, return null.
+            if (value.getQueryValue() == null) {
+                return null;
+            }
+            simple.append(value.isInputRef() ? "{" + value.getQueryValue() + ": true}" : value.getQueryValue());
+            simple.append(",");
+
+        }
+        simple.deleteCharAt(simple.length() - 1);
+        simple.append("]}");
+        return simple.toString();
+    }
+
+    private static String formatSimpleBinaryComparison(
+            final String op,
+            final Operand leftOperand,
+            final Operand rightOperand
+    ) {
+        // If left side is field reference and the right side is not and neither query values are null,
+        // return the simple comparison.
+        if (leftOperand.isInputRef()
+                && rightOperand.isQuerySyntax()
+                && leftOperand.getQueryValue() != null
+                && rightOperand.getQueryValue() != null) {
+            String comparison = "{" +  leftOperand.getQueryValue() + ": {" + op + ": " + rightOperand.getQueryValue() + "}}";
+
+            // For not equals, need to also handle that value is not null or undefined.
+            if (op.equals(RexToMongoTranslator.MONGO_OPERATORS.get(SqlStdOperatorTable.NOT_EQUALS))) {
+                comparison = "{" + leftOperand.getQueryValue() + ": {$nin: [null, " + rightOperand.getQueryValue() + "]}}";
+            }
+            return comparison;
+        }
+        return null;
+    }
+
+    static String getSearchOperator(
+            final Operand ref,
+            final List<Operand> points,
+            final List<List<Pair<String, Operand>>> ranges,
+            final boolean complemented,
+            final RexUnknownAs nullAs) {
+        // Only a field reference can be compared to literals with query operators.
+        if (!ref.isInputRef()
+                || !points.stream().allMatch(DocumentDbSimpleMatchTranslator::isQueryLiteral)
+                || !ranges.stream().flatMap(List::stream)
+                        .allMatch(bound -> isQueryLiteral(bound.right))) {
+            return null;
+        }
+        final List<String> values = points.stream()
+                .map(Operand::getQueryValue)
+                .collect(Collectors.toCollection(ArrayList::new));
+        final boolean matchNull = nullAs == RexUnknownAs.TRUE;
+        if (complemented) {
+            // E.g.: {field: {$nin: [null, 1, 2]}}
+            if (!matchNull) {
+                values.add(0, "null");
+            }
+            return "{" + ref.getQueryValue() + ": {$nin: [" + String.join(", ", values) + "]}}";
+        }
+
+        // E.g.: {$or: [{field: {$in: [1, 2]}}, {field: {$gte: 5, $lt: 10}}]}
+        final List<String> terms = new ArrayList<>();
+        if (matchNull && !values.isEmpty()) {
+            values.add(0, "null");
+        }
+        if (!values.isEmpty()) {
+            terms.add("{" + ref.getQueryValue() + ": {$in: [" + String.join(", ", values) + "]}}");
+        }
+        for (List<Pair<String, Operand>> bounds : ranges) {
+            terms.add("{" + ref.getQueryValue() + ": " + bounds.stream()
+                    .map(bound -> bound.left + ": " + bound.right.getQueryValue())
+                    .collect(Collectors.joining(", ", "{", "}")) + "}");
+        }
+        if (matchNull && values.isEmpty()) {
+            terms.add("{" + ref.getQueryValue() + ": {$eq: null}}");
+        }
+        return terms.size() == 1
+                ? terms.get(0)
+                : "{$or: [" + String.join(", ", terms) + "]}";
+    }
+
+    private static boolean isQueryLiteral(final Operand operand) {
+        return operand.isQuerySyntax() && operand.getQueryValue() != null;
+    }
+
+    static String getNullCheckOperator(
+            final RexCall call,
+            final List<Operand> operands
+    ) {
+        final String op = call.getOperator() == SqlStdOperatorTable.IS_NULL ? "$eq" : "$ne";
+        return operands.get(0).isInputRef()
+                ? "{" + operands.get(0).getQueryValue() + ": {" + op + ": null }}"
+                : null;
+    }
+}
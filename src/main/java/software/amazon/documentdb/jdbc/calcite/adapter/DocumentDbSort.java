@@ -33,6 +33,7 @@ import org.checkerframework.checker.nullness.qual.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -100,13 +101,25 @@ public class DocumentDbSort extends Sort implements DocumentDbRel {
             implementor.add(null,
                     "{$sort: " + Util.toString(keys, "{", ", ", "}") + "}");
         }
-        if (offset != null) {
+        final Long limitValue = offset != null && fetch != null && !collation.getFieldCollations().isEmpty()
+                ? getTopLimit(offset, fetch)
+                : null;
+        if (limitValue != null) {
+            // Place the $limit directly after the $sort so only the top rows are kept while
+            // sorting, then skip the offset rows.
             implementor.add(null,
-                    "{$skip: " + ((RexLiteral) offset).getValue() + "}");
-        }
-        if (fetch != null) {
+                    "{$limit: {$numberLong: \"" + limitValue + "\"}}");
             implementor.add(null,
-                    "{$limit: {$numberLong: \"" + ((RexLiteral) fetch).getValue() + "\"}}");
+                    "{$skip: " + ((RexLiteral) offset).getValue() + "}");
+        } else {
+            if (offset != null) {
+                implementor.add(null,
+                        "{$skip: " + ((RexLiteral) offset).getValue() + "}");
+            }
+            if (fetch != null) {
+                implementor.add(null,
+                        "{$limit: {$numberLong: \"" + ((RexLiteral) fetch).getValue() + "\"}}");
+            }
         }
         LOGGER.info("Created sort and row limit stages of pipeline.");
         LOGGER.debug("Pipeline stages added: {}",
@@ -115,7 +128,21 @@ public class DocumentDbSort extends Sort implements DocumentDbRel {
                         .toArray());
     }
 
-    private static int direction(final RelFieldCollation fieldCollation) {
+    /**
+     * Gets the number of rows kept while sorting when the query has an offset, which is the sum
+     * of the offset and fetch.
+     *
+     * @param offset the offset literal.
+     * @param fetch the fetch literal.
+     * @return the sum of the offset and fetch, or {@code null} if it does not fit in a long.
+     */
+    private static Long getTopLimit(final RexNode offset, final RexNode fetch) {
+        final BigDecimal limit = ((RexLiteral) offset).getValueAs(BigDecimal.class)
+                .add(((RexLiteral) fetch).getValueAs(BigDecimal.class));
+        return limit.compareTo(BigDecimal.valueOf(Long.MAX_VALUE)) <= 0 ? limit.longValue() : null;
+    }
+
+    static int direction(final RelFieldCollation fieldCollation) {
         switch (fieldCollation.getDirection()) {
             case DESCENDING:
             case STRICTLY_DESCENDING:
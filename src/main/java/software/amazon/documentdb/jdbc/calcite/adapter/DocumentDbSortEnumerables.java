@@ -0,0 +1,267 @@
+/*
+ * Copyright <2021> Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ */
+
+package software.amazon.documentdb.jdbc.calcite.adapter;
+
+import org.apache.calcite.DataContext;
+import org.apache.calcite.linq4j.AbstractEnumerable;
+import org.apache.calcite.linq4j.Enumerable;
+import org.apache.calcite.linq4j.Enumerator;
+import org.apache.calcite.linq4j.Linq4j;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Sorts the results of pushed-down queries in the driver, when the sort cannot be performed by
+ * DocumentDB (for example, over the result of a union or a join executed in the driver). Called via
+ * code-generation from {@link DocumentDbHybridSort}.
+ *
+ * <p>Rows are represented as {@code Object[]}. A sort with a small enough limit keeps only the
+ * top rows in memory; otherwise, sorted runs of rows are spilled to temporary files and merged.</p>
+ */
+public final class DocumentDbSortEnumerables {
+    private static final Logger LOGGER = LoggerFactory.getLogger(DocumentDbSortEnumerables.class);
+    private static final String SPILL_FILE_PREFIX = "documentdb-jdbc-sort-";
+    private static final int MAX_MERGE_FAN_IN = 64;
+
+    private DocumentDbSortEnumerables() {
+    }
+
+    /**
+     * Sorts the input.
+     *
+     * @param root the data context.
+     * @param input the input.
+     * @param comparator the comparator of the sort keys.
+     * @param offset the number of sorted rows to skip.
+     * @param fetch the maximum number of rows to return, or a negative number to return all rows.
+     * @return the sorted rows.
+     */
+    public static Enumerable<Object[]> sort(
+            final DataContext root,
+            final Enumerable<Object[]> input,
+            final Comparator<Object[]> comparator,
+            final int offset,
+            final int fetch) {
+        final int maxRowsInMemory = DocumentDbJoinEnumerables.getMaxRowsInMemory(root);
+        final AtomicBoolean cancelFlag = DocumentDbJoinEnumerables.getCancelFlag(root);
+        final Enumerable<Object[]> cancelableInput = DocumentDbJoinEnumerables.cancelable(input, cancelFlag);
+        final boolean isTopN = fetch >= 0 && (long) offset + fetch <= maxRowsInMemory;
+        Enumerable<Object[]> sorted = new AbstractEnumerable<Object[]>() {
+            @Override
+            public Enumerator<Object[]> enumerator() {
+                return isTopN
+                        ? topN(cancelableInput, comparator, offset + fetch)
+                        : new MergeSortEnumerator(cancelableInput, comparator, maxRowsInMemory, cancelFlag);
+            }
+        };
+        if (offset > 0) {
+            sorted = sorted.skip(offset);
+        }
+        if (fetch >= 0) {
+            sorted = sorted.take(fetch);
+        }
+        return sorted;
+    }
+
+    /**
+     * Gets the first rows of the sorted input, keeping only those rows in memory.
+     */
+    private static Enumerator<Object[]> topN(
+            final Enumerable<Object[]> input,
+            final Comparator<Object[]> comparator,
+            final int limit) {
+        if (limit == 0) {
+            return Linq4j.emptyEnumerator();
+        }
+        // The head of the heap is the largest of the rows kept.
+        final PriorityQueue<Object[]> heap = new PriorityQueue<>(limit, comparator.reversed());
+        try (Enumerator<Object[]> enumerator = input.enumerator()) {
+            while (enumerator.moveNext()) {
+                final Object[] row = enumerator.current();
+                if (heap.size() < limit) {
+                    heap.add(row);
+                } else if (comparator.compare(row, heap.peek()) < 0) {
+                    heap.poll();
+                    heap.add(row);
+                }
+            }
+        }
+        final List<Object[]> rows = new ArrayList<>(heap);
+        rows.sort(comparator);
+        return Linq4j.enumerator(rows);
+    }
+
+    /**
+     * External merge sort. Sorts the input in memory if it fits within the limit, otherwise
+     * writes sorted runs to temporary files and merges them.
+     */
+    private static final class MergeSortEnumerator implements Enumerator<Object[]> {
+        private final Enumerable<Object[]> input;
+        private final Comparator<Object[]> comparator;
+        private final int maxRowsInMemory;
+        private final AtomicBoolean cancelFlag;
+        private final List<DocumentDbSpillFile> runs = new ArrayList<>();
+        private Iterator<Object[]> rows;
+        private Object[] current;
+
+        MergeSortEnumerator(
+                final Enumerable<Object[]> input,
+                final Comparator<Object[]> comparator,
+                final int maxRowsInMemory,
+                final AtomicBoolean cancelFlag) {
+            this.input = input;
+            this.comparator = comparator;
+            this.maxRowsInMemory = maxRowsInMemory;
+            this.cancelFlag = cancelFlag;
+        }
+
+        @Override
+        public Object[] current() {
+            return current;
+        }
+
+        @Override
+        public boolean moveNext() {
+            // The sorted rows may be read back from temporary files.
+            DocumentDbJoinEnumerables.checkCancel(cancelFlag);
+            try {
+                if (rows == null) {
+                    rows = sortInput();
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            current = rows.hasNext() ? rows.next() : null;
+            return current != null;
+        }
+
+        private Iterator<Object[]> sortInput() throws IOException {
+            final List<Object[]> buffer = new ArrayList<>();
+            try (Enumerator<Object[]> enumerator = input.enumerator()) {
+                while (enumerator.moveNext()) {
+                    buffer.add(enumerator.current());
+                    if (buffer.size() >= maxRowsInMemory) {
+                        runs.add(writeRun(buffer));
+                        buffer.clear();
+                    }
+                }
+            }
+            if (runs.isEmpty()) {
+                buffer.sort(comparator);
+                return buffer.iterator();
+            }
+            if (!buffer.isEmpty()) {
+                runs.add(writeRun(buffer));
+                buffer.clear();
+            }
+            LOGGER.debug("Sort input exceeds {} rows. Merging {} sorted runs from temporary files.",
+                    maxRowsInMemory, runs.size());
+            // Merge the runs in multiple passes to limit the number of open files.
+            while (runs.size() > MAX_MERGE_FAN_IN) {
+                DocumentDbJoinEnumerables.checkCancel(cancelFlag);
+                final List<DocumentDbSpillFile> mergedRuns = new ArrayList<>(runs.subList(0, MAX_MERGE_FAN_IN));
+                runs.subList(0, MAX_MERGE_FAN_IN).clear();
+                final DocumentDbSpillFile run = new DocumentDbSpillFile(SPILL_FILE_PREFIX);
+                // Keep the merged run first, so the runs stay in input order.
+                runs.add(0, run);
+                final Iterator<Object[]> merged = merge(mergedRuns);
+                while (merged.hasNext()) {
+                    run.write(merged.next());
+                }
+                mergedRuns.forEach(DocumentDbSpillFile::close);
+            }
+            return merge(runs);
+        }
+
+        private DocumentDbSpillFile writeRun(final List<Object[]> buffer) throws IOException {
+            buffer.sort(comparator);
+            final DocumentDbSpillFile run = new DocumentDbSpillFile(SPILL_FILE_PREFIX);
+            for (Object[] row : buffer) {
+                run.write(row);
+            }
+            return run;
+        }
+
+        private Iterator<Object[]> merge(final List<DocumentDbSpillFile> mergedRuns) throws IOException {
+            final List<Iterator<Object[]>> iterators = new ArrayList<>();
+            for (DocumentDbSpillFile run : mergedRuns) {
+                iterators.add(run.read());
+            }
+            // Order by the row, then by the run, so rows with equal keys keep the input order.
+            final PriorityQueue<RunHead> heads = new PriorityQueue<>(
+                    Math.max(1, iterators.size()),
+                    Comparator.<RunHead, Object[]>comparing(head -> head.row, comparator)
+                            .thenComparingInt(head -> head.index));
+            for (int i = 0; i < iterators.size(); i++) {
+                if (iterators.get(i).hasNext()) {
+                    heads.add(new RunHead(iterators.get(i).next(), i));
+                }
+            }
+            return new Iterator<Object[]>() {
+                @Override
+                public boolean hasNext() {
+                    return !heads.isEmpty();
+                }
+
+                @Override
+                public Object[] next() {
+                    final RunHead head = heads.poll();
+                    if (head == null) {
+                        throw new NoSuchElementException();
+                    }
+                    final Iterator<Object[]> iterator = iterators.get(head.index);
+                    if (iterator.hasNext()) {
+                        heads.add(new RunHead(iterator.next(), head.index));
+                    }
+                    return head.row;
+                }
+            };
+        }
+
+        @Override
+        public void reset() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void close() {
+            runs.forEach(DocumentDbSpillFile::close);
+            runs.clear();
+        }
+    }
+
+    /** The next row of a sorted run. */
+    private static final class RunHead {
+        private final Object[] row;
+        private final int index;
+
+        RunHead(final Object[] row, final int index) {
+            this.row = row;
+            this.index = index;
+        }
+    }
+}
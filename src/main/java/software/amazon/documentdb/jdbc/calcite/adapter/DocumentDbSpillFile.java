@@ -0,0 +1,147 @@
+/*
+ * Copyright <2021> Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ */
+
+package software.amazon.documentdb.jdbc.calcite.adapter;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Rows written to a temporary file by operators executed in the driver, when they hold more rows
+ * than the in-memory limit. The file is deleted when closed, which also closes any iterators over
+ * the file that were not read to the end.
+ */
+final class DocumentDbSpillFile implements Closeable {
+    private static final Logger LOGGER = LoggerFactory.getLogger(DocumentDbSpillFile.class);
+    private static final int RESET_INTERVAL = 1024;
+    private final Path path;
+    private final List<ObjectInputStream> inputs = new ArrayList<>();
+    private ObjectOutputStream output;
+    private int rowCount;
+
+    /**
+     * Creates a new temporary file.
+     *
+     * @param prefix the prefix of the file name.
+     * @throws IOException if the file cannot be created.
+     */
+    DocumentDbSpillFile(final String prefix) throws IOException {
+        this.path = Files.createTempFile(prefix, ".tmp");
+        this.output = new ObjectOutputStream(new BufferedOutputStream(Files.newOutputStream(path)));
+    }
+
+    /**
+     * Writes a row to the file.
+     *
+     * @param row the row.
+     * @throws IOException if the row cannot be written.
+     */
+    void write(final Object[] row) throws IOException {
+        output.writeObject(row);
+        rowCount++;
+        if (rowCount % RESET_INTERVAL == 0) {
+            // Avoid holding references to all written rows.
+            output.reset();
+        }
+    }
+
+    int getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * Finishes writing and returns an iterator over the rows in the file. The file can be read
+     * by more than one iterator at a time.
+     *
+     * @return an iterator over the rows, in the order they were written.
+     * @throws IOException if the file cannot be read.
+     */
+    Iterator<Object[]> read() throws IOException {
+        if (output != null) {
+            output.close();
+            output = null;
+        }
+        final ObjectInputStream input = new ObjectInputStream(
+                new BufferedInputStream(Files.newInputStream(path)));
+        inputs.add(input);
+        return new Iterator<Object[]>() {
+            private int read = 0;
+
+            @Override
+            public boolean hasNext() {
+                if (read < rowCount) {
+                    return true;
+                }
+                if (inputs.remove(input)) {
+                    closeQuietly(input);
+                }
+                return false;
+            }
+
+            @Override
+            public Object[] next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                try {
+                    read++;
+                    return (Object[]) input.readObject();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                } catch (ClassNotFoundException e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+        };
+    }
+
+    @Override
+    public void close() {
+        if (output != null) {
+            closeQuietly(output);
+            output = null;
+        }
+        inputs.forEach(DocumentDbSpillFile::closeQuietly);
+        inputs.clear();
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            LOGGER.warn("Unable to delete temporary file '{}'.", path, e);
+        }
+    }
+
+    private static void closeQuietly(final Closeable closeable) {
+        try {
+            closeable.close();
+        } catch (IOException e) {
+            LOGGER.debug("Unable to close stream.", e);
+        }
+    }
+}
@@ -0,0 +1,237 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package software.amazon.documentdb.jdbc.calcite.adapter;
+
+import org.apache.calcite.rex.RexCall;
+import org.apache.calcite.rex.RexNode;
+import org.apache.calcite.sql.SqlOperator;
+import org.apache.calcite.sql.fun.SqlLibraryOperators;
+import org.apache.calcite.sql.fun.SqlStdOperatorTable;
+import org.apache.calcite.util.Util;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import software.amazon.documentdb.jdbc.calcite.adapter.DocumentDbRules.Operand;
+import software.amazon.documentdb.jdbc.calcite.adapter.DocumentDbRules.RexToMongoTranslator;
+import software.amazon.documentdb.jdbc.common.utilities.SqlError;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Translates string functions and LIKE patterns to aggregate operators.
+ */
+final class DocumentDbStringFunctionTranslator {
+    private static final Map<SqlOperator, String> STRING_OPERATORS =
+            new HashMap<>();
+    private static final String REGEX_SPECIAL_CHARACTERS = "\\^$.|?*+()[]{}";
+
+    static {
+        STRING_OPERATORS.put(SqlStdOperatorTable.CONCAT, "$concat");
+        STRING_OPERATORS.put(SqlStdOperatorTable.LOWER, "$toLower");
+        STRING_OPERATORS.put(SqlStdOperatorTable.UPPER, "$toUpper");
+        STRING_OPERATORS.put(SqlStdOperatorTable.CHAR_LENGTH, "$strLenCP");
+        STRING_OPERATORS.put(SqlStdOperatorTable.SUBSTRING, "$substrCP");
+        STRING_OPERATORS.put(SqlStdOperatorTable.POSITION, "$indexOfCP");
+    }
+
+    private DocumentDbStringFunctionTranslator() {
+    }
+
+    /**
+     * Converts a LIKE pattern to an equivalent regular expression. Wildcards at the start
+     * or end of the pattern are not part of the anchored expression, so a prefix pattern
+     * such as 'abc%' becomes '^abc', which can use an index range.
+     *
+     * @param pattern the LIKE pattern.
+     * @param escape the escape character or {@code null} if there is none.
+     * @return the regular expression.
+     */
+    static String getRegexForLikePattern(final String pattern, final @Nullable String escape) {
+        if (escape != null && escape.length() != 1) {
+            throw new IllegalArgumentException(
+                    SqlError.lookup(SqlError.INVALID_LIKE_PATTERN, pattern, escape));
+        }
+        final StringBuilder regex = new StringBuilder("^");
+        for (int i = 0; i < pattern.length(); i++) {
+            final char c = pattern.charAt(i);
+            if (escape != null && c == escape.charAt(0)) {
+                // The escape character must be followed by a wildcard or itself.
+                final char next = i + 1 < pattern.length() ? pattern.charAt(i + 1) : c;
+                if (i + 1 == pattern.length() || (next != '%' && next != '_' && next != c)) {
+                    throw new IllegalArgumentException(
+                            SqlError.lookup(SqlError.INVALID_LIKE_PATTERN, pattern, escape));
+                }
+                appendRegexCharacter(regex, next);
+                i++;
+            } else if (c == '%') {
+                regex.append(".*");
+            } else if (c == '_') {
+                regex.append('.');
+            } else {
+                appendRegexCharacter(regex, c);
+            }
+        }
+        // Unlike '$', '\\z' does not match before a final line terminator.
+        regex.append("\\z");
+
+        String result = regex.toString();
+        if (result.endsWith(".*\\z")) {
+            result = result.substring(0, result.length() - 4);
+        }
+        if (result.startsWith("^.*")) {
+            result = result.substring(3);
+        }
+        return result;
+    }
+
+    private static void appendRegexCharacter(final StringBuilder regex, final char c) {
+        if (REGEX_SPECIAL_CHARACTERS.indexOf(c) >= 0) {
+            regex.append('\\');
+        }
+        regex.append(c);
+    }
+
+    /**
+     * Checks whether the input of LIKE is a field in lower (or upper) case and the pattern
+     * is also in lower (or upper) case, so it can be matched case-insensitively instead.
+     */
+    static boolean isCaseInsensitiveLike(final RexNode input, final String pattern) {
+        if (!(input instanceof RexCall)) {
+            return false;
+        }
+        final SqlOperator operator = ((RexCall) input).getOperator();
+        return (operator == SqlStdOperatorTable.LOWER && pattern.equals(pattern.toLowerCase(Locale.ROOT)))
+                || (operator == SqlStdOperatorTable.UPPER && pattern.equals(pattern.toUpperCase(Locale.ROOT)));
+    }
+
+    static Operand getMongoAggregateForSubstringOperator(
+            final RexCall call,
+            final List<Operand> strings) {
+        final List<Operand> inputs = new ArrayList<>(strings);
+        // Convert from one-indexed to zero-indexed
+        inputs.set(1, new Operand("{\"$subtract\": [" + inputs.get(1) + ", 1]}"));
+        if (inputs.size() == 2) {
+            inputs.add(new Operand(String.valueOf(Integer.MAX_VALUE)));
+        }
+        return new Operand("{"
+                + STRING_OPERATORS.get(SqlStdOperatorTable.SUBSTRING) + ": [" + Util.commaList(inputs) + "]}");
+    }
+
+    static Operand getMongoAggregateForConcatOperator(
+            final RexCall call,
+            final List<Operand> strings) {
+        // If using CONCAT function instead of operator, convert any null values to empty string.
+        final List<String> inputs =
+                strings.stream()
+                        .map(string ->
+                                call.getOperator() == SqlLibraryOperators.CONCAT_FUNCTION
+                                        ? "{\"$ifNull\": [" + string + ", \"\" ]}"
+                                        : string.toString())
+                        .collect(Collectors.toList());
+        return new Operand("{" + STRING_OPERATORS.get(SqlStdOperatorTable.CONCAT)
+                + ": [" + Util.commaList(inputs) + "]}");
+    }
+    static Operand getMongoAggregateForPositionStringOperator(
+            final RexCall call,
+            final List<Operand> strings) {
+        final List<String> args = new ArrayList<>();
+        final StringBuilder operand = new StringBuilder();
+        final StringBuilder finish = new StringBuilder();
+        // Comparison is case-insensitive so convert both strings to same case.
+        // Note also that argument order in $indexOfCP needs to be string, substring, [startIndex].
+        args.add("{" + STRING_OPERATORS.get(SqlStdOperatorTable.LOWER) + ":" + strings.get(1) + "}");
+        args.add("{" + STRING_OPERATORS.get(SqlStdOperatorTable.LOWER) + ":" + strings.get(0) + "}");
+        // Check if either string is null.
+        operand.append("{\"$cond\": [").append(RexToMongoTranslator.getNullCheckExpr(strings)).append(", ");
+        // Add starting index if any.
+        if (strings.size() == 3) {
+            args.add("{\"$subtract\": [" + strings.get(2) + ", 1]}"); // Convert to 0-based.
+            operand.append("{\"$cond\": [{\"$lte\": [").append(strings.get(2)).append(", 0]}, 0, "); // Check if 1-based index > 0.
+            finish.append("]}");
+        }
+        // Convert 0-based index to 1-based.
+        operand.append("{\"$add\": [{").append(STRING_OPERATORS.get(SqlStdOperatorTable.POSITION)).append(": [").append(Util.commaList(args)).append("]}, 1]}");
+        operand.append(finish);
+        operand.append(", null ]}");
+        // Return 1-based index when string is found.
+        // Returns null if either base string or substring is null.
+        // Returns 0 if substring cannot be found or index (if any) is null or non-positive.
+        return new Operand(operand.toString());
+    }
+
+    static Operand getMongoAggregateForStringOperator(
+            final RexCall call,
+            final List<Operand> strings) {
+        // Add a null check since these operators do not handle null or missing expressions correctly.
+        return new Operand("{\"$cond\": ["
+                + RexToMongoTranslator.getNullCheckExpr(strings)
+                + ", "
+                + "{" + STRING_OPERATORS.get(call.getOperator()) + ": " + strings.get(0) + "}"
+                + ", null]}");
+    }
+
+    static Operand getMongoAggregateForLeftOperator(
+            final RexCall call,
+            final List<Operand> strings) {
+        final List<Operand> inputs = new ArrayList<>();
+        inputs.add(strings.get(0));
+        // Substring as if starting from left. Start index = 0.
+        inputs.add(new Operand("0"));
+        inputs.add(strings.get(1));
+        // Returns substring starting from 0 to given length.
+        // If length is greater than length of string, the entire string will be returned.
+        return new Operand("{\"$cond\": ["
+                + "{\"$and\": ["
+                + RexToMongoTranslator.getNullCheckExpr(strings)
+                + ", "
+                + "{\"$gte\":[" + strings.get(1) + ", 0]}"
+                + "]}, "
+                + "{" + STRING_OPERATORS.get(SqlStdOperatorTable.SUBSTRING) + ": [" + Util.commaList(inputs) + "]}"
+                + ", null]}");
+    }
+
+    static Operand getMongoAggregateForRightOperator(
+            final RexCall call,
+            final List<Operand> strings) {
+        final List<Operand> inputs = new ArrayList<>();
+        inputs.add(strings.get(0));
+        // Substring as if starting from right. Start index = length - # of chars
+        inputs.add(new Operand("{\"$subtract\": [ "
+                + "{" + STRING_OPERATORS.get(SqlStdOperatorTable.CHAR_LENGTH) + ":" + strings.get(0) + "}, "
+                + strings.get(1) + "]}"));
+        inputs.add(strings.get(1));
+        // If string length is less than or equal to number of characters then return the entire
+        // string. Else, return substring.
+        return new Operand("{\"$cond\": ["
+                + "{\"$and\": ["
+                + RexToMongoTranslator.getNullCheckExpr(strings)
+                + ", "
+                + "{\"$gte\":[" + strings.get(1) + ", 0]}"
+                + "]}, "
+                + "{\"$cond\": [ "
+                + "{\"$lte\": ["
+                + "{" + STRING_OPERATORS.get(SqlStdOperatorTable.CHAR_LENGTH) + ":" + strings.get(0) + "}, "
+                + strings.get(1) + "]}, "
+                + strings.get(0) + ", "
+                + "{" + STRING_OPERATORS.get(SqlStdOperatorTable.SUBSTRING) + ": [" + Util.commaList(inputs) + "]}]}"
+                + ", null]}");
+    }
+}
@@ -18,7 +18,10 @@
 package software.amazon.documentdb.jdbc.calcite.adapter;
 
 import com.google.common.collect.ImmutableMap;
+import lombok.AccessLevel;
+import lombok.Builder;
 import lombok.SneakyThrows;
+import org.apache.calcite.DataContext;
 import org.apache.calcite.adapter.java.AbstractQueryableTable;
 import org.apache.calcite.linq4j.Enumerable;
 import org.apache.calcite.linq4j.Enumerator;
@@ -61,13 +64,34 @@ public class DocumentDbTable extends AbstractQueryableTable
     private final String collectionName;
     private final DocumentDbSchemaTable tableMetadata;
     private final Statistic statistic;
+    private final boolean hybridExecution;
+    private final boolean windowFunctionPushdown;
 
     protected DocumentDbTable(
             final String collectionName,
             final DocumentDbSchemaTable tableMetadata) {
+        this(collectionName, tableMetadata, false, false);
+    }
+
+    /**
+     * Builder for DocumentDbTable. The execution options are disabled unless they are set.
+     *
+     * @param collectionName the name of the collection of the table.
+     * @param tableMetadata the metadata of the table.
+     * @param hybridExecution whether operators that cannot be pushed down may be executed in the driver.
+     * @param windowFunctionPushdown whether window functions may be pushed down with the $setWindowFields stage.
+     */
+    @Builder(access = AccessLevel.PACKAGE)
+    private DocumentDbTable(
+            final String collectionName,
+            final DocumentDbSchemaTable tableMetadata,
+            final boolean hybridExecution,
+            final boolean windowFunctionPushdown) {
         super(Object[].class);
         this.collectionName = collectionName;
         this.tableMetadata = tableMetadata;
+        this.hybridExecution = hybridExecution;
+        this.windowFunctionPushdown = windowFunctionPushdown;
         this.statistic = tableMetadata.getEstimatedRecordCount() == DocumentDbSchemaTable.UNKNOWN_RECORD_COUNT
                 ? Statistics.UNKNOWN
                 : Statistics.of(tableMetadata.getEstimatedRecordCount(), null);
@@ -86,6 +110,28 @@ public class DocumentDbTable extends AbstractQueryableTable
         return this.collectionName;
     }
 
+    DocumentDbSchemaTable getTableMetadata() {
+        return this.tableMetadata;
+    }
+
+    /**
+     * Gets whether operators that cannot be pushed down may be executed in the driver.
+     *
+     * @return {@code true} if hybrid execution is enabled, {@code false}, otherwise.
+     */
+    boolean isHybridExecution() {
+        return this.hybridExecution;
+    }
+
+    /**
+     * Gets whether window functions may be pushed down with the $setWindowFields stage.
+     *
+     * @return {@code true} if window functions are pushed down, {@code false}, otherwise.
+     */
+    boolean isWindowFunctionPushdown() {
+        return this.windowFunctionPushdown;
+    }
+
     @SneakyThrows
     @Override public RelDataType getRowType(final RelDataTypeFactory typeFactory) {
         final List<Entry<String, RelDataType>> fieldList = new ArrayList<>();
@@ -136,9 +182,6 @@ public class DocumentDbTable extends AbstractQueryableTable
                 relOptTable, this, null, tableMetadata);
     }
 
-    // TODO: Investigate using find() here for simpler queries.
-    //  See: https://github.com/aws/amazon-documentdb-jdbc-driver/issues/240
-
     /** Executes an "aggregate" operation on the underlying collection.
      *
      * <p>For example:
@@ -147,6 +190,10 @@ public class DocumentDbTable extends AbstractQueryableTable
      * "{$group: {_id: '$city', c: {$sum: 1}, p: {$sum: '$pop'}}}")
      * </code></p>
      *
+     * <p>Pipelines that only filter, project, sort and limit are run as a find() command instead.
+     * See {@link software.amazon.documentdb.jdbc.query.DocumentDbFindQuery}.</p>
+     *
+     * @param dataContext the data context of the execution
      * @param databaseName Name of the database
      * @param fields List of fields to project; or null to return map
      * @param paths List of paths
@@ -154,6 +201,7 @@ public class DocumentDbTable extends AbstractQueryableTable
      * @return Enumerator of results
      */
     Enumerable<Object> aggregate(
+            final DataContext dataContext,
             final String databaseName,
             final List<Entry<String, Class<?>>> fields,
             final List<String> paths,
@@ -165,11 +213,15 @@ public class DocumentDbTable extends AbstractQueryableTable
         }
 
         // Return this instead of the anonymous class to get more information from CalciteSignature.
+        final Double rowCount = getStatistic().getRowCount();
         return new DocumentDbEnumerable(
                 databaseName,
                 collectionName,
                 list,
-                paths);
+                paths,
+                fields,
+                dataContext,
+                rowCount != null ? rowCount.longValue() : DocumentDbSchemaTable.UNKNOWN_RECORD_COUNT);
     }
 
     /** Implementation of {@link org.apache.calcite.linq4j.Queryable} based on
@@ -211,15 +263,13 @@ public class DocumentDbTable extends AbstractQueryableTable
          * @return an enumerable of the aggregate pipeline
          */
         @SuppressWarnings("UnusedDeclaration")
-        public Enumerable<Object> aggregate(final List<Entry<String, Class<?>>> fields,
+        public Enumerable<Object> aggregate(final DataContext dataContext,
+                final List<Entry<String, Class<?>>> fields,
                 final List<String> paths,
                 final List<String> operations) {
             return getTable()
-                    .aggregate(getDatabaseName(), fields, paths, operations);
+                    .aggregate(dataContext, getDatabaseName(), fields, paths, operations);
         }
-
-        // TODO: Investigate using find() here for simpler queries.
-        //  See: https://github.com/aws/amazon-documentdb-jdbc-driver/issues/240
     }
 
     private static synchronized void initializeRelDataTypeMap(final RelDataTypeFactory typeFactory) {
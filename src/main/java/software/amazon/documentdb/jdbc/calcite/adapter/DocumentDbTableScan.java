@@ -93,22 +93,50 @@ public class DocumentDbTableScan extends TableScan implements DocumentDbRel {
 
     @Override public void register(final RelOptPlanner planner) {
         planner.addRule(DocumentDbToEnumerableConverterRule.INSTANCE);
-        for (RelOptRule rule : DocumentDbRules.RULES) {
+        // With hybrid execution, operators that cannot be pushed down are executed in the driver.
+        final RelOptRule[] rules = mongoTable.isHybridExecution()
+                ? DocumentDbRules.HYBRID_RULES
+                : DocumentDbRules.RULES;
+        for (RelOptRule rule : rules) {
             planner.addRule(rule);
         }
 
+        // Window functions are split from projections into windows, which are pushed down only
+        // if the server supports $setWindowFields. Otherwise, they are executed in the driver.
+        planner.addRule(CoreRules.PROJECT_TO_LOGICAL_PROJECT_AND_WINDOW);
+        if (mongoTable.isWindowFunctionPushdown()) {
+            for (RelOptRule rule : DocumentDbRules.WINDOW_RULES) {
+                planner.addRule(rule);
+            }
+        }
+
         // Keep the project node even for SELECT * queries.
         planner.removeRule(CoreRules.PROJECT_REMOVE);
 
         // Remove extra $limit on joins.
         planner.removeRule(CoreRules.SORT_JOIN_TRANSPOSE);
 
+        // Joins and sorts executed in the driver are replaced by the hybrid operators, which
+        // spill to temporary files instead of holding all their input in memory.
+        planner.removeRule(EnumerableRules.ENUMERABLE_JOIN_RULE);
+        planner.removeRule(EnumerableRules.ENUMERABLE_MERGE_JOIN_RULE);
+        planner.removeRule(EnumerableRules.ENUMERABLE_SORT_RULE);
+        if (mongoTable.isHybridExecution()) {
+            // Likewise, aggregates, windows and set operations are replaced by the hybrid rules,
+            // which read sorted input instead of holding all their input in memory.
+            planner.removeRule(EnumerableRules.ENUMERABLE_AGGREGATE_RULE);
+            planner.removeRule(EnumerableRules.ENUMERABLE_SORTED_AGGREGATE_RULE);
+            planner.removeRule(EnumerableRules.ENUMERABLE_WINDOW_RULE);
+            planner.removeRule(EnumerableRules.ENUMERABLE_UNION_RULE);
+            planner.removeRule(EnumerableRules.ENUMERABLE_INTERSECT_RULE);
+            planner.removeRule(EnumerableRules.ENUMERABLE_MINUS_RULE);
+            return;
+        }
+
         // Remove enumerable rules to ensure we always do push-down instead regardless of cost.
         planner.removeRule(EnumerableRules.ENUMERABLE_AGGREGATE_RULE);
         planner.removeRule(EnumerableRules.ENUMERABLE_PROJECT_RULE);
-        planner.removeRule(EnumerableRules.ENUMERABLE_JOIN_RULE);
         planner.removeRule(EnumerableRules.ENUMERABLE_LIMIT_RULE);
-        planner.removeRule(EnumerableRules.ENUMERABLE_SORT_RULE);
         planner.removeRule(EnumerableRules.ENUMERABLE_FILTER_RULE);
     }
 
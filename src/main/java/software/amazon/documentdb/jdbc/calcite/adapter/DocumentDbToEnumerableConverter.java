@@ -17,6 +17,7 @@
 
 package software.amazon.documentdb.jdbc.calcite.adapter;
 
+import org.apache.calcite.DataContext;
 import org.apache.calcite.adapter.enumerable.EnumerableRel;
 import org.apache.calcite.adapter.enumerable.EnumerableRelImplementor;
 import org.apache.calcite.adapter.enumerable.JavaRowFormat;
@@ -40,14 +41,20 @@ import org.apache.calcite.runtime.Hook;
 import org.apache.calcite.util.BuiltInMethod;
 import org.apache.calcite.util.Pair;
 import org.apache.calcite.util.Util;
+import org.bson.BsonDocument;
+import org.bson.conversions.Bson;
+import org.bson.json.JsonMode;
+import org.bson.json.JsonWriterSettings;
 import org.checkerframework.checker.nullness.qual.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import software.amazon.documentdb.jdbc.calcite.adapter.DocumentDbRel.Implementor;
+import software.amazon.documentdb.jdbc.query.DocumentDbPipelineOptimizer;
 
 import java.util.AbstractList;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.stream.Collectors;
 
 /**
  * Relational expression representing a scan of a table in a Mongo data source.
@@ -57,6 +64,8 @@ public class DocumentDbToEnumerableConverter
         implements EnumerableRel {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(DocumentDbToEnumerableConverter.class);
+    private static final JsonWriterSettings JSON_WRITER_SETTINGS =
+            JsonWriterSettings.builder().outputMode(JsonMode.EXTENDED).build();
 
     protected DocumentDbToEnumerableConverter(
             final RelOptCluster cluster,
@@ -94,10 +103,12 @@ public class DocumentDbToEnumerableConverter
                 new DocumentDbRel.Implementor(getCluster().getRexBuilder());
         mongoImplementor.visitChild(0, getInput());
         final RelDataType rowType = getRowType();
+        // Rows are always returned as arrays (or scalars, for a single column) so they can be
+        // consumed by any operators executed in the driver.
         final PhysType physType =
                 PhysTypeImpl.of(
                         implementor.getTypeFactory(), rowType,
-                        pref.prefer(JavaRowFormat.ARRAY));
+                        JavaRowFormat.ARRAY);
         final Expression fields =
                 list.append("fields",
                         constantArrayList(
@@ -124,15 +135,16 @@ public class DocumentDbToEnumerableConverter
                                 DocumentDbTable.DocumentDbQueryable.class));
         // DocumentDB: modified - start
         handleVirtualTable(mongoImplementor);
+        final List<String> opList = optimize(Pair.right(mongoImplementor.getList()));
         // DocumentDB: modified - end
-        final List<String> opList = Pair.right(mongoImplementor.getList());
         final Expression ops =
                 list.append("ops",
                         constantArrayList(opList, String.class));
         final Expression enumerable =
                 list.append("enumerable",
                         Expressions.call(table,
-                                DocumentDbMethod.MONGO_QUERYABLE_AGGREGATE.getMethod(), fields, paths, ops));
+                                DocumentDbMethod.MONGO_QUERYABLE_AGGREGATE.getMethod(),
+                                DataContext.ROOT, fields, paths, ops));
         if (CalciteSystemProperty.DEBUG.value()) {
             LOGGER.info("opList: {}", opList);
         }
@@ -162,6 +174,22 @@ public class DocumentDbToEnumerableConverter
         return Util.transform(values, Expressions::constant);
     }
 
+    /**
+     * Optimizes the aggregation stages once, when the plan is implemented, so the stages of the
+     * translated query and of each execution of a hybrid query are already optimized.
+     *
+     * @param operations the aggregation stages as JSON strings.
+     * @return the optimized aggregation stages as JSON strings.
+     */
+    private static List<String> optimize(final List<String> operations) {
+        final List<Bson> stages = operations.stream()
+                .map(BsonDocument::parse)
+                .collect(Collectors.toList());
+        return DocumentDbPipelineOptimizer.optimize(stages).stream()
+                .map(stage -> stage.toBsonDocument().toJson(JSON_WRITER_SETTINGS))
+                .collect(Collectors.toList());
+    }
+
     /**
      * Adds aggregation stage to handle virtual tables.
      * @param implementor the implementor.
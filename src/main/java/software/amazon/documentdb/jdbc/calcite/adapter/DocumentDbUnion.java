@@ -0,0 +1,236 @@
+/*
+ * Copyright <2021> Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ */
+
+package software.amazon.documentdb.jdbc.calcite.adapter;
+
+import org.apache.calcite.plan.RelOptCluster;
+import org.apache.calcite.plan.RelOptCost;
+import org.apache.calcite.plan.RelOptPlanner;
+import org.apache.calcite.plan.RelTraitSet;
+import org.apache.calcite.rel.RelNode;
+import org.apache.calcite.rel.core.SetOp;
+import org.apache.calcite.rel.core.Union;
+import org.apache.calcite.rel.metadata.RelMetadataQuery;
+import org.apache.calcite.sql.SqlKind;
+import org.apache.calcite.sql.validate.SqlValidatorUtil;
+import org.apache.calcite.util.Pair;
+import org.apache.calcite.util.Util;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import software.amazon.documentdb.jdbc.common.utilities.SqlError;
+import software.amazon.documentdb.jdbc.metadata.DocumentDbMetadataColumn;
+import software.amazon.documentdb.jdbc.metadata.DocumentDbMetadataTable;
+import software.amazon.documentdb.jdbc.metadata.DocumentDbSchemaColumn;
+import software.amazon.documentdb.jdbc.metadata.DocumentDbSchemaTable;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import static software.amazon.documentdb.jdbc.calcite.adapter.DocumentDbRules.getNormalizedIdentifier;
+import static software.amazon.documentdb.jdbc.calcite.adapter.DocumentDbRules.maybeQuote;
+
+/**
+ * Implementation of {@link Union} in DocumentDb. The first input is the main pipeline and each
+ * other input is added with a $unionWith stage, so all inputs are read in a single query.
+ */
+public class DocumentDbUnion extends Union implements DocumentDbRel {
+
+    private static final Logger LOGGER =
+            LoggerFactory.getLogger(DocumentDbUnion.class.getName());
+    private static final String ID_FIELD = "_id";
+    private static final String BRANCH_FIELD = "_branch";
+
+    /**
+     * Creates a new {@link DocumentDbUnion}.
+     *
+     * @param cluster the cluster.
+     * @param traitSet the trait set.
+     * @param inputs the inputs.
+     * @param all whether duplicate rows are kept.
+     */
+    public DocumentDbUnion(
+            final RelOptCluster cluster,
+            final RelTraitSet traitSet,
+            final List<RelNode> inputs,
+            final boolean all) {
+        super(cluster, traitSet, inputs, all);
+        assert getConvention() == DocumentDbRel.CONVENTION;
+    }
+
+    @Override
+    public SetOp copy(final RelTraitSet traitSet, final List<RelNode> inputs, final boolean all) {
+        return new DocumentDbUnion(getCluster(), traitSet, inputs, all);
+    }
+
+    @Override
+    public @Nullable RelOptCost computeSelfCost(
+            final RelOptPlanner planner,
+            final RelMetadataQuery mq) {
+        final RelOptCost relOptCost = super.computeSelfCost(planner, mq);
+        return relOptCost != null
+                ? relOptCost.multiplyBy(DocumentDbRules.SET_OP_COST_FACTOR)
+                : null;
+    }
+
+    @Override
+    public void implement(final Implementor implementor) {
+        implementSetOp(this, implementor);
+    }
+
+    /**
+     * Implements a set operation. The inputs are read with $unionWith and each input is projected
+     * to the output field names. Set operations without ALL remove duplicate rows with a $group
+     * on the projected row, which also determines the inputs each row was found in.
+     *
+     * @param setOp the union, intersect or minus.
+     * @param implementor the implementor.
+     */
+    static void implementSetOp(final SetOp setOp, final Implementor implementor) {
+        if (implementor.isJoin()) {
+            throw new IllegalArgumentException(
+                    SqlError.lookup(SqlError.UNSUPPORTED_JOIN_SET_OPERATION, setOp.kind.sql));
+        }
+
+        // Name the output fields so they are valid field names and do not clash with _id.
+        final List<String> outNames = setOp.getRowType().getFieldNames();
+        final Set<String> usedPaths = new LinkedHashSet<>();
+        usedPaths.add(ID_FIELD);
+        final List<String> outPaths = new ArrayList<>();
+        for (String outName : outNames) {
+            final String path = SqlValidatorUtil.uniquify(
+                    getNormalizedIdentifier(outName).replace('.', '_'),
+                    usedPaths,
+                    SqlValidatorUtil.EXPR_SUGGESTER);
+            usedPaths.add(path);
+            outPaths.add(path);
+        }
+        final boolean tagBranches = !setOp.all && setOp.kind != SqlKind.UNION;
+        final String branchPath = SqlValidatorUtil.uniquify(
+                BRANCH_FIELD, usedPaths, SqlValidatorUtil.EXPR_SUGGESTER);
+
+        Implementor firstImplementor = null;
+        for (int i = 0; i < setOp.getInputs().size(); i++) {
+            final RelNode input = setOp.getInput(i);
+            final Implementor inputImplementor = new Implementor(implementor.getRexBuilder());
+            inputImplementor.visitChild(0, input);
+            DocumentDbToEnumerableConverter.handleVirtualTable(inputImplementor);
+
+            // Project each input to the output field names.
+            final List<String> inPaths = DocumentDbRules.mongoFieldNames(
+                    input.getRowType(), inputImplementor.getMetadataTable());
+            final List<String> items = new ArrayList<>();
+            for (int j = 0; j < outPaths.size(); j++) {
+                items.add(maybeQuote(outPaths.get(j)) + ": " + maybeQuote("$" + inPaths.get(j)));
+            }
+            if (tagBranches) {
+                items.add(maybeQuote(branchPath) + ": {$literal: " + i + "}");
+            }
+            items.add(ID_FIELD + ": 0");
+            inputImplementor.add(null, "{$project: " + Util.toString(items, "{", ", ", "}") + "}");
+
+            if (i == 0) {
+                firstImplementor = inputImplementor;
+                inputImplementor.getList().forEach(pair -> implementor.add(pair.left, pair.right));
+            } else {
+                final List<String> pipeline = new ArrayList<>();
+                inputImplementor.getList().forEach(pair -> pipeline.add(pair.right));
+                implementor.add(null, "{$unionWith: {coll: "
+                        + maybeQuote(inputImplementor.getDocumentDbTable().getCollectionName())
+                        + ", pipeline: " + Util.toString(pipeline, "[", ", ", "]") + "}}");
+            }
+        }
+        assert firstImplementor != null;
+
+        if (!setOp.all) {
+            addDistinctStages(setOp, implementor, outPaths, branchPath);
+        }
+
+        // The output fields are generated by the query.
+        final LinkedHashMap<String, DocumentDbSchemaColumn> columnMap = new LinkedHashMap<>();
+        for (Pair<String, String> pair : Pair.zip(outNames, outPaths)) {
+            columnMap.put(pair.left,
+                    DocumentDbMetadataColumn.builder()
+                            .isGenerated(true)
+                            .fieldPath(pair.right)
+                            .sqlName(pair.left)
+                            .build());
+        }
+        final DocumentDbSchemaTable firstMetadata = firstImplementor.getMetadataTable();
+        final DocumentDbSchemaTable metadata = DocumentDbMetadataTable.builder()
+                .sqlName(firstMetadata.getSqlName())
+                .collectionName(firstMetadata.getCollectionName())
+                .columns(columnMap)
+                .build();
+        implementor.setTable(firstImplementor.getTable());
+        implementor.setMetadataTable(metadata);
+        implementor.setDocumentDbTable(
+                new DocumentDbTable(firstImplementor.getDocumentDbTable().getCollectionName(), metadata));
+        implementor.setNullFiltered(true);
+        LOGGER.info("Created set operation stages of pipeline.");
+        LOGGER.debug("Pipeline stages added: {}",
+                implementor.getList().stream()
+                        .map(c -> c.right)
+                        .toArray());
+    }
+
+    /**
+     * Adds the stages that remove duplicate rows and, for INTERSECT and EXCEPT, keep the rows
+     * found in all inputs or only in the first input.
+     */
+    private static void addDistinctStages(
+            final SetOp setOp,
+            final Implementor implementor,
+            final List<String> outPaths,
+            final String branchPath) {
+        // Missing fields are grouped with null values.
+        final List<String> keys = new ArrayList<>();
+        final List<String> fixups = new ArrayList<>();
+        fixups.add(ID_FIELD + ": 0");
+        for (String path : outPaths) {
+            keys.add(maybeQuote(path) + ": {$ifNull: [" + maybeQuote("$" + path) + ", null]}");
+            fixups.add(maybeQuote(path) + ": " + maybeQuote("$" + ID_FIELD + "." + path));
+        }
+        final String group = "_id: " + Util.toString(keys, "{", ", ", "}");
+        switch (setOp.kind) {
+            case UNION:
+                implementor.add(null, "{$group: {" + group + "}}");
+                break;
+            case INTERSECT:
+                final List<String> branches = new ArrayList<>();
+                for (int i = 0; i < setOp.getInputs().size(); i++) {
+                    branches.add(String.valueOf(i));
+                }
+                implementor.add(null, "{$group: {" + group + ", " + maybeQuote(branchPath)
+                        + ": {$addToSet: " + maybeQuote("$" + branchPath) + "}}}");
+                implementor.add(null, "{$match: {" + maybeQuote(branchPath) + ": {$all: "
+                        + Util.toString(branches, "[", ", ", "]") + "}}}");
+                break;
+            case EXCEPT:
+                // Only rows from the first input have the highest branch number 0.
+                implementor.add(null, "{$group: {" + group + ", " + maybeQuote(branchPath)
+                        + ": {$max: " + maybeQuote("$" + branchPath) + "}}}");
+                implementor.add(null, "{$match: {" + maybeQuote(branchPath) + ": 0}}");
+                break;
+            default:
+                throw new AssertionError("unknown set operation " + setOp.kind);
+        }
+        implementor.add(null, "{$project: " + Util.toString(fixups, "{", ", ", "}") + "}");
+    }
+}
@@ -0,0 +1,329 @@
+/*
+ * Copyright <2021> Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ */
+
+package software.amazon.documentdb.jdbc.calcite.adapter;
+
+import org.apache.calcite.plan.RelOptCluster;
+import org.apache.calcite.plan.RelOptCost;
+import org.apache.calcite.plan.RelOptPlanner;
+import org.apache.calcite.plan.RelTraitSet;
+import org.apache.calcite.rel.RelFieldCollation;
+import org.apache.calcite.rel.RelNode;
+import org.apache.calcite.rel.core.Window;
+import org.apache.calcite.rel.metadata.RelMetadataQuery;
+import org.apache.calcite.rel.type.RelDataType;
+import org.apache.calcite.rex.RexInputRef;
+import org.apache.calcite.rex.RexLiteral;
+import org.apache.calcite.rex.RexNode;
+import org.apache.calcite.rex.RexWindowBound;
+import org.apache.calcite.sql.type.SqlTypeUtil;
+import org.apache.calcite.util.Util;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import software.amazon.documentdb.jdbc.metadata.DocumentDbMetadataColumn;
+import software.amazon.documentdb.jdbc.metadata.DocumentDbMetadataTable;
+import software.amazon.documentdb.jdbc.metadata.DocumentDbSchemaColumn;
+import software.amazon.documentdb.jdbc.metadata.DocumentDbSchemaTable;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+import static software.amazon.documentdb.jdbc.calcite.adapter.DocumentDbRules.getNormalizedIdentifier;
+import static software.amazon.documentdb.jdbc.calcite.adapter.DocumentDbRules.maybeQuote;
+
+/**
+ * Implementation of {@link Window} in DocumentDb. Each group of window functions with the same
+ * partitioning, ordering and frame is computed with a $setWindowFields stage, which adds the
+ * results as new fields of the input documents.
+ */
+public class DocumentDbWindow extends Window implements DocumentDbRel {
+
+    private static final Logger LOGGER =
+            LoggerFactory.getLogger(DocumentDbWindow.class.getName());
+    private static final String UNBOUNDED = "\"unbounded\"";
+    private static final String CURRENT = "\"current\"";
+
+    /**
+     * Creates a new {@link DocumentDbWindow}.
+     *
+     * @param cluster the cluster.
+     * @param traitSet the trait set.
+     * @param input the input.
+     * @param constants the constants used by the window functions and frame bounds.
+     * @param rowType the row type: the input fields followed by the window function results.
+     * @param groups the groups of window functions.
+     */
+    public DocumentDbWindow(
+            final RelOptCluster cluster,
+            final RelTraitSet traitSet,
+            final RelNode input,
+            final List<RexLiteral> constants,
+            final RelDataType rowType,
+            final List<Group> groups) {
+        super(cluster, traitSet, input, constants, rowType, groups);
+        assert getConvention() == DocumentDbRel.CONVENTION;
+    }
+
+    @Override
+    public RelNode copy(final RelTraitSet traitSet, final List<RelNode> inputs) {
+        return new DocumentDbWindow(getCluster(), traitSet, sole(inputs), constants, getRowType(), groups);
+    }
+
+
+    @Override
+    public @Nullable RelOptCost computeSelfCost(
+            final RelOptPlanner planner,
+            final RelMetadataQuery mq) {
+        final RelOptCost relOptCost = super.computeSelfCost(planner, mq);
+        return relOptCost != null
+                ? relOptCost.multiplyBy(DocumentDbRules.WINDOW_COST_FACTOR)
+                : null;
+    }
+
+    /**
+     * Gets whether all window functions can be computed with $setWindowFields. This requires
+     * supported functions on input fields, an ordering for the ranking functions and frames
+     * that can be expressed as a $setWindowFields window.
+     *
+     * @param window the window.
+     * @return {@code true} if the window can be pushed down, {@code false}, otherwise.
+     */
+    static boolean isPushable(final Window window) {
+        final int inputFieldCount = window.getInput().getRowType().getFieldCount();
+        for (Group group : window.groups) {
+            final int orderKeyCount = group.orderKeys.getFieldCollations().size();
+            boolean hasAggregate = false;
+            for (RexWinAggCall aggCall : group.aggCalls) {
+                if (aggCall.distinct || aggCall.getOperands().size() > 1) {
+                    return false;
+                }
+                for (RexNode operand : aggCall.getOperands()) {
+                    if (!(operand instanceof RexInputRef)
+                            || ((RexInputRef) operand).getIndex() >= inputFieldCount) {
+                        return false;
+                    }
+                }
+                switch (aggCall.getKind()) {
+                    case ROW_NUMBER:
+                        if (orderKeyCount == 0) {
+                            return false;
+                        }
+                        break;
+                    case RANK:
+                    case DENSE_RANK:
+                        // Ranks are computed on a single sort key.
+                        if (orderKeyCount != 1) {
+                            return false;
+                        }
+                        break;
+                    case COUNT:
+                        hasAggregate = true;
+                        break;
+                    case SUM0:
+                    case MIN:
+                    case MAX:
+                    case AVG:
+                        if (aggCall.getOperands().isEmpty()) {
+                            return false;
+                        }
+                        hasAggregate = true;
+                        break;
+                    default:
+                        return false;
+                }
+            }
+            if (hasAggregate && getWindow(window, group) == null) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void implement(final Implementor implementor) {
+        implementor.visitChild(0, getInput());
+        final List<String> inNames = getInput().getRowType().getFieldNames();
+        final List<String> mongoFieldNames =
+                DocumentDbRules.mongoFieldNames(getInput().getRowType(), implementor.getMetadataTable());
+        final List<String> outNames = getRowType().getFieldNames();
+        final LinkedHashMap<String, DocumentDbSchemaColumn> columnMap =
+                new LinkedHashMap<>(implementor.getMetadataTable().getColumnMap());
+
+        int columnIndex = inNames.size();
+        for (Group group : groups) {
+            final List<String> items = new ArrayList<>();
+            if (group.keys.cardinality() == 1) {
+                items.add("partitionBy: " + maybeQuote("$" + mongoFieldNames.get(group.keys.nth(0))));
+            } else if (!group.keys.isEmpty()) {
+                final List<String> keys = new ArrayList<>();
+                for (int key : group.keys) {
+                    keys.add(maybeQuote(acceptedMongoFieldName(inNames.get(key))) + ": "
+                            + maybeQuote("$" + mongoFieldNames.get(key)));
+                }
+                items.add("partitionBy: " + Util.toString(keys, "{", ", ", "}"));
+            }
+            if (!group.orderKeys.getFieldCollations().isEmpty()) {
+                final List<String> sortKeys = new ArrayList<>();
+                for (RelFieldCollation fieldCollation : group.orderKeys.getFieldCollations()) {
+                    sortKeys.add(maybeQuote(mongoFieldNames.get(fieldCollation.getFieldIndex())) + ": "
+                            + DocumentDbSort.direction(fieldCollation));
+                }
+                items.add("sortBy: " + Util.toString(sortKeys, "{", ", ", "}"));
+            }
+
+            final String frame = getWindow(this, group);
+            final List<String> outputs = new ArrayList<>();
+            for (RexWinAggCall aggCall : group.aggCalls) {
+                final String outName = outNames.get(columnIndex++);
+                final String fieldName = acceptedMongoFieldName(outName);
+                outputs.add(maybeQuote(fieldName) + ": " + toMongo(aggCall, mongoFieldNames, frame));
+                columnMap.put(outName,
+                        DocumentDbMetadataColumn.builder()
+                                .isGenerated(true)
+                                .fieldPath(fieldName)
+                                .sqlName(outName)
+                                .build());
+            }
+            items.add("output: " + Util.toString(outputs, "{", ", ", "}"));
+            implementor.add(null, "{$setWindowFields: " + Util.toString(items, "{", ", ", "}") + "}");
+        }
+
+        // Set the metadata table with the updated column map.
+        final DocumentDbSchemaTable oldMetadata = implementor.getMetadataTable();
+        final DocumentDbSchemaTable metadata = DocumentDbMetadataTable.builder()
+                .sqlName(oldMetadata.getSqlName())
+                .collectionName(oldMetadata.getCollectionName())
+                .columns(columnMap)
+                .build();
+        implementor.setMetadataTable(metadata);
+        implementor.setDocumentDbTable(
+                new DocumentDbTable(implementor.getDocumentDbTable().getCollectionName(), metadata));
+        LOGGER.info("Created window stages of pipeline.");
+        LOGGER.debug("Pipeline stages added: {}",
+                implementor.getList().stream()
+                        .map(c -> c.right)
+                        .toArray());
+    }
+
+    private static String toMongo(
+            final RexWinAggCall aggCall,
+            final List<String> inNames,
+            final @Nullable String frame) {
+        final String value = aggCall.getOperands().isEmpty()
+                ? null
+                : maybeQuote("$" + inNames.get(((RexInputRef) aggCall.getOperands().get(0)).getIndex()));
+        final String function;
+        switch (aggCall.getKind()) {
+            case ROW_NUMBER:
+                return "{$documentNumber: {}}";
+            case RANK:
+                return "{$rank: {}}";
+            case DENSE_RANK:
+                return "{$denseRank: {}}";
+            case COUNT:
+                function = value == null
+                        ? "$sum: 1"
+                        : "$sum: {$cond: [ {$gt: [" + value + ", null]}, 1, 0]}";
+                break;
+            case SUM0:
+                function = "$sum: " + value;
+                break;
+            case MIN:
+                function = "$min: " + value;
+                break;
+            case MAX:
+                function = "$max: " + value;
+                break;
+            case AVG:
+                function = "$avg: " + value;
+                break;
+            default:
+                throw new AssertionError("unknown window function " + aggCall.getOperator());
+        }
+        return frame == null || frame.isEmpty()
+                ? "{" + function + "}"
+                : "{" + function + ", window: {" + frame + "}}";
+    }
+
+    /**
+     * Gets the $setWindowFields window for the frame of the group.
+     *
+     * @param window the window.
+     * @param group the group.
+     * @return an empty string if the frame is the whole partition, the documents or range window
+     * otherwise, or {@code null} if the frame cannot be expressed as a window.
+     */
+    private static @Nullable String getWindow(final Window window, final Group group) {
+        final boolean lowerUnbounded = group.lowerBound.isUnbounded() && group.lowerBound.isPreceding();
+        final boolean upperUnbounded = group.upperBound.isUnbounded() && group.upperBound.isFollowing();
+        if (lowerUnbounded && upperUnbounded) {
+            return "";
+        }
+        final List<RelFieldCollation> orderKeys = group.orderKeys.getFieldCollations();
+        if (orderKeys.isEmpty()) {
+            return null;
+        }
+        if (group.isRows) {
+            final String lower = getBound(window, group.lowerBound);
+            final String upper = getBound(window, group.upperBound);
+            return lower != null && upper != null
+                    ? "documents: [" + lower + ", " + upper + "]"
+                    : null;
+        }
+
+        // Peer rows with the same sort key are in the frame of a range. A range window is
+        // computed on a single sort key with numeric or date values.
+        if (!lowerUnbounded || !group.upperBound.isCurrentRow() || orderKeys.size() != 1) {
+            return null;
+        }
+        final RelDataType sortKeyType = window.getInput().getRowType().getFieldList()
+                .get(orderKeys.get(0).getFieldIndex()).getType();
+        return SqlTypeUtil.isNumeric(sortKeyType) || SqlTypeUtil.isDatetime(sortKeyType)
+                ? "range: [" + UNBOUNDED + ", " + CURRENT + "]"
+                : null;
+    }
+
+    private static @Nullable String getBound(final Window window, final RexWindowBound bound) {
+        if (bound.isUnbounded()) {
+            return UNBOUNDED;
+        }
+        if (bound.isCurrentRow()) {
+            return CURRENT;
+        }
+        // Offsets refer to the constants after the input fields.
+        final RexNode offset = bound.getOffset();
+        if (!(offset instanceof RexInputRef)) {
+            return null;
+        }
+        final int constantIndex =
+                ((RexInputRef) offset).getIndex() - window.getInput().getRowType().getFieldCount();
+        if (constantIndex < 0 || constantIndex >= window.constants.size()) {
+            return null;
+        }
+        final BigDecimal value = window.constants.get(constantIndex).getValueAs(BigDecimal.class);
+        if (value == null || value.signum() < 0 || value.stripTrailingZeros().scale() > 0) {
+            return null;
+        }
+        return bound.isPreceding() ? value.negate().toPlainString() : value.toPlainString();
+    }
+
+    private static String acceptedMongoFieldName(final String path) {
+        return getNormalizedIdentifier(path).replace('.', '_');
+    }
+}
@@ -0,0 +1,509 @@
+/*
+ * Copyright <2021> Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ */
+
+package software.amazon.documentdb.jdbc.calcite.adapter;
+
+import com.google.common.collect.Iterators;
+import com.google.common.collect.PeekingIterator;
+import org.apache.calcite.DataContext;
+import org.apache.calcite.linq4j.AbstractEnumerable;
+import org.apache.calcite.linq4j.Enumerable;
+import org.apache.calcite.linq4j.Enumerator;
+import org.apache.calcite.sql.type.SqlTypeName;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Computes window functions over the results of pushed-down queries in the driver, when the
+ * window cannot be computed by DocumentDB. Called via code-generation from
+ * {@link DocumentDbHybridWindow}.
+ *
+ * <p>Rows are represented as {@code Object[]} and the input must be sorted by the partition keys,
+ * then by the order keys. Each partition is read once into a buffer, which spills to a temporary
+ * file beyond the in-memory limit, and the results are computed while reading the buffer
+ * again.</p>
+ */
+public final class DocumentDbWindowEnumerables {
+    /** The frame bound of UNBOUNDED PRECEDING. Other bounds are offsets from the current row. */
+    static final int UNBOUNDED_PRECEDING = Integer.MIN_VALUE;
+    /** The frame bound of UNBOUNDED FOLLOWING. */
+    static final int UNBOUNDED_FOLLOWING = Integer.MAX_VALUE;
+    private static final String SPILL_FILE_PREFIX = "documentdb-jdbc-window-";
+
+    private DocumentDbWindowEnumerables() {
+    }
+
+    /**
+     * Computes a group of window functions with the same partitioning, ordering and frame. The
+     * results are appended to each input row, in the order of the functions.
+     *
+     * @param root the data context.
+     * @param input the input, sorted by the partition keys, then by the order keys.
+     * @param partitionKeys the indexes of the partition keys.
+     * @param orderComparator the comparator of the order keys, or {@code null} if the window is
+     *                        not ordered.
+     * @param functions the kind of each function.
+     * @param arguments the index of the argument of each function, or -1 if it has none.
+     * @param resultTypes the SQL type name of the result of each function.
+     * @param isRows whether the frame is defined by rows rather than by a range of peers.
+     * @param lower the lower bound of the frame.
+     * @param upper the upper bound of the frame.
+     * @return the input rows with the results of the functions.
+     */
+    public static Enumerable<Object[]> window(
+            final DataContext root,
+            final Enumerable<Object[]> input,
+            final List<Integer> partitionKeys,
+            final @Nullable Comparator<Object[]> orderComparator,
+            final List<String> functions,
+            final List<Integer> arguments,
+            final List<String> resultTypes,
+            final boolean isRows,
+            final int lower,
+            final int upper) {
+        final int maxRowsInMemory = DocumentDbJoinEnumerables.getMaxRowsInMemory(root);
+        final AtomicBoolean cancelFlag = DocumentDbJoinEnumerables.getCancelFlag(root);
+        final WindowSpec spec = new WindowSpec(partitionKeys, orderComparator, functions, arguments,
+                resultTypes, isRows, lower, upper);
+        return new AbstractEnumerable<Object[]>() {
+            @Override
+            public Enumerator<Object[]> enumerator() {
+                return new WindowEnumerator(DocumentDbJoinEnumerables.cancelable(input, cancelFlag).enumerator(),
+                        spec, maxRowsInMemory, cancelFlag);
+            }
+        };
+    }
+
+    /** Describes the window to compute. */
+    private static final class WindowSpec {
+        private final int[] partitionKeys;
+        private final @Nullable Comparator<Object[]> orderComparator;
+        private final String[] functions;
+        private final int[] arguments;
+        private final SqlTypeName[] resultTypes;
+        private final boolean isRows;
+        private final int lower;
+        private final int upper;
+
+        WindowSpec(
+                final List<Integer> partitionKeys,
+                final @Nullable Comparator<Object[]> orderComparator,
+                final List<String> functions,
+                final List<Integer> arguments,
+                final List<String> resultTypes,
+                final boolean isRows,
+                final int lower,
+                final int upper) {
+            this.partitionKeys = partitionKeys.stream().mapToInt(Integer::intValue).toArray();
+            this.orderComparator = orderComparator;
+            this.functions = functions.toArray(new String[0]);
+            this.arguments = arguments.stream().mapToInt(Integer::intValue).toArray();
+            this.resultTypes = resultTypes.stream().map(SqlTypeName::valueOf).toArray(SqlTypeName[]::new);
+            this.isRows = isRows;
+            this.lower = lower;
+            this.upper = upper;
+        }
+
+        boolean isSamePartition(final Object[] row1, final Object[] row2) {
+            for (int key : partitionKeys) {
+                if (!Objects.equals(normalize(row1[key]), normalize(row2[key]))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        boolean isPeer(final Object[] row1, final Object[] row2) {
+            return orderComparator == null || orderComparator.compare(row1, row2) == 0;
+        }
+
+        private static @Nullable Object normalize(final @Nullable Object value) {
+            return value != null ? DocumentDbJoinEnumerables.normalizeKey(value) : null;
+        }
+    }
+
+    /** Reads the input one partition at a time and computes the window over each partition. */
+    private static final class WindowEnumerator implements Enumerator<Object[]> {
+        private final Enumerator<Object[]> input;
+        private final WindowSpec spec;
+        private final int maxRowsInMemory;
+        private final AtomicBoolean cancelFlag;
+        private PartitionBuffer partition;
+        private Iterator<Object[]> results;
+        private Object[] nextPartitionRow;
+        private boolean inputDone;
+        private Object[] current;
+
+        WindowEnumerator(
+                final Enumerator<Object[]> input,
+                final WindowSpec spec,
+                final int maxRowsInMemory,
+                final AtomicBoolean cancelFlag) {
+            this.input = input;
+            this.spec = spec;
+            this.maxRowsInMemory = maxRowsInMemory;
+            this.cancelFlag = cancelFlag;
+        }
+
+        @Override
+        public Object[] current() {
+            return current;
+        }
+
+        @Override
+        public boolean moveNext() {
+            // The results of a partition may be read back from a temporary file.
+            DocumentDbJoinEnumerables.checkCancel(cancelFlag);
+            try {
+                while (results == null || !results.hasNext()) {
+                    closePartition();
+                    if (!readPartition()) {
+                        current = null;
+                        return false;
+                    }
+                    results = new PartitionIterator(partition, spec);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            current = results.next();
+            return true;
+        }
+
+        private boolean readPartition() throws IOException {
+            Object[] first = nextPartitionRow;
+            nextPartitionRow = null;
+            if (first == null) {
+                if (inputDone || !input.moveNext()) {
+                    inputDone = true;
+                    return false;
+                }
+                first = input.current();
+            }
+            partition = new PartitionBuffer(maxRowsInMemory);
+            partition.add(first);
+            while (input.moveNext()) {
+                final Object[] row = input.current();
+                if (!spec.isSamePartition(first, row)) {
+                    nextPartitionRow = row;
+                    return true;
+                }
+                partition.add(row);
+            }
+            inputDone = true;
+            return true;
+        }
+
+        private void closePartition() {
+            if (partition != null) {
+                partition.close();
+                partition = null;
+            }
+            results = null;
+        }
+
+        @Override
+        public void reset() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void close() {
+            closePartition();
+            input.close();
+        }
+    }
+
+    /** The rows of a partition, in memory up to the limit, then in a temporary file. */
+    private static final class PartitionBuffer implements Closeable {
+        private final List<Object[]> rows = new ArrayList<>();
+        private final int maxRowsInMemory;
+        private DocumentDbSpillFile spillFile;
+
+        PartitionBuffer(final int maxRowsInMemory) {
+            this.maxRowsInMemory = maxRowsInMemory;
+        }
+
+        void add(final Object[] row) throws IOException {
+            if (spillFile == null && rows.size() < maxRowsInMemory) {
+                rows.add(row);
+                return;
+            }
+            if (spillFile == null) {
+                spillFile = new DocumentDbSpillFile(SPILL_FILE_PREFIX);
+            }
+            spillFile.write(row);
+        }
+
+        int size() {
+            return rows.size() + (spillFile != null ? spillFile.getRowCount() : 0);
+        }
+
+        Iterator<Object[]> iterator() throws IOException {
+            return spillFile != null
+                    ? Iterators.concat(rows.iterator(), spillFile.read())
+                    : rows.iterator();
+        }
+
+        @Override
+        public void close() {
+            if (spillFile != null) {
+                spillFile.close();
+                spillFile = null;
+            }
+            rows.clear();
+        }
+    }
+
+    /**
+     * Computes the window over a partition. One iterator reads the current row and another reads
+     * ahead to the end of its frame. Frames starting at the first row of the partition only add
+     * rows to the aggregates; other frames keep their rows, at most the size of the frame, in
+     * memory.
+     */
+    private static final class PartitionIterator implements Iterator<Object[]> {
+        private final WindowSpec spec;
+        private final int size;
+        private final Iterator<Object[]> rows;
+        private final PeekingIterator<Object[]> frameRows;
+        private final Accumulator[] accumulators;
+        private final Deque<Object[]> frame = new ArrayDeque<>();
+        private Object[] previous;
+        private int index;
+        private int frameEnd;
+        private long rank;
+        private long denseRank;
+
+        PartitionIterator(final PartitionBuffer partition, final WindowSpec spec) throws IOException {
+            this.spec = spec;
+            this.size = partition.size();
+            this.rows = partition.iterator();
+            this.frameRows = Iterators.peekingIterator(partition.iterator());
+            this.accumulators = new Accumulator[spec.functions.length];
+            for (int i = 0; i < accumulators.length; i++) {
+                accumulators[i] = new Accumulator(spec.functions[i], spec.arguments[i], spec.resultTypes[i]);
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return rows.hasNext();
+        }
+
+        @Override
+        public Object[] next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            final Object[] row = rows.next();
+            if (previous == null || !spec.isPeer(previous, row)) {
+                rank = index + 1;
+                denseRank++;
+            }
+            previous = row;
+            moveFrame(row);
+
+            final Object[] result = Arrays.copyOf(row, row.length + accumulators.length);
+            for (int i = 0; i < accumulators.length; i++) {
+                final Object value;
+                switch (spec.functions[i]) {
+                    case "ROW_NUMBER":
+                        value = index + 1L;
+                        break;
+                    case "RANK":
+                        value = rank;
+                        break;
+                    case "DENSE_RANK":
+                        value = denseRank;
+                        break;
+                    default:
+                        if (spec.lower != UNBOUNDED_PRECEDING) {
+                            accumulators[i].reset();
+                            for (Object[] frameRow : frame) {
+                                accumulators[i].add(frameRow);
+                            }
+                        }
+                        value = accumulators[i].result();
+                        break;
+                }
+                result[row.length + i] = convert(value, spec.resultTypes[i]);
+            }
+            index++;
+            return result;
+        }
+
+        private void moveFrame(final Object[] row) {
+            if (!spec.isRows && spec.upper == 0) {
+                // A range ending at the current row includes the following peers of the row.
+                while (frameRows.hasNext() && (frameEnd <= index || spec.isPeer(row, frameRows.peek()))) {
+                    addToFrame(frameRows.next());
+                }
+                return;
+            }
+            final long end = spec.upper == UNBOUNDED_FOLLOWING
+                    ? size
+                    : Math.max(0, Math.min(size, (long) index + spec.upper + 1));
+            while (frameEnd < end) {
+                addToFrame(frameRows.next());
+            }
+            if (spec.lower != UNBOUNDED_PRECEDING) {
+                final long start = Math.max(0, (long) index + spec.lower);
+                while (!frame.isEmpty() && frameEnd - frame.size() < start) {
+                    frame.removeFirst();
+                }
+            }
+        }
+
+        private void addToFrame(final Object[] row) {
+            frameEnd++;
+            if (spec.lower == UNBOUNDED_PRECEDING) {
+                for (Accumulator accumulator : accumulators) {
+                    accumulator.add(row);
+                }
+            } else {
+                frame.addLast(row);
+            }
+        }
+    }
+
+    /** Accumulates the value of an aggregate function over the rows of a frame. */
+    private static final class Accumulator {
+        private final String function;
+        private final int argument;
+        private final boolean isApproximate;
+        private long count;
+        private BigDecimal exactSum;
+        private double approximateSum;
+        private Object extreme;
+
+        Accumulator(final String function, final int argument, final SqlTypeName resultType) {
+            this.function = function;
+            this.argument = argument;
+            this.isApproximate = SqlTypeName.APPROX_TYPES.contains(resultType);
+            reset();
+        }
+
+        void reset() {
+            count = 0;
+            exactSum = BigDecimal.ZERO;
+            approximateSum = 0;
+            extreme = null;
+        }
+
+        void add(final Object[] row) {
+            final Object value = argument >= 0 ? row[argument] : Boolean.TRUE;
+            if (value == null) {
+                return;
+            }
+            count++;
+            switch (function) {
+                case "SUM":
+                case "SUM0":
+                case "AVG":
+                    if (isApproximate) {
+                        approximateSum += ((Number) value).doubleValue();
+                    } else {
+                        exactSum = exactSum.add(DocumentDbJoinEnumerables.toBigDecimal((Number) value));
+                    }
+                    break;
+                case "MIN":
+                    if (extreme == null || DocumentDbJoinEnumerables.compareValues(value, extreme) < 0) {
+                        extreme = value;
+                    }
+                    break;
+                case "MAX":
+                    if (extreme == null || DocumentDbJoinEnumerables.compareValues(value, extreme) > 0) {
+                        extreme = value;
+                    }
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        @Nullable Object result() {
+            switch (function) {
+                case "COUNT":
+                    return count;
+                case "SUM0":
+                    return sum();
+                case "SUM":
+                    return count > 0 ? sum() : null;
+                case "AVG":
+                    if (count == 0) {
+                        return null;
+                    }
+                    return isApproximate
+                            ? (Object) (approximateSum / count)
+                            : exactSum.divide(BigDecimal.valueOf(count), MathContext.DECIMAL64);
+                case "MIN":
+                case "MAX":
+                    return extreme;
+                default:
+                    throw new IllegalStateException("Unsupported window function " + function);
+            }
+        }
+
+        private Object sum() {
+            return isApproximate ? (Object) approximateSum : exactSum;
+        }
+    }
+
+    /**
+     * Converts a numeric result to the Java class of the result type. Other values are returned
+     * unchanged.
+     */
+    private static @Nullable Object convert(final @Nullable Object value, final SqlTypeName resultType) {
+        if (!(value instanceof Number)) {
+            return value;
+        }
+        final Number number = (Number) value;
+        switch (resultType) {
+            case TINYINT:
+                return number.byteValue();
+            case SMALLINT:
+                return number.shortValue();
+            case INTEGER:
+                return number.intValue();
+            case BIGINT:
+                return number.longValue();
+            case REAL:
+                return number.floatValue();
+            case FLOAT:
+            case DOUBLE:
+                return number.doubleValue();
+            case DECIMAL:
+                return DocumentDbJoinEnumerables.toBigDecimal(number);
+            default:
+                return value;
+        }
+    }
+}
@@ -21,10 +21,12 @@ import org.slf4j.LoggerFactory;
 
 import javax.sql.ConnectionEvent;
 import javax.sql.ConnectionEventListener;
+import javax.sql.StatementEvent;
 import javax.sql.StatementEventListener;
 import java.sql.SQLException;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * Abstract implementation of PooledConnection for JDBC Driver.
@@ -32,6 +34,7 @@ import java.util.List;
 public abstract class PooledConnection implements javax.sql.PooledConnection {
     private static final Logger LOGGER = LoggerFactory.getLogger(PooledConnection.class);
     private final List<ConnectionEventListener> connectionEventListeners = new LinkedList<>();
+    private final List<StatementEventListener> statementEventListeners = new CopyOnWriteArrayList<>();
     private final java.sql.Connection connection;
 
     /**
@@ -71,13 +74,38 @@ public abstract class PooledConnection implements javax.sql.PooledConnection {
 
     @Override
     public void addStatementEventListener(final StatementEventListener listener) {
-        // Do nothing, statement pooling is not supported.
-        LOGGER.debug("addStatementEventListener is called on the current PooledConnection object.");
+        LOGGER.debug("Add a StatementEventListener to this PooledConnection.");
+        if (listener != null) {
+            statementEventListeners.add(listener);
+        }
     }
 
     @Override
     public void removeStatementEventListener(final StatementEventListener listener) {
-        // Do nothing, statement pooling is not supported.
-        LOGGER.debug("removeStatementEventListener is called on the current PooledConnection object.");
+        LOGGER.debug("Remove the StatementEventListener attached to this PooledConnection.");
+        statementEventListeners.remove(listener);
+    }
+
+    /**
+     * Notifies all statement listeners that a prepared statement of this connection is closed.
+     *
+     * @param statement the closed statement.
+     */
+    protected void fireStatementClosed(final java.sql.PreparedStatement statement) {
+        final StatementEvent event = new StatementEvent(this, statement);
+        statementEventListeners.forEach(l -> l.statementClosed(event));
+    }
+
+    /**
+     * Notifies all statement listeners that a prepared statement of this connection is invalid.
+     *
+     * @param statement the invalid statement.
+     * @param exception the exception thrown by the statement.
+     */
+    protected void fireStatementErrorOccurred(
+            final java.sql.PreparedStatement statement,
+            final SQLException exception) {
+        final StatementEvent event = new StatementEvent(this, statement, exception);
+        statementEventListeners.forEach(l -> l.statementErrorOccurred(event));
     }
 }
@@ -0,0 +1,48 @@
+/*
+ * Copyright <2021> Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ */
+
+package software.amazon.documentdb.jdbc.common.utilities;
+
+import org.bson.Document;
+
+/**
+ * Resolves dot-separated field paths in documents.
+ */
+public final class DocumentDbPaths {
+
+    private DocumentDbPaths() {
+    }
+
+    /**
+     * Gets the value of a field path, for example 'a.b.c', in a document. Each segment of the path
+     * is resolved in the embedded document of the previous segment.
+     *
+     * @param document the document.
+     * @param path the dot-separated field path.
+     * @return the value of the field, or {@code null} if the path is empty or does not exist.
+     */
+    public static Object getPathValue(final Document document, final String path) {
+        if (path == null || path.isEmpty()) {
+            return null;
+        }
+        final String[] segmentedPath = path.split("\\.");
+        Object segmentValue = document.get(segmentedPath[0]);
+        for (int j = 1; j < segmentedPath.length && segmentValue instanceof Document; j++) {
+            segmentValue = ((Document) segmentValue).get(segmentedPath[j]);
+        }
+        return segmentValue;
+    }
+}
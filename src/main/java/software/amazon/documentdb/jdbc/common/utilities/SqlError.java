@@ -22,6 +22,7 @@ import java.sql.ClientInfoStatus;
 import java.sql.SQLClientInfoException;
 import java.sql.SQLException;
 import java.sql.SQLFeatureNotSupportedException;
+import java.sql.SQLTimeoutException;
 import java.util.Map;
 import java.util.ResourceBundle;
 
@@ -46,6 +47,7 @@ public enum SqlError {
     INVALID_FETCH_SIZE,
     INVALID_FORMAT,
     INVALID_LARGE_MAX_ROWS_SIZE,
+    INVALID_LIKE_PATTERN,
     INVALID_MAX_FIELD_SIZE,
     INVALID_ROW_VALUE,
     INVALID_INDEX,
@@ -54,6 +56,7 @@ public enum SqlError {
     JOIN_MISSING_PRIMARY_KEYS,
     KNOWN_HOSTS_FILE_NOT_FOUND,
     MISSING_DATABASE,
+    MISSING_EXECUTOR,
     MISSING_HOSTNAME,
     MISSING_JAVA_HOME,
     MISSING_JAVA_BIN,
@@ -65,6 +68,7 @@ public enum SqlError {
     MISSING_USER_PASSWORD,
     MISSING_LITERAL_VALUE,
     MISMATCH_SCHEMA_NAME,
+    NETWORK_TIMEOUT,
     PARAMETERS_NOT_SUPPORTED,
     PASSWORD_PROMPT,
     POOLING_NOT_SUPPORTED,
@@ -73,6 +77,7 @@ public enum SqlError {
     QUERY_FAILED,
     QUERY_IN_PROGRESS,
     QUERY_NOT_STARTED_OR_COMPLETE,
+    QUERY_TIMED_OUT,
     READ_ONLY,
     RESULT_FORWARD_ONLY,
     RESULT_SET_CLOSED,
@@ -94,6 +99,7 @@ public enum SqlError {
     UNSUPPORTED_FUNCTION_COLUMNS,
     UNSUPPORTED_GENERATED_KEYS,
     UNSUPPORTED_JOIN_TYPE,
+    UNSUPPORTED_JOIN_SET_OPERATION,
     UNSUPPORTED_PREPARE_STATEMENT,
     UNSUPPORTED_PREPARE_CALL,
     UNSUPPORTED_PROCEDURE_COLUMNS,
@@ -220,6 +226,25 @@ public enum SqlError {
         return new SQLFeatureNotSupportedException(error);
     }
 
+    /**
+     * Create {@link SQLTimeoutException} of error and log the message with a {@link Logger}.
+     *
+     * @param logger     The {@link Logger} contains log info.
+     * @param sqlState   A code identifying the SQL error condition.
+     * @param key        Resource key for bundle provided to constructor.
+     * @param formatArgs Any additional arguments to format the resource string with.
+     * @return SQLTimeoutException with error message.
+     */
+    public static SQLTimeoutException createSQLTimeoutException(
+            final Logger logger,
+            final SqlState sqlState,
+            final SqlError key,
+            final Object... formatArgs) {
+        final String error = lookup(key, formatArgs);
+        logger.error(error);
+        return new SQLTimeoutException(error, sqlState.getSqlState());
+    }
+
     /**
      * Create {@link SQLClientInfoException} of error and log the message with a {@link Logger}.
      *
@@ -35,6 +35,7 @@ public enum SqlState {
     NO_RESULT_SET_RETURNED("02001"),
     OPERATION_CANCELED("HY008"),
     SQL_CLIENT_UNABLE_TO_ESTABLISH_SQL_CONNECTION("08001"),
+    TIMEOUT_EXPIRED("HYT00"),
     ;
 
     /**
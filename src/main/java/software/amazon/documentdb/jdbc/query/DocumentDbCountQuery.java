@@ -0,0 +1,142 @@
+/*
+ * Copyright <2021> Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ */
+
+package software.amazon.documentdb.jdbc.query;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+import org.bson.conversions.Bson;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.util.List;
+import java.util.Map.Entry;
+
+/**
+ * Describes an equivalent count command for an aggregation pipeline that only counts the
+ * documents of a single (non-virtual) table, optionally filtered.
+ *
+ * <p>Queries like {@code SELECT COUNT(*) FROM t} are issued often by reporting tools to size
+ * result sets. Answering them with countDocuments() or estimatedDocumentCount() returns a single
+ * number without opening a cursor.</p>
+ */
+@Getter
+@AllArgsConstructor
+public class DocumentDbCountQuery {
+    private static final String ID_FIELD = "_id";
+    private static final String MATCH = "$match";
+    private static final String PROJECT = "$project";
+    private static final String GROUP = "$group";
+    private static final String LIMIT = "$limit";
+    private static final String SUM = "$sum";
+
+    /** The query filter; empty if all documents are counted. */
+    private final BsonDocument filter;
+
+    /**
+     * Attempts to convert the aggregation stages into an equivalent count command.
+     *
+     * <p>Only pipelines of the form {@code [$match] [$project]* $group [$limit]*} are converted,
+     * where the {@code $group} stage has no group keys and a single {@code {$sum: 1}} field, which
+     * is the only column of the return row. Projections before the {@code $group} do not change
+     * the number of documents. Any other stage (e.g., {@code $unwind} of a virtual table or
+     * {@code $lookup}) means the query must be run as an aggregation.</p>
+     *
+     * @param stages the aggregation stages.
+     * @param paths the field paths for each column of the return row.
+     * @return a {@link DocumentDbCountQuery} if the pipeline only counts documents,
+     * {@code null}, otherwise.
+     */
+    @Nullable
+    public static DocumentDbCountQuery fromAggregateOperations(
+            final List<Bson> stages,
+            final List<String> paths) {
+        if (stages == null || paths == null || paths.size() != 1) {
+            return null;
+        }
+
+        BsonDocument queryFilter = new BsonDocument();
+        boolean counted = false;
+        for (int i = 0; i < stages.size(); i++) {
+            final BsonDocument stageDocument = stages.get(i).toBsonDocument();
+            if (stageDocument.size() != 1) {
+                return null;
+            }
+            final String stageName = stageDocument.getFirstKey();
+            final BsonValue stageValue = stageDocument.get(stageName);
+            switch (stageName) {
+                case MATCH:
+                    // Filters must be applied to source documents before any other stage.
+                    if (i != 0 || !stageValue.isDocument()) {
+                        return null;
+                    }
+                    queryFilter = stageValue.asDocument();
+                    break;
+                case PROJECT:
+                    if (counted) {
+                        return null;
+                    }
+                    break;
+                case GROUP:
+                    if (counted || !stageValue.isDocument() || !isCount(stageValue.asDocument(), paths.get(0))) {
+                        return null;
+                    }
+                    counted = true;
+                    break;
+                case LIMIT:
+                    // The single row is returned unless the limit is zero.
+                    if (!counted || !stageValue.isNumber() || stageValue.asNumber().longValue() <= 0) {
+                        return null;
+                    }
+                    break;
+                default:
+                    return null;
+            }
+        }
+        return counted ? new DocumentDbCountQuery(queryFilter) : null;
+    }
+
+    /**
+     * Gets whether the $group specification counts all input documents into the given field.
+     *
+     * @param group the $group specification.
+     * @param path the field path of the count.
+     * @return {@code true} if the group has no keys and only counts documents, {@code false}, otherwise.
+     */
+    private static boolean isCount(final BsonDocument group, final String path) {
+        if (group.size() != 2) {
+            return false;
+        }
+        final BsonValue id = group.get(ID_FIELD);
+        if (id == null || !id.isDocument() || !id.asDocument().isEmpty()) {
+            return false;
+        }
+        for (Entry<String, BsonValue> field : group.entrySet()) {
+            if (field.getKey().equals(ID_FIELD)) {
+                continue;
+            }
+            final BsonValue value = field.getValue();
+            return field.getKey().equals(path)
+                    && value.isDocument()
+                    && value.asDocument().size() == 1
+                    && value.asDocument().containsKey(SUM)
+                    && value.asDocument().get(SUM).isNumber()
+                    && value.asDocument().get(SUM).asNumber().doubleValue() == 1;
+        }
+        return false;
+    }
+}
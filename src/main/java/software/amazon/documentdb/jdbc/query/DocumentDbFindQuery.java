@@ -0,0 +1,259 @@
+/*
+ * Copyright <2021> Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ */
+
+package software.amazon.documentdb.jdbc.query;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.bson.BsonDocument;
+import org.bson.BsonInt32;
+import org.bson.BsonValue;
+import org.bson.conversions.Bson;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+/**
+ * Describes an equivalent find() command for an aggregation pipeline that only filters, projects,
+ * sorts and limits documents of a single (non-virtual) table.
+ *
+ * <p>Simple queries like {@code SELECT a, b FROM t WHERE x = 1 ORDER BY y LIMIT 10} do not need
+ * the aggregation framework. Running them as a find() avoids the pipeline overhead on the server
+ * and lets point lookups and small range queries use the cheaper query path.</p>
+ */
+@Getter
+@AllArgsConstructor
+public class DocumentDbFindQuery {
+    private static final String ID_FIELD = "_id";
+    private static final String MATCH = "$match";
+    private static final String PROJECT = "$project";
+    private static final String SORT = "$sort";
+    private static final String SKIP = "$skip";
+    private static final String LIMIT = "$limit";
+
+    /** The query filter. */
+    private final BsonDocument filter;
+    /** The projection of the source fields. */
+    private final BsonDocument projection;
+    /** The sort specification, in terms of the source fields; or {@code null} if not sorted. */
+    private final BsonDocument sort;
+    /** The number of documents to skip. */
+    private final int skip;
+    /** The maximum number of documents to return; zero indicates no limit. */
+    private final int limit;
+    /** The source field paths for each column of the return row. */
+    private final List<String> paths;
+
+    /**
+     * Attempts to convert the aggregation stages into an equivalent find() command.
+     *
+     * <p>Only pipelines of the form {@code [$match] [$project]* [$sort] [$skip] [$limit]*} are
+     * converted, where every projected column is a plain field reference. Any other stage (e.g.,
+     * {@code $unwind}, {@code $lookup}, {@code $group} or computed columns) means the query
+     * must be run as an aggregation.</p>
+     *
+     * @param stages the aggregation stages.
+     * @param paths the field paths for each column of the return row.
+     * @return a {@link DocumentDbFindQuery} if the pipeline can be run as a find() command,
+     * {@code null}, otherwise.
+     */
+    @Nullable
+    public static DocumentDbFindQuery fromAggregateOperations(
+            final List<Bson> stages,
+            final List<String> paths) {
+        if (stages == null || paths == null || paths.isEmpty()) {
+            return null;
+        }
+
+        BsonDocument queryFilter = new BsonDocument();
+        BsonDocument querySort = null;
+        long querySkip = 0;
+        long queryLimit = 0;
+        // Maps the current field names to source field paths. Null until the first $project.
+        Map<String, String> fieldPaths = null;
+        for (Bson stage : stages) {
+            final BsonDocument stageDocument = stage.toBsonDocument();
+            if (stageDocument.size() != 1) {
+                return null;
+            }
+            final String stageName = stageDocument.getFirstKey();
+            final BsonValue stageValue = stageDocument.get(stageName);
+            switch (stageName) {
+                case MATCH:
+                    // Filters must be applied to source documents before any other stage.
+                    if (!stageValue.isDocument() || !queryFilter.isEmpty() || fieldPaths != null
+                            || querySort != null || querySkip > 0 || queryLimit > 0) {
+                        return null;
+                    }
+                    queryFilter = stageValue.asDocument();
+                    break;
+                case PROJECT:
+                    if (!stageValue.isDocument()) {
+                        return null;
+                    }
+                    fieldPaths = getProjectedFieldPaths(stageValue.asDocument(), fieldPaths);
+                    if (fieldPaths == null) {
+                        return null;
+                    }
+                    break;
+                case SORT:
+                    if (!stageValue.isDocument() || querySort != null || querySkip > 0 || queryLimit > 0) {
+                        return null;
+                    }
+                    querySort = getSourceSort(stageValue.asDocument(), fieldPaths);
+                    if (querySort == null) {
+                        return null;
+                    }
+                    break;
+                case SKIP:
+                    if (!stageValue.isNumber()) {
+                        return null;
+                    }
+                    final long stageSkip = stageValue.asNumber().longValue();
+                    if (queryLimit > 0) {
+                        // A $limit before a $skip leaves fewer rows after skipping.
+                        if (stageSkip >= queryLimit) {
+                            return null;
+                        }
+                        queryLimit -= stageSkip;
+                    }
+                    querySkip += stageSkip;
+                    break;
+                case LIMIT:
+                    // A find() limit of zero means no limit.
+                    if (!stageValue.isNumber() || stageValue.asNumber().longValue() <= 0) {
+                        return null;
+                    }
+                    final long stageLimit = stageValue.asNumber().longValue();
+                    queryLimit = queryLimit > 0 ? Math.min(queryLimit, stageLimit) : stageLimit;
+                    break;
+                default:
+                    return null;
+            }
+        }
+        if (querySkip < 0 || querySkip > Integer.MAX_VALUE || queryLimit > Integer.MAX_VALUE) {
+            return null;
+        }
+
+        final List<String> sourcePaths = new ArrayList<>();
+        for (String path : paths) {
+            final String sourcePath = fieldPaths != null ? fieldPaths.get(path) : path;
+            if (sourcePath == null || sourcePath.isEmpty()) {
+                return null;
+            }
+            sourcePaths.add(sourcePath);
+        }
+        final BsonDocument queryProjection = getProjection(sourcePaths);
+        if (queryProjection == null) {
+            return null;
+        }
+        return new DocumentDbFindQuery(
+                queryFilter, queryProjection, querySort, (int) querySkip, (int) queryLimit, sourcePaths);
+    }
+
+    /**
+     * Gets the mapping of projected field names to source field paths.
+     *
+     * @param project the $project specification.
+     * @param previousFieldPaths the mapping from any previous $project stage.
+     * @return the mapping of projected field names to source paths, or {@code null} if any field
+     * is not a plain field reference.
+     */
+    @Nullable
+    private static Map<String, String> getProjectedFieldPaths(
+            final BsonDocument project,
+            final Map<String, String> previousFieldPaths) {
+        final Map<String, String> fieldPaths = new LinkedHashMap<>();
+        for (Entry<String, BsonValue> field : project.entrySet()) {
+            final BsonValue value = field.getValue();
+            if (field.getKey().equals(ID_FIELD) && isExclusion(value)) {
+                continue;
+            }
+            if (!value.isString() || !value.asString().getValue().startsWith("$")
+                    || value.asString().getValue().startsWith("$$")) {
+                return null;
+            }
+            final String fieldName = value.asString().getValue().substring(1);
+            final String sourcePath = previousFieldPaths != null
+                    ? previousFieldPaths.get(fieldName)
+                    : fieldName;
+            if (sourcePath == null) {
+                return null;
+            }
+            fieldPaths.put(field.getKey(), sourcePath);
+        }
+        return fieldPaths;
+    }
+
+    /**
+     * Gets the sort specification in terms of the source field paths.
+     *
+     * @param sort the $sort specification.
+     * @param fieldPaths the current field mapping, if any.
+     * @return the sort specification on source paths, or {@code null} if a sort key cannot be mapped.
+     */
+    @Nullable
+    private static BsonDocument getSourceSort(
+            final BsonDocument sort,
+            final Map<String, String> fieldPaths) {
+        final BsonDocument sourceSort = new BsonDocument();
+        for (Entry<String, BsonValue> key : sort.entrySet()) {
+            final String sourcePath = fieldPaths != null
+                    ? fieldPaths.get(key.getKey())
+                    : key.getKey();
+            if (sourcePath == null || sourceSort.containsKey(sourcePath)) {
+                return null;
+            }
+            sourceSort.append(sourcePath, key.getValue());
+        }
+        return sourceSort;
+    }
+
+    /**
+     * Gets the find() projection for the source paths.
+     *
+     * @param sourcePaths the source field paths.
+     * @return the inclusion projection, or {@code null} if any paths collide.
+     */
+    @Nullable
+    private static BsonDocument getProjection(final List<String> sourcePaths) {
+        final BsonDocument sourceProjection = new BsonDocument();
+        boolean includesId = false;
+        for (String path : sourcePaths) {
+            for (String other : sourcePaths) {
+                // The find() projection does not allow projecting both a document and its fields.
+                if (other.startsWith(path + ".")) {
+                    return null;
+                }
+            }
+            sourceProjection.put(path, new BsonInt32(1));
+            includesId |= path.equals(ID_FIELD) || path.startsWith(ID_FIELD + ".");
+        }
+        if (!includesId) {
+            sourceProjection.put(ID_FIELD, new BsonInt32(0));
+        }
+        return sourceProjection;
+    }
+
+    private static boolean isExclusion(final BsonValue value) {
+        return (value.isNumber() && value.asNumber().intValue() == 0)
+                || (value.isBoolean() && !value.asBoolean().getValue());
+    }
+}
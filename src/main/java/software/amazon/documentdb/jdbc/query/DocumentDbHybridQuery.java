@@ -0,0 +1,107 @@
+/*
+ * Copyright <2021> Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ */
+
+package software.amazon.documentdb.jdbc.query;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.apache.calcite.DataContext;
+import org.apache.calcite.adapter.java.JavaTypeFactory;
+import org.apache.calcite.jdbc.CalcitePrepare.CalciteSignature;
+import org.apache.calcite.linq4j.Enumerable;
+import org.apache.calcite.linq4j.Enumerator;
+import org.apache.calcite.linq4j.QueryProvider;
+import org.apache.calcite.schema.SchemaPlus;
+import software.amazon.documentdb.jdbc.calcite.adapter.DocumentDbQueryRunner;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TimeZone;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * A query that is executed partly in the driver, when hybrid execution is enabled. The pushed-down
+ * parts of the query are run on DocumentDB using the {@link DocumentDbQueryRunner} given at
+ * execution, and their results are combined by the generated code of the query plan.
+ */
+@Getter
+@AllArgsConstructor
+public class DocumentDbHybridQuery {
+    /** The prepared query. */
+    private final CalciteSignature<?> signature;
+    /** The data context of the prepared query; it is not shared with other queries. */
+    private final DataContext prepareDataContext;
+    /** The maximum number of rows to return; zero indicates no limit. */
+    private final long maxRowCount;
+
+    /**
+     * Executes the query.
+     *
+     * @param queryRunner the runner used to execute the pushed-down parts of the query.
+     * @return an enumerator of the result rows. Each row is an {@code Object[]} or, if the query
+     * returns a single column, the column value.
+     */
+    public Enumerator<Object> execute(final DocumentDbQueryRunner queryRunner) {
+        return execute(queryRunner, new AtomicBoolean(false));
+    }
+
+    /**
+     * Executes the query. Operators executed in the driver stop reading their input once the
+     * cancel flag is set.
+     *
+     * @param queryRunner the runner used to execute the pushed-down parts of the query.
+     * @param cancelFlag the flag set when the query is canceled or exceeds its timeout.
+     * @return an enumerator of the result rows. Each row is an {@code Object[]} or, if the query
+     * returns a single column, the column value.
+     */
+    @SuppressWarnings("unchecked")
+    public Enumerator<Object> execute(final DocumentDbQueryRunner queryRunner, final AtomicBoolean cancelFlag) {
+        final long now = System.currentTimeMillis();
+        final Map<String, Object> variables = new HashMap<>();
+        variables.put(DataContext.Variable.UTC_TIMESTAMP.camelName, now);
+        variables.put(DataContext.Variable.CURRENT_TIMESTAMP.camelName, now);
+        variables.put(DataContext.Variable.LOCAL_TIMESTAMP.camelName, now);
+        variables.put(DataContext.Variable.TIME_ZONE.camelName, TimeZone.getTimeZone("UTC"));
+        variables.put(DataContext.Variable.CANCEL_FLAG.camelName, cancelFlag);
+        variables.put(DocumentDbQueryRunner.DATA_CONTEXT_KEY, queryRunner);
+        final DataContext dataContext = new DataContext() {
+            @Override
+            public SchemaPlus getRootSchema() {
+                return prepareDataContext.getRootSchema();
+            }
+
+            @Override
+            public JavaTypeFactory getTypeFactory() {
+                return prepareDataContext.getTypeFactory();
+            }
+
+            @Override
+            public QueryProvider getQueryProvider() {
+                return null;
+            }
+
+            @Override
+            public Object get(final String name) {
+                return variables.get(name);
+            }
+        };
+
+        final Enumerable<Object> enumerable = (Enumerable<Object>) signature.enumerable(dataContext);
+        return maxRowCount > 0
+                ? enumerable.take((int) Math.min(maxRowCount, Integer.MAX_VALUE)).enumerator()
+                : enumerable.enumerator();
+    }
+}
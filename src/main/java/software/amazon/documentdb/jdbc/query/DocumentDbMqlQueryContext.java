@@ -41,6 +41,22 @@ public class DocumentDbMqlQueryContext {
     private final String collectionName;
     /** The path information for the output documents. Maps column names to field paths.*/
     private final List<String> paths;
+    /** The equivalent find() command, if the query does not need the aggregation framework. */
+    private final DocumentDbFindQuery findQuery;
+    /** The equivalent count command, if the query only counts the documents of a table. */
+    private final DocumentDbCountQuery countQuery;
+    /** The query to execute partly in the driver, if the query cannot be fully pushed down. */
+    private final DocumentDbHybridQuery hybridQuery;
+    /**
+     * Indicates the query is analytic (joins, aggregations or large collection scans), so it can
+     * be routed to secondaries.
+     */
+    private final boolean analyticQuery;
+    /**
+     * Indicates the translation can be used by later executions of the query, as it neither
+     * depends on the time it was translated nor keeps state of an execution.
+     */
+    private final boolean reusable;
 
     /**
      * Gets the aggregation operations (stages) for the query as a list of strings.
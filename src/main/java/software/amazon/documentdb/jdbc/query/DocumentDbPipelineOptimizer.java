@@ -0,0 +1,649 @@
+/*
+ * Copyright <2021> Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ */
+
+package software.amazon.documentdb.jdbc.query;
+
+import org.bson.BsonArray;
+import org.bson.BsonBoolean;
+import org.bson.BsonDocument;
+import org.bson.BsonDouble;
+import org.bson.BsonInt32;
+import org.bson.BsonInt64;
+import org.bson.BsonString;
+import org.bson.BsonValue;
+import org.bson.conversions.Bson;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+/**
+ * Removes redundant stages from a translated aggregation pipeline.
+ *
+ * <p>The pipeline is generated one relational operator at a time, so it often contains stages
+ * that can be combined: adjacent $match stages (e.g., the null filters of virtual tables), a
+ * $project or $addFields followed by another $project, and no-op stages like {@code {$match: {}}}.
+ * Constant arithmetic and conditions in expressions are also folded. Every rewrite returns the
+ * same documents as the original pipeline.</p>
+ */
+public final class DocumentDbPipelineOptimizer {
+    private static final String ID_FIELD = "_id";
+    private static final String MATCH = "$match";
+    private static final String PROJECT = "$project";
+    private static final String ADD_FIELDS = "$addFields";
+    private static final String SKIP = "$skip";
+    private static final String LIMIT = "$limit";
+    private static final String EXPR = "$expr";
+    private static final String LITERAL = "$literal";
+    private static final String AND = "$and";
+    private static final String OR = "$or";
+    private static final String NOT = "$not";
+    private static final String COND = "$cond";
+    private static final String ADD = "$add";
+    private static final String SUBTRACT = "$subtract";
+    private static final String MULTIPLY = "$multiply";
+    private static final String ROOT = "$$ROOT";
+    private static final String CURRENT = "$$CURRENT";
+
+    private DocumentDbPipelineOptimizer() { }
+
+    /**
+     * Optimizes the aggregation stages. The given stages are not modified.
+     *
+     * @param stages the aggregation stages.
+     * @return the optimized aggregation stages.
+     */
+    public static List<Bson> optimize(final List<Bson> stages) {
+        if (stages == null || stages.isEmpty()) {
+            return stages;
+        }
+        final List<BsonDocument> result = new ArrayList<>();
+        for (Bson stage : stages) {
+            BsonDocument current = foldConstants(stage.toBsonDocument());
+            // Combine with the previous stages for as long as possible.
+            while (!result.isEmpty()) {
+                final BsonDocument combined = combine(result.get(result.size() - 1), current);
+                if (combined == null) {
+                    break;
+                }
+                result.remove(result.size() - 1);
+                current = combined;
+            }
+            if (!isNoOp(current)) {
+                result.add(current);
+            }
+        }
+        return new ArrayList<>(result);
+    }
+
+    /**
+     * Gets whether the stage passes all documents through unchanged.
+     *
+     * @param stage the stage.
+     * @return {@code true} if the stage can be removed, {@code false}, otherwise.
+     */
+    private static boolean isNoOp(final BsonDocument stage) {
+        if (stage.size() != 1) {
+            return false;
+        }
+        final String stageName = stage.getFirstKey();
+        final BsonValue stageValue = stage.get(stageName);
+        switch (stageName) {
+            case MATCH:
+                if (!stageValue.isDocument()) {
+                    return false;
+                }
+                final BsonDocument filter = stageValue.asDocument();
+                return filter.isEmpty()
+                        || (filter.size() == 1 && isTrue(filter.get(EXPR)));
+            case ADD_FIELDS:
+                return stageValue.isDocument() && stageValue.asDocument().isEmpty();
+            case SKIP:
+                return stageValue.isNumber() && stageValue.asNumber().longValue() == 0;
+            default:
+                return false;
+        }
+    }
+
+    private static boolean isTrue(final BsonValue value) {
+        if (value == null) {
+            return false;
+        }
+        if (value.isDocument() && value.asDocument().size() == 1 && value.asDocument().containsKey(LITERAL)) {
+            return isTrue(value.asDocument().get(LITERAL));
+        }
+        return value.isBoolean() && value.asBoolean().getValue();
+    }
+
+    /**
+     * Combines two adjacent stages into a single stage.
+     *
+     * @param previous the previous stage.
+     * @param next the next stage.
+     * @return the combined stage, or {@code null} if the stages cannot be combined.
+     */
+    @Nullable
+    private static BsonDocument combine(final BsonDocument previous, final BsonDocument next) {
+        if (previous.size() != 1 || next.size() != 1) {
+            return null;
+        }
+        final String previousName = previous.getFirstKey();
+        final String nextName = next.getFirstKey();
+        final BsonValue previousValue = previous.get(previousName);
+        final BsonValue nextValue = next.get(nextName);
+        if (previousName.equals(MATCH) && nextName.equals(MATCH)
+                && previousValue.isDocument() && nextValue.isDocument()) {
+            return new BsonDocument(MATCH, mergeFilters(previousValue.asDocument(), nextValue.asDocument()));
+        }
+        if (previousName.equals(SKIP) && nextName.equals(SKIP)
+                && previousValue.isNumber() && nextValue.isNumber()) {
+            final BsonValue skip = addIntegers(previousValue, nextValue);
+            return skip != null ? new BsonDocument(SKIP, skip) : null;
+        }
+        if (previousName.equals(LIMIT) && nextName.equals(LIMIT)
+                && previousValue.isNumber() && nextValue.isNumber()) {
+            return previousValue.asNumber().longValue() <= nextValue.asNumber().longValue()
+                    ? previous
+                    : next;
+        }
+        if ((previousName.equals(PROJECT) || previousName.equals(ADD_FIELDS)) && nextName.equals(PROJECT)
+                && previousValue.isDocument() && nextValue.isDocument()) {
+            final BsonDocument projection = mergeProjections(
+                    previousValue.asDocument(), previousName.equals(ADD_FIELDS), nextValue.asDocument());
+            return projection != null ? new BsonDocument(PROJECT, projection) : null;
+        }
+        return null;
+    }
+
+    /**
+     * Merges two filters into their conjunction, removing duplicate conditions.
+     */
+    private static BsonDocument mergeFilters(final BsonDocument first, final BsonDocument second) {
+        final List<BsonValue> conditions = new ArrayList<>();
+        for (BsonDocument filter : new BsonDocument[] {first, second}) {
+            final List<BsonValue> filterConditions = new ArrayList<>();
+            if (filter.size() == 1 && filter.containsKey(AND) && filter.get(AND).isArray()) {
+                filterConditions.addAll(filter.getArray(AND).getValues());
+            } else if (!filter.isEmpty()) {
+                filterConditions.add(filter);
+            }
+            for (BsonValue condition : filterConditions) {
+                if (!conditions.contains(condition)) {
+                    conditions.add(condition);
+                }
+            }
+        }
+        if (conditions.isEmpty()) {
+            return new BsonDocument();
+        }
+        if (conditions.size() == 1 && conditions.get(0).isDocument()) {
+            return conditions.get(0).asDocument();
+        }
+        return new BsonDocument(AND, new BsonArray(conditions));
+    }
+
+    /**
+     * Merges a $project or $addFields stage with the following $project stage by replacing the
+     * references to the computed fields of the first stage with their expressions.
+     *
+     * @param previous the specification of the first stage.
+     * @param isAddFields whether the first stage is an $addFields stage, which keeps all other fields.
+     * @param next the specification of the $project stage.
+     * @return the merged $project specification, or {@code null} if the stages cannot be merged.
+     */
+    @Nullable
+    private static BsonDocument mergeProjections(
+            final BsonDocument previous,
+            final boolean isAddFields,
+            final BsonDocument next) {
+        if (!isInclusion(next) || (!isAddFields && !isInclusion(previous))) {
+            return null;
+        }
+
+        // Determine the expression of each field output by the first stage.
+        final Map<String, BsonValue> definitions = new LinkedHashMap<>();
+        if (!isAddFields && !previous.containsKey(ID_FIELD)) {
+            definitions.put(ID_FIELD, new BsonString("$" + ID_FIELD));
+        }
+        for (Entry<String, BsonValue> field : previous.entrySet()) {
+            final String name = field.getKey();
+            final BsonValue value = field.getValue();
+            if (!isSimpleName(name) || isObjectSpecification(value)) {
+                return null;
+            }
+            if (isAddFields) {
+                definitions.put(name, value);
+            } else if (isInclusionFlag(value)) {
+                definitions.put(name, new BsonString("$" + name));
+            } else if (!isExclusion(value)) {
+                definitions.put(name, value);
+            }
+        }
+
+        final BsonDocument merged = new BsonDocument();
+        final Map<String, Integer> referenceCounts = new HashMap<>();
+        for (Entry<String, BsonValue> field : next.entrySet()) {
+            final String name = field.getKey();
+            final BsonValue value = field.getValue();
+            if (!isSimpleName(name)) {
+                return null;
+            }
+            if (name.equals(ID_FIELD) && isExclusion(value)) {
+                merged.put(name, value);
+            } else if (isInclusionFlag(value)) {
+                final BsonValue definition = definitions.get(name);
+                if (definition == null) {
+                    // Fields not computed by $addFields are passed through.
+                    if (!isAddFields) {
+                        return null;
+                    }
+                    merged.put(name, value);
+                } else if (definition.isString() && definition.asString().getValue().equals("$" + name)) {
+                    merged.put(name, value);
+                } else {
+                    referenceCounts.merge(name, 1, Integer::sum);
+                    merged.put(name, toProjectionValue(definition));
+                }
+            } else {
+                if (isObjectSpecification(value)) {
+                    return null;
+                }
+                final BsonValue substituted = substitute(value, definitions, isAddFields, referenceCounts);
+                if (substituted == null || isObjectSpecification(substituted)) {
+                    return null;
+                }
+                merged.put(name, toProjectionValue(substituted));
+            }
+        }
+
+        // The _id field is kept unless excluded.
+        if (!next.containsKey(ID_FIELD)) {
+            final BsonValue idDefinition = definitions.get(ID_FIELD);
+            if (idDefinition != null) {
+                if (!idDefinition.equals(new BsonString("$" + ID_FIELD))) {
+                    referenceCounts.merge(ID_FIELD, 1, Integer::sum);
+                    merged.put(ID_FIELD, toProjectionValue(idDefinition));
+                }
+            } else if (!isAddFields) {
+                merged.put(ID_FIELD, new BsonInt32(0));
+            }
+        }
+
+        // Do not evaluate a computed expression more than once per document.
+        for (Entry<String, Integer> count : referenceCounts.entrySet()) {
+            if (count.getValue() > 1 && !isFieldPath(definitions.get(count.getKey()))) {
+                return null;
+            }
+        }
+        return merged;
+    }
+
+    /**
+     * Replaces the references to the given fields with their expressions.
+     *
+     * @param value the expression.
+     * @param definitions the expressions of the fields.
+     * @param passThrough whether fields without an expression are available unchanged.
+     * @param referenceCounts the number of references to each field, which is updated.
+     * @return the substituted expression, or {@code null} if a reference cannot be replaced.
+     */
+    @Nullable
+    private static BsonValue substitute(
+            final BsonValue value,
+            final Map<String, BsonValue> definitions,
+            final boolean passThrough,
+            final Map<String, Integer> referenceCounts) {
+        if (value.isString()) {
+            final String reference = value.asString().getValue();
+            if (reference.startsWith("$$")) {
+                // The whole document differs between the stages.
+                return reference.equals(ROOT) || reference.startsWith(ROOT + ".")
+                        || reference.equals(CURRENT) || reference.startsWith(CURRENT + ".")
+                        ? null
+                        : value;
+            }
+            if (!reference.startsWith("$")) {
+                return value;
+            }
+            final String path = reference.substring(1);
+            final int dotIndex = path.indexOf('.');
+            final String name = dotIndex >= 0 ? path.substring(0, dotIndex) : path;
+            final BsonValue definition = definitions.get(name);
+            if (definition == null) {
+                return passThrough ? value : null;
+            }
+            referenceCounts.merge(name, 1, Integer::sum);
+            if (dotIndex < 0) {
+                return definition;
+            }
+            return isFieldPath(definition)
+                    ? new BsonString(definition.asString().getValue() + path.substring(dotIndex))
+                    : null;
+        }
+        if (value.isDocument()) {
+            final BsonDocument document = value.asDocument();
+            if (document.size() == 1 && document.containsKey(LITERAL)) {
+                return document;
+            }
+            final BsonDocument result = new BsonDocument();
+            for (Entry<String, BsonValue> entry : document.entrySet()) {
+                final BsonValue substituted =
+                        substitute(entry.getValue(), definitions, passThrough, referenceCounts);
+                if (substituted == null) {
+                    return null;
+                }
+                result.put(entry.getKey(), substituted);
+            }
+            return result;
+        }
+        if (value.isArray()) {
+            final BsonArray result = new BsonArray();
+            for (BsonValue element : value.asArray()) {
+                final BsonValue substituted = substitute(element, definitions, passThrough, referenceCounts);
+                if (substituted == null) {
+                    return null;
+                }
+                result.add(substituted);
+            }
+            return result;
+        }
+        return value;
+    }
+
+    /**
+     * Folds the constant expressions of a $project, $addFields or $match stage.
+     *
+     * @param stage the stage.
+     * @return the stage with constant expressions folded.
+     */
+    private static BsonDocument foldConstants(final BsonDocument stage) {
+        if (stage.size() != 1) {
+            return stage;
+        }
+        final String stageName = stage.getFirstKey();
+        final BsonValue stageValue = stage.get(stageName);
+        if (!stageValue.isDocument()) {
+            return stage;
+        }
+        switch (stageName) {
+            case PROJECT:
+            case ADD_FIELDS:
+                final BsonDocument fields = new BsonDocument();
+                for (Entry<String, BsonValue> field : stageValue.asDocument().entrySet()) {
+                    // Only fold operator expressions, as other values may be projection flags.
+                    if (!isOperatorExpression(field.getValue())) {
+                        fields.put(field.getKey(), field.getValue());
+                        continue;
+                    }
+                    final BsonValue folded = fold(field.getValue());
+                    fields.put(field.getKey(), isObjectSpecification(folded)
+                            ? field.getValue()
+                            : toProjectionValue(folded));
+                }
+                return new BsonDocument(stageName, fields);
+            case MATCH:
+                final BsonDocument filter = stageValue.asDocument();
+                if (!filter.containsKey(EXPR)) {
+                    return stage;
+                }
+                final BsonDocument folded = new BsonDocument();
+                for (Entry<String, BsonValue> entry : filter.entrySet()) {
+                    folded.put(entry.getKey(), entry.getKey().equals(EXPR)
+                            ? fold(entry.getValue())
+                            : entry.getValue());
+                }
+                return new BsonDocument(MATCH, folded);
+            default:
+                return stage;
+        }
+    }
+
+    /**
+     * Folds the constant sub-expressions of an aggregation expression.
+     *
+     * @param value the expression.
+     * @return the folded expression.
+     */
+    private static BsonValue fold(final BsonValue value) {
+        if (value.isArray()) {
+            final BsonArray result = new BsonArray();
+            for (BsonValue element : value.asArray()) {
+                result.add(fold(element));
+            }
+            return result;
+        }
+        if (!value.isDocument()) {
+            return value;
+        }
+        final BsonDocument document = value.asDocument();
+        if (document.size() == 1 && document.containsKey(LITERAL)) {
+            return document;
+        }
+        final BsonDocument result = new BsonDocument();
+        for (Entry<String, BsonValue> entry : document.entrySet()) {
+            result.put(entry.getKey(), fold(entry.getValue()));
+        }
+        if (result.size() != 1) {
+            return result;
+        }
+        final String operator = result.getFirstKey();
+        final BsonValue operands = result.get(operator);
+        final BsonValue folded;
+        switch (operator) {
+            case ADD:
+            case SUBTRACT:
+            case MULTIPLY:
+                folded = operands.isArray() ? foldArithmetic(operator, operands.asArray()) : null;
+                break;
+            case AND:
+            case OR:
+                folded = operands.isArray() ? foldLogical(operator, operands.asArray()) : null;
+                break;
+            case NOT:
+                final BsonValue operand = operands.isArray() && operands.asArray().size() == 1
+                        ? getConstant(operands.asArray().get(0))
+                        : null;
+                folded = operand != null && operand.isBoolean()
+                        ? BsonBoolean.valueOf(!operand.asBoolean().getValue())
+                        : null;
+                break;
+            case COND:
+                folded = foldCondition(operands);
+                break;
+            default:
+                folded = null;
+        }
+        return folded != null ? folded : result;
+    }
+
+    @Nullable
+    private static BsonValue foldArithmetic(final String operator, final BsonArray operands) {
+        if (operands.isEmpty() || (operator.equals(SUBTRACT) && operands.size() != 2)) {
+            return null;
+        }
+        boolean isDouble = false;
+        boolean isLong = false;
+        for (BsonValue operand : operands) {
+            if (operand.isInt64()) {
+                isLong = true;
+            } else if (operand.isDouble()) {
+                isDouble = true;
+            } else if (!operand.isInt32()) {
+                return null;
+            }
+        }
+        if (isDouble) {
+            double result = operands.get(0).asNumber().doubleValue();
+            for (int i = 1; i < operands.size(); i++) {
+                final double operand = operands.get(i).asNumber().doubleValue();
+                result = operator.equals(ADD) ? result + operand
+                        : operator.equals(SUBTRACT) ? result - operand
+                        : result * operand;
+            }
+            return new BsonDouble(result);
+        }
+        long result = operands.get(0).asNumber().longValue();
+        try {
+            for (int i = 1; i < operands.size(); i++) {
+                final long operand = operands.get(i).asNumber().longValue();
+                result = operator.equals(ADD) ? Math.addExact(result, operand)
+                        : operator.equals(SUBTRACT) ? Math.subtractExact(result, operand)
+                        : Math.multiplyExact(result, operand);
+            }
+        } catch (ArithmeticException e) {
+            // The server converts the result to a double on overflow.
+            return null;
+        }
+        return !isLong && result >= Integer.MIN_VALUE && result <= Integer.MAX_VALUE
+                ? new BsonInt32((int) result)
+                : new BsonInt64(result);
+    }
+
+    @Nullable
+    private static BsonValue foldLogical(final String operator, final BsonArray operands) {
+        boolean result = operator.equals(AND);
+        for (BsonValue operand : operands) {
+            final BsonValue constant = getConstant(operand);
+            if (constant == null || !constant.isBoolean()) {
+                return null;
+            }
+            result = operator.equals(AND)
+                    ? result && constant.asBoolean().getValue()
+                    : result || constant.asBoolean().getValue();
+        }
+        return BsonBoolean.valueOf(result);
+    }
+
+    @Nullable
+    private static BsonValue foldCondition(final BsonValue operands) {
+        final BsonValue condition;
+        final BsonValue thenValue;
+        final BsonValue elseValue;
+        if (operands.isArray() && operands.asArray().size() == 3) {
+            condition = operands.asArray().get(0);
+            thenValue = operands.asArray().get(1);
+            elseValue = operands.asArray().get(2);
+        } else if (operands.isDocument() && operands.asDocument().size() == 3) {
+            condition = operands.asDocument().get("if");
+            thenValue = operands.asDocument().get("then");
+            elseValue = operands.asDocument().get("else");
+        } else {
+            return null;
+        }
+        final BsonValue constant = condition != null ? getConstant(condition) : null;
+        if (constant == null || !constant.isBoolean() || thenValue == null || elseValue == null) {
+            return null;
+        }
+        return constant.asBoolean().getValue() ? thenValue : elseValue;
+    }
+
+    /**
+     * Gets the value of a constant boolean or number.
+     *
+     * @param value the expression.
+     * @return the constant, or {@code null} if the expression is not a constant.
+     */
+    @Nullable
+    private static BsonValue getConstant(final BsonValue value) {
+        if (value.isDocument() && value.asDocument().size() == 1 && value.asDocument().containsKey(LITERAL)) {
+            return getConstant(value.asDocument().get(LITERAL));
+        }
+        return value.isBoolean() || value.isNumber() ? value : null;
+    }
+
+    /**
+     * Gets the value of an expression at the top level of a $project stage. Constants are wrapped
+     * in $literal, so they are not mistaken for inclusion or exclusion flags.
+     */
+    private static BsonValue toProjectionValue(final BsonValue value) {
+        if (value.isDocument() || isFieldPath(value)) {
+            return value;
+        }
+        return new BsonDocument(LITERAL, value);
+    }
+
+    /**
+     * Gets whether the projection only includes or computes fields, apart from excluding _id.
+     */
+    private static boolean isInclusion(final BsonDocument projection) {
+        boolean hasField = false;
+        for (Entry<String, BsonValue> field : projection.entrySet()) {
+            if (isExclusion(field.getValue())) {
+                if (!field.getKey().equals(ID_FIELD)) {
+                    return false;
+                }
+            } else {
+                hasField = true;
+            }
+        }
+        return hasField;
+    }
+
+    private static boolean isExclusion(final BsonValue value) {
+        return (value.isBoolean() && !value.asBoolean().getValue())
+                || (value.isNumber() && value.asNumber().doubleValue() == 0);
+    }
+
+    private static boolean isInclusionFlag(final BsonValue value) {
+        return (value.isBoolean() && value.asBoolean().getValue())
+                || (value.isNumber() && value.asNumber().doubleValue() != 0);
+    }
+
+    private static boolean isFieldPath(final BsonValue value) {
+        return value != null
+                && value.isString()
+                && value.asString().getValue().startsWith("$")
+                && !value.asString().getValue().startsWith("$$");
+    }
+
+    private static boolean isOperatorExpression(final BsonValue value) {
+        return value.isDocument()
+                && value.asDocument().size() == 1
+                && value.asDocument().getFirstKey().startsWith("$");
+    }
+
+    /**
+     * Gets whether the value is an embedded document with field names, which a $project stage
+     * treats as a nested projection rather than an expression.
+     */
+    private static boolean isObjectSpecification(final BsonValue value) {
+        return value.isDocument() && !isOperatorExpression(value);
+    }
+
+    private static boolean isSimpleName(final String name) {
+        return !name.isEmpty() && !name.contains(".") && !name.startsWith("$");
+    }
+
+    @Nullable
+    private static BsonValue addIntegers(final BsonValue first, final BsonValue second) {
+        if (!(first.isInt32() || first.isInt64()) || !(second.isInt32() || second.isInt64())) {
+            return null;
+        }
+        final long sum;
+        try {
+            sum = Math.addExact(first.asNumber().longValue(), second.asNumber().longValue());
+        } catch (ArithmeticException e) {
+            return null;
+        }
+        return first.isInt32() && second.isInt32() && sum <= Integer.MAX_VALUE
+                ? new BsonInt32((int) sum)
+                : new BsonInt64(sum);
+    }
+}
@@ -16,7 +16,11 @@
 
 package software.amazon.documentdb.jdbc.query;
 
+import com.google.common.base.Throwables;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
 import lombok.SneakyThrows;
 import org.apache.calcite.DataContext;
 import org.apache.calcite.adapter.java.JavaTypeFactory;
@@ -32,16 +36,23 @@ import org.apache.calcite.jdbc.CalciteSchema;
 import org.apache.calcite.jdbc.JavaTypeFactoryImpl;
 import org.apache.calcite.linq4j.Enumerable;
 import org.apache.calcite.linq4j.QueryProvider;
+import org.apache.calcite.plan.RelOptPlanner;
 import org.apache.calcite.prepare.CalcitePrepareImpl;
+import org.apache.calcite.prepare.Prepare;
+import org.apache.calcite.rel.RelNode;
+import org.apache.calcite.rel.RelVisitor;
 import org.apache.calcite.rel.type.RelDataType;
 import org.apache.calcite.rel.type.RelDataTypeSystem;
 import org.apache.calcite.rel.type.RelDataTypeSystemImpl;
 import org.apache.calcite.rex.RexBuilder;
 import org.apache.calcite.rex.RexCall;
 import org.apache.calcite.rex.RexNode;
+import org.apache.calcite.rex.RexShuttle;
+import org.apache.calcite.rex.RexSubQuery;
 import org.apache.calcite.schema.Schema;
 import org.apache.calcite.schema.SchemaPlus;
 import org.apache.calcite.schema.SchemaVersion;
+import org.apache.calcite.runtime.Hook;
 import org.apache.calcite.schema.impl.LongSchemaVersion;
 import org.apache.calcite.sql.SqlCall;
 import org.apache.calcite.sql.SqlIntervalQualifier;
@@ -56,32 +67,62 @@ import org.apache.calcite.sql2rel.SqlRexConvertlet;
 import org.apache.calcite.sql2rel.SqlRexConvertletTable;
 import org.apache.calcite.sql2rel.StandardConvertletTable;
 import org.apache.calcite.tools.RelRunner;
+import org.apache.calcite.util.TryThreadLocal;
+import org.apache.calcite.util.Util;
 import org.bson.BsonDocument;
 import org.bson.BsonInt64;
+import org.bson.BsonValue;
+import org.bson.conversions.Bson;
 import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import software.amazon.documentdb.jdbc.DocumentDbConnectionProperties;
+import software.amazon.documentdb.jdbc.DocumentDbConnectionProperty;
 import software.amazon.documentdb.jdbc.calcite.adapter.DocumentDbEnumerable;
 import software.amazon.documentdb.jdbc.calcite.adapter.DocumentDbSchemaFactory;
 import software.amazon.documentdb.jdbc.common.utilities.SqlError;
 import software.amazon.documentdb.jdbc.common.utilities.SqlState;
 import software.amazon.documentdb.jdbc.metadata.DocumentDbDatabaseSchemaMetadata;
 import software.amazon.documentdb.jdbc.metadata.DocumentDbJdbcMetaDataConverter;
+import software.amazon.documentdb.jdbc.metadata.DocumentDbSchemaTable;
 
 import java.math.BigDecimal;
 import java.sql.SQLException;
+import java.util.AbstractMap.SimpleImmutableEntry;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Map.Entry;
 
 public class DocumentDbQueryMappingService {
     private static final Logger LOGGER = LoggerFactory.getLogger(DocumentDbQueryMappingService.class);
     private static final String CALCITE_DEFAULT_CHARSET = "calcite.default.charset";
     private static final String CHARSET_UTF_8 = "utf8";
+    private static final String LIMIT = "$limit";
+    private static final String PROJECT = "$project";
+    private static final String ADD_FIELDS = "$addFields";
+    private static final String MATCH = "$match";
+    private static final String SORT = "$sort";
+    private static final String ID = "_id";
+    private static final String EQ = "$eq";
+    private static final String IN = "$in";
+    private static final String AND = "$and";
+    private static final String OR = "$or";
+    // Stages that join or aggregate documents, so the query is analytic regardless of its filter.
+    private static final ImmutableSet<String> ANALYTIC_STAGES = ImmutableSet.of(
+            "$lookup", "$graphLookup", "$unionWith", "$group", "$bucket", "$bucketAuto",
+            "$sortByCount", "$facet", "$setWindowFields");
     private final DocumentDbPrepareContext prepareContext;
     private final CalcitePrepare prepare;
-    private final BsonDocument maxRowsBSON;
+    private final boolean hybridExecution;
+    private final long readRoutingRowThreshold;
+    // Translated queries that are fully pushed down, keyed by SQL and max row count.
+    private final Cache<Entry<String, Long>, DocumentDbMqlQueryContext> translationCache;
+    // Statements of a connection share this service. Preparing a query and binding its plan look
+    // up tables in the schema, whose caches are not safe to use from more than one thread at a
+    // time. The rest of the translation only uses objects of the query being translated.
+    private final Object translationLock = new Object();
 
     /**
      * Holds the DocumentDbDatabaseSchemaMetadata, CalcitePrepare.Context and the CalcitePrepare
@@ -108,7 +149,17 @@ public class DocumentDbQueryMappingService {
                         connectionProperties.getDatabase(),
                         connectionProperties);
         this.prepare = new DocumentDbPrepareImplementation();
-        this.maxRowsBSON = new BsonDocument();
+        this.hybridExecution = connectionProperties.getHybridExecution();
+        final Integer rowThreshold = connectionProperties.getReadRoutingRowThreshold();
+        this.readRoutingRowThreshold = rowThreshold != null
+                ? rowThreshold
+                : Long.parseLong(DocumentDbConnectionProperty.READ_ROUTING_ROW_THRESHOLD.getDefaultValue());
+        final Integer maxStatements = connectionProperties.getMaxStatements();
+        this.translationCache = CacheBuilder.newBuilder()
+                .maximumSize(maxStatements != null
+                        ? Math.max(maxStatements, 0)
+                        : Long.parseLong(DocumentDbConnectionProperty.MAX_STATEMENTS.getDefaultValue()))
+                .build();
     }
 
     /**
@@ -118,6 +169,20 @@ public class DocumentDbQueryMappingService {
      * @return the query context that has the target collection, aggregation stages, and result set metadata.
      */
     public DocumentDbMqlQueryContext get(final String sql, final long maxRowCount) throws SQLException {
+        // The schema of this service does not change, so a query translates the same every time.
+        final Entry<String, Long> cacheKey = new SimpleImmutableEntry<>(sql, maxRowCount);
+        final DocumentDbMqlQueryContext cachedContext = translationCache.getIfPresent(cacheKey);
+        if (cachedContext != null) {
+            LOGGER.debug("Reusing the translation of query: {}", sql);
+            return cachedContext;
+        }
+        return translate(sql, maxRowCount, cacheKey);
+    }
+
+    private DocumentDbMqlQueryContext translate(
+            final String sql,
+            final long maxRowCount,
+            final Entry<String, Long> cacheKey) throws SQLException {
         final Query<Object> query = Query.of(sql);
 
         // In prepareSql:
@@ -127,31 +192,70 @@ public class DocumentDbQueryMappingService {
         // plan. (AST->MQL)
         try {
             // The parameter maxRowCount from prepareSql needs to be -1, we are handling max rows
-            // outside calcite translation
-            final CalciteSignature<?> signature =
-                    prepare.prepareSql(prepareContext, query, Object[].class, -1);
-
-            // Enumerable contains the operations and fields we need to do the aggregation call.
-            // Signature also contains a column list that has information about the columns/types of the
-            // return row (ordinal, nullability, precision, etc).
-            final Enumerable<?> enumerable = signature.enumerable(prepareContext.getDataContext());
+            // outside calcite translation.
+            // IN lists of any size are kept as a single search predicate, which is pushed down as
+            // $in, instead of being converted to a join with a VALUES table.
+            // The converted tree is checked for functions such as CURRENT_TIMESTAMP, whose value is
+            // a literal in the pipeline, so that such queries are translated for each execution.
+            final boolean[] isTimeDependent = {true};
+            final CalciteSignature<?> signature;
+            final Enumerable<?> enumerable;
+            synchronized (translationLock) {
+                try (TryThreadLocal.Memo ignored =
+                        Prepare.THREAD_INSUBQUERY_THRESHOLD.push(Integer.MAX_VALUE);
+                        Hook.Closeable ignoredHook = Hook.CONVERTED.addThread(
+                                (final RelNode rel) -> isTimeDependent[0] = isTimeDependent(rel))) {
+                    signature = prepare.prepareSql(prepareContext, query, Object[].class, -1);
+                }
+
+                // Enumerable contains the operations and fields we need to do the aggregation call.
+                // Signature also contains a column list that has information about the columns/types of the
+                // return row (ordinal, nullability, precision, etc).
+                enumerable = signature.enumerable(prepareContext.getDataContext());
+            }
             if (enumerable instanceof DocumentDbEnumerable) {
                 final DocumentDbEnumerable documentDbEnumerable = (DocumentDbEnumerable) enumerable;
 
                 // Add limit if using setMaxRows.
                 if (maxRowCount > 0) {
-                    maxRowsBSON.put("$limit",new BsonInt64(maxRowCount));
-                    documentDbEnumerable.getList().add(maxRowsBSON);
+                    addMaxRowsLimit(documentDbEnumerable.getList(), maxRowCount);
                 }
 
-                return DocumentDbMqlQueryContext.builder()
+                final DocumentDbMqlQueryContext context = DocumentDbMqlQueryContext.builder()
                         .columnMetaData(DocumentDbJdbcMetaDataConverter.fromCalciteColumnMetaData(signature.columns))
                         .aggregateOperations(documentDbEnumerable.getList())
                         .collectionName(documentDbEnumerable.getCollectionName())
                         .paths(documentDbEnumerable.getPaths())
+                        .findQuery(DocumentDbFindQuery.fromAggregateOperations(
+                                documentDbEnumerable.getList(), documentDbEnumerable.getPaths()))
+                        .countQuery(DocumentDbCountQuery.fromAggregateOperations(
+                                documentDbEnumerable.getList(), documentDbEnumerable.getPaths()))
+                        .analyticQuery(isAnalyticQuery(documentDbEnumerable.getList(),
+                                documentDbEnumerable.getEstimatedRecordCount(), readRoutingRowThreshold))
+                        .reusable(!isTimeDependent[0])
+                        .build();
+                if (context.isReusable()) {
+                    translationCache.put(cacheKey, context);
+                }
+                return context;
+            }
+            // Query cannot be fully pushed down, but parts of it can be executed in the driver.
+            if (hybridExecution) {
+                return DocumentDbMqlQueryContext.builder()
+                        .columnMetaData(DocumentDbJdbcMetaDataConverter.fromCalciteColumnMetaData(signature.columns))
+                        .aggregateOperations(ImmutableList.of())
+                        .hybridQuery(new DocumentDbHybridQuery(
+                                signature, prepareContext.createDataContext(), Math.max(maxRowCount, 0)))
+                        .analyticQuery(true)
                         .build();
             }
         } catch (Exception e) {
+            // Operators that cannot be executed in the driver without holding all their input in
+            // memory have no hybrid plan.
+            if (hybridExecution && Throwables.getCausalChain(e).stream()
+                    .anyMatch(cause -> cause instanceof RelOptPlanner.CannotPlanException)) {
+                throw SqlError.createSQLFeatureNotSupportedException(LOGGER, SqlError.UNSUPPORTED_SQL, sql);
+            }
             // TODO: [Fix this error handling](https://github.com/aws/amazon-documentdb-jdbc-driver/issues/499).
             throw SqlError.createSQLException(
                     LOGGER, SqlState.INVALID_QUERY_EXPRESSION, e, SqlError.SQL_PARSE_ERROR, sql,
@@ -161,6 +265,45 @@ public class DocumentDbQueryMappingService {
         throw SqlError.createSQLFeatureNotSupportedException(LOGGER, SqlError.UNSUPPORTED_SQL, sql);
     }
 
+    /**
+     * Determines whether a query calls a function whose value changes between executions, such
+     * as CURRENT_TIMESTAMP, CURRENT_DATE or CURRENT_TIME.
+     *
+     * @param rel the relational expression converted from the validated query.
+     * @return {@code true} if the query is time dependent, {@code false} otherwise.
+     */
+    private static boolean isTimeDependent(final RelNode rel) {
+        final RexShuttle dynamicFunctionFinder = new RexShuttle() {
+            @Override
+            public RexNode visitCall(final RexCall call) {
+                if (call.getOperator().isDynamicFunction()) {
+                    throw Util.FoundOne.NULL;
+                }
+                return super.visitCall(call);
+            }
+
+            @Override
+            public RexNode visitSubQuery(final RexSubQuery subQuery) {
+                if (isTimeDependent(subQuery.rel)) {
+                    throw Util.FoundOne.NULL;
+                }
+                return super.visitSubQuery(subQuery);
+            }
+        };
+        try {
+            new RelVisitor() {
+                @Override
+                public void visit(final RelNode node, final int ordinal, final @Nullable RelNode parent) {
+                    node.accept(dynamicFunctionFinder);
+                    super.visit(node, ordinal, parent);
+                }
+            }.go(rel);
+            return false;
+        } catch (Util.FoundOne e) {
+            return true;
+        }
+    }
+
     /**
      * Uses CalcitePrepare API to parse and validate sql and convert to MQL.
      * Assumes no max row count set.
@@ -171,6 +314,121 @@ public class DocumentDbQueryMappingService {
         return get(sql, 0);
     }
 
+    /**
+     * Adds the max rows limit to the pipeline. Trailing $project and $addFields stages return one
+     * document per input document, so the limit is placed before them to avoid computing fields of
+     * documents that are not returned. A $limit already at that position is combined with it.
+     *
+     * @param stages the aggregation stages.
+     * @param maxRowCount the max number of rows to return.
+     */
+    static void addMaxRowsLimit(final List<Bson> stages, final long maxRowCount) {
+        int index = stages.size();
+        while (index > 0 && isOneToOneStage(stages.get(index - 1).toBsonDocument())) {
+            index--;
+        }
+        if (index > 0) {
+            final BsonDocument previous = stages.get(index - 1).toBsonDocument();
+            final BsonValue previousLimit = previous.get(LIMIT);
+            if (previous.size() == 1 && previousLimit != null && previousLimit.isNumber()) {
+                stages.set(index - 1, new BsonDocument(LIMIT,
+                        new BsonInt64(Math.min(previousLimit.asNumber().longValue(), maxRowCount))));
+                return;
+            }
+        }
+        stages.add(index, new BsonDocument(LIMIT, new BsonInt64(maxRowCount)));
+    }
+
+    /**
+     * Determines whether a query is analytic, so it can be routed to secondaries. A query is
+     * analytic if it joins or aggregates documents, or if it scans a collection whose estimated
+     * number of documents exceeds the threshold. A query scans the collection unless it starts
+     * with a lookup by {@code _id} or is limited to at most the threshold before any sort. Other
+     * filters do not bound the scan, as the driver does not know which fields are indexed nor how
+     * selective a filter is.
+     *
+     * @param stages the aggregation stages.
+     * @param estimatedRecordCount the estimated number of documents of the collection, or -1 if
+     *                             unknown.
+     * @param rowThreshold the estimated number of documents above which a scan is analytic.
+     * @return {@code true} if the query is analytic, {@code false} otherwise.
+     */
+    static boolean isAnalyticQuery(
+            final List<Bson> stages,
+            final long estimatedRecordCount,
+            final long rowThreshold) {
+        boolean isBounded = false;
+        boolean isSorted = false;
+        for (int i = 0; i < stages.size(); i++) {
+            final BsonDocument stage = stages.get(i).toBsonDocument();
+            for (String operator : stage.keySet()) {
+                if (ANALYTIC_STAGES.contains(operator)) {
+                    return true;
+                }
+            }
+            if (i == 0 && stage.isDocument(MATCH) && isIdLookup(stage.getDocument(MATCH))) {
+                isBounded = true;
+            } else if (stage.containsKey(SORT)) {
+                isSorted = true;
+            } else if (stage.isNumber(LIMIT) && !isSorted
+                    && stage.getNumber(LIMIT).longValue() <= rowThreshold) {
+                isBounded = true;
+            }
+        }
+        return !isBounded
+                && estimatedRecordCount != DocumentDbSchemaTable.UNKNOWN_RECORD_COUNT
+                && estimatedRecordCount > rowThreshold;
+    }
+
+    /**
+     * Determines whether a filter only matches documents by equality on {@code _id}, which is
+     * always indexed, so the filter reads at most a few documents.
+     *
+     * @param filter the filter.
+     * @return {@code true} if the filter is a lookup by {@code _id}, {@code false} otherwise.
+     */
+    private static boolean isIdLookup(final BsonDocument filter) {
+        final BsonValue id = filter.get(ID);
+        if (id != null && isEqualityCondition(id)) {
+            return true;
+        }
+        final BsonValue and = filter.get(AND);
+        if (and != null && and.isArray()) {
+            for (BsonValue condition : and.asArray()) {
+                if (condition.isDocument() && isIdLookup(condition.asDocument())) {
+                    return true;
+                }
+            }
+        }
+        final BsonValue or = filter.get(OR);
+        if (or != null && or.isArray() && !or.asArray().isEmpty()) {
+            for (BsonValue condition : or.asArray()) {
+                if (!condition.isDocument() || !isIdLookup(condition.asDocument())) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+
+    private static boolean isEqualityCondition(final BsonValue condition) {
+        if (condition.isRegularExpression()) {
+            return false;
+        }
+        if (!condition.isDocument() || condition.asDocument().isEmpty()
+                || !condition.asDocument().getFirstKey().startsWith("$")) {
+            return true;
+        }
+        final BsonDocument operators = condition.asDocument();
+        return operators.size() == 1
+                && (operators.containsKey(EQ) || operators.isArray(IN));
+    }
+
+    private static boolean isOneToOneStage(final BsonDocument stage) {
+        return stage.size() == 1 && (stage.containsKey(PROJECT) || stage.containsKey(ADD_FIELDS));
+    }
+
     private String getExceptionMessages(final Throwable e) {
         final StringBuilder builder = new StringBuilder(e.getMessage());
         if (e.getSuppressed() != null) {
@@ -348,10 +606,21 @@ public class DocumentDbQueryMappingService {
             this.mutableRootSchema = rootSchema;
             this.rootSchema = mutableRootSchema.createSnapshot(schemaVersion);
             this.defaultSchemaPath = ImmutableList.of(defaultSchema);
-            this.dataContext = new DataContext() {
+            this.dataContext = createDataContext();
+        }
+
+        /**
+         * Creates a new data context over the root schema of this prepare context. Queries that
+         * keep a data context beyond translation get their own, so that no state is shared between
+         * them.
+         *
+         * @return a new {@link DataContext}.
+         */
+        DataContext createDataContext() {
+            return new DataContext() {
                 @Override
                 public SchemaPlus getRootSchema() {
-                    return rootSchema.plus();
+                    return mutableRootSchema.plus();
                 }
 
                 @Override
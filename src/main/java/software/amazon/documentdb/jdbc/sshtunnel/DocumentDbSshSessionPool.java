@@ -0,0 +1,562 @@
+/*
+ * Copyright <2021> Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ */
+
+package software.amazon.documentdb.jdbc.sshtunnel;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.FilterInputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Listens on a local port and forwards each accepted connection to the remote host over one of
+ * a pool of SSH sessions.
+ *
+ * <p>A session encrypts and flow-controls all of its channels on a single thread, so the
+ * throughput of all connections forwarded over one session is limited to that of the session.
+ * Each accepted connection is assigned to the session with the fewest open channels, in
+ * round-robin order among equally loaded sessions.</p>
+ *
+ * <p>The sessions are checked periodically and a disconnected session is reconnected in the
+ * background while the listener stays on the same local port, so clients of the tunnel only see
+ * the connections open on the failed session fail. After a failed reconnection, the next one is
+ * delayed by the health check interval, doubled for each further failure up to a maximum, so an
+ * unreachable SSH host is not retried every interval. A connection accepted while no session is
+ * connected waits for a reconnection instead of being closed.</p>
+ */
+final class DocumentDbSshSessionPool implements AutoCloseable {
+    private static final Logger LOGGER = LoggerFactory.getLogger(DocumentDbSshSessionPool.class.getName());
+    private static final ExecutorService EXECUTOR = Executors.newCachedThreadPool(
+            new ThreadFactoryBuilder().setNameFormat("documentdb-ssh-tunnel-%d").setDaemon(true).build());
+    private static final long RECONNECT_WAIT_MS = 30000;
+    private static final long MAX_RECONNECT_DELAY_MS = 30000;
+
+    private final SessionFactory sessionFactory;
+    private final PooledSession[] sessions;
+    private final CompletableFuture<?>[] reconnects;
+    private final int[] reconnectFailureCounts;
+    private final ServerSocket serverSocket;
+    private final ScheduledExecutorService scheduler;
+    private final long healthCheckIntervalMillis;
+    private final AtomicBoolean isClosed = new AtomicBoolean(false);
+    private int nextSessionIndex = 0;
+    private ScheduledFuture<?> healthCheck = null;
+
+    private DocumentDbSshSessionPool(
+            final SessionFactory sessionFactory,
+            final PooledSession[] sessions,
+            final ServerSocket serverSocket,
+            final ScheduledExecutorService scheduler,
+            final long healthCheckIntervalMillis) {
+        this.sessionFactory = sessionFactory;
+        this.sessions = sessions;
+        this.reconnects = new CompletableFuture<?>[sessions.length];
+        this.reconnectFailureCounts = new int[sessions.length];
+        this.serverSocket = serverSocket;
+        this.scheduler = scheduler;
+        this.healthCheckIntervalMillis = healthCheckIntervalMillis;
+    }
+
+    /**
+     * Opens the sessions of the pool in parallel, starts listening on a free local port and
+     * schedules the health check of the sessions.
+     *
+     * @param sessionFactory the factory of the connected sessions.
+     * @param sessionCount the number of sessions in the pool.
+     * @param scheduler the scheduler to run the health check and delayed reconnections on.
+     * @param healthCheckIntervalMillis the interval between health checks in milliseconds, which
+     *                                  is also the delay of the first retry of a reconnection.
+     * @return a new {@link DocumentDbSshSessionPool}.
+     * @throws SQLException if a session cannot be created or the local port cannot be bound.
+     */
+    static DocumentDbSshSessionPool open(
+            final SessionFactory sessionFactory,
+            final int sessionCount,
+            final ScheduledExecutorService scheduler,
+            final long healthCheckIntervalMillis) throws SQLException {
+        final List<CompletableFuture<ForwardingSession>> futures = new ArrayList<>();
+        for (int i = 0; i < sessionCount; i++) {
+            futures.add(CompletableFuture.supplyAsync(() -> {
+                try {
+                    return sessionFactory.create();
+                } catch (SQLException e) {
+                    throw new CompletionException(e);
+                }
+            }, EXECUTOR));
+        }
+        final PooledSession[] sessions = new PooledSession[sessionCount];
+        SQLException exception = null;
+        for (int i = 0; i < sessionCount; i++) {
+            try {
+                sessions[i] = new PooledSession(i, futures.get(i).join(), 0);
+            } catch (CompletionException e) {
+                exception = e.getCause() instanceof SQLException
+                        ? (SQLException) e.getCause()
+                        : new SQLException(e.getCause().getMessage(), e.getCause());
+            }
+        }
+        ServerSocket serverSocket = null;
+        if (exception == null) {
+            try {
+                serverSocket = new ServerSocket(0, 0, InetAddress.getLoopbackAddress());
+            } catch (IOException e) {
+                exception = new SQLException(e.getMessage(), e);
+            }
+        }
+        if (exception != null) {
+            for (PooledSession session : sessions) {
+                if (session != null) {
+                    session.disconnect();
+                }
+            }
+            throw exception;
+        }
+
+        final DocumentDbSshSessionPool pool = new DocumentDbSshSessionPool(
+                sessionFactory, sessions, serverSocket, scheduler, healthCheckIntervalMillis);
+        EXECUTOR.execute(pool::acceptConnections);
+        pool.healthCheck = scheduler.scheduleWithFixedDelay(pool::checkSessions,
+                healthCheckIntervalMillis, healthCheckIntervalMillis, TimeUnit.MILLISECONDS);
+        LOGGER.debug("SSH session pool of {} session(s) listening on local port '{}'.",
+                sessionCount, pool.getLocalPort());
+        return pool;
+    }
+
+    /**
+     * Gets the local port the pool is listening on.
+     *
+     * @return the local port number.
+     */
+    int getLocalPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * Gets the statistics of each session of the pool.
+     *
+     * @return a list of {@link DocumentDbSshSessionStatistics}, one for each session.
+     */
+    List<DocumentDbSshSessionStatistics> getStatistics() {
+        final List<DocumentDbSshSessionStatistics> statistics = new ArrayList<>();
+        for (PooledSession session : getSessions()) {
+            statistics.add(session.getStatistics());
+        }
+        return statistics;
+    }
+
+    @Override
+    public void close() {
+        if (!isClosed.compareAndSet(false, true)) {
+            return;
+        }
+        healthCheck.cancel(false);
+        try {
+            serverSocket.close();
+        } catch (IOException e) {
+            LOGGER.warn("Unable to close the SSH tunnel listener: {}", e.getMessage(), e);
+        }
+        for (PooledSession session : getSessions()) {
+            LOGGER.debug("Closing SSH session: {}", session.getStatistics());
+            session.disconnect();
+        }
+    }
+
+    private synchronized PooledSession[] getSessions() {
+        return sessions.clone();
+    }
+
+    private void acceptConnections() {
+        while (!isClosed.get()) {
+            final Socket socket;
+            try {
+                socket = serverSocket.accept();
+            } catch (IOException e) {
+                if (!isClosed.get()) {
+                    LOGGER.error("SSH tunnel listener stopped: {}", e.getMessage(), e);
+                }
+                return;
+            }
+            // Opening a channel waits for a round trip to the SSH host.
+            EXECUTOR.execute(() -> forward(socket));
+        }
+    }
+
+    /**
+     * Starts the reconnection of each disconnected session.
+     */
+    private void checkSessions() {
+        for (int i = 0; i < sessions.length; i++) {
+            maybeReconnect(i);
+        }
+    }
+
+    /**
+     * Starts the reconnection of the session at the given index if it is disconnected and is
+     * not already being reconnected. The reconnection is delayed if the previous ones failed.
+     *
+     * @param index the index of the session.
+     * @return a future completed when the reconnection has completed or failed.
+     */
+    private synchronized CompletableFuture<?> maybeReconnect(final int index) {
+        final PooledSession session = sessions[index];
+        if (isClosed.get() || session.isConnected()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        if (reconnects[index] == null) {
+            final long delayMillis = getReconnectDelayMillis(reconnectFailureCounts[index], healthCheckIntervalMillis);
+            LOGGER.warn("SSH session {} is disconnected. Reconnecting in {} ms: {}",
+                    index, delayMillis, session.getStatistics());
+            final Executor executor = delayMillis > 0
+                    ? command -> scheduler.schedule(() -> EXECUTOR.execute(command), delayMillis, TimeUnit.MILLISECONDS)
+                    : EXECUTOR;
+            reconnects[index] = CompletableFuture.runAsync(() -> reconnect(session), executor);
+        }
+        return reconnects[index];
+    }
+
+    /**
+     * Gets the delay before reconnecting a session: none after it disconnects, then the initial
+     * delay doubled for each failed reconnection, up to a maximum.
+     *
+     * @param failureCount the number of reconnections that failed since the session disconnected.
+     * @param initialDelayMillis the delay after the first failed reconnection in milliseconds.
+     * @return the delay in milliseconds.
+     */
+    static long getReconnectDelayMillis(final int failureCount, final long initialDelayMillis) {
+        if (failureCount <= 0) {
+            return 0;
+        }
+        final long maxDelayMillis = Math.max(initialDelayMillis, MAX_RECONNECT_DELAY_MS);
+        // Stops doubling before the delay can overflow.
+        final int doublings = Math.min(failureCount - 1, Long.numberOfLeadingZeros(initialDelayMillis) - 1);
+        return Math.min(maxDelayMillis, initialDelayMillis << doublings);
+    }
+
+    private void reconnect(final PooledSession disconnected) {
+        final int index = disconnected.getIndex();
+        // Closes the channels left open on the failed session.
+        disconnected.disconnect();
+        ForwardingSession session = null;
+        try {
+            session = sessionFactory.create();
+        } catch (SQLException e) {
+            LOGGER.warn("Unable to reconnect SSH session {}: {}", index, e.getMessage(), e);
+        }
+        synchronized (this) {
+            reconnects[index] = null;
+            if (session == null) {
+                reconnectFailureCounts[index]++;
+                return;
+            }
+            reconnectFailureCounts[index] = 0;
+            if (isClosed.get()) {
+                session.disconnect();
+                return;
+            }
+            sessions[index] = new PooledSession(index, session, disconnected.getReconnectCount() + 1);
+            LOGGER.debug("SSH session {} reconnected.", index);
+        }
+    }
+
+    /**
+     * Waits until the first pending reconnection of a session completes or fails.
+     */
+    private void awaitReconnect() {
+        final List<CompletableFuture<?>> futures = new ArrayList<>();
+        for (int i = 0; i < sessions.length; i++) {
+            futures.add(maybeReconnect(i));
+        }
+        try {
+            CompletableFuture.anyOf(futures.toArray(new CompletableFuture<?>[0]))
+                    .get(RECONNECT_WAIT_MS, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException | TimeoutException e) {
+            LOGGER.debug("No SSH session reconnected: {}", e.getMessage(), e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void forward(final Socket socket) {
+        PooledSession session = assignSession();
+        if (session == null) {
+            // All sessions are down; wait for a reconnection rather than failing the connection.
+            awaitReconnect();
+            session = assignSession();
+        }
+        if (session == null) {
+            LOGGER.warn("No connected SSH session is available to forward a connection.");
+            closeQuietly(socket);
+            return;
+        }
+        try {
+            session.openChannel(socket);
+        } catch (IOException e) {
+            LOGGER.warn("Unable to forward a connection over SSH session {}: {}",
+                    session.getIndex(), e.getMessage(), e);
+            closeQuietly(socket);
+        }
+    }
+
+    /**
+     * Gets the connected session with the fewest open channels, starting the search after the
+     * session last assigned so that equally loaded sessions are assigned in turn.
+     *
+     * @return the assigned session, or {@code null} if no session is connected.
+     */
+    private synchronized PooledSession assignSession() {
+        PooledSession selected = null;
+        for (int i = 0; i < sessions.length; i++) {
+            final PooledSession candidate = sessions[(nextSessionIndex + i) % sessions.length];
+            if (candidate.isConnected() && (selected == null
+                    || candidate.getActiveChannelCount() < selected.getActiveChannelCount())) {
+                selected = candidate;
+            }
+        }
+        if (selected != null) {
+            nextSessionIndex = (selected.getIndex() + 1) % sessions.length;
+            selected.reserveChannel();
+        }
+        return selected;
+    }
+
+    private static void closeQuietly(final Socket socket) {
+        try {
+            socket.close();
+        } catch (IOException e) {
+            LOGGER.debug("Unable to close socket: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Creates connected sessions for the pool.
+     */
+    @FunctionalInterface
+    interface SessionFactory {
+        /**
+         * Creates and connects a new session.
+         *
+         * @return a connected {@link ForwardingSession}.
+         * @throws SQLException if the session cannot be created.
+         */
+        ForwardingSession create() throws SQLException;
+    }
+
+    /**
+     * A connected session that forwards channels to the remote host.
+     */
+    interface ForwardingSession {
+        /**
+         * Opens a channel to the remote host that copies data read from the input stream to the
+         * remote host, and data received from the remote host to the output stream. Both streams
+         * are closed when the channel is closed.
+         *
+         * @param input the stream of data to send.
+         * @param output the stream to write the received data to.
+         * @throws IOException if the channel cannot be opened.
+         */
+        void openChannel(InputStream input, OutputStream output) throws IOException;
+
+        /**
+         * Gets whether the session is connected.
+         *
+         * @return {@code true} if the session is connected, {@code false} otherwise.
+         */
+        boolean isConnected();
+
+        /**
+         * Disconnects the session and closes all of its channels.
+         */
+        void disconnect();
+    }
+
+    /**
+     * A session of the pool and its channel and throughput counters.
+     */
+    private static class PooledSession {
+        private final int index;
+        private final ForwardingSession session;
+        private final int reconnectCount;
+        private final long createdNanos = System.nanoTime();
+        private final AtomicInteger activeChannelCount = new AtomicInteger();
+        private final AtomicLong openedChannelCount = new AtomicLong();
+        private final AtomicLong bytesSent = new AtomicLong();
+        private final AtomicLong bytesReceived = new AtomicLong();
+
+        PooledSession(final int index, final ForwardingSession session, final int reconnectCount) {
+            this.index = index;
+            this.session = session;
+            this.reconnectCount = reconnectCount;
+        }
+
+        int getIndex() {
+            return index;
+        }
+
+        int getReconnectCount() {
+            return reconnectCount;
+        }
+
+        int getActiveChannelCount() {
+            return activeChannelCount.get();
+        }
+
+        boolean isConnected() {
+            return session.isConnected();
+        }
+
+        void disconnect() {
+            session.disconnect();
+        }
+
+        /**
+         * Counts a channel as active as soon as it is assigned, so that connections accepted
+         * concurrently are spread over the sessions.
+         */
+        void reserveChannel() {
+            activeChannelCount.incrementAndGet();
+            openedChannelCount.incrementAndGet();
+        }
+
+        /**
+         * Opens a channel for a connection on the channel reserved for it. The reservation is
+         * released when the channel is closed, or when it cannot be opened.
+         */
+        void openChannel(final Socket socket) throws IOException {
+            final ChannelOutputStream output;
+            try {
+                socket.setTcpNoDelay(true);
+                output = new ChannelOutputStream(socket.getOutputStream(), this);
+            } catch (IOException | RuntimeException e) {
+                channelClosed();
+                throw e;
+            }
+            try {
+                session.openChannel(new ChannelInputStream(socket.getInputStream(), bytesSent), output);
+            } catch (IOException | RuntimeException e) {
+                output.close();
+                throw e;
+            }
+        }
+
+        void channelClosed() {
+            activeChannelCount.decrementAndGet();
+        }
+
+        DocumentDbSshSessionStatistics getStatistics() {
+            return new DocumentDbSshSessionStatistics(
+                    index,
+                    session.isConnected(),
+                    reconnectCount,
+                    activeChannelCount.get(),
+                    openedChannelCount.get(),
+                    bytesSent.get(),
+                    bytesReceived.get(),
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - createdNanos));
+        }
+    }
+
+    /**
+     * Counts the bytes read from the local connection and sent over the channel.
+     */
+    private static class ChannelInputStream extends FilterInputStream {
+        private final AtomicLong bytesSent;
+
+        ChannelInputStream(final InputStream in, final AtomicLong bytesSent) {
+            super(in);
+            this.bytesSent = bytesSent;
+        }
+
+        @Override
+        public int read() throws IOException {
+            final int value = super.read();
+            if (value >= 0) {
+                bytesSent.incrementAndGet();
+            }
+            return value;
+        }
+
+        @Override
+        public int read(final byte[] b, final int off, final int len) throws IOException {
+            final int count = super.read(b, off, len);
+            if (count > 0) {
+                bytesSent.addAndGet(count);
+            }
+            return count;
+        }
+    }
+
+    /**
+     * Counts the bytes received over the channel and written to the local connection, and
+     * releases the channel of the session when the channel closes the stream.
+     */
+    private static class ChannelOutputStream extends FilterOutputStream {
+        private final PooledSession session;
+        private final AtomicBoolean isClosed = new AtomicBoolean(false);
+
+        ChannelOutputStream(final OutputStream out, final PooledSession session) {
+            super(out);
+            this.session = session;
+        }
+
+        @Override
+        public void write(final int b) throws IOException {
+            session.bytesReceived.incrementAndGet();
+            out.write(b);
+        }
+
+        @Override
+        public void write(final byte[] b, final int off, final int len) throws IOException {
+            session.bytesReceived.addAndGet(len);
+            out.write(b, off, len);
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (!isClosed.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                super.close();
+            } finally {
+                session.channelClosed();
+            }
+        }
+    }
+}
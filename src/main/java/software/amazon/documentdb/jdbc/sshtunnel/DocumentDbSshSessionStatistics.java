@@ -0,0 +1,73 @@
+/*
+ * Copyright <2021> Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ */
+
+package software.amazon.documentdb.jdbc.sshtunnel;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * A snapshot of the channel and throughput counters of a session of the internal SSH tunnel.
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public final class DocumentDbSshSessionStatistics {
+    /**
+     * Gets the index of the session in the session pool.
+     */
+    private final int sessionIndex;
+    /**
+     * Gets whether the session is connected.
+     */
+    private final boolean connected;
+    /**
+     * Gets the number of times the session was reconnected after it was disconnected.
+     */
+    private final int reconnectCount;
+    /**
+     * Gets the number of channels currently open on the session.
+     */
+    private final int activeChannelCount;
+    /**
+     * Gets the number of channels opened on the session since it was created.
+     */
+    private final long openedChannelCount;
+    /**
+     * Gets the number of bytes sent to the remote host over the session.
+     */
+    private final long bytesSent;
+    /**
+     * Gets the number of bytes received from the remote host over the session.
+     */
+    private final long bytesReceived;
+    /**
+     * Gets the time in milliseconds since the session was created.
+     */
+    private final long uptimeMillis;
+
+    /**
+     * Gets the average number of bytes sent and received per second since the session was created.
+     *
+     * @return the average throughput in bytes per second.
+     */
+    public long getThroughputBytesPerSecond() {
+        return uptimeMillis > 0
+                ? (bytesSent + bytesReceived) * 1000 / uptimeMillis
+                : 0;
+    }
+}
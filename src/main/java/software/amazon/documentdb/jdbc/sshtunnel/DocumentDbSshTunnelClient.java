@@ -51,6 +51,9 @@ public class DocumentDbSshTunnelClient implements AutoCloseable {
                 .sshPrivateKeyPassphrase(properties.getSshPrivateKeyPassphrase())
                 .sshStrictHostKeyChecking(properties.getSshStrictHostKeyChecking())
                 .sshKnownHostsFile(properties.getSshKnownHostsFile())
+                .sshSessionCount(properties.getSshSessionCount() != null
+                        ? properties.getSshSessionCount()
+                        : DocumentDbSshTunnelServer.DEFAULT_SESSION_COUNT)
                 .build();
         sshTunnelServer.addClient();
         closed = new AtomicBoolean(false);
@@ -18,13 +18,14 @@ package software.amazon.documentdb.jdbc.sshtunnel;
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.hash.Hashing;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.jcraft.jsch.Channel;
 import com.jcraft.jsch.HostKey;
 import com.jcraft.jsch.HostKeyRepository;
 import com.jcraft.jsch.JSch;
 import com.jcraft.jsch.JSchException;
 import com.jcraft.jsch.Session;
 import lombok.AllArgsConstructor;
-import lombok.Getter;
 import org.apache.commons.lang3.tuple.ImmutablePair;
 import org.apache.commons.lang3.tuple.Pair;
 import org.checkerframework.checker.nullness.qual.NonNull;
@@ -34,16 +35,20 @@ import software.amazon.documentdb.jdbc.DocumentDbConnectionProperties;
 import software.amazon.documentdb.jdbc.common.utilities.SqlError;
 import software.amazon.documentdb.jdbc.common.utilities.SqlState;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.sql.SQLException;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 
@@ -69,6 +74,12 @@ public final class DocumentDbSshTunnelServer implements AutoCloseable {
     public static final int DEFAULT_SSH_PORT = 22;
     private static final Logger LOGGER = LoggerFactory.getLogger(DocumentDbSshTunnelServer.class);
     public static final int DEFAULT_CLOSE_DELAY_MS = 30000;
+    public static final int DEFAULT_SESSION_COUNT = 1;
+    private static final int CHANNEL_CONNECT_TIMEOUT_MS = 30000;
+    private static final int KEEP_ALIVE_INTERVAL_MS = 10000;
+    private static final int KEEP_ALIVE_COUNT_MAX = 3;
+    private static final long HEALTH_CHECK_INTERVAL_MS = 1000;
+    private static final ScheduledThreadPoolExecutor SCHEDULER = createScheduler();
 
     private final Object mutex = new Object();
     private final AtomicLong clientCount = new AtomicLong(0);
@@ -80,12 +91,19 @@ public final class DocumentDbSshTunnelServer implements AutoCloseable {
     private final boolean sshStrictHostKeyChecking;
     private final String sshKnownHostsFile;
     private final String remoteHostname;
-    private final  ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(1);
-    private DocumentDbSshTunnelServer.SshPortForwardingSession session = null;
+    private final int sessionCount;
+    private volatile DocumentDbSshSessionPool sessionPool = null;
     private ScheduledFuture<?> scheduledFuture = null;
     private long closeDelayMS = DEFAULT_CLOSE_DELAY_MS;
 
 
+    private static ScheduledThreadPoolExecutor createScheduler() {
+        final ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(1,
+                new ThreadFactoryBuilder().setNameFormat("documentdb-ssh-tunnel-scheduler").setDaemon(true).build());
+        scheduler.setRemoveOnCancelPolicy(true);
+        return scheduler;
+    }
+
     private DocumentDbSshTunnelServer(final DocumentDbSshTunnelServerBuilder builder) {
         this.sshUser = builder.sshUser;
         this.sshHostname = builder.sshHostname;
@@ -94,15 +112,18 @@ public final class DocumentDbSshTunnelServer implements AutoCloseable {
         this.sshPrivateKeyPassphrase = builder.sshPrivateKeyPassphrase;
         this.sshStrictHostKeyChecking = builder.sshStrictHostKeyChecking;
         this.sshKnownHostsFile = builder.sshKnownHostsFile;
+        this.sessionCount = builder.sshSessionCount;
         LOGGER.debug("sshUser='{}' sshHostname='{}' sshPrivateKeyFile='{}' remoteHostname'{}"
-                + " sshPrivateKeyPassphrase='{}' sshStrictHostKeyChecking='{}' sshKnownHostsFile='{}'",
+                + " sshPrivateKeyPassphrase='{}' sshStrictHostKeyChecking='{}' sshKnownHostsFile='{}'"
+                + " sessionCount='{}'",
                 this.sshUser,
                 this.sshHostname,
                 this.sshPrivateKeyFile,
                 this.remoteHostname,
                 this.sshPrivateKeyPassphrase,
                 this.sshStrictHostKeyChecking,
-                this.sshKnownHostsFile
+                this.sshKnownHostsFile,
+                this.sessionCount
         );
     }
 
@@ -112,6 +133,8 @@ public final class DocumentDbSshTunnelServer implements AutoCloseable {
      * @param sshUser the username credential for the SSH tunnel.
      * @param sshHostname the hostname (or IP address) for the SSH tunnel.
      * @param sshPrivateKeyFile the path to the private key file.
+     * @param remoteHostname the hostname of the remote server.
+     * @param sessionCount the number of SSH sessions of the tunnel.
      *
      * @return a String value representing the hash of the given properties.
      */
@@ -119,52 +142,41 @@ public final class DocumentDbSshTunnelServer implements AutoCloseable {
             final String sshUser,
             final String sshHostname,
             final String sshPrivateKeyFile,
-            final String remoteHostname) {
-        final String sshPropertiesString = sshUser + "-" + sshHostname + "-" + sshPrivateKeyFile + remoteHostname;
+            final String remoteHostname,
+            final int sessionCount) {
+        final String sshPropertiesString = sshUser + "-" + sshHostname + "-" + sshPrivateKeyFile + remoteHostname
+                + "-" + sessionCount;
         return Hashing.sha256()
                 .hashString(sshPropertiesString, StandardCharsets.UTF_8)
                 .toString();
     }
 
     /**
-     * Initializes the SSH session and creates a port forwarding tunnel.
+     * Initializes an SSH session that forwards channels to the remote host, for the
+     * session pool of the tunnel. The session sends keep-alive messages to the SSH host and
+     * disconnects when the host stops responding to them.
      *
      * @param connectionProperties the {@link DocumentDbConnectionProperties} connection properties.
-     * @return a {@link Session} session. This session must be closed by calling the
-     *          {@link Session#disconnect()} method.
-     * @throws SQLException if unable to create SSH session or create the port forwarding tunnel.
+     * @return a connected {@link DocumentDbSshSessionPool.ForwardingSession}.
+     * @throws SQLException if unable to create or connect the SSH session.
      */
-    public static SshPortForwardingSession createSshTunnel(
+    static DocumentDbSshSessionPool.ForwardingSession createForwardingSession(
             final DocumentDbConnectionProperties connectionProperties) throws SQLException {
-        validateSshPrivateKeyFile(connectionProperties);
-
-        LOGGER.debug("Internal SSH tunnel starting.");
         try {
             final JSch jSch = new JSch();
             addIdentity(connectionProperties, jSch);
             final Session session = createSession(connectionProperties, jSch);
+            session.setServerAliveInterval(KEEP_ALIVE_INTERVAL_MS);
+            session.setServerAliveCountMax(KEEP_ALIVE_COUNT_MAX);
             connectSession(connectionProperties, jSch, session);
-            final SshPortForwardingSession portForwardingSession = getPortForwardingSession(
-                    connectionProperties, session);
-            LOGGER.debug("Internal SSH tunnel started on local port '{}'.",
-                    portForwardingSession.getLocalPort());
-            LOGGER.debug("Internal SSH tunnel started.");
-            return portForwardingSession;
+            final Pair<String, Integer> clusterHostAndPort = getHostAndPort(
+                    connectionProperties.getHostname(), DEFAULT_DOCUMENTDB_PORT);
+            return new JSchForwardingSession(session, clusterHostAndPort.getLeft(), clusterHostAndPort.getRight());
         } catch (Exception e) {
             throw logException(e);
         }
     }
 
-    private static SshPortForwardingSession getPortForwardingSession(
-            final DocumentDbConnectionProperties connectionProperties,
-            final Session session) throws JSchException {
-        final Pair<String, Integer> clusterHostAndPort = getHostAndPort(
-                connectionProperties.getHostname(), DEFAULT_DOCUMENTDB_PORT);
-        final int localPort = session.setPortForwardingL(
-                LOCALHOST, 0, clusterHostAndPort.getLeft(), clusterHostAndPort.getRight());
-        return new SshPortForwardingSession(session, localPort);
-    }
-
     private static Pair<String, Integer> getHostAndPort(
             final String hostname,
             final int defaultPort) {
@@ -282,16 +294,28 @@ public final class DocumentDbSshTunnelServer implements AutoCloseable {
      * @return A port number that the SSH tunnel service is listening on.
      */
     public int getServiceListeningPort() {
-        return session != null ? session.getLocalPort() : 0;
+        final DocumentDbSshSessionPool pool = sessionPool;
+        return pool != null ? pool.getLocalPort() : 0;
+    }
+
+    /**
+     * Gets the channel and throughput statistics of each SSH session of the tunnel.
+     *
+     * @return a list of {@link DocumentDbSshSessionStatistics}, empty if the SSH tunnel service
+     * is not running.
+     */
+    public List<DocumentDbSshSessionStatistics> getSessionStatistics() {
+        final DocumentDbSshSessionPool pool = sessionPool;
+        return pool != null ? pool.getStatistics() : Collections.emptyList();
     }
 
     @Override
     public void close() {
         synchronized (mutex) {
-            if (session != null) {
+            if (sessionPool != null) {
                 LOGGER.debug("Internal SSH Tunnel is stopping.");
-                session.getSession().disconnect();
-                session = null;
+                sessionPool.close();
+                sessionPool = null;
                 LOGGER.debug("Internal SSH Tunnel is stopped.");
             }
         }
@@ -308,11 +332,18 @@ public final class DocumentDbSshTunnelServer implements AutoCloseable {
         synchronized (mutex) {
             cancelScheduledFutureClose();
             clientCount.incrementAndGet();
-            if (session != null && session.getLocalPort() != 0) {
+            if (sessionPool != null) {
                 return;
             }
             validateLocalSshFilesExists();
-            session = createSshTunnel(getConnectionProperties());
+            final DocumentDbConnectionProperties connectionProperties = getConnectionProperties();
+            LOGGER.debug("Internal SSH tunnel starting.");
+            sessionPool = DocumentDbSshSessionPool.open(
+                    () -> createForwardingSession(connectionProperties),
+                    sessionCount,
+                    SCHEDULER,
+                    HEALTH_CHECK_INTERVAL_MS);
+            LOGGER.debug("Internal SSH tunnel started on local port '{}'.", sessionPool.getLocalPort());
         }
     }
 
@@ -335,10 +366,8 @@ public final class DocumentDbSshTunnelServer implements AutoCloseable {
     /**
      * Closes the SSH tunnel session. If a close delay is given, delay the
      * close until that time has passed.
-     *
-     * @throws SQLException In the case the task is interrupted.
      */
-    private void closeSession() throws SQLException {
+    private void closeSession() {
         cancelScheduledFutureClose();
         // Delay the close, if indicated.
         final long delayMS = getCloseDelayMS();
@@ -346,19 +375,26 @@ public final class DocumentDbSshTunnelServer implements AutoCloseable {
             close();
         } else {
             LOGGER.debug("Close timer is being scheduled.");
-            scheduledFuture = scheduler.schedule(getCloseTimerTask(), delayMS, TimeUnit.MILLISECONDS);
+            scheduledFuture = SCHEDULER.schedule(getCloseTimerTask(), delayMS, TimeUnit.MILLISECONDS);
         }
     }
 
     /**
-     * Gets the {@link Runnable} task to close the SSH tunnel session.
+     * Gets the {@link Runnable} task to close the SSH tunnel session. The task does not close the
+     * session if a client was added after it was scheduled.
      *
      * @return the task to close the SSH tunnel session.
      */
     private Runnable getCloseTimerTask() {
         return () -> {
             try {
-                close();
+                synchronized (mutex) {
+                    if (clientCount.get() > 0) {
+                        return;
+                    }
+                    scheduledFuture = null;
+                    close();
+                }
             } catch (Exception e) {
                 // Ignore exception on close.
                 LOGGER.warn(e.getMessage(), e);
@@ -368,22 +404,14 @@ public final class DocumentDbSshTunnelServer implements AutoCloseable {
 
     /**
      * Cancels the scheduled future to close the SSH tunnel session in the case a new client gets added before
-     * the close occurs.
-     *
-     * @throws SQLException If interrupted during sleep.
+     * the close occurs. A close task that has already started waits for the mutex, then finds the new client
+     * and leaves the session open, so there is no need to wait for it.
      */
-    private void cancelScheduledFutureClose() throws SQLException {
+    private void cancelScheduledFutureClose() {
         synchronized (mutex) {
             if (scheduledFuture != null) {
                 LOGGER.debug("Close timer is being cancelled.");
-                while (!scheduledFuture.isDone()) {
-                    scheduledFuture.cancel(false);
-                    try {
-                        TimeUnit.MILLISECONDS.sleep(10);
-                    } catch (InterruptedException e) {
-                        throw new SQLException(e.getMessage(), e);
-                    }
-                }
+                scheduledFuture.cancel(false);
             }
             scheduledFuture = null;
         }
@@ -417,7 +445,7 @@ public final class DocumentDbSshTunnelServer implements AutoCloseable {
      * @return Returns true if the SSH tunnel service is running.
      */
     public boolean isAlive() {
-        return session != null;
+        return sessionPool != null;
     }
 
     /**
@@ -451,6 +479,7 @@ public final class DocumentDbSshTunnelServer implements AutoCloseable {
         private String sshPrivateKeyPassphrase = null;
         private boolean sshStrictHostKeyChecking = true;
         private String sshKnownHostsFile = null;
+        private int sshSessionCount = DEFAULT_SESSION_COUNT;
 
         private static final ConcurrentMap<String, DocumentDbSshTunnelServer> SSH_TUNNEL_MAP =
                 new ConcurrentHashMap<>();
@@ -508,6 +537,18 @@ public final class DocumentDbSshTunnelServer implements AutoCloseable {
             return this;
         }
 
+        /**
+         * Sets the number of SSH sessions of the tunnel.
+         *
+         * @param sshSessionCount the number of SSH sessions. Values less than one are ignored.
+         *
+         * @return the current instance of the builder.
+         */
+        public DocumentDbSshTunnelServerBuilder sshSessionCount(final int sshSessionCount) {
+            this.sshSessionCount = sshSessionCount > 0 ? sshSessionCount : DEFAULT_SESSION_COUNT;
+            return this;
+        }
+
         /**
          * Builds a DocumentDbSshTunnelServer from the given properties.
          *
@@ -518,7 +559,8 @@ public final class DocumentDbSshTunnelServer implements AutoCloseable {
                     this.sshUser,
                     this.sshHostname,
                     this.sshPrivateKeyFile,
-                    this.sshRemoteHostname
+                    this.sshRemoteHostname,
+                    this.sshSessionCount
             );
             // Returns single instance of server for the hashed properties.
             return SSH_TUNNEL_MAP.computeIfAbsent(
@@ -588,18 +630,34 @@ public final class DocumentDbSshTunnelServer implements AutoCloseable {
     }
 
     /**
-     * Container for the SSH port forwarding tunnel session.
+     * An SSH session that forwards each channel to the remote host with a 'direct-tcpip' channel.
      */
-    @Getter
     @AllArgsConstructor
-    static class SshPortForwardingSession {
-        /**
-         * Gets the SSH session.
-         */
+    private static class JSchForwardingSession implements DocumentDbSshSessionPool.ForwardingSession {
         private final Session session;
-        /**
-         * Gets the local port for the port forwarding tunnel.
-         */
-        private final int localPort;
+        private final String remoteHost;
+        private final int remotePort;
+
+        @Override
+        public void openChannel(final InputStream input, final OutputStream output) throws IOException {
+            try {
+                final Channel channel = session.getStreamForwarder(remoteHost, remotePort);
+                channel.setInputStream(input);
+                channel.setOutputStream(output);
+                channel.connect(CHANNEL_CONNECT_TIMEOUT_MS);
+            } catch (JSchException e) {
+                throw new IOException(e.getMessage(), e);
+            }
+        }
+
+        @Override
+        public boolean isConnected() {
+            return session.isConnected();
+        }
+
+        @Override
+        public void disconnect() {
+            session.disconnect();
+        }
     }
 }
@@ -139,6 +139,50 @@ public class DocumentDbConnectionPropertiesTest {
         Assertions.assertNotNull(settings.getSslSettings().getContext().getClientSessionContext());
     }
 
+    @Test
+    @DisplayName("Tests that the connection pool properties are applied to the client settings.")
+    void testConnectionPoolProperties() {
+        final DocumentDbConnectionProperties properties = new DocumentDbConnectionProperties();
+        properties.setHostname("HOSTNAME");
+        properties.setTlsEnabled("false");
+
+        // Defaults.
+        MongoClientSettings settings = properties.buildMongoClientSettings();
+        Assertions.assertEquals(100, settings.getConnectionPoolSettings().getMaxSize());
+        Assertions.assertEquals(0, settings.getConnectionPoolSettings().getMinSize());
+        Assertions.assertEquals(2, settings.getConnectionPoolSettings().getMaxConnecting());
+        Assertions.assertEquals(120000,
+                settings.getConnectionPoolSettings().getMaxWaitTime(TimeUnit.MILLISECONDS));
+        Assertions.assertEquals(0,
+                settings.getConnectionPoolSettings().getMaxConnectionIdleTime(TimeUnit.MILLISECONDS));
+        Assertions.assertFalse(properties.getMetricsEnabled());
+        Assertions.assertEquals("//HOSTNAME/?tls=false", properties.buildSanitizedConnectionString());
+
+        properties.setMaxPoolSize("10");
+        properties.setMinPoolSize("1");
+        properties.setMaxConnecting("3");
+        properties.setWaitQueueTimeout("1000");
+        properties.setMaxIdleTime("60000");
+        properties.setMetricsEnabled("true");
+        settings = properties.buildMongoClientSettings();
+        Assertions.assertEquals(10, settings.getConnectionPoolSettings().getMaxSize());
+        Assertions.assertEquals(1, settings.getConnectionPoolSettings().getMinSize());
+        Assertions.assertEquals(3, settings.getConnectionPoolSettings().getMaxConnecting());
+        Assertions.assertEquals(1000,
+                settings.getConnectionPoolSettings().getMaxWaitTime(TimeUnit.MILLISECONDS));
+        Assertions.assertEquals(60000,
+                settings.getConnectionPoolSettings().getMaxConnectionIdleTime(TimeUnit.MILLISECONDS));
+        Assertions.assertTrue(properties.getMetricsEnabled());
+        Assertions.assertEquals("//HOSTNAME/?tls=false"
+                        + "&maxPoolSize=10"
+                        + "&minPoolSize=1"
+                        + "&maxConnecting=3"
+                        + "&waitQueueTimeoutMS=1000"
+                        + "&maxIdleTimeMS=60000"
+                        + "&metricsEnabled=true",
+                properties.buildSanitizedConnectionString());
+    }
+
     /**
      * Tests setting the scan method with the DocumentDbScanMethod enum.
      */
@@ -175,6 +219,22 @@ public class DocumentDbConnectionPropertiesTest {
         Assertions.assertNull(properties.getAllowDiskUseOption());
     }
 
+    /**
+     * Tests setting the read routing policy with the DocumentDbReadRoutingPolicy enum.
+     */
+    @Test
+    @DisplayName("Tests setting the read routing policy with the DocumentDbReadRoutingPolicy enum.")
+    public void testReadRoutingPolicies() {
+        final DocumentDbConnectionProperties properties = new DocumentDbConnectionProperties();
+        Assertions.assertEquals(DocumentDbReadRoutingPolicy.NONE, properties.getReadRoutingPolicy());
+        properties.setReadRoutingPolicy(DocumentDbReadRoutingPolicy.WORKLOAD.getName());
+        Assertions.assertEquals(DocumentDbReadRoutingPolicy.WORKLOAD, properties.getReadRoutingPolicy());
+        properties.setReadRoutingPolicy(DocumentDbReadRoutingPolicy.NONE.getName());
+        Assertions.assertEquals(DocumentDbReadRoutingPolicy.NONE, properties.getReadRoutingPolicy());
+        properties.setReadRoutingPolicy("garbage");
+        Assertions.assertNull(properties.getReadRoutingPolicy());
+    }
+
     /**
      * Tests setting the read preference with the DocumentDbReadPreference enum.
      */
@@ -253,10 +313,26 @@ public class DocumentDbConnectionPropertiesTest {
                 "&" + DocumentDbConnectionProperty.SSH_PRIVATE_KEY_PASSPHRASE.getName() + "=" + "passphrase" +
                 "&" + DocumentDbConnectionProperty.SSH_STRICT_HOST_KEY_CHECKING.getName() + "=" + "false" +
                 "&" + DocumentDbConnectionProperty.SSH_KNOWN_HOSTS_FILE.getName() + "=" + "~/.ssh/known_hosts" +
+                "&" + DocumentDbConnectionProperty.SSH_SESSION_COUNT.getName() + "=" + "4" +
                 "&" + DocumentDbConnectionProperty.DEFAULT_FETCH_SIZE.getName() + "=" + "1000" +
                 "&" + DocumentDbConnectionProperty.REFRESH_SCHEMA.getName() + "=" + "true" +
                 "&" + DocumentDbConnectionProperty.DEFAULT_AUTH_DB.getName() + "=" + "test" +
-                "&" + DocumentDbConnectionProperty.ALLOW_DISK_USE.getName() + "=" + "disable";
+                "&" + DocumentDbConnectionProperty.ALLOW_DISK_USE.getName() + "=" + "disable" +
+                "&" + DocumentDbConnectionProperty.HYBRID_EXECUTION.getName() + "=" + "true" +
+                "&" + DocumentDbConnectionProperty.HYBRID_EXECUTION_MAX_ROWS_IN_MEMORY.getName() + "=" + "1000" +
+                "&" + DocumentDbConnectionProperty.WINDOW_FUNCTION_PUSHDOWN.getName() + "=" + "true" +
+                "&" + DocumentDbConnectionProperty.APPROXIMATE_COUNT.getName() + "=" + "true" +
+                "&" + DocumentDbConnectionProperty.READ_ROUTING_POLICY.getName() + "=" + "workload" +
+                "&" + DocumentDbConnectionProperty.READ_ROUTING_ROW_THRESHOLD.getName() + "=" + "5000" +
+                "&" + DocumentDbConnectionProperty.READ_ROUTING_MAX_STALENESS_SEC.getName() + "=" + "120" +
+                "&" + DocumentDbConnectionProperty.MAX_POOL_SIZE.getName() + "=" + "10" +
+                "&" + DocumentDbConnectionProperty.MIN_POOL_SIZE.getName() + "=" + "1" +
+                "&" + DocumentDbConnectionProperty.MAX_CONNECTING.getName() + "=" + "3" +
+                "&" + DocumentDbConnectionProperty.WAIT_QUEUE_TIMEOUT_MS.getName() + "=" + "1000" +
+                "&" + DocumentDbConnectionProperty.MAX_IDLE_TIME_MS.getName() + "=" + "60000" +
+                "&" + DocumentDbConnectionProperty.METRICS_ENABLED.getName() + "=" + "true" +
+                "&" + DocumentDbConnectionProperty.MAX_STATEMENTS.getName() + "=" + "10" +
+                "&" + DocumentDbConnectionProperty.PING_ON_CONNECT.getName() + "=" + "false";
         properties = DocumentDbConnectionProperties
                 .getPropertiesFromConnectionString(info, connectionString, DOCUMENT_DB_SCHEME);
         Assertions.assertEquals(DocumentDbConnectionProperty.values().length, properties.size());
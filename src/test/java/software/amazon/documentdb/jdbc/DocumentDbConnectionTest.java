@@ -16,6 +16,9 @@
 
 package software.amazon.documentdb.jdbc;
 
+import com.mongodb.client.MongoClient;
+import org.bson.BsonDocument;
+import org.bson.BsonInt32;
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeAll;
@@ -33,6 +36,17 @@ import software.amazon.documentdb.jdbc.metadata.DocumentDbSchema;
 import software.amazon.documentdb.jdbc.persist.DocumentDbSchemaReader;
 import software.amazon.documentdb.jdbc.persist.DocumentDbSchemaWriter;
 
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.sql.StatementEvent;
+import javax.sql.StatementEventListener;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
 import java.security.SecureRandom;
 import java.sql.Connection;
 import java.sql.DriverManager;
@@ -45,7 +59,10 @@ import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Queue;
+import java.util.Set;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -155,6 +172,93 @@ public class DocumentDbConnectionTest extends DocumentDbFlapDoodleTest {
         }
     }
 
+    @Test
+    @DisplayName("Tests that connection pool and command metrics are published as an MBean.")
+    void testConnectionWithMetrics() throws Exception {
+        final DocumentDbConnectionProperties properties = new DocumentDbConnectionProperties(VALID_CONNECTION_PROPERTIES);
+        properties.setApplicationName("testConnectionWithMetrics");
+        properties.setMaxPoolSize("5");
+        properties.setMetricsEnabled("true");
+        final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        final ObjectName query = new ObjectName(
+                "software.amazon.documentdb.jdbc:type=ClientMetrics,name=\"testConnectionWithMetrics#*\"");
+
+        try (DocumentDbConnection connection = (DocumentDbConnection) DriverManager.getConnection(
+                DocumentDbConnectionProperties.DOCUMENT_DB_SCHEME, properties)) {
+            Assertions.assertTrue(connection.isValid(15));
+            final Set<ObjectName> names = server.queryNames(query, null);
+            Assertions.assertEquals(1, names.size());
+            final ObjectName name = names.iterator().next();
+            Assertions.assertTrue((Long) server.getAttribute(name, "CheckOutCount") >= 1);
+            Assertions.assertTrue((Long) server.getAttribute(name, "ConnectionsOpen") >= 1);
+            Assertions.assertTrue((Long) server.invoke(name, "getCommandCount",
+                    new Object[]{"ping"}, new String[]{String.class.getName()}) >= 2);
+            Assertions.assertEquals(0L, server.getAttribute(name, "CheckOutFailedCount"));
+
+            // The counts of the shared clients are published next to the client metrics.
+            final ObjectName registryName = new ObjectName("software.amazon.documentdb.jdbc:type=ClientRegistry");
+            Assertions.assertEquals(
+                    DocumentDbMongoClientRegistry.getCreatedCount(), server.getAttribute(registryName, "CreatedCount"));
+            Assertions.assertEquals(
+                    DocumentDbMongoClientRegistry.getReusedCount(), server.getAttribute(registryName, "ReusedCount"));
+            Assertions.assertTrue((Integer) server.getAttribute(registryName, "OpenClientCount") >= 1);
+        }
+        // The MBean is removed when the client is closed.
+        Assertions.assertTrue(server.queryNames(query, null).isEmpty());
+    }
+
+    /**
+     * Tests getting and setting the network timeout.
+     *
+     * @throws SQLException if an error occurs instantiating a Connection.
+     */
+    @Test
+    void testGetSetNetworkTimeout() throws SQLException {
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        try (DocumentDbConnection connection = (DocumentDbConnection) DriverManager.getConnection(
+                DocumentDbConnectionProperties.DOCUMENT_DB_SCHEME, VALID_CONNECTION_PROPERTIES)) {
+            Assertions.assertEquals(0, connection.getNetworkTimeout());
+            connection.setNetworkTimeout(executor, 5000);
+            Assertions.assertEquals(5000, connection.getNetworkTimeout());
+            Assertions.assertTrue(connection.isValid(15));
+            Assertions.assertThrows(SQLException.class, () -> connection.setNetworkTimeout(executor, -1));
+            Assertions.assertThrows(SQLException.class, () -> connection.setNetworkTimeout(null, 1000));
+            connection.setNetworkTimeout(executor, 0);
+            Assertions.assertEquals(0, connection.getNetworkTimeout());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Tests that an operation blocked on a server that stops responding fails once the network
+     * timeout expires, and that the connection is closed.
+     *
+     * @throws Exception if an error occurs.
+     */
+    @Test
+    void testNetworkTimeoutWhenServerStopsResponding() throws Exception {
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        try (StallingProxy proxy = new StallingProxy(getMongoPort())) {
+            final DocumentDbConnectionProperties properties =
+                    new DocumentDbConnectionProperties(VALID_CONNECTION_PROPERTIES);
+            properties.setHostname(HOSTNAME + ":" + proxy.getPort());
+            try (DocumentDbConnection connection = (DocumentDbConnection) DriverManager.getConnection(
+                    DocumentDbConnectionProperties.DOCUMENT_DB_SCHEME, properties)) {
+                connection.setNetworkTimeout(executor, 1000);
+                Assertions.assertTrue(connection.isValid(0));
+                proxy.stall();
+                final Instant start = Instant.now();
+                // Without a network timeout, the ping waits for the server indefinitely.
+                Assertions.assertFalse(connection.isValid(0));
+                Assertions.assertTrue(Instant.now().isBefore(start.plus(10, ChronoUnit.SECONDS)));
+                Assertions.assertTrue(connection.isClosed());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
     /**
      * Tests constructor when passed invalid options. Invalid options are ignored.
      *
@@ -334,6 +438,108 @@ public class DocumentDbConnectionTest extends DocumentDbFlapDoodleTest {
         }
     }
 
+    @Test
+    @DisplayName("Tests that the statement listeners of a pooled connection are notified of statement events.")
+    void testPooledPreparedStatementEvents() throws SQLException {
+        final String sql = String.format("SELECT * FROM \"%s\"", COLLECTION_NAME);
+        final List<StatementEvent> closedEvents = new ArrayList<>();
+        final List<StatementEvent> errorEvents = new ArrayList<>();
+        final DocumentDbPooledConnection pooledConnection = new DocumentDbPooledConnection(
+                DriverManager.getConnection(DocumentDbConnectionProperties.DOCUMENT_DB_SCHEME,
+                        new DocumentDbConnectionProperties(VALID_CONNECTION_PROPERTIES)));
+        pooledConnection.addStatementEventListener(new StatementEventListener() {
+            @Override
+            public void statementClosed(final StatementEvent event) {
+                closedEvents.add(event);
+            }
+
+            @Override
+            public void statementErrorOccurred(final StatementEvent event) {
+                errorEvents.add(event);
+            }
+        });
+        try (Connection connection = pooledConnection.getConnection()) {
+            final DocumentDbPreparedStatement statement1 =
+                    (DocumentDbPreparedStatement) connection.prepareStatement(sql);
+            Assertions.assertTrue(statement1.isPoolable());
+            try (ResultSet resultSet = statement1.executeQuery()) {
+                Assertions.assertTrue(resultSet.next());
+            }
+            statement1.close();
+            Assertions.assertTrue(statement1.isClosed());
+            Assertions.assertEquals(1, closedEvents.size());
+            Assertions.assertSame(statement1, closedEvents.get(0).getStatement());
+
+            // Closing a closed statement does not notify the listeners again.
+            statement1.close();
+            Assertions.assertEquals(1, closedEvents.size());
+
+            // A new statement with the same SQL is a new statement, with its initial options.
+            final DocumentDbPreparedStatement statement2 =
+                    (DocumentDbPreparedStatement) connection.prepareStatement(sql);
+            Assertions.assertNotSame(statement1, statement2);
+            Assertions.assertEquals(0, statement2.getQueryTimeout());
+            try (ResultSet resultSet = statement2.executeQuery()) {
+                Assertions.assertTrue(resultSet.next());
+            }
+            statement2.setPoolable(false);
+            statement2.close();
+            Assertions.assertEquals(2, closedEvents.size());
+            Assertions.assertSame(statement2, closedEvents.get(1).getStatement());
+
+            // Statements whose query cannot be translated are invalid.
+            final DocumentDbPreparedStatement invalidStatement = (DocumentDbPreparedStatement)
+                    connection.prepareStatement("SELECT * FROM \"invalidTable\"");
+            Assertions.assertThrows(SQLException.class, invalidStatement::executeQuery);
+            Assertions.assertEquals(1, errorEvents.size());
+            Assertions.assertSame(invalidStatement, errorEvents.get(0).getStatement());
+            invalidStatement.close();
+            Assertions.assertEquals(3, closedEvents.size());
+        } finally {
+            pooledConnection.close();
+        }
+    }
+
+    @Test
+    @DisplayName("Tests that pooled prepared statements use the database metadata after it is refreshed.")
+    void testPooledPreparedStatementAfterRefresh() throws SQLException {
+        final String collectionName = "pooledRefreshCollection";
+        final String sql = String.format("SELECT * FROM \"%s\"", collectionName);
+        insertBsonDocuments(collectionName, DATABASE, USERNAME, PASSWORD, new BsonDocument[] {
+                new BsonDocument("_id", new BsonInt32(1)).append("field1", new BsonInt32(1))});
+        final DocumentDbConnection physicalConnection = (DocumentDbConnection) DriverManager.getConnection(
+                DocumentDbConnectionProperties.DOCUMENT_DB_SCHEME,
+                new DocumentDbConnectionProperties(VALID_CONNECTION_PROPERTIES));
+        physicalConnection.refreshDatabaseMetadata();
+        final DocumentDbPooledConnection pooledConnection = new DocumentDbPooledConnection(physicalConnection);
+        try (Connection connection = pooledConnection.getConnection()) {
+            final DocumentDbPreparedStatement statement1 =
+                    (DocumentDbPreparedStatement) connection.prepareStatement(sql);
+            try (ResultSet resultSet = statement1.executeQuery()) {
+                Assertions.assertEquals(2, resultSet.getMetaData().getColumnCount());
+            }
+            statement1.close();
+
+            try (MongoClient client = createMongoClient(ADMIN_DATABASE, USERNAME, PASSWORD)) {
+                client.getDatabase(DATABASE).getCollection(collectionName, BsonDocument.class).insertOne(
+                        new BsonDocument("_id", new BsonInt32(2))
+                                .append("field1", new BsonInt32(2))
+                                .append("field2", new BsonInt32(2)));
+            }
+            physicalConnection.refreshDatabaseMetadata();
+
+            // The query is translated again with the refreshed schema.
+            final DocumentDbPreparedStatement statement2 =
+                    (DocumentDbPreparedStatement) connection.prepareStatement(sql);
+            try (ResultSet resultSet = statement2.executeQuery()) {
+                Assertions.assertEquals(3, resultSet.getMetaData().getColumnCount());
+                Assertions.assertEquals("field2", resultSet.getMetaData().getColumnName(3));
+            }
+        } finally {
+            pooledConnection.close();
+        }
+    }
+
     /**
      * Tests metadata for table types.
      */
@@ -588,4 +794,76 @@ public class DocumentDbConnectionTest extends DocumentDbFlapDoodleTest {
             return exceptions;
         }
     }
+
+    /**
+     * A local stand-in server that forwards to the MongoDB instance until it stops responding.
+     */
+    private static class StallingProxy implements AutoCloseable {
+        private final ServerSocket serverSocket;
+        private final int targetPort;
+        private final ExecutorService threads = Executors.newCachedThreadPool();
+        private final Queue<Socket> sockets = new ConcurrentLinkedQueue<>();
+        private volatile boolean isStalled = false;
+
+        StallingProxy(final int targetPort) throws IOException {
+            this.serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+            this.targetPort = targetPort;
+            threads.execute(this::accept);
+        }
+
+        int getPort() {
+            return serverSocket.getLocalPort();
+        }
+
+        /**
+         * Stops forwarding data in both directions, without closing the sockets.
+         */
+        void stall() {
+            isStalled = true;
+        }
+
+        private void accept() {
+            while (!serverSocket.isClosed()) {
+                try {
+                    final Socket client = serverSocket.accept();
+                    final Socket server = new Socket(InetAddress.getLoopbackAddress(), targetPort);
+                    sockets.add(client);
+                    sockets.add(server);
+                    threads.execute(() -> forward(client, server));
+                    threads.execute(() -> forward(server, client));
+                } catch (IOException e) {
+                    return;
+                }
+            }
+        }
+
+        private void forward(final Socket from, final Socket to) {
+            final byte[] buffer = new byte[8192];
+            try {
+                final InputStream input = from.getInputStream();
+                final OutputStream output = to.getOutputStream();
+                int count;
+                while ((count = input.read(buffer)) >= 0) {
+                    while (isStalled) {
+                        TimeUnit.MILLISECONDS.sleep(50);
+                    }
+                    output.write(buffer, 0, count);
+                    output.flush();
+                }
+            } catch (IOException e) {
+                // The socket was closed.
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            serverSocket.close();
+            threads.shutdownNow();
+            for (Socket socket : sockets) {
+                socket.close();
+            }
+        }
+    }
 }
@@ -23,7 +23,15 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import software.amazon.documentdb.jdbc.common.test.DocumentDbFlapDoodleExtension;
 import software.amazon.documentdb.jdbc.common.test.DocumentDbFlapDoodleTest;
+
+import javax.sql.PooledConnection;
+import java.sql.Connection;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Tests for the DocumentDbDataSource
@@ -156,4 +164,57 @@ public class DocumentDbDataSourceTest extends DocumentDbFlapDoodleTest {
         dataSource.setTlsEnabled(false);
         Assertions.assertNotNull(dataSource.getPooledConnection(USERNAME, PASSWORD));
     }
+
+    @Test
+    void getConnectionAsync() throws Exception {
+        dataSource.setUser(USERNAME);
+        dataSource.setPassword(PASSWORD);
+        dataSource.setDatabase(DATABASE);
+        dataSource.setHostname(HOSTNAME + ":" + getMongoPort());
+        dataSource.setTlsEnabled(false);
+        final List<CompletableFuture<Connection>> futures = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            futures.add(dataSource.getConnectionAsync());
+        }
+        for (CompletableFuture<Connection> future : futures) {
+            try (Connection connection = future.get(30, TimeUnit.SECONDS)) {
+                Assertions.assertFalse(connection.isClosed());
+                Assertions.assertTrue(connection.isValid(15));
+                Assertions.assertNotNull(connection.getMetaData());
+            }
+        }
+        final PooledConnection pooledConnection = dataSource.getPooledConnectionAsync().get(30, TimeUnit.SECONDS);
+        Assertions.assertNotNull(pooledConnection.getConnection());
+        pooledConnection.close();
+    }
+
+    @Test
+    void getConnectionAsyncWithInvalidPassword() throws SQLException {
+        dataSource.setUser(USERNAME);
+        dataSource.setPassword("invalid");
+        dataSource.setDatabase(DATABASE);
+        dataSource.setHostname(HOSTNAME + ":" + getMongoPort());
+        dataSource.setTlsEnabled(false);
+        final CompletableFuture<Connection> future = dataSource.getConnectionAsync();
+        final ExecutionException exception = Assertions.assertThrows(
+                ExecutionException.class, () -> future.get(30, TimeUnit.SECONDS));
+        Assertions.assertTrue(exception.getCause() instanceof SQLException);
+    }
+
+    @Test
+    void getConnectionWithoutPing() throws SQLException {
+        dataSource.setUser(USERNAME);
+        dataSource.setPassword("invalid");
+        dataSource.setDatabase(DATABASE);
+        dataSource.setHostname(HOSTNAME + ":" + getMongoPort());
+        dataSource.setTlsEnabled(false);
+        dataSource.setPingOnConnect(false);
+        Assertions.assertFalse(dataSource.getPingOnConnect());
+        // The invalid credentials are only detected by the first operation.
+        try (Connection connection = dataSource.getConnection()) {
+            Assertions.assertFalse(connection.isValid(15));
+        }
+        dataSource.setPingOnConnect(true);
+        Assertions.assertThrows(SQLException.class, () -> dataSource.getConnection());
+    }
 }
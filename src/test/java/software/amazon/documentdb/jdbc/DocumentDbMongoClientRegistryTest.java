@@ -0,0 +1,145 @@
+/*
+ * Copyright <2021> Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ */
+
+package software.amazon.documentdb.jdbc;
+
+import com.mongodb.ServerAddress;
+import com.mongodb.client.MongoClient;
+import com.mongodb.connection.ClusterConnectionMode;
+import com.mongodb.connection.ClusterDescription;
+import com.mongodb.connection.ClusterType;
+import com.mongodb.connection.ServerConnectionState;
+import com.mongodb.connection.ServerDescription;
+import com.mongodb.connection.ServerType;
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+public class DocumentDbMongoClientRegistryTest {
+
+    @Test
+    @DisplayName("Tests that connections with the same settings share a client until the last one is released.")
+    void testClientShared() {
+        final int openCount = DocumentDbMongoClientRegistry.getOpenClientCount();
+        final long reusedCount = DocumentDbMongoClientRegistry.getReusedCount();
+        final MongoClient client1 = DocumentDbMongoClientRegistry.acquire(getProperties("PASSWORD"), 0);
+        final MongoClient client2 = DocumentDbMongoClientRegistry.acquire(getProperties("PASSWORD"), 0);
+        try {
+            Assertions.assertSame(client1, client2);
+            Assertions.assertEquals(openCount + 1, DocumentDbMongoClientRegistry.getOpenClientCount());
+            Assertions.assertEquals(reusedCount + 1, DocumentDbMongoClientRegistry.getReusedCount());
+        } finally {
+            DocumentDbMongoClientRegistry.release(client1);
+        }
+        // Still used by the second connection.
+        Assertions.assertEquals(openCount + 1, DocumentDbMongoClientRegistry.getOpenClientCount());
+        DocumentDbMongoClientRegistry.release(client2);
+        Assertions.assertEquals(openCount, DocumentDbMongoClientRegistry.getOpenClientCount());
+
+        // A new client is created once the shared client is closed.
+        final MongoClient client3 = DocumentDbMongoClientRegistry.acquire(getProperties("PASSWORD"), 0);
+        try {
+            Assertions.assertNotSame(client1, client3);
+        } finally {
+            DocumentDbMongoClientRegistry.release(client3);
+        }
+    }
+
+    @Test
+    @DisplayName("Tests that connections with different settings do not share a client.")
+    void testClientNotShared() {
+        final int openCount = DocumentDbMongoClientRegistry.getOpenClientCount();
+        final MongoClient client1 = DocumentDbMongoClientRegistry.acquire(getProperties("PASSWORD"), 0);
+        final MongoClient client2 = DocumentDbMongoClientRegistry.acquire(getProperties("OTHER"), 0);
+        final MongoClient client3 = DocumentDbMongoClientRegistry.acquire(getProperties("PASSWORD"), 27019);
+        try {
+            Assertions.assertNotSame(client1, client2);
+            Assertions.assertNotSame(client1, client3);
+            Assertions.assertEquals(openCount + 3, DocumentDbMongoClientRegistry.getOpenClientCount());
+        } finally {
+            DocumentDbMongoClientRegistry.release(client1);
+            DocumentDbMongoClientRegistry.release(client2);
+            DocumentDbMongoClientRegistry.release(client3);
+        }
+        Assertions.assertEquals(openCount, DocumentDbMongoClientRegistry.getOpenClientCount());
+    }
+
+    @Test
+    @DisplayName("Tests that commands are sent to the primary or to the server of a direct connection.")
+    void testIsCommandServer() {
+        final ServerAddress primaryAddress = new ServerAddress("primary", 27017);
+        final ServerAddress secondaryAddress = new ServerAddress("secondary", 27017);
+        final List<ServerDescription> servers = Arrays.asList(
+                getServerDescription(primaryAddress, ServerType.REPLICA_SET_PRIMARY),
+                getServerDescription(secondaryAddress, ServerType.REPLICA_SET_SECONDARY));
+        final ClusterDescription replicaSet = new ClusterDescription(
+                ClusterConnectionMode.MULTIPLE, ClusterType.REPLICA_SET, servers);
+        Assertions.assertTrue(DocumentDbMongoClientRegistry.isCommandServer(replicaSet, primaryAddress));
+        Assertions.assertFalse(DocumentDbMongoClientRegistry.isCommandServer(replicaSet, secondaryAddress));
+
+        final ClusterDescription directConnection = new ClusterDescription(
+                ClusterConnectionMode.SINGLE, ClusterType.REPLICA_SET, servers.subList(1, 2));
+        Assertions.assertTrue(DocumentDbMongoClientRegistry.isCommandServer(directConnection, secondaryAddress));
+    }
+
+    @Test
+    @DisplayName("Tests that the client of a connection to a single server runs the commands for that server.")
+    void testServerClient() {
+        final MongoClient client = DocumentDbMongoClientRegistry.acquire(getProperties("PASSWORD"), 0);
+        try {
+            Assertions.assertSame(client, DocumentDbMongoClientRegistry.getServerClient(client, null));
+            Assertions.assertSame(client, DocumentDbMongoClientRegistry.getServerClient(
+                    client, new ServerAddress("localhost", 27017)));
+        } finally {
+            DocumentDbMongoClientRegistry.release(client);
+        }
+
+        // A client for a server of a replica set connects directly to the server.
+        final ServerAddress secondaryAddress = new ServerAddress("secondary", 27017);
+        try (MongoClient serverClient = getProperties("PASSWORD").createMongoClient(0, secondaryAddress)) {
+            Assertions.assertEquals(
+                    ClusterConnectionMode.SINGLE, serverClient.getClusterDescription().getConnectionMode());
+            Assertions.assertEquals(
+                    Collections.singletonList(secondaryAddress),
+                    serverClient.getClusterDescription().getClusterSettings().getHosts());
+        }
+    }
+
+    private static ServerDescription getServerDescription(
+            final ServerAddress serverAddress, final ServerType serverType) {
+        return ServerDescription.builder()
+                .address(serverAddress)
+                .state(ServerConnectionState.CONNECTED)
+                .ok(true)
+                .type(serverType)
+                .build();
+    }
+
+    @SuppressFBWarnings(value = "HARD_CODE_PASSWORD", justification = "Hardcoded for test purposes only.")
+    private static DocumentDbConnectionProperties getProperties(final String password) {
+        final DocumentDbConnectionProperties properties = new DocumentDbConnectionProperties();
+        properties.setUser("USER");
+        properties.setPassword(password);
+        properties.setDatabase("DATABASE");
+        properties.setHostname("localhost");
+        return properties;
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright <2021> Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ */
+
+package software.amazon.documentdb.jdbc;
+
+import com.mongodb.ServerAddress;
+import com.mongodb.connection.ClusterId;
+import com.mongodb.connection.ConnectionDescription;
+import com.mongodb.connection.ServerId;
+import com.mongodb.event.CommandFailedEvent;
+import com.mongodb.event.CommandStartedEvent;
+import com.mongodb.event.CommandSucceededEvent;
+import org.bson.BsonDocument;
+import org.bson.BsonString;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class DocumentDbOperationTrackerTest {
+    private static final ServerAddress PRIMARY = new ServerAddress("primary", 27017);
+    private static final ServerAddress SECONDARY = new ServerAddress("secondary", 27017);
+
+    @Test
+    @DisplayName("Tests that the server running a command of a query is recorded until the command completes.")
+    void testServerAddressRecorded() {
+        final DocumentDbOperationTracker tracker = new DocumentDbOperationTracker();
+        tracker.commandStarted(started(1, SECONDARY, "query1"));
+        tracker.commandStarted(started(2, PRIMARY, "query2"));
+        Assertions.assertEquals(SECONDARY, tracker.getServerAddress("query1"));
+        Assertions.assertEquals(PRIMARY, tracker.getServerAddress("query2"));
+
+        tracker.commandSucceeded(new CommandSucceededEvent(
+                null, 1, getConnectionDescription(SECONDARY), "aggregate", new BsonDocument(), 0));
+        Assertions.assertNull(tracker.getServerAddress("query1"));
+        tracker.commandFailed(new CommandFailedEvent(
+                null, 2, getConnectionDescription(PRIMARY), "find", 0, new RuntimeException()));
+        Assertions.assertNull(tracker.getServerAddress("query2"));
+    }
+
+    @Test
+    @DisplayName("Tests that commands without a query ID are not recorded.")
+    void testCommandWithoutComment() {
+        final DocumentDbOperationTracker tracker = new DocumentDbOperationTracker();
+        tracker.commandStarted(new CommandStartedEvent(
+                null, 1, getConnectionDescription(PRIMARY), "admin", "ping", new BsonDocument("ping", new BsonString("1"))));
+        Assertions.assertNull(tracker.getServerAddress("1"));
+    }
+
+    private static CommandStartedEvent started(
+            final int requestId, final ServerAddress serverAddress, final String queryId) {
+        return new CommandStartedEvent(null, requestId, getConnectionDescription(serverAddress), "database",
+                "aggregate", new BsonDocument("aggregate", new BsonString("collection"))
+                        .append("comment", new BsonString(queryId)));
+    }
+
+    private static ConnectionDescription getConnectionDescription(final ServerAddress serverAddress) {
+        return new ConnectionDescription(new ServerId(new ClusterId(), serverAddress));
+    }
+}
@@ -18,6 +18,8 @@ package software.amazon.documentdb.jdbc;
 
 import com.google.common.collect.ImmutableList;
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.mongodb.ReadPreference;
+import com.mongodb.ServerAddress;
 import com.mongodb.client.FindIterable;
 import com.mongodb.client.MongoClient;
 import com.mongodb.client.MongoCollection;
@@ -25,29 +27,41 @@ import com.mongodb.client.MongoCursor;
 import com.mongodb.client.MongoDatabase;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import lombok.SneakyThrows;
+import org.bson.BsonDocument;
+import org.bson.BsonInt32;
+import org.bson.BsonString;
 import org.bson.Document;
+import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
 import software.amazon.documentdb.jdbc.common.test.DocumentDbFlapDoodleExtension;
 import software.amazon.documentdb.jdbc.common.test.DocumentDbFlapDoodleTest;
 import software.amazon.documentdb.jdbc.common.utilities.JdbcColumnMetaData;
 import software.amazon.documentdb.jdbc.persist.DocumentDbSchemaWriter;
-import software.amazon.documentdb.jdbc.query.DocumentDbQueryMappingService;
+import software.amazon.documentdb.jdbc.query.DocumentDbCountQuery;
+import software.amazon.documentdb.jdbc.query.DocumentDbFindQuery;
 
+import javax.sql.StatementEvent;
+import javax.sql.StatementEventListener;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
 import java.sql.Statement;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static software.amazon.documentdb.jdbc.DocumentDbConnectionProperties.FETCH_SIZE_DEFAULT;
 
@@ -55,13 +69,17 @@ import static software.amazon.documentdb.jdbc.DocumentDbConnectionProperties.FET
 public class DocumentDbQueryExecutorTest extends DocumentDbFlapDoodleTest {
     private static final String DATABASE_NAME = "database";
     private static final String COLLECTION_NAME = "testCollection";
+    private static final String FETCH_COLLECTION_NAME = "testFetchCollection";
     private static final String TEST_USER = "user";
     private static final String TEST_PASSWORD = "password";
     private static final String QUERY = "SELECT COUNT(*) FROM \"database\".\"testCollection\"";
+    private static final String SCAN_QUERY = "SELECT * FROM \"database\".\"testCollection\"";
+    private static final String LIMIT_QUERY = "SELECT * FROM \"database\".\"testCollection\" LIMIT 1";
     private static final DocumentDbConnectionProperties VALID_CONNECTION_PROPERTIES =
             new DocumentDbConnectionProperties();
     private static DocumentDbQueryExecutor executor;
     private static DocumentDbStatement statement;
+    private static MongoClient cancelClient;
     private ResultSet resultSet;
 
     @BeforeAll
@@ -79,16 +97,26 @@ public class DocumentDbQueryExecutorTest extends DocumentDbFlapDoodleTest {
         VALID_CONNECTION_PROPERTIES.setAllowDiskUseOption("enable");
 
         prepareSimpleConsistentData(DATABASE_NAME, COLLECTION_NAME, 1, TEST_USER, TEST_PASSWORD);
+        final BsonDocument[] fetchDocuments = new BsonDocument[5];
+        for (int i = 0; i < fetchDocuments.length; i++) {
+            fetchDocuments[i] = new BsonDocument("_id", new BsonInt32(i));
+        }
+        insertBsonDocuments(FETCH_COLLECTION_NAME, DATABASE_NAME, TEST_USER, TEST_PASSWORD, fetchDocuments);
+        cancelClient = DocumentDbMongoClientRegistry.acquire(VALID_CONNECTION_PROPERTIES, 0);
         final DocumentDbConnection connection = new DocumentDbConnection(VALID_CONNECTION_PROPERTIES);
         executor = new MockQueryExecutor(
                 statement,
                 VALID_CONNECTION_PROPERTIES,
-                null,
                 0,
                 0);
         statement = new DocumentDbStatement(connection, executor);
     }
 
+    @AfterAll
+    void closeCancelClient() {
+        DocumentDbMongoClientRegistry.release(cancelClient);
+    }
+
     @AfterEach
     void afterAll() throws Exception {
         try (DocumentDbSchemaWriter schemaWriter = new DocumentDbSchemaWriter(
@@ -134,6 +162,33 @@ public class DocumentDbQueryExecutorTest extends DocumentDbFlapDoodleTest {
         Assertions.assertNull(cancel.getException(), () -> cancel.getException().getMessage());
     }
 
+    /** Tests that canceling a query fails when the client of the connection is not available. */
+    @Test
+    @DisplayName("Tests that canceling a query fails without the client of the connection.")
+    public void testCancelQueryWithoutConnectionClient() throws SQLException {
+        final DocumentDbConnection connection = new DocumentDbConnection(VALID_CONNECTION_PROPERTIES);
+        final DocumentDbStatement noClientStatement = new DocumentDbStatement(connection,
+                new MockQueryExecutor(null, VALID_CONNECTION_PROPERTIES, 0, 0) {
+                    @Override
+                    protected MongoClient getConnectionClient() {
+                        return null;
+                    }
+                });
+        final ExecutorService cancelThread = getCancelThread();
+        final Cancel cancel = launchCancelThread(100, noClientStatement, cancelThread);
+
+        // The query is not killed, so it completes.
+        resultSet = noClientStatement.executeQuery(QUERY);
+        waitCancelToComplete(cancelThread);
+        final SQLException exception = getCancelException(cancel);
+        Assertions.assertNotNull(exception);
+        Assertions.assertEquals(
+                "Cannot cancel query: the client of the connection is not available.",
+                exception.getMessage());
+        noClientStatement.close();
+        connection.close();
+    }
+
     /** Tests that canceling a query from two different threads. */
     @Test
     @DisplayName("Tests canceling a query from 2 different threads simultaneously.")
@@ -204,6 +259,173 @@ public class DocumentDbQueryExecutorTest extends DocumentDbFlapDoodleTest {
                 exception.getMessage());
     }
 
+    /**
+     * Tests that canceling a find, aggregate or count operation while it is executing kills the
+     * operation tagged with the query ID, and that the query execution then fails.
+     */
+    @ParameterizedTest(name = "testCancelOperationWhileExecuteInProgress - [{index}] - {arguments}")
+    @EnumSource(Operation.class)
+    @DisplayName("Tests canceling each kind of operation while execution is in progress.")
+    public void testCancelOperationWhileExecuteInProgress(final Operation operation) throws SQLException {
+        final DocumentDbConnection connection = new DocumentDbConnection(VALID_CONNECTION_PROPERTIES);
+        final DocumentDbStatement operationStatement = new DocumentDbStatement(connection,
+                new MockOperationQueryExecutor(VALID_CONNECTION_PROPERTIES, operation, true));
+        final ExecutorService cancelThread = getCancelThread();
+        final Cancel cancel = launchCancelThread(100, operationStatement, cancelThread);
+        Assertions.assertEquals(
+                "Query has been canceled.",
+                Assertions.assertThrows(SQLException.class, () -> resultSet = operationStatement.executeQuery(QUERY))
+                        .getMessage());
+        waitCancelToComplete(cancelThread);
+        Assertions.assertNull(cancel.getException(), () -> cancel.getException().getMessage());
+        operationStatement.close();
+        connection.close();
+    }
+
+    /**
+     * Tests that canceling an operation routed to a secondary kills the operation on the server
+     * running it.
+     */
+    @ParameterizedTest(name = "testCancelOperationRoutedToSecondary - [{index}] - {arguments}")
+    @EnumSource(Operation.class)
+    @DisplayName("Tests canceling each kind of operation routed to a secondary.")
+    public void testCancelOperationRoutedToSecondary(final Operation operation) throws SQLException {
+        final DocumentDbConnection connection = new DocumentDbConnection(VALID_CONNECTION_PROPERTIES);
+        final MockOperationQueryExecutor operationExecutor = new MockOperationQueryExecutor(
+                VALID_CONNECTION_PROPERTIES, operation, true, ReadPreference.secondaryPreferred());
+        final DocumentDbStatement operationStatement = new DocumentDbStatement(connection, operationExecutor);
+        final ExecutorService cancelThread = getCancelThread();
+        final Cancel cancel = launchCancelThread(100, operationStatement, cancelThread);
+        Assertions.assertEquals(
+                "Query has been canceled.",
+                Assertions.assertThrows(SQLException.class, () -> resultSet = operationStatement.executeQuery(QUERY))
+                        .getMessage());
+        waitCancelToComplete(cancelThread);
+        Assertions.assertNull(cancel.getException(), () -> cancel.getException().getMessage());
+        // The operation ran on the only server of the test cluster.
+        Assertions.assertEquals(
+                cancelClient.getClusterDescription().getServerDescriptions().get(0).getAddress(),
+                operationExecutor.getOperationServerAddress());
+        operationStatement.close();
+        connection.close();
+    }
+
+    /**
+     * Tests that canceling a find, aggregate or count operation fails before it has started and
+     * after it has completed.
+     */
+    @ParameterizedTest(name = "testCancelOperationBeforeAndAfterExecute - [{index}] - {arguments}")
+    @EnumSource(Operation.class)
+    @DisplayName("Tests canceling each kind of operation before and after execution.")
+    public void testCancelOperationBeforeAndAfterExecute(final Operation operation) throws SQLException {
+        final DocumentDbConnection connection = new DocumentDbConnection(VALID_CONNECTION_PROPERTIES);
+        final DocumentDbStatement operationStatement = new DocumentDbStatement(connection,
+                new MockOperationQueryExecutor(VALID_CONNECTION_PROPERTIES, operation, false));
+        Assertions.assertEquals(
+                "Cannot cancel query, it is either completed or has not started.",
+                Assertions.assertThrows(SQLException.class, operationStatement::cancel).getMessage());
+
+        resultSet = operationStatement.executeQuery(QUERY);
+        Assertions.assertTrue(resultSet.next());
+        Assertions.assertEquals(
+                "Cannot cancel query, it is either completed or has not started.",
+                Assertions.assertThrows(SQLException.class, operationStatement::cancel).getMessage());
+        operationStatement.close();
+        connection.close();
+    }
+
+    /**
+     * Tests that a query running longer than the query timeout is canceled by the watchdog and
+     * fails with a timeout.
+     */
+    @Test
+    @DisplayName("Tests that a query is canceled when it exceeds the query timeout.")
+    public void testQueryTimeoutWhileExecuteInProgress() throws SQLException {
+        final DocumentDbConnection connection = new DocumentDbConnection(VALID_CONNECTION_PROPERTIES);
+        final DocumentDbQueryExecutor timeoutExecutor = new MockQueryExecutor(
+                null,
+                VALID_CONNECTION_PROPERTIES,
+                1,
+                0);
+        final DocumentDbStatement timeoutStatement = new DocumentDbStatement(connection, timeoutExecutor);
+        final long start = System.nanoTime();
+        final SQLTimeoutException exception = Assertions.assertThrows(
+                SQLTimeoutException.class, () -> resultSet = timeoutStatement.executeQuery(QUERY));
+        Assertions.assertEquals(
+                "Query has been canceled after exceeding the query timeout of 1000 ms.",
+                exception.getMessage());
+        Assertions.assertEquals("HYT00", exception.getSQLState());
+        // The query sleeps for 5 seconds when it is not canceled.
+        Assertions.assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 5000);
+        timeoutStatement.close();
+        connection.close();
+    }
+
+    /**
+     * Tests that a pooled prepared statement that times out is not reported as invalid.
+     */
+    @Test
+    @DisplayName("Tests that a pooled prepared statement that times out is not reported as invalid.")
+    public void testPooledPreparedStatementNotInvalidAfterTimeout() throws SQLException {
+        final DocumentDbConnection connection = new DocumentDbConnection(
+                new DocumentDbConnectionProperties(VALID_CONNECTION_PROPERTIES));
+        final DocumentDbPooledConnection pooledConnection = new DocumentDbPooledConnection(connection);
+        final List<StatementEvent> errorEvents = new ArrayList<>();
+        pooledConnection.addStatementEventListener(new StatementEventListener() {
+            @Override
+            public void statementClosed(final StatementEvent event) {
+            }
+
+            @Override
+            public void statementErrorOccurred(final StatementEvent event) {
+                errorEvents.add(event);
+            }
+        });
+        try {
+            final DocumentDbPreparedStatement timeoutStatement = new DocumentDbPreparedStatement(
+                    connection, QUERY, new MockQueryExecutor(null, VALID_CONNECTION_PROPERTIES, 1, 0));
+            Assertions.assertThrows(SQLTimeoutException.class, timeoutStatement::executeQuery);
+            Assertions.assertTrue(errorEvents.isEmpty());
+            timeoutStatement.close();
+            Assertions.assertTrue(errorEvents.isEmpty());
+        } finally {
+            pooledConnection.close();
+        }
+    }
+
+    /**
+     * Tests that a query exceeding the query timeout while its results are fetched fails with a
+     * timeout, and that the getMore waiting on the server is stopped by killing the cursor.
+     */
+    @Test
+    @DisplayName("Tests that the cursor of a query is killed when it exceeds the query timeout while fetching.")
+    public void testQueryTimeoutWhileFetchInProgress() throws SQLException {
+        final DocumentDbConnection connection = new DocumentDbConnection(VALID_CONNECTION_PROPERTIES);
+        try (MongoClient client = VALID_CONNECTION_PROPERTIES.createMongoClient()) {
+            final DocumentDbQueryExecutor fetchExecutor = new MockFetchQueryExecutor(
+                    VALID_CONNECTION_PROPERTIES, 1, client);
+            final DocumentDbStatement fetchStatement = new DocumentDbStatement(connection, fetchExecutor);
+            resultSet = fetchStatement.executeQuery(QUERY);
+            final AtomicInteger rowCount = new AtomicInteger();
+            final long start = System.nanoTime();
+            final SQLTimeoutException exception = Assertions.assertThrows(SQLTimeoutException.class, () -> {
+                while (resultSet.next()) {
+                    rowCount.incrementAndGet();
+                }
+            });
+            Assertions.assertEquals(
+                    "Query has been canceled after exceeding the query timeout of 1000 ms.",
+                    exception.getMessage());
+            // The rows before the slow document are read, then the getMore is stopped.
+            Assertions.assertEquals(3, rowCount.get());
+            // The getMore of the slow document sleeps for 10 seconds when its cursor is not killed.
+            Assertions.assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 5000);
+            fetchStatement.close();
+        } finally {
+            connection.close();
+        }
+    }
+
     /** Tests getting and setting the query timeout. **/
     @Test
     @DisplayName("Tests getting and setting the query timeout.")
@@ -252,6 +474,110 @@ public class DocumentDbQueryExecutorTest extends DocumentDbFlapDoodleTest {
         executor.setAllowDiskUse(DocumentDbAllowDiskUseOption.ENABLE);
     }
 
+    /**
+     * Tests that the read preference chosen by the read routing policy is applied to the
+     * collection the query runs on.
+     */
+    @Test
+    @DisplayName("Tests that the read preference chosen by the read routing policy is applied to the query.")
+    public void testReadPreferenceIsApplied() throws SQLException {
+        final DocumentDbConnectionProperties properties = new DocumentDbConnectionProperties(VALID_CONNECTION_PROPERTIES);
+        properties.setReadRoutingRowThreshold("0");
+        properties.setReadRoutingMaxStalenessSec("120");
+        try (DocumentDbConnection connection = new DocumentDbConnection(properties);
+                DocumentDbStatement routingStatement = new DocumentDbStatement(connection)) {
+            final ReadPreferenceQueryExecutor routingExecutor =
+                    new ReadPreferenceQueryExecutor(routingStatement, properties);
+
+            // Without a policy, queries use the read preference of the connection.
+            routingExecutor.setReadRoutingPolicy(DocumentDbReadRoutingPolicy.NONE);
+            routingExecutor.executeQuery(SCAN_QUERY).close();
+            Assertions.assertEquals(ReadPreference.primary(), routingExecutor.getAppliedReadPreference());
+
+            // A scan of more documents than the threshold is analytic.
+            routingExecutor.setReadRoutingPolicy(DocumentDbReadRoutingPolicy.WORKLOAD);
+            routingExecutor.executeQuery(SCAN_QUERY).close();
+            Assertions.assertEquals(
+                    ReadPreference.secondaryPreferred(120, TimeUnit.SECONDS),
+                    routingExecutor.getAppliedReadPreference());
+
+            // A limited scan is not analytic.
+            routingExecutor.executeQuery(LIMIT_QUERY).close();
+            Assertions.assertEquals(ReadPreference.primary(), routingExecutor.getAppliedReadPreference());
+        }
+    }
+
+    /**
+     * Tests that the read routing policy set on a prepared statement overrides the policy of the
+     * connection when the statement is executed.
+     */
+    @Test
+    @DisplayName("Tests that the read routing policy of a prepared statement overrides the connection policy.")
+    public void testPreparedStatementReadRoutingPolicyOverride() throws SQLException {
+        final DocumentDbConnectionProperties properties = new DocumentDbConnectionProperties(VALID_CONNECTION_PROPERTIES);
+        properties.setReadRoutingRowThreshold("0");
+        properties.setReadRoutingPolicy(DocumentDbReadRoutingPolicy.NONE.getName());
+        try (DocumentDbConnection connection = new DocumentDbConnection(properties);
+                DocumentDbPreparedStatement preparedStatement =
+                        new DocumentDbPreparedStatement(connection, SCAN_QUERY)) {
+            preparedStatement.setReadRoutingPolicy(DocumentDbReadRoutingPolicy.WORKLOAD);
+            preparedStatement.executeQuery().close();
+            final DocumentDbQueryExecutor statementExecutor = preparedStatement.getQueryExecutor();
+            Assertions.assertEquals(DocumentDbReadRoutingPolicy.WORKLOAD, statementExecutor.getReadRoutingPolicy());
+            Assertions.assertEquals(
+                    ReadPreference.secondaryPreferred(90, TimeUnit.SECONDS),
+                    statementExecutor.getReadPreference(
+                            connection.getQueryMappingService().get(SCAN_QUERY), properties));
+        }
+
+        properties.setReadRoutingPolicy(DocumentDbReadRoutingPolicy.WORKLOAD.getName());
+        try (DocumentDbConnection connection = new DocumentDbConnection(properties);
+                DocumentDbPreparedStatement preparedStatement =
+                        new DocumentDbPreparedStatement(connection, SCAN_QUERY)) {
+            preparedStatement.setReadRoutingPolicy(DocumentDbReadRoutingPolicy.NONE);
+            preparedStatement.executeQuery().close();
+            final DocumentDbQueryExecutor statementExecutor = preparedStatement.getQueryExecutor();
+            Assertions.assertEquals(DocumentDbReadRoutingPolicy.NONE, statementExecutor.getReadRoutingPolicy());
+            Assertions.assertNull(statementExecutor.getReadPreference(
+                    connection.getQueryMappingService().get(SCAN_QUERY), properties));
+        }
+    }
+
+    /**
+     * Tests that the read routing policy of a statement overrides the policy of the connection.
+     */
+    @Test
+    @DisplayName("Tests that the read routing policy of a statement overrides the policy of the connection.")
+    public void testStatementReadRoutingPolicyOverride() throws SQLException {
+        final DocumentDbConnectionProperties properties = new DocumentDbConnectionProperties(VALID_CONNECTION_PROPERTIES);
+        properties.setReadRoutingRowThreshold("0");
+        properties.setReadRoutingPolicy(DocumentDbReadRoutingPolicy.NONE.getName());
+        try (DocumentDbConnection connection = new DocumentDbConnection(properties);
+                DocumentDbStatement routingStatement = new DocumentDbStatement(connection)) {
+            Assertions.assertEquals(DocumentDbReadRoutingPolicy.NONE, routingStatement.getReadRoutingPolicy());
+            routingStatement.setReadRoutingPolicy(DocumentDbReadRoutingPolicy.WORKLOAD);
+            routingStatement.executeQuery(SCAN_QUERY).close();
+            final DocumentDbQueryExecutor statementExecutor = routingStatement.getQueryExecutor();
+            Assertions.assertEquals(DocumentDbReadRoutingPolicy.WORKLOAD, statementExecutor.getReadRoutingPolicy());
+            Assertions.assertEquals(
+                    ReadPreference.secondaryPreferred(90, TimeUnit.SECONDS),
+                    statementExecutor.getReadPreference(
+                            connection.getQueryMappingService().get(SCAN_QUERY), properties));
+        }
+
+        properties.setReadRoutingPolicy(DocumentDbReadRoutingPolicy.WORKLOAD.getName());
+        try (DocumentDbConnection connection = new DocumentDbConnection(properties);
+                DocumentDbStatement routingStatement = new DocumentDbStatement(connection)) {
+            Assertions.assertEquals(DocumentDbReadRoutingPolicy.WORKLOAD, routingStatement.getReadRoutingPolicy());
+            routingStatement.setReadRoutingPolicy(DocumentDbReadRoutingPolicy.NONE);
+            routingStatement.executeQuery(SCAN_QUERY).close();
+            final DocumentDbQueryExecutor statementExecutor = routingStatement.getQueryExecutor();
+            Assertions.assertEquals(DocumentDbReadRoutingPolicy.NONE, statementExecutor.getReadRoutingPolicy());
+            Assertions.assertNull(statementExecutor.getReadPreference(
+                    connection.getQueryMappingService().get(SCAN_QUERY), properties));
+        }
+    }
+
     private ExecutorService getCancelThread() {
         return Executors.newSingleThreadExecutor(
                 new ThreadFactoryBuilder().setNameFormat("cancelThread").setDaemon(true).build());
@@ -311,10 +637,15 @@ public class DocumentDbQueryExecutorTest extends DocumentDbFlapDoodleTest {
         MockQueryExecutor(
                 final Statement statement,
                 final DocumentDbConnectionProperties connectionProperties,
-                final DocumentDbQueryMappingService queryMapper,
                 final int queryTimeoutSecs,
                 final int maxFetchSize) {
-            super(statement, connectionProperties, queryMapper, queryTimeoutSecs, maxFetchSize);
+            super(statement, connectionProperties, queryTimeoutSecs, maxFetchSize);
+        }
+
+        @Override
+        protected MongoClient getConnectionClient() {
+            // The statement is not known when the executor is created.
+            return cancelClient;
         }
 
         @Override
@@ -339,4 +670,158 @@ public class DocumentDbQueryExecutorTest extends DocumentDbFlapDoodleTest {
             }
         }
     }
+
+    /**
+     * Query executor that returns a cursor fetching one document per batch, where fetching the
+     * document with ID 3 takes 10 seconds, so the query timeout expires during a getMore.
+     */
+    private static class MockFetchQueryExecutor extends DocumentDbQueryExecutor {
+        private final MongoClient client;
+
+        MockFetchQueryExecutor(
+                final DocumentDbConnectionProperties connectionProperties,
+                final int queryTimeoutSecs,
+                final MongoClient client) {
+            super(null, connectionProperties, queryTimeoutSecs, 0);
+            this.client = client;
+        }
+
+        @Override
+        protected MongoClient getConnectionClient() {
+            return client;
+        }
+
+        @Override
+        protected java.sql.ResultSet runQuery(final String sql) throws SQLException {
+            final MongoCollection<Document> collection =
+                    client.getDatabase(DATABASE_NAME).getCollection(FETCH_COLLECTION_NAME);
+            final Document whereDoc = new Document(
+                    "$where", "function(){ return (this._id == 3 && sleep(10000)) || true;}");
+            final MongoCursor<Document> iterator = killCursorOnExpiry(
+                    getQueryDeadline(),
+                    client,
+                    collection.getNamespace(),
+                    collection.find(whereDoc).batchSize(1).comment(getQueryId()).iterator());
+            final JdbcColumnMetaData column =
+                    JdbcColumnMetaData.builder().columnLabel("_id").ordinal(0).build();
+            return new DocumentDbResultSet(
+                    null, iterator, ImmutableList.of(column), ImmutableList.of("_id"), getQueryDeadline());
+        }
+    }
+
+    /**
+     * Query executor that records the read preference of the collection each translated query
+     * runs on.
+     */
+    private static class ReadPreferenceQueryExecutor extends DocumentDbQueryExecutor {
+        private ReadPreference appliedReadPreference;
+
+        ReadPreferenceQueryExecutor(
+                final Statement statement,
+                final DocumentDbConnectionProperties connectionProperties) {
+            super(statement, connectionProperties, 0, 0);
+        }
+
+        @Override
+        MongoCollection<Document> withReadPreference(
+                final MongoCollection<Document> collection,
+                final ReadPreference readPreference) {
+            final MongoCollection<Document> result = super.withReadPreference(collection, readPreference);
+            appliedReadPreference = result.getReadPreference();
+            return result;
+        }
+
+        ReadPreference getAppliedReadPreference() {
+            return appliedReadPreference;
+        }
+    }
+
+    /** The kinds of operations run by {@link MockOperationQueryExecutor}. */
+    enum Operation {
+        FIND,
+        AGGREGATE,
+        COUNT
+    }
+
+    /**
+     * Query executor that runs a find, aggregate or count operation with the methods of the
+     * executor, so the operation is tagged like a translated query. A slow operation evaluates an
+     * expensive filter on each document.
+     */
+    private static class MockOperationQueryExecutor extends DocumentDbQueryExecutor {
+        private static final BsonDocument SLOW_FILTER = BsonDocument.parse(
+                "{\"$expr\": {\"$gte\": [{\"$reduce\": {"
+                        + "\"input\": {\"$range\": [0, 2000000]},"
+                        + " \"initialValue\": 0,"
+                        + " \"in\": {\"$add\": [\"$$value\", \"$$this\"]}}}, 0]}}");
+        private static final BsonDocument SLOW_FIND_FILTER =
+                new BsonDocument("$where", new BsonString("function(){ return sleep(5000) || true;}"));
+        private final Operation operation;
+        private final boolean isSlow;
+        private final ReadPreference readPreference;
+        private volatile ServerAddress operationServerAddress;
+
+        MockOperationQueryExecutor(
+                final DocumentDbConnectionProperties connectionProperties,
+                final Operation operation,
+                final boolean isSlow) {
+            this(connectionProperties, operation, isSlow, null);
+        }
+
+        MockOperationQueryExecutor(
+                final DocumentDbConnectionProperties connectionProperties,
+                final Operation operation,
+                final boolean isSlow,
+                final ReadPreference readPreference) {
+            super(null, connectionProperties, 0, 0);
+            this.operation = operation;
+            this.isSlow = isSlow;
+            this.readPreference = readPreference;
+        }
+
+        @Override
+        protected void cancelQuery(final boolean isClosing) throws SQLException {
+            // Records the server found for the running operation before it is killed.
+            operationServerAddress = DocumentDbMongoClientRegistry.getOperationServerAddress(
+                    cancelClient, getQueryId());
+            super.cancelQuery(isClosing);
+        }
+
+        ServerAddress getOperationServerAddress() {
+            return operationServerAddress;
+        }
+
+        @Override
+        protected MongoClient getConnectionClient() {
+            return cancelClient;
+        }
+
+        @Override
+        protected java.sql.ResultSet runQuery(final String sql) throws SQLException {
+            // The operations run with the client used to cancel them, which records their server.
+            final MongoCollection<Document> collection = withReadPreference(
+                    cancelClient.getDatabase(DATABASE_NAME).getCollection(FETCH_COLLECTION_NAME), readPreference);
+            final Object value;
+            switch (operation) {
+                case FIND:
+                    value = find(collection, new DocumentDbFindQuery(
+                            isSlow ? SLOW_FIND_FILTER : new BsonDocument(), new BsonDocument(),
+                            null, 0, 0, Collections.singletonList("_id")), null).first();
+                    break;
+                case AGGREGATE:
+                    value = aggregate(collection, Arrays.asList(
+                            new BsonDocument("$match", isSlow ? SLOW_FILTER : new BsonDocument()),
+                            BsonDocument.parse("{\"$count\": \"count\"}")), null).first();
+                    break;
+                default:
+                    value = count(collection, new DocumentDbCountQuery(
+                            isSlow ? SLOW_FILTER : new BsonDocument()), false, null);
+                    break;
+            }
+            final JdbcColumnMetaData column =
+                    JdbcColumnMetaData.builder().columnLabel("EXPR$0").ordinal(0).build();
+            return new DocumentDbListResultSet(null, ImmutableList.of(column),
+                    Collections.singletonList(Collections.singletonList(value)));
+        }
+    }
 }
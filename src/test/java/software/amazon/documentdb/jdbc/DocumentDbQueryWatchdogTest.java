@@ -0,0 +1,72 @@
+/*
+ * Copyright <2021> Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ */
+
+package software.amazon.documentdb.jdbc;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLTimeoutException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class DocumentDbQueryWatchdogTest {
+
+    @Test
+    @DisplayName("Tests that the expiry actions run once when the deadline expires.")
+    void testDeadlineExpires() throws InterruptedException {
+        final CountDownLatch expired = new CountDownLatch(1);
+        final AtomicInteger runCount = new AtomicInteger();
+        final DocumentDbQueryWatchdog.Deadline deadline = DocumentDbQueryWatchdog.start(100);
+        deadline.onExpiry(() -> {
+            runCount.incrementAndGet();
+            expired.countDown();
+        });
+        Assertions.assertFalse(deadline.isExpired());
+        Assertions.assertTrue(deadline.getRemainingMillis() > 0);
+        Assertions.assertDoesNotThrow(deadline::verifyNotExpired);
+
+        Assertions.assertTrue(expired.await(5, TimeUnit.SECONDS));
+        Assertions.assertTrue(deadline.isExpired());
+        Assertions.assertEquals(0, deadline.getRemainingMillis());
+        Assertions.assertEquals(
+                "Query has been canceled after exceeding the query timeout of 100 ms.",
+                Assertions.assertThrows(SQLTimeoutException.class, deadline::verifyNotExpired).getMessage());
+
+        // An action added after the deadline expired runs immediately.
+        deadline.onExpiry(runCount::incrementAndGet);
+        Assertions.assertEquals(2, runCount.get());
+    }
+
+    @Test
+    @DisplayName("Tests that a canceled deadline does not expire and is removed from the scheduler.")
+    void testDeadlineCanceled() throws InterruptedException {
+        final AtomicInteger runCount = new AtomicInteger();
+        final DocumentDbQueryWatchdog.Deadline deadline = DocumentDbQueryWatchdog.start(100);
+        deadline.onExpiry(runCount::incrementAndGet);
+        Assertions.assertTrue(deadline.isScheduled());
+        Assertions.assertFalse(deadline.isCanceled());
+
+        deadline.cancel();
+        Assertions.assertFalse(deadline.isScheduled());
+        Assertions.assertTrue(deadline.isCanceled());
+        TimeUnit.MILLISECONDS.sleep(300);
+        Assertions.assertFalse(deadline.isExpired());
+        Assertions.assertEquals(0, runCount.get());
+    }
+}
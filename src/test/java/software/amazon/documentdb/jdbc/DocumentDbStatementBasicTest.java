@@ -403,6 +403,51 @@ public class DocumentDbStatementBasicTest extends DocumentDbStatementTest {
         }
     }
 
+    /**
+     * Tests that COUNT(*) on a base table returns the number of documents, with and without a filter.
+     *
+     * @throws SQLException occurs if query fails.
+     */
+    @DisplayName("Tests count(*) on a base table with and without a filter.")
+    @ParameterizedTest(name = "testCountStar - [{index}] - {arguments}")
+    @MethodSource({"getTestEnvironments"})
+    void testCountStar(final DocumentDbTestEnvironment testEnvironment) throws SQLException {
+        setTestEnvironment(testEnvironment);
+        final String tableName = "testCountStar";
+        final BsonDocument doc1 = BsonDocument.parse("{\"_id\": 101,\n" +
+                "\"field\": 1}");
+        final BsonDocument doc2 = BsonDocument.parse("{\"_id\": 102,\n" +
+                "\"field\": 2}");
+        final BsonDocument doc3 = BsonDocument.parse("{\"_id\": 103\n}");
+        insertBsonDocuments(tableName, new BsonDocument[]{doc1, doc2, doc3});
+        try (Connection connection = getConnection()) {
+            final Statement statement = getDocumentDbStatement(connection);
+            ResultSet resultSet = statement.executeQuery(
+                    String.format("SELECT COUNT(*) from \"%s\".\"%s\"", getDatabaseName(),
+                            tableName));
+            Assertions.assertNotNull(resultSet);
+            Assertions.assertTrue(resultSet.next());
+            Assertions.assertEquals(3, resultSet.getLong(1));
+            Assertions.assertFalse(resultSet.next());
+
+            resultSet = statement.executeQuery(
+                    String.format("SELECT COUNT(*) AS \"total\" from \"%s\".\"%s\" WHERE \"field\" > 1",
+                            getDatabaseName(), tableName));
+            Assertions.assertNotNull(resultSet);
+            Assertions.assertEquals("total", resultSet.getMetaData().getColumnLabel(1));
+            Assertions.assertTrue(resultSet.next());
+            Assertions.assertEquals(1, resultSet.getInt(1));
+            Assertions.assertFalse(resultSet.next());
+
+            resultSet = statement.executeQuery(
+                    String.format("SELECT COUNT(*) from \"%s\".\"%s\" WHERE \"field\" > 5",
+                            getDatabaseName(), tableName));
+            Assertions.assertTrue(resultSet.next());
+            Assertions.assertEquals(0, resultSet.getLong(1));
+            Assertions.assertFalse(resultSet.next());
+        }
+    }
+
     /**
      * Tests that SUM(1) works, equivalent to COUNT(*).
      *
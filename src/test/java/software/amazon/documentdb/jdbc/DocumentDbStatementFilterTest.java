@@ -172,6 +172,48 @@ public class DocumentDbStatementFilterTest extends DocumentDbStatementTest {
         }
     }
 
+    /**
+     * Tests that IN lists, NOT IN lists and ranges return the correct rows when the field is null
+     * or missing.
+     *
+     * @throws SQLException occurs if query fails.
+     */
+    @DisplayName("Tests that IN, NOT IN and ranges handle null and missing values.")
+    @ParameterizedTest(name = "testSearchWithNull - [{index}] - {arguments}")
+    @MethodSource("getTestEnvironments")
+    void testSearchWithNull(final DocumentDbTestEnvironment testEnvironment) throws SQLException {
+        setTestEnvironment(testEnvironment);
+        final String tableName = "testSearchWithNull";
+        final BsonDocument[] documents = new BsonDocument[7];
+        for (int i = 0; i < 5; i++) {
+            documents[i] = BsonDocument.parse("{\"_id\": " + (101 + i) + ", \"field\": " + (i + 1) + "}");
+        }
+        documents[5] = BsonDocument.parse("{\"_id\": 106, \"field\": null}");
+        documents[6] = BsonDocument.parse("{\"_id\": 107}");
+        insertBsonDocuments(tableName, documents);
+        try (Connection connection = getConnection()) {
+            final Statement statement = getDocumentDbStatement(connection);
+            final String[] conditions = new String[] {
+                    "\"field\" IN (1, 3)",
+                    "\"field\" IN (1, 3) OR \"field\" IS NULL",
+                    "\"field\" NOT IN (1, 3)",
+                    "\"field\" BETWEEN 2 AND 4",
+                    "\"field\" < 2 OR \"field\" > 4 OR \"field\" = 3"};
+            final int[] expectedCounts = new int[] {2, 4, 3, 3, 3};
+            for (int i = 0; i < conditions.length; i++) {
+                final ResultSet resultSet = statement.executeQuery(
+                        String.format("SELECT * from \"%s\".\"%s\" WHERE %s",
+                                getDatabaseName(), tableName, conditions[i]));
+                Assertions.assertNotNull(resultSet);
+                int count = 0;
+                while (resultSet.next()) {
+                    count++;
+                }
+                Assertions.assertEquals(expectedCounts[i], count, conditions[i]);
+            }
+        }
+    }
+
     /**
      * Tests query with boolean literal values.
      *
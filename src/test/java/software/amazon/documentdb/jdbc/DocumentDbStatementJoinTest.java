@@ -1490,6 +1490,59 @@ public class DocumentDbStatementJoinTest extends DocumentDbStatementTest {
         }
     }
 
+    /**
+     * Tests that semi-joins and anti-joins on tables from different collections do not match
+     * null or missing keys, even if the key is also null or missing on the other side.
+     *
+     * @throws SQLException occurs if executing the statement or retrieving a value fails.
+     */
+    @DisplayName("Tests that semi-joins and anti-joins do not match null or missing keys.")
+    @ParameterizedTest(name = "testSemiAndAntiJoinWithNullKeys - [{index}] - {arguments}")
+    @MethodSource({"getTestEnvironments"})
+    void testSemiAndAntiJoinWithNullKeys(final DocumentDbTestEnvironment testEnvironment) throws SQLException {
+        setTestEnvironment(testEnvironment);
+        final String collection1 = "testSemiAndAntiJoinWithNullKeys1";
+        final String collection2 = "testSemiAndAntiJoinWithNullKeys2";
+        insertBsonDocuments(collection1, new BsonDocument[]{
+                BsonDocument.parse("{ \"_id\" : \"key0\", \"ref\": 1 }"),
+                BsonDocument.parse("{ \"_id\" : \"key1\", \"ref\": null }"),
+                BsonDocument.parse("{ \"_id\" : \"key2\" }"),
+                BsonDocument.parse("{ \"_id\" : \"key3\", \"ref\": 2 }")});
+        insertBsonDocuments(collection2, new BsonDocument[]{
+                BsonDocument.parse("{ \"_id\" : \"other0\", \"ref\": 1 }"),
+                BsonDocument.parse("{ \"_id\" : \"other1\", \"ref\": null }"),
+                BsonDocument.parse("{ \"_id\" : \"other2\" }")});
+        try (Connection connection = getConnection()) {
+            final Statement statement = getDocumentDbStatement(connection);
+            final String[] queries = {
+                    "SELECT \"%2$s__id\" FROM \"%1$s\".\"%2$s\" "
+                            + "WHERE \"ref\" IN (SELECT \"ref\" FROM \"%1$s\".\"%3$s\") "
+                            + "ORDER BY \"%2$s__id\"",
+                    "SELECT \"%2$s__id\" FROM \"%1$s\".\"%2$s\" "
+                            + "WHERE EXISTS (SELECT * FROM \"%1$s\".\"%3$s\" "
+                            + "WHERE \"%3$s\".\"ref\" = \"%2$s\".\"ref\") "
+                            + "ORDER BY \"%2$s__id\"",
+                    "SELECT \"%2$s__id\" FROM \"%1$s\".\"%2$s\" "
+                            + "WHERE NOT EXISTS (SELECT * FROM \"%1$s\".\"%3$s\" "
+                            + "WHERE \"%3$s\".\"ref\" = \"%2$s\".\"ref\") "
+                            + "ORDER BY \"%2$s__id\""};
+            final String[][] expectedKeys = {
+                    {"key0"},
+                    {"key0"},
+                    // Null and missing keys have no match, so the anti-join keeps them.
+                    {"key1", "key2", "key3"}};
+            for (int i = 0; i < queries.length; i++) {
+                final ResultSet resultSet = statement.executeQuery(
+                        String.format(queries[i], getDatabaseName(), collection1, collection2));
+                final List<String> actualKeys = Lists.newArrayList();
+                while (resultSet.next()) {
+                    actualKeys.add(resultSet.getString(1));
+                }
+                Assertions.assertEquals(Lists.newArrayList(expectedKeys[i]), actualKeys, queries[i]);
+            }
+        }
+    }
+
     /**
      * Tests WITH tableName AS (subQuery).
      *
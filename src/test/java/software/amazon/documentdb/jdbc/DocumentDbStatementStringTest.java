@@ -91,6 +91,77 @@ public class DocumentDbStatementStringTest extends DocumentDbStatementTest {
         }
     }
 
+    @DisplayName("Test queries filtering with LIKE.")
+    @ParameterizedTest(name = "testQueryLike - [{index}] - {arguments}")
+    @MethodSource({"getTestEnvironments"})
+    void testQueryLike(final DocumentDbTestEnvironment testEnvironment) throws SQLException {
+        setTestEnvironment(testEnvironment);
+        final String tableName = "testQueryLike";
+        final BsonDocument doc1 = BsonDocument.parse("{\"_id\": 101, \"field\": \"abc.def\"}");
+        final BsonDocument doc2 = BsonDocument.parse("{\"_id\": 102, \"field\": \"abcxdef\"}");
+        final BsonDocument doc3 = BsonDocument.parse("{\"_id\": 103, \"field\": \"ABCdef\"}");
+        final BsonDocument doc4 = BsonDocument.parse("{\"_id\": 104, \"field\": \"xabc\"}");
+        final BsonDocument doc5 = BsonDocument.parse("{\"_id\": 105, \"field\": \"abc%def\"}");
+        final BsonDocument doc6 = BsonDocument.parse("{\"_id\": 106, \"field\": null}");
+        final BsonDocument doc7 = BsonDocument.parse("{\"_id\": 107}");
+        insertBsonDocuments(tableName, new BsonDocument[]{doc1, doc2, doc3, doc4, doc5, doc6, doc7});
+        try (Connection connection = getConnection()) {
+            final Statement statement = getDocumentDbStatement(connection);
+            final String[] conditions = new String[] {
+                    "\"field\" LIKE 'abc%'",
+                    "\"field\" LIKE 'abc.%'",
+                    "\"field\" LIKE '%def'",
+                    "\"field\" LIKE '%abc'",
+                    "\"field\" LIKE 'abc_def'",
+                    "\"field\" LIKE 'abc!%%' ESCAPE '!'",
+                    "LOWER(\"field\") LIKE 'abc%'"};
+            final int[] expectedCounts = new int[] {3, 1, 4, 1, 3, 1, 4};
+            for (int i = 0; i < conditions.length; i++) {
+                final ResultSet resultSet = statement.executeQuery(
+                        String.format("SELECT * FROM \"%s\".\"%s\" WHERE %s",
+                                getDatabaseName(), tableName, conditions[i]));
+                Assertions.assertNotNull(resultSet);
+                int count = 0;
+                while (resultSet.next()) {
+                    count++;
+                }
+                Assertions.assertEquals(expectedCounts[i], count, conditions[i]);
+            }
+        }
+    }
+
+    @DisplayName("Test that LIKE does not match a value with an extra trailing line terminator.")
+    @ParameterizedTest(name = "testQueryLikeTrailingNewline - [{index}] - {arguments}")
+    @MethodSource({"getTestEnvironments"})
+    void testQueryLikeTrailingNewline(final DocumentDbTestEnvironment testEnvironment) throws SQLException {
+        setTestEnvironment(testEnvironment);
+        final String tableName = "testQueryLikeTrailingNewline";
+        final BsonDocument doc1 = BsonDocument.parse("{\"_id\": 101, \"field\": \"abc\"}");
+        final BsonDocument doc2 = BsonDocument.parse("{\"_id\": 102, \"field\": \"abc\\n\"}");
+        final BsonDocument doc3 = BsonDocument.parse("{\"_id\": 103, \"field\": \"xabc\\n\"}");
+        insertBsonDocuments(tableName, new BsonDocument[]{doc1, doc2, doc3});
+        try (Connection connection = getConnection()) {
+            final Statement statement = getDocumentDbStatement(connection);
+            final String[] conditions = new String[] {
+                    "\"field\" LIKE 'abc'",
+                    "\"field\" LIKE '%abc'",
+                    "\"field\" LIKE 'abc_'",
+                    "\"field\" NOT LIKE 'abc'"};
+            final int[] expectedCounts = new int[] {1, 1, 1, 2};
+            for (int i = 0; i < conditions.length; i++) {
+                final ResultSet resultSet = statement.executeQuery(
+                        String.format("SELECT * FROM \"%s\".\"%s\" WHERE %s",
+                                getDatabaseName(), tableName, conditions[i]));
+                Assertions.assertNotNull(resultSet);
+                int count = 0;
+                while (resultSet.next()) {
+                    count++;
+                }
+                Assertions.assertEquals(expectedCounts[i], count, conditions[i]);
+            }
+        }
+    }
+
     @DisplayName("Test queries calling CHAR_LENGTH().")
     @ParameterizedTest(name = "testQueryCharLength - [{index}] - {arguments}")
     @MethodSource({"getTestEnvironments"})
@@ -0,0 +1,241 @@
+/*
+ * Copyright <2021> Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ */
+
+package software.amazon.documentdb.jdbc.calcite.adapter;
+
+import com.google.common.collect.ImmutableList;
+import org.apache.calcite.DataContext;
+import org.apache.calcite.linq4j.Enumerable;
+import org.apache.calcite.linq4j.Linq4j;
+import org.apache.calcite.linq4j.function.Predicate2;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+public class DocumentDbJoinEnumerablesTest {
+    private static final List<Object[]> LEFT = ImmutableList.of(
+            new Object[] {1, "a"},
+            new Object[] {2, "b"},
+            new Object[] {2, "c"},
+            new Object[] {null, "d"},
+            new Object[] {4, "e"});
+    private static final List<Object[]> RIGHT = ImmutableList.of(
+            new Object[] {1L, "x"},
+            new Object[] {2L, "y"},
+            new Object[] {2L, "z"},
+            new Object[] {null, "w"},
+            new Object[] {5L, "v"});
+
+    @Test
+    @DisplayName("Tests the hash join for each join type.")
+    void testHashJoin() {
+        for (boolean buildLeft : new boolean[] {true, false}) {
+            assertJoin(getExpectedInner(), hashJoin(null, "INNER", buildLeft));
+            assertJoin(getExpectedLeft(), hashJoin(null, "LEFT", buildLeft));
+            assertJoin(getExpectedRight(), hashJoin(null, "RIGHT", buildLeft));
+            assertJoin(getExpectedFull(), hashJoin(null, "FULL", buildLeft));
+            assertJoin(getExpectedSemi(), hashJoin(null, "SEMI", buildLeft));
+            assertJoin(getExpectedAnti(), hashJoin(null, "ANTI", buildLeft));
+        }
+    }
+
+    @Test
+    @DisplayName("Tests the hash join when the build side does not fit in memory.")
+    void testHashJoinWithSpilling() {
+        final DataContext root = new MockDataContext(2);
+        for (boolean buildLeft : new boolean[] {true, false}) {
+            assertJoin(getExpectedInner(), hashJoin(root, "INNER", buildLeft));
+            assertJoin(getExpectedLeft(), hashJoin(root, "LEFT", buildLeft));
+            assertJoin(getExpectedRight(), hashJoin(root, "RIGHT", buildLeft));
+            assertJoin(getExpectedFull(), hashJoin(root, "FULL", buildLeft));
+            assertJoin(getExpectedSemi(), hashJoin(root, "SEMI", buildLeft));
+            assertJoin(getExpectedAnti(), hashJoin(root, "ANTI", buildLeft));
+        }
+    }
+
+    @Test
+    @DisplayName("Tests the merge join for each join type, with and without spilling the key groups.")
+    void testMergeJoin() {
+        for (DataContext root : new DataContext[] {null, new MockDataContext(1)}) {
+            assertJoin(getExpectedInner(), mergeJoin(root, "INNER"));
+            assertJoin(getExpectedLeft(), mergeJoin(root, "LEFT"));
+            assertJoin(getExpectedRight(), mergeJoin(root, "RIGHT"));
+            assertJoin(getExpectedFull(), mergeJoin(root, "FULL"));
+        }
+    }
+
+    @Test
+    @DisplayName("Tests that numerically equal keys of different types are joined.")
+    void testMixedNumericKeys() {
+        final Enumerable<Object[]> left = Linq4j.asEnumerable(ImmutableList.of(
+                new Object[] {1.0}, new Object[] {new BigDecimal("2.00")}, new Object[] {2.5}));
+        final Enumerable<Object[]> right = Linq4j.asEnumerable(ImmutableList.of(
+                new Object[] {1}, new Object[] {2L}, new Object[] {new BigDecimal("2.5")}));
+        final List<Object[]> expected = ImmutableList.of(
+                new Object[] {1.0, 1}, new Object[] {new BigDecimal("2.00"), 2L},
+                new Object[] {2.5, new BigDecimal("2.5")});
+        assertJoin(expected, DocumentDbJoinEnumerables.hashJoin(null, left, right,
+                ImmutableList.of(0), ImmutableList.of(0), "INNER", 1, 1, false, null));
+        assertJoin(expected, DocumentDbJoinEnumerables.mergeJoin(null, left, right,
+                ImmutableList.of(0), ImmutableList.of(0), "INNER", 1, 1));
+    }
+
+    @Test
+    @DisplayName("Tests the hash join with a condition other than the equality of keys, with and without spilling.")
+    void testHashJoinWithPredicate() {
+        // Rows with the same key are joined only if their labels are at the same offset from "b" and "y".
+        final Predicate2<Object[], Object[]> predicate = (left, right) ->
+                ((String) left[1]).charAt(0) - 'b' == ((String) right[1]).charAt(0) - 'y';
+        final List<Object[]> expectedInner = ImmutableList.of(
+                new Object[] {1, "a", 1L, "x"},
+                new Object[] {2, "b", 2L, "y"},
+                new Object[] {2, "c", 2L, "z"});
+        for (DataContext root : new DataContext[] {null, new MockDataContext(1)}) {
+            for (boolean buildLeft : new boolean[] {true, false}) {
+                assertJoin(expectedInner, DocumentDbJoinEnumerables.hashJoin(root,
+                        Linq4j.asEnumerable(LEFT), Linq4j.asEnumerable(RIGHT),
+                        ImmutableList.of(0), ImmutableList.of(0), "INNER", 2, 2, buildLeft, predicate));
+                final List<Object[]> expectedLeft = new ArrayList<>(expectedInner);
+                expectedLeft.add(new Object[] {null, "d", null, null});
+                expectedLeft.add(new Object[] {4, "e", null, null});
+                assertJoin(expectedLeft, DocumentDbJoinEnumerables.hashJoin(root,
+                        Linq4j.asEnumerable(LEFT), Linq4j.asEnumerable(RIGHT),
+                        ImmutableList.of(0), ImmutableList.of(0), "LEFT", 2, 2, buildLeft, predicate));
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Tests the hash join without keys, joining the build side in blocks when it does not fit in memory.")
+    void testHashJoinWithoutKeys() {
+        // Joins the rows whose left key is less than the right key.
+        final Predicate2<Object[], Object[]> predicate = (left, right) -> left[0] != null && right[0] != null
+                && ((Number) left[0]).longValue() < ((Number) right[0]).longValue();
+        final List<Object[]> expectedInner = ImmutableList.of(
+                new Object[] {1, "a", 2L, "y"},
+                new Object[] {1, "a", 2L, "z"},
+                new Object[] {1, "a", 5L, "v"},
+                new Object[] {2, "b", 5L, "v"},
+                new Object[] {2, "c", 5L, "v"},
+                new Object[] {4, "e", 5L, "v"});
+        final List<Object[]> expectedFull = new ArrayList<>(expectedInner);
+        expectedFull.add(new Object[] {null, "d", null, null});
+        expectedFull.add(new Object[] {null, null, 1L, "x"});
+        expectedFull.add(new Object[] {null, null, null, "w"});
+        final List<Object[]> expectedSemi = ImmutableList.of(
+                new Object[] {1, "a"},
+                new Object[] {2, "b"},
+                new Object[] {2, "c"},
+                new Object[] {4, "e"});
+        final List<Object[]> expectedAnti = ImmutableList.of(new Object[] {null, "d"});
+        for (DataContext root : new DataContext[] {null, new MockDataContext(2)}) {
+            for (boolean buildLeft : new boolean[] {true, false}) {
+                assertJoin(expectedInner, keylessHashJoin(root, "INNER", buildLeft, predicate));
+                assertJoin(expectedFull, keylessHashJoin(root, "FULL", buildLeft, predicate));
+                assertJoin(expectedSemi, keylessHashJoin(root, "SEMI", buildLeft, predicate));
+                assertJoin(expectedAnti, keylessHashJoin(root, "ANTI", buildLeft, predicate));
+            }
+        }
+    }
+
+    private static Enumerable<Object[]> keylessHashJoin(
+            final DataContext root,
+            final String joinType,
+            final boolean buildLeft,
+            final Predicate2<Object[], Object[]> predicate) {
+        return DocumentDbJoinEnumerables.hashJoin(root, Linq4j.asEnumerable(LEFT), Linq4j.asEnumerable(RIGHT),
+                ImmutableList.of(), ImmutableList.of(), joinType, 2, 2, buildLeft, predicate);
+    }
+
+    private static Enumerable<Object[]> hashJoin(
+            final DataContext root,
+            final String joinType,
+            final boolean buildLeft) {
+        return DocumentDbJoinEnumerables.hashJoin(root, Linq4j.asEnumerable(LEFT), Linq4j.asEnumerable(RIGHT),
+                ImmutableList.of(0), ImmutableList.of(0), joinType, 2, 2, buildLeft, null);
+    }
+
+    private static Enumerable<Object[]> mergeJoin(final DataContext root, final String joinType) {
+        // Inputs are sorted with nulls first, as returned by DocumentDB.
+        return DocumentDbJoinEnumerables.mergeJoin(root, Linq4j.asEnumerable(sortNullsFirst(LEFT)),
+                Linq4j.asEnumerable(sortNullsFirst(RIGHT)),
+                ImmutableList.of(0), ImmutableList.of(0), joinType, 2, 2);
+    }
+
+    private static List<Object[]> sortNullsFirst(final List<Object[]> rows) {
+        final List<Object[]> sorted = new ArrayList<>();
+        rows.stream().filter(row -> row[0] == null).forEach(sorted::add);
+        rows.stream().filter(row -> row[0] != null).forEach(sorted::add);
+        return sorted;
+    }
+
+    private static List<Object[]> getExpectedInner() {
+        return ImmutableList.of(
+                new Object[] {1, "a", 1L, "x"},
+                new Object[] {2, "b", 2L, "y"},
+                new Object[] {2, "b", 2L, "z"},
+                new Object[] {2, "c", 2L, "y"},
+                new Object[] {2, "c", 2L, "z"});
+    }
+
+    private static List<Object[]> getExpectedLeft() {
+        final List<Object[]> expected = new ArrayList<>(getExpectedInner());
+        expected.add(new Object[] {null, "d", null, null});
+        expected.add(new Object[] {4, "e", null, null});
+        return expected;
+    }
+
+    private static List<Object[]> getExpectedRight() {
+        final List<Object[]> expected = new ArrayList<>(getExpectedInner());
+        expected.add(new Object[] {null, null, null, "w"});
+        expected.add(new Object[] {null, null, 5L, "v"});
+        return expected;
+    }
+
+    private static List<Object[]> getExpectedFull() {
+        final List<Object[]> expected = new ArrayList<>(getExpectedLeft());
+        expected.add(new Object[] {null, null, null, "w"});
+        expected.add(new Object[] {null, null, 5L, "v"});
+        return expected;
+    }
+
+    private static List<Object[]> getExpectedSemi() {
+        return ImmutableList.of(
+                new Object[] {1, "a"},
+                new Object[] {2, "b"},
+                new Object[] {2, "c"});
+    }
+
+    private static List<Object[]> getExpectedAnti() {
+        return ImmutableList.of(
+                new Object[] {null, "d"},
+                new Object[] {4, "e"});
+    }
+
+    private static void assertJoin(final List<Object[]> expected, final Enumerable<Object[]> actual) {
+        Assertions.assertEquals(toSortedStrings(expected), toSortedStrings(actual.toList()));
+    }
+
+    private static List<String> toSortedStrings(final List<Object[]> rows) {
+        return rows.stream().map(Arrays::toString).sorted().collect(Collectors.toList());
+    }
+}
@@ -16,12 +16,19 @@
 
 package software.amazon.documentdb.jdbc.calcite.adapter;
 
+import org.bson.BsonType;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
+import software.amazon.documentdb.jdbc.common.utilities.JdbcType;
+import software.amazon.documentdb.jdbc.metadata.DocumentDbMetadataColumn;
+import software.amazon.documentdb.jdbc.metadata.DocumentDbMetadataTable;
+import software.amazon.documentdb.jdbc.metadata.DocumentDbSchemaColumn;
 
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 class DocumentDbJoinTest {
 
@@ -62,4 +69,65 @@ class DocumentDbJoinTest {
         Assertions.assertThrows(IllegalArgumentException.class,
                                 () -> documentDbJoin.validateMinimumPrimaryKeysUsage(keysUsed, leftPrimaryKeys, rightPrimaryKeys));
     }
+
+    @Test
+    void testEstimateLookupRowsOrdering() {
+        // An indexed probe of the right side is cheaper than a scan of it.
+        Assertions.assertTrue(DocumentDbJoin.estimateLookupRows(10, 1000, 10, true)
+                < DocumentDbJoin.estimateLookupRows(10, 1000, 10, false));
+        // Driving the lookup from the smaller side is cheaper.
+        Assertions.assertTrue(DocumentDbJoin.estimateLookupRows(10, 1000, 10, true)
+                < DocumentDbJoin.estimateLookupRows(1000, 10, 10, true));
+        Assertions.assertTrue(DocumentDbJoin.estimateLookupRows(10, 1000, 10, false)
+                < DocumentDbJoin.estimateLookupRows(1000, 10, 10, false));
+        Assertions.assertEquals(10 + 10 * 1000d, DocumentDbJoin.estimateLookupRows(10, 1000, 10, false));
+    }
+
+    @Test
+    void testBuildRequiredFieldsProjection() {
+        final DocumentDbSchemaColumn idColumn = buildColumn("_id", "_id", true);
+        final DocumentDbSchemaColumn fieldColumn = buildColumn("array.field", "field", false);
+        final DocumentDbSchemaColumn field1Column = buildColumn("array.field1", "field1", false);
+        final DocumentDbSchemaColumn field2Column = buildColumn("array.field2", "field2", false);
+        final LinkedHashMap<String, DocumentDbSchemaColumn> tableColumns = new LinkedHashMap<>();
+        tableColumns.put("_id", idColumn);
+        tableColumns.put("field", fieldColumn);
+        tableColumns.put("field1", field1Column);
+        tableColumns.put("field2", field2Column);
+        final DocumentDbMetadataTable table = DocumentDbMetadataTable.builder()
+                .sqlName("testCollection_array")
+                .collectionName("testCollection")
+                .columns(tableColumns)
+                .build();
+
+        // Only the required fields are projected.
+        final Map<String, DocumentDbSchemaColumn> required = new LinkedHashMap<>();
+        required.put("_id", idColumn);
+        required.put("field", fieldColumn);
+        Assertions.assertEquals(
+                "{$project={_id=1, array.field=1}}",
+                String.valueOf(DocumentDbJoin.buildRequiredFieldsProjection(required, table)));
+
+        // The _id is excluded when not required.
+        final Map<String, DocumentDbSchemaColumn> requiredWithoutId = new LinkedHashMap<>();
+        requiredWithoutId.put("field1", field1Column);
+        Assertions.assertEquals(
+                "{$project={array.field1=1, _id=0}}",
+                String.valueOf(DocumentDbJoin.buildRequiredFieldsProjection(requiredWithoutId, table)));
+
+        // No projection when all the columns are required.
+        Assertions.assertNull(DocumentDbJoin.buildRequiredFieldsProjection(tableColumns, table));
+        Assertions.assertNull(DocumentDbJoin.buildRequiredFieldsProjection(new LinkedHashMap<>(), table));
+    }
+
+    private static DocumentDbSchemaColumn buildColumn(
+            final String path, final String sqlName, final boolean isPrimaryKey) {
+        return DocumentDbMetadataColumn.builder()
+                .fieldPath(path)
+                .sqlName(sqlName)
+                .sqlType(JdbcType.VARCHAR)
+                .dbType(BsonType.STRING)
+                .isPrimaryKey(isPrimaryKey)
+                .build();
+    }
 }
@@ -0,0 +1,118 @@
+/*
+ * Copyright <2021> Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ */
+
+package software.amazon.documentdb.jdbc.calcite.adapter;
+
+import org.apache.calcite.DataContext;
+import org.apache.calcite.linq4j.Enumerable;
+import org.apache.calcite.linq4j.Linq4j;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+public class DocumentDbSortEnumerablesTest {
+    private static final Comparator<Object[]> COMPARATOR = Comparator.comparing(row -> (Integer) row[0]);
+    private static final int ROW_COUNT = 500;
+
+    @Test
+    @DisplayName("Tests sorting in memory, with and without an offset and fetch.")
+    void testSortInMemory() {
+        final List<Object[]> input = createInput();
+        assertSorted(input, 0, -1, sort(null, input, 0, -1));
+        assertSorted(input, 10, -1, sort(null, input, 10, -1));
+        assertSorted(input, 10, 20, sort(null, input, 10, 20));
+        assertSorted(input, 0, 0, sort(null, input, 0, 0));
+    }
+
+    @Test
+    @DisplayName("Tests a sort with a fetch that keeps only the top rows in memory.")
+    void testTopN() {
+        final List<Object[]> input = createInput();
+        final DataContext root = new MockDataContext(50);
+        assertSorted(input, 0, 50, sort(root, input, 0, 50));
+        assertSorted(input, 5, 25, sort(root, input, 5, 25));
+    }
+
+    @Test
+    @DisplayName("Tests sorting when the input does not fit in memory.")
+    void testSortWithSpilling() {
+        final List<Object[]> input = createInput();
+        // A limit of 3 rows creates more runs than can be merged in a single pass.
+        for (int maxRowsInMemory : new int[] {3, 100}) {
+            final DataContext root = new MockDataContext(maxRowsInMemory);
+            assertSorted(input, 0, -1, sort(root, input, 0, -1));
+            assertSorted(input, 7, 200, sort(root, input, 7, 200));
+        }
+    }
+
+    @Test
+    @DisplayName("Tests that rows with equal keys keep the input order when spilled.")
+    void testSortIsStable() {
+        final List<Object[]> input = new ArrayList<>();
+        for (int i = 0; i < ROW_COUNT; i++) {
+            input.add(new Object[] {i % 3, i});
+        }
+        final List<Object[]> actual = sort(new MockDataContext(3), input, 0, -1).toList();
+        Assertions.assertEquals(ROW_COUNT, actual.size());
+        for (int i = 1; i < actual.size(); i++) {
+            if (actual.get(i - 1)[0].equals(actual.get(i)[0])) {
+                Assertions.assertTrue((Integer) actual.get(i - 1)[1] < (Integer) actual.get(i)[1]);
+            }
+        }
+    }
+
+    private static Enumerable<Object[]> sort(
+            final DataContext root,
+            final List<Object[]> input,
+            final int offset,
+            final int fetch) {
+        return DocumentDbSortEnumerables.sort(root, Linq4j.asEnumerable(input), COMPARATOR, offset, fetch);
+    }
+
+    private static List<Object[]> createInput() {
+        final Random random = new Random(42);
+        final List<Object[]> input = new ArrayList<>();
+        for (int i = 0; i < ROW_COUNT; i++) {
+            input.add(new Object[] {random.nextInt(ROW_COUNT), "row" + i});
+        }
+        return input;
+    }
+
+    private static void assertSorted(
+            final List<Object[]> input,
+            final int offset,
+            final int fetch,
+            final Enumerable<Object[]> actual) {
+        final List<Integer> expected = input.stream()
+                .map(row -> (Integer) row[0])
+                .sorted()
+                .skip(offset)
+                .limit(fetch >= 0 ? fetch : Long.MAX_VALUE)
+                .collect(Collectors.toList());
+        final List<Object[]> rows = actual.toList();
+        Assertions.assertEquals(expected, rows.stream().map(row -> (Integer) row[0]).collect(Collectors.toList()));
+        // Each row is returned with its other columns.
+        Assertions.assertTrue(rows.stream().allMatch(row -> row.length == 2 && row[1] != null),
+                () -> rows.stream().map(Arrays::toString).collect(Collectors.joining(", ")));
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright <2021> Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ */
+
+package software.amazon.documentdb.jdbc.calcite.adapter;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Iterator;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+public class DocumentDbSpillFileTest {
+
+    @Test
+    @DisplayName("Tests that rows can be read by more than one iterator at a time.")
+    void testRead() throws IOException {
+        try (DocumentDbSpillFile spillFile = new DocumentDbSpillFile("documentdb-jdbc-test-")) {
+            for (int i = 0; i < 3000; i++) {
+                spillFile.write(new Object[] {i, "row" + i});
+            }
+            final Iterator<Object[]> first = spillFile.read();
+            final Iterator<Object[]> second = spillFile.read();
+            for (int i = 0; i < 3000; i++) {
+                Assertions.assertEquals(i, first.next()[0]);
+                Assertions.assertEquals(i, second.next()[0]);
+            }
+            Assertions.assertFalse(first.hasNext());
+            Assertions.assertFalse(second.hasNext());
+        }
+    }
+
+    @Test
+    @DisplayName("Tests that closing the file deletes it and closes iterators that were not read to the end.")
+    void testCloseBeforeEnd() throws IOException {
+        final String prefix = "documentdb-jdbc-test-" + UUID.randomUUID() + "-";
+        final DocumentDbSpillFile spillFile = new DocumentDbSpillFile(prefix);
+        for (int i = 0; i < 3000; i++) {
+            spillFile.write(new Object[] {i});
+        }
+        final Iterator<Object[]> rows = spillFile.read();
+        Assertions.assertEquals(0, rows.next()[0]);
+        Assertions.assertEquals(1, countFiles(prefix));
+
+        spillFile.close();
+        Assertions.assertEquals(0, countFiles(prefix));
+        // The stream of the iterator is closed.
+        Assertions.assertThrows(UncheckedIOException.class, () -> {
+            while (rows.hasNext()) {
+                rows.next();
+            }
+        });
+    }
+
+    private static long countFiles(final String prefix) throws IOException {
+        final Path tempDirectory = Paths.get(System.getProperty("java.io.tmpdir"));
+        try (Stream<Path> files = Files.list(tempDirectory)) {
+            return files.filter(file -> file.getFileName().toString().startsWith(prefix)).count();
+        }
+    }
+}
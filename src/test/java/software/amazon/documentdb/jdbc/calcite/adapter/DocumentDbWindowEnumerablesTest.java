@@ -0,0 +1,170 @@
+/*
+ * Copyright <2021> Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ */
+
+package software.amazon.documentdb.jdbc.calcite.adapter;
+
+import org.apache.calcite.linq4j.Linq4j;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static software.amazon.documentdb.jdbc.calcite.adapter.DocumentDbWindowEnumerables.UNBOUNDED_FOLLOWING;
+import static software.amazon.documentdb.jdbc.calcite.adapter.DocumentDbWindowEnumerables.UNBOUNDED_PRECEDING;
+
+public class DocumentDbWindowEnumerablesTest {
+    private static final Comparator<Object[]> ORDER_COMPARATOR = Comparator.comparing(row -> (Integer) row[1]);
+    private static final List<String> AGGREGATES = Arrays.asList("COUNT", "SUM0", "MIN", "MAX");
+    private static final List<Integer> AGGREGATE_ARGUMENTS = Arrays.asList(-1, 2, 2, 2);
+    private static final List<String> AGGREGATE_TYPES = Arrays.asList("BIGINT", "INTEGER", "INTEGER", "INTEGER");
+    private static final int ROW_COUNT = 300;
+
+    @Test
+    @DisplayName("Tests ranking functions, with and without spilling partitions to temporary files.")
+    void testRanking() {
+        final List<Object[]> input = createInput();
+        for (int maxRowsInMemory : new int[] {3, 1000}) {
+            final List<Object[]> actual = DocumentDbWindowEnumerables.window(
+                    new MockDataContext(maxRowsInMemory), Linq4j.asEnumerable(input),
+                    Collections.singletonList(0), ORDER_COMPARATOR,
+                    Arrays.asList("ROW_NUMBER", "RANK", "DENSE_RANK"), Arrays.asList(-1, -1, -1),
+                    Arrays.asList("BIGINT", "BIGINT", "BIGINT"), false, UNBOUNDED_PRECEDING, 0).toList();
+            Assertions.assertEquals(input.size(), actual.size());
+            int start = 0;
+            for (int i = 0; i < actual.size(); i++) {
+                final Object[] row = actual.get(i);
+                if (!row[0].equals(input.get(start)[0])) {
+                    start = i;
+                }
+                int rank = i;
+                while (rank > start && input.get(rank - 1)[1].equals(row[1])) {
+                    rank--;
+                }
+                final long denseRank = input.subList(start, i + 1).stream().map(r -> r[1]).distinct().count();
+                Assertions.assertEquals(i - start + 1L, row[3]);
+                Assertions.assertEquals(rank - start + 1L, row[4]);
+                Assertions.assertEquals(denseRank, row[5]);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Tests aggregates over the frames that can be computed in the driver.")
+    void testAggregateFrames() {
+        final List<Object[]> input = createInput();
+        final int[][] rowsFrames = {
+                {UNBOUNDED_PRECEDING, 0},
+                {UNBOUNDED_PRECEDING, 2},
+                {UNBOUNDED_PRECEDING, UNBOUNDED_FOLLOWING},
+                {-2, 1},
+                {-3, -1},
+                {1, 4}};
+        for (int maxRowsInMemory : new int[] {3, 1000}) {
+            for (int[] frame : rowsFrames) {
+                assertAggregates(input, maxRowsInMemory, true, frame[0], frame[1]);
+            }
+            assertAggregates(input, maxRowsInMemory, false, UNBOUNDED_PRECEDING, 0);
+            assertAggregates(input, maxRowsInMemory, false, UNBOUNDED_PRECEDING, UNBOUNDED_FOLLOWING);
+        }
+    }
+
+    @Test
+    @DisplayName("Tests that a window without partition or order keys is computed over all rows.")
+    void testWholeInput() {
+        final List<Object[]> input = createInput();
+        final List<Object[]> actual = DocumentDbWindowEnumerables.window(
+                new MockDataContext(10), Linq4j.asEnumerable(input), Collections.emptyList(), null,
+                AGGREGATES, AGGREGATE_ARGUMENTS, AGGREGATE_TYPES, false,
+                UNBOUNDED_PRECEDING, 0).toList();
+        Assertions.assertEquals(input.size(), actual.size());
+        for (Object[] row : actual) {
+            Assertions.assertEquals(expected(input, 0, input.size()), Arrays.asList(row).subList(3, 7));
+        }
+    }
+
+    private static void assertAggregates(
+            final List<Object[]> input,
+            final int maxRowsInMemory,
+            final boolean isRows,
+            final int lower,
+            final int upper) {
+        final List<Object[]> actual = DocumentDbWindowEnumerables.window(
+                new MockDataContext(maxRowsInMemory), Linq4j.asEnumerable(input),
+                Collections.singletonList(0), ORDER_COMPARATOR,
+                AGGREGATES, AGGREGATE_ARGUMENTS, AGGREGATE_TYPES, isRows, lower, upper).toList();
+        Assertions.assertEquals(input.size(), actual.size());
+        int start = 0;
+        int end = 0;
+        for (int i = 0; i < actual.size(); i++) {
+            final Object[] row = actual.get(i);
+            if (i == end) {
+                start = i;
+                while (end < input.size() && input.get(end)[0].equals(row[0])) {
+                    end++;
+                }
+            }
+            int frameStart = lower == UNBOUNDED_PRECEDING ? start : Math.max(start, i + lower);
+            int frameEnd = upper == UNBOUNDED_FOLLOWING ? end : Math.min(end, i + upper + 1);
+            if (!isRows && upper == 0) {
+                // The frame of a range includes the following peers.
+                frameEnd = i + 1;
+                while (frameEnd < end && input.get(frameEnd)[1].equals(row[1])) {
+                    frameEnd++;
+                }
+            }
+            if (frameEnd < frameStart) {
+                frameStart = frameEnd;
+            }
+            Assertions.assertEquals(expected(input, frameStart, frameEnd), Arrays.asList(row).subList(3, 7),
+                    "row " + i + " of frame [" + lower + ", " + upper + "]");
+        }
+    }
+
+    private static List<Object> expected(final List<Object[]> input, final int start, final int end) {
+        long count = 0;
+        int sum = 0;
+        Integer min = null;
+        Integer max = null;
+        for (Object[] row : input.subList(start, end)) {
+            count++;
+            if (row[2] != null) {
+                final int value = (Integer) row[2];
+                sum += value;
+                min = min == null ? value : Math.min(min, value);
+                max = max == null ? value : Math.max(max, value);
+            }
+        }
+        return Arrays.asList(count, sum, min, max);
+    }
+
+    /** Creates rows sorted by partition, then by order key, with some peers and null values. */
+    private static List<Object[]> createInput() {
+        final Random random = new Random(42);
+        final List<Object[]> input = new ArrayList<>();
+        for (int i = 0; i < ROW_COUNT; i++) {
+            input.add(new Object[] {
+                    random.nextInt(4), random.nextInt(20), i % 10 == 0 ? null : random.nextInt(100)});
+        }
+        input.sort(Comparator.<Object[], Integer>comparing(row -> (Integer) row[0]).thenComparing(ORDER_COMPARATOR));
+        return input;
+    }
+}
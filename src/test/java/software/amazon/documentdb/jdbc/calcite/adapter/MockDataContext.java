@@ -0,0 +1,86 @@
+/*
+ * Copyright <2021> Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ */
+
+package software.amazon.documentdb.jdbc.calcite.adapter;
+
+import com.mongodb.client.MongoCursor;
+import org.apache.calcite.DataContext;
+import org.apache.calcite.adapter.java.JavaTypeFactory;
+import org.apache.calcite.linq4j.QueryProvider;
+import org.apache.calcite.schema.SchemaPlus;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import software.amazon.documentdb.jdbc.query.DocumentDbFindQuery;
+
+import java.util.List;
+
+/**
+ * Mock DataContext providing a query runner that only limits the rows operators executed in the
+ * driver may hold in memory. Queries cannot be run with it.
+ */
+public class MockDataContext implements DataContext {
+    private final DocumentDbQueryRunner queryRunner;
+
+    /**
+     * Creates a data context whose query runner allows the given number of rows in memory.
+     *
+     * @param maxRowsInMemory the maximum number of rows to hold in memory before spilling.
+     */
+    public MockDataContext(final int maxRowsInMemory) {
+        this.queryRunner = new DocumentDbQueryRunner() {
+            @Override
+            public MongoCursor<Document> find(
+                    final String databaseName,
+                    final String collectionName,
+                    final DocumentDbFindQuery findQuery) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public MongoCursor<Document> aggregate(
+                    final String databaseName,
+                    final String collectionName,
+                    final List<Bson> stages) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public int getMaxRowsInMemory() {
+                return maxRowsInMemory;
+            }
+        };
+    }
+
+    @Override
+    public SchemaPlus getRootSchema() {
+        return null;
+    }
+
+    @Override
+    public JavaTypeFactory getTypeFactory() {
+        return null;
+    }
+
+    @Override
+    public QueryProvider getQueryProvider() {
+        return null;
+    }
+
+    @Override
+    public Object get(final String name) {
+        return DocumentDbQueryRunner.DATA_CONTEXT_KEY.equals(name) ? queryRunner : null;
+    }
+}
@@ -25,6 +25,11 @@ import software.amazon.documentdb.jdbc.common.mock.MockPooledConnection;
 
 import javax.sql.ConnectionEvent;
 import javax.sql.ConnectionEventListener;
+import javax.sql.StatementEvent;
+import javax.sql.StatementEventListener;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Properties;
 
 /**
@@ -71,4 +76,34 @@ public class PooledConnectionTest {
         pooledConnection.addStatementEventListener(null);
         pooledConnection.removeStatementEventListener(null);
     }
+
+    @Test
+    void testStatementListeners() {
+        final List<StatementEvent> closedEvents = new ArrayList<>();
+        final List<StatementEvent> errorEvents = new ArrayList<>();
+        final StatementEventListener statementListener = new StatementEventListener() {
+            @Override
+            public void statementClosed(final StatementEvent event) {
+                closedEvents.add(event);
+            }
+
+            @Override
+            public void statementErrorOccurred(final StatementEvent event) {
+                errorEvents.add(event);
+            }
+        };
+        final PooledConnection connection = (PooledConnection) pooledConnection;
+        final SQLException exception = new SQLException("error");
+        connection.addStatementEventListener(statementListener);
+        connection.fireStatementClosed(null);
+        connection.fireStatementErrorOccurred(null, exception);
+        Assertions.assertEquals(1, closedEvents.size());
+        Assertions.assertSame(connection, closedEvents.get(0).getSource());
+        Assertions.assertEquals(1, errorEvents.size());
+        Assertions.assertSame(exception, errorEvents.get(0).getSQLException());
+
+        connection.removeStatementEventListener(statementListener);
+        connection.fireStatementClosed(null);
+        Assertions.assertEquals(1, closedEvents.size());
+    }
 }
@@ -0,0 +1,45 @@
+/*
+ * Copyright <2021> Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ */
+
+package software.amazon.documentdb.jdbc.common.utilities;
+
+import org.bson.Document;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class DocumentDbPathsTest {
+    @DisplayName("Tests resolving top-level and embedded field paths.")
+    @Test
+    void testGetPathValue() {
+        final Document document = Document.parse("{\"a\": 1, \"b\": {\"c\": {\"d\": \"value\"}}, \"e\": [1, 2]}");
+        Assertions.assertEquals(1, DocumentDbPaths.getPathValue(document, "a"));
+        Assertions.assertEquals("value", DocumentDbPaths.getPathValue(document, "b.c.d"));
+        Assertions.assertEquals(Document.parse("{\"d\": \"value\"}"), DocumentDbPaths.getPathValue(document, "b.c"));
+    }
+
+    @DisplayName("Tests that missing, empty and non-document paths resolve to null or the last value found.")
+    @Test
+    void testGetPathValueMissing() {
+        final Document document = Document.parse("{\"a\": 1, \"b\": {\"c\": 2}}");
+        Assertions.assertNull(DocumentDbPaths.getPathValue(document, null));
+        Assertions.assertNull(DocumentDbPaths.getPathValue(document, ""));
+        Assertions.assertNull(DocumentDbPaths.getPathValue(document, "x"));
+        Assertions.assertNull(DocumentDbPaths.getPathValue(document, "b.x"));
+        // Segments after a value that is not a document are not resolved.
+        Assertions.assertEquals(1, DocumentDbPaths.getPathValue(document, "a.b"));
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright <2021> Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ */
+
+package software.amazon.documentdb.jdbc.query;
+
+import com.google.common.collect.ImmutableList;
+import org.bson.BsonDocument;
+import org.bson.conversions.Bson;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+public class DocumentDbCountQueryTest {
+
+    @Test
+    @DisplayName("Tests that an unfiltered count pipeline is converted to a count.")
+    void testCount() {
+        final List<Bson> stages = parse(
+                "{\"$project\": {\"_f0\": {\"$literal\": 0}, \"_id\": 0}}",
+                "{\"$group\": {\"_id\": {}, \"EXPR$0\": {\"$sum\": 1}}}",
+                "{\"$limit\": {\"$numberLong\": \"10\"}}");
+        final DocumentDbCountQuery countQuery =
+                DocumentDbCountQuery.fromAggregateOperations(stages, ImmutableList.of("EXPR$0"));
+        Assertions.assertNotNull(countQuery);
+        Assertions.assertEquals(new BsonDocument(), countQuery.getFilter());
+    }
+
+    @Test
+    @DisplayName("Tests that a filtered count pipeline is converted to a count with the filter.")
+    void testFilteredCount() {
+        final List<Bson> stages = parse(
+                "{\"$match\": {\"x\": {\"$gt\": 1}}}",
+                "{\"$group\": {\"_id\": {}, \"Total\": {\"$sum\": 1}}}");
+        final DocumentDbCountQuery countQuery =
+                DocumentDbCountQuery.fromAggregateOperations(stages, ImmutableList.of("Total"));
+        Assertions.assertNotNull(countQuery);
+        Assertions.assertEquals(BsonDocument.parse("{\"x\": {\"$gt\": 1}}"), countQuery.getFilter());
+    }
+
+    @Test
+    @DisplayName("Tests that pipelines that do more than count documents are not converted.")
+    void testNotConverted() {
+        // Virtual table.
+        Assertions.assertNull(DocumentDbCountQuery.fromAggregateOperations(
+                parse("{\"$unwind\": {\"path\": \"$array\", \"preserveNullAndEmptyArrays\": true}}",
+                        "{\"$group\": {\"_id\": {}, \"c\": {\"$sum\": 1}}}"),
+                ImmutableList.of("c")));
+        // Group keys.
+        Assertions.assertNull(DocumentDbCountQuery.fromAggregateOperations(
+                parse("{\"$group\": {\"_id\": \"$a\", \"c\": {\"$sum\": 1}}}"),
+                ImmutableList.of("c")));
+        // Counting non-null values.
+        Assertions.assertNull(DocumentDbCountQuery.fromAggregateOperations(
+                parse("{\"$group\": {\"_id\": {}, \"c\": {\"$sum\": "
+                        + "{\"$cond\": [{\"$gt\": [\"$a\", null]}, 1, 0]}}}}"),
+                ImmutableList.of("c")));
+        // Other aggregates.
+        Assertions.assertNull(DocumentDbCountQuery.fromAggregateOperations(
+                parse("{\"$group\": {\"_id\": {}, \"c\": {\"$sum\": 1}, \"m\": {\"$max\": \"$a\"}}}"),
+                ImmutableList.of("c", "m")));
+        // Filter after the count.
+        Assertions.assertNull(DocumentDbCountQuery.fromAggregateOperations(
+                parse("{\"$group\": {\"_id\": {}, \"c\": {\"$sum\": 1}}}",
+                        "{\"$match\": {\"c\": {\"$gt\": 1}}}"),
+                ImmutableList.of("c")));
+        // Skipped or zero rows.
+        Assertions.assertNull(DocumentDbCountQuery.fromAggregateOperations(
+                parse("{\"$group\": {\"_id\": {}, \"c\": {\"$sum\": 1}}}",
+                        "{\"$skip\": 1}"),
+                ImmutableList.of("c")));
+        Assertions.assertNull(DocumentDbCountQuery.fromAggregateOperations(
+                parse("{\"$group\": {\"_id\": {}, \"c\": {\"$sum\": 1}}}",
+                        "{\"$limit\": 0}"),
+                ImmutableList.of("c")));
+        // No count.
+        Assertions.assertNull(DocumentDbCountQuery.fromAggregateOperations(
+                parse("{\"$match\": {\"x\": 1}}"),
+                ImmutableList.of("x")));
+    }
+
+    private static List<Bson> parse(final String... stages) {
+        return Arrays.stream(stages).map(BsonDocument::parse).collect(Collectors.toList());
+    }
+}
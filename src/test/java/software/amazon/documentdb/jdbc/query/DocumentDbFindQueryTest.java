@@ -0,0 +1,144 @@
+/*
+ * Copyright <2021> Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ */
+
+package software.amazon.documentdb.jdbc.query;
+
+import com.google.common.collect.ImmutableList;
+import org.bson.BsonDocument;
+import org.bson.conversions.Bson;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+public class DocumentDbFindQueryTest {
+
+    @Test
+    @DisplayName("Tests that a filter, project, sort and limit pipeline is converted to find().")
+    void testFilterProjectSortLimit() {
+        final List<Bson> stages = parse(
+                "{\"$match\": {\"x\": {\"$eq\": 1}}}",
+                "{\"$project\": {\"a\": \"$doc.a\", \"b\": \"$b\", \"_id\": 0}}",
+                "{\"$sort\": {\"b\": -1}}",
+                "{\"$skip\": 5}",
+                "{\"$limit\": {\"$numberLong\": \"10\"}}");
+        final DocumentDbFindQuery findQuery =
+                DocumentDbFindQuery.fromAggregateOperations(stages, ImmutableList.of("a", "b"));
+        Assertions.assertNotNull(findQuery);
+        Assertions.assertEquals(BsonDocument.parse("{\"x\": {\"$eq\": 1}}"), findQuery.getFilter());
+        Assertions.assertEquals(
+                BsonDocument.parse("{\"doc.a\": 1, \"b\": 1, \"_id\": 0}"), findQuery.getProjection());
+        Assertions.assertEquals(BsonDocument.parse("{\"b\": -1}"), findQuery.getSort());
+        Assertions.assertEquals(5, findQuery.getSkip());
+        Assertions.assertEquals(10, findQuery.getLimit());
+        Assertions.assertEquals(ImmutableList.of("doc.a", "b"), findQuery.getPaths());
+    }
+
+    @Test
+    @DisplayName("Tests that sort keys and paths are mapped through multiple projections.")
+    void testProjectionChain() {
+        final List<Bson> stages = parse(
+                "{\"$project\": {\"t__id\": \"$_id\", \"field\": \"$doc.field\", \"_id\": 0}}",
+                "{\"$sort\": {\"field\": 1}}",
+                "{\"$project\": {\"renamed\": \"$field\", \"_id\": 0}}",
+                "{\"$limit\": {\"$numberLong\": \"100\"}}",
+                "{\"$limit\": {\"$numberLong\": \"10\"}}");
+        final DocumentDbFindQuery findQuery =
+                DocumentDbFindQuery.fromAggregateOperations(stages, ImmutableList.of("renamed"));
+        Assertions.assertNotNull(findQuery);
+        Assertions.assertEquals(new BsonDocument(), findQuery.getFilter());
+        Assertions.assertEquals(BsonDocument.parse("{\"doc.field\": 1, \"_id\": 0}"), findQuery.getProjection());
+        Assertions.assertEquals(BsonDocument.parse("{\"doc.field\": 1}"), findQuery.getSort());
+        Assertions.assertEquals(10, findQuery.getLimit());
+        Assertions.assertEquals(ImmutableList.of("doc.field"), findQuery.getPaths());
+    }
+
+    @Test
+    @DisplayName("Tests that a top-N $limit followed by $skip is converted to the find() skip and limit.")
+    void testLimitBeforeSkip() {
+        final List<Bson> stages = parse(
+                "{\"$project\": {\"a\": \"$a\", \"_id\": 0}}",
+                "{\"$sort\": {\"a\": 1}}",
+                "{\"$limit\": {\"$numberLong\": \"15\"}}",
+                "{\"$skip\": 5}");
+        final DocumentDbFindQuery findQuery =
+                DocumentDbFindQuery.fromAggregateOperations(stages, ImmutableList.of("a"));
+        Assertions.assertNotNull(findQuery);
+        Assertions.assertEquals(BsonDocument.parse("{\"a\": 1}"), findQuery.getSort());
+        Assertions.assertEquals(5, findQuery.getSkip());
+        Assertions.assertEquals(10, findQuery.getLimit());
+    }
+
+    @Test
+    @DisplayName("Tests that the _id field is kept when it or one of its sub-fields is projected.")
+    void testIdProjection() {
+        final DocumentDbFindQuery findQuery = DocumentDbFindQuery.fromAggregateOperations(
+                parse("{\"$project\": {\"t__id\": \"$_id.key\", \"_id\": 0}}"),
+                ImmutableList.of("t__id"));
+        Assertions.assertNotNull(findQuery);
+        Assertions.assertEquals(BsonDocument.parse("{\"_id.key\": 1}"), findQuery.getProjection());
+    }
+
+    @Test
+    @DisplayName("Tests that pipelines requiring the aggregation framework are not converted.")
+    void testUnsupportedPipelines() {
+        // Virtual table.
+        Assertions.assertNull(DocumentDbFindQuery.fromAggregateOperations(
+                parse("{\"$unwind\": {\"path\": \"$array\", \"preserveNullAndEmptyArrays\": true}}",
+                        "{\"$project\": {\"field\": \"$array.field\", \"_id\": 0}}"),
+                ImmutableList.of("field")));
+        // Computed column.
+        Assertions.assertNull(DocumentDbFindQuery.fromAggregateOperations(
+                parse("{\"$project\": {\"EXPR$0\": {\"$add\": [\"$a\", 1]}, \"_id\": 0}}"),
+                ImmutableList.of("EXPR$0")));
+        // Literal column.
+        Assertions.assertNull(DocumentDbFindQuery.fromAggregateOperations(
+                parse("{\"$project\": {\"EXPR$0\": {\"$literal\": \"$a\"}, \"_id\": 0}}"),
+                ImmutableList.of("EXPR$0")));
+        // Filter on a projected field.
+        Assertions.assertNull(DocumentDbFindQuery.fromAggregateOperations(
+                parse("{\"$project\": {\"a\": \"$b\", \"_id\": 0}}",
+                        "{\"$match\": {\"a\": 1}}"),
+                ImmutableList.of("a")));
+        // Sort after limit.
+        Assertions.assertNull(DocumentDbFindQuery.fromAggregateOperations(
+                parse("{\"$project\": {\"a\": \"$a\", \"_id\": 0}}",
+                        "{\"$limit\": {\"$numberLong\": \"10\"}}",
+                        "{\"$sort\": {\"a\": 1}}"),
+                ImmutableList.of("a")));
+        // Skip all rows after limit.
+        Assertions.assertNull(DocumentDbFindQuery.fromAggregateOperations(
+                parse("{\"$project\": {\"a\": \"$a\", \"_id\": 0}}",
+                        "{\"$limit\": {\"$numberLong\": \"10\"}}",
+                        "{\"$skip\": 10}"),
+                ImmutableList.of("a")));
+        // Colliding paths.
+        Assertions.assertNull(DocumentDbFindQuery.fromAggregateOperations(
+                parse("{\"$project\": {\"a\": \"$doc\", \"b\": \"$doc.b\", \"_id\": 0}}"),
+                ImmutableList.of("a", "b")));
+        // Group.
+        Assertions.assertNull(DocumentDbFindQuery.fromAggregateOperations(
+                parse("{\"$group\": {\"_id\": \"$a\", \"c\": {\"$sum\": 1}}}"),
+                ImmutableList.of("c")));
+    }
+
+    private static List<Bson> parse(final String... stages) {
+        return Arrays.stream(stages).map(BsonDocument::parse).collect(Collectors.toList());
+    }
+}
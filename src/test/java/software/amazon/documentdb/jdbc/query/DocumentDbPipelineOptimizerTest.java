@@ -0,0 +1,186 @@
+/*
+ * Copyright <2021> Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ */
+
+package software.amazon.documentdb.jdbc.query;
+
+import org.bson.BsonDocument;
+import org.bson.conversions.Bson;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+public class DocumentDbPipelineOptimizerTest {
+
+    @Test
+    @DisplayName("Tests that adjacent $match stages are merged and duplicate conditions removed.")
+    void testMergeMatches() {
+        assertOptimized(
+                parse(
+                        "{\"$unwind\": {\"path\": \"$array\", \"preserveNullAndEmptyArrays\": true}}",
+                        "{\"$match\": {\"array.field\": {\"$exists\": true}}}",
+                        "{\"$match\": {\"array.field\": {\"$exists\": true}}}",
+                        "{\"$match\": {\"$and\": [{\"a\": {\"$ne\": null}}, {\"b\": 1}]}}"),
+                parse(
+                        "{\"$unwind\": {\"path\": \"$array\", \"preserveNullAndEmptyArrays\": true}}",
+                        "{\"$match\": {\"$and\": [{\"array.field\": {\"$exists\": true}}, "
+                                + "{\"a\": {\"$ne\": null}}, {\"b\": 1}]}}"));
+    }
+
+    @Test
+    @DisplayName("Tests that stages which pass all documents through are removed.")
+    void testRemoveNoOps() {
+        assertOptimized(
+                parse(
+                        "{\"$match\": {}}",
+                        "{\"$skip\": 0}",
+                        "{\"$addFields\": {}}",
+                        "{\"$match\": {\"$expr\": {\"$and\": [true, {\"$literal\": true}]}}}",
+                        "{\"$limit\": 5}"),
+                parse("{\"$limit\": 5}"));
+    }
+
+    @Test
+    @DisplayName("Tests that adjacent $skip and $limit stages are merged.")
+    void testMergeSkipAndLimit() {
+        assertOptimized(
+                parse(
+                        "{\"$skip\": 2}",
+                        "{\"$skip\": {\"$numberLong\": \"3\"}}",
+                        "{\"$limit\": {\"$numberLong\": \"10\"}}",
+                        "{\"$limit\": 4}"),
+                parse(
+                        "{\"$skip\": {\"$numberLong\": \"5\"}}",
+                        "{\"$limit\": 4}"));
+    }
+
+    @Test
+    @DisplayName("Tests that a chain of $project stages is collapsed into one.")
+    void testCollapseProjections() {
+        assertOptimized(
+                parse(
+                        "{\"$project\": {\"x\": \"$a.b\", \"y\": {\"$add\": [\"$c\", 1]}, \"d\": 1, \"_id\": 0}}",
+                        "{\"$project\": {\"renamed\": \"$x\", \"y\": 1, \"e\": \"$d.e\", \"_id\": 0}}",
+                        "{\"$project\": {\"renamed\": 1, \"z\": {\"$multiply\": [\"$y\", 2]}, \"_id\": 0}}"),
+                parse(
+                        "{\"$project\": {\"renamed\": \"$a.b\", "
+                                + "\"z\": {\"$multiply\": [{\"$add\": [\"$c\", 1]}, 2]}, \"_id\": 0}}"));
+    }
+
+    @Test
+    @DisplayName("Tests that $addFields followed by $project is collapsed into one $project.")
+    void testCollapseAddFields() {
+        assertOptimized(
+                parse(
+                        "{\"$addFields\": {\"tmp\": {\"$concat\": [\"$a\", \"-\"]}, \"unused\": \"$b\"}}",
+                        "{\"$project\": {\"k\": \"$tmp\", \"b\": 1, \"c\": \"$c.d\", \"_id\": 0}}"),
+                parse(
+                        "{\"$project\": {\"k\": {\"$concat\": [\"$a\", \"-\"]}, \"b\": 1, "
+                                + "\"c\": \"$c.d\", \"_id\": 0}}"));
+        // The _id field is kept.
+        assertOptimized(
+                parse(
+                        "{\"$addFields\": {\"tmp\": \"$a\"}}",
+                        "{\"$project\": {\"k\": \"$tmp\"}}"),
+                parse("{\"$project\": {\"k\": \"$a\"}}"));
+    }
+
+    @Test
+    @DisplayName("Tests that projections are not collapsed when the result could differ.")
+    void testProjectionsNotCollapsed() {
+        // Exclusion projection.
+        assertUnchanged(
+                "{\"$project\": {\"a\": \"$x\", \"_id\": 0}}",
+                "{\"$project\": {\"a\": 0}}");
+        // A field removed by the first $project.
+        assertUnchanged(
+                "{\"$project\": {\"a\": \"$x\", \"_id\": 0}}",
+                "{\"$project\": {\"b\": \"$y\", \"_id\": 0}}");
+        // A computed field used more than once.
+        assertUnchanged(
+                "{\"$project\": {\"a\": {\"$add\": [\"$x\", 1]}, \"_id\": 0}}",
+                "{\"$project\": {\"b\": \"$a\", \"c\": \"$a\", \"_id\": 0}}");
+        // The whole document.
+        assertUnchanged(
+                "{\"$project\": {\"a\": \"$x\", \"_id\": 0}}",
+                "{\"$project\": {\"doc\": \"$$ROOT\", \"_id\": 0}}");
+        // A nested field of a computed document.
+        assertUnchanged(
+                "{\"$addFields\": {\"a\": {\"$mergeObjects\": [\"$x\", \"$y\"]}}}",
+                "{\"$project\": {\"b\": \"$a.c\", \"_id\": 0}}");
+        // A nested projection.
+        assertUnchanged(
+                "{\"$project\": {\"a\": {\"b\": 1}, \"_id\": 0}}",
+                "{\"$project\": {\"c\": \"$a\", \"_id\": 0}}");
+    }
+
+    @Test
+    @DisplayName("Tests that constant expressions are folded.")
+    void testFoldConstants() {
+        assertOptimized(
+                parse(
+                        "{\"$project\": {"
+                                + "\"a\": {\"$add\": [1, 2]}, "
+                                + "\"b\": {\"$multiply\": [2, 1.5]}, "
+                                + "\"c\": {\"$cond\": [{\"$not\": [false]}, \"$x\", \"$y\"]}, "
+                                + "\"d\": {\"$subtract\": [{\"$numberLong\": \"5\"}, 1]}, "
+                                + "\"e\": {\"$add\": [\"$x\", {\"$multiply\": [3, 4]}]}, "
+                                + "\"f\": {\"$cond\": {\"if\": false, \"then\": \"$x\", \"else\": 0}}, "
+                                + "\"_id\": 0}}"),
+                parse(
+                        "{\"$project\": {"
+                                + "\"a\": {\"$literal\": 3}, "
+                                + "\"b\": {\"$literal\": 3.0}, "
+                                + "\"c\": \"$x\", "
+                                + "\"d\": {\"$literal\": {\"$numberLong\": \"4\"}}, "
+                                + "\"e\": {\"$add\": [\"$x\", 12]}, "
+                                + "\"f\": {\"$literal\": 0}, "
+                                + "\"_id\": 0}}"));
+        // Integer overflow is left to the server.
+        assertUnchanged(
+                "{\"$project\": {\"a\": {\"$add\": [{\"$numberLong\": \"9223372036854775807\"}, 1]}, \"_id\": 0}}");
+        // Literals are not folded.
+        assertUnchanged(
+                "{\"$project\": {\"a\": {\"$literal\": {\"$add\": [1, 2]}}, \"_id\": 0}}");
+        // Inclusion and exclusion flags are not turned into literals.
+        assertUnchanged(
+                "{\"$project\": {\"a\": 1, \"b\": true, \"c\": \"$x\", \"_id\": 0}}");
+    }
+
+    private static void assertOptimized(final List<Bson> before, final List<Bson> after) {
+        final List<BsonDocument> beforeCopy = toDocuments(before).stream()
+                .map(BsonDocument::clone)
+                .collect(Collectors.toList());
+        Assertions.assertEquals(toDocuments(after), toDocuments(DocumentDbPipelineOptimizer.optimize(before)));
+        // The original stages are not modified.
+        Assertions.assertEquals(beforeCopy, toDocuments(before));
+    }
+
+    private static void assertUnchanged(final String... stages) {
+        assertOptimized(parse(stages), parse(stages));
+    }
+
+    private static List<BsonDocument> toDocuments(final List<Bson> stages) {
+        return stages.stream().map(Bson::toBsonDocument).collect(Collectors.toList());
+    }
+
+    private static List<Bson> parse(final String... stages) {
+        return Arrays.stream(stages).map(BsonDocument::parse).collect(Collectors.toList());
+    }
+}
@@ -19,6 +19,8 @@ package software.amazon.documentdb.jdbc.query;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import org.bson.BsonDateTime;
 import org.bson.BsonDocument;
+import org.bson.BsonValue;
+import org.bson.conversions.Bson;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.DisplayName;
@@ -30,6 +32,15 @@ import software.amazon.documentdb.jdbc.common.utilities.SqlError;
 
 import java.sql.SQLException;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 
 @ExtendWith(DocumentDbFlapDoodleExtension.class)
 public class DocumentDbQueryMappingServiceBasicTest extends DocumentDbQueryMappingServiceTest {
@@ -224,7 +235,7 @@ public class DocumentDbQueryMappingServiceBasicTest extends DocumentDbQueryMappi
         Assertions.assertNotNull(result);
         Assertions.assertEquals(COLLECTION_NAME, result.getCollectionName());
         Assertions.assertEquals(5, result.getColumnMetaData().size());
-        Assertions.assertEquals(4, result.getAggregateOperations().size());
+        Assertions.assertEquals(3, result.getAggregateOperations().size());
         Assertions.assertEquals(
                 BsonDocument.parse(
                         "{ \"$unwind\": {"
@@ -233,14 +244,13 @@ public class DocumentDbQueryMappingServiceBasicTest extends DocumentDbQueryMappi
                                 + "\"preserveNullAndEmptyArrays\": true }}"),
                 result.getAggregateOperations().get(0));
         Assertions.assertEquals(
-                BsonDocument.parse("{\"$match\": {\"$or\": ["
+                BsonDocument.parse("{\"$match\": {\"$and\": ["
+                        + "{\"$or\": ["
                         + "{\"array.field\": {\"$exists\": true}}, "
                         + "{\"array.field1\": {\"$exists\": true}}, "
-                        + "{\"array.field2\": {\"$exists\": true}}]}}"),
+                        + "{\"array.field2\": {\"$exists\": true}}]}, "
+                        + "{\"array.field\": {\"$eq\": 1}}]}}"),
                 result.getAggregateOperations().get(1));
-        Assertions.assertEquals(
-                BsonDocument.parse("{\"$match\": {\"array.field\": {\"$eq\": 1}}}"),
-                result.getAggregateOperations().get(2));
         Assertions.assertEquals(
                 BsonDocument.parse(
                         "{\"$project\": "
@@ -250,7 +260,7 @@ public class DocumentDbQueryMappingServiceBasicTest extends DocumentDbQueryMappi
                                 + "\"field1\": \"$array.field1\", "
                                 + "\"field2\": \"$array.field2\", "
                                 + "\"_id\": 0}}"),
-        result.getAggregateOperations().get(3));
+        result.getAggregateOperations().get(2));
 
         final String queryWithCompoundWhere =
                 String.format(
@@ -260,7 +270,7 @@ public class DocumentDbQueryMappingServiceBasicTest extends DocumentDbQueryMappi
         Assertions.assertNotNull(result);
         Assertions.assertEquals(COLLECTION_NAME, result.getCollectionName());
         Assertions.assertEquals(5, result.getColumnMetaData().size());
-        Assertions.assertEquals(4, result.getAggregateOperations().size());
+        Assertions.assertEquals(3, result.getAggregateOperations().size());
         Assertions.assertEquals(
                 BsonDocument.parse(
                         "{ \"$unwind\": {"
@@ -269,15 +279,14 @@ public class DocumentDbQueryMappingServiceBasicTest extends DocumentDbQueryMappi
                                 + "\"preserveNullAndEmptyArrays\": true }}"),
                 result.getAggregateOperations().get(0));
         Assertions.assertEquals(
-                BsonDocument.parse("{\"$match\": {\"$or\": ["
+                BsonDocument.parse("{\"$match\": {\"$and\": ["
+                        + "{\"$or\": ["
                         + "{\"array.field\": {\"$exists\": true}}, "
                         + "{\"array.field1\": {\"$exists\": true}}, "
-                        + "{\"array.field2\": {\"$exists\": true}}]}}"),
+                        + "{\"array.field2\": {\"$exists\": true}}]}, "
+                        + "{\"array.field1\": {\"$eq\": \"value\"}}, "
+                        + "{\"array.field\": {\"$gt\": 0}}]}}"),
                 result.getAggregateOperations().get(1));
-        Assertions.assertEquals(
-                BsonDocument.parse(
-                        "{\"$match\": {\"$and\": [{\"array.field1\": {\"$eq\": \"value\"}}, {\"array.field\": {\"$gt\": 0}}]}}"),
-                result.getAggregateOperations().get(2));
         Assertions.assertEquals(
                 BsonDocument.parse(
                         "{\"$project\": "
@@ -287,7 +296,7 @@ public class DocumentDbQueryMappingServiceBasicTest extends DocumentDbQueryMappi
                                 + "\"field1\": \"$array.field1\", "
                                 + "\"field2\": \"$array.field2\", "
                                 + "\"_id\": 0}}"),
-                result.getAggregateOperations().get(3));
+                result.getAggregateOperations().get(2));
     }
 
     @Test
@@ -520,7 +529,7 @@ public class DocumentDbQueryMappingServiceBasicTest extends DocumentDbQueryMappi
         Assertions.assertNotNull(result);
         Assertions.assertEquals(COLLECTION_NAME, result.getCollectionName());
         Assertions.assertEquals(1, result.getColumnMetaData().size());
-        Assertions.assertEquals(4, result.getAggregateOperations().size());
+        Assertions.assertEquals(5, result.getAggregateOperations().size());
         Assertions.assertEquals(
                 BsonDocument.parse(
                         "{ \"$unwind\": {"
@@ -536,15 +545,16 @@ public class DocumentDbQueryMappingServiceBasicTest extends DocumentDbQueryMappi
                 result.getAggregateOperations().get(1));
         Assertions.assertEquals(
                 BsonDocument.parse(
-                        "{\"$group\": {\"_id\": {}, \"EXPR$0\": {\"$addToSet\": \"$array.field1\"}}}"),
+                        "{\"$group\": {\"_id\": {\"_value\": \"$array.field1\"}}}"),
                 result.getAggregateOperations().get(2));
         Assertions.assertEquals(
                 BsonDocument.parse(
-                        "{\"$project\": {"
-                                + "\"_id\": 0, "
-                                + "\"EXPR$0\": {\"$size\": {\"$filter\": {\"input\": \"$EXPR$0\", "
-                                + "\"cond\": {\"$gt\": [\"$$this\", null]}}}}}}"),
-                 result.getAggregateOperations().get(3));
+                        "{\"$group\": {\"_id\": {}, "
+                                + "\"EXPR$0\": {\"$sum\": {\"$cond\": [{\"$gt\": [\"$_id._value\", null]}, 1, 0]}}}}"),
+                result.getAggregateOperations().get(3));
+        Assertions.assertEquals(
+                BsonDocument.parse("{\"$project\": {\"_id\": 0, \"EXPR$0\": \"$EXPR$0\"}}"),
+                result.getAggregateOperations().get(4));
 
         final String queryWithAverage =
                 String.format(
@@ -580,7 +590,7 @@ public class DocumentDbQueryMappingServiceBasicTest extends DocumentDbQueryMappi
         Assertions.assertNotNull(result);
         Assertions.assertEquals(COLLECTION_NAME, result.getCollectionName());
         Assertions.assertEquals(1, result.getColumnMetaData().size());
-        Assertions.assertEquals(4, result.getAggregateOperations().size());
+        Assertions.assertEquals(5, result.getAggregateOperations().size());
         Assertions.assertEquals(
                 BsonDocument.parse(
                         "{ \"$unwind\": {"
@@ -596,11 +606,15 @@ public class DocumentDbQueryMappingServiceBasicTest extends DocumentDbQueryMappi
                 result.getAggregateOperations().get(1));
         Assertions.assertEquals(
                 BsonDocument.parse(
-                        "{\"$group\": {\"_id\": {}, \"EXPR$0\": {\"$addToSet\": \"$array.field\"}}}"),
+                        "{\"$group\": {\"_id\": {\"_value\": \"$array.field\"}}}"),
                 result.getAggregateOperations().get(2));
         Assertions.assertEquals(
-                BsonDocument.parse("{\"$project\": {\"_id\": 0, \"EXPR$0\": {\"$avg\": \"$EXPR$0\"}}}"),
+                BsonDocument.parse(
+                        "{\"$group\": {\"_id\": {}, \"EXPR$0\": {\"$avg\": \"$_id._value\"}}}"),
                 result.getAggregateOperations().get(3));
+        Assertions.assertEquals(
+                BsonDocument.parse("{\"$project\": {\"_id\": 0, \"EXPR$0\": \"$EXPR$0\"}}"),
+                result.getAggregateOperations().get(4));
 
         final String queryWithSum =
                 String.format(
@@ -644,7 +658,7 @@ public class DocumentDbQueryMappingServiceBasicTest extends DocumentDbQueryMappi
         Assertions.assertNotNull(result);
         Assertions.assertEquals(COLLECTION_NAME, result.getCollectionName());
         Assertions.assertEquals(1, result.getColumnMetaData().size());
-        Assertions.assertEquals(4, result.getAggregateOperations().size());
+        Assertions.assertEquals(5, result.getAggregateOperations().size());
         Assertions.assertEquals(
                 BsonDocument.parse(
                         "{ \"$unwind\": {"
@@ -660,15 +674,20 @@ public class DocumentDbQueryMappingServiceBasicTest extends DocumentDbQueryMappi
                 result.getAggregateOperations().get(1));
         Assertions.assertEquals(
                 BsonDocument.parse(
-                        "{\"$group\": {\"_id\": {}, \"EXPR$0\": {\"$addToSet\": \"$array.field\"}}}"),
+                        "{\"$group\": {\"_id\": {\"_value\": \"$array.field\"}}}"),
                 result.getAggregateOperations().get(2));
+        Assertions.assertEquals(
+                BsonDocument.parse(
+                        "{\"$group\": {\"_id\": {}, "
+                                + "\"EXPR$0\": {\"$sum\": \"$_id._value\"}, "
+                                + "\"EXPR$0_max\": {\"$max\": \"$_id._value\"}}}"),
+                result.getAggregateOperations().get(3));
         Assertions.assertEquals(
                 BsonDocument.parse(
                         "{\"$project\": {"
                                 + "\"_id\": 0, "
-                                + "\"EXPR$0\": {\"$cond\": [{\"$gt\": [{\"$size\": {\"$filter\": {\"input\": \"$EXPR$0\", "
-                                + "\"cond\": {\"$gt\": [\"$$this\", null]}}}}, 0]}, {\"$sum\": \"$EXPR$0\"}, null]}}}"),
-                result.getAggregateOperations().get(3));
+                                + "\"EXPR$0\": {\"$cond\": [{\"$gt\": [\"$EXPR$0_max\", null]}, \"$EXPR$0\", null]}}}"),
+                result.getAggregateOperations().get(4));
 
         final String queryWithMin =
                 String.format(
@@ -828,7 +847,7 @@ public class DocumentDbQueryMappingServiceBasicTest extends DocumentDbQueryMappi
         Assertions.assertNotNull(result);
         Assertions.assertEquals(COLLECTION_NAME, result.getCollectionName());
         Assertions.assertEquals(3, result.getColumnMetaData().size());
-        Assertions.assertEquals(9, result.getAggregateOperations().size());
+        Assertions.assertEquals(8, result.getAggregateOperations().size());
         Assertions.assertEquals(
                 BsonDocument.parse(
                         "{ \"$unwind\": {"
@@ -837,37 +856,36 @@ public class DocumentDbQueryMappingServiceBasicTest extends DocumentDbQueryMappi
                                 + "\"preserveNullAndEmptyArrays\": true }}"),
                 result.getAggregateOperations().get(0));
         Assertions.assertEquals(
-                BsonDocument.parse("{\"$match\": {\"$or\": ["
+                BsonDocument.parse("{\"$match\": {\"$and\": ["
+                        + "{\"$or\": ["
                         + "{\"array.field\": {\"$exists\": true}}, "
                         + "{\"array.field1\": {\"$exists\": true}}, "
-                        + "{\"array.field2\": {\"$exists\": true}}]}}"),
+                        + "{\"array.field2\": {\"$exists\": true}}]}, "
+                        + "{\"_id\": {\"$eq\": \"key\"}}]}}"),
                 result.getAggregateOperations().get(1));
-        Assertions.assertEquals(
-                BsonDocument.parse("{\"$match\": {\"_id\": {\"$eq\": \"key\"}}}"),
-                result.getAggregateOperations().get(2));
         Assertions.assertEquals(
                 BsonDocument.parse(
                         "{\"$group\": {"
                                 + "\"_id\": {\"testCollection__id\": \"$_id\", \"field\": \"$array.field\", \"field1\": \"$array.field1\"}, "
                                 + "\"Total\": {\"$sum\": 1}}}"),
-                result.getAggregateOperations().get(3));
+                result.getAggregateOperations().get(2));
         Assertions.assertEquals(
                 BsonDocument.parse(
                         "{\"$project\": {\"_id\": 0, \"testCollection__id\": \"$_id.testCollection__id\", \"field\": \"$_id.field\", \"field1\": \"$_id.field1\", \"Total\": \"$Total\"}}"),
-                result.getAggregateOperations().get(4));
+                result.getAggregateOperations().get(3));
         Assertions.assertEquals(
                 BsonDocument.parse("{\"$match\": {\"Total\": {\"$gt\": 1}}}"),
-                result.getAggregateOperations().get(5));
+                result.getAggregateOperations().get(4));
         Assertions.assertEquals(
                 BsonDocument.parse("{\"$sort\": {\"field\": 1}}"),
-                result.getAggregateOperations().get(6));
+                result.getAggregateOperations().get(5));
         Assertions.assertEquals(
                 BsonDocument.parse("{\"$limit\": {\"$numberLong\": \"1\"}}}"),
-                result.getAggregateOperations().get(7));
+                result.getAggregateOperations().get(6));
         Assertions.assertEquals(
                 BsonDocument.parse(
                         "{\"$project\": {\"testCollection__id\": \"$testCollection__id\", \"renamed\": \"$field\", \"Total\": \"$Total\", \"_id\": 0}}"),
-                result.getAggregateOperations().get(8));
+                result.getAggregateOperations().get(7));
     }
 
     @Test
@@ -1037,7 +1055,7 @@ public class DocumentDbQueryMappingServiceBasicTest extends DocumentDbQueryMappi
         Assertions.assertNotNull(result);
         Assertions.assertEquals(COLLECTION_NAME, result.getCollectionName());
         Assertions.assertEquals(2, result.getColumnMetaData().size());
-        Assertions.assertEquals(10, result.getAggregateOperations().size());
+        Assertions.assertEquals(9, result.getAggregateOperations().size());
         Assertions.assertEquals(
                 BsonDocument.parse(
                         "{\"$addFields\": {\"testCollection__id0\": {\"$cond\": [{\"$or\": [{\"$ifNull\": [\"$array.field2\", false]}, " +
@@ -1052,40 +1070,39 @@ public class DocumentDbQueryMappingServiceBasicTest extends DocumentDbQueryMappi
                 result.getAggregateOperations().get(1));
         Assertions.assertEquals(
                 BsonDocument.parse(
-                        "{\"$match\": {\"$or\": [{\"array.field2\": {\"$exists\": true}}, {\"array.field\": {\"$exists\": true}}, {\"array.field1\": {\"$exists\": true}}]}}"),
+                        "{\"$match\": {\"$and\": ["
+                                + "{\"$or\": [{\"array.field2\": {\"$exists\": true}}, {\"array.field\": {\"$exists\": true}}, {\"array.field1\": {\"$exists\": true}}]}, "
+                                + "{\"array.field\": {\"$gt\": 1}}]}}"),
                 result.getAggregateOperations().get(2));
-        Assertions.assertEquals(
-                BsonDocument.parse("{\"$match\": {\"array.field\": {\"$gt\": 1}}}"),
-                result.getAggregateOperations().get(3));
         Assertions.assertEquals(
                 BsonDocument.parse(
                         "{\"$group\": {\"_id\": {\"testCollection__id\": \"$_id\", \"field\": \"$array.field\", \"field1\": \"$array.field1\"}, \"Total\": {\"$sum\": 1}}}"),
-                result.getAggregateOperations().get(4));
+                result.getAggregateOperations().get(3));
         Assertions.assertEquals(
                 BsonDocument.parse(
                         "{\"$project\": {\"_id\": 0, \"testCollection__id\": \"$_id.testCollection__id\", \"field\": \"$_id.field\", \"field1\": \"$_id.field1\", \"Total\": \"$Total\"}}"),
-                result.getAggregateOperations().get(5));
+                result.getAggregateOperations().get(4));
         Assertions.assertEquals(
                 BsonDocument.parse("{\"$match\": {\"Total\": {\"$gt\": 1}}}"),
-                result.getAggregateOperations().get(6));
+                result.getAggregateOperations().get(5));
         Assertions.assertEquals(
                 BsonDocument.parse(
                         "{\"$project\": {\"renamed\": \"$field\", \"Total\": \"$Total\", \"_id\": 0}}"),
-                result.getAggregateOperations().get(7));
+                result.getAggregateOperations().get(6));
         Assertions.assertEquals(
                 BsonDocument.parse("{\"$sort\": {\"renamed\": 1}}"),
-                result.getAggregateOperations().get(8));
+                result.getAggregateOperations().get(7));
         Assertions.assertEquals(
                 BsonDocument.parse("{\"$limit\": {\"$numberLong\": \"1\"}}"),
-                result.getAggregateOperations().get(9));
+                result.getAggregateOperations().get(8));
     }
 
     @Test
     @DisplayName("Tests that a valid query that cannot be executed purely with aggregate throws an exception.")
     void testUnsupportedQuery() {
-        // Union requires 2 separate calls.
+        // Intersect keeping duplicates requires 2 separate calls.
         final String query =
-                String.format("SELECT * FROM \"%s\".\"%s\" UNION SELECT \"%s\" FROM \"%s\".\"%s\"",
+                String.format("SELECT * FROM \"%s\".\"%s\" INTERSECT ALL SELECT \"%s\" FROM \"%s\".\"%s\"",
                         getDatabaseName(), COLLECTION_NAME, COLLECTION_NAME + "__id", getDatabaseName(), COLLECTION_NAME + "_array");
         Assertions.assertEquals(SqlError.lookup(SqlError.UNSUPPORTED_SQL, query),
                 Assertions.assertThrows(SQLException.class, () -> queryMapper.get(query))
@@ -1148,7 +1165,7 @@ public class DocumentDbQueryMappingServiceBasicTest extends DocumentDbQueryMappi
                                 + "\"pipeline\": ["
                                 + "{\"$unwind\": {\"path\": \"$otherArray\", \"preserveNullAndEmptyArrays\": true, \"includeArrayIndex\": \"otherArray_index_lvl_0\"}}, "
                                 + "{\"$match\": {\"$or\": [{\"otherArray.field\": {\"$exists\": true}}, {\"otherArray.field3\": {\"$exists\": true}}]}}, "
-                                + "{\"$match\": {\"$expr\": {\"$eq\": [\"$$testCollection__id\", \"$_id\"]}}}], "
+                                + "{\"$match\": {\"$expr\": {\"$and\": [{\"$eq\": [\"$$testCollection__id\", \"$_id\"]}, {\"$gt\": [\"$$testCollection__id\", null]}]}}}], "
                                 + "\"as\": \"otherTestCollection_otherArray\"}}"),
         result.getAggregateOperations().get(2));
         Assertions.assertEquals(
@@ -1209,7 +1226,7 @@ public class DocumentDbQueryMappingServiceBasicTest extends DocumentDbQueryMappi
                                 + "\"pipeline\": ["
                                 + "{\"$unwind\": {\"path\": \"$otherArray\", \"preserveNullAndEmptyArrays\": true, \"includeArrayIndex\": \"otherArray_index_lvl_0\"}}, "
                                 + "{\"$match\": {\"$or\": [{\"otherArray.field\": {\"$exists\": true}}, {\"otherArray.field3\": {\"$exists\": true}}]}}, "
-                                + "{\"$match\": {\"$expr\": {\"$eq\": [\"$$testCollection__id\", \"$_id\"]}}}], "
+                                + "{\"$match\": {\"$expr\": {\"$and\": [{\"$eq\": [\"$$testCollection__id\", \"$_id\"]}, {\"$gt\": [\"$$testCollection__id\", null]}]}}}], "
                                 + "\"as\": \"otherTestCollection_otherArray\"}}"),
                 result.getAggregateOperations().get(2));
         Assertions.assertEquals(
@@ -1232,6 +1249,142 @@ public class DocumentDbQueryMappingServiceBasicTest extends DocumentDbQueryMappi
                 result.getAggregateOperations().get(4));
     }
 
+    @Test
+    @DisplayName("Tests that a join on the primary key of another collection uses the localField form of $lookup.")
+    void testDifferentCollectionJoinOnPrimaryKey() throws SQLException {
+        final String innerJoin =
+                String.format(
+                        "SELECT * FROM \"%s\".\"%s\""
+                                + "INNER JOIN \"%s\".\"%s\""
+                                + "ON \"%s\".\"%s\" = \"%s\".\"%s\"",
+                        getDatabaseName(),
+                        COLLECTION_NAME + "_array",
+                        getDatabaseName(),
+                        OTHER_COLLECTION_NAME,
+                        COLLECTION_NAME + "_array",
+                        COLLECTION_NAME + "__id",
+                        OTHER_COLLECTION_NAME,
+                        OTHER_COLLECTION_NAME + "__id");
+        final DocumentDbMqlQueryContext result = queryMapper.get(innerJoin);
+        Assertions.assertNotNull(result);
+        Assertions.assertEquals(COLLECTION_NAME, result.getCollectionName());
+        final BsonDocument lookup = result.getAggregateOperations().stream()
+                .map(Bson::toBsonDocument)
+                .filter(stage -> stage.containsKey("$lookup"))
+                .findFirst()
+                .orElse(null);
+        Assertions.assertEquals(
+                BsonDocument.parse(
+                        "{\"$lookup\": {"
+                                + "\"from\": \"otherTestCollection\", "
+                                + "\"localField\": \"_id\", "
+                                + "\"foreignField\": \"_id\", "
+                                + "\"as\": \"otherTestCollection\"}}"),
+                lookup);
+    }
+
+    @Test
+    @DisplayName("Tests that the right side of a join is aggregated in the $lookup when grouping by the left side.")
+    void testDifferentCollectionJoinWithPreAggregation() throws SQLException {
+        final String query =
+                String.format(
+                        "SELECT \"%2$s\".\"%3$s\", COUNT(*) AS \"Total\", MAX(\"%4$s\".\"field3\") AS \"Max\" "
+                                + "FROM \"%1$s\".\"%2$s\" "
+                                + "INNER JOIN \"%1$s\".\"%4$s\" ON \"%2$s\".\"%3$s\" = \"%4$s\".\"%5$s\" "
+                                + "GROUP BY \"%2$s\".\"%3$s\"",
+                        getDatabaseName(),
+                        COLLECTION_NAME + "_array",
+                        COLLECTION_NAME + "__id",
+                        OTHER_COLLECTION_NAME + "_otherArray",
+                        OTHER_COLLECTION_NAME + "__id");
+        final DocumentDbMqlQueryContext result = queryMapper.get(query);
+        Assertions.assertNotNull(result);
+        Assertions.assertEquals(3, result.getColumnMetaData().size());
+        Assertions.assertEquals(6, result.getAggregateOperations().size());
+        Assertions.assertEquals(
+                BsonDocument.parse(
+                        "{ \"$unwind\": {"
+                                + "\"path\": \"$array\", "
+                                + "\"includeArrayIndex\" : \"array_index_lvl_0\", "
+                                + "\"preserveNullAndEmptyArrays\": true }}"),
+                result.getAggregateOperations().get(0));
+        Assertions.assertEquals(
+                BsonDocument.parse(
+                        "{\"$match\": {\"$or\": "
+                                + "[{\"array.field\": {\"$exists\": true}}, "
+                                + "{\"array.field1\": {\"$exists\": true}}, "
+                                + "{\"array.field2\": {\"$exists\": true}}] }}"),
+                result.getAggregateOperations().get(1));
+        // Matching documents of the right side are grouped by the join key before the join. The
+        // join condition is matched first, so only the documents of the left key are grouped.
+        Assertions.assertEquals(
+                BsonDocument.parse(
+                        "{\"$lookup\": {"
+                                + "\"from\": \"otherTestCollection\", "
+                                + "\"let\": {\"testCollection__id\": \"$_id\"}, "
+                                + "\"pipeline\": ["
+                                + "{\"$unwind\": {\"path\": \"$otherArray\", \"preserveNullAndEmptyArrays\": true, \"includeArrayIndex\": \"otherArray_index_lvl_0\"}}, "
+                                + "{\"$match\": {\"$or\": [{\"otherArray.field\": {\"$exists\": true}}, {\"otherArray.field3\": {\"$exists\": true}}]}}, "
+                                + "{\"$match\": {\"$expr\": {\"$and\": [{\"$eq\": [\"$$testCollection__id\", \"$_id\"]}, {\"$gt\": [\"$$testCollection__id\", null]}]}}}, "
+                                + "{\"$group\": {\"_id\": \"$_id\", \"_f1\": {\"$sum\": 1}, \"_f2\": {\"$max\": \"$otherArray.field3\"}}}, "
+                                + "{\"$project\": {\"otherTestCollection__id\": \"$_id\", \"_f1\": \"$_f1\", \"_f2\": \"$_f2\"}}, "
+                                + "{\"$project\": {\"otherTestCollection__id\": 1, \"_f1\": 1, \"_f2\": 1, \"_id\": 0}}], "
+                                + "\"as\": \"otherTestCollection_otherArray\"}}"),
+                result.getAggregateOperations().get(2));
+        Assertions.assertEquals(
+                BsonDocument.parse(
+                        "{\"$unwind\": {\"path\": \"$otherTestCollection_otherArray\", \"preserveNullAndEmptyArrays\": false}}"),
+                result.getAggregateOperations().get(3));
+        // The partial aggregates are combined after the join.
+        Assertions.assertEquals(
+                BsonDocument.parse(
+                        "{\"$group\": {\"_id\": \"$_id\", "
+                                + "\"Total\": {\"$sum\": \"$otherTestCollection_otherArray._f1\"}, "
+                                + "\"Max\": {\"$max\": \"$otherTestCollection_otherArray._f2\"}}}"),
+                result.getAggregateOperations().get(4));
+        Assertions.assertEquals(
+                BsonDocument.parse(
+                        "{\"$project\": {\"testCollection__id\": \"$_id\", \"Total\": \"$Total\", \"Max\": \"$Max\"}}"),
+                result.getAggregateOperations().get(5));
+    }
+
+    @Test
+    @DisplayName("Tests that an IN subquery on another collection is pushed down as a semi-join.")
+    void testDifferentCollectionSemiJoin() throws SQLException {
+        final String query =
+                String.format(
+                        "SELECT * FROM \"%1$s\".\"%2$s\" "
+                                + "WHERE \"%2$s\".\"%3$s\" IN (SELECT \"%4$s\".\"%5$s\" FROM \"%1$s\".\"%4$s\")",
+                        getDatabaseName(),
+                        COLLECTION_NAME + "_array",
+                        COLLECTION_NAME + "__id",
+                        OTHER_COLLECTION_NAME + "_otherArray",
+                        OTHER_COLLECTION_NAME + "__id");
+        final DocumentDbMqlQueryContext result = queryMapper.get(query);
+        Assertions.assertNotNull(result);
+        Assertions.assertEquals(COLLECTION_NAME, result.getCollectionName());
+        Assertions.assertEquals(5, result.getColumnMetaData().size());
+        final List<BsonDocument> stages = result.getAggregateOperations().stream()
+                .map(Bson::toBsonDocument)
+                .collect(Collectors.toList());
+        final int lookupIndex = getStageIndex(stages, "$lookup");
+        Assertions.assertTrue(lookupIndex >= 0);
+        // The sub-pipeline stops at the first match and does not return its fields.
+        final List<BsonValue> pipeline = stages.get(lookupIndex).getDocument("$lookup").getArray("pipeline");
+        Assertions.assertEquals(
+                BsonDocument.parse("{\"$limit\": 1}"), pipeline.get(pipeline.size() - 2));
+        Assertions.assertEquals(
+                BsonDocument.parse("{\"$project\": {\"_id\": 1}}"), pipeline.get(pipeline.size() - 1));
+        // Only rows with a match are kept and the matches are removed.
+        Assertions.assertEquals(
+                BsonDocument.parse(
+                        "{\"$match\": {\"otherTestCollection_otherArray\": {\"$not\": {\"$size\": 0}}}}"),
+                stages.get(lookupIndex + 1));
+        Assertions.assertEquals(
+                BsonDocument.parse("{\"$project\": {\"otherTestCollection_otherArray\": 0}}"),
+                stages.get(lookupIndex + 2));
+    }
+
     @Test
     @DisplayName("Tests that a statement with project, where, group by, having, order, and limit "
             + "works for tables from different collections.")
@@ -1270,7 +1423,9 @@ public class DocumentDbQueryMappingServiceBasicTest extends DocumentDbQueryMappi
                                     + "\"pipeline\": ["
                                     + "{\"$unwind\": {\"path\": \"$array\", \"preserveNullAndEmptyArrays\": true, \"includeArrayIndex\": \"array_index_lvl_0\"}}, "
                                     + "{\"$match\": {\"$or\": [{\"array.field\": {\"$exists\": true}}, {\"array.field1\": {\"$exists\": true}}, {\"array.field2\": {\"$exists\": true}}]}}, "
-                                    + "{\"$match\": {\"$expr\": {\"$eq\": [\"$$otherTestCollection__id\", \"$_id\"]}}}], \"as\": \"testCollection_array\"}}"),
+                                    + "{\"$match\": {\"$expr\": {\"$and\": [{\"$eq\": [\"$$otherTestCollection__id\", \"$_id\"]}, {\"$gt\": [\"$$otherTestCollection__id\", null]}]}}}, "
+                                    + "{\"$project\": {\"_id\": 1, \"array.field\": 1, \"array.field1\": 1}}], "
+                                    + "\"as\": \"testCollection_array\"}}"),
         result.getAggregateOperations().get(0));
         Assertions.assertEquals(
                 BsonDocument.parse("{\"$unwind\": {\"path\": \"$testCollection_array\", \"preserveNullAndEmptyArrays\": false}}"),
@@ -1812,18 +1967,188 @@ public class DocumentDbQueryMappingServiceBasicTest extends DocumentDbQueryMappi
                 result.getAggregateOperations().get(1));
         Assertions.assertEquals(
                 BsonDocument.parse(
-                        "{\"$group\": {"
-                                + "\"_id\": {}, "
-                                + "\"_f0\": {\"$addToSet\": \"$array.field\"}, "
-                                + "\"_f1\": {\"$addToSet\": \"$array.field\"}}}"),
+                        "{\"$group\": {\"_id\": {\"_value\": \"$array.field\"}}}"),
                 result.getAggregateOperations().get(2));
         Assertions.assertEquals(
                 BsonDocument.parse(
-                        "{\"$project\": {\"_id\": 0, \"_f0\": {\"$sum\": \"$_f0\"}, \"_f1\": {\"$size\": {\"$filter\": {\"input\": \"$_f1\", \"cond\": {\"$gt\": [\"$$this\", null]}}}}}}"),
+                        "{\"$group\": {"
+                                + "\"_id\": {}, "
+                                + "\"_f0\": {\"$sum\": \"$_id._value\"}, "
+                                + "\"_f1\": {\"$sum\": {\"$cond\": [{\"$gt\": [\"$_id._value\", null]}, 1, 0]}}}}"),
                 result.getAggregateOperations().get(3));
         Assertions.assertEquals(
                 BsonDocument.parse(
                         "{\"$project\": {\"EXPR$0\": {\"$divide\": [{\"$cond\": [{\"$cond\": [{\"$and\": [{\"$gt\": [\"$_f1\", null]}, {\"$gt\": [{\"$literal\": 0}, null]}]}, {\"$eq\": [\"$_f1\", {\"$literal\": 0}]}, null]}, null, \"$_f0\"]}, \"$_f1\"]}, \"_id\": 0}}"),
                 result.getAggregateOperations().get(4));
     }
+
+    @Test
+    @DisplayName("Tests that distinct aggregates with a GROUP BY use two $group stages.")
+    void testAggregateWithDistinctAndGroupBy() throws SQLException {
+        final String query =
+                String.format(
+                        "SELECT \"%1$s\", COUNT(DISTINCT \"%2$s\"), MAX(\"%3$s\") FROM \"%4$s\".\"%5$s\" "
+                                + "GROUP BY \"%1$s\"",
+                        "field1", "field", "field2", getDatabaseName(), COLLECTION_NAME + "_array");
+        final DocumentDbMqlQueryContext result = queryMapper.get(query);
+        Assertions.assertNotNull(result);
+        Assertions.assertEquals(3, result.getColumnMetaData().size());
+        final List<BsonDocument> groups = result.getAggregateOperations().stream()
+                .map(Bson::toBsonDocument)
+                .filter(stage -> stage.containsKey("$group"))
+                .map(stage -> stage.getDocument("$group"))
+                .collect(Collectors.toList());
+        Assertions.assertEquals(2, groups.size());
+        // The first stage groups on the group key and the distinct value.
+        Assertions.assertEquals(2, groups.get(0).getDocument("_id").size());
+        Assertions.assertTrue(groups.get(0).getDocument("_id").containsKey("_value"));
+        Assertions.assertTrue(groups.get(0).getDocument("EXPR$2").containsKey("$max"));
+        // The second stage groups on the group key only.
+        Assertions.assertEquals("$_id.field1", groups.get(1).getString("_id").getValue());
+        Assertions.assertEquals(
+                BsonDocument.parse("{\"$sum\": {\"$cond\": [{\"$gt\": [\"$_id._value\", null]}, 1, 0]}}"),
+                groups.get(1).getDocument("EXPR$1"));
+        Assertions.assertEquals(
+                BsonDocument.parse("{\"$max\": \"$EXPR$2\"}"),
+                groups.get(1).getDocument("EXPR$2"));
+    }
+
+    @Test
+    @DisplayName("Tests that APPROX_COUNT_DISTINCT is computed exactly with two $group stages.")
+    void testApproximateCountDistinct() throws SQLException {
+        final String query =
+                String.format(
+                        "SELECT APPROX_COUNT_DISTINCT(\"%s\") FROM \"%s\".\"%s\"",
+                        "field1", getDatabaseName(), COLLECTION_NAME + "_array");
+        final DocumentDbMqlQueryContext result = queryMapper.get(query);
+        Assertions.assertNotNull(result);
+        Assertions.assertEquals(5, result.getAggregateOperations().size());
+        Assertions.assertEquals(
+                BsonDocument.parse(
+                        "{\"$group\": {\"_id\": {\"_value\": \"$array.field1\"}}}"),
+                result.getAggregateOperations().get(2));
+        Assertions.assertEquals(
+                BsonDocument.parse(
+                        "{\"$group\": {\"_id\": {}, "
+                                + "\"EXPR$0\": {\"$sum\": {\"$cond\": [{\"$gt\": [\"$_id._value\", null]}, 1, 0]}}}}"),
+                result.getAggregateOperations().get(3));
+    }
+
+    @Test
+    @DisplayName("Tests that the translation of a query is reused for the same SQL and max row count.")
+    void testTranslationReused() throws SQLException {
+        final String query =
+                String.format(
+                        "SELECT * FROM \"%s\".\"%s\"", getDatabaseName(), DATE_COLLECTION_NAME);
+        final DocumentDbMqlQueryContext result = queryMapper.get(query);
+        Assertions.assertSame(result, queryMapper.get(query));
+
+        // A different max row count changes the pipeline.
+        final DocumentDbMqlQueryContext limitedResult = queryMapper.get(query, 10);
+        Assertions.assertNotSame(result, limitedResult);
+        Assertions.assertSame(limitedResult, queryMapper.get(query, 10));
+        Assertions.assertEquals(
+                result.getAggregateOperations().size() + 1, limitedResult.getAggregateOperations().size());
+    }
+
+    @Test
+    @DisplayName("Tests that reusing the translations of a set of queries takes less time than translating them.")
+    void testTranslationReuseTimings() throws SQLException {
+        final List<String> queries = Arrays.asList(
+                String.format("SELECT * FROM \"%s\".\"%s\"", getDatabaseName(), COLLECTION_NAME),
+                String.format("SELECT * FROM \"%s\".\"%s\" WHERE \"field\" > 1",
+                        getDatabaseName(), COLLECTION_NAME + "_array"),
+                String.format("SELECT \"field\", COUNT(*) FROM \"%s\".\"%s\" GROUP BY \"field\"",
+                        getDatabaseName(), COLLECTION_NAME + "_array"),
+                String.format("SELECT * FROM \"%s\".\"%s\" ORDER BY \"field\" LIMIT 2",
+                        getDatabaseName(), OTHER_COLLECTION_NAME + "_otherArray"));
+        // Translate the queries with a new service, so nothing is reused from the cache.
+        final DocumentDbQueryMappingService service = getQueryMappingService();
+        final long translationStart = System.nanoTime();
+        for (String query : queries) {
+            service.get(query);
+        }
+        final long translationNanos = System.nanoTime() - translationStart;
+        final long reuseStart = System.nanoTime();
+        for (String query : queries) {
+            service.get(query);
+        }
+        final long reuseNanos = System.nanoTime() - reuseStart;
+        Assertions.assertTrue(reuseNanos < translationNanos,
+                String.format("Translated in %d ns, reused in %d ns.", translationNanos, reuseNanos));
+    }
+
+    @Test
+    @DisplayName("Tests that statements sharing the service can translate queries at the same time.")
+    void testConcurrentTranslation() throws Exception {
+        final List<String> queries = Arrays.asList(
+                String.format("SELECT * FROM \"%s\".\"%s\"", getDatabaseName(), COLLECTION_NAME),
+                String.format("SELECT * FROM \"%s\".\"%s\" WHERE \"field\" > 1",
+                        getDatabaseName(), COLLECTION_NAME + "_array"),
+                String.format("SELECT \"field\", COUNT(*) FROM \"%s\".\"%s\" GROUP BY \"field\"",
+                        getDatabaseName(), COLLECTION_NAME + "_array"),
+                String.format("SELECT * FROM \"%s\".\"%s\" ORDER BY \"field\" LIMIT 2",
+                        getDatabaseName(), OTHER_COLLECTION_NAME + "_otherArray"));
+        // Translate the queries with a new service, so nothing is reused from the cache.
+        final DocumentDbQueryMappingService service = getQueryMappingService();
+        final CountDownLatch start = new CountDownLatch(1);
+        final ExecutorService executor = Executors.newFixedThreadPool(queries.size());
+        try {
+            final List<Future<DocumentDbMqlQueryContext>> results = new ArrayList<>();
+            for (String query : queries) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return service.get(query);
+                }));
+            }
+            start.countDown();
+            for (int i = 0; i < queries.size(); i++) {
+                Assertions.assertEquals(
+                        queryMapper.get(queries.get(i)).getAggregateOperations(),
+                        results.get(i).get(30, TimeUnit.SECONDS).getAggregateOperations());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("Tests that COUNT(*) on a base table is run as a count command.")
+    void testCountStar() throws SQLException {
+        final String query =
+                String.format(
+                        "SELECT COUNT(*) FROM \"%s\".\"%s\"", getDatabaseName(), DATE_COLLECTION_NAME);
+        DocumentDbMqlQueryContext result = queryMapper.get(query);
+        Assertions.assertNotNull(result);
+        Assertions.assertNotNull(result.getCountQuery());
+        Assertions.assertEquals(new BsonDocument(), result.getCountQuery().getFilter());
+
+        // The pushed-down filter is used to count the documents.
+        final String filterQuery =
+                String.format(
+                        "SELECT COUNT(*) FROM \"%s\".\"%s\" WHERE \"%s\" = 101",
+                        getDatabaseName(), DATE_COLLECTION_NAME, DATE_COLLECTION_NAME + "__id");
+        result = queryMapper.get(filterQuery);
+        Assertions.assertNotNull(result.getCountQuery());
+        Assertions.assertEquals(
+                result.getAggregateOperations().get(0).toBsonDocument().getDocument("$match"),
+                result.getCountQuery().getFilter());
+
+        // Rows of virtual tables and groups are counted with an aggregation.
+        Assertions.assertNull(queryMapper.get(
+                String.format("SELECT COUNT(*) FROM \"%s\".\"%s\"",
+                        getDatabaseName(), COLLECTION_NAME + "_array")).getCountQuery());
+        Assertions.assertNull(queryMapper.get(
+                String.format("SELECT COUNT(*) FROM \"%s\".\"%s\" GROUP BY \"%s\"",
+                        getDatabaseName(), DATE_COLLECTION_NAME, "field")).getCountQuery());
+    }
+
+    private static int getStageIndex(final List<BsonDocument> stages, final String stageName) {
+        for (int i = 0; i < stages.size(); i++) {
+            if (stages.get(i).containsKey(stageName)) {
+                return i;
+            }
+        }
+        return -1;
+    }
 }
@@ -249,6 +249,29 @@ public class DocumentDbQueryMappingServiceDateTimeTest extends DocumentDbQueryMa
                 result3.getAggregateOperations().get(0));
     }
 
+    /**
+     * Tests that CURRENT_TIMESTAMP is translated again for each execution of the same query.
+     * @throws Exception occurs if query fails.
+     */
+    @Test
+    @DisplayName("Tests that CURRENT_TIMESTAMP is translated again for each execution of the same query.")
+    void testCurrentTimestampNotReused() throws Exception {
+        final String currentTimestampQuery =
+                String.format(
+                        "SELECT CURRENT_TIMESTAMP AS \"cts\""
+                                + " FROM \"%s\".\"%s\"",
+                        getDatabaseName(), DATE_COLLECTION_NAME);
+        final DocumentDbMqlQueryContext result1 = queryMapper.get(currentTimestampQuery);
+        final long firstTime = result1.getAggregateOperations().get(0).toBsonDocument()
+                .getDocument("$project").getDateTime("cts").getValue();
+        Thread.sleep(10);
+        final DocumentDbMqlQueryContext result2 = queryMapper.get(currentTimestampQuery);
+        final long secondTime = result2.getAggregateOperations().get(0).toBsonDocument()
+                .getDocument("$project").getDateTime("cts").getValue();
+        Assertions.assertNotSame(result1, result2);
+        Assertions.assertTrue(secondTime > firstTime);
+    }
+
     /**
      * Tests TIMESTAMPADD for MONTH, YEAR or QUARTER.
      */
@@ -16,7 +16,9 @@
 
 package software.amazon.documentdb.jdbc.query;
 
+import org.bson.BsonArray;
 import org.bson.BsonDocument;
+import org.bson.BsonInt32;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.DisplayName;
@@ -26,6 +28,8 @@ import software.amazon.documentdb.jdbc.calcite.adapter.DocumentDbFilter;
 import software.amazon.documentdb.jdbc.common.test.DocumentDbFlapDoodleExtension;
 
 import java.sql.SQLException;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 @ExtendWith(DocumentDbFlapDoodleExtension.class)
 public class DocumentDbQueryMappingServiceFilterTest extends DocumentDbQueryMappingServiceTest {
@@ -53,19 +57,17 @@ public class DocumentDbQueryMappingServiceFilterTest extends DocumentDbQueryMapp
         Assertions.assertNotNull(result);
         Assertions.assertEquals(COLLECTION_NAME, result.getCollectionName());
         Assertions.assertEquals(5, result.getColumnMetaData().size());
-        Assertions.assertEquals(4, result.getAggregateOperations().size());
+        Assertions.assertEquals(3, result.getAggregateOperations().size());
         Assertions.assertEquals(
                 BsonDocument.parse(
                         "{\"$unwind\": {\"path\": \"$array\", \"preserveNullAndEmptyArrays\": true, \"includeArrayIndex\": \"array_index_lvl_0\"}}"),
                 result.getAggregateOperations().get(0));
         Assertions.assertEquals(
                 BsonDocument.parse(
-                        "{\"$match\": {\"$or\": [{\"array.field\": {\"$exists\": true}}, {\"array.field1\": {\"$exists\": true}}, {\"array.field2\": {\"$exists\": true}}]}}"),
+                        "{\"$match\": {\"$and\": ["
+                                + "{\"$or\": [{\"array.field\": {\"$exists\": true}}, {\"array.field1\": {\"$exists\": true}}, {\"array.field2\": {\"$exists\": true}}]}, "
+                                + "{\"array.field\": {\"$in\": [2, 3]}}]}}"),
                 result.getAggregateOperations().get(1));
-        Assertions.assertEquals(
-                BsonDocument.parse(
-                        "{\"$match\": {\"$or\": [{\"array.field\": {\"$eq\": 2}}, {\"array.field\": {\"$eq\": 3}}]}}"),
-                result.getAggregateOperations().get(2));
         Assertions.assertEquals(
                 BsonDocument.parse(
                         "{\"$project\": {"
@@ -75,7 +77,7 @@ public class DocumentDbQueryMappingServiceFilterTest extends DocumentDbQueryMapp
                                 + "\"field1\": \"$array.field1\", "
                                 + "\"field2\": \"$array.field2\", "
                                 + "\"_id\": 0}}"),
-                result.getAggregateOperations().get(3));
+                result.getAggregateOperations().get(2));
     }
 
     @Test
@@ -88,19 +90,17 @@ public class DocumentDbQueryMappingServiceFilterTest extends DocumentDbQueryMapp
         Assertions.assertNotNull(result);
         Assertions.assertEquals(COLLECTION_NAME, result.getCollectionName());
         Assertions.assertEquals(5, result.getColumnMetaData().size());
-        Assertions.assertEquals(4, result.getAggregateOperations().size());
+        Assertions.assertEquals(3, result.getAggregateOperations().size());
         Assertions.assertEquals(
                 BsonDocument.parse(
                         "{\"$unwind\": {\"path\": \"$array\", \"preserveNullAndEmptyArrays\": true, \"includeArrayIndex\": \"array_index_lvl_0\"}}"),
                 result.getAggregateOperations().get(0));
         Assertions.assertEquals(
                 BsonDocument.parse(
-                        "{\"$match\": {\"$or\": [{\"array.field\": {\"$exists\": true}}, {\"array.field1\": {\"$exists\": true}}, {\"array.field2\": {\"$exists\": true}}]}}"),
+                        "{\"$match\": {\"$and\": ["
+                                + "{\"$or\": [{\"array.field\": {\"$exists\": true}}, {\"array.field1\": {\"$exists\": true}}, {\"array.field2\": {\"$exists\": true}}]}, "
+                                + "{\"array.field\": {\"$nin\": [null, 2, 3]}}]}}"),
                 result.getAggregateOperations().get(1));
-        Assertions.assertEquals(
-                BsonDocument.parse(
-                        "{\"$match\": {\"$and\": [{\"array.field\": {\"$nin\": [null, 2]}}, {\"array.field\": {\"$nin\": [null, 3]}}]}}"),
-                result.getAggregateOperations().get(2));
         Assertions.assertEquals(
                 BsonDocument.parse(
                         "{\"$project\": {"
@@ -110,7 +110,69 @@ public class DocumentDbQueryMappingServiceFilterTest extends DocumentDbQueryMapp
                                 + "\"field1\": \"$array.field1\", "
                                 + "\"field2\": \"$array.field2\", "
                                 + "\"_id\": 0}}"),
-                result.getAggregateOperations().get(3));
+                result.getAggregateOperations().get(2));
+    }
+
+    @Test
+    @DisplayName("Tests that an IN list with many values is translated to a single $in.")
+    void testQueryWithLargeIn() throws SQLException {
+        final int valueCount = 1000;
+        final String values = IntStream.range(0, valueCount)
+                .mapToObj(i -> String.valueOf(i * 2))
+                .collect(Collectors.joining(", "));
+        final String query =
+                String.format(
+                        "SELECT * FROM \"%s\".\"%s\" WHERE \"field\" IN (%s)",
+                        getDatabaseName(), COLLECTION_NAME + "_array", values);
+        final DocumentDbMqlQueryContext result = queryMapper.get(query);
+        Assertions.assertNotNull(result);
+        Assertions.assertEquals(COLLECTION_NAME, result.getCollectionName());
+        Assertions.assertEquals(3, result.getAggregateOperations().size());
+        final BsonDocument match = result.getAggregateOperations().get(1).toBsonDocument();
+        // The condition follows the null filter of the virtual table.
+        final BsonArray conditions = match.getDocument("$match").getArray("$and");
+        Assertions.assertEquals(2, conditions.size());
+        Assertions.assertEquals(1, conditions.get(1).asDocument().size());
+        final BsonArray inValues = conditions.get(1).asDocument()
+                .getDocument("array.field")
+                .getArray("$in");
+        Assertions.assertEquals(valueCount, inValues.size());
+        Assertions.assertEquals(new BsonInt32(0), inValues.get(0));
+        Assertions.assertEquals(new BsonInt32((valueCount - 1) * 2), inValues.get(valueCount - 1));
+    }
+
+    @Test
+    @DisplayName("Tests that ranges and points on the same field are merged into one predicate per range.")
+    void testQueryWithRanges() throws SQLException {
+        final String query =
+                String.format(
+                        "SELECT * FROM \"%s\".\"%s\" WHERE \"field\" > 1 AND \"field\" <= 3",
+                        getDatabaseName(), COLLECTION_NAME + "_array");
+        final DocumentDbMqlQueryContext result = queryMapper.get(query);
+        Assertions.assertNotNull(result);
+        Assertions.assertEquals(3, result.getAggregateOperations().size());
+        Assertions.assertEquals(
+                BsonDocument.parse(
+                        "{\"$match\": {\"$and\": ["
+                                + "{\"$or\": [{\"array.field\": {\"$exists\": true}}, {\"array.field1\": {\"$exists\": true}}, {\"array.field2\": {\"$exists\": true}}]}, "
+                                + "{\"array.field\": {\"$gt\": 1, \"$lte\": 3}}]}}"),
+                result.getAggregateOperations().get(1));
+
+        final String query2 =
+                String.format(
+                        "SELECT * FROM \"%s\".\"%s\" WHERE \"field\" BETWEEN 1 AND 3 OR \"field\" IN (5, 7)",
+                        getDatabaseName(), COLLECTION_NAME + "_array");
+        final DocumentDbMqlQueryContext result2 = queryMapper.get(query2);
+        Assertions.assertNotNull(result2);
+        Assertions.assertEquals(3, result2.getAggregateOperations().size());
+        Assertions.assertEquals(
+                BsonDocument.parse(
+                        "{\"$match\": {\"$and\": ["
+                                + "{\"$or\": [{\"array.field\": {\"$exists\": true}}, {\"array.field1\": {\"$exists\": true}}, {\"array.field2\": {\"$exists\": true}}]}, "
+                                + "{\"$or\": ["
+                                + "{\"array.field\": {\"$in\": [5, 7]}}, "
+                                + "{\"array.field\": {\"$gte\": 1, \"$lte\": 3}}]}]}}"),
+                result2.getAggregateOperations().get(1));
     }
 
     @Test
@@ -123,19 +185,17 @@ public class DocumentDbQueryMappingServiceFilterTest extends DocumentDbQueryMapp
         Assertions.assertNotNull(result);
         Assertions.assertEquals(COLLECTION_NAME, result.getCollectionName());
         Assertions.assertEquals(5, result.getColumnMetaData().size());
-        Assertions.assertEquals(4, result.getAggregateOperations().size());
+        Assertions.assertEquals(3, result.getAggregateOperations().size());
         Assertions.assertEquals(
                 BsonDocument.parse(
                         "{\"$unwind\": {\"path\": \"$array\", \"preserveNullAndEmptyArrays\": true, \"includeArrayIndex\": \"array_index_lvl_0\"}}"),
                 result.getAggregateOperations().get(0));
         Assertions.assertEquals(
                 BsonDocument.parse(
-                        "{\"$match\": {\"$or\": [{\"array.field\": {\"$exists\": true}}, {\"array.field1\": {\"$exists\": true}}, {\"array.field2\": {\"$exists\": true}}]}}"),
+                        "{\"$match\": {\"$and\": ["
+                                + "{\"$or\": [{\"array.field\": {\"$exists\": true}}, {\"array.field1\": {\"$exists\": true}}, {\"array.field2\": {\"$exists\": true}}]}, "
+                                + "{\"$or\": [{\"array.field\": {\"$eq\": null}}, {\"array.field1\": {\"$ne\": null}}]}]}}"),
                 result.getAggregateOperations().get(1));
-        Assertions.assertEquals(
-                BsonDocument.parse(
-                        "{\"$match\": {\"$or\": [{\"array.field\": {\"$eq\": null }},{\"array.field1\": {\"$ne\": null }}]}}"),
-                result.getAggregateOperations().get(2));
         Assertions.assertEquals(
                 BsonDocument.parse(
                         "{\"$project\": {"
@@ -145,7 +205,7 @@ public class DocumentDbQueryMappingServiceFilterTest extends DocumentDbQueryMapp
                                 + "\"field1\": \"$array.field1\", "
                                 + "\"field2\": \"$array.field2\", "
                                 + "\"_id\": 0}}"),
-                result.getAggregateOperations().get(3));
+                result.getAggregateOperations().get(2));
 
     }
 
@@ -282,19 +342,17 @@ public class DocumentDbQueryMappingServiceFilterTest extends DocumentDbQueryMapp
         Assertions.assertNotNull(result);
         Assertions.assertEquals(COLLECTION_NAME, result.getCollectionName());
         Assertions.assertEquals(5, result.getColumnMetaData().size());
-        Assertions.assertEquals(4, result.getAggregateOperations().size());
+        Assertions.assertEquals(3, result.getAggregateOperations().size());
         Assertions.assertEquals(
                 BsonDocument.parse(
                         "{\"$unwind\": {\"path\": \"$array\", \"preserveNullAndEmptyArrays\": true, \"includeArrayIndex\": \"array_index_lvl_0\"}}"),
                 result.getAggregateOperations().get(0));
         Assertions.assertEquals(
                 BsonDocument.parse(
-                        "{\"$match\": {\"$or\": [{\"array.field\": {\"$exists\": true}}, {\"array.field1\": {\"$exists\": true}}, {\"array.field2\": {\"$exists\": true}}]}}"),
+                        "{\"$match\": {\"$and\": ["
+                                + "{\"$or\": [{\"array.field\": {\"$exists\": true}}, {\"array.field1\": {\"$exists\": true}}, {\"array.field2\": {\"$exists\": true}}]}, "
+                                + "{\"$or\": [{\"array.field\": {\"$gt\": 0}}, {\"array.field1\": {\"$gt\": 0}}, {\"array.field2\": {\"$gt\": 6}}]}]}}"),
                 result.getAggregateOperations().get(1));
-        Assertions.assertEquals(
-                BsonDocument.parse(
-                        "{\"$match\": {\"$or\": [{\"array.field\": {\"$gt\": 0}}, {\"array.field1\": {\"$gt\": 0}}, {\"array.field2\": {\"$gt\": 6}}]}}"),
-                result.getAggregateOperations().get(2));
         Assertions.assertEquals(
                 BsonDocument.parse(
                         "{\"$project\": {"
@@ -304,7 +362,7 @@ public class DocumentDbQueryMappingServiceFilterTest extends DocumentDbQueryMapp
                                 + "\"field1\": \"$array.field1\", "
                                 + "\"field2\": \"$array.field2\", "
                                 + "\"_id\": 0}}"),
-                result.getAggregateOperations().get(3));
+                result.getAggregateOperations().get(2));
     }
 
     @Test
@@ -319,19 +377,19 @@ public class DocumentDbQueryMappingServiceFilterTest extends DocumentDbQueryMapp
         Assertions.assertNotNull(result);
         Assertions.assertEquals(COLLECTION_NAME, result.getCollectionName());
         Assertions.assertEquals(5, result.getColumnMetaData().size());
-        Assertions.assertEquals(4, result.getAggregateOperations().size());
+        Assertions.assertEquals(3, result.getAggregateOperations().size());
         Assertions.assertEquals(
                 BsonDocument.parse(
                         "{\"$unwind\": {\"path\": \"$array\", \"preserveNullAndEmptyArrays\": true, \"includeArrayIndex\": \"array_index_lvl_0\"}}"),
                 result.getAggregateOperations().get(0));
         Assertions.assertEquals(
                 BsonDocument.parse(
-                        "{\"$match\": {\"$or\": [{\"array.field\": {\"$exists\": true}}, {\"array.field1\": {\"$exists\": true}}, {\"array.field2\": {\"$exists\": true}}]}}"),
+                        "{\"$match\": {\"$and\": ["
+                                + "{\"$or\": [{\"array.field\": {\"$exists\": true}}, {\"array.field1\": {\"$exists\": true}}, {\"array.field2\": {\"$exists\": true}}]}, "
+                                + "{\"array.field\": {\"$gt\": 0}}, "
+                                + "{\"array.field1\": {\"$gt\": 0}}, "
+                                + "{\"array.field2\": {\"$gt\": 6}}]}}"),
                 result.getAggregateOperations().get(1));
-        Assertions.assertEquals(
-                BsonDocument.parse(
-                        "{\"$match\": {\"$and\": [{\"array.field\": {\"$gt\": 0}}, {\"array.field1\": {\"$gt\": 0}}, {\"array.field2\": {\"$gt\": 6}}]}}"),
-                result.getAggregateOperations().get(2));
         Assertions.assertEquals(
                 BsonDocument.parse(
                         "{\"$project\": {"
@@ -341,7 +399,7 @@ public class DocumentDbQueryMappingServiceFilterTest extends DocumentDbQueryMapp
                                 + "\"field1\": \"$array.field1\", "
                                 + "\"field2\": \"$array.field2\", "
                                 + "\"_id\": 0}}"),
-                result.getAggregateOperations().get(3));
+                result.getAggregateOperations().get(2));
 
     }
 
@@ -357,22 +415,17 @@ public class DocumentDbQueryMappingServiceFilterTest extends DocumentDbQueryMapp
         Assertions.assertNotNull(result);
         Assertions.assertEquals(COLLECTION_NAME, result.getCollectionName());
         Assertions.assertEquals(5, result.getColumnMetaData().size());
-        Assertions.assertEquals(4, result.getAggregateOperations().size());
+        Assertions.assertEquals(3, result.getAggregateOperations().size());
         Assertions.assertEquals(
                 BsonDocument.parse(
                         "{\"$unwind\": {\"path\": \"$array\", \"preserveNullAndEmptyArrays\": true, \"includeArrayIndex\": \"array_index_lvl_0\"}}"),
                 result.getAggregateOperations().get(0));
         Assertions.assertEquals(
                 BsonDocument.parse(
-                        "{\"$match\": {\"$or\": [{\"array.field\": {\"$exists\": true}}, {\"array.field1\": {\"$exists\": true}}, {\"array.field2\": {\"$exists\": true}}]}}"),
+                        "{\"$match\": {\"$and\": ["
+                                + "{\"$or\": [{\"array.field\": {\"$exists\": true}}, {\"array.field1\": {\"$exists\": true}}, {\"array.field2\": {\"$exists\": true}}]}, "
+                                + "{\"$or\": [{\"$and\": [{\"array.field\": {\"$lte\": 0}}, {\"array.field2\": {\"$lt\": 10}}, {\"$or\": [{\"array.field1\": {\"$lte\": 0}}, {\"array.field2\": {\"$gt\": 6}}]}]}, {\"array.field2\": {\"$gt\": 0}}]}]}}"),
                 result.getAggregateOperations().get(1));
-        Assertions.assertEquals(
-                BsonDocument.parse(
-                        "{\"$match\": {\"$or\": ["
-                                + "{\"$and\": [{\"array.field\": {\"$lte\": 0}}, {\"array.field2\": {\"$lt\": 10}}, "
-                                + "{\"$or\": [{\"array.field1\": {\"$lte\": 0}}, {\"array.field2\": {\"$gt\": 6}}]}]}, "
-                                + "{\"array.field2\": {\"$gt\": 0}}]}}"),
-                result.getAggregateOperations().get(2));
         Assertions.assertEquals(
                 BsonDocument.parse(
                         "{\"$project\": {"
@@ -382,7 +435,7 @@ public class DocumentDbQueryMappingServiceFilterTest extends DocumentDbQueryMapp
                                 + "\"field1\": \"$array.field1\", "
                                 + "\"field2\": \"$array.field2\", "
                                 + "\"_id\": 0}}"),
-                result.getAggregateOperations().get(3));
+                result.getAggregateOperations().get(2));
     }
 
     @Test
@@ -505,15 +558,14 @@ public class DocumentDbQueryMappingServiceFilterTest extends DocumentDbQueryMapp
         Assertions.assertNotNull(result);
         Assertions.assertEquals(COLLECTION_NAME, result.getCollectionName());
         Assertions.assertEquals(3, result.getColumnMetaData().size());
-        Assertions.assertEquals(3, result.getAggregateOperations().size());
+        Assertions.assertEquals(2, result.getAggregateOperations().size());
         Assertions.assertEquals(
                 BsonDocument.parse(
-                        "{\"$match\": {\"$or\": [{\"document.booleanField\": {\"$exists\": true}}, {\"document.booleanField2\": {\"$exists\": true}}]}}"),
+                        "{\"$match\": {\"$and\": ["
+                                + "{\"$or\": [{\"document.booleanField\": {\"$exists\": true}}, {\"document.booleanField2\": {\"$exists\": true}}]}, "
+                                + "{\"document.booleanField\": true}, "
+                                + "{\"document.booleanField2\": false}]}}"),
                 result.getAggregateOperations().get(0));
-        Assertions.assertEquals(
-                BsonDocument.parse(
-                        "{\"$match\": {\"$and\": [{\"document.booleanField\": true}, {\"document.booleanField2\": false}]}}"),
-                result.getAggregateOperations().get(1));
         Assertions.assertEquals(
                 BsonDocument.parse(
                         "{\"$project\": {"
@@ -521,7 +573,7 @@ public class DocumentDbQueryMappingServiceFilterTest extends DocumentDbQueryMapp
                                 + "\"booleanField\": \"$document.booleanField\", "
                                 + "\"booleanField2\": \"$document.booleanField2\", "
                                 + "\"_id\": 0}}"),
-                result.getAggregateOperations().get(2));
+                result.getAggregateOperations().get(1));
     }
 
     @Test
@@ -0,0 +1,360 @@
+/*
+ * Copyright <2021> Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ */
+
+package software.amazon.documentdb.jdbc.query;
+
+import com.mongodb.client.FindIterable;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoCursor;
+import org.apache.calcite.linq4j.Enumerator;
+import org.bson.BsonDocument;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import software.amazon.documentdb.jdbc.DocumentDbConnectionProperty;
+import software.amazon.documentdb.jdbc.calcite.adapter.DocumentDbQueryRunner;
+import software.amazon.documentdb.jdbc.common.test.DocumentDbFlapDoodleExtension;
+
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+@ExtendWith(DocumentDbFlapDoodleExtension.class)
+public class DocumentDbQueryMappingServiceHybridTest extends DocumentDbQueryMappingServiceTest {
+    private static final String LEFT_COLLECTION_NAME = "hybridLeftCollection";
+    private static final String RIGHT_COLLECTION_NAME = "hybridRightCollection";
+    private static DocumentDbQueryMappingService queryMapper;
+
+    @BeforeAll
+    void initialize() throws SQLException {
+        insertBsonDocuments(LEFT_COLLECTION_NAME, new BsonDocument[]{
+                BsonDocument.parse("{ \"_id\" : \"l1\", \"amount\" : 1, \"name\" : \"a\" }"),
+                BsonDocument.parse("{ \"_id\" : \"l2\", \"amount\" : 2, \"name\" : \"b\" }"),
+                BsonDocument.parse("{ \"_id\" : \"l3\", \"amount\" : 3, \"name\" : \"c\" }")});
+        insertBsonDocuments(RIGHT_COLLECTION_NAME, new BsonDocument[]{
+                BsonDocument.parse("{ \"_id\" : \"r1\", \"amount\" : 2, \"label\" : \"x\" }"),
+                BsonDocument.parse("{ \"_id\" : \"r2\", \"amount\" : 3, \"label\" : \"y\" }"),
+                BsonDocument.parse("{ \"_id\" : \"r3\", \"amount\" : 4, \"label\" : \"z\" }")});
+        final Properties properties = new Properties();
+        properties.setProperty(DocumentDbConnectionProperty.HYBRID_EXECUTION.getName(), "true");
+        queryMapper = getQueryMappingService(properties);
+    }
+
+    @Test
+    @DisplayName("Tests that a non-equi join is executed in the driver over both collections.")
+    void testNonEquiJoin() throws SQLException {
+        final String query = String.format(
+                "SELECT \"name\", \"label\" FROM \"%1$s\".\"%2$s\" "
+                        + "INNER JOIN \"%1$s\".\"%3$s\" "
+                        + "ON \"%2$s\".\"amount\" < \"%3$s\".\"amount\"",
+                getDatabaseName(), LEFT_COLLECTION_NAME, RIGHT_COLLECTION_NAME);
+        // Without hybrid execution, the join is rejected.
+        Assertions.assertThrows(SQLException.class, () -> getQueryMappingService().get(query));
+
+        final DocumentDbMqlQueryContext result = queryMapper.get(query);
+        Assertions.assertNotNull(result.getHybridQuery());
+        Assertions.assertTrue(result.getAggregateOperations().isEmpty());
+        Assertions.assertEquals(2, result.getColumnMetaData().size());
+        Assertions.assertEquals(
+                Arrays.asList("[a, x]", "[a, y]", "[a, z]", "[b, y]", "[b, z]", "[c, z]"),
+                sorted(execute(result, new RecordingQueryRunner())));
+    }
+
+    @Test
+    @DisplayName("Tests outer joins with conditions other than the equality of keys executed in the driver.")
+    void testOuterJoinWithNonEquiCondition() throws SQLException {
+        final String equiQuery = String.format(
+                "SELECT \"name\", \"label\" FROM \"%1$s\".\"%2$s\" "
+                        + "LEFT JOIN \"%1$s\".\"%3$s\" "
+                        + "ON \"%2$s\".\"amount\" = \"%3$s\".\"amount\" AND \"label\" <> 'x'",
+                getDatabaseName(), LEFT_COLLECTION_NAME, RIGHT_COLLECTION_NAME);
+        final String nonEquiQuery = String.format(
+                "SELECT \"name\", \"label\" FROM \"%1$s\".\"%2$s\" "
+                        + "LEFT JOIN \"%1$s\".\"%3$s\" "
+                        + "ON \"%2$s\".\"amount\" > \"%3$s\".\"amount\"",
+                getDatabaseName(), LEFT_COLLECTION_NAME, RIGHT_COLLECTION_NAME);
+        // A single row in memory makes the joins hold the rows of one input in blocks of a row.
+        Assertions.assertEquals(
+                Arrays.asList("[a, null]", "[b, null]", "[c, y]"),
+                sorted(execute(queryMapper.get(equiQuery), new RecordingQueryRunner(1))));
+        Assertions.assertEquals(
+                Arrays.asList("[a, null]", "[b, null]", "[c, x]"),
+                sorted(execute(queryMapper.get(nonEquiQuery), new RecordingQueryRunner(1))));
+    }
+
+    @Test
+    @DisplayName("Tests that each hybrid query gets its own data context.")
+    void testHybridQueriesDoNotShareDataContext() throws SQLException {
+        final String query = String.format(
+                "SELECT \"name\", \"label\" FROM \"%1$s\".\"%2$s\" "
+                        + "INNER JOIN \"%1$s\".\"%3$s\" "
+                        + "ON \"%2$s\".\"amount\" < \"%3$s\".\"amount\"",
+                getDatabaseName(), LEFT_COLLECTION_NAME, RIGHT_COLLECTION_NAME);
+        final DocumentDbHybridQuery first = queryMapper.get(query).getHybridQuery();
+        final DocumentDbHybridQuery second = queryMapper.get(query).getHybridQuery();
+        Assertions.assertNotNull(first);
+        Assertions.assertNotNull(second);
+        Assertions.assertNotSame(first.getPrepareDataContext(), second.getPrepareDataContext());
+    }
+
+    @Test
+    @DisplayName("Tests that a window function is executed in the driver over a union of collections.")
+    void testUnionWithWindow() throws SQLException {
+        final String query = String.format(
+                "SELECT \"amount\", ROW_NUMBER() OVER (ORDER BY \"amount\") AS \"rn\" FROM ("
+                        + "SELECT \"amount\" FROM \"%1$s\".\"%2$s\" "
+                        + "UNION ALL SELECT \"amount\" FROM \"%1$s\".\"%3$s\")",
+                getDatabaseName(), LEFT_COLLECTION_NAME, RIGHT_COLLECTION_NAME);
+        final DocumentDbMqlQueryContext result = queryMapper.get(query);
+        Assertions.assertNotNull(result.getHybridQuery());
+        Assertions.assertEquals(2, result.getColumnMetaData().size());
+        final List<Object[]> rows = execute(result, new RecordingQueryRunner()).stream()
+                .map(row -> (Object[]) row)
+                .sorted((a, b) -> Long.compare(((Number) a[1]).longValue(), ((Number) b[1]).longValue()))
+                .collect(Collectors.toList());
+        Assertions.assertEquals(
+                Arrays.asList(1L, 2L, 3L, 4L, 5L, 6L),
+                rows.stream().map(row -> ((Number) row[1]).longValue()).collect(Collectors.toList()));
+        Assertions.assertEquals(
+                Arrays.asList(1L, 2L, 2L, 3L, 3L, 4L),
+                rows.stream().map(row -> ((Number) row[0]).longValue()).collect(Collectors.toList()));
+    }
+
+    @Test
+    @DisplayName("Tests that an equi-join on numeric fields is a merge join over inputs sorted by the server.")
+    void testMergeJoin() throws SQLException {
+        final String query = String.format(
+                "SELECT \"name\", \"label\" FROM \"%1$s\".\"%2$s\" "
+                        + "INNER JOIN \"%1$s\".\"%3$s\" "
+                        + "ON \"%2$s\".\"amount\" = \"%3$s\".\"amount\"",
+                getDatabaseName(), LEFT_COLLECTION_NAME, RIGHT_COLLECTION_NAME);
+        final DocumentDbMqlQueryContext result = queryMapper.get(query);
+        Assertions.assertNotNull(result.getHybridQuery());
+        final RecordingQueryRunner queryRunner = new RecordingQueryRunner();
+        Assertions.assertEquals(
+                Arrays.asList("[b, x]", "[c, y]"),
+                sorted(execute(result, queryRunner)));
+        // Both inputs are sorted on their join key by the server.
+        Assertions.assertEquals(2, queryRunner.getSorts().size());
+        for (BsonDocument sort : queryRunner.getSorts()) {
+            Assertions.assertNotNull(sort);
+            Assertions.assertEquals(1, sort.size());
+        }
+    }
+
+    @Test
+    @DisplayName("Tests set operations without ALL over a join executed in the driver.")
+    void testDistinctSetOperations() throws SQLException {
+        final String join = String.format(
+                "SELECT \"name\" FROM \"%1$s\".\"%2$s\" "
+                        + "INNER JOIN \"%1$s\".\"%3$s\" "
+                        + "ON \"%2$s\".\"amount\" < \"%3$s\".\"amount\"",
+                getDatabaseName(), LEFT_COLLECTION_NAME, RIGHT_COLLECTION_NAME);
+        final String union = String.format(
+                "%s UNION SELECT \"label\" FROM \"%s\".\"%s\"",
+                join, getDatabaseName(), RIGHT_COLLECTION_NAME);
+        final String intersect = String.format(
+                "%s INTERSECT SELECT \"name\" FROM \"%s\".\"%s\" WHERE \"amount\" > 1",
+                join, getDatabaseName(), LEFT_COLLECTION_NAME);
+        final String except = String.format(
+                "%s EXCEPT SELECT \"name\" FROM \"%s\".\"%s\" WHERE \"amount\" = 1",
+                join, getDatabaseName(), LEFT_COLLECTION_NAME);
+        // A single row in memory makes every operator executed in the driver spill.
+        Assertions.assertEquals(
+                Arrays.asList("[a]", "[b]", "[c]", "[x]", "[y]", "[z]"),
+                sorted(execute(queryMapper.get(union), new RecordingQueryRunner(1))));
+        Assertions.assertEquals(
+                Arrays.asList("[b]", "[c]"),
+                sorted(execute(queryMapper.get(intersect), new RecordingQueryRunner(1))));
+        Assertions.assertEquals(
+                Arrays.asList("[b]", "[c]"),
+                sorted(execute(queryMapper.get(except), new RecordingQueryRunner(1))));
+    }
+
+    @Test
+    @DisplayName("Tests an aggregate over a join executed in the driver.")
+    void testAggregateOverJoin() throws SQLException {
+        final String query = String.format(
+                "SELECT \"name\", COUNT(*), MAX(\"label\") FROM \"%1$s\".\"%2$s\" "
+                        + "INNER JOIN \"%1$s\".\"%3$s\" "
+                        + "ON \"%2$s\".\"amount\" < \"%3$s\".\"amount\" "
+                        + "GROUP BY \"name\"",
+                getDatabaseName(), LEFT_COLLECTION_NAME, RIGHT_COLLECTION_NAME);
+        Assertions.assertEquals(
+                Arrays.asList("[a, 3, z]", "[b, 2, z]", "[c, 1, z]"),
+                sorted(execute(queryMapper.get(query), new RecordingQueryRunner(1))));
+    }
+
+    @Test
+    @DisplayName("Tests distinct aggregates over a join executed in the driver.")
+    void testDistinctAggregateOverJoin() throws SQLException {
+        final String join = String.format(
+                "FROM \"%1$s\".\"%2$s\" "
+                        + "INNER JOIN \"%1$s\".\"%3$s\" "
+                        + "ON \"%2$s\".\"amount\" < \"%3$s\".\"amount\"",
+                getDatabaseName(), LEFT_COLLECTION_NAME, RIGHT_COLLECTION_NAME);
+        Assertions.assertEquals(
+                Arrays.asList("[a, 3]", "[b, 2]", "[c, 1]"),
+                sorted(execute(queryMapper.get(
+                        "SELECT \"name\", COUNT(DISTINCT \"label\") " + join + " GROUP BY \"name\""),
+                        new RecordingQueryRunner(1))));
+        Assertions.assertEquals(
+                Arrays.asList("[3]"),
+                sorted(execute(queryMapper.get("SELECT COUNT(DISTINCT \"name\") " + join),
+                        new RecordingQueryRunner(1))));
+    }
+
+    @Test
+    @DisplayName("Tests that set operations that would hold their inputs in memory are not supported.")
+    void testIntersectAllAndExceptAllNotSupported() {
+        final String join = String.format(
+                "SELECT \"name\" FROM \"%1$s\".\"%2$s\" "
+                        + "INNER JOIN \"%1$s\".\"%3$s\" "
+                        + "ON \"%2$s\".\"amount\" < \"%3$s\".\"amount\"",
+                getDatabaseName(), LEFT_COLLECTION_NAME, RIGHT_COLLECTION_NAME);
+        final String intersectAll = String.format(
+                "%s INTERSECT ALL SELECT \"name\" FROM \"%s\".\"%s\"",
+                join, getDatabaseName(), LEFT_COLLECTION_NAME);
+        final String exceptAll = String.format(
+                "%s EXCEPT ALL SELECT \"name\" FROM \"%s\".\"%s\"",
+                join, getDatabaseName(), LEFT_COLLECTION_NAME);
+        Assertions.assertThrows(SQLFeatureNotSupportedException.class, () -> queryMapper.get(intersectAll));
+        Assertions.assertThrows(SQLFeatureNotSupportedException.class, () -> queryMapper.get(exceptAll));
+    }
+
+    @Test
+    @DisplayName("Tests window functions with different partitions and frames over a join executed in the driver.")
+    void testWindowsOverJoin() throws SQLException {
+        final String query = String.format(
+                "SELECT \"name\", \"label\", "
+                        + "SUM(\"%3$s\".\"amount\") OVER (PARTITION BY \"name\" ORDER BY \"label\" "
+                        + "ROWS BETWEEN 1 PRECEDING AND CURRENT ROW) AS \"s\", "
+                        + "RANK() OVER (ORDER BY \"name\") AS \"r\" "
+                        + "FROM \"%1$s\".\"%2$s\" "
+                        + "INNER JOIN \"%1$s\".\"%3$s\" "
+                        + "ON \"%2$s\".\"amount\" < \"%3$s\".\"amount\"",
+                getDatabaseName(), LEFT_COLLECTION_NAME, RIGHT_COLLECTION_NAME);
+        Assertions.assertEquals(
+                Arrays.asList("[a, x, 2, 1]", "[a, y, 5, 1]", "[a, z, 7, 1]",
+                        "[b, y, 3, 4]", "[b, z, 7, 4]", "[c, z, 4, 6]"),
+                sorted(execute(queryMapper.get(query), new RecordingQueryRunner(1))));
+    }
+
+    @Test
+    @DisplayName("Tests that operators executed in the driver stop once the cancel flag is set.")
+    void testCancelFlagStopsExecution() throws SQLException {
+        final String query = String.format(
+                "SELECT \"name\", \"label\" FROM \"%1$s\".\"%2$s\" "
+                        + "INNER JOIN \"%1$s\".\"%3$s\" "
+                        + "ON \"%2$s\".\"amount\" < \"%3$s\".\"amount\" "
+                        + "ORDER BY \"name\", \"label\"",
+                getDatabaseName(), LEFT_COLLECTION_NAME, RIGHT_COLLECTION_NAME);
+        final AtomicBoolean cancelFlag = new AtomicBoolean(false);
+        try (Enumerator<Object> enumerator = queryMapper.get(query).getHybridQuery()
+                .execute(new RecordingQueryRunner(1), cancelFlag)) {
+            Assertions.assertTrue(enumerator.moveNext());
+            cancelFlag.set(true);
+            Assertions.assertThrows(CancellationException.class, enumerator::moveNext);
+        }
+    }
+
+    private static List<Object> execute(
+            final DocumentDbMqlQueryContext context,
+            final DocumentDbQueryRunner queryRunner) {
+        final List<Object> rows = new ArrayList<>();
+        try (Enumerator<Object> enumerator = context.getHybridQuery().execute(queryRunner)) {
+            while (enumerator.moveNext()) {
+                rows.add(enumerator.current());
+            }
+        }
+        return rows;
+    }
+
+    private static List<String> sorted(final List<Object> rows) {
+        return rows.stream()
+                .map(row -> Arrays.toString((Object[]) row))
+                .sorted()
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Runs the pushed-down parts of a query on the test database, recording the sort of each.
+     */
+    private class RecordingQueryRunner implements DocumentDbQueryRunner {
+        private final List<BsonDocument> sorts = new ArrayList<>();
+        private final int maxRowsInMemory;
+
+        RecordingQueryRunner() {
+            this(100);
+        }
+
+        RecordingQueryRunner(final int maxRowsInMemory) {
+            this.maxRowsInMemory = maxRowsInMemory;
+        }
+
+        List<BsonDocument> getSorts() {
+            return sorts;
+        }
+
+        @Override
+        public MongoCursor<Document> find(
+                final String databaseName,
+                final String collectionName,
+                final DocumentDbFindQuery findQuery) {
+            sorts.add(findQuery.getSort());
+            FindIterable<Document> iterable = getCollection(databaseName, collectionName)
+                    .find(findQuery.getFilter())
+                    .projection(findQuery.getProjection());
+            if (findQuery.getSort() != null) {
+                iterable = iterable.sort(findQuery.getSort());
+            }
+            return iterable.iterator();
+        }
+
+        @Override
+        public MongoCursor<Document> aggregate(
+                final String databaseName,
+                final String collectionName,
+                final List<Bson> stages) {
+            sorts.add(stages.stream()
+                    .map(Bson::toBsonDocument)
+                    .filter(stage -> stage.containsKey("$sort"))
+                    .map(stage -> stage.getDocument("$sort"))
+                    .findFirst()
+                    .orElse(null));
+            return getCollection(databaseName, collectionName).aggregate(stages).iterator();
+        }
+
+        @Override
+        public int getMaxRowsInMemory() {
+            return maxRowsInMemory;
+        }
+
+        private MongoCollection<Document> getCollection(final String databaseName, final String collectionName) {
+            return getMongoClient().getDatabase(databaseName).getCollection(collectionName);
+        }
+    }
+}
@@ -49,11 +49,34 @@ public class DocumentDbQueryMappingServiceMaxRowsTest extends DocumentDbQueryMap
         Assertions.assertNotNull(result);
         Assertions.assertEquals(1, result.getColumnMetaData().size());
         Assertions.assertEquals(2, result.getAggregateOperations().size());
+        // The limit is applied before the projection.
+        Assertions.assertEquals(
+                BsonDocument.parse("{\"$limit\": {\"$numberLong\": \"10\"}}"), result.getAggregateOperations().get(0));
         Assertions.assertEquals(BsonDocument.parse(
                 "{\"$project\": {\"testCollection__id\": '$_id', \"_id\": 0}}"),
-                result.getAggregateOperations().get(0));
-        Assertions.assertEquals(
-                BsonDocument.parse("{\"$limit\": {\"$numberLong\": \"10\"}}"), result.getAggregateOperations().get(1));
+                result.getAggregateOperations().get(1));
+    }
+
+    @Test
+    @DisplayName("Tests max rows is used as the find() limit for simple queries.")
+    void testMaxRowsWithFindQuery() throws SQLException {
+        final String query =
+                String.format("SELECT * FROM \"%s\".\"%s\" ORDER BY \"%s\" DESC",
+                        getDatabaseName(), COLLECTION_NAME, COLLECTION_NAME + "__id");
+        final DocumentDbMqlQueryContext result = queryMapper.get(query, 10);
+        Assertions.assertNotNull(result);
+        Assertions.assertNotNull(result.getFindQuery());
+        Assertions.assertEquals(new BsonDocument(), result.getFindQuery().getFilter());
+        Assertions.assertEquals(BsonDocument.parse("{\"_id\": 1}"), result.getFindQuery().getProjection());
+        Assertions.assertEquals(BsonDocument.parse("{\"_id\": -1}"), result.getFindQuery().getSort());
+        Assertions.assertEquals(10, result.getFindQuery().getLimit());
+        Assertions.assertEquals(1, result.getFindQuery().getPaths().size());
+        Assertions.assertEquals("_id", result.getFindQuery().getPaths().get(0));
+
+        // Virtual tables need the aggregation framework to unwind the array.
+        final String virtualTableQuery =
+                String.format("SELECT * FROM \"%s\".\"%s\"", getDatabaseName(), COLLECTION_NAME + "_array");
+        Assertions.assertNull(queryMapper.get(virtualTableQuery, 10).getFindQuery());
     }
 
     @Test
@@ -99,7 +122,7 @@ public class DocumentDbQueryMappingServiceMaxRowsTest extends DocumentDbQueryMap
     }
 
     @Test
-    @DisplayName("Tests $limit and $sort are produced when max rows is set and the query has a limit.")
+    @DisplayName("Tests the query limit and max rows are combined in a single $limit after $sort.")
     void testOrderByWithMaxRowsAndLimit() throws SQLException {
         final String queryWithAscendingSort =
                 String.format(
@@ -108,7 +131,7 @@ public class DocumentDbQueryMappingServiceMaxRowsTest extends DocumentDbQueryMap
         final DocumentDbMqlQueryContext result = queryMapper.get(queryWithAscendingSort, 10);
         Assertions.assertNotNull(result);
         Assertions.assertEquals(5, result.getColumnMetaData().size());
-        Assertions.assertEquals(6, result.getAggregateOperations().size());
+        Assertions.assertEquals(5, result.getAggregateOperations().size());
         Assertions.assertEquals(
                 BsonDocument.parse(
                         "{ \"$unwind\": {"
@@ -138,8 +161,6 @@ public class DocumentDbQueryMappingServiceMaxRowsTest extends DocumentDbQueryMap
                 result.getAggregateOperations().get(3));
         Assertions.assertEquals(
                 BsonDocument.parse("{\"$limit\": {\"$numberLong\": \"5\"}}"), result.getAggregateOperations().get(4));
-        Assertions.assertEquals(
-                BsonDocument.parse("{\"$limit\": {\"$numberLong\": \"10\"}}"), result.getAggregateOperations().get(5));
     }
 
     @Test
@@ -197,7 +218,7 @@ public class DocumentDbQueryMappingServiceMaxRowsTest extends DocumentDbQueryMap
     }
 
     @Test
-    @DisplayName("Tests $limit and $sort are produced when max rows is set and the sub query and the query has limit.")
+    @DisplayName("Tests the outer limit and max rows are combined when the sub query and the query have a limit.")
     void testOrderByWithMaxRowsAndInnerLimitAndOuterLimit() throws SQLException {
         final String queryWithAscendingSort =
                 String.format(
@@ -206,7 +227,7 @@ public class DocumentDbQueryMappingServiceMaxRowsTest extends DocumentDbQueryMap
         final DocumentDbMqlQueryContext result = queryMapper.get(queryWithAscendingSort, 10);
         Assertions.assertNotNull(result);
         Assertions.assertEquals(5, result.getColumnMetaData().size());
-        Assertions.assertEquals(8, result.getAggregateOperations().size());
+        Assertions.assertEquals(7, result.getAggregateOperations().size());
         Assertions.assertEquals(
                 BsonDocument.parse(
                         "{ \"$unwind\": {"
@@ -247,9 +268,7 @@ public class DocumentDbQueryMappingServiceMaxRowsTest extends DocumentDbQueryMap
                 BsonDocument.parse("{ \"$sort\": {\"field\": 1 } }"),
                 result.getAggregateOperations().get(5));
         Assertions.assertEquals(
-                BsonDocument.parse("{\"$limit\": {\"$numberLong\": \"30\"}}}"), result.getAggregateOperations().get(6));
-        Assertions.assertEquals(
-                BsonDocument.parse("{\"$limit\": {\"$numberLong\": \"10\"}}"), result.getAggregateOperations().get(7));
+                BsonDocument.parse("{\"$limit\": {\"$numberLong\": \"10\"}}"), result.getAggregateOperations().get(6));
     }
 
     @Test
@@ -277,6 +296,8 @@ public class DocumentDbQueryMappingServiceMaxRowsTest extends DocumentDbQueryMap
                                 + "{\"array.field1\": {\"$exists\": true}}, "
                                 + "{\"array.field2\": {\"$exists\": true}}]}}"),
                 result.getAggregateOperations().get(1));
+        Assertions.assertEquals(
+                BsonDocument.parse("{\"$limit\": {\"$numberLong\": \"10\"}}"), result.getAggregateOperations().get(2));
         Assertions.assertEquals(
                 BsonDocument.parse(
                         "{\"$project\": "
@@ -286,8 +307,61 @@ public class DocumentDbQueryMappingServiceMaxRowsTest extends DocumentDbQueryMap
                                 + "\"field1\": \"$array.field1\", "
                                 + "\"field2\": \"$array.field2\", "
                                 + "\"_id\": 0}}"),
-                result.getAggregateOperations().get(2));
+                result.getAggregateOperations().get(3));
+    }
+
+    @Test
+    @DisplayName("Tests the $limit directly follows the $sort when the query has an offset.")
+    void testOrderByWithOffsetAndMaxRows() throws SQLException {
+        final String query =
+                String.format(
+                        "SELECT * FROM \"%s\".\"%s\" ORDER BY \"%s\" ASC LIMIT 5 OFFSET 2",
+                        getDatabaseName(), COLLECTION_NAME + "_array", "field");
+        final DocumentDbMqlQueryContext result = queryMapper.get(query, 3);
+        Assertions.assertNotNull(result);
+        Assertions.assertEquals(7, result.getAggregateOperations().size());
+        Assertions.assertEquals(
+                BsonDocument.parse("{ \"$sort\": {\"field\": 1 } }"),
+                result.getAggregateOperations().get(3));
+        Assertions.assertEquals(
+                BsonDocument.parse("{\"$limit\": {\"$numberLong\": \"7\"}}"), result.getAggregateOperations().get(4));
+        Assertions.assertEquals(
+                BsonDocument.parse("{\"$skip\": 2}"), result.getAggregateOperations().get(5));
+        Assertions.assertEquals(
+                BsonDocument.parse("{\"$limit\": {\"$numberLong\": \"3\"}}"), result.getAggregateOperations().get(6));
+    }
+
+    @Test
+    @DisplayName("Tests that a limit and offset larger than an integer are pushed down without overflow.")
+    void testOrderByWithLargeLimitAndOffset() throws SQLException {
+        final String query =
+                String.format(
+                        "SELECT * FROM \"%s\".\"%s\" ORDER BY \"%s\" ASC LIMIT 3000000000 OFFSET 2",
+                        getDatabaseName(), COLLECTION_NAME + "_array", "field");
+        final DocumentDbMqlQueryContext result = queryMapper.get(query);
+        Assertions.assertNotNull(result);
+        Assertions.assertEquals(6, result.getAggregateOperations().size());
+        Assertions.assertEquals(
+                BsonDocument.parse("{ \"$sort\": {\"field\": 1 } }"),
+                result.getAggregateOperations().get(3));
+        Assertions.assertEquals(
+                BsonDocument.parse("{\"$limit\": {\"$numberLong\": \"3000000002\"}}"),
+                result.getAggregateOperations().get(4));
+        Assertions.assertEquals(
+                BsonDocument.parse("{\"$skip\": 2}"), result.getAggregateOperations().get(5));
+
+        // The sum of the offset and limit does not fit in a long, so the offset is skipped first.
+        final String maxLimitQuery =
+                String.format(
+                        "SELECT * FROM \"%s\".\"%s\" ORDER BY \"%s\" ASC LIMIT %d OFFSET 2",
+                        getDatabaseName(), COLLECTION_NAME + "_array", "field", Long.MAX_VALUE);
+        final DocumentDbMqlQueryContext maxLimitResult = queryMapper.get(maxLimitQuery);
+        Assertions.assertNotNull(maxLimitResult);
+        Assertions.assertEquals(6, maxLimitResult.getAggregateOperations().size());
+        Assertions.assertEquals(
+                BsonDocument.parse("{\"$skip\": 2}"), maxLimitResult.getAggregateOperations().get(4));
         Assertions.assertEquals(
-                BsonDocument.parse("{\"$limit\": {\"$numberLong\": \"10\"}}"), result.getAggregateOperations().get(3));
+                BsonDocument.parse("{\"$limit\": {\"$numberLong\": \"" + Long.MAX_VALUE + "\"}}"),
+                maxLimitResult.getAggregateOperations().get(5));
     }
 }
@@ -0,0 +1,140 @@
+/*
+ * Copyright <2021> Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ */
+
+package software.amazon.documentdb.jdbc.query;
+
+import org.bson.BsonDocument;
+import org.bson.conversions.Bson;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import software.amazon.documentdb.jdbc.DocumentDbConnectionProperty;
+import software.amazon.documentdb.jdbc.common.test.DocumentDbFlapDoodleExtension;
+import software.amazon.documentdb.jdbc.metadata.DocumentDbSchemaTable;
+
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+import java.util.stream.Collectors;
+
+@ExtendWith(DocumentDbFlapDoodleExtension.class)
+public class DocumentDbQueryMappingServiceReadRoutingTest extends DocumentDbQueryMappingServiceTest {
+    private static final String COLLECTION_NAME = "testCollection";
+    private static final long ROW_THRESHOLD = 1000;
+    private static DocumentDbQueryMappingService queryMapper;
+    private static DocumentDbQueryMappingService zeroThresholdQueryMapper;
+
+    @BeforeAll
+    void initialize() throws SQLException {
+        final BsonDocument document = BsonDocument.parse("{ \"_id\" : \"key\", \"field\" : 1 }");
+        insertBsonDocuments(COLLECTION_NAME, new BsonDocument[]{document});
+        queryMapper = getQueryMappingService();
+        final Properties properties = new Properties();
+        properties.setProperty(DocumentDbConnectionProperty.READ_ROUTING_ROW_THRESHOLD.getName(), "0");
+        zeroThresholdQueryMapper = getQueryMappingService(properties);
+    }
+
+    @Test
+    @DisplayName("Tests that aggregations are analytic and point lookups are not.")
+    void testAnalyticQueries() throws SQLException {
+        final String groupByQuery = String.format(
+                "SELECT \"field\", COUNT(*) FROM \"%s\".\"%s\" GROUP BY \"field\"",
+                getDatabaseName(), COLLECTION_NAME);
+        Assertions.assertTrue(queryMapper.get(groupByQuery).isAnalyticQuery());
+
+        final String pointQuery = String.format(
+                "SELECT * FROM \"%s\".\"%s\" WHERE \"%s__id\" = 'key'",
+                getDatabaseName(), COLLECTION_NAME, COLLECTION_NAME);
+        Assertions.assertFalse(queryMapper.get(pointQuery).isAnalyticQuery());
+        Assertions.assertFalse(zeroThresholdQueryMapper.get(pointQuery).isAnalyticQuery());
+    }
+
+    @Test
+    @DisplayName("Tests that a scan is analytic when the estimated record count exceeds the threshold.")
+    void testScanQueries() throws SQLException {
+        final String scanQuery = String.format(
+                "SELECT * FROM \"%s\".\"%s\"", getDatabaseName(), COLLECTION_NAME);
+        Assertions.assertFalse(queryMapper.get(scanQuery).isAnalyticQuery());
+        Assertions.assertTrue(zeroThresholdQueryMapper.get(scanQuery).isAnalyticQuery());
+        // A scan limited by max rows only reads the first documents, unless they exceed the threshold.
+        Assertions.assertFalse(queryMapper.get(scanQuery, 10).isAnalyticQuery());
+        Assertions.assertTrue(zeroThresholdQueryMapper.get(scanQuery, 10).isAnalyticQuery());
+        // A filter on a field that may not be indexed does not bound the scan.
+        final String filterQuery = String.format(
+                "SELECT * FROM \"%s\".\"%s\" WHERE \"field\" = 1", getDatabaseName(), COLLECTION_NAME);
+        Assertions.assertFalse(queryMapper.get(filterQuery).isAnalyticQuery());
+        Assertions.assertTrue(zeroThresholdQueryMapper.get(filterQuery).isAnalyticQuery());
+    }
+
+    @Test
+    @DisplayName("Tests the classification of aggregation pipelines.")
+    void testIsAnalyticQuery() {
+        final long largeCount = ROW_THRESHOLD + 1;
+        Assertions.assertTrue(DocumentDbQueryMappingService.isAnalyticQuery(
+                parse("{\"$match\": {\"_id\": \"key\"}}", "{\"$group\": {\"_id\": \"$a\"}}"),
+                0, ROW_THRESHOLD));
+        Assertions.assertTrue(DocumentDbQueryMappingService.isAnalyticQuery(
+                parse("{\"$lookup\": {\"from\": \"other\", \"localField\": \"_id\", "
+                        + "\"foreignField\": \"_id\", \"as\": \"other\"}}"),
+                0, ROW_THRESHOLD));
+        Assertions.assertTrue(DocumentDbQueryMappingService.isAnalyticQuery(
+                parse("{\"$project\": {\"a\": 1}}"), largeCount, ROW_THRESHOLD));
+        Assertions.assertFalse(DocumentDbQueryMappingService.isAnalyticQuery(
+                parse("{\"$project\": {\"a\": 1}}"), ROW_THRESHOLD, ROW_THRESHOLD));
+        Assertions.assertFalse(DocumentDbQueryMappingService.isAnalyticQuery(
+                parse("{\"$project\": {\"a\": 1}}"), DocumentDbSchemaTable.UNKNOWN_RECORD_COUNT, ROW_THRESHOLD));
+        Assertions.assertTrue(DocumentDbQueryMappingService.isAnalyticQuery(
+                parse("{\"$match\": {\"a\": 1}}", "{\"$project\": {\"a\": 1}}"), largeCount, ROW_THRESHOLD));
+        Assertions.assertFalse(DocumentDbQueryMappingService.isAnalyticQuery(
+                parse("{\"$match\": {\"_id\": \"key\"}}", "{\"$project\": {\"a\": 1}}"),
+                largeCount, ROW_THRESHOLD));
+        Assertions.assertFalse(DocumentDbQueryMappingService.isAnalyticQuery(
+                parse("{\"$match\": {\"_id\": {\"$eq\": \"key\"}, \"a\": {\"$gt\": 1}}}"),
+                largeCount, ROW_THRESHOLD));
+        Assertions.assertFalse(DocumentDbQueryMappingService.isAnalyticQuery(
+                parse("{\"$match\": {\"$and\": [{\"a\": 1}, {\"_id\": {\"$in\": [\"key\", \"other\"]}}]}}"),
+                largeCount, ROW_THRESHOLD));
+        Assertions.assertFalse(DocumentDbQueryMappingService.isAnalyticQuery(
+                parse("{\"$match\": {\"$or\": [{\"_id\": \"key\"}, {\"_id\": {\"$eq\": \"other\"}}]}}"),
+                largeCount, ROW_THRESHOLD));
+        // Any condition of a disjunction may match all documents.
+        Assertions.assertTrue(DocumentDbQueryMappingService.isAnalyticQuery(
+                parse("{\"$match\": {\"$or\": [{\"_id\": \"key\"}, {\"a\": 1}]}}"),
+                largeCount, ROW_THRESHOLD));
+        // A range on _id may match all documents.
+        Assertions.assertTrue(DocumentDbQueryMappingService.isAnalyticQuery(
+                parse("{\"$match\": {\"_id\": {\"$gt\": \"key\"}}}"), largeCount, ROW_THRESHOLD));
+        Assertions.assertTrue(DocumentDbQueryMappingService.isAnalyticQuery(
+                parse("{\"$match\": {}}", "{\"$project\": {\"a\": 1}}"), largeCount, ROW_THRESHOLD));
+        Assertions.assertFalse(DocumentDbQueryMappingService.isAnalyticQuery(
+                parse("{\"$limit\": 10}", "{\"$project\": {\"a\": 1}}"), largeCount, ROW_THRESHOLD));
+        Assertions.assertFalse(DocumentDbQueryMappingService.isAnalyticQuery(
+                parse("{\"$limit\": " + ROW_THRESHOLD + "}"), largeCount, ROW_THRESHOLD));
+        // A limit above the threshold reads more documents than the threshold.
+        Assertions.assertTrue(DocumentDbQueryMappingService.isAnalyticQuery(
+                parse("{\"$limit\": " + largeCount + "}"), largeCount, ROW_THRESHOLD));
+        // Sorting before the limit reads the whole collection.
+        Assertions.assertTrue(DocumentDbQueryMappingService.isAnalyticQuery(
+                parse("{\"$sort\": {\"a\": 1}}", "{\"$limit\": 10}"), largeCount, ROW_THRESHOLD));
+    }
+
+    private static List<Bson> parse(final String... stages) {
+        return Arrays.stream(stages).map(BsonDocument::parse).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,178 @@
+/*
+ * Copyright <2021> Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ */
+
+package software.amazon.documentdb.jdbc.query;
+
+import org.bson.BsonArray;
+import org.bson.BsonDocument;
+import org.bson.conversions.Bson;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import software.amazon.documentdb.jdbc.common.test.DocumentDbFlapDoodleExtension;
+
+import java.sql.SQLException;
+import java.util.List;
+
+@ExtendWith(DocumentDbFlapDoodleExtension.class)
+public class DocumentDbQueryMappingServiceSetOperationTest extends DocumentDbQueryMappingServiceTest {
+    private static final String COLLECTION_NAME = "unionCollection";
+    private static final String OTHER_COLLECTION_NAME = "otherUnionCollection";
+    private static DocumentDbQueryMappingService queryMapper;
+
+    @BeforeAll
+    void initialize() throws SQLException {
+        final BsonDocument document =
+                BsonDocument.parse("{ \"_id\" : \"key0\", \"field\" : 1, \"array\" : [ 1, 2 ] }");
+        final BsonDocument otherDocument =
+                BsonDocument.parse("{ \"_id\" : \"key1\", \"field\" : 2 }");
+        insertBsonDocuments(COLLECTION_NAME, new BsonDocument[]{document});
+        insertBsonDocuments(OTHER_COLLECTION_NAME, new BsonDocument[]{otherDocument});
+        queryMapper = getQueryMappingService();
+    }
+
+    @Test
+    @DisplayName("Tests that UNION ALL reads the second input with $unionWith.")
+    void testUnionAll() throws SQLException {
+        final String query =
+                String.format(
+                        "SELECT \"field\" FROM \"%1$s\".\"%2$s\" "
+                                + "UNION ALL SELECT \"field\" FROM \"%1$s\".\"%3$s\"",
+                        getDatabaseName(), COLLECTION_NAME, OTHER_COLLECTION_NAME);
+        final DocumentDbMqlQueryContext result = queryMapper.get(query);
+        Assertions.assertNotNull(result);
+        Assertions.assertEquals(COLLECTION_NAME, result.getCollectionName());
+        Assertions.assertEquals(1, result.getColumnMetaData().size());
+        Assertions.assertEquals(2, result.getAggregateOperations().size());
+        Assertions.assertEquals(
+                BsonDocument.parse("{\"$project\": {\"field\": \"$field\", \"_id\": 0}}"),
+                result.getAggregateOperations().get(0));
+        Assertions.assertEquals(
+                BsonDocument.parse("{\"$unionWith\": {"
+                        + "\"coll\": \"otherUnionCollection\", "
+                        + "\"pipeline\": ["
+                        + "{\"$project\": {\"field\": \"$field\", \"_id\": 0}}, "
+                        + "{\"$project\": {\"field\": \"$field\", \"_id\": 0}}]}}"),
+                result.getAggregateOperations().get(1));
+        Assertions.assertNull(result.getFindQuery());
+    }
+
+    @Test
+    @DisplayName("Tests that the filters and virtual tables of each input are part of its pipeline.")
+    void testUnionAllWithFilterAndVirtualTable() throws SQLException {
+        final String query =
+                String.format(
+                        "SELECT \"field\" FROM \"%1$s\".\"%2$s\" "
+                                + "UNION ALL SELECT \"value\" FROM \"%1$s\".\"%3$s\" WHERE \"value\" > 1",
+                        getDatabaseName(), OTHER_COLLECTION_NAME, COLLECTION_NAME + "_array");
+        final DocumentDbMqlQueryContext result = queryMapper.get(query);
+        Assertions.assertNotNull(result);
+        Assertions.assertEquals(OTHER_COLLECTION_NAME, result.getCollectionName());
+        final BsonDocument unionWith = getLastStage(result.getAggregateOperations()).getDocument("$unionWith");
+        Assertions.assertEquals(COLLECTION_NAME, unionWith.getString("coll").getValue());
+        final BsonArray pipeline = unionWith.getArray("pipeline");
+        Assertions.assertTrue(pipeline.get(0).asDocument().containsKey("$unwind"));
+        Assertions.assertTrue(pipeline.stream().anyMatch(stage -> stage.asDocument().containsKey("$match")));
+        Assertions.assertEquals(
+                BsonDocument.parse("{\"$project\": {\"field\": \"$value\", \"_id\": 0}}"),
+                pipeline.get(pipeline.size() - 1));
+    }
+
+    @Test
+    @DisplayName("Tests that UNION removes duplicate rows with $group.")
+    void testUnion() throws SQLException {
+        final String query =
+                String.format(
+                        "SELECT \"field\" FROM \"%1$s\".\"%2$s\" "
+                                + "UNION SELECT \"field\" FROM \"%1$s\".\"%3$s\"",
+                        getDatabaseName(), COLLECTION_NAME, OTHER_COLLECTION_NAME);
+        final DocumentDbMqlQueryContext result = queryMapper.get(query);
+        Assertions.assertNotNull(result);
+        Assertions.assertTrue(result.getAggregateOperations().stream()
+                .anyMatch(stage -> stage.toBsonDocument().containsKey("$unionWith")));
+        Assertions.assertTrue(result.getAggregateOperations().stream()
+                .anyMatch(stage -> stage.toBsonDocument().containsKey("$group")));
+    }
+
+    @Test
+    @DisplayName("Tests that INTERSECT keeps the rows found in every input.")
+    void testIntersect() throws SQLException {
+        final String query =
+                String.format(
+                        "SELECT \"field\" FROM \"%1$s\".\"%2$s\" "
+                                + "INTERSECT SELECT \"field\" FROM \"%1$s\".\"%3$s\"",
+                        getDatabaseName(), COLLECTION_NAME, OTHER_COLLECTION_NAME);
+        final DocumentDbMqlQueryContext result = queryMapper.get(query);
+        Assertions.assertNotNull(result);
+        final List<Bson> operations = result.getAggregateOperations();
+        Assertions.assertEquals(5, operations.size());
+        Assertions.assertEquals(
+                BsonDocument.parse("{\"$project\": {\"field\": \"$field\", \"_branch\": {\"$literal\": 0}, \"_id\": 0}}"),
+                operations.get(0));
+        Assertions.assertEquals(
+                BsonDocument.parse("{\"$group\": {"
+                        + "\"_id\": {\"field\": {\"$ifNull\": [\"$field\", null]}}, "
+                        + "\"_branch\": {\"$addToSet\": \"$_branch\"}}}"),
+                operations.get(2));
+        Assertions.assertEquals(
+                BsonDocument.parse("{\"$match\": {\"_branch\": {\"$all\": [0, 1]}}}"),
+                operations.get(3));
+        Assertions.assertEquals(
+                BsonDocument.parse("{\"$project\": {\"_id\": 0, \"field\": \"$_id.field\"}}"),
+                operations.get(4));
+    }
+
+    @Test
+    @DisplayName("Tests that EXCEPT keeps the rows found only in the first input.")
+    void testExcept() throws SQLException {
+        final String query =
+                String.format(
+                        "SELECT \"field\" FROM \"%1$s\".\"%2$s\" "
+                                + "EXCEPT SELECT \"field\" FROM \"%1$s\".\"%3$s\"",
+                        getDatabaseName(), COLLECTION_NAME, OTHER_COLLECTION_NAME);
+        final DocumentDbMqlQueryContext result = queryMapper.get(query);
+        Assertions.assertNotNull(result);
+        final List<Bson> operations = result.getAggregateOperations();
+        Assertions.assertEquals(5, operations.size());
+        Assertions.assertEquals(
+                BsonDocument.parse("{\"$group\": {"
+                        + "\"_id\": {\"field\": {\"$ifNull\": [\"$field\", null]}}, "
+                        + "\"_branch\": {\"$max\": \"$_branch\"}}}"),
+                operations.get(2));
+        Assertions.assertEquals(
+                BsonDocument.parse("{\"$match\": {\"_branch\": 0}}"),
+                operations.get(3));
+    }
+
+    @Test
+    @DisplayName("Tests that a set operation cannot be the input of a join that is pushed down.")
+    void testSetOperationInJoin() {
+        final String query =
+                String.format(
+                        "SELECT * FROM \"%1$s\".\"%2$s\" AS \"t\" INNER JOIN ("
+                                + "SELECT \"field\" FROM \"%1$s\".\"%2$s\" "
+                                + "UNION ALL SELECT \"field\" FROM \"%1$s\".\"%3$s\") AS \"u\" "
+                                + "ON \"t\".\"field\" = \"u\".\"field\"",
+                        getDatabaseName(), COLLECTION_NAME, OTHER_COLLECTION_NAME);
+        Assertions.assertThrows(SQLException.class, () -> queryMapper.get(query));
+    }
+
+    private static BsonDocument getLastStage(final List<Bson> operations) {
+        return operations.get(operations.size() - 1).toBsonDocument();
+    }
+}
@@ -293,4 +293,111 @@ public class DocumentDbQueryMappingServiceStringTest extends DocumentDbQueryMapp
                         "{\"$project\": {\"EXPR$0\": {\"$cond\": [{\"$and\": [{\"$and\": [{\"$gt\": [\"$field\", null]}, {\"$gt\": [{\"$literal\": 5}, null]}]}, {\"$gte\": [{\"$literal\": 5}, 0]}]}, {\"$cond\": [{\"$lte\": [{\"$strLenCP\": \"$field\"}, {\"$literal\": 5}]}, \"$field\", {\"$substrCP\": [\"$field\", {\"$subtract\": [{\"$strLenCP\": \"$field\"}, {\"$literal\": 5}]}, {\"$literal\": 5}]}]}, null]}, \"_id\": 0}}"),
                 result1.getAggregateOperations().get(0));
     }
+
+    @Test
+    @DisplayName("Tests that LIKE is translated to an anchored $regex.")
+    void testQueryWithLike() throws SQLException {
+        final String query1 =
+                String.format(
+                        "SELECT \"field\" FROM \"%s\".\"%s\" WHERE \"field\" LIKE 'Hello%%'",
+                        getDatabaseName(), COLLECTION_NAME);
+        final DocumentDbMqlQueryContext result1 = queryMapper.get(query1);
+        Assertions.assertNotNull(result1);
+        Assertions.assertEquals(COLLECTION_NAME, result1.getCollectionName());
+        Assertions.assertEquals(2, result1.getAggregateOperations().size());
+        Assertions.assertEquals(
+                BsonDocument.parse(
+                        "{\"$match\": {\"field\": {\"$regex\": \"^Hello\", \"$options\": \"s\"}}}"),
+                result1.getAggregateOperations().get(0));
+
+        // Regular expression characters are escaped and wildcards in the middle are kept.
+        final String query2 =
+                String.format(
+                        "SELECT \"field\" FROM \"%s\".\"%s\" WHERE \"field\" LIKE '%%(Hello)_w*rld!'",
+                        getDatabaseName(), COLLECTION_NAME);
+        final DocumentDbMqlQueryContext result2 = queryMapper.get(query2);
+        Assertions.assertNotNull(result2);
+        Assertions.assertEquals(
+                BsonDocument.parse(
+                        "{\"$match\": {\"field\": {\"$regex\": \"\\\\(Hello\\\\).w\\\\*rld!\\\\z\", \"$options\": \"s\"}}}"),
+                result2.getAggregateOperations().get(0));
+
+        // A pattern without trailing wildcard is anchored at the very end of the value.
+        final String query4 =
+                String.format(
+                        "SELECT \"field\" FROM \"%s\".\"%s\" WHERE \"field\" LIKE 'abc'",
+                        getDatabaseName(), COLLECTION_NAME);
+        final DocumentDbMqlQueryContext result4 = queryMapper.get(query4);
+        Assertions.assertNotNull(result4);
+        Assertions.assertEquals(
+                BsonDocument.parse(
+                        "{\"$match\": {\"field\": {\"$regex\": \"^abc\\\\z\", \"$options\": \"s\"}}}"),
+                result4.getAggregateOperations().get(0));
+
+        // Wildcards preceded by the escape character are matched literally.
+        final String query3 =
+                String.format(
+                        "SELECT \"field\" FROM \"%s\".\"%s\" WHERE \"field\" LIKE '100!%%%%' ESCAPE '!'",
+                        getDatabaseName(), COLLECTION_NAME);
+        final DocumentDbMqlQueryContext result3 = queryMapper.get(query3);
+        Assertions.assertNotNull(result3);
+        Assertions.assertEquals(
+                BsonDocument.parse(
+                        "{\"$match\": {\"field\": {\"$regex\": \"^100%\", \"$options\": \"s\"}}}"),
+                result3.getAggregateOperations().get(0));
+    }
+
+    @Test
+    @DisplayName("Tests that LIKE on a field in lower case is translated to a case-insensitive $regex.")
+    void testQueryWithLowerLike() throws SQLException {
+        final String query =
+                String.format(
+                        "SELECT \"field\" FROM \"%s\".\"%s\" WHERE LOWER(\"field\") LIKE 'hello%%'",
+                        getDatabaseName(), COLLECTION_NAME);
+        final DocumentDbMqlQueryContext result = queryMapper.get(query);
+        Assertions.assertNotNull(result);
+        Assertions.assertEquals(2, result.getAggregateOperations().size());
+        Assertions.assertEquals(
+                BsonDocument.parse(
+                        "{\"$match\": {\"field\": {\"$regex\": \"^hello\", \"$options\": \"si\"}}}"),
+                result.getAggregateOperations().get(0));
+    }
+
+    @Test
+    @DisplayName("Tests that NOT LIKE and LIKE in a projection use $regexMatch.")
+    void testQueryWithNotLike() throws SQLException {
+        final String query1 =
+                String.format(
+                        "SELECT \"field\" FROM \"%s\".\"%s\" WHERE \"field\" NOT LIKE 'Hello%%'",
+                        getDatabaseName(), COLLECTION_NAME);
+        final DocumentDbMqlQueryContext result1 = queryMapper.get(query1);
+        Assertions.assertNotNull(result1);
+        final String stages1 = result1.getAggregateOperations().toString();
+        Assertions.assertTrue(stages1.contains("$regexMatch"), stages1);
+        Assertions.assertTrue(stages1.contains("$not"), stages1);
+
+        final String query2 =
+                String.format(
+                        "SELECT \"field\" LIKE 'Hello%%' FROM \"%s\".\"%s\"",
+                        getDatabaseName(), COLLECTION_NAME);
+        final DocumentDbMqlQueryContext result2 = queryMapper.get(query2);
+        Assertions.assertNotNull(result2);
+        Assertions.assertEquals(1, result2.getAggregateOperations().size());
+        Assertions.assertEquals(
+                BsonDocument.parse(
+                        "{\"$project\": {\"EXPR$0\": {\"$cond\": [{\"$and\": [{\"$gt\": [\"$field\", null]}]}, "
+                                + "{\"$regexMatch\": {\"input\": \"$field\", \"regex\": \"^Hello\", \"options\": \"s\"}}, "
+                                + "null]}, \"_id\": 0}}"),
+                result2.getAggregateOperations().get(0));
+    }
+
+    @Test
+    @DisplayName("Tests that LIKE with an invalid escape sequence fails.")
+    void testQueryWithInvalidLikeEscape() {
+        final String query =
+                String.format(
+                        "SELECT \"field\" FROM \"%s\".\"%s\" WHERE \"field\" LIKE 'Hello!' ESCAPE '!'",
+                        getDatabaseName(), COLLECTION_NAME);
+        Assertions.assertThrows(SQLException.class, () -> queryMapper.get(query));
+    }
 }
@@ -27,6 +27,7 @@ import software.amazon.documentdb.jdbc.metadata.DocumentDbDatabaseSchemaMetadata
 import software.amazon.documentdb.jdbc.persist.DocumentDbSchemaWriter;
 
 import java.sql.SQLException;
+import java.util.Properties;
 
 import static software.amazon.documentdb.jdbc.metadata.DocumentDbDatabaseSchemaMetadata.VERSION_NEW;
 
@@ -68,6 +69,19 @@ public class DocumentDbQueryMappingServiceTest extends DocumentDbFlapDoodleTest
         return new DocumentDbQueryMappingService(connectionProperties, databaseMetadata);
     }
 
+    protected DocumentDbQueryMappingService getQueryMappingService(
+            final Properties additionalProperties) throws SQLException {
+        final DocumentDbConnectionProperties properties = new DocumentDbConnectionProperties(connectionProperties);
+        properties.putAll(additionalProperties);
+        final DocumentDbDatabaseSchemaMetadata databaseMetadata =
+                DocumentDbDatabaseSchemaMetadata.get(properties, "id", VERSION_NEW, client);
+        return new DocumentDbQueryMappingService(properties, databaseMetadata);
+    }
+
+    protected MongoClient getMongoClient() {
+        return client;
+    }
+
     protected static String getDatabaseName() {
         return DATABASE_NAME;
     }
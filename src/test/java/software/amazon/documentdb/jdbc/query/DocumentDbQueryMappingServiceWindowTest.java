@@ -0,0 +1,146 @@
+/*
+ * Copyright <2021> Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ */
+
+package software.amazon.documentdb.jdbc.query;
+
+import org.bson.BsonDocument;
+import org.bson.BsonString;
+import org.bson.BsonValue;
+import org.bson.conversions.Bson;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import software.amazon.documentdb.jdbc.DocumentDbConnectionProperty;
+import software.amazon.documentdb.jdbc.common.test.DocumentDbFlapDoodleExtension;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.stream.Collectors;
+
+@ExtendWith(DocumentDbFlapDoodleExtension.class)
+public class DocumentDbQueryMappingServiceWindowTest extends DocumentDbQueryMappingServiceTest {
+    private static final String COLLECTION_NAME = "windowCollection";
+    private static DocumentDbQueryMappingService queryMapper;
+
+    @BeforeAll
+    void initialize() throws SQLException {
+        final BsonDocument document1 =
+                BsonDocument.parse("{ \"_id\" : \"key0\", \"category\" : \"a\", \"amount\" : 1 }");
+        final BsonDocument document2 =
+                BsonDocument.parse("{ \"_id\" : \"key1\", \"category\" : \"b\", \"amount\" : 2 }");
+        insertBsonDocuments(COLLECTION_NAME, new BsonDocument[]{document1, document2});
+        final Properties properties = new Properties();
+        properties.setProperty(DocumentDbConnectionProperty.WINDOW_FUNCTION_PUSHDOWN.getName(), "true");
+        queryMapper = getQueryMappingService(properties);
+    }
+
+    @Test
+    @DisplayName("Tests that ROW_NUMBER() is computed with $setWindowFields.")
+    void testRowNumber() throws SQLException {
+        final String query =
+                String.format(
+                        "SELECT \"category\", ROW_NUMBER() OVER "
+                                + "(PARTITION BY \"category\" ORDER BY \"amount\" DESC) AS \"rn\" "
+                                + "FROM \"%s\".\"%s\"",
+                        getDatabaseName(), COLLECTION_NAME);
+        final DocumentDbMqlQueryContext result = queryMapper.get(query);
+        Assertions.assertNotNull(result);
+        Assertions.assertEquals(COLLECTION_NAME, result.getCollectionName());
+        Assertions.assertEquals(2, result.getColumnMetaData().size());
+        final BsonDocument setWindowFields = getSetWindowFields(result.getAggregateOperations());
+        Assertions.assertEquals(new BsonString("$category"), setWindowFields.get("partitionBy"));
+        Assertions.assertEquals(BsonDocument.parse("{\"amount\": -1}"), setWindowFields.get("sortBy"));
+        final List<BsonValue> outputs = getOutputs(setWindowFields);
+        Assertions.assertEquals(1, outputs.size());
+        Assertions.assertEquals(BsonDocument.parse("{\"$documentNumber\": {}}"), outputs.get(0));
+    }
+
+    @Test
+    @DisplayName("Tests that a moving sum is computed over a documents window.")
+    void testMovingSum() throws SQLException {
+        final String query =
+                String.format(
+                        "SELECT SUM(\"amount\") OVER (PARTITION BY \"category\" ORDER BY \"amount\" "
+                                + "ROWS BETWEEN 2 PRECEDING AND CURRENT ROW) AS \"total\" "
+                                + "FROM \"%s\".\"%s\"",
+                        getDatabaseName(), COLLECTION_NAME);
+        final DocumentDbMqlQueryContext result = queryMapper.get(query);
+        Assertions.assertNotNull(result);
+        final BsonDocument setWindowFields = getSetWindowFields(result.getAggregateOperations());
+        final List<BsonValue> outputs = getOutputs(setWindowFields);
+        Assertions.assertFalse(outputs.isEmpty());
+        for (BsonValue output : outputs) {
+            Assertions.assertEquals(
+                    BsonDocument.parse("{\"documents\": [-2, \"current\"]}"),
+                    output.asDocument().get("window"));
+        }
+        Assertions.assertTrue(outputs.stream()
+                .anyMatch(output -> new BsonString("$amount").equals(output.asDocument().get("$sum"))));
+    }
+
+    @Test
+    @DisplayName("Tests that a running sum on a numeric sort key is computed over a range window.")
+    void testRunningSum() throws SQLException {
+        final String query =
+                String.format(
+                        "SELECT SUM(\"amount\") OVER (ORDER BY \"amount\") AS \"total\" FROM \"%s\".\"%s\"",
+                        getDatabaseName(), COLLECTION_NAME);
+        final DocumentDbMqlQueryContext result = queryMapper.get(query);
+        Assertions.assertNotNull(result);
+        final BsonDocument setWindowFields = getSetWindowFields(result.getAggregateOperations());
+        Assertions.assertNull(setWindowFields.get("partitionBy"));
+        for (BsonValue output : getOutputs(setWindowFields)) {
+            Assertions.assertEquals(
+                    BsonDocument.parse("{\"range\": [\"unbounded\", \"current\"]}"),
+                    output.asDocument().get("window"));
+        }
+    }
+
+    @Test
+    @DisplayName("Tests that window functions are not pushed down unless enabled.")
+    void testWindowNotPushedDown() throws SQLException {
+        final String query =
+                String.format(
+                        "SELECT ROW_NUMBER() OVER (ORDER BY \"amount\") AS \"rn\" FROM \"%s\".\"%s\"",
+                        getDatabaseName(), COLLECTION_NAME);
+        final DocumentDbQueryMappingService defaultQueryMapper = getQueryMappingService();
+        Assertions.assertThrows(SQLException.class, () -> defaultQueryMapper.get(query));
+
+        // A range on a string sort key cannot be computed with $setWindowFields.
+        final String rangeQuery =
+                String.format(
+                        "SELECT COUNT(*) OVER (ORDER BY \"category\") AS \"c\" FROM \"%s\".\"%s\"",
+                        getDatabaseName(), COLLECTION_NAME);
+        Assertions.assertThrows(SQLException.class, () -> queryMapper.get(rangeQuery));
+    }
+
+    private static BsonDocument getSetWindowFields(final List<Bson> operations) {
+        final List<BsonDocument> stages = operations.stream()
+                .map(Bson::toBsonDocument)
+                .filter(stage -> stage.containsKey("$setWindowFields"))
+                .collect(Collectors.toList());
+        Assertions.assertEquals(1, stages.size());
+        return stages.get(0).getDocument("$setWindowFields");
+    }
+
+    private static List<BsonValue> getOutputs(final BsonDocument setWindowFields) {
+        return new ArrayList<>(setWindowFields.getDocument("output").values());
+    }
+}
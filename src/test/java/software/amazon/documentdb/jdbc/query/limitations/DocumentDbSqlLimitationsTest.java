@@ -163,28 +163,12 @@ public class DocumentDbSqlLimitationsTest extends DocumentDbQueryMappingServiceT
 
     @Test
     @DisplayName(
-            "Tests that set operations UNION, INTERSECT and EXCEPT should fail as these are not supported.")
+            "Tests that set operations INTERSECT ALL and EXCEPT ALL should fail as these are not supported.")
     void testSetOperations() {
-        // No rule to transform the LogicalUnion.
-        // Same collection only - may be able to combine $facet(unsupported) + $setUnion
-        // Generic - $unionWith (4.4)
-        final String unionQuery =
-                String.format(
-                        "SELECT * FROM \"%s\".\"%s\" UNION SELECT \"%s\" FROM \"%s\".\"%s\"",
-                        getDatabaseName(),
-                        COLLECTION_NAME,
-                        COLLECTION_NAME + "__id",
-                        getDatabaseName(),
-                        COLLECTION_NAME + "_array");
-        Assertions.assertThrows(
-                SQLException.class,
-                () -> queryMapper.get(unionQuery),
-                "Query requiring UNION should throw an exception.");
-        // No rule to transform the LogicalIntersect.
-        // Same collection only - may be able to combine $facet(unsupported) + $setIntersection
+        // No rule to transform the LogicalIntersect when duplicates are kept.
         final String intersectQuery =
                 String.format(
-                        "SELECT * FROM \"%s\".\"%s\" INTERSECT SELECT \"%s\" FROM \"%s\".\"%s\"",
+                        "SELECT * FROM \"%s\".\"%s\" INTERSECT ALL SELECT \"%s\" FROM \"%s\".\"%s\"",
                         getDatabaseName(),
                         COLLECTION_NAME,
                         COLLECTION_NAME + "__id",
@@ -193,12 +177,11 @@ public class DocumentDbSqlLimitationsTest extends DocumentDbQueryMappingServiceT
         Assertions.assertThrows(
                 SQLException.class,
                 () -> queryMapper.get(intersectQuery),
-                "Query requiring INTERSECT should throw an exception.");
-        // No rule to transform the LogicalMinus.
-        // Same collection only - may be able to combine $facet(unsupported) + $setDifference
+                "Query requiring INTERSECT ALL should throw an exception.");
+        // No rule to transform the LogicalMinus when duplicates are kept.
         final String exceptQuery =
                 String.format(
-                        "SELECT * FROM \"%s\".\"%s\" EXCEPT SELECT \"%s\" FROM \"%s\".\"%s\"",
+                        "SELECT * FROM \"%s\".\"%s\" EXCEPT ALL SELECT \"%s\" FROM \"%s\".\"%s\"",
                         getDatabaseName(),
                         COLLECTION_NAME,
                         COLLECTION_NAME + "__id",
@@ -207,7 +190,7 @@ public class DocumentDbSqlLimitationsTest extends DocumentDbQueryMappingServiceT
         Assertions.assertThrows(
                 SQLException.class,
                 () -> queryMapper.get(exceptQuery),
-                "Query requiring EXCEPT or MINUS should throw an exception.");
+                "Query requiring EXCEPT ALL or MINUS ALL should throw an exception.");
     }
 
     @Test
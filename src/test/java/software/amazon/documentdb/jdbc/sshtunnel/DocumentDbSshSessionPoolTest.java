@@ -0,0 +1,405 @@
+/*
+ * Copyright <2021> Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ */
+
+package software.amazon.documentdb.jdbc.sshtunnel;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class DocumentDbSshSessionPoolTest {
+    private static final byte[] MESSAGE = "documentdb".getBytes(StandardCharsets.UTF_8);
+    private static final long NO_HEALTH_CHECK_MS = TimeUnit.HOURS.toMillis(1);
+    private EchoServer echoServer;
+    private ScheduledExecutorService scheduler;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        echoServer = new EchoServer();
+        scheduler = Executors.newSingleThreadScheduledExecutor();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        scheduler.shutdownNow();
+        echoServer.close();
+    }
+
+    @Test
+    @DisplayName("Tests that connections are spread over the sessions of the pool and counted per session.")
+    void testConnectionsAssignedToLeastLoadedSession() throws Exception {
+        final List<LocalForwardingSession> createdSessions = new ArrayList<>();
+        final int sessionCount = 3;
+        final int connectionCount = 6;
+        try (DocumentDbSshSessionPool pool = DocumentDbSshSessionPool.open(
+                () -> createSession(createdSessions), sessionCount, scheduler, NO_HEALTH_CHECK_MS)) {
+            Assertions.assertTrue(pool.getLocalPort() > 0);
+            Assertions.assertEquals(sessionCount, createdSessions.size());
+
+            final List<Socket> sockets = new ArrayList<>();
+            try {
+                for (int i = 0; i < connectionCount; i++) {
+                    final Socket socket = new Socket(InetAddress.getLoopbackAddress(), pool.getLocalPort());
+                    sockets.add(socket);
+                    assertEcho(socket);
+                }
+                final List<DocumentDbSshSessionStatistics> statistics = pool.getStatistics();
+                Assertions.assertEquals(sessionCount, statistics.size());
+                for (DocumentDbSshSessionStatistics sessionStatistics : statistics) {
+                    Assertions.assertTrue(sessionStatistics.isConnected());
+                    Assertions.assertEquals(2, sessionStatistics.getActiveChannelCount());
+                    Assertions.assertEquals(2, sessionStatistics.getOpenedChannelCount());
+                    Assertions.assertEquals(2L * MESSAGE.length, sessionStatistics.getBytesSent());
+                    Assertions.assertEquals(2L * MESSAGE.length, sessionStatistics.getBytesReceived());
+                }
+            } finally {
+                for (Socket socket : sockets) {
+                    socket.close();
+                }
+            }
+
+            // Closed connections release their channel.
+            waitForActiveChannelCount(pool, 0);
+            final Socket socket = new Socket(InetAddress.getLoopbackAddress(), pool.getLocalPort());
+            try {
+                assertEcho(socket);
+                waitForActiveChannelCount(pool, 1);
+            } finally {
+                socket.close();
+            }
+        }
+        for (LocalForwardingSession session : createdSessions) {
+            Assertions.assertFalse(session.isConnected());
+        }
+    }
+
+    @Test
+    @DisplayName("Tests that connections are not assigned to a disconnected session.")
+    void testDisconnectedSessionSkipped() throws Exception {
+        final List<LocalForwardingSession> createdSessions = new ArrayList<>();
+        try (DocumentDbSshSessionPool pool = DocumentDbSshSessionPool.open(
+                () -> createSession(createdSessions), 2, scheduler, NO_HEALTH_CHECK_MS)) {
+            createdSessions.get(0).disconnect();
+            for (int i = 0; i < 3; i++) {
+                try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), pool.getLocalPort())) {
+                    assertEcho(socket);
+                }
+            }
+            for (DocumentDbSshSessionStatistics statistics : pool.getStatistics()) {
+                Assertions.assertEquals(statistics.isConnected() ? 3 : 0, statistics.getOpenedChannelCount());
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Tests that the pool fails to open and disconnects its sessions if a session cannot be created.")
+    void testOpenFailsWhenSessionCannotBeCreated() {
+        final List<LocalForwardingSession> createdSessions = new ArrayList<>();
+        final AtomicInteger attempts = new AtomicInteger();
+        final SQLException exception = Assertions.assertThrows(SQLException.class,
+                () -> DocumentDbSshSessionPool.open(() -> {
+                    if (attempts.incrementAndGet() == 2) {
+                        throw new SQLException("Auth fail");
+                    }
+                    return createSession(createdSessions);
+                }, 3, scheduler, NO_HEALTH_CHECK_MS));
+        Assertions.assertEquals("Auth fail", exception.getMessage());
+        Assertions.assertEquals(2, createdSessions.size());
+        for (LocalForwardingSession session : createdSessions) {
+            Assertions.assertFalse(session.isConnected());
+        }
+    }
+
+    @Test
+    @DisplayName("Tests that the health check reconnects a disconnected session on the same local port.")
+    void testHealthCheckReconnectsSession() throws Exception {
+        final List<LocalForwardingSession> createdSessions = new ArrayList<>();
+        try (DocumentDbSshSessionPool pool = DocumentDbSshSessionPool.open(
+                () -> createSession(createdSessions), 1, scheduler, 50)) {
+            final int localPort = pool.getLocalPort();
+            final Socket socket = new Socket(InetAddress.getLoopbackAddress(), localPort);
+            try {
+                assertEcho(socket);
+                createdSessions.get(0).disconnect();
+
+                final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+                while (pool.getStatistics().get(0).getReconnectCount() == 0 && System.nanoTime() < deadline) {
+                    TimeUnit.MILLISECONDS.sleep(10);
+                }
+                final DocumentDbSshSessionStatistics statistics = pool.getStatistics().get(0);
+                Assertions.assertEquals(1, statistics.getReconnectCount());
+                Assertions.assertTrue(statistics.isConnected());
+                Assertions.assertEquals(2, createdSessions.size());
+
+                // The connection open on the failed session was closed.
+                Assertions.assertEquals(-1, socket.getInputStream().read());
+            } finally {
+                socket.close();
+            }
+
+            Assertions.assertEquals(localPort, pool.getLocalPort());
+            try (Socket newSocket = new Socket(InetAddress.getLoopbackAddress(), localPort)) {
+                assertEcho(newSocket);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Tests that a connection accepted while no session is connected waits for a reconnection.")
+    void testConnectionWaitsForReconnect() throws Exception {
+        final List<LocalForwardingSession> createdSessions = new ArrayList<>();
+        try (DocumentDbSshSessionPool pool = DocumentDbSshSessionPool.open(
+                () -> createSession(createdSessions), 2, scheduler, NO_HEALTH_CHECK_MS)) {
+            for (LocalForwardingSession session : new ArrayList<>(createdSessions)) {
+                session.disconnect();
+            }
+            try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), pool.getLocalPort())) {
+                assertEcho(socket);
+            }
+            Assertions.assertEquals(1, pool.getStatistics().stream()
+                    .filter(DocumentDbSshSessionStatistics::isConnected)
+                    .mapToLong(DocumentDbSshSessionStatistics::getOpenedChannelCount)
+                    .sum());
+        }
+    }
+
+    @Test
+    @DisplayName("Tests that the delay between reconnections doubles after each failure, up to a maximum.")
+    void testReconnectDelay() {
+        Assertions.assertEquals(0, DocumentDbSshSessionPool.getReconnectDelayMillis(0, 1000));
+        Assertions.assertEquals(1000, DocumentDbSshSessionPool.getReconnectDelayMillis(1, 1000));
+        Assertions.assertEquals(2000, DocumentDbSshSessionPool.getReconnectDelayMillis(2, 1000));
+        Assertions.assertEquals(4000, DocumentDbSshSessionPool.getReconnectDelayMillis(3, 1000));
+        Assertions.assertEquals(30000, DocumentDbSshSessionPool.getReconnectDelayMillis(6, 1000));
+        Assertions.assertEquals(30000, DocumentDbSshSessionPool.getReconnectDelayMillis(Integer.MAX_VALUE, 1000));
+        // The delay is never shorter than the health check interval.
+        Assertions.assertEquals(NO_HEALTH_CHECK_MS,
+                DocumentDbSshSessionPool.getReconnectDelayMillis(5, NO_HEALTH_CHECK_MS));
+    }
+
+    @Test
+    @DisplayName("Tests that a session that fails to reconnect is retried with an increasing delay.")
+    void testHealthCheckBacksOffFailedReconnect() throws Exception {
+        final long healthCheckIntervalMillis = 50;
+        final List<LocalForwardingSession> createdSessions = new ArrayList<>();
+        final Queue<Long> attemptNanos = new ConcurrentLinkedQueue<>();
+        try (DocumentDbSshSessionPool pool = DocumentDbSshSessionPool.open(() -> {
+            if (!createdSessions.isEmpty()) {
+                attemptNanos.add(System.nanoTime());
+                throw new SQLException("Connection refused");
+            }
+            return createSession(createdSessions);
+        }, 1, scheduler, healthCheckIntervalMillis)) {
+            createdSessions.get(0).disconnect();
+            TimeUnit.MILLISECONDS.sleep(1500);
+            Assertions.assertFalse(pool.getStatistics().get(0).isConnected());
+        }
+        // Without a delay, the reconnection would be attempted about 30 times.
+        final List<Long> attempts = new ArrayList<>(attemptNanos);
+        Assertions.assertTrue(attempts.size() >= 3 && attempts.size() <= 7, "attempts: " + attempts.size());
+        for (int i = 1; i < attempts.size(); i++) {
+            Assertions.assertTrue(TimeUnit.NANOSECONDS.toMillis(attempts.get(i) - attempts.get(i - 1))
+                    >= DocumentDbSshSessionPool.getReconnectDelayMillis(i, healthCheckIntervalMillis));
+        }
+    }
+
+    private LocalForwardingSession createSession(final List<LocalForwardingSession> createdSessions) {
+        final LocalForwardingSession session = new LocalForwardingSession(echoServer.getPort());
+        synchronized (createdSessions) {
+            createdSessions.add(session);
+        }
+        return session;
+    }
+
+    private static void assertEcho(final Socket socket) throws IOException {
+        socket.setSoTimeout(5000);
+        socket.getOutputStream().write(MESSAGE);
+        socket.getOutputStream().flush();
+        final byte[] received = new byte[MESSAGE.length];
+        new DataInputStream(socket.getInputStream()).readFully(received);
+        Assertions.assertArrayEquals(MESSAGE, received);
+    }
+
+    private static void waitForActiveChannelCount(
+            final DocumentDbSshSessionPool pool,
+            final int expectedCount) throws InterruptedException {
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        int activeCount;
+        do {
+            activeCount = pool.getStatistics().stream()
+                    .mapToInt(DocumentDbSshSessionStatistics::getActiveChannelCount)
+                    .sum();
+            if (activeCount == expectedCount) {
+                return;
+            }
+            TimeUnit.MILLISECONDS.sleep(10);
+        } while (System.nanoTime() < deadline);
+        Assertions.assertEquals(expectedCount, activeCount);
+    }
+
+    private static void copy(final InputStream input, final OutputStream output) {
+        final byte[] buffer = new byte[8192];
+        try {
+            int count;
+            while ((count = input.read(buffer)) >= 0) {
+                output.write(buffer, 0, count);
+                output.flush();
+            }
+        } catch (IOException e) {
+            // The other side of the connection was closed.
+        }
+    }
+
+    private static void closeQuietly(final AutoCloseable closeable) {
+        try {
+            closeable.close();
+        } catch (Exception e) {
+            // Ignore.
+        }
+    }
+
+    /**
+     * A stand-in for an SSH session that forwards each channel with a plain socket to the remote
+     * port.
+     */
+    private static class LocalForwardingSession implements DocumentDbSshSessionPool.ForwardingSession {
+        private final int remotePort;
+        private final Queue<Socket> channels = new ConcurrentLinkedQueue<>();
+        private volatile boolean isConnected = true;
+
+        LocalForwardingSession(final int remotePort) {
+            this.remotePort = remotePort;
+        }
+
+        @Override
+        public void openChannel(final InputStream input, final OutputStream output) throws IOException {
+            if (!isConnected) {
+                throw new IOException("Session is down.");
+            }
+            final Socket remote = new Socket(InetAddress.getLoopbackAddress(), remotePort);
+            channels.add(remote);
+            final Thread sender = new Thread(() -> {
+                copy(input, getOutputStream(remote));
+                closeQuietly(remote);
+            });
+            final Thread receiver = new Thread(() -> {
+                copy(getInputStream(remote), output);
+                closeQuietly(output);
+                closeQuietly(input);
+                channels.remove(remote);
+            });
+            sender.setDaemon(true);
+            receiver.setDaemon(true);
+            sender.start();
+            receiver.start();
+        }
+
+        @Override
+        public boolean isConnected() {
+            return isConnected;
+        }
+
+        @Override
+        public void disconnect() {
+            isConnected = false;
+            for (Socket channel : channels) {
+                closeQuietly(channel);
+            }
+        }
+
+        private static InputStream getInputStream(final Socket socket) {
+            try {
+                return socket.getInputStream();
+            } catch (IOException e) {
+                return new ByteArrayInputStream(new byte[0]);
+            }
+        }
+
+        private static OutputStream getOutputStream(final Socket socket) {
+            try {
+                return socket.getOutputStream();
+            } catch (IOException e) {
+                return new ByteArrayOutputStream();
+            }
+        }
+    }
+
+    /**
+     * A local server that echoes the data received on each connection.
+     */
+    private static class EchoServer implements AutoCloseable {
+        private final ServerSocket serverSocket;
+
+        EchoServer() throws IOException {
+            serverSocket = new ServerSocket(0, 0, InetAddress.getLoopbackAddress());
+            final Thread acceptor = new Thread(this::acceptConnections);
+            acceptor.setDaemon(true);
+            acceptor.start();
+        }
+
+        int getPort() {
+            return serverSocket.getLocalPort();
+        }
+
+        private void acceptConnections() {
+            while (!serverSocket.isClosed()) {
+                try {
+                    final Socket socket = serverSocket.accept();
+                    final Thread echo = new Thread(() -> {
+                        try {
+                            copy(socket.getInputStream(), socket.getOutputStream());
+                        } catch (IOException e) {
+                            // The connection was closed.
+                        } finally {
+                            closeQuietly(socket);
+                        }
+                    });
+                    echo.setDaemon(true);
+                    echo.start();
+                } catch (IOException e) {
+                    return;
+                }
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            serverSocket.close();
+        }
+    }
+}